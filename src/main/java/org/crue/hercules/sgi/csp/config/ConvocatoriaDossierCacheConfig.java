@@ -0,0 +1,34 @@
+package org.crue.hercules.sgi.csp.config;
+
+import java.time.Duration;
+
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaDossier;
+import org.crue.hercules.sgi.csp.util.VersionedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ConvocatoriaDossierCacheConfig
+ * 
+ * Caché de los dossieres de convocatoria por versión.
+ */
+@Configuration
+public class ConvocatoriaDossierCacheConfig {
+
+  /**
+   * Caché de los {@link ConvocatoriaDossier} por id y versión de la
+   * convocatoria.
+   * 
+   * @param ttl        tiempo máximo durante el que se reutiliza un dossier.
+   * @param maxEntries número máximo de dossieres almacenados.
+   * @return la caché
+   */
+  @Bean
+  public VersionedCache<ConvocatoriaDossier> convocatoriaDossierCache(
+      @Value("${sgi.csp.convocatoria-dossier-cache.ttl:10m}") Duration ttl,
+      @Value("${sgi.csp.convocatoria-dossier-cache.max-entries:200}") int maxEntries) {
+    return new VersionedCache<>(ttl, maxEntries);
+  }
+
+}
@@ -0,0 +1,72 @@
+package org.crue.hercules.sgi.csp.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * ExportConfig
+ *
+ * Executor de las respuestas asíncronas (exportaciones con
+ * StreamingResponseBody).
+ */
+@Configuration
+public class ExportConfig implements WebMvcConfigurer {
+
+  /** Nombre del bean del executor */
+  public static final String EXECUTOR = "exportExecutor";
+
+  private final int poolSize;
+  private final int queueCapacity;
+  private final Duration timeout;
+
+  /**
+   * Instancia la configuración de las exportaciones.
+   *
+   * @param poolSize      número de exportaciones simultáneas.
+   * @param queueCapacity número máximo de exportaciones en espera.
+   * @param timeout       tiempo máximo de una exportación.
+   */
+  public ExportConfig(@Value("${sgi.csp.export.pool-size:4}") int poolSize,
+      @Value("${sgi.csp.export.queue-capacity:20}") int queueCapacity,
+      @Value("${sgi.csp.export.timeout:30m}") Duration timeout) {
+    this.poolSize = poolSize;
+    this.queueCapacity = queueCapacity;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Executor acotado en el que se escriben las respuestas asíncronas. Spring Boot
+   * no crea el executor por defecto de Spring MVC cuando ya existe otro executor
+   * (el de {@link ProyectoJobConfig}), por lo que se configura aquí.
+   *
+   * @return el executor
+   */
+  @Bean(EXECUTOR)
+  public ThreadPoolTaskExecutor exportExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("export-");
+    return executor;
+  }
+
+  /**
+   * Usa el executor de las exportaciones con un timeout acorde a su duración en
+   * lugar del timeout por defecto del contenedor.
+   *
+   * @param configurer la configuración de las respuestas asíncronas.
+   */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(exportExecutor());
+    configurer.setDefaultTimeout(timeout.toMillis());
+  }
+
+}
@@ -0,0 +1,42 @@
+package org.crue.hercules.sgi.csp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * ProyectoJobConfig
+ * 
+ * Executor de los trabajos asíncronos de creación de proyectos.
+ */
+@Configuration
+public class ProyectoJobConfig {
+
+  /** Nombre del bean del executor */
+  public static final String EXECUTOR = "proyectoJobExecutor";
+
+  /**
+   * Executor acotado: un número fijo de hilos y una cola de capacidad limitada.
+   * Cuando la cola está llena los nuevos trabajos se rechazan en lugar de
+   * crear más hilos.
+   * 
+   * @param poolSize      número de hilos.
+   * @param queueCapacity número máximo de trabajos en espera.
+   * @return el executor
+   */
+  @Bean(EXECUTOR)
+  public ThreadPoolTaskExecutor proyectoJobExecutor(@Value("${sgi.csp.proyecto-job.pool-size:2}") int poolSize,
+      @Value("${sgi.csp.proyecto-job.queue-capacity:100}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("proyecto-job-");
+    // Los trabajos no terminados se reanudan en el siguiente arranque
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    return executor;
+  }
+
+}
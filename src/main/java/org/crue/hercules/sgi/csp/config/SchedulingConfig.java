@@ -0,0 +1,15 @@
+package org.crue.hercules.sgi.csp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * SchedulingConfig
+ * 
+ * Habilita los trabajos periódicos (@Scheduled) del servicio.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
@@ -0,0 +1,32 @@
+package org.crue.hercules.sgi.csp.config;
+
+import java.time.Duration;
+
+import org.crue.hercules.sgi.csp.util.TotalCountCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * TotalCountCacheConfig
+ * 
+ * Caché de los totales de los listados paginados.
+ */
+@Configuration
+public class TotalCountCacheConfig {
+
+  /**
+   * Caché compartida por los listados que devuelven el total de elementos
+   * estimado.
+   * 
+   * @param ttl        tiempo durante el que se reutiliza un total.
+   * @param maxEntries número máximo de filtros almacenados.
+   * @return la caché
+   */
+  @Bean
+  public TotalCountCache totalCountCache(@Value("${sgi.csp.total-count-cache.ttl:60s}") Duration ttl,
+      @Value("${sgi.csp.total-count-cache.max-entries:1000}") int maxEntries) {
+    return new TotalCountCache(ttl, maxEntries);
+  }
+
+}
@@ -0,0 +1,22 @@
+package org.crue.hercules.sgi.csp.config;
+
+import org.crue.hercules.sgi.csp.controller.version.VersionAgregadoInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * VersionAgregadoConfig
+ *
+ * Peticiones condicionales (ETag, If-None-Match e If-Match) de las
+ * convocatorias, solicitudes y proyectos y de sus colecciones hijas.
+ */
+@Configuration
+public class VersionAgregadoConfig implements WebMvcConfigurer {
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new VersionAgregadoInterceptor());
+  }
+
+}
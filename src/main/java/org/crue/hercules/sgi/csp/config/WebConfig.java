@@ -1,5 +1,8 @@
 package org.crue.hercules.sgi.csp.config;
 
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+
 import org.crue.hercules.sgi.framework.web.config.SgiWebConfig;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
@@ -18,4 +21,23 @@ public class WebConfig extends SgiWebConfig {
     return new ModelMapper();
   }
 
-}
\ No newline at end of file
+  /**
+   * Serializa los proxies de las relaciones LAZY de las entidades con todos sus
+   * datos, igual que cuando las relaciones eran EAGER.
+   * <p>
+   * Las relaciones LAZY que devuelve la API tienen que estar en el entity graph
+   * de la entidad. Como la sesión está cerrada al serializar
+   * (<code>spring.jpa.open-in-view: false</code>), una relación que no se ha
+   * cargado hace fallar la respuesta en lugar de devolverse incompleta.
+   * 
+   * @return el módulo de Jackson para Hibernate
+   */
+  @Bean
+  public Module hibernate5Module() {
+    Hibernate5Module module = new Hibernate5Module();
+    module.enable(Hibernate5Module.Feature.FORCE_LAZY_LOADING);
+    module.disable(Hibernate5Module.Feature.USE_TRANSIENT_ANNOTATION);
+    return module;
+  }
+
+}
@@ -1,11 +1,19 @@
 package org.crue.hercules.sgi.csp.controller;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 import javax.validation.Valid;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.crue.hercules.sgi.csp.controller.version.AgregadoVersionado;
+import org.crue.hercules.sgi.csp.controller.version.VersionAgregado;
+import org.crue.hercules.sgi.csp.controller.version.VersionAgregadoInterceptor;
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaCapacidades;
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaDossier;
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado;
 import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaAreaTematica;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaConceptoGasto;
@@ -37,9 +45,18 @@ import org.crue.hercules.sgi.csp.service.ConvocatoriaHitoService;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaPeriodoJustificacionService;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaPeriodoSeguimientoCientificoService;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaService;
+import org.crue.hercules.sgi.csp.service.SolicitudProyectoPresupuestoService;
+import org.crue.hercules.sgi.csp.util.AutorizacionUnidadesHolder;
+import org.crue.hercules.sgi.csp.util.ExportFormat;
+import org.crue.hercules.sgi.csp.util.ExportWriter;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.crue.hercules.sgi.csp.util.SliceHeaders;
 import org.crue.hercules.sgi.framework.web.bind.annotation.RequestPageable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -48,11 +65,13 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -62,7 +81,22 @@ import lombok.extern.slf4j.Slf4j;
 @RestController
 @RequestMapping("/convocatorias")
 @Slf4j
-public class ConvocatoriaController {
+public class ConvocatoriaController implements AgregadoVersionado {
+
+  /** Columnas de la exportación CSV de {@link Convocatoria} */
+  private static final List<ExportWriter.Column<Convocatoria>> COLUMNAS_EXPORTACION = Arrays.asList(
+      ExportWriter.Column.of("id", Convocatoria::getId),
+      ExportWriter.Column.of("codigo", Convocatoria::getCodigo),
+      ExportWriter.Column.of("titulo", Convocatoria::getTitulo),
+      ExportWriter.Column.of("estado", Convocatoria::getEstado),
+      ExportWriter.Column.of("fechaPublicacion", Convocatoria::getFechaPublicacion),
+      ExportWriter.Column.of("fechaProvisional", Convocatoria::getFechaProvisional),
+      ExportWriter.Column.of("fechaConcesion", Convocatoria::getFechaConcesion),
+      ExportWriter.Column.of("unidadGestionRef", Convocatoria::getUnidadGestionRef),
+      ExportWriter.Column.of("modeloEjecucion",
+          (Convocatoria convocatoria) -> convocatoria.getModeloEjecucion() == null ? null
+              : convocatoria.getModeloEjecucion().getNombre()),
+      ExportWriter.Column.of("activo", Convocatoria::getActivo));
 
   /** ConvocatoriaService service */
   private final ConvocatoriaService service;
@@ -103,6 +137,12 @@ public class ConvocatoriaController {
   /** ConvocatoriaConceptoGastoCodigoEcService */
   private final ConvocatoriaConceptoGastoCodigoEcService convocatoriaConceptoGastoCodigoEcService;
 
+  /** SolicitudProyectoPresupuestoService */
+  private final SolicitudProyectoPresupuestoService solicitudProyectoPresupuestoService;
+
+  /** Mapper con el que se serializan las exportaciones NDJSON */
+  private final ObjectMapper mapper;
+
   /**
    * Instancia un nuevo ConvocatoriaController.
    * 
@@ -119,6 +159,8 @@ public class ConvocatoriaController {
    * @param convocatoriaPeriodoSeguimientoCientificoService {@link ConvocatoriaPeriodoSeguimientoCientificoService}
    * @param convocatoriaConceptoGastoService                {@link ConvocatoriaConceptoGastoService}
    * @param convocatoriaConceptoGastoCodigoEcService        {@link ConvocatoriaConceptoGastoCodigoEcService}
+   * @param solicitudProyectoPresupuestoService             {@link SolicitudProyectoPresupuestoService}
+   * @param mapper                                          {@link ObjectMapper}.
    */
   public ConvocatoriaController(ConvocatoriaService convocatoriaService,
       ConvocatoriaAreaTematicaService convocatoriaAreaTematicaService,
@@ -130,7 +172,8 @@ public class ConvocatoriaController {
       ConvocatoriaPeriodoJustificacionService convocatoriaPeriodoJustificacionService,
       ConvocatoriaPeriodoSeguimientoCientificoService convocatoriaPeriodoSeguimientoCientificoService,
       ConvocatoriaConceptoGastoService convocatoriaConceptoGastoService,
-      ConvocatoriaConceptoGastoCodigoEcService convocatoriaConceptoGastoCodigoEcService) {
+      ConvocatoriaConceptoGastoCodigoEcService convocatoriaConceptoGastoCodigoEcService,
+      SolicitudProyectoPresupuestoService solicitudProyectoPresupuestoService, ObjectMapper mapper) {
     this.service = convocatoriaService;
     this.convocatoriaAreaTematicaService = convocatoriaAreaTematicaService;
     this.convocatoriaDocumentoService = convocatoriaDocumentoService;
@@ -144,6 +187,8 @@ public class ConvocatoriaController {
     this.convocatoriaPeriodoSeguimientoCientificoService = convocatoriaPeriodoSeguimientoCientificoService;
     this.convocatoriaConceptoGastoService = convocatoriaConceptoGastoService;
     this.convocatoriaConceptoGastoCodigoEcService = convocatoriaConceptoGastoCodigoEcService;
+    this.solicitudProyectoPresupuestoService = solicitudProyectoPresupuestoService;
+    this.mapper = mapper;
   }
 
   /**
@@ -159,12 +204,7 @@ public class ConvocatoriaController {
       Authentication authentication) {
     log.debug("create(Convocatoria convocatoria) - start");
 
-    List<String> acronimosUnidadGestion = authentication.getAuthorities().stream().map(acronimo -> {
-      if (acronimo.getAuthority().indexOf("_") > 0) {
-        return acronimo.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> acronimosUnidadGestion = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
 
     Convocatoria returnValue = service.create(convocatoria, acronimosUnidadGestion);
     log.debug("create(Convocatoria convocatoria) - end");
@@ -176,28 +216,42 @@ public class ConvocatoriaController {
    * 
    * @param convocatoria   {@link Convocatoria} a actualizar.
    * @param id             Identificador {@link Convocatoria} a actualizar.
+   * @param version        versión de la cabecera If-Match, si se ha indicado.
    * @param authentication {@link Authentication}.
    * @return Convocatoria {@link Convocatoria} actualizado
    */
+  @VersionAgregado
   @PutMapping("/{id}")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CONV-E')")
   public Convocatoria update(@Valid @RequestBody Convocatoria convocatoria, @PathVariable Long id,
+      @RequestAttribute(name = VersionAgregadoInterceptor.VERSION_ESPERADA, required = false) Long version,
       Authentication authentication) {
     log.debug("update(Convocatoria convocatoria, Long id) - start");
 
-    List<String> acronimosUnidadGestion = authentication.getAuthorities().stream().map(acronimo -> {
-      if (acronimo.getAuthority().indexOf("_") > 0) {
-        return acronimo.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> acronimosUnidadGestion = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
 
     convocatoria.setId(id);
-    Convocatoria returnValue = service.update(convocatoria, acronimosUnidadGestion);
+    Convocatoria returnValue = version == null ? service.update(convocatoria, acronimosUnidadGestion)
+        : service.update(convocatoria, acronimosUnidadGestion, version);
     log.debug("update(Convocatoria convocatoria, Long id) - end");
     return returnValue;
   }
 
+  /**
+   * Obtiene la versión de la {@link Convocatoria}, con la que se identifican las
+   * respuestas de los endpoints anotados con {@link VersionAgregado}.
+   *
+   * @param id Identificador de la {@link Convocatoria}.
+   * @return la versión, vacía si no existe.
+   */
+  @Override
+  public Optional<Long> findVersion(Long id) {
+    log.debug("findVersion(Long id) - start");
+    Optional<Long> returnValue = service.findVersion(id);
+    log.debug("findVersion(Long id) - end");
+    return returnValue;
+  }
+
   /**
    * Registra la {@link Convocatoria} con id indicado.
    * 
@@ -294,6 +348,29 @@ public class ConvocatoriaController {
     return returnValue ? new ResponseEntity<>(HttpStatus.OK) : new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
+  /**
+   * Obtiene en una única petición las comprobaciones (modificable, registrable y vinculaciones) de
+   * varias {@link Convocatoria}.
+   *
+   * @param ids Ids de las {@link Convocatoria} (máximo 100).
+   * @return HTTP-200 con las capacidades de cada {@link Convocatoria} existente /
+   *         HTTP-204 si no existe ninguna
+   */
+  @PostMapping("/capacidades")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-CONV-V')")
+  ResponseEntity<List<ConvocatoriaCapacidades>> capacidades(@RequestBody List<Long> ids) {
+    log.debug("capacidades(List<Long> ids) - start");
+    List<ConvocatoriaCapacidades> returnValue = service.findCapacidades(ids);
+
+    if (returnValue.isEmpty()) {
+      log.debug("capacidades(List<Long> ids) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    log.debug("capacidades(List<Long> ids) - end");
+    return new ResponseEntity<>(returnValue, HttpStatus.OK);
+  }
+
   /**
    * Comprueba la existencia del {@link Convocatoria} con el id indicado.
    * 
@@ -348,6 +425,7 @@ public class ConvocatoriaController {
    * @param id Identificador de {@link Convocatoria}.
    * @return Convocatoria {@link Convocatoria} correspondiente al id
    */
+  @VersionAgregado
   @GetMapping("/{id}")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CONV-V')")
   Convocatoria findById(@PathVariable Long id) {
@@ -357,6 +435,51 @@ public class ConvocatoriaController {
     return returnValue;
   }
 
+  /**
+   * Devuelve la {@link Convocatoria} con el id indicado junto con su
+   * configuración, sus requisitos y sus colecciones hijas, sin paginar, en una
+   * única respuesta.
+   * 
+   * @param id Identificador de {@link Convocatoria}.
+   * @return el {@link ConvocatoriaDossier} de la {@link Convocatoria}.
+   */
+  @GetMapping("/{id}/dossier")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-CONV-V')")
+  ConvocatoriaDossier findDossier(@PathVariable Long id) {
+    log.debug("findDossier(Long id) - start");
+    ConvocatoriaDossier returnValue = service.findDossier(id);
+    log.debug("findDossier(Long id) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene el presupuesto de todas las solicitudes de la {@link Convocatoria}
+   * agregado por las dimensiones indicadas, con los subtotales de cada nivel y
+   * el total.
+   *
+   * @param id   Identificador de {@link Convocatoria}.
+   * @param dims dimensiones por las que se agrega, en orden (conceptoGasto,
+   *             entidadRef, anualidad, financiacionAjena). Si no se indican se
+   *             agrega por todas.
+   * @return el listado de {@link SolicitudProyectoPresupuestoAgregado}.
+   */
+  @GetMapping("/{id}/presupuesto/agregado")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-CONV-V')")
+  public ResponseEntity<List<SolicitudProyectoPresupuestoAgregado>> findPresupuestoAgregado(@PathVariable Long id,
+      @RequestParam(name = "dims", required = false) List<String> dims) {
+    log.debug("findPresupuestoAgregado(Long id, List<String> dims) - start");
+    List<SolicitudProyectoPresupuestoAgregado> returnValue = solicitudProyectoPresupuestoService
+        .findAgregadoConvocatoria(id, SolicitudProyectoPresupuestoAgregado.Dimension.of(dims));
+
+    if (returnValue.isEmpty()) {
+      log.debug("findPresupuestoAgregado(Long id, List<String> dims) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    log.debug("findPresupuestoAgregado(Long id, List<String> dims) - end");
+    return new ResponseEntity<>(returnValue, HttpStatus.OK);
+  }
+
   /**
    * Devuelve una lista paginada y filtrada {@link Convocatoria} activas.
    * 
@@ -380,6 +503,85 @@ public class ConvocatoriaController {
     return new ResponseEntity<>(page, HttpStatus.OK);
   }
 
+  /**
+   * Devuelve la página de {@link Convocatoria} activas filtradas que sigue al
+   * cursor indicado.
+   * Paginación por cursor: no calcula el total de elementos y devuelve el
+   * cursor de la página siguiente en la cabecera
+   * {@value KeysetSlice#NEXT_CURSOR_HEADER}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Convocatoria} de la página.
+   */
+  @GetMapping(params = "cursor")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-CONV-V')")
+  ResponseEntity<List<Convocatoria>> findAllKeyset(@RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "cursor") String cursor, @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllKeyset(String query, String cursor, Pageable paging) - start");
+    KeysetSlice<Convocatoria> slice = service.findAll(query, cursor, paging);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllKeyset(String query, String cursor, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    HttpHeaders headers = new HttpHeaders();
+    if (slice.hasNext()) {
+      headers.add(KeysetSlice.NEXT_CURSOR_HEADER, slice.getNextCursor());
+    }
+    log.debug("findAllKeyset(String query, String cursor, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Convocatoria} activas filtradas, sin el
+   * número total de elementos: devuelve si hay página siguiente en la cabecera
+   * {@value SliceHeaders#HAS_NEXT}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Convocatoria} de la página.
+   */
+  @GetMapping(params = { "total=none", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-CONV-V')")
+  ResponseEntity<List<Convocatoria>> findAllSinTotal(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllSinTotal(String query, Pageable paging) - start");
+    Slice<Convocatoria> slice = service.findAllSinTotal(query, paging);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllSinTotal(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllSinTotal(String query, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), SliceHeaders.of(slice), HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Convocatoria} activas filtradas, con el
+   * número total de elementos estimado, que se reutiliza durante un tiempo para
+   * el mismo filtro.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Convocatoria} paginadas y filtradas.
+   */
+  @GetMapping(params = { "total=cache", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-CONV-V')")
+  ResponseEntity<Page<Convocatoria>> findAllTotalEstimado(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllTotalEstimado(String query, Pageable paging) - start");
+    Page<Convocatoria> page = service.findAllTotalEstimado(query, paging);
+
+    if (page.isEmpty()) {
+      log.debug("findAllTotalEstimado(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTotalEstimado(String query, Pageable paging) - end");
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
   /**
    * Devuelve una lista paginada y filtrada {@link Convocatoria} activas.
    * 
@@ -416,12 +618,7 @@ public class ConvocatoriaController {
       @RequestPageable(sort = "s") Pageable paging, Authentication atuhentication) {
     log.debug("findAllRestringidos(String query, Pageable paging, Authentication atuhentication) - start");
 
-    List<String> acronimosUnidadGestion = atuhentication.getAuthorities().stream().map(acronimo -> {
-      if (acronimo.getAuthority().indexOf("_") > 0) {
-        return acronimo.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> acronimosUnidadGestion = AutorizacionUnidadesHolder.get(atuhentication).getUnidadesGestion();
 
     Page<Convocatoria> page = service.findAllRestringidos(query, paging, acronimosUnidadGestion);
 
@@ -455,6 +652,85 @@ public class ConvocatoriaController {
     return new ResponseEntity<>(page, HttpStatus.OK);
   }
 
+  /**
+   * Devuelve la página de {@link Convocatoria} filtradas que sigue al cursor
+   * indicado.
+   * Paginación por cursor: no calcula el total de elementos y devuelve el
+   * cursor de la página siguiente en la cabecera
+   * {@value KeysetSlice#NEXT_CURSOR_HEADER}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Convocatoria} de la página.
+   */
+  @GetMapping(path = "/todos", params = "cursor")
+  // @PreAuthorize("hasAuthorityForAnyUO('SYSADMIN')")
+  ResponseEntity<List<Convocatoria>> findAllTodosKeyset(@RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "cursor") String cursor, @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllTodosKeyset(String query, String cursor, Pageable paging) - start");
+    KeysetSlice<Convocatoria> slice = service.findAllTodos(query, cursor, paging);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllTodosKeyset(String query, String cursor, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    HttpHeaders headers = new HttpHeaders();
+    if (slice.hasNext()) {
+      headers.add(KeysetSlice.NEXT_CURSOR_HEADER, slice.getNextCursor());
+    }
+    log.debug("findAllTodosKeyset(String query, String cursor, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Convocatoria} filtradas, sin el número
+   * total de elementos: devuelve si hay página siguiente en la cabecera {@value
+   * SliceHeaders#HAS_NEXT}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Convocatoria} de la página.
+   */
+  @GetMapping(path = "/todos", params = { "total=none", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('SYSADMIN')")
+  ResponseEntity<List<Convocatoria>> findAllTodosSinTotal(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllTodosSinTotal(String query, Pageable paging) - start");
+    Slice<Convocatoria> slice = service.findAllTodosSinTotal(query, paging);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllTodosSinTotal(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTodosSinTotal(String query, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), SliceHeaders.of(slice), HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Convocatoria} filtradas, con el número
+   * total de elementos estimado, que se reutiliza durante un tiempo para el mismo
+   * filtro.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Convocatoria} paginadas y filtradas.
+   */
+  @GetMapping(path = "/todos", params = { "total=cache", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('SYSADMIN')")
+  ResponseEntity<Page<Convocatoria>> findAllTodosTotalEstimado(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - start");
+    Page<Convocatoria> page = service.findAllTodosTotalEstimado(query, paging);
+
+    if (page.isEmpty()) {
+      log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - end");
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
   /**
    * Devuelve una lista paginada y filtrada {@link Convocatoria}.
    * 
@@ -468,12 +744,7 @@ public class ConvocatoriaController {
       @RequestPageable(sort = "s") Pageable paging, Authentication authentication) {
     log.debug("findAllTodosRestringidos(String query,Pageable paging, Authentication authentication) - start");
 
-    List<String> acronimosUnidadGestion = authentication.getAuthorities().stream().map(acronimo -> {
-      if (acronimo.getAuthority().indexOf("_") > 0) {
-        return acronimo.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> acronimosUnidadGestion = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
 
     Page<Convocatoria> page = service.findAllTodosRestringidos(query, paging, acronimosUnidadGestion);
 
@@ -485,6 +756,132 @@ public class ConvocatoriaController {
     return new ResponseEntity<>(page, HttpStatus.OK);
   }
 
+  /**
+   * Devuelve la página de {@link Convocatoria} filtradas de las unidades de
+   * gestión del usuario logueado que sigue al cursor indicado.
+   * Paginación por cursor: no calcula el total de elementos y devuelve el
+   * cursor de la página siguiente en la cabecera
+   * {@value KeysetSlice#NEXT_CURSOR_HEADER}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Convocatoria} de la página.
+   */
+  @GetMapping(path = "/todos/restringidos", params = "cursor")
+  // @PreAuthorize("hasAuthorityForAnyUO('SYSADMIN')")
+  ResponseEntity<List<Convocatoria>> findAllTodosRestringidosKeyset(
+      @RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "cursor") String cursor, @RequestPageable(sort = "s") Pageable paging,
+      Authentication authentication) {
+    log.debug("findAllTodosRestringidosKeyset(String query, String cursor, Pageable paging) - start");
+
+    List<String> acronimosUnidadGestion = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    KeysetSlice<Convocatoria> slice = service.findAllTodosRestringidos(query, cursor, paging,
+        acronimosUnidadGestion);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllTodosRestringidosKeyset(String query, String cursor, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    HttpHeaders headers = new HttpHeaders();
+    if (slice.hasNext()) {
+      headers.add(KeysetSlice.NEXT_CURSOR_HEADER, slice.getNextCursor());
+    }
+    log.debug("findAllTodosRestringidosKeyset(String query, String cursor, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Convocatoria} filtradas de las unidades
+   * de gestión del usuario logueado, sin el número total de elementos: devuelve
+   * si hay página siguiente en la cabecera {@value SliceHeaders#HAS_NEXT}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Convocatoria} de la página.
+   */
+  @GetMapping(path = "/todos/restringidos", params = { "total=none", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('SYSADMIN')")
+  ResponseEntity<List<Convocatoria>> findAllTodosRestringidosSinTotal(
+      @RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging, Authentication authentication) {
+    log.debug("findAllTodosRestringidosSinTotal(String query, Pageable paging) - start");
+
+    List<String> acronimosUnidadGestion = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    Slice<Convocatoria> slice = service.findAllTodosRestringidosSinTotal(query, paging,
+        acronimosUnidadGestion);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllTodosRestringidosSinTotal(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTodosRestringidosSinTotal(String query, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), SliceHeaders.of(slice), HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Convocatoria} filtradas de las unidades
+   * de gestión del usuario logueado, con el número total de elementos estimado,
+   * que se reutiliza durante un tiempo para el mismo filtro.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Convocatoria} paginadas y filtradas.
+   */
+  @GetMapping(path = "/todos/restringidos", params = { "total=cache", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('SYSADMIN')")
+  ResponseEntity<Page<Convocatoria>> findAllTodosRestringidosTotalEstimado(
+      @RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging, Authentication authentication) {
+    log.debug("findAllTodosRestringidosTotalEstimado(String query, Pageable paging) - start");
+
+    List<String> acronimosUnidadGestion = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    Page<Convocatoria> page = service.findAllTodosRestringidosTotalEstimado(query, paging,
+        acronimosUnidadGestion);
+
+    if (page.isEmpty()) {
+      log.debug("findAllTodosRestringidosTotalEstimado(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTodosRestringidosTotalEstimado(String query, Pageable paging) - end");
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  /**
+   * Exporta las {@link Convocatoria} filtradas de las unidades de gestión del
+   * usuario logueado, con el mismo filtro que {@code /todos/restringidos} pero
+   * sin paginar. Las filas se escriben en la respuesta a medida que se leen de
+   * la base de datos.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param format formato de la exportación (ndjson o csv).
+   * @return las entidades {@link Convocatoria} en el formato indicado.
+   */
+  @GetMapping("/export")
+  // @PreAuthorize("hasAuthorityForAnyUO('SYSADMIN')")
+  ResponseEntity<StreamingResponseBody> export(@RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "format", defaultValue = "ndjson") String format, Authentication authentication) {
+    log.debug("export(String query, String format, Authentication authentication) - start");
+    ExportFormat exportFormat = ExportFormat.of(format);
+
+    List<String> acronimosUnidadGestion = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    StreamingResponseBody body = out -> {
+      try (ExportWriter<Convocatoria> writer = ExportWriter.of(exportFormat, out, mapper, COLUMNAS_EXPORTACION)) {
+        service.exportTodosRestringidos(query, acronimosUnidadGestion, writer);
+      }
+    };
+    log.debug("export(String query, String format, Authentication authentication) - end");
+    return ResponseEntity.ok().contentType(exportFormat.getMediaType())
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder("attachment")
+            .filename("convocatorias." + exportFormat.getExtension()).build().toString())
+        .body(body);
+  }
+
   /**
    * 
    * CONVOCATORIA HITO
@@ -499,6 +896,7 @@ public class ConvocatoriaController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriahitos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CENTGES-V')")
   ResponseEntity<Page<ConvocatoriaHito>> findAllConvocatoriaHito(@PathVariable Long id,
@@ -529,6 +927,7 @@ public class ConvocatoriaController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriaentidadfinanciadoras")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CATEM-V')")
   ResponseEntity<Page<ConvocatoriaEntidadFinanciadora>> findAllConvocatoriaEntidadFinanciadora(@PathVariable Long id,
@@ -561,6 +960,7 @@ public class ConvocatoriaController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriaentidadgestoras")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CENTGES-V')")
   ResponseEntity<Page<ConvocatoriaEntidadGestora>> findAllConvocatoriaEntidadGestora(@PathVariable Long id,
@@ -591,6 +991,7 @@ public class ConvocatoriaController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriafases")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CFAS-V')")
   ResponseEntity<Page<ConvocatoriaFase>> findAllConvocatoriaFases(@PathVariable Long id,
@@ -621,6 +1022,7 @@ public class ConvocatoriaController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriaareatematicas")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CATEM-V')")
   ResponseEntity<Page<ConvocatoriaAreaTematica>> findAllConvocatoriaAreaTematica(@PathVariable Long id,
@@ -651,6 +1053,7 @@ public class ConvocatoriaController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriadocumentos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CENTGES-V')")
   ResponseEntity<Page<ConvocatoriaDocumento>> findAllConvocatoriaDocumento(@PathVariable Long id,
@@ -681,6 +1084,7 @@ public class ConvocatoriaController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriaenlaces")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CENTGES-V')")
   ResponseEntity<Page<ConvocatoriaEnlace>> findAllConvocatoriaEnlace(@PathVariable Long id,
@@ -711,6 +1115,7 @@ public class ConvocatoriaController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriaentidadconvocantes")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CENTGES-V')")
   ResponseEntity<Page<ConvocatoriaEntidadConvocante>> findAllConvocatoriaEntidadConvocantes(@PathVariable Long id,
@@ -742,6 +1147,7 @@ public class ConvocatoriaController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriaperiodojustificaciones")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CATEM-V')")
   ResponseEntity<Page<ConvocatoriaPeriodoJustificacion>> findAllConvocatoriaPeriodoJustificacion(@PathVariable Long id,
@@ -773,6 +1179,7 @@ public class ConvocatoriaController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriaperiodoseguimientocientificos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CPSCI-V')")
   ResponseEntity<Page<ConvocatoriaPeriodoSeguimientoCientifico>> findAllConvocatoriaPeriodoSeguimientoCientifico(
@@ -804,6 +1211,7 @@ public class ConvocatoriaController {
    * @param id     Identificador de {@link Convocatoria}.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriagastos/permitidos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CPSCI-V')")
   ResponseEntity<Page<ConvocatoriaConceptoGasto>> findAllConvocatoriaGastosPermitidos(@PathVariable Long id,
@@ -827,6 +1235,7 @@ public class ConvocatoriaController {
    * @param id     Identificador de {@link Convocatoria}.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriagastos/nopermitidos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CPSCI-V')")
   ResponseEntity<Page<ConvocatoriaConceptoGasto>> findAllConvocatoriaGastosNoPermitidos(@PathVariable Long id,
@@ -858,6 +1267,7 @@ public class ConvocatoriaController {
    * @param id     Identificador de {@link ConvocatoriaConceptoGasto}.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriagastocodigoec/permitidos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CCOD-V')")
   ResponseEntity<Page<ConvocatoriaConceptoGastoCodigoEc>> findAllConvocatoriaGastosCodigoEcPermitidos(
@@ -882,6 +1292,7 @@ public class ConvocatoriaController {
    * @param id     Identificador de {@link Convocatoria}.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/convocatoriagastocodigoec/nopermitidos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CCOD-V')")
   ResponseEntity<Page<ConvocatoriaConceptoGastoCodigoEc>> findAllConvocatoriaGastosCodigoEcNoPermitidos(
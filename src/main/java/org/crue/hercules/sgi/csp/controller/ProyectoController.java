@@ -1,7 +1,19 @@
 package org.crue.hercules.sgi.csp.controller;
 
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
 import javax.validation.Valid;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.crue.hercules.sgi.csp.controller.version.AgregadoVersionado;
+import org.crue.hercules.sgi.csp.controller.version.VersionAgregado;
+import org.crue.hercules.sgi.csp.controller.version.VersionAgregadoInterceptor;
+import org.crue.hercules.sgi.csp.dto.ProyectoCapacidades;
+import org.crue.hercules.sgi.csp.dto.ProyectoDossier;
 import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.EstadoProyecto;
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
@@ -12,6 +24,7 @@ import org.crue.hercules.sgi.csp.model.ProyectoEntidadGestora;
 import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
 import org.crue.hercules.sgi.csp.model.ProyectoFase;
 import org.crue.hercules.sgi.csp.model.ProyectoHito;
+import org.crue.hercules.sgi.csp.model.ProyectoJob;
 import org.crue.hercules.sgi.csp.model.ProyectoPaqueteTrabajo;
 import org.crue.hercules.sgi.csp.model.ProyectoPeriodoSeguimiento;
 import org.crue.hercules.sgi.csp.model.ProyectoProrroga;
@@ -24,14 +37,22 @@ import org.crue.hercules.sgi.csp.service.ProyectoEntidadGestoraService;
 import org.crue.hercules.sgi.csp.service.ProyectoEquipoService;
 import org.crue.hercules.sgi.csp.service.ProyectoFaseService;
 import org.crue.hercules.sgi.csp.service.ProyectoHitoService;
+import org.crue.hercules.sgi.csp.service.ProyectoJobService;
 import org.crue.hercules.sgi.csp.service.ProyectoPaqueteTrabajoService;
 import org.crue.hercules.sgi.csp.service.ProyectoPeriodoSeguimientoService;
 import org.crue.hercules.sgi.csp.service.ProyectoProrrogaService;
 import org.crue.hercules.sgi.csp.service.ProyectoService;
 import org.crue.hercules.sgi.csp.service.ProyectoSocioService;
+import org.crue.hercules.sgi.csp.util.ExportFormat;
+import org.crue.hercules.sgi.csp.util.ExportWriter;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.crue.hercules.sgi.csp.util.SliceHeaders;
 import org.crue.hercules.sgi.framework.web.bind.annotation.RequestPageable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -39,11 +60,14 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -53,11 +77,31 @@ import lombok.extern.slf4j.Slf4j;
 @RestController
 @RequestMapping(ProyectoController.REQUEST_MAPPING)
 @Slf4j
-public class ProyectoController {
+public class ProyectoController implements AgregadoVersionado {
 
   /** El path que gestiona este controlador */
   public static final String REQUEST_MAPPING = "/proyectos";
 
+  /** El path de los trabajos de creación asíncrona */
+  public static final String PATH_JOBS = "/jobs";
+
+  /** Columnas de la exportación CSV de {@link Proyecto} */
+  private static final List<ExportWriter.Column<Proyecto>> COLUMNAS_EXPORTACION = Arrays.asList(
+      ExportWriter.Column.of("id", Proyecto::getId),
+      ExportWriter.Column.of("codigoExterno", Proyecto::getCodigoExterno),
+      ExportWriter.Column.of("titulo", Proyecto::getTitulo),
+      ExportWriter.Column.of("acronimo", Proyecto::getAcronimo),
+      ExportWriter.Column.of("estado", (Proyecto proyecto) -> proyecto.getEstado() == null ? null
+          : proyecto.getEstado().getEstado()),
+      ExportWriter.Column.of("fechaInicio", Proyecto::getFechaInicio),
+      ExportWriter.Column.of("fechaFin", Proyecto::getFechaFin),
+      ExportWriter.Column.of("unidadGestionRef", Proyecto::getUnidadGestionRef),
+      ExportWriter.Column.of("modeloEjecucion", (Proyecto proyecto) -> proyecto.getModeloEjecucion() == null ? null
+          : proyecto.getModeloEjecucion().getNombre()),
+      ExportWriter.Column.of("convocatoriaId", Proyecto::getConvocatoriaId),
+      ExportWriter.Column.of("solicitudId", Proyecto::getSolicitudId),
+      ExportWriter.Column.of("activo", Proyecto::getActivo));
+
   /** Proyecto service */
   private final ProyectoService service;
 
@@ -95,6 +139,12 @@ public class ProyectoController {
   /** EstadoProyecto service */
   private final EstadoProyectoService estadoProyectoService;
 
+  /** ProyectoJob service */
+  private final ProyectoJobService proyectoJobService;
+
+  /** Mapper con el que se serializan las exportaciones NDJSON */
+  private final ObjectMapper mapper;
+
   /**
    * Instancia un nuevo ProyectoController.
    * 
@@ -112,6 +162,8 @@ public class ProyectoController {
    * @param proyectoProrrogaService            {@link ProyectoProrrogaService}.
    * @param proyectoDocumentoService           {@link ProyectoDocumentoService}.
    * @param proyectoDocumentoService           {@link ProyectoDocumentoService}.
+   * @param proyectoJobService                 {@link ProyectoJobService}.
+   * @param mapper                             {@link ObjectMapper}.
    */
   public ProyectoController(ProyectoService proyectoService, ProyectoHitoService proyectoHitoService,
       ProyectoFaseService proyectoFaseService, ProyectoPaqueteTrabajoService proyectoPaqueteTrabajoService,
@@ -119,7 +171,8 @@ public class ProyectoController {
       ProyectoEntidadFinanciadoraService proyectoEntidadFinanciadoraService,
       ProyectoPeriodoSeguimientoService proyectoPeriodoSeguimientoService,
       ProyectoProrrogaService proyectoProrrogaService, ProyectoEntidadGestoraService proyectoEntidadGestoraService,
-      ProyectoDocumentoService proyectoDocumentoService, EstadoProyectoService estadoProyectoService) {
+      ProyectoDocumentoService proyectoDocumentoService, EstadoProyectoService estadoProyectoService,
+      ProyectoJobService proyectoJobService, ObjectMapper mapper) {
     this.service = proyectoService;
     this.proyectoHitoService = proyectoHitoService;
     this.proyectoFaseService = proyectoFaseService;
@@ -132,6 +185,8 @@ public class ProyectoController {
     this.proyectoEquipoService = proyectoEquipoService;
     this.proyectoProrrogaService = proyectoProrrogaService;
     this.estadoProyectoService = estadoProyectoService;
+    this.proyectoJobService = proyectoJobService;
+    this.mapper = mapper;
   }
 
   /**
@@ -155,19 +210,37 @@ public class ProyectoController {
    * 
    * @param proyecto {@link Proyecto} a actualizar.
    * @param id       Identificador {@link Proyecto} a actualizar.
+   * @param version  versión de la cabecera If-Match, si se ha indicado.
    * @return Proyecto {@link Proyecto} actualizado
    */
+  @VersionAgregado
   @PutMapping("/{id}")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-E')")
-  public Proyecto update(@Valid @RequestBody Proyecto proyecto, @PathVariable Long id) {
+  public Proyecto update(@Valid @RequestBody Proyecto proyecto, @PathVariable Long id,
+      @RequestAttribute(name = VersionAgregadoInterceptor.VERSION_ESPERADA, required = false) Long version) {
     log.debug("update(Proyecto proyecto, Long id) - start");
 
     proyecto.setId(id);
-    Proyecto returnValue = service.update(proyecto);
+    Proyecto returnValue = version == null ? service.update(proyecto) : service.update(proyecto, version);
     log.debug("update(Proyecto proyecto, Long id) - end");
     return returnValue;
   }
 
+  /**
+   * Obtiene la versión del {@link Proyecto}, con la que se identifican las
+   * respuestas de los endpoints anotados con {@link VersionAgregado}.
+   *
+   * @param id Identificador del {@link Proyecto}.
+   * @return la versión, vacía si no existe.
+   */
+  @Override
+  public Optional<Long> findVersion(Long id) {
+    log.debug("findVersion(Long id) - start");
+    Optional<Long> returnValue = service.findVersion(id);
+    log.debug("findVersion(Long id) - end");
+    return returnValue;
+  }
+
   /**
    * Reactiva el {@link Proyecto} con id indicado.
    * 
@@ -217,6 +290,29 @@ public class ProyectoController {
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
+  /**
+   * Obtiene en una única petición las comprobaciones (modificable) de
+   * varias {@link Proyecto}.
+   *
+   * @param ids Ids de las {@link Proyecto} (máximo 100).
+   * @return HTTP-200 con las capacidades de cada {@link Proyecto} existente /
+   *         HTTP-204 si no existe ninguna
+   */
+  @PostMapping("/capacidades")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
+  ResponseEntity<List<ProyectoCapacidades>> capacidades(@RequestBody List<Long> ids) {
+    log.debug("capacidades(List<Long> ids) - start");
+    List<ProyectoCapacidades> returnValue = service.findCapacidades(ids);
+
+    if (returnValue.isEmpty()) {
+      log.debug("capacidades(List<Long> ids) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    log.debug("capacidades(List<Long> ids) - end");
+    return new ResponseEntity<>(returnValue, HttpStatus.OK);
+  }
+
   /**
    * Obtiene el {@link ModeloEjecucion} asignada al {@link Proyecto}.
    * 
@@ -238,6 +334,7 @@ public class ProyectoController {
    * @param id Identificador de {@link Proyecto}.
    * @return Proyecto {@link Proyecto} correspondiente al id
    */
+  @VersionAgregado
   @GetMapping("/{id}")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
   Proyecto findById(@PathVariable Long id) {
@@ -248,6 +345,25 @@ public class ProyectoController {
     return returnValue;
   }
 
+  /**
+   * Devuelve el {@link Proyecto} con el id indicado junto con sus colecciones
+   * hijas, sin paginar, en una única respuesta.
+   * 
+   * @param id      Identificador de {@link Proyecto}.
+   * @param include secciones a cargar (con el nombre del listado equivalente,
+   *                p.e. proyectohitos). Si no se indica se cargan todas.
+   * @return el {@link ProyectoDossier} del {@link Proyecto}.
+   */
+  @GetMapping("/{id}/dossier")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
+  ProyectoDossier findDossier(@PathVariable Long id,
+      @RequestParam(name = "include", required = false) List<String> include) {
+    log.debug("findDossier(Long id, List<String> include) - start");
+    ProyectoDossier returnValue = service.findDossier(id, ProyectoDossier.Seccion.of(include));
+    log.debug("findDossier(Long id, List<String> include) - end");
+    return returnValue;
+  }
+
   /**
    * Devuelve una lista paginada y filtrada {@link Proyecto} activas que se
    * encuentren dentro de la unidad de gestión del usuario logueado
@@ -273,6 +389,86 @@ public class ProyectoController {
     return new ResponseEntity<>(page, HttpStatus.OK);
   }
 
+  /**
+   * Devuelve la página de {@link Proyecto} activos filtrados de la unidad de
+   * gestión del usuario logueado que sigue al cursor indicado.
+   * Paginación por cursor: no calcula el total de elementos y devuelve el
+   * cursor de la página siguiente en la cabecera
+   * {@value KeysetSlice#NEXT_CURSOR_HEADER}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Proyecto} de la página.
+   */
+  @GetMapping(params = "cursor")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
+  ResponseEntity<List<Proyecto>> findAllKeyset(@RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "cursor") String cursor, @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllKeyset(String query, String cursor, Pageable paging) - start");
+    KeysetSlice<Proyecto> slice = service.findAllRestringidos(query, cursor, paging);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllKeyset(String query, String cursor, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    HttpHeaders headers = new HttpHeaders();
+    if (slice.hasNext()) {
+      headers.add(KeysetSlice.NEXT_CURSOR_HEADER, slice.getNextCursor());
+    }
+    log.debug("findAllKeyset(String query, String cursor, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Proyecto} activos filtrados de la
+   * unidad de gestión del usuario logueado, sin el número total de elementos:
+   * devuelve si hay página siguiente en la cabecera {@value
+   * SliceHeaders#HAS_NEXT}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Proyecto} de la página.
+   */
+  @GetMapping(params = { "total=none", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
+  ResponseEntity<List<Proyecto>> findAllSinTotal(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllSinTotal(String query, Pageable paging) - start");
+    Slice<Proyecto> slice = service.findAllRestringidosSinTotal(query, paging);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllSinTotal(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllSinTotal(String query, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), SliceHeaders.of(slice), HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Proyecto} activos filtrados de la
+   * unidad de gestión del usuario logueado, con el número total de elementos
+   * estimado, que se reutiliza durante un tiempo para el mismo filtro.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Proyecto} paginadas y filtradas.
+   */
+  @GetMapping(params = { "total=cache", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
+  ResponseEntity<Page<Proyecto>> findAllTotalEstimado(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllTotalEstimado(String query, Pageable paging) - start");
+    Page<Proyecto> page = service.findAllRestringidosTotalEstimado(query, paging);
+
+    if (page.isEmpty()) {
+      log.debug("findAllTotalEstimado(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTotalEstimado(String query, Pageable paging) - end");
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
   /**
    * Devuelve una lista paginada y filtrada {@link Proyecto} que se encuentren
    * dentro de la unidad de gestión del usuario logueado
@@ -298,6 +494,112 @@ public class ProyectoController {
     return new ResponseEntity<>(page, HttpStatus.OK);
   }
 
+  /**
+   * Devuelve la página de {@link Proyecto} filtrados de la unidad de gestión
+   * del usuario logueado que sigue al cursor indicado.
+   * Paginación por cursor: no calcula el total de elementos y devuelve el
+   * cursor de la página siguiente en la cabecera
+   * {@value KeysetSlice#NEXT_CURSOR_HEADER}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Proyecto} de la página.
+   */
+  @GetMapping(path = "/todos", params = "cursor")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
+  ResponseEntity<List<Proyecto>> findAllTodosKeyset(@RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "cursor") String cursor, @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllTodosKeyset(String query, String cursor, Pageable paging) - start");
+    KeysetSlice<Proyecto> slice = service.findAllTodosRestringidos(query, cursor, paging);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllTodosKeyset(String query, String cursor, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    HttpHeaders headers = new HttpHeaders();
+    if (slice.hasNext()) {
+      headers.add(KeysetSlice.NEXT_CURSOR_HEADER, slice.getNextCursor());
+    }
+    log.debug("findAllTodosKeyset(String query, String cursor, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Proyecto} filtrados de la unidad de
+   * gestión del usuario logueado, sin el número total de elementos: devuelve si
+   * hay página siguiente en la cabecera {@value SliceHeaders#HAS_NEXT}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Proyecto} de la página.
+   */
+  @GetMapping(path = "/todos", params = { "total=none", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
+  ResponseEntity<List<Proyecto>> findAllTodosSinTotal(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllTodosSinTotal(String query, Pageable paging) - start");
+    Slice<Proyecto> slice = service.findAllTodosRestringidosSinTotal(query, paging);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllTodosSinTotal(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTodosSinTotal(String query, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), SliceHeaders.of(slice), HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Proyecto} filtrados de la unidad de
+   * gestión del usuario logueado, con el número total de elementos estimado, que
+   * se reutiliza durante un tiempo para el mismo filtro.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Proyecto} paginadas y filtradas.
+   */
+  @GetMapping(path = "/todos", params = { "total=cache", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
+  ResponseEntity<Page<Proyecto>> findAllTodosTotalEstimado(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging) {
+    log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - start");
+    Page<Proyecto> page = service.findAllTodosRestringidosTotalEstimado(query, paging);
+
+    if (page.isEmpty()) {
+      log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - end");
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  /**
+   * Exporta los {@link Proyecto} filtrados de la unidad de gestión del usuario
+   * logueado, con el mismo filtro que {@code /todos} pero sin paginar. Las filas
+   * se escriben en la respuesta a medida que se leen de la base de datos.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param format formato de la exportación (ndjson o csv).
+   * @return las entidades {@link Proyecto} en el formato indicado.
+   */
+  @GetMapping("/export")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
+  ResponseEntity<StreamingResponseBody> export(@RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "format", defaultValue = "ndjson") String format) {
+    log.debug("export(String query, String format) - start");
+    ExportFormat exportFormat = ExportFormat.of(format);
+    StreamingResponseBody body = out -> {
+      try (ExportWriter<Proyecto> writer = ExportWriter.of(exportFormat, out, mapper, COLUMNAS_EXPORTACION)) {
+        service.exportTodosRestringidos(query, writer);
+      }
+    };
+    log.debug("export(String query, String format) - end");
+    return ResponseEntity.ok().contentType(exportFormat.getMediaType())
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder("attachment")
+            .filename("proyectos." + exportFormat.getExtension()).build().toString())
+        .body(body);
+  }
+
   /**
    * 
    * PROYECTO HITO
@@ -312,6 +614,7 @@ public class ProyectoController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/proyectohitos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-THIT-V')")
   ResponseEntity<Page<ProyectoHito>> findAllProyectoHito(@PathVariable Long id,
@@ -342,6 +645,7 @@ public class ProyectoController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/proyectofases")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-THIT-V')")
   ResponseEntity<Page<ProyectoFase>> findAllProyectoFase(@PathVariable Long id,
@@ -372,6 +676,7 @@ public class ProyectoController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/proyectopaquetetrabajos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
   ResponseEntity<Page<ProyectoPaqueteTrabajo>> findAllProyectoPaqueteTrabajo(@PathVariable Long id,
@@ -402,6 +707,7 @@ public class ProyectoController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/proyectosocios")
   // @PreAuthorize("hasAnyAuthorityForAnyUO('CSP-PRO-V')")
   ResponseEntity<Page<ProyectoSocio>> findAllProyectoSocio(@PathVariable Long id,
@@ -432,6 +738,7 @@ public class ProyectoController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/proyectoentidadfinanciadoras")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CATEM-V')")
   ResponseEntity<Page<ProyectoEntidadFinanciadora>> findAllProyectoEntidadFinanciadora(@PathVariable Long id,
@@ -461,6 +768,7 @@ public class ProyectoController {
    * 
    * @param id Identificador del {@link Proyecto}.
    */
+  @VersionAgregado
   @GetMapping("/{id}/documentos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CATEM-V')")
   ResponseEntity<Page<ProyectoDocumento>> findAllDocumentos(@PathVariable Long id,
@@ -492,6 +800,7 @@ public class ProyectoController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/proyectoperiodoseguimientos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
   ResponseEntity<Page<ProyectoPeriodoSeguimiento>> findAllProyectoPeriodoSeguimiento(@PathVariable Long id,
@@ -522,6 +831,7 @@ public class ProyectoController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/proyectoentidadgestoras")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
   ResponseEntity<Page<ProyectoEntidadGestora>> findAllProyectoEntidadGestora(@PathVariable Long id,
@@ -552,6 +862,7 @@ public class ProyectoController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/proyectoequipos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-CATEM-V')")
   ResponseEntity<Page<ProyectoEquipo>> findAllProyectoEquipo(@PathVariable Long id,
@@ -583,6 +894,7 @@ public class ProyectoController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/proyectoprorrogas")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
   ResponseEntity<Page<ProyectoProrroga>> findAllProyectoProrroga(@PathVariable Long id,
@@ -612,6 +924,7 @@ public class ProyectoController {
    * @param paging pageable.
    */
 
+  @VersionAgregado
   @GetMapping("/{id}/estadoproyectos")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-V')")
   ResponseEntity<Page<EstadoProyecto>> findAllEstadoProyecto(@PathVariable Long id,
@@ -652,4 +965,42 @@ public class ProyectoController {
     return new ResponseEntity<>(returnValue, HttpStatus.CREATED);
   }
 
+  /**
+   * Registra la creación asíncrona de un {@link Proyecto} a partir de los datos
+   * de una {@link Solicitud}. El progreso y el resultado se consultan en
+   * <code>GET /proyectos/jobs/{id}</code>.
+   * 
+   * @param id       identificador de la {@link Solicitud}
+   * @param proyecto {@link Proyecto} a crear
+   * @return el {@link ProyectoJob} registrado.
+   */
+  @PostMapping(path = "/{id}/solicitud", params = "async=true")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-C')")
+  public ResponseEntity<ProyectoJob> createProyectoBySolicitudAsync(@PathVariable Long id,
+      @RequestBody Proyecto proyecto) {
+    log.debug("createProyectoBySolicitudAsync(Long id, Proyecto proyecto) - start");
+
+    ProyectoJob returnValue = proyectoJobService.create(id, proyecto);
+    URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+        .path(REQUEST_MAPPING + PATH_JOBS + "/{id}").buildAndExpand(returnValue.getId()).toUri();
+    log.debug("createProyectoBySolicitudAsync(Long id, Proyecto proyecto) - end");
+    return ResponseEntity.accepted().location(location).body(returnValue);
+  }
+
+  /**
+   * Devuelve el {@link ProyectoJob} con el id indicado, con su estado y, si ha
+   * terminado, el {@link Proyecto} creado o el error.
+   * 
+   * @param id Identificador de {@link ProyectoJob}.
+   * @return {@link ProyectoJob} correspondiente al id.
+   */
+  @GetMapping(PATH_JOBS + "/{id}")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-PRO-C')")
+  public ProyectoJob findJobById(@PathVariable Long id) {
+    log.debug("findJobById(Long id) - start");
+    ProyectoJob returnValue = proyectoJobService.findById(id);
+    log.debug("findJobById(Long id) - end");
+    return returnValue;
+  }
+
 }
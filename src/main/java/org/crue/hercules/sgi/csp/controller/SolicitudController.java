@@ -1,13 +1,23 @@
 package org.crue.hercules.sgi.csp.controller;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 import javax.validation.Valid;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.crue.hercules.sgi.csp.controller.version.AgregadoVersionado;
+import org.crue.hercules.sgi.csp.controller.version.VersionAgregado;
+import org.crue.hercules.sgi.csp.controller.version.VersionAgregadoInterceptor;
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoInput;
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoResultado;
+import org.crue.hercules.sgi.csp.dto.SolicitudCapacidades;
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado;
 import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotalConceptoGasto;
 import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotales;
+import org.crue.hercules.sgi.csp.dto.SolicitudTransiciones;
 import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
 import org.crue.hercules.sgi.csp.model.Proyecto;
 import org.crue.hercules.sgi.csp.model.Solicitud;
@@ -20,6 +30,7 @@ import org.crue.hercules.sgi.csp.model.SolicitudProyectoEquipo;
 import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
 import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocio;
 import org.crue.hercules.sgi.csp.service.EstadoSolicitudService;
+import org.crue.hercules.sgi.csp.service.SolicitudCambioEstadoService;
 import org.crue.hercules.sgi.csp.service.SolicitudDocumentoService;
 import org.crue.hercules.sgi.csp.service.SolicitudHitoService;
 import org.crue.hercules.sgi.csp.service.SolicitudModalidadService;
@@ -29,9 +40,17 @@ import org.crue.hercules.sgi.csp.service.SolicitudProyectoEquipoService;
 import org.crue.hercules.sgi.csp.service.SolicitudProyectoPresupuestoService;
 import org.crue.hercules.sgi.csp.service.SolicitudProyectoSocioService;
 import org.crue.hercules.sgi.csp.service.SolicitudService;
+import org.crue.hercules.sgi.csp.util.AutorizacionUnidadesHolder;
+import org.crue.hercules.sgi.csp.util.ExportFormat;
+import org.crue.hercules.sgi.csp.util.ExportWriter;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.crue.hercules.sgi.csp.util.SliceHeaders;
 import org.crue.hercules.sgi.framework.web.bind.annotation.RequestPageable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -40,11 +59,13 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -54,7 +75,21 @@ import lombok.extern.slf4j.Slf4j;
 @RestController
 @RequestMapping("/solicitudes")
 @Slf4j
-public class SolicitudController {
+public class SolicitudController implements AgregadoVersionado {
+
+  /** Columnas de la exportación CSV de {@link Solicitud} */
+  private static final List<ExportWriter.Column<Solicitud>> COLUMNAS_EXPORTACION = Arrays.asList(
+      ExportWriter.Column.of("id", Solicitud::getId),
+      ExportWriter.Column.of("codigoExterno", Solicitud::getCodigoExterno),
+      ExportWriter.Column.of("codigoRegistroInterno", Solicitud::getCodigoRegistroInterno),
+      ExportWriter.Column.of("estado", (Solicitud solicitud) -> solicitud.getEstado() == null ? null
+          : solicitud.getEstado().getEstado()),
+      ExportWriter.Column.of("convocatoriaId", Solicitud::getConvocatoriaId),
+      ExportWriter.Column.of("convocatoriaExterna", Solicitud::getConvocatoriaExterna),
+      ExportWriter.Column.of("solicitanteRef", Solicitud::getSolicitanteRef),
+      ExportWriter.Column.of("unidadGestionRef", Solicitud::getUnidadGestionRef),
+      ExportWriter.Column.of("formularioSolicitud", Solicitud::getFormularioSolicitud),
+      ExportWriter.Column.of("activo", Solicitud::getActivo));
 
   /** Solicitud service */
   private final SolicitudService service;
@@ -86,6 +121,12 @@ public class SolicitudController {
   /** SolicitudProyectoPresupuesto service */
   private final SolicitudProyectoPresupuestoService solicitudProyectoPresupuestoService;
 
+  /** SolicitudCambioEstado service */
+  private final SolicitudCambioEstadoService solicitudCambioEstadoService;
+
+  /** Mapper con el que se serializan las exportaciones NDJSON */
+  private final ObjectMapper mapper;
+
   /**
    * Instancia un nuevo SolicitudController.
    * 
@@ -99,6 +140,8 @@ public class SolicitudController {
    * @param solicitudProyectoEquipoService                   {@link SolicitudProyectoEquipoService}
    * @param solicitudProyectoEntidadFinanciadoraAjenaService {@link SolicitudProyectoEntidadFinanciadoraAjenaService}.
    * @param solicitudProyectoPresupuestoService              {@link SolicitudProyectoPresupuestoService}.
+   * @param solicitudCambioEstadoService                     {@link SolicitudCambioEstadoService}.
+   * @param mapper                                           {@link ObjectMapper}.
    */
   public SolicitudController(SolicitudService solicitudService, SolicitudModalidadService solicitudModalidadService,
       EstadoSolicitudService estadoSolicitudService, SolicitudDocumentoService solicitudDocumentoService,
@@ -106,7 +149,8 @@ public class SolicitudController {
       SolicitudProyectoSocioService solicitudProyectoSocioService,
       SolicitudProyectoEquipoService solicitudProyectoEquipoService,
       SolicitudProyectoEntidadFinanciadoraAjenaService solicitudProyectoEntidadFinanciadoraAjenaService,
-      SolicitudProyectoPresupuestoService solicitudProyectoPresupuestoService) {
+      SolicitudProyectoPresupuestoService solicitudProyectoPresupuestoService,
+      SolicitudCambioEstadoService solicitudCambioEstadoService, ObjectMapper mapper) {
     this.service = solicitudService;
     this.solicitudModalidadService = solicitudModalidadService;
     this.estadoSolicitudService = estadoSolicitudService;
@@ -117,6 +161,8 @@ public class SolicitudController {
     this.solicitudProyectoEquipoService = solicitudProyectoEquipoService;
     this.solicitudProyectoEntidadFinanciadoraAjenaService = solicitudProyectoEntidadFinanciadoraAjenaService;
     this.solicitudProyectoPresupuestoService = solicitudProyectoPresupuestoService;
+    this.solicitudCambioEstadoService = solicitudCambioEstadoService;
+    this.mapper = mapper;
   }
 
   /**
@@ -130,12 +176,7 @@ public class SolicitudController {
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-C')")
   public ResponseEntity<Solicitud> create(@Valid @RequestBody Solicitud solicitud, Authentication authentication) {
     log.debug("create(Solicitud solicitud) - start");
-    List<String> unidadGestionRefs = authentication.getAuthorities().stream().map(authority -> {
-      if (authority.getAuthority().indexOf("_") > 0) {
-        return authority.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
 
     solicitud.setCreadorRef(authentication.getName());
     Solicitud returnValue = service.create(solicitud, unidadGestionRefs);
@@ -148,29 +189,42 @@ public class SolicitudController {
    * 
    * @param solicitud      {@link Solicitud} a actualizar.
    * @param id             Identificador {@link Solicitud} a actualizar.
+   * @param version        versión de la cabecera If-Match, si se ha indicado.
    * @param authentication {@link Authentication}.
    * @return Solicitud {@link Solicitud} actualizado
    */
+  @VersionAgregado
   @PutMapping("/{id}")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-E')")
   public Solicitud update(@Valid @RequestBody Solicitud solicitud, @PathVariable Long id,
+      @RequestAttribute(name = VersionAgregadoInterceptor.VERSION_ESPERADA, required = false) Long version,
       Authentication authentication) {
     log.debug("update(Solicitud solicitud, Long id) - start");
 
-    List<String> unidadGestionRefs = authentication.getAuthorities().stream().map(authority -> {
-      if (authority.getAuthority().indexOf("_") > 0) {
-
-        return authority.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
 
     solicitud.setId(id);
-    Solicitud returnValue = service.update(solicitud, unidadGestionRefs);
+    Solicitud returnValue = version == null ? service.update(solicitud, unidadGestionRefs)
+        : service.update(solicitud, unidadGestionRefs, version);
     log.debug("update(Solicitud solicitud, Long id) - end");
     return returnValue;
   }
 
+  /**
+   * Obtiene la versión de la {@link Solicitud}, con la que se identifican las
+   * respuestas de los endpoints anotados con {@link VersionAgregado}.
+   *
+   * @param id Identificador de la {@link Solicitud}.
+   * @return la versión, vacía si no existe.
+   */
+  @Override
+  public Optional<Long> findVersion(Long id) {
+    log.debug("findVersion(Long id) - start");
+    Optional<Long> returnValue = service.findVersion(id);
+    log.debug("findVersion(Long id) - end");
+    return returnValue;
+  }
+
   /**
    * Reactiva el {@link Solicitud} con id indicado.
    * 
@@ -182,12 +236,7 @@ public class SolicitudController {
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-E')")
   Solicitud reactivar(@PathVariable Long id, Authentication authentication) {
     log.debug("reactivar(Long id) - start");
-    List<String> unidadGestionRefs = authentication.getAuthorities().stream().map(authority -> {
-      if (authority.getAuthority().indexOf("_") > 0) {
-        return authority.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
 
     Solicitud returnValue = service.enable(id, unidadGestionRefs);
     log.debug("reactivar(Long id) - end");
@@ -205,12 +254,7 @@ public class SolicitudController {
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-B')")
   Solicitud desactivar(@PathVariable Long id, Authentication authentication) {
     log.debug("desactivar(Long id) - start");
-    List<String> unidadGestionRefs = authentication.getAuthorities().stream().map(authority -> {
-      if (authority.getAuthority().indexOf("_") > 0) {
-        return authority.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
 
     Solicitud returnValue = service.disable(id, unidadGestionRefs);
     log.debug("desactivar(Long id) - end");
@@ -224,16 +268,12 @@ public class SolicitudController {
    * @param authentication {@link Authentication}.
    * @return Solicitud {@link Solicitud} correspondiente al id
    */
+  @VersionAgregado
   @GetMapping("/{id}")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
   Solicitud findById(@PathVariable Long id, Authentication authentication) {
     log.debug("Solicitud findById(Long id) - start");
-    List<String> unidadGestionRefs = authentication.getAuthorities().stream().map(authority -> {
-      if (authority.getAuthority().indexOf("_") > 0) {
-        return authority.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
 
     Solicitud returnValue = service.findById(id, unidadGestionRefs);
     log.debug("Solicitud findById(Long id) - end");
@@ -255,12 +295,7 @@ public class SolicitudController {
       @RequestPageable(sort = "s") Pageable paging, Authentication authentication) {
     log.debug("findAll(String query, Pageable paging) - start");
 
-    List<String> unidadGestionRefs = authentication.getAuthorities().stream().map(authority -> {
-      if (authority.getAuthority().indexOf("_") > 0) {
-        return authority.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
 
     Page<Solicitud> page = service.findAllRestringidos(query, paging, unidadGestionRefs);
 
@@ -272,6 +307,96 @@ public class SolicitudController {
     return new ResponseEntity<>(page, HttpStatus.OK);
   }
 
+  /**
+   * Devuelve la página de {@link Solicitud} activas filtradas de la unidad de
+   * gestión del usuario logueado que sigue al cursor indicado.
+   * Paginación por cursor: no calcula el total de elementos y devuelve el
+   * cursor de la página siguiente en la cabecera
+   * {@value KeysetSlice#NEXT_CURSOR_HEADER}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Solicitud} de la página.
+   */
+  @GetMapping(params = "cursor")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  ResponseEntity<List<Solicitud>> findAllKeyset(@RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "cursor") String cursor, @RequestPageable(sort = "s") Pageable paging,
+      Authentication authentication) {
+    log.debug("findAllKeyset(String query, String cursor, Pageable paging) - start");
+
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    KeysetSlice<Solicitud> slice = service.findAllRestringidos(query, cursor, paging, unidadGestionRefs);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllKeyset(String query, String cursor, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    HttpHeaders headers = new HttpHeaders();
+    if (slice.hasNext()) {
+      headers.add(KeysetSlice.NEXT_CURSOR_HEADER, slice.getNextCursor());
+    }
+    log.debug("findAllKeyset(String query, String cursor, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Solicitud} activas filtradas de la
+   * unidad de gestión del usuario logueado, sin el número total de elementos:
+   * devuelve si hay página siguiente en la cabecera {@value
+   * SliceHeaders#HAS_NEXT}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Solicitud} de la página.
+   */
+  @GetMapping(params = { "total=none", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  ResponseEntity<List<Solicitud>> findAllSinTotal(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging, Authentication authentication) {
+    log.debug("findAllSinTotal(String query, Pageable paging) - start");
+
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    Slice<Solicitud> slice = service.findAllRestringidosSinTotal(query, paging, unidadGestionRefs);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllSinTotal(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllSinTotal(String query, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), SliceHeaders.of(slice), HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Solicitud} activas filtradas de la
+   * unidad de gestión del usuario logueado, con el número total de elementos
+   * estimado, que se reutiliza durante un tiempo para el mismo filtro.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Solicitud} paginadas y filtradas.
+   */
+  @GetMapping(params = { "total=cache", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  ResponseEntity<Page<Solicitud>> findAllTotalEstimado(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging, Authentication authentication) {
+    log.debug("findAllTotalEstimado(String query, Pageable paging) - start");
+
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    Page<Solicitud> page = service.findAllRestringidosTotalEstimado(query, paging, unidadGestionRefs);
+
+    if (page.isEmpty()) {
+      log.debug("findAllTotalEstimado(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTotalEstimado(String query, Pageable paging) - end");
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
   /**
    * Devuelve una lista paginada y filtrada {@link Solicitud} que se encuentren
    * dentro de la unidad de gestión del usuario logueado
@@ -287,12 +412,7 @@ public class SolicitudController {
       @RequestPageable(sort = "s") Pageable paging, Authentication authentication) {
     log.debug("findAllTodos(String query, Pageable paging) - start");
 
-    List<String> unidadGestionRefs = authentication.getAuthorities().stream().map(authority -> {
-      if (authority.getAuthority().indexOf("_") > 0) {
-        return authority.getAuthority().split("_")[1];
-      }
-      return null;
-    }).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
 
     Page<Solicitud> page = service.findAllTodosRestringidos(query, paging, unidadGestionRefs);
 
@@ -304,6 +424,125 @@ public class SolicitudController {
     return new ResponseEntity<>(page, HttpStatus.OK);
   }
 
+  /**
+   * Devuelve la página de {@link Solicitud} filtradas de la unidad de gestión
+   * del usuario logueado que sigue al cursor indicado.
+   * Paginación por cursor: no calcula el total de elementos y devuelve el
+   * cursor de la página siguiente en la cabecera
+   * {@value KeysetSlice#NEXT_CURSOR_HEADER}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Solicitud} de la página.
+   */
+  @GetMapping(path = "/todos", params = "cursor")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  ResponseEntity<List<Solicitud>> findAllTodosKeyset(@RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "cursor") String cursor, @RequestPageable(sort = "s") Pageable paging,
+      Authentication authentication) {
+    log.debug("findAllTodosKeyset(String query, String cursor, Pageable paging) - start");
+
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    KeysetSlice<Solicitud> slice = service.findAllTodosRestringidos(query, cursor, paging, unidadGestionRefs);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllTodosKeyset(String query, String cursor, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    HttpHeaders headers = new HttpHeaders();
+    if (slice.hasNext()) {
+      headers.add(KeysetSlice.NEXT_CURSOR_HEADER, slice.getNextCursor());
+    }
+    log.debug("findAllTodosKeyset(String query, String cursor, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Solicitud} filtradas de la unidad de
+   * gestión del usuario logueado, sin el número total de elementos: devuelve si
+   * hay página siguiente en la cabecera {@value SliceHeaders#HAS_NEXT}.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Solicitud} de la página.
+   */
+  @GetMapping(path = "/todos", params = { "total=none", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  ResponseEntity<List<Solicitud>> findAllTodosSinTotal(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging, Authentication authentication) {
+    log.debug("findAllTodosSinTotal(String query, Pageable paging) - start");
+
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    Slice<Solicitud> slice = service.findAllTodosRestringidosSinTotal(query, paging, unidadGestionRefs);
+
+    if (slice.isEmpty()) {
+      log.debug("findAllTodosSinTotal(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTodosSinTotal(String query, Pageable paging) - end");
+    return new ResponseEntity<>(slice.getContent(), SliceHeaders.of(slice), HttpStatus.OK);
+  }
+
+  /**
+   * Devuelve la página indicada de {@link Solicitud} filtradas de la unidad de
+   * gestión del usuario logueado, con el número total de elementos estimado, que
+   * se reutiliza durante un tiempo para el mismo filtro.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param paging {@link Pageable}.
+   * @return el listado de entidades {@link Solicitud} paginadas y filtradas.
+   */
+  @GetMapping(path = "/todos", params = { "total=cache", "!cursor" })
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  ResponseEntity<Page<Solicitud>> findAllTodosTotalEstimado(@RequestParam(name = "q", required = false) String query,
+      @RequestPageable(sort = "s") Pageable paging, Authentication authentication) {
+    log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - start");
+
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    Page<Solicitud> page = service.findAllTodosRestringidosTotalEstimado(query, paging, unidadGestionRefs);
+
+    if (page.isEmpty()) {
+      log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - end");
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  /**
+   * Exporta las {@link Solicitud} filtradas de la unidad de gestión del usuario
+   * logueado, con el mismo filtro que {@code /todos} pero sin paginar. Las filas
+   * se escriben en la respuesta a medida que se leen de la base de datos.
+   * 
+   * @param query  filtro de búsqueda.
+   * @param format formato de la exportación (ndjson o csv).
+   * @return las entidades {@link Solicitud} en el formato indicado.
+   */
+  @GetMapping("/export")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  ResponseEntity<StreamingResponseBody> export(@RequestParam(name = "q", required = false) String query,
+      @RequestParam(name = "format", defaultValue = "ndjson") String format, Authentication authentication) {
+    log.debug("export(String query, String format) - start");
+    ExportFormat exportFormat = ExportFormat.of(format);
+
+    List<String> unidadGestionRefs = AutorizacionUnidadesHolder.get(authentication).getUnidadesGestion();
+
+    StreamingResponseBody body = out -> {
+      try (ExportWriter<Solicitud> writer = ExportWriter.of(exportFormat, out, mapper, COLUMNAS_EXPORTACION)) {
+        service.exportTodosRestringidos(query, unidadGestionRefs, writer);
+      }
+    };
+    log.debug("export(String query, String format) - end");
+    return ResponseEntity.ok().contentType(exportFormat.getMediaType())
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder("attachment")
+            .filename("solicitudes." + exportFormat.getExtension()).build().toString())
+        .body(body);
+  }
+
   /**
    * Devuelve una lista paginada y filtrada de {@link SolicitudModalidad} de la
    * {@link Solicitud}.
@@ -312,6 +551,7 @@ public class SolicitudController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/solicitudmodalidades")
   // @PreAuthorize("hasAnyAuthorityForAnyUO('CSP-SOL-C', 'CSP-SOL-E')")
   ResponseEntity<Page<SolicitudModalidad>> findAllSolicitudModalidad(@PathVariable Long id,
@@ -336,6 +576,7 @@ public class SolicitudController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/estadosolicitudes")
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
   ResponseEntity<Page<EstadoSolicitud>> findAllEstadoSolicitud(@PathVariable Long id,
@@ -360,6 +601,7 @@ public class SolicitudController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/solicitudhitos")
   // @PreAuthorize("hasAnyAuthorityForAnyUO('CSP-SOL-C', 'CSP-SOL-E')")
   ResponseEntity<Page<SolicitudHito>> findAllSolicitudHito(@PathVariable Long id,
@@ -384,6 +626,7 @@ public class SolicitudController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/solicituddocumentos")
   // @PreAuthorize("hasAnyAuthorityForAnyUO('CSP-SOL-C', 'CSP-SOL-E')")
   ResponseEntity<Page<SolicitudDocumento>> findAllSolicitudDocumentos(@PathVariable Long id,
@@ -422,6 +665,7 @@ public class SolicitudController {
    * @param id Identificador de {@link Solicitud}.
    * @return {@link SolicitudProyecto}
    */
+  @VersionAgregado
   @RequestMapping(path = "/{id}/solicitudproyecto", method = RequestMethod.GET)
   // @PreAuthorize("hasAuthorityForAnyUO('CSP-RSOC-V')")
   public ResponseEntity<SolicitudProyecto> findSolictudProyectoDatos(@PathVariable Long id) {
@@ -444,6 +688,7 @@ public class SolicitudController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/solicitudproyectosocio")
   // @PreAuthorize("hasAnyAuthorityForAnyUO('CSP-SOL-C', 'CSP-SOL-E')")
   ResponseEntity<Page<SolicitudProyectoSocio>> findAllSolicitudProyectoSocio(@PathVariable Long id,
@@ -467,6 +712,7 @@ public class SolicitudController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/solicitudproyectoequipo")
   // @PreAuthorize("hasAnyAuthorityForAnyUO('CSP-SOL-C', 'CSP-SOL-E')")
   ResponseEntity<Page<SolicitudProyectoEquipo>> findAllSolicitudProyectoEquipo(@PathVariable Long id,
@@ -491,6 +737,7 @@ public class SolicitudController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/solicitudproyectoentidadfinanciadoraajenas")
   // @PreAuthorize("hasAnyAuthorityForAnyUO('CSP-SOL-C', 'CSP-SOL-E')")
   ResponseEntity<Page<SolicitudProyectoEntidadFinanciadoraAjena>> findAllSolicitudProyectoEntidadFinanciadoraAjena(
@@ -532,6 +779,7 @@ public class SolicitudController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/solicitudproyectopresupuestos")
   // @PreAuthorize("hasAnyAuthorityForAnyUO('CSP-SOL-C', 'CSP-SOL-E')")
   ResponseEntity<Page<SolicitudProyectoPresupuesto>> findAllSolicitudProyectoPresupuesto(@PathVariable Long id,
@@ -555,6 +803,7 @@ public class SolicitudController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/solicitudproyectopresupuestos/entidadconvocatoria/{entidadRef}")
   // @PreAuthorize("hasAnyAuthorityForAnyUO('CSP-SOL-C', 'CSP-SOL-E')")
   ResponseEntity<Page<SolicitudProyectoPresupuesto>> findAllSolicitudProyectoPresupuestoEntidadConvocatoria(
@@ -583,6 +832,7 @@ public class SolicitudController {
    * @param query  filtro de búsqueda.
    * @param paging pageable.
    */
+  @VersionAgregado
   @GetMapping("/{id}/solicitudproyectopresupuestos/entidadajena/{entidadRef}")
   // @PreAuthorize("hasAnyAuthorityForAnyUO('CSP-SOL-C', 'CSP-SOL-E')")
   ResponseEntity<Page<SolicitudProyectoPresupuesto>> findAllSolicitudProyectoPresupuestoEntidadAjena(
@@ -648,6 +898,33 @@ public class SolicitudController {
     return new ResponseEntity<>(returnValue, HttpStatus.OK);
   }
 
+  /**
+   * Obtiene el presupuesto de la {@link Solicitud} agregado por las dimensiones
+   * indicadas, con los subtotales de cada nivel y el total.
+   *
+   * @param id   Identificador de {@link Solicitud}.
+   * @param dims dimensiones por las que se agrega, en orden (conceptoGasto,
+   *             entidadRef, anualidad, financiacionAjena). Si no se indican se
+   *             agrega por todas.
+   * @return el listado de {@link SolicitudProyectoPresupuestoAgregado}.
+   */
+  @GetMapping("/{id}/presupuesto/agregado")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  public ResponseEntity<List<SolicitudProyectoPresupuestoAgregado>> findPresupuestoAgregado(@PathVariable Long id,
+      @RequestParam(name = "dims", required = false) List<String> dims) {
+    log.debug("findPresupuestoAgregado(Long id, List<String> dims) - start");
+    List<SolicitudProyectoPresupuestoAgregado> returnValue = solicitudProyectoPresupuestoService
+        .findAgregadoSolicitud(id, SolicitudProyectoPresupuestoAgregado.Dimension.of(dims));
+
+    if (returnValue.isEmpty()) {
+      log.debug("findPresupuestoAgregado(Long id, List<String> dims) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    log.debug("findPresupuestoAgregado(Long id, List<String> dims) - end");
+    return new ResponseEntity<>(returnValue, HttpStatus.OK);
+  }
+
   /**
    * Hace las comprobaciones necesarias para determinar si se puede crear un
    * {@link Proyecto} a partir de la {@link Solicitud}
@@ -682,6 +959,68 @@ public class SolicitudController {
     return returnValue ? new ResponseEntity<>(HttpStatus.OK) : new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
+  /**
+   * Devuelve el estado actual de la {@link Solicitud}, si el usuario la puede
+   * modificar y los cambios de estado que puede realizar.
+   * 
+   * @param id Id del {@link Solicitud}.
+   * @return las transiciones de la {@link Solicitud}.
+   */
+  @GetMapping("/{id}/transiciones")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  SolicitudTransiciones transiciones(@PathVariable Long id) {
+    log.debug("transiciones(Long id) - start");
+    SolicitudTransiciones returnValue = service.getTransiciones(id);
+    log.debug("transiciones(Long id) - end");
+    return returnValue;
+  }
+
+  /**
+   * Devuelve, de entre las {@link Solicitud} indicadas, las que puede modificar
+   * el usuario.
+   * 
+   * @param ids Ids de las {@link Solicitud} (máximo 100).
+   * @return HTTP-200 con los ids de las {@link Solicitud} modificables /
+   *         HTTP-204 si no hay ninguna
+   */
+  @PostMapping("/modificables")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  ResponseEntity<List<Long>> modificables(@RequestBody List<Long> ids) {
+    log.debug("modificables(List<Long> ids) - start");
+    List<Long> returnValue = service.findIdsModificables(ids);
+
+    if (returnValue.isEmpty()) {
+      log.debug("modificables(List<Long> ids) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    log.debug("modificables(List<Long> ids) - end");
+    return new ResponseEntity<>(returnValue, HttpStatus.OK);
+  }
+
+  /**
+   * Obtiene en una única petición las comprobaciones (modificable, presentable y crear proyecto) de
+   * varias {@link Solicitud}.
+   *
+   * @param ids Ids de las {@link Solicitud} (máximo 100).
+   * @return HTTP-200 con las capacidades de cada {@link Solicitud} existente /
+   *         HTTP-204 si no existe ninguna
+   */
+  @PostMapping("/capacidades")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-V')")
+  ResponseEntity<List<SolicitudCapacidades>> capacidades(@RequestBody List<Long> ids) {
+    log.debug("capacidades(List<Long> ids) - start");
+    List<SolicitudCapacidades> returnValue = service.findCapacidades(ids);
+
+    if (returnValue.isEmpty()) {
+      log.debug("capacidades(List<Long> ids) - end");
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    log.debug("capacidades(List<Long> ids) - end");
+    return new ResponseEntity<>(returnValue, HttpStatus.OK);
+  }
+
   /**
    * Se hace el cambio de estado de "Borrador" a "Presentada".
    * 
@@ -911,4 +1250,22 @@ public class SolicitudController {
     log.debug("desistir(Long id, String comentario) - end");
     return returnValue;
   }
+
+  /**
+   * Cambia el estado de un conjunto de {@link Solicitud} al mismo estado. Cada
+   * {@link Solicitud} se cambia o no de forma independiente del resto.
+   * 
+   * @param input ids de las {@link Solicitud}, nuevo estado y comentario.
+   * @return el resultado del cambio de estado de cada {@link Solicitud}.
+   */
+  @PatchMapping("/cambiar-estado")
+  // @PreAuthorize("hasAuthorityForAnyUO('CSP-SOL-E')")
+  List<SolicitudCambioEstadoResultado> cambiarEstado(@Valid @RequestBody SolicitudCambioEstadoInput input) {
+    log.debug("cambiarEstado(SolicitudCambioEstadoInput input) - start");
+
+    List<SolicitudCambioEstadoResultado> returnValue = solicitudCambioEstadoService.cambiarEstado(input);
+
+    log.debug("cambiarEstado(SolicitudCambioEstadoInput input) - end");
+    return returnValue;
+  }
 }
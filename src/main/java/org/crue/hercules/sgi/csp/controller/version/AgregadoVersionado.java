@@ -0,0 +1,21 @@
+package org.crue.hercules.sgi.csp.controller.version;
+
+import java.util.Optional;
+
+/**
+ * Controlador de una entidad agregado cuya versión se incrementa con cada
+ * cambio de la entidad o de sus datos relacionados.
+ */
+public interface AgregadoVersionado {
+
+  /**
+   * Obtiene la versión de la entidad agregado si el usuario la puede consultar.
+   * Si no la puede consultar se devuelve vacía, de modo que la petición no se
+   * responde con 304 y el endpoint aplica sus propias comprobaciones.
+   *
+   * @param id Id de la entidad agregado.
+   * @return la versión, vacía si no existe o el usuario no la puede consultar.
+   */
+  Optional<Long> findVersion(Long id);
+
+}
@@ -0,0 +1,24 @@
+package org.crue.hercules.sgi.csp.controller.version;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca los endpoints de una entidad agregado (convocatoria, solicitud o
+ * proyecto) o de sus colecciones hijas cuya respuesta se identifica con la
+ * versión del agregado, cuyo id es la variable <code>id</code> del path.
+ * <p>
+ * El controlador tiene que implementar {@link AgregadoVersionado}. Las
+ * peticiones las procesa {@link VersionAgregadoInterceptor}: los GET y HEAD
+ * devuelven la cabecera ETag y responden 304 sin ejecutar el endpoint si la
+ * cabecera If-None-Match coincide, y los PUT con la cabecera If-Match solo se
+ * ejecutan si coincide.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface VersionAgregado {
+}
@@ -0,0 +1,29 @@
+package org.crue.hercules.sgi.csp.controller.version;
+
+import org.crue.hercules.sgi.csp.exceptions.VersionAgregadoMismatchException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Responde 412 (Precondition Failed) a las modificaciones condicionales cuya
+ * versión no coincide con la actual. Tiene prioridad sobre el tratamiento
+ * genérico de excepciones del framework, que las respondería con 500.
+ */
+@ControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class VersionAgregadoExceptionHandler {
+
+  @ExceptionHandler(VersionAgregadoMismatchException.class)
+  @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+  public void handleVersionAgregadoMismatch(VersionAgregadoMismatchException e) {
+    log.debug("handleVersionAgregadoMismatch() - {}", e.getMessage());
+  }
+
+}
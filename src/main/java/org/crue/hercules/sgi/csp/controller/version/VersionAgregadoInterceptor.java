@@ -0,0 +1,176 @@
+package org.crue.hercules.sgi.csp.controller.version;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.crue.hercules.sgi.csp.exceptions.VersionAgregadoMismatchException;
+import org.crue.hercules.sgi.csp.util.SliceHeaders;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Peticiones condicionales de los endpoints anotados con
+ * {@link VersionAgregado}.
+ * <p>
+ * El ETag es la versión de la entidad agregado, que se obtiene con una consulta
+ * por clave primaria antes de ejecutar el endpoint:
+ * <ul>
+ * <li>GET y HEAD: se devuelve la cabecera ETag y, si coincide con la cabecera
+ * If-None-Match, se responde 304 sin ejecutar el endpoint (ni las consultas del
+ * listado). En los listados la misma versión tiene una representación por
+ * página, ordenación y filtro, por lo que el ETag incluye un hash de la query
+ * string y de las cabeceras de paginación, que se indican en la cabecera
+ * Vary.</li>
+ * <li>PUT: si la cabecera If-Match no coincide se responde 412 sin ejecutar el
+ * endpoint. Si coincide, la versión se deja en el atributo de la petición
+ * {@link #VERSION_ESPERADA} para que el servicio la vuelva a comprobar con la
+ * fila bloqueada.</li>
+ * </ul>
+ * Si la entidad agregado no existe o el usuario no la puede consultar
+ * ({@link AgregadoVersionado#findVersion(Long)} vacía) la petición sigue sin
+ * ETag y la respuesta es la del endpoint, con sus comprobaciones de
+ * permisos.
+ */
+@Slf4j
+public class VersionAgregadoInterceptor implements HandlerInterceptor {
+
+  /** Atributo de la petición con la versión de la cabecera If-Match */
+  public static final String VERSION_ESPERADA = VersionAgregadoInterceptor.class.getName() + ".VERSION_ESPERADA";
+
+  private static final String VARIABLE_ID = "id";
+  private static final String ETAG_CUALQUIERA = "*";
+  private static final String[] CABECERAS_VARIANTE = { SliceHeaders.PAGE, SliceHeaders.PAGE_SIZE };
+
+  /**
+   * Genera el ETag de la versión de una entidad agregado.
+   *
+   * @param id      Id de la entidad agregado.
+   * @param version versión de la entidad agregado.
+   * @return el ETag.
+   */
+  public static String etag(Long id, Long version) {
+    return etag(id, version, null);
+  }
+
+  /**
+   * Genera el ETag de una representación de la versión de una entidad agregado.
+   *
+   * @param id       Id de la entidad agregado.
+   * @param version  versión de la entidad agregado.
+   * @param variante representación (página, ordenación y filtro de un listado)
+   *                 o <code>null</code> si solo hay una.
+   * @return el ETag.
+   */
+  public static String etag(Long id, Long version, String variante) {
+    if (StringUtils.isEmpty(variante)) {
+      return "\"" + id + "-" + version + "\"";
+    }
+    return "\"" + id + "-" + version + "-" + DigestUtils.md5DigestAsHex(variante.getBytes(StandardCharsets.UTF_8))
+        + "\"";
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (!(handler instanceof HandlerMethod)) {
+      return true;
+    }
+    HandlerMethod handlerMethod = (HandlerMethod) handler;
+    if (!handlerMethod.hasMethodAnnotation(VersionAgregado.class)
+        || !(handlerMethod.getBean() instanceof AgregadoVersionado)) {
+      return true;
+    }
+
+    Long id = getId(request);
+    if (id == null) {
+      return true;
+    }
+    Optional<Long> version = ((AgregadoVersionado) handlerMethod.getBean()).findVersion(id);
+    if (!version.isPresent()) {
+      return true;
+    }
+
+    String method = request.getMethod();
+    if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+      response.addHeader(HttpHeaders.VARY, String.join(", ", CABECERAS_VARIANTE));
+      boolean notModified = new ServletWebRequest(request, response)
+          .checkNotModified(etag(id, version.get(), getVariante(request)));
+      if (notModified) {
+        log.debug("preHandle() - {} {} not modified", method, request.getRequestURI());
+      }
+      return !notModified;
+    }
+    if (HttpMethod.PUT.matches(method)) {
+      checkIfMatch(request, handlerMethod, id, version.get(), etag(id, version.get()));
+    }
+    return true;
+  }
+
+  private void checkIfMatch(HttpServletRequest request, HandlerMethod handlerMethod, Long id, Long version,
+      String etag) {
+    boolean ifMatch = false;
+    for (String header : Collections.list(request.getHeaders(HttpHeaders.IF_MATCH))) {
+      for (String candidato : header.split(",")) {
+        String valor = candidato.trim();
+        if (valor.equals(ETAG_CUALQUIERA)) {
+          return;
+        }
+        if (valor.equals(etag)) {
+          request.setAttribute(VERSION_ESPERADA, version);
+          return;
+        }
+        ifMatch = true;
+      }
+    }
+    if (ifMatch) {
+      String agregado = StringUtils.removeEnd(handlerMethod.getBeanType().getSimpleName(), "Controller");
+      throw new VersionAgregadoMismatchException(agregado, id);
+    }
+  }
+
+  /**
+   * Obtiene la representación pedida: la query string (ordenación y filtro) y
+   * las cabeceras de paginación.
+   *
+   * @param request la petición.
+   * @return la representación o <code>null</code> si no tiene ninguna.
+   */
+  private String getVariante(HttpServletRequest request) {
+    StringBuilder variante = new StringBuilder(StringUtils.defaultString(request.getQueryString()));
+    for (String cabecera : CABECERAS_VARIANTE) {
+      String valor = request.getHeader(cabecera);
+      if (valor != null) {
+        variante.append('\n').append(cabecera).append(':').append(valor);
+      }
+    }
+    return variante.length() == 0 ? null : variante.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Long getId(HttpServletRequest request) {
+    Map<String, String> variables = (Map<String, String>) request
+        .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+    if (variables == null || variables.get(VARIABLE_ID) == null) {
+      return null;
+    }
+    try {
+      return Long.valueOf(variables.get(VARIABLE_ID));
+    } catch (NumberFormatException e) {
+      // El endpoint responde al id inválido
+      return null;
+    }
+  }
+
+}
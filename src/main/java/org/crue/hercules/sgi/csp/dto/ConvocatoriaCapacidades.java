@@ -0,0 +1,38 @@
+package org.crue.hercules.sgi.csp.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Acciones que puede realizar el usuario sobre una convocatoria.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConvocatoriaCapacidades implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Id de la convocatoria */
+  private Long convocatoriaId;
+
+  /** Indica si la convocatoria se puede modificar */
+  private Boolean modificable;
+
+  /** Indica si la convocatoria puede pasar a estado registrada */
+  private Boolean registrable;
+
+  /** Indica si la convocatoria tiene fases, hitos, enlaces o documentos vinculados */
+  private Boolean vinculaciones;
+
+}
@@ -0,0 +1,93 @@
+package org.crue.hercules.sgi.csp.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.crue.hercules.sgi.csp.model.ConfiguracionSolicitud;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaAreaTematica;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaConceptoGasto;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaConceptoGastoCodigoEc;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaDocumento;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEnlace;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEntidadConvocante;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEntidadFinanciadora;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEntidadGestora;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaFase;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaHito;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaPeriodoSeguimientoCientifico;
+import org.crue.hercules.sgi.csp.model.RequisitoEquipo;
+import org.crue.hercules.sgi.csp.model.RequisitoIP;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Convocatoria con su configuración, sus requisitos y sus colecciones hijas,
+ * para pintar el editor de la convocatoria con una única petición.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConvocatoriaDossier implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Convocatoria */
+  private Convocatoria convocatoria;
+
+  /** Configuración de la solicitud */
+  private ConfiguracionSolicitud configuracionSolicitud;
+
+  /** Requisitos del equipo */
+  private RequisitoEquipo requisitoEquipo;
+
+  /** Requisitos del investigador principal */
+  private RequisitoIP requisitoIP;
+
+  /** Hitos */
+  private List<ConvocatoriaHito> convocatoriaHitos;
+
+  /** Fases */
+  private List<ConvocatoriaFase> convocatoriaFases;
+
+  /** Entidades financiadoras */
+  private List<ConvocatoriaEntidadFinanciadora> convocatoriaEntidadFinanciadoras;
+
+  /** Entidades gestoras */
+  private List<ConvocatoriaEntidadGestora> convocatoriaEntidadGestoras;
+
+  /** Entidades convocantes */
+  private List<ConvocatoriaEntidadConvocante> convocatoriaEntidadConvocantes;
+
+  /** Áreas temáticas */
+  private List<ConvocatoriaAreaTematica> convocatoriaAreaTematicas;
+
+  /** Documentos */
+  private List<ConvocatoriaDocumento> convocatoriaDocumentos;
+
+  /** Enlaces */
+  private List<ConvocatoriaEnlace> convocatoriaEnlaces;
+
+  /** Periodos de justificación */
+  private List<ConvocatoriaPeriodoJustificacion> convocatoriaPeriodoJustificaciones;
+
+  /** Periodos de seguimiento científico */
+  private List<ConvocatoriaPeriodoSeguimientoCientifico> convocatoriaPeriodoSeguimientoCientificos;
+
+  /** Conceptos de gasto, permitidos y no permitidos */
+  private List<ConvocatoriaConceptoGasto> convocatoriaGastos;
+
+  /** Códigos económicos de los conceptos de gasto */
+  private List<ConvocatoriaConceptoGastoCodigoEc> convocatoriaGastoCodigosEc;
+
+}
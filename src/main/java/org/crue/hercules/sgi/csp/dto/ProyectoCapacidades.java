@@ -0,0 +1,32 @@
+package org.crue.hercules.sgi.csp.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Acciones que puede realizar el usuario sobre un proyecto.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProyectoCapacidades implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Id del proyecto */
+  private Long proyectoId;
+
+  /** Indica si el proyecto se puede modificar */
+  private Boolean modificable;
+
+}
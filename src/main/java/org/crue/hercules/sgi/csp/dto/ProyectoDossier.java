@@ -0,0 +1,142 @@
+package org.crue.hercules.sgi.csp.dto;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.crue.hercules.sgi.csp.model.EstadoProyecto;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoDocumento;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadFinanciadora;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadGestora;
+import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoFase;
+import org.crue.hercules.sgi.csp.model.ProyectoHito;
+import org.crue.hercules.sgi.csp.model.ProyectoPaqueteTrabajo;
+import org.crue.hercules.sgi.csp.model.ProyectoPeriodoSeguimiento;
+import org.crue.hercules.sgi.csp.model.ProyectoProrroga;
+import org.crue.hercules.sgi.csp.model.ProyectoSocio;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proyecto con sus colecciones hijas, para pintar el proyecto con una única
+ * petición. Las secciones que no se han pedido son null.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProyectoDossier implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Secciones del dossier. El nombre de cada sección es el path del listado
+   * equivalente de ProyectoController.
+   */
+  public enum Seccion {
+    /** {@link ProyectoHito} */
+    PROYECTO_HITOS("proyectohitos"),
+    /** {@link ProyectoFase} */
+    PROYECTO_FASES("proyectofases"),
+    /** {@link ProyectoPaqueteTrabajo} */
+    PROYECTO_PAQUETE_TRABAJOS("proyectopaquetetrabajos"),
+    /** {@link ProyectoSocio} */
+    PROYECTO_SOCIOS("proyectosocios"),
+    /** {@link ProyectoEntidadFinanciadora} */
+    PROYECTO_ENTIDAD_FINANCIADORAS("proyectoentidadfinanciadoras"),
+    /** {@link ProyectoDocumento} */
+    DOCUMENTOS("documentos"),
+    /** {@link ProyectoPeriodoSeguimiento} */
+    PROYECTO_PERIODO_SEGUIMIENTOS("proyectoperiodoseguimientos"),
+    /** {@link ProyectoEntidadGestora} */
+    PROYECTO_ENTIDAD_GESTORAS("proyectoentidadgestoras"),
+    /** {@link ProyectoEquipo} */
+    PROYECTO_EQUIPOS("proyectoequipos"),
+    /** {@link ProyectoProrroga} */
+    PROYECTO_PRORROGAS("proyectoprorrogas"),
+    /** {@link EstadoProyecto} */
+    ESTADO_PROYECTOS("estadoproyectos");
+
+    private final String nombre;
+
+    private Seccion(String nombre) {
+      this.nombre = nombre;
+    }
+
+    /**
+     * Obtiene las secciones indicadas por nombre o todas si no se indica
+     * ninguna.
+     *
+     * @param nombres nombres de las secciones.
+     * @return las secciones.
+     */
+    public static Set<Seccion> of(Collection<String> nombres) {
+      if (nombres == null || nombres.isEmpty()) {
+        return EnumSet.allOf(Seccion.class);
+      }
+      Set<Seccion> returnValue = EnumSet.noneOf(Seccion.class);
+      for (String nombre : nombres) {
+        returnValue.add(of(nombre));
+      }
+      return returnValue;
+    }
+
+    private static Seccion of(String nombre) {
+      for (Seccion seccion : values()) {
+        if (seccion.nombre.equalsIgnoreCase(nombre.trim())) {
+          return seccion;
+        }
+      }
+      throw new IllegalArgumentException("Sección del dossier no válida: " + nombre);
+    }
+  }
+
+  /** Proyecto */
+  private Proyecto proyecto;
+
+  /** Hitos del proyecto */
+  private List<ProyectoHito> proyectoHitos;
+
+  /** Fases del proyecto */
+  private List<ProyectoFase> proyectoFases;
+
+  /** Paquetes de trabajo del proyecto */
+  private List<ProyectoPaqueteTrabajo> proyectoPaqueteTrabajos;
+
+  /** Socios del proyecto */
+  private List<ProyectoSocio> proyectoSocios;
+
+  /** Entidades financiadoras del proyecto */
+  private List<ProyectoEntidadFinanciadora> proyectoEntidadFinanciadoras;
+
+  /** Documentos del proyecto */
+  private List<ProyectoDocumento> documentos;
+
+  /** Periodos de seguimiento científico del proyecto */
+  private List<ProyectoPeriodoSeguimiento> proyectoPeriodoSeguimientos;
+
+  /** Entidades gestoras del proyecto */
+  private List<ProyectoEntidadGestora> proyectoEntidadGestoras;
+
+  /** Equipo del proyecto */
+  private List<ProyectoEquipo> proyectoEquipos;
+
+  /** Prórrogas del proyecto */
+  private List<ProyectoProrroga> proyectoProrrogas;
+
+  /** Histórico de estados del proyecto */
+  private List<EstadoProyecto> estadoProyectos;
+
+}
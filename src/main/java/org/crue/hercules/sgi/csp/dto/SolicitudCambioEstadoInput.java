@@ -0,0 +1,45 @@
+package org.crue.hercules.sgi.csp.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cambio de estado de un conjunto de solicitudes al mismo estado.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SolicitudCambioEstadoInput implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Ids de las solicitudes */
+  @NotEmpty
+  private List<Long> solicitudIds;
+
+  /** Nuevo estado */
+  @NotNull
+  private EstadoSolicitud.Estado estado;
+
+  /** Comentario del nuevo estado */
+  @Size(max = 2000)
+  private String comentario;
+
+}
@@ -0,0 +1,44 @@
+package org.crue.hercules.sgi.csp.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado del cambio de estado de una solicitud dentro de un cambio de estado
+ * masivo.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SolicitudCambioEstadoResultado implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Id de la solicitud */
+  private Long solicitudId;
+
+  /** Indica si se ha cambiado el estado */
+  private Boolean correcto;
+
+  /** Motivo por el que no se ha cambiado el estado */
+  private String error;
+
+  public static SolicitudCambioEstadoResultado correcto(Long solicitudId) {
+    return new SolicitudCambioEstadoResultado(solicitudId, Boolean.TRUE, null);
+  }
+
+  public static SolicitudCambioEstadoResultado error(Long solicitudId, String error) {
+    return new SolicitudCambioEstadoResultado(solicitudId, Boolean.FALSE, error);
+  }
+
+}
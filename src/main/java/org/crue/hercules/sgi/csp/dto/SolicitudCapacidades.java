@@ -0,0 +1,38 @@
+package org.crue.hercules.sgi.csp.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Acciones que puede realizar el usuario sobre una solicitud.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SolicitudCapacidades implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Id de la solicitud */
+  private Long solicitudId;
+
+  /** Indica si la solicitud se puede modificar */
+  private Boolean modificable;
+
+  /** Indica si la solicitud cumple las condiciones para ser presentada */
+  private Boolean presentable;
+
+  /** Indica si se puede crear un proyecto a partir de la solicitud */
+  private Boolean crearProyecto;
+
+}
@@ -0,0 +1,103 @@
+package org.crue.hercules.sgi.csp.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.crue.hercules.sgi.csp.model.ConceptoGasto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila del presupuesto agregado (ROLLUP) por las dimensiones indicadas.
+ * <p>
+ * Con las dimensiones d1, d2 y d3 se obtienen las filas agrupadas por (d1, d2,
+ * d3) con nivel 3, los subtotales por (d1, d2) con nivel 2, por (d1) con nivel
+ * 1 y el total con nivel 0. Las dimensiones por las que no se agrupa la fila son
+ * null.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SolicitudProyectoPresupuestoAgregado implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Dimensiones por las que se puede agregar el presupuesto */
+  public enum Dimension {
+    /** Concepto de gasto */
+    CONCEPTO_GASTO("conceptoGasto"),
+    /** Entidad */
+    ENTIDAD_REF("entidadRef"),
+    /** Anualidad */
+    ANUALIDAD("anualidad"),
+    /** Financiación ajena o de la convocatoria */
+    FINANCIACION_AJENA("financiacionAjena");
+
+    private final String nombre;
+
+    private Dimension(String nombre) {
+      this.nombre = nombre;
+    }
+
+    /**
+     * Obtiene las dimensiones indicadas por nombre, en el orden indicado, o
+     * todas si no se indica ninguna.
+     *
+     * @param nombres nombres de las dimensiones.
+     * @return las dimensiones.
+     */
+    public static List<Dimension> of(Collection<String> nombres) {
+      if (nombres == null || nombres.isEmpty()) {
+        return Arrays.asList(values());
+      }
+      Set<Dimension> returnValue = new LinkedHashSet<>();
+      for (String nombre : nombres) {
+        returnValue.add(of(nombre));
+      }
+      return new ArrayList<>(returnValue);
+    }
+
+    private static Dimension of(String nombre) {
+      for (Dimension dimension : values()) {
+        if (dimension.nombre.equalsIgnoreCase(nombre.trim())) {
+          return dimension;
+        }
+      }
+      throw new IllegalArgumentException("Dimensión del presupuesto no válida: " + nombre);
+    }
+  }
+
+  /** Concepto de gasto */
+  private ConceptoGasto conceptoGasto;
+
+  /** EntidadRef */
+  private String entidadRef;
+
+  /** Anualidad */
+  private Integer anualidad;
+
+  /** Financiación ajena */
+  private Boolean financiacionAjena;
+
+  /** Suma de los importes solicitados */
+  private BigDecimal importeTotal;
+
+  /** Número de dimensiones, de las indicadas, por las que se agrupa la fila */
+  private Integer nivel;
+
+}
@@ -0,0 +1,34 @@
+package org.crue.hercules.sgi.csp.dto;
+
+import java.io.Serializable;
+
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cambio de estado que el usuario puede realizar sobre una solicitud.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SolicitudTransicion implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Estado destino */
+  private EstadoSolicitud.Estado estado;
+
+  /** Indica si el cambio de estado requiere comentario */
+  private Boolean comentarioRequerido;
+
+}
@@ -0,0 +1,39 @@
+package org.crue.hercules.sgi.csp.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado actual de una solicitud y acciones que puede realizar el usuario sobre
+ * ella.
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SolicitudTransiciones implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Estado actual */
+  private EstadoSolicitud.Estado estado;
+
+  /** Indica si el usuario puede modificar la solicitud */
+  private Boolean modificable;
+
+  /** Cambios de estado que puede realizar el usuario */
+  private List<SolicitudTransicion> transiciones;
+
+}
@@ -0,0 +1,17 @@
+package org.crue.hercules.sgi.csp.exceptions;
+
+/**
+ * ProyectoJobNotFoundException
+ */
+public class ProyectoJobNotFoundException extends CspNotFoundException {
+
+  /**
+   *
+   */
+  private static final long serialVersionUID = 1L;
+
+  public ProyectoJobNotFoundException(Long proyectoJobId) {
+    super("ProyectoJob " + proyectoJobId + " does not exist.");
+  }
+
+}
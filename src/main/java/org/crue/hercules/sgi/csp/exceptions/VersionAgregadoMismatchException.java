@@ -0,0 +1,19 @@
+package org.crue.hercules.sgi.csp.exceptions;
+
+/**
+ * La versión de una entidad agregado (convocatoria, solicitud o proyecto)
+ * indicada en una modificación condicional (cabecera If-Match) no coincide con
+ * la actual, porque otro usuario la ha modificado entretanto.
+ */
+public class VersionAgregadoMismatchException extends RuntimeException {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  public VersionAgregadoMismatchException(String agregado, Long id) {
+    super(agregado + " " + id + " has been modified.");
+  }
+
+}
@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -13,11 +14,16 @@ import javax.persistence.Table;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 @Entity
 @Table(name = "area_tematica")
@@ -37,7 +43,7 @@ public class AreaTematica extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "area_tematica_seq")
-  @SequenceGenerator(name = "area_tematica_seq", sequenceName = "area_tematica_seq", allocationSize = 1)
+  @SequenceGenerator(name = "area_tematica_seq", sequenceName = "area_tematica_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** Nombre */
@@ -58,8 +64,25 @@ public class AreaTematica extends BaseEntity {
   @JoinColumn(name = "area_tematica_padre_id", nullable = true, foreignKey = @ForeignKey(name = "FK_AREATEMATICA_PADRE"))
   private AreaTematica padre;
 
+  /**
+   * Id del grupo (AreaTematica raíz del árbol) al que pertenece. Es null en los
+   * grupos. Lo mantiene el servicio y permite comprobar la unicidad de nombre y
+   * descripción en el grupo con una única consulta indexada.
+   */
+  @Column(name = "area_tematica_raiz_id", nullable = true)
+  @JsonIgnore
+  private Long raizId;
+
   /** Activo */
   @Column(name = "activo", columnDefinition = "boolean default true", nullable = false)
   private Boolean activo;
 
+  // Relation mappings for JPA metamodel generation only
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "area_tematica_raiz_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_AREATEMATICA_RAIZ"))
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @JsonIgnore
+  private final AreaTematica raiz = null;
+
 }
\ No newline at end of file
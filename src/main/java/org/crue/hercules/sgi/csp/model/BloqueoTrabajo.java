@@ -0,0 +1,60 @@
+package org.crue.hercules.sgi.csp.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bloqueo de un trabajo periódico que solo debe ejecutar una instancia del
+ * servicio a la vez.
+ * <p>
+ * Cada trabajo tiene una fila. Una instancia adquiere el bloqueo con una
+ * actualización condicional que solo tiene efecto si el bloqueo anterior ha
+ * caducado, de forma que el bloqueo se libera solo aunque la instancia que lo
+ * tenía se detenga.
+ */
+@Entity
+@Table(name = "bloqueo_trabajo")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BloqueoTrabajo implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Nombre del trabajo */
+  @Id
+  @Column(name = "nombre", length = 100, nullable = false)
+  @Size(max = 100)
+  private String nombre;
+
+  /** Fecha hasta la que el trabajo está bloqueado */
+  @Column(name = "bloqueado_hasta", nullable = false)
+  @NotNull
+  private Instant bloqueadoHasta;
+
+  /** Fecha en la que se adquirió el bloqueo */
+  @Column(name = "bloqueado_desde", nullable = true)
+  private Instant bloqueadoDesde;
+
+  /** Instancia del servicio que tiene el bloqueo */
+  @Column(name = "bloqueado_por", length = 255, nullable = true)
+  @Size(max = 255)
+  private String bloqueadoPor;
+
+}
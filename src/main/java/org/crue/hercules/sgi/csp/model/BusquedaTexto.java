@@ -0,0 +1,38 @@
+package org.crue.hercules.sgi.csp.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Columna de búsqueda de texto completo de una tabla.
+ * <p>
+ * En PostgreSQL es un tsvector que mantiene un trigger; en H2 una columna
+ * calculada con el texto en minúsculas. La entidad es de solo lectura y no se
+ * carga nunca: solo se usa para filtrar y ordenar en las consultas.
+ */
+@MappedSuperclass
+@Getter
+@NoArgsConstructor
+public abstract class BusquedaTexto implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Id */
+  @Id
+  @Column(name = "id", nullable = false, insertable = false, updatable = false)
+  private Long id;
+
+  /** Texto indexado para la búsqueda */
+  @Column(name = "busqueda", insertable = false, updatable = false)
+  private String busqueda;
+
+}
@@ -14,6 +14,8 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.SequenceGenerator;
@@ -35,6 +37,8 @@ import lombok.Setter;
 @Entity
 @Table(name = "configuracion_solicitud", uniqueConstraints = {
     @UniqueConstraint(columnNames = { "convocatoria_id" }, name = "UK_CONFIGURACIONSOLICITUD_CONVOCATORIA") })
+@NamedEntityGraph(name = ConfiguracionSolicitud.ENTITY_GRAPH, attributeNodes = {
+    @NamedAttributeNode("fasePresentacionSolicitudes") })
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -47,11 +51,14 @@ public class ConfiguracionSolicitud extends BaseEntity {
    */
   private static final long serialVersionUID = 1L;
 
+  /** Entity graph con las relaciones que se devuelven en el detalle */
+  public static final String ENTITY_GRAPH = "ConfiguracionSolicitud.datos";
+
   /** Id */
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "configuracion_solicitud_seq")
-  @SequenceGenerator(name = "configuracion_solicitud_seq", sequenceName = "configuracion_solicitud_seq", allocationSize = 1)
+  @SequenceGenerator(name = "configuracion_solicitud_seq", sequenceName = "configuracion_solicitud_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Convocatoria Id */
@@ -64,7 +71,7 @@ public class ConfiguracionSolicitud extends BaseEntity {
   private Boolean tramitacionSGI;
 
   /** Convocatoria Fase */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_fase_id", nullable = true, foreignKey = @ForeignKey(name = "FK_CONFIGURACIONSOLICITUD_CONVOCATORIAFASE"))
   private ConvocatoriaFase fasePresentacionSolicitudes;
 
@@ -78,7 +85,7 @@ public class ConfiguracionSolicitud extends BaseEntity {
   private FormularioSolicitud formularioSolicitud;
 
   // Relation mappings for JPA metamodel generation only
-  @OneToOne
+  @OneToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_CONFIGURACIONSOLICITUD_CONVOCATORIA"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
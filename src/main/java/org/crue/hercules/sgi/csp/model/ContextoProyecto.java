@@ -4,6 +4,7 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -54,7 +55,7 @@ public class ContextoProyecto extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contexto_proyecto_seq")
-  @SequenceGenerator(name = "contexto_proyecto_seq", sequenceName = "contexto_proyecto_seq", allocationSize = 1)
+  @SequenceGenerator(name = "contexto_proyecto_seq", sequenceName = "contexto_proyecto_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Proyecto Id */
@@ -90,7 +91,7 @@ public class ContextoProyecto extends BaseEntity {
   private AreaTematica areaTematica;
 
   // Relation mappings for JPA metamodel generation only
-  @OneToOne
+  @OneToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_CONTEXTOPROYECTO_PROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
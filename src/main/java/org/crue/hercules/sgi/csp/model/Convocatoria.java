@@ -14,6 +14,8 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.SequenceGenerator;
@@ -35,9 +37,14 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import lombok.ToString;
 
 @Entity
 @Table(name = "convocatoria")
+@NamedEntityGraph(name = Convocatoria.ENTITY_GRAPH, attributeNodes = { @NamedAttributeNode("modeloEjecucion"),
+    @NamedAttributeNode("finalidad"), @NamedAttributeNode("regimenConcurrencia"),
+    @NamedAttributeNode("ambitoGeografico"), @NamedAttributeNode("configuracionSolicitud"),
+    @NamedAttributeNode("requisitoEquipo"), @NamedAttributeNode("requisitoIP") })
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -50,6 +57,13 @@ public class Convocatoria extends BaseEntity {
    */
   private static final long serialVersionUID = 1L;
 
+  /**
+   * Entity graph con las relaciones que se devuelven en el listado y el detalle
+   * y las relaciones OneToOne inversas, que Hibernate no puede cargar en diferido
+   * y que sin el grafo generan una consulta adicional por fila.
+   */
+  public static final String ENTITY_GRAPH = "Convocatoria.datos";
+
   /** Estados de la convocatoria */
   public enum Estado {
     /** Borrador */
@@ -62,7 +76,7 @@ public class Convocatoria extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "convocatoria_seq")
-  @SequenceGenerator(name = "convocatoria_seq", sequenceName = "convocatoria_seq", allocationSize = 1)
+  @SequenceGenerator(name = "convocatoria_seq", sequenceName = "convocatoria_seq", allocationSize = SequenceAllocationSize.AGREGADOS)
   private Long id;
 
   /** Unidad Gestion */
@@ -71,7 +85,7 @@ public class Convocatoria extends BaseEntity {
   private String unidadGestionRef;
 
   /** Modelo Ejecucion */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "modelo_ejecucion_id", nullable = true, foreignKey = @ForeignKey(name = "FK_CONVOCATORIA_MODELOEJECUCION"))
   private ModeloEjecucion modeloEjecucion;
 
@@ -110,12 +124,12 @@ public class Convocatoria extends BaseEntity {
   private String observaciones;
 
   /** Tipo Finalidad */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "tipo_finalidad_id", nullable = true, foreignKey = @ForeignKey(name = "FK_CONVOCATORIA_FINALIDAD"))
   private TipoFinalidad finalidad;
 
   /** Regimen Concurrencia */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "tipo_regimen_concurrencia_id", nullable = true, foreignKey = @ForeignKey(name = "FK_CONVOCATORIA_REGIMENCONCURRENCIA"))
   private TipoRegimenConcurrencia regimenConcurrencia;
 
@@ -137,7 +151,7 @@ public class Convocatoria extends BaseEntity {
   private Integer duracion;
 
   /** Ambito Geografico */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "tipo_ambito_geografico_id", nullable = true, foreignKey = @ForeignKey(name = "FK_CONVOCATORIA_AMBITOGEOGRAFICO"))
   private TipoAmbitoGeografico ambitoGeografico;
 
@@ -150,6 +164,13 @@ public class Convocatoria extends BaseEntity {
   @Column(name = "activo", columnDefinition = "boolean default true", nullable = false)
   private Boolean activo;
 
+  /**
+   * Versión de la convocatoria y de sus datos relacionados. La incrementa
+   * AgregadoVersionListener con cada cambio, no se modifica desde la entidad.
+   */
+  @Column(name = "version", nullable = false, insertable = false, updatable = false)
+  private Long version;
+
   // Relations mapping, only for JPA metamodel generation
   @OneToOne(mappedBy = "convocatoria")
   @Getter(AccessLevel.NONE)
@@ -166,6 +187,14 @@ public class Convocatoria extends BaseEntity {
   @Setter(AccessLevel.NONE)
   private final RequisitoIP requisitoIP = null;
 
+  @OneToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "id", insertable = false, updatable = false)
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final ConvocatoriaBusqueda busqueda = null;
+
   @OneToMany(fetch = FetchType.LAZY, mappedBy = "convocatoria")
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
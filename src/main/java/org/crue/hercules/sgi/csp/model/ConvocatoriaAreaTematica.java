@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -42,7 +43,7 @@ public class ConvocatoriaAreaTematica extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "convocatoria_area_tematica_seq")
-  @SequenceGenerator(name = "convocatoria_area_tematica_seq", sequenceName = "convocatoria_area_tematica_seq", allocationSize = 1)
+  @SequenceGenerator(name = "convocatoria_area_tematica_seq", sequenceName = "convocatoria_area_tematica_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Convocatoria Id */
@@ -62,7 +63,7 @@ public class ConvocatoriaAreaTematica extends BaseEntity {
   private String observaciones;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_CONVOCATORIAAREATEMATICA_CONVOCATORIA"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -0,0 +1,24 @@
+package org.crue.hercules.sgi.csp.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * Búsqueda de texto completo por el título y el objeto de {@link Convocatoria}.
+ */
+@Entity
+@Table(name = "convocatoria")
+@Immutable
+@NoArgsConstructor
+public class ConvocatoriaBusqueda extends BusquedaTexto {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+}
@@ -52,7 +52,7 @@ public class ConvocatoriaConceptoGasto extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "convocatoria_concepto_gasto_seq")
-  @SequenceGenerator(name = "convocatoria_concepto_gasto_seq", sequenceName = "convocatoria_concepto_gasto_seq", allocationSize = 1)
+  @SequenceGenerator(name = "convocatoria_concepto_gasto_seq", sequenceName = "convocatoria_concepto_gasto_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Convocatoria Id */
@@ -96,7 +96,7 @@ public class ConvocatoriaConceptoGasto extends BaseEntity {
   private Integer porcentajeCosteIndirecto;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_CONVOCATORIACONCEPTOGASTO_CONVOCATORIA"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -4,6 +4,7 @@ import java.time.Instant;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -48,7 +49,7 @@ public class ConvocatoriaConceptoGastoCodigoEc extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "convocatoria_concepto_gasto_codigo_ec_seq")
-  @SequenceGenerator(name = "convocatoria_concepto_gasto_codigo_ec_seq", sequenceName = "convocatoria_concepto_gasto_codigo_ec_seq", allocationSize = 1)
+  @SequenceGenerator(name = "convocatoria_concepto_gasto_codigo_ec_seq", sequenceName = "convocatoria_concepto_gasto_codigo_ec_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Convocatoria Id */
@@ -76,7 +77,7 @@ public class ConvocatoriaConceptoGastoCodigoEc extends BaseEntity {
   private String observaciones;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_concepto_gasto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_CONVOCATORIACONCEPTOGASTOCODIGOEC_CONVOCATORIACONCEPTOGASTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -41,7 +42,7 @@ public class ConvocatoriaDocumento extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "convocatoria_documento_seq")
-  @SequenceGenerator(name = "convocatoria_documento_seq", sequenceName = "convocatoria_documento_seq", allocationSize = 1)
+  @SequenceGenerator(name = "convocatoria_documento_seq", sequenceName = "convocatoria_documento_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Convocatoria Id */
@@ -81,7 +82,7 @@ public class ConvocatoriaDocumento extends BaseEntity {
   private String documentoRef;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_CONVOCATORIADOCUMENTO_CONVOCATORIA"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -39,7 +40,7 @@ public class ConvocatoriaEntidadConvocante extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "convocatoria_entidad_convocante_seq")
-  @SequenceGenerator(name = "convocatoria_entidad_convocante_seq", sequenceName = "convocatoria_entidad_convocante_seq", allocationSize = 1)
+  @SequenceGenerator(name = "convocatoria_entidad_convocante_seq", sequenceName = "convocatoria_entidad_convocante_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Convocatoria Id */
@@ -59,7 +60,7 @@ public class ConvocatoriaEntidadConvocante extends BaseEntity {
   private Programa programa;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_CONVOCATORIAENTIDADCONVOCANTE_CONVOCATORIA"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
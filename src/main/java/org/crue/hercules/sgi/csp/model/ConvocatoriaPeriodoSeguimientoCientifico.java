@@ -4,6 +4,7 @@ import java.time.Instant;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -43,7 +44,7 @@ public class ConvocatoriaPeriodoSeguimientoCientifico extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "convocatoria_periodo_seguimiento_cientifico_seq")
-  @SequenceGenerator(name = "convocatoria_periodo_seguimiento_cientifico_seq", sequenceName = "convocatoria_periodo_seguimiento_cientifico_seq", allocationSize = 1)
+  @SequenceGenerator(name = "convocatoria_periodo_seguimiento_cientifico_seq", sequenceName = "convocatoria_periodo_seguimiento_cientifico_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Convocatoria Id */
@@ -82,7 +83,7 @@ public class ConvocatoriaPeriodoSeguimientoCientifico extends BaseEntity {
   private String observaciones;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_CONVOCATORIAPERIODOSEGUIMIENTOCIENTIFICO_CONVOCATORIA"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
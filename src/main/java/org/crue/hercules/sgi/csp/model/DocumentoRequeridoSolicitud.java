@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -40,7 +41,7 @@ public class DocumentoRequeridoSolicitud extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "documento_requerido_solicitud_seq")
-  @SequenceGenerator(name = "documento_requerido_solicitud_seq", sequenceName = "documento_requerido_solicitud_seq", allocationSize = 1)
+  @SequenceGenerator(name = "documento_requerido_solicitud_seq", sequenceName = "documento_requerido_solicitud_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** ConfiguracionSolicitud Id */
@@ -60,7 +61,7 @@ public class DocumentoRequeridoSolicitud extends BaseEntity {
   private String observaciones;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "configuracion_solicitud_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_DOCUMENTOREQUERIDOSOLICITUD_CONFIGURACIONSOLICITUD"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -6,6 +6,7 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -62,7 +63,7 @@ public class EstadoProyecto extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "estado_proyecto_seq")
-  @SequenceGenerator(name = "estado_proyecto_seq", sequenceName = "estado_proyecto_seq", allocationSize = 1)
+  @SequenceGenerator(name = "estado_proyecto_seq", sequenceName = "estado_proyecto_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Proyecto Id */
@@ -87,7 +88,7 @@ public class EstadoProyecto extends BaseEntity {
   private String comentario;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_ESTADOPROYECTO_PROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -38,7 +38,7 @@ public class FuenteFinanciacion extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fuente_financiacion_seq")
-  @SequenceGenerator(name = "fuente_financiacion_seq", sequenceName = "fuente_financiacion_seq", allocationSize = 1)
+  @SequenceGenerator(name = "fuente_financiacion_seq", sequenceName = "fuente_financiacion_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** Nombre */
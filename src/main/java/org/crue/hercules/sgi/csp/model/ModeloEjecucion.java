@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -11,6 +12,9 @@ import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,6 +23,8 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "modelo_ejecucion")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -35,7 +41,7 @@ public class ModeloEjecucion extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "modelo_ejecucion_seq")
-  @SequenceGenerator(name = "modelo_ejecucion_seq", sequenceName = "modelo_ejecucion_seq", allocationSize = 1)
+  @SequenceGenerator(name = "modelo_ejecucion_seq", sequenceName = "modelo_ejecucion_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** Nombre. */
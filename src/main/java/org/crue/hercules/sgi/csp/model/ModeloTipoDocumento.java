@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.ForeignKey;
@@ -13,6 +14,9 @@ import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +27,8 @@ import lombok.NoArgsConstructor;
 @Table(name = "modelo_tipo_documento", uniqueConstraints = {
     @UniqueConstraint(columnNames = { "modelo_ejecucion_id", "tipo_documento_id",
         "modelo_tipo_fase_id" }, name = "UK_MODELOTIPODOCUMENTO_MODELO_TIPODOCUMENTO_MODELOTIPOFASE") })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -39,7 +45,7 @@ public class ModeloTipoDocumento extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "modelo_tipo_documento_seq")
-  @SequenceGenerator(name = "modelo_tipo_documento_seq", sequenceName = "modelo_tipo_documento_seq", allocationSize = 1)
+  @SequenceGenerator(name = "modelo_tipo_documento_seq", sequenceName = "modelo_tipo_documento_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** Tipo documento. */
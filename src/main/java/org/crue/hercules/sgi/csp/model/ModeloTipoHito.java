@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.ForeignKey;
@@ -13,6 +14,9 @@ import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,6 +26,8 @@ import lombok.NoArgsConstructor;
 @Entity
 @Table(name = "modelo_tipo_hito", uniqueConstraints = { @UniqueConstraint(columnNames = { "modelo_ejecucion_id",
     "tipo_hito_id" }, name = "UK_MODELOTIPOHITO_MODELO_TIPOHITO") })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -38,7 +44,7 @@ public class ModeloTipoHito extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "modelo_tipo_hito_seq")
-  @SequenceGenerator(name = "modelo_tipo_hito_seq", sequenceName = "modelo_tipo_hito_seq", allocationSize = 1)
+  @SequenceGenerator(name = "modelo_tipo_hito_seq", sequenceName = "modelo_tipo_hito_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** Tipo fase. */
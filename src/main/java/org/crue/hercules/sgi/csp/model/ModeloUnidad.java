@@ -38,7 +38,7 @@ public class ModeloUnidad extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "modelo_unidad_seq")
-  @SequenceGenerator(name = "modelo_unidad_seq", sequenceName = "modelo_unidad_seq", allocationSize = 1)
+  @SequenceGenerator(name = "modelo_unidad_seq", sequenceName = "modelo_unidad_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** Unidad gestion. */
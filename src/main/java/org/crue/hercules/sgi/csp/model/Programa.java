@@ -38,7 +38,7 @@ public class Programa extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "programa_seq")
-  @SequenceGenerator(name = "programa_seq", sequenceName = "programa_seq", allocationSize = 1)
+  @SequenceGenerator(name = "programa_seq", sequenceName = "programa_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** Nombre. */
@@ -0,0 +1,75 @@
+package org.crue.hercules.sgi.csp.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ForeignKey;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Tabla de cierre (closure table) de la jerarquía de {@link Programa}.
+ * <p>
+ * Contiene una fila por cada par ancestro/descendiente del árbol, incluida la
+ * del propio {@link Programa} consigo mismo con profundidad 0, de forma que los
+ * descendientes, los ancestros y la raíz de un {@link Programa} se obtienen con
+ * una única consulta indexada. Las filas las mantiene el servicio de
+ * {@link Programa} al crear o mover un nodo.
+ */
+@Entity
+@Table(name = "programa_jerarquia")
+@IdClass(ProgramaJerarquiaId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProgramaJerarquia implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Id del Programa ancestro */
+  @Id
+  @Column(name = "programa_ancestro_id", nullable = false)
+  private Long ancestroId;
+
+  /** Id del Programa descendiente */
+  @Id
+  @Column(name = "programa_descendiente_id", nullable = false)
+  private Long descendienteId;
+
+  /** Número de niveles entre el ancestro y el descendiente */
+  @Column(name = "profundidad", nullable = false)
+  @NotNull
+  private Integer profundidad;
+
+  // Relation mappings for JPA metamodel generation only
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "programa_ancestro_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROGRAMAJERARQUIA_ANCESTRO"))
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private final Programa ancestro = null;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "programa_descendiente_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROGRAMAJERARQUIA_DESCENDIENTE"))
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private final Programa descendiente = null;
+
+}
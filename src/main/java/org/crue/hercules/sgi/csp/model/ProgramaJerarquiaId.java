@@ -0,0 +1,28 @@
+package org.crue.hercules.sgi.csp.model;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clave primaria de {@link ProgramaJerarquia}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgramaJerarquiaId implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Id del Programa ancestro */
+  private Long ancestroId;
+
+  /** Id del Programa descendiente */
+  private Long descendienteId;
+
+}
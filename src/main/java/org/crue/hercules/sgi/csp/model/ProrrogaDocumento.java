@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -41,7 +42,7 @@ public class ProrrogaDocumento extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prorroga_documento_seq")
-  @SequenceGenerator(name = "prorroga_documento_seq", sequenceName = "prorroga_documento_seq", allocationSize = 1)
+  @SequenceGenerator(name = "prorroga_documento_seq", sequenceName = "prorroga_documento_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Proyecto Id */
@@ -77,7 +78,7 @@ public class ProrrogaDocumento extends BaseEntity {
   private Boolean visible;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_prorroga_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PRORROGADOCUMENTO_PROYECTOPRORROGA"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
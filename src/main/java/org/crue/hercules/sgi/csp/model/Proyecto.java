@@ -7,12 +7,16 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.SequenceGenerator;
@@ -30,9 +34,15 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import lombok.ToString;
 
 @Entity
 @Table(name = "proyecto")
+@NamedEntityGraph(name = Proyecto.ENTITY_GRAPH, attributeNodes = { @NamedAttributeNode("estado"),
+    @NamedAttributeNode("modeloEjecucion"), @NamedAttributeNode("finalidad"), @NamedAttributeNode("ambitoGeografico"),
+    @NamedAttributeNode(value = "contexto", subgraph = "contexto") }, subgraphs = {
+        @NamedSubgraph(name = "contexto", attributeNodes = { @NamedAttributeNode("areaTematica"),
+            @NamedAttributeNode("areaTematicaConvocatoria") }) })
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -45,6 +55,13 @@ public class Proyecto extends BaseEntity {
    */
   private static final long serialVersionUID = 1L;
 
+  /**
+   * Entity graph con las relaciones que se devuelven en el listado y el detalle
+   * y la relación OneToOne inversa con el contexto, que Hibernate no puede cargar
+   * en diferido y que sin el grafo genera una consulta adicional por fila.
+   */
+  public static final String ENTITY_GRAPH = "Proyecto.datos";
+
   /** Tipo de horas anuales. */
   public enum TipoHorasAnuales {
     /** Valor fijo */
@@ -59,7 +76,7 @@ public class Proyecto extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_seq")
-  @SequenceGenerator(name = "proyecto_seq", sequenceName = "proyecto_seq", allocationSize = 1)
+  @SequenceGenerator(name = "proyecto_seq", sequenceName = "proyecto_seq", allocationSize = SequenceAllocationSize.AGREGADOS)
   private Long id;
 
   /** Convocatoria Id */
@@ -71,7 +88,7 @@ public class Proyecto extends BaseEntity {
   private Long solicitudId;
 
   /** Estado proyecto */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "estado_proyecto_id", nullable = true, foreignKey = @ForeignKey(name = "FK_PROYECTO_ESTADOPROYECTO"))
   private EstadoProyecto estado;
 
@@ -108,13 +125,13 @@ public class Proyecto extends BaseEntity {
   private String unidadGestionRef;
 
   /** Modelo ejecución. */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "modelo_ejecucion_id", nullable = false, foreignKey = @ForeignKey(name = "FK_PROYECTO_MODELOEJECUCION"))
   @NotNull
   private ModeloEjecucion modeloEjecucion;
 
   /** Tipo Finalidad */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "tipo_finalidad_id", nullable = true, foreignKey = @ForeignKey(name = "FK_PROYECTO_FINALIDAD"))
   private TipoFinalidad finalidad;
 
@@ -124,7 +141,7 @@ public class Proyecto extends BaseEntity {
   private String convocatoriaExterna;
 
   /** Ambito Geografico */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "tipo_ambito_geografico_id", nullable = true, foreignKey = @ForeignKey(name = "FK_PROYECTO_AMBITOGEOGRAFICO"))
   private TipoAmbitoGeografico ambitoGeografico;
 
@@ -196,19 +213,34 @@ public class Proyecto extends BaseEntity {
   @NotNull
   private Boolean activo;
 
+  /**
+   * Versión del proyecto y de sus datos relacionados. La incrementa
+   * AgregadoVersionListener con cada cambio, no se modifica desde la entidad.
+   */
+  @Column(name = "version", nullable = false, insertable = false, updatable = false)
+  private Long version;
+
   // Relation mappings for JPA metamodel generation only
   @OneToOne(mappedBy = "proyecto")
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
   private final ContextoProyecto contexto = null;
 
-  @ManyToOne
+  @OneToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "id", insertable = false, updatable = false)
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final ProyectoBusqueda busqueda = null;
+
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTO_CONVOCATORIA"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
   private final Convocatoria convocatoria = null;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "solicitud_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTO_SOLICITUD"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
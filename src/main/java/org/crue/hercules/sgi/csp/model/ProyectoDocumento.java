@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -40,7 +41,7 @@ public class ProyectoDocumento extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_documento_seq")
-  @SequenceGenerator(name = "proyecto_documento_seq", sequenceName = "proyecto_documento_seq", allocationSize = 1)
+  @SequenceGenerator(name = "proyecto_documento_seq", sequenceName = "proyecto_documento_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Proyecto Id */
@@ -81,7 +82,7 @@ public class ProyectoDocumento extends BaseEntity {
   private Boolean visible;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTODOCUMENTO_PROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -43,7 +44,7 @@ public class ProyectoEntidadConvocante extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_entidad_convocante_seq")
-  @SequenceGenerator(name = "proyecto_entidad_convocante_seq", sequenceName = "proyecto_entidad_convocante_seq", allocationSize = 1)
+  @SequenceGenerator(name = "proyecto_entidad_convocante_seq", sequenceName = "proyecto_entidad_convocante_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Entidad Convocante */
@@ -68,7 +69,7 @@ public class ProyectoEntidadConvocante extends BaseEntity {
   private Programa programa;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTOENTIDADCONVOCANTE_PROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
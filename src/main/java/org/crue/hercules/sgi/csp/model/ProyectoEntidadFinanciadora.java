@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -44,7 +45,7 @@ public class ProyectoEntidadFinanciadora extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_entidad_financiadora_seq")
-  @SequenceGenerator(name = "proyecto_entidad_financiadora_seq", sequenceName = "proyecto_entidad_financiadora_seq", allocationSize = 1)
+  @SequenceGenerator(name = "proyecto_entidad_financiadora_seq", sequenceName = "proyecto_entidad_financiadora_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Proyecto Id */
@@ -78,7 +79,7 @@ public class ProyectoEntidadFinanciadora extends BaseEntity {
   private Boolean ajena;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTOENTIDADFINANCIADORA_PROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
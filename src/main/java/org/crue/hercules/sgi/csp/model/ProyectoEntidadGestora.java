@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -41,7 +42,7 @@ public class ProyectoEntidadGestora extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_entidad_gestora_seq")
-  @SequenceGenerator(name = "proyecto_entidad_gestora_seq", sequenceName = "proyecto_entidad_gestora_seq", allocationSize = 1)
+  @SequenceGenerator(name = "proyecto_entidad_gestora_seq", sequenceName = "proyecto_entidad_gestora_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Proyecto Id */
@@ -55,7 +56,7 @@ public class ProyectoEntidadGestora extends BaseEntity {
   private String entidadRef;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTOENTIDADGESTORA_PROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
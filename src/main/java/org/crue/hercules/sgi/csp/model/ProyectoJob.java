@@ -0,0 +1,143 @@
+package org.crue.hercules.sgi.csp.model;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.ForeignKey;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Trabajo asíncrono de creación de un {@link Proyecto} a partir de una
+ * {@link Solicitud}.
+ * <p>
+ * El estado del trabajo se persiste para poder consultar su progreso y para
+ * reanudar los trabajos pendientes tras un reinicio del servicio.
+ */
+@Entity
+@Table(name = "proyecto_job")
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProyectoJob extends BaseEntity {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Estados del trabajo
+   */
+  public enum Estado {
+    /** Pendiente de ejecución */
+    PENDIENTE,
+    /** En ejecución */
+    EN_CURSO,
+    /** Finalizado con el proyecto creado */
+    COMPLETADO,
+    /** Finalizado con error */
+    ERROR;
+  }
+
+  /** Id */
+  @Id
+  @Column(name = "id", nullable = false)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_job_seq")
+  @SequenceGenerator(name = "proyecto_job_seq", sequenceName = "proyecto_job_seq", allocationSize = SequenceAllocationSize.DEFECTO)
+  private Long id;
+
+  /** Solicitud Id */
+  @Column(name = "solicitud_id", nullable = false)
+  @NotNull
+  private Long solicitudId;
+
+  /** Estado */
+  @Column(name = "estado", length = 50, nullable = false)
+  @Enumerated(EnumType.STRING)
+  @NotNull
+  private Estado estado;
+
+  /** Datos del proyecto a crear (JSON) */
+  @Column(name = "datos", nullable = false)
+  @NotNull
+  @JsonIgnore
+  private String datos;
+
+  /** Unidad de gestión de la solicitud */
+  @Column(name = "unidad_gestion_ref", length = 50, nullable = false)
+  @NotNull
+  @Size(max = 50)
+  private String unidadGestionRef;
+
+  /** Usuario que solicita la creación */
+  @Column(name = "usuario_ref", length = 50, nullable = false)
+  @NotNull
+  @Size(max = 50)
+  private String usuarioRef;
+
+  /** Proyecto Id creado */
+  @Column(name = "proyecto_id", nullable = true)
+  private Long proyectoId;
+
+  /** Error */
+  @Column(name = "error", length = 2000, nullable = true)
+  @Size(max = 2000)
+  private String error;
+
+  /**
+   * Identificador de la reserva con la que una instancia del servicio ejecuta el
+   * trabajo. Cambia cada vez que se reserva el trabajo.
+   */
+  @Column(name = "reserva", length = 36, nullable = true)
+  @JsonIgnore
+  private String reserva;
+
+  /**
+   * Fecha de inicio de la ejecución, que se renueva mientras el trabajo se
+   * ejecuta
+   */
+  @Column(name = "fecha_inicio", nullable = true)
+  private Instant fechaInicio;
+
+  /** Fecha de fin de la ejecución */
+  @Column(name = "fecha_fin", nullable = true)
+  private Instant fechaFin;
+
+  // Relation mappings for JPA metamodel generation only
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "solicitud_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTOJOB_SOLICITUD"))
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private final Solicitud solicitud = null;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTOJOB_PROYECTO"))
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private final Proyecto proyecto = null;
+}
@@ -4,6 +4,7 @@ import java.time.Instant;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -46,7 +47,7 @@ public class ProyectoPaqueteTrabajo extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_paquete_trabajo_seq")
-  @SequenceGenerator(name = "proyecto_paquete_trabajo_seq", sequenceName = "proyecto_paquete_trabajo_seq", allocationSize = 1)
+  @SequenceGenerator(name = "proyecto_paquete_trabajo_seq", sequenceName = "proyecto_paquete_trabajo_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Proyecto Id */
@@ -81,7 +82,7 @@ public class ProyectoPaqueteTrabajo extends BaseEntity {
   private String descripcion;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTOPAQUETETRABAJO_PROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
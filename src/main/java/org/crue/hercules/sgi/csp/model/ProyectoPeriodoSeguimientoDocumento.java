@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -40,7 +41,7 @@ public class ProyectoPeriodoSeguimientoDocumento extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_periodo_seguimiento_documento_seq")
-  @SequenceGenerator(name = "proyecto_periodo_seguimiento_documento_seq", sequenceName = "proyecto_periodo_seguimiento_documento_seq", allocationSize = 1)
+  @SequenceGenerator(name = "proyecto_periodo_seguimiento_documento_seq", sequenceName = "proyecto_periodo_seguimiento_documento_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** ProyectoPeriodoSeguimiento Id */
@@ -75,7 +76,7 @@ public class ProyectoPeriodoSeguimientoDocumento extends BaseEntity {
   private Boolean visible;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_periodo_seguimiento_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTOPERIODOSEGUIMIENTODOCUMENTO_PROYECTOPERIODOSEGUIMIENTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -4,6 +4,7 @@ import java.time.Instant;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -42,7 +43,7 @@ public class ProyectoSocioEquipo extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_socio_equipo_seq")
-  @SequenceGenerator(name = "proyecto_socio_equipo_seq", sequenceName = "proyecto_socio_seq", allocationSize = 1)
+  @SequenceGenerator(name = "proyecto_socio_equipo_seq", sequenceName = "proyecto_socio_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** ProyectoSocio Id */
@@ -71,7 +72,7 @@ public class ProyectoSocioEquipo extends BaseEntity {
   private Instant fechaFin;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_socio_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTOSOCIOEQUIPO_PROYECTOSOCIO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -40,7 +41,7 @@ public class ProyectoSocioPeriodoJustificacionDocumento extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_socio_periodo_justificacion_documento_seq")
-  @SequenceGenerator(name = "proyecto_socio_periodo_justificacion_documento_seq", sequenceName = "proyecto_socio_periodo_justificacion_documento_seq", allocationSize = 1)
+  @SequenceGenerator(name = "proyecto_socio_periodo_justificacion_documento_seq", sequenceName = "proyecto_socio_periodo_justificacion_documento_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** ProyectoSocioPeriodoJustificacion Id */
@@ -76,7 +77,7 @@ public class ProyectoSocioPeriodoJustificacionDocumento extends BaseEntity {
   private Boolean visible;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_socio_periodo_justificacion_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTOSOCIOPERIODOJUSTIFICACIONDOCUMENTO_PROYECTOSOCIOPERIODOJUSTIFICACION"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
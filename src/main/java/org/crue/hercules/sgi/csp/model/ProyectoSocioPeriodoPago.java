@@ -5,6 +5,7 @@ import java.time.Instant;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -42,7 +43,7 @@ public class ProyectoSocioPeriodoPago extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_socio_periodo_pago_seq")
-  @SequenceGenerator(name = "proyecto_socio_periodo_pago_seq", sequenceName = "proyecto_socio_periodo_pago_seq", allocationSize = 1)
+  @SequenceGenerator(name = "proyecto_socio_periodo_pago_seq", sequenceName = "proyecto_socio_periodo_pago_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** ProyectoSocio Id */
@@ -69,7 +70,7 @@ public class ProyectoSocioPeriodoPago extends BaseEntity {
   private Instant fechaPago;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "proyecto_socio_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_PROYECTOSOCIOPERIODOPAGO_PROYECTOSOCIO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -41,7 +42,7 @@ public class RequisitoEquipo extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requisito_equipo_seq")
-  @SequenceGenerator(name = "requisito_equipo_seq", sequenceName = "requisito_equipo_seq", allocationSize = 1)
+  @SequenceGenerator(name = "requisito_equipo_seq", sequenceName = "requisito_equipo_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Convocatoria Id */
@@ -109,7 +110,7 @@ public class RequisitoEquipo extends BaseEntity {
   private String otrosRequisitos;
 
   // Relation mappings for JPA metamodel generation only
-  @OneToOne
+  @OneToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_REQUISITOEQUIPO_CONVOCATORIA"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -19,6 +20,9 @@ import javax.validation.constraints.Size;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,6 +34,8 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "rol_proyecto")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -58,7 +64,7 @@ public class RolProyecto extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rol_proyecto_seq")
-  @SequenceGenerator(name = "rol_proyecto_seq", sequenceName = "rol_proyecto_seq", allocationSize = 1)
+  @SequenceGenerator(name = "rol_proyecto_seq", sequenceName = "rol_proyecto_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** Abreviatura */
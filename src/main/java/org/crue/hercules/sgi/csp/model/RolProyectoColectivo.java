@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -39,7 +40,7 @@ public class RolProyectoColectivo extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rol_proyecto_colectivo_seq")
-  @SequenceGenerator(name = "rol_proyecto_colectivo_seq", sequenceName = "rol_proyecto_colectivo_seq", allocationSize = 1)
+  @SequenceGenerator(name = "rol_proyecto_colectivo_seq", sequenceName = "rol_proyecto_colectivo_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** RolProyecto Id */
@@ -53,7 +54,7 @@ public class RolProyectoColectivo extends BaseEntity {
   private String colectivoRef;
 
   // ** Rol Proyecto */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "rol_proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_ROLPROYECTOCOLECTIVO_ROLPROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -10,6 +11,9 @@ import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +22,8 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "rol_socio")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -34,7 +40,7 @@ public class RolSocio extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rol_socio_seq")
-  @SequenceGenerator(name = "rol_socio_seq", sequenceName = "rol_socio_seq", allocationSize = 1)
+  @SequenceGenerator(name = "rol_socio_seq", sequenceName = "rol_socio_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** Abreviatura */
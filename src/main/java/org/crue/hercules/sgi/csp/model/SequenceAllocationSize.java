@@ -0,0 +1,28 @@
+package org.crue.hercules.sgi.csp.model;
+
+/**
+ * Tamaños de bloque de las secuencias de identificadores por grupo de
+ * entidades.
+ * <p>
+ * Hibernate reserva en memoria un bloque de identificadores por cada
+ * <code>nextval</code> (optimizador <code>pooled-lo</code>), por lo que el
+ * incremento de cada secuencia en base de datos debe coincidir con el
+ * <code>allocationSize</code> de su entidad. Cualquier cambio en estos valores
+ * requiere un changeset de Liquibase que haga el <code>alterSequence</code>
+ * correspondiente.
+ */
+public final class SequenceAllocationSize {
+
+  /** Datos maestros (tipos, modelos, roles, programas...). */
+  public static final int MAESTROS = 10;
+
+  /** Entidades principales: {@link Convocatoria}, {@link Solicitud} y {@link Proyecto}. */
+  public static final int AGREGADOS = 20;
+
+  /** Resto de entidades (colecciones dependientes de las principales). */
+  public static final int DEFECTO = 50;
+
+  private SequenceAllocationSize() {
+  }
+
+}
@@ -6,12 +6,16 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.SequenceGenerator;
@@ -29,9 +33,13 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import lombok.ToString;
 
 @Entity
 @Table(name = "solicitud")
+@NamedEntityGraph(name = Solicitud.ENTITY_GRAPH, attributeNodes = { @NamedAttributeNode("estado"),
+    @NamedAttributeNode(value = "solicitudProyecto", subgraph = "solicitudProyecto") }, subgraphs = {
+        @NamedSubgraph(name = "solicitudProyecto", attributeNodes = { @NamedAttributeNode("areaTematica") }) })
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -44,11 +52,19 @@ public class Solicitud extends BaseEntity {
    */
   private static final long serialVersionUID = 1L;
 
+  /**
+   * Entity graph con las relaciones que se devuelven en el listado y el detalle
+   * y la relación OneToOne inversa con la solicitud de proyecto, que Hibernate no
+   * puede cargar en diferido y que sin el grafo genera una consulta adicional por
+   * fila.
+   */
+  public static final String ENTITY_GRAPH = "Solicitud.datos";
+
   /** Id */
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_seq")
-  @SequenceGenerator(name = "solicitud_seq", sequenceName = "solicitud_seq", allocationSize = 1)
+  @SequenceGenerator(name = "solicitud_seq", sequenceName = "solicitud_seq", allocationSize = SequenceAllocationSize.AGREGADOS)
   private Long id;
 
   /** Convocatoria Id */
@@ -66,7 +82,7 @@ public class Solicitud extends BaseEntity {
   private String codigoRegistroInterno;
 
   /** Estado solicitud */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "estado_solicitud_id", nullable = true, foreignKey = @ForeignKey(name = "FK_SOLICITUD_ESTADO_SOLICITUD"))
   private EstadoSolicitud estado;
 
@@ -107,13 +123,28 @@ public class Solicitud extends BaseEntity {
   @Column(name = "activo", columnDefinition = "boolean default true", nullable = false)
   private Boolean activo;
 
+  /**
+   * Versión de la solicitud y de sus datos relacionados. La incrementa
+   * AgregadoVersionListener con cada cambio, no se modifica desde la entidad.
+   */
+  @Column(name = "version", nullable = false, insertable = false, updatable = false)
+  private Long version;
+
   // Relation mappings for JPA metamodel generation only
   @OneToOne(mappedBy = "solicitud")
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
   private final SolicitudProyecto solicitudProyecto = null;
 
-  @ManyToOne
+  @OneToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "id", insertable = false, updatable = false)
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private final SolicitudProyectoBusqueda busqueda = null;
+
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "convocatoria_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUD_CONVOCATORIA"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
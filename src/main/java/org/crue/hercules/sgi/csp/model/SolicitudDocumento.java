@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -40,7 +41,7 @@ public class SolicitudDocumento extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_documento_seq")
-  @SequenceGenerator(name = "solicitud_documento_seq", sequenceName = "solicitud_documento_seq", allocationSize = 1)
+  @SequenceGenerator(name = "solicitud_documento_seq", sequenceName = "solicitud_documento_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Solicitud Id */
@@ -71,7 +72,7 @@ public class SolicitudDocumento extends BaseEntity {
   private TipoDocumento tipoDocumento;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "solicitud_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDDOCUMENTO_SOLICITUD"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
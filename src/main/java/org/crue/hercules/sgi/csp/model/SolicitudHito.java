@@ -4,6 +4,7 @@ import java.time.Instant;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -42,7 +43,7 @@ public class SolicitudHito extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_hito_seq")
-  @SequenceGenerator(name = "solicitud_hito_seq", sequenceName = "solicitud_hito_seq", allocationSize = 1)
+  @SequenceGenerator(name = "solicitud_hito_seq", sequenceName = "solicitud_hito_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** Solicitud Id */
@@ -72,7 +73,7 @@ public class SolicitudHito extends BaseEntity {
   private Boolean generaAviso;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "solicitud_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDHITO_SOLICITUD"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
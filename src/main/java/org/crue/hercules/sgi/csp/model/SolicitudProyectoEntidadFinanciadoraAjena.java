@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -46,7 +47,7 @@ public class SolicitudProyectoEntidadFinanciadoraAjena extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_proyecto_entidad_financiadora_ajena_seq")
-  @SequenceGenerator(name = "solicitud_proyecto_entidad_financiadora_ajena_seq", sequenceName = "solicitud_proyecto_entidad_financiadora_ajena_seq", allocationSize = 1)
+  @SequenceGenerator(name = "solicitud_proyecto_entidad_financiadora_ajena_seq", sequenceName = "solicitud_proyecto_entidad_financiadora_ajena_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** SolicitudProyecto Id */
@@ -77,7 +78,7 @@ public class SolicitudProyectoEntidadFinanciadoraAjena extends BaseEntity {
   private Integer porcentajeFinanciacion;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "solicitud_proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDPROYECTOENTIDADFINANCIADORAAJENA_SOLICITUDPROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -40,7 +41,7 @@ public class SolicitudProyectoEquipo extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_proyecto_equipo_seq")
-  @SequenceGenerator(name = "solicitud_proyecto_equipo_seq", sequenceName = "solicitud_proyecto_equipo_seq", allocationSize = 1)
+  @SequenceGenerator(name = "solicitud_proyecto_equipo_seq", sequenceName = "solicitud_proyecto_equipo_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** SolicitudProyecto Id */
@@ -69,7 +70,7 @@ public class SolicitudProyectoEquipo extends BaseEntity {
   private Integer mesFin;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "solicitud_proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDPROYECTOEQUIPO_SOLICITUDPROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
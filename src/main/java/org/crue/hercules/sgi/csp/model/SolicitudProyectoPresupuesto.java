@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -43,7 +44,7 @@ public class SolicitudProyectoPresupuesto extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_proyecto_presupuesto_seq")
-  @SequenceGenerator(name = "solicitud_proyecto_presupuesto_seq", sequenceName = "solicitud_proyecto_presupuesto_seq", allocationSize = 1)
+  @SequenceGenerator(name = "solicitud_proyecto_presupuesto_seq", sequenceName = "solicitud_proyecto_presupuesto_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** SolicitudProyecto Id */
@@ -82,7 +83,7 @@ public class SolicitudProyectoPresupuesto extends BaseEntity {
   private Boolean financiacionAjena;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "solicitud_proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDPROYECTOPRESUPUESTO_SOLICITUDPROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -0,0 +1,92 @@
+package org.crue.hercules.sgi.csp.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ForeignKey;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Total de los {@link SolicitudProyectoPresupuesto} de una {@link Solicitud}
+ * por concepto de gasto, entidad, anualidad y tipo de financiación.
+ * <p>
+ * Los totales de la {@link Solicitud} se obtienen sumando unas pocas filas
+ * indexadas por la {@link Solicitud} en lugar de agregar todas sus partidas.
+ * Las filas las mantiene el servicio de {@link SolicitudProyectoPresupuesto} al
+ * crear, modificar o eliminar una partida y se reconcilian periódicamente con
+ * las partidas.
+ */
+@Entity
+@Table(name = "solicitud_proyecto_presupuesto_total")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SolicitudProyectoPresupuestoTotal implements Serializable {
+
+  /**
+   * Serial version
+   */
+  private static final long serialVersionUID = 1L;
+
+  /** Id */
+  @Id
+  @Column(name = "id", nullable = false)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_proyecto_presupuesto_total_seq")
+  @SequenceGenerator(name = "solicitud_proyecto_presupuesto_total_seq", sequenceName = "solicitud_proyecto_presupuesto_total_seq", allocationSize = SequenceAllocationSize.DEFECTO)
+  private Long id;
+
+  /** Solicitud Id */
+  @Column(name = "solicitud_id", nullable = false)
+  @NotNull
+  private Long solicitudId;
+
+  /** Concepto gasto */
+  @ManyToOne
+  @JoinColumn(name = "concepto_gasto_id", nullable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDPROYECTOPRESUPUESTOTOTAL_CONCEPTOGASTO"))
+  @NotNull
+  private ConceptoGasto conceptoGasto;
+
+  /** EntidadRef */
+  @Column(name = "entidad_ref", length = 50, nullable = true)
+  private String entidadRef;
+
+  /** Anualidad */
+  @Column(name = "anualidad", nullable = true)
+  private Integer anualidad;
+
+  /** Financiacion ajena */
+  @Column(name = "financiacion_ajena", nullable = false)
+  @NotNull
+  private Boolean financiacionAjena;
+
+  /** Suma de los importes solicitados, null si ninguna partida tiene importe */
+  @Column(name = "importe_total", nullable = true)
+  private BigDecimal importeTotal;
+
+  // Relation mappings for JPA metamodel generation only
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "solicitud_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDPROYECTOPRESUPUESTOTOTAL_SOLICITUD"))
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private final Solicitud solicitud = null;
+
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -45,7 +46,7 @@ public class SolicitudProyectoSocio extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_proyecto_socio_seq")
-  @SequenceGenerator(name = "solicitud_proyecto_socio_seq", sequenceName = "solicitud_proyecto_socio_seq", allocationSize = 1)
+  @SequenceGenerator(name = "solicitud_proyecto_socio_seq", sequenceName = "solicitud_proyecto_socio_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** SolicitudProyecto Id */
@@ -85,7 +86,7 @@ public class SolicitudProyectoSocio extends BaseEntity {
   private BigDecimal importeSolicitado;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "solicitud_proyecto_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDPROYECTOSOCIO_SOLICITUDPROYECTO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
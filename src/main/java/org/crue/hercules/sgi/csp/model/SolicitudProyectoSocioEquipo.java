@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -41,7 +42,7 @@ public class SolicitudProyectoSocioEquipo extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_proyecto_equipo_socio_seq")
-  @SequenceGenerator(name = "solicitud_proyecto_equipo_socio_seq", sequenceName = "solicitud_proyecto_equipo_socio_seq", allocationSize = 1)
+  @SequenceGenerator(name = "solicitud_proyecto_equipo_socio_seq", sequenceName = "solicitud_proyecto_equipo_socio_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** SolicitudProyectoSocio Id */
@@ -71,7 +72,7 @@ public class SolicitudProyectoSocioEquipo extends BaseEntity {
   private Integer mesFin;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "solicitud_proyecto_socio_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDPROYECTOSOCIOEQUIPO_SOLICITUDPROYECTOSOCIO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -4,6 +4,7 @@ import java.time.Instant;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -43,7 +44,7 @@ public class SolicitudProyectoSocioPeriodoJustificacion extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_proyecto_socio_periodo_justificacion_seq")
-  @SequenceGenerator(name = "solicitud_proyecto_socio_periodo_justificacion_seq", sequenceName = "solicitud_proyecto_socio_periodo_justificacion_seq", allocationSize = 1)
+  @SequenceGenerator(name = "solicitud_proyecto_socio_periodo_justificacion_seq", sequenceName = "solicitud_proyecto_socio_periodo_justificacion_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** SolicitudProyectoSocio Id */
@@ -82,7 +83,7 @@ public class SolicitudProyectoSocioPeriodoJustificacion extends BaseEntity {
   private String observaciones;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "solicitud_proyecto_socio_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDPROYECTOSOCIOPERIODOJUSTIFICACION_SOLICITUDPROYECTOSOCIO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -42,7 +43,7 @@ public class SolicitudProyectoSocioPeriodoPago extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitud_proyecto_socio_periodo_pago_seq")
-  @SequenceGenerator(name = "solicitud_proyecto_socio_periodo_pago_seq", sequenceName = "solicitud_proyecto_socio_periodo_pago_seq", allocationSize = 1)
+  @SequenceGenerator(name = "solicitud_proyecto_socio_periodo_pago_seq", sequenceName = "solicitud_proyecto_socio_periodo_pago_seq", allocationSize = SequenceAllocationSize.DEFECTO)
   private Long id;
 
   /** SolicitudProyectoSocio Id */
@@ -65,7 +66,7 @@ public class SolicitudProyectoSocioPeriodoPago extends BaseEntity {
   private Integer mes;
 
   // Relation mappings for JPA metamodel generation only
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "solicitud_proyecto_socio_id", insertable = false, updatable = false, foreignKey = @ForeignKey(name = "FK_SOLICITUDPROYECTOSOCIOPERIODOPAGO_SOLICITUDPROYECTOSOCIO"))
   @Getter(AccessLevel.NONE)
   @Setter(AccessLevel.NONE)
@@ -33,7 +33,7 @@ public class TipoFinanciacion extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tipo_financiacion_seq")
-  @SequenceGenerator(name = "tipo_financiacion_seq", sequenceName = "tipo_financiacion_seq", allocationSize = 1)
+  @SequenceGenerator(name = "tipo_financiacion_seq", sequenceName = "tipo_financiacion_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   @Column(name = "nombre", length = 50, nullable = false)
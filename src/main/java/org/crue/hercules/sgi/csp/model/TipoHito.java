@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -10,6 +11,9 @@ import javax.persistence.Table;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,6 +22,8 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "tipo_hito")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -33,7 +39,7 @@ public class TipoHito extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tipo_hito_seq")
-  @SequenceGenerator(name = "tipo_hito_seq", sequenceName = "tipo_hito_seq", allocationSize = 1)
+  @SequenceGenerator(name = "tipo_hito_seq", sequenceName = "tipo_hito_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   @Column(name = "nombre", length = 50, nullable = false)
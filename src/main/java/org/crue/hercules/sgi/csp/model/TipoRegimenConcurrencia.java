@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -11,6 +12,9 @@ import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +24,8 @@ import lombok.NoArgsConstructor;
 @Entity
 @Table(name = "tipo_regimen_concurrencia", uniqueConstraints = {
     @UniqueConstraint(columnNames = { "nombre" }, name = "UK_TIPOREGIMENCONCURRENCIA_NOMBRE") })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
@@ -36,7 +42,7 @@ public class TipoRegimenConcurrencia extends BaseEntity {
   @Id
   @Column(name = "id", nullable = false)
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tipo_regimen_concurrencia_seq")
-  @SequenceGenerator(name = "tipo_regimen_concurrencia_seq", sequenceName = "tipo_regimen_concurrencia_seq", allocationSize = 1)
+  @SequenceGenerator(name = "tipo_regimen_concurrencia_seq", sequenceName = "tipo_regimen_concurrencia_seq", allocationSize = SequenceAllocationSize.MAESTROS)
   private Long id;
 
   /** Nombre */
@@ -3,11 +3,12 @@ package org.crue.hercules.sgi.csp.repository;
 import java.util.List;
 
 import org.crue.hercules.sgi.csp.model.AreaTematica;
+import org.crue.hercules.sgi.csp.repository.custom.CustomAreaTematicaRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 public interface AreaTematicaRepository
-    extends JpaRepository<AreaTematica, Long>, JpaSpecificationExecutor<AreaTematica> {
+    extends JpaRepository<AreaTematica, Long>, JpaSpecificationExecutor<AreaTematica>, CustomAreaTematicaRepository {
 
   /**
    * Recupera los {@link AreaTematica} activos que tienen como padre alguno de los
@@ -18,4 +19,14 @@ public interface AreaTematicaRepository
    *         {@link AreaTematica} de la lista de ids.
    */
   List<AreaTematica> findByPadreIdInAndActivoIsTrue(List<Long> ids);
+
+  /**
+   * Recupera los {@link AreaTematica}, activos o no, que tienen como padre alguno
+   * de los {@link AreaTematica} de la lista de ids.
+   * 
+   * @param ids Ids {@link AreaTematica}.
+   * @return lista de {@link AreaTematica} que tienen como padre alguno de los
+   *         {@link AreaTematica} de la lista de ids.
+   */
+  List<AreaTematica> findByPadreIdIn(List<Long> ids);
 }
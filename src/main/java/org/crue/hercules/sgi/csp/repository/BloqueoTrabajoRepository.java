@@ -0,0 +1,44 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Instant;
+
+import org.crue.hercules.sgi.csp.model.BloqueoTrabajo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface BloqueoTrabajoRepository extends JpaRepository<BloqueoTrabajo, String> {
+
+  /**
+   * Adquiere el bloqueo del trabajo si no lo tiene ninguna instancia o si ha
+   * caducado. La actualización es condicional, así que solo una instancia lo
+   * consigue.
+   *
+   * @param nombre    nombre del trabajo.
+   * @param instancia instancia del servicio que adquiere el bloqueo.
+   * @param ahora     fecha actual.
+   * @param hasta     fecha hasta la que se bloquea el trabajo.
+   * @return número de filas actualizadas, 0 si otra instancia tiene el bloqueo.
+   */
+  @Modifying
+  @Query("UPDATE BloqueoTrabajo b SET b.bloqueadoHasta = :hasta, b.bloqueadoDesde = :ahora, "
+      + "b.bloqueadoPor = :instancia WHERE b.nombre = :nombre AND b.bloqueadoHasta <= :ahora")
+  int adquirir(@Param("nombre") String nombre, @Param("instancia") String instancia, @Param("ahora") Instant ahora,
+      @Param("hasta") Instant hasta);
+
+  /**
+   * Libera el bloqueo del trabajo si lo sigue teniendo la instancia indicada.
+   *
+   * @param nombre    nombre del trabajo.
+   * @param instancia instancia del servicio que tiene el bloqueo.
+   * @param ahora     fecha actual.
+   * @return número de filas actualizadas, 0 si el bloqueo ya no es de la
+   *         instancia.
+   */
+  @Modifying
+  @Query("UPDATE BloqueoTrabajo b SET b.bloqueadoHasta = :ahora "
+      + "WHERE b.nombre = :nombre AND b.bloqueadoPor = :instancia AND b.bloqueadoHasta > :ahora")
+  int liberar(@Param("nombre") String nombre, @Param("instancia") String instancia, @Param("ahora") Instant ahora);
+
+}
@@ -1,5 +1,7 @@
 package org.crue.hercules.sgi.csp.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.crue.hercules.sgi.csp.model.ConfiguracionSolicitud;
@@ -7,6 +9,8 @@ import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaFase;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
@@ -19,6 +23,7 @@ public interface ConfiguracionSolicitudRepository
    * @param convocatoriaId Id de la {@link Convocatoria}
    * @return una {@link ConfiguracionSolicitud}
    */
+  @EntityGraph(value = ConfiguracionSolicitud.ENTITY_GRAPH, type = EntityGraphType.LOAD)
   Optional<ConfiguracionSolicitud> findByConvocatoriaId(Long convocatoriaId);
 
   /**
@@ -29,5 +34,17 @@ public interface ConfiguracionSolicitudRepository
    * @param pageable datos de la paginación
    * @return lista paginada
    */
+  @EntityGraph(value = ConfiguracionSolicitud.ENTITY_GRAPH, type = EntityGraphType.LOAD)
   Page<ConfiguracionSolicitud> findByFasePresentacionSolicitudesId(Long idFase, Pageable pageable);
+
+  /**
+   * Obtiene las {@link ConfiguracionSolicitud} de las {@link Convocatoria}
+   * indicadas.
+   * 
+   * @param convocatoriaIds Ids de las {@link Convocatoria}.
+   * @return listado de {@link ConfiguracionSolicitud}.
+   */
+  @EntityGraph(value = ConfiguracionSolicitud.ENTITY_GRAPH, type = EntityGraphType.LOAD)
+  List<ConfiguracionSolicitud> findAllByConvocatoriaIdIn(Collection<Long> convocatoriaIds);
+
 }
@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,4 +37,13 @@ public interface ConvocatoriaEntidadConvocanteRepository extends JpaRepository<C
    */
   List<ConvocatoriaEntidadConvocante> findByProgramaIsNullAndConvocatoriaId(Long idConvocatoria);
 
+  /**
+   * Recupera aquellas {@link ConvocatoriaEntidadConvocante} de las
+   * {@link Convocatoria} indicadas que no tengan {@link Programa} asociado.
+   * 
+   * @param convocatoriaIds Ids de las {@link Convocatoria}
+   * @return listado de {@link ConvocatoriaEntidadConvocante}
+   */
+  List<ConvocatoriaEntidadConvocante> findByProgramaIsNullAndConvocatoriaIdIn(Collection<Long> convocatoriaIds);
+
 }
@@ -1,11 +1,18 @@
 package org.crue.hercules.sgi.csp.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.repository.custom.CustomConvocatoriaRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.lang.Nullable;
 
 public interface ConvocatoriaRepository
     extends JpaRepository<Convocatoria, Long>, JpaSpecificationExecutor<Convocatoria>, CustomConvocatoriaRepository {
@@ -16,5 +23,40 @@ public interface ConvocatoriaRepository
    * @param codigo el nombre de {@link Convocatoria}.
    * @return el {@link Convocatoria} con el codigo indicado
    */
+  @EntityGraph(value = Convocatoria.ENTITY_GRAPH, type = EntityGraphType.LOAD)
   Optional<Convocatoria> findByCodigo(String codigo);
+
+  /**
+   * Obtiene la entidad {@link Convocatoria} con el id indicado junto con sus
+   * relaciones.
+   *
+   * @param id el id de la {@link Convocatoria}.
+   * @return la {@link Convocatoria} con el id indicado
+   */
+  @Override
+  @EntityGraph(value = Convocatoria.ENTITY_GRAPH, type = EntityGraphType.LOAD)
+  Optional<Convocatoria> findById(Long id);
+
+  /**
+   * Obtiene una página de {@link Convocatoria} junto con sus relaciones.
+   *
+   * @param spec     la especificación del filtro.
+   * @param pageable la información de la paginación.
+   * @return la página de {@link Convocatoria}
+   */
+  @Override
+  @EntityGraph(value = Convocatoria.ENTITY_GRAPH, type = EntityGraphType.LOAD)
+  Page<Convocatoria> findAll(@Nullable Specification<Convocatoria> spec, Pageable pageable);
+
+  /**
+   * Obtiene las {@link Convocatoria} con los ids indicados junto con sus
+   * relaciones.
+   *
+   * @param ids los ids de las {@link Convocatoria}.
+   * @return las {@link Convocatoria} con los ids indicados
+   */
+  @Override
+  @EntityGraph(value = Convocatoria.ENTITY_GRAPH, type = EntityGraphType.LOAD)
+  List<Convocatoria> findAllById(Iterable<Long> ids);
+
 }
@@ -1,5 +1,9 @@
 package org.crue.hercules.sgi.csp.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.crue.hercules.sgi.csp.model.ConfiguracionSolicitud;
 import org.crue.hercules.sgi.csp.model.DocumentoRequeridoSolicitud;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -7,4 +11,13 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 public interface DocumentoRequeridoSolicitudRepository
     extends JpaRepository<DocumentoRequeridoSolicitud, Long>, JpaSpecificationExecutor<DocumentoRequeridoSolicitud> {
 
+  /**
+   * Obtiene los {@link DocumentoRequeridoSolicitud} de las
+   * {@link ConfiguracionSolicitud} indicadas.
+   * 
+   * @param configuracionSolicitudIds Ids de las {@link ConfiguracionSolicitud}.
+   * @return listado de {@link DocumentoRequeridoSolicitud}.
+   */
+  List<DocumentoRequeridoSolicitud> findAllByConfiguracionSolicitudIdIn(Collection<Long> configuracionSolicitudIds);
+
 }
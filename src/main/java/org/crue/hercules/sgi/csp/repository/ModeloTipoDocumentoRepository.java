@@ -3,12 +3,15 @@ package org.crue.hercules.sgi.csp.repository;
 import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.ModeloTipoDocumento;
 import org.crue.hercules.sgi.csp.model.ModeloTipoFase;
 import org.crue.hercules.sgi.csp.model.TipoDocumento;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -26,6 +29,7 @@ public interface ModeloTipoDocumentoRepository
    * @param idTipoDocumento   Id del {@link TipoDocumento}.
    * @return lista {@link ModeloTipoDocumento} con el modelo de ejecución.
    */
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   List<ModeloTipoDocumento> findByModeloEjecucionIdAndTipoDocumentoId(Long idModeloEjecucion, Long idTipoDocumento);
 
   /**
@@ -37,6 +41,7 @@ public interface ModeloTipoDocumentoRepository
    * @param tipoDocumentoId   Id del {@link TipoDocumento}.
    * @return un {@link ModeloTipoDocumento}.
    */
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   Optional<ModeloTipoDocumento> findByModeloEjecucionIdAndModeloTipoFaseIdAndTipoDocumentoId(Long modeloEjecucionId,
       Long modeloTipoFaseId, Long tipoDocumentoId);
 }
\ No newline at end of file
@@ -2,11 +2,14 @@ package org.crue.hercules.sgi.csp.repository;
 
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.ModeloTipoEnlace;
 import org.crue.hercules.sgi.csp.model.TipoEnlace;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -24,6 +27,7 @@ public interface ModeloTipoEnlaceRepository
    * @param idTipoEnlace      Id del {@link TipoEnlace}.
    * @return un {@link ModeloTipoEnlace}.
    */
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   Optional<ModeloTipoEnlace> findByModeloEjecucionIdAndTipoEnlaceId(Long idModeloEjecucion, Long idTipoEnlace);
 
 }
\ No newline at end of file
@@ -2,9 +2,12 @@ package org.crue.hercules.sgi.csp.repository;
 
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
 import org.crue.hercules.sgi.csp.model.ModeloTipoFase;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -21,6 +24,7 @@ public interface ModeloTipoFaseRepository
    * @param tipoFaseId        Id del TipoFase del {@link ModeloTipoFase}
    * @return un {@link ModeloTipoFase} si tiene el ModeloEjecución buscado.
    */
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   Optional<ModeloTipoFase> findByModeloEjecucionIdAndTipoFaseId(Long modeloEjecucionId, Long tipoFaseId);
 
 }
\ No newline at end of file
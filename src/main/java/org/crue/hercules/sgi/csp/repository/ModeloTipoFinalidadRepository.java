@@ -2,11 +2,14 @@ package org.crue.hercules.sgi.csp.repository;
 
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.ModeloTipoFinalidad;
 import org.crue.hercules.sgi.csp.model.TipoFinalidad;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -24,6 +27,7 @@ public interface ModeloTipoFinalidadRepository
    * @param tipoFinalidadId   id del TipoFinalidad
    * @return ModeloTipoFinalidad
    */
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   Optional<ModeloTipoFinalidad> findByModeloEjecucionIdAndTipoFinalidadId(Long modeloEjecucionId, Long tipoFinalidadId);
 
 }
\ No newline at end of file
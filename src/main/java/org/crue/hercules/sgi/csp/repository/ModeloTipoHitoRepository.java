@@ -2,11 +2,14 @@ package org.crue.hercules.sgi.csp.repository;
 
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.ModeloTipoHito;
 import org.crue.hercules.sgi.csp.model.TipoHito;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -24,6 +27,7 @@ public interface ModeloTipoHitoRepository
    * @param tipoHitoId        id del TipoHito
    * @return ModeloTipoHito
    */
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   Optional<ModeloTipoHito> findByModeloEjecucionIdAndTipoHitoId(Long modeloEjecucionId, Long tipoHitoId);
 
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.crue.hercules.sgi.csp.model.Programa;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquiaId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository para {@link ProgramaJerarquia}.
+ */
+@Repository
+public interface ProgramaJerarquiaRepository extends JpaRepository<ProgramaJerarquia, ProgramaJerarquiaId> {
+
+  /**
+   * Recupera el subárbol del {@link Programa}: una fila por cada descendiente,
+   * incluido el propio {@link Programa} con profundidad 0.
+   *
+   * @param ancestroId Id del {@link Programa}.
+   * @return lista de {@link ProgramaJerarquia} con el {@link Programa} como
+   *         ancestro.
+   */
+  List<ProgramaJerarquia> findByAncestroId(Long ancestroId);
+
+  /**
+   * Recupera los ancestros del {@link Programa}: una fila por cada ancestro,
+   * incluido el propio {@link Programa} con profundidad 0.
+   *
+   * @param descendienteId Id del {@link Programa}.
+   * @return lista de {@link ProgramaJerarquia} con el {@link Programa} como
+   *         descendiente.
+   */
+  List<ProgramaJerarquia> findByDescendienteId(Long descendienteId);
+
+  /**
+   * Recupera la fila del ancestro más lejano del {@link Programa}, es decir, la
+   * de la raíz de su árbol.
+   *
+   * @param descendienteId Id del {@link Programa}.
+   * @return la {@link ProgramaJerarquia} cuyo ancestro es la raíz del árbol.
+   */
+  Optional<ProgramaJerarquia> findFirstByDescendienteIdOrderByProfundidadDesc(Long descendienteId);
+
+  /**
+   * Comprueba si un {@link Programa} pertenece al subárbol de otro.
+   *
+   * @param ancestroId     Id del {@link Programa} raíz del subárbol.
+   * @param descendienteId Id del {@link Programa} buscado.
+   * @return true si el {@link Programa} buscado es el propio {@link Programa}
+   *         raíz o uno de sus descendientes.
+   */
+  boolean existsByAncestroIdAndDescendienteId(Long ancestroId, Long descendienteId);
+
+  /**
+   * Elimina las relaciones entre los ancestros y los descendientes indicados.
+   * <p>
+   * Se vacía el contexto de persistencia tras el borrado para que no queden
+   * gestionadas filas que ya no existen y que pueden volver a insertarse con
+   * otra profundidad al mover un subárbol.
+   *
+   * @param ancestroIds     Ids de los {@link Programa} ancestros.
+   * @param descendienteIds Ids de los {@link Programa} descendientes.
+   * @return número de filas eliminadas.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("DELETE FROM ProgramaJerarquia pj "
+      + "WHERE pj.ancestroId IN :ancestroIds AND pj.descendienteId IN :descendienteIds")
+  int deleteByAncestroIdInAndDescendienteIdIn(@Param("ancestroIds") Collection<Long> ancestroIds,
+      @Param("descendienteIds") Collection<Long> descendienteIds);
+
+}
@@ -0,0 +1,89 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ProyectoJobRepository extends JpaRepository<ProyectoJob, Long>, JpaSpecificationExecutor<ProyectoJob> {
+
+  /**
+   * Obtiene los {@link ProyectoJob} que se encuentran en alguno de los estados
+   * indicados.
+   *
+   * @param estados los estados.
+   * @return la lista de {@link ProyectoJob}.
+   */
+  List<ProyectoJob> findAllByEstadoIn(Collection<ProyectoJob.Estado> estados);
+
+  /**
+   * Reserva la ejecución del {@link ProyectoJob}: lo pasa al estado en curso con
+   * una reserva nueva si está pendiente o si está en curso desde antes de la
+   * fecha indicada, porque la instancia que lo ejecutaba se detuvo sin
+   * terminarlo. La actualización es condicional, así que solo una instancia del
+   * servicio consigue reservarlo.
+   *
+   * @param id              Id del {@link ProyectoJob}.
+   * @param reserva         identificador de la reserva.
+   * @param pendiente       estado pendiente.
+   * @param enCurso         estado en curso.
+   * @param fechaInicio     fecha de inicio de la ejecución.
+   * @param caducadoAntesDe fecha de inicio a partir de la cual un trabajo en
+   *                        curso no se vuelve a reservar.
+   * @return número de filas actualizadas, 0 si el trabajo ya está reservado o
+   *         terminado.
+   */
+  @Modifying
+  @Query("UPDATE ProyectoJob j SET j.estado = :enCurso, j.reserva = :reserva, j.fechaInicio = :fechaInicio "
+      + "WHERE j.id = :id AND (j.estado = :pendiente OR (j.estado = :enCurso AND j.fechaInicio < :caducadoAntesDe))")
+  int reservarEjecucion(@Param("id") Long id, @Param("reserva") String reserva,
+      @Param("pendiente") ProyectoJob.Estado pendiente, @Param("enCurso") ProyectoJob.Estado enCurso,
+      @Param("fechaInicio") Instant fechaInicio, @Param("caducadoAntesDe") Instant caducadoAntesDe);
+
+  /**
+   * Renueva la fecha de inicio del {@link ProyectoJob} en curso si sigue
+   * reservado con la reserva indicada, para que otra instancia no lo considere
+   * interrumpido mientras se ejecuta.
+   *
+   * @param id          Id del {@link ProyectoJob}.
+   * @param reserva     identificador de la reserva.
+   * @param enCurso     estado en curso.
+   * @param fechaInicio nueva fecha de inicio.
+   * @return número de filas actualizadas, 0 si otra instancia ha reservado el
+   *         trabajo.
+   */
+  @Modifying
+  @Query("UPDATE ProyectoJob j SET j.fechaInicio = :fechaInicio "
+      + "WHERE j.id = :id AND j.reserva = :reserva AND j.estado = :enCurso")
+  int renovarEjecucion(@Param("id") Long id, @Param("reserva") String reserva,
+      @Param("enCurso") ProyectoJob.Estado enCurso, @Param("fechaInicio") Instant fechaInicio);
+
+  /**
+   * Guarda el estado final del {@link ProyectoJob} en curso si sigue reservado
+   * con la reserva indicada.
+   *
+   * @param id         Id del {@link ProyectoJob}.
+   * @param reserva    identificador de la reserva.
+   * @param enCurso    estado en curso.
+   * @param estado     estado final.
+   * @param proyectoId Id del {@link Proyecto} creado o null.
+   * @param error      mensaje de error o null.
+   * @param fechaFin   fecha de fin de la ejecución.
+   * @return número de filas actualizadas, 0 si otra instancia ha reservado el
+   *         trabajo.
+   */
+  @Modifying
+  @Query("UPDATE ProyectoJob j SET j.estado = :estado, j.proyectoId = :proyectoId, j.error = :error, "
+      + "j.fechaFin = :fechaFin WHERE j.id = :id AND j.reserva = :reserva AND j.estado = :enCurso")
+  int finalizarEjecucion(@Param("id") Long id, @Param("reserva") String reserva,
+      @Param("enCurso") ProyectoJob.Estado enCurso, @Param("estado") ProyectoJob.Estado estado,
+      @Param("proyectoId") Long proyectoId, @Param("error") String error, @Param("fechaFin") Instant fechaFin);
+
+}
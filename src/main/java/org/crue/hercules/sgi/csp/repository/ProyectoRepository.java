@@ -1,16 +1,46 @@
 package org.crue.hercules.sgi.csp.repository;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 import org.crue.hercules.sgi.csp.model.Proyecto;
 import org.crue.hercules.sgi.csp.model.Solicitud;
 import org.crue.hercules.sgi.csp.repository.custom.CustomProyectoRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.lang.Nullable;
 
 public interface ProyectoRepository
     extends JpaRepository<Proyecto, Long>, JpaSpecificationExecutor<Proyecto>, CustomProyectoRepository {
 
+  /**
+   * Obtiene la entidad {@link Proyecto} con el id indicado junto con sus
+   * relaciones.
+   *
+   * @param id el id del {@link Proyecto}.
+   * @return el {@link Proyecto} con el id indicado
+   */
+  @Override
+  @EntityGraph(value = Proyecto.ENTITY_GRAPH, type = EntityGraphType.LOAD)
+  Optional<Proyecto> findById(Long id);
+
+  /**
+   * Obtiene una página de {@link Proyecto} junto con sus relaciones.
+   *
+   * @param spec     la especificación del filtro.
+   * @param pageable la información de la paginación.
+   * @return la página de {@link Proyecto}
+   */
+  @Override
+  @EntityGraph(value = Proyecto.ENTITY_GRAPH, type = EntityGraphType.LOAD)
+  Page<Proyecto> findAll(@Nullable Specification<Proyecto> spec, Pageable pageable);
+
   /**
    * Comprueba si el rango de fechas proporcinado está dentro del periodo del
    * {@link Proyecto}.
@@ -32,4 +62,22 @@ public interface ProyectoRepository
    */
   boolean existsBySolicitudId(Long solicitudId);
 
+  /**
+   * Obtiene el {@link Proyecto} creado a partir de la {@link Solicitud}.
+   * 
+   * @param solicitudId id del {@link Solicitud}.
+   * @return el {@link Proyecto} de la {@link Solicitud}.
+   */
+  Optional<Proyecto> findBySolicitudId(Long solicitudId);
+
+  /**
+   * Obtiene los {@link Proyecto} con los ids indicados junto con sus relaciones.
+   *
+   * @param ids los ids de los {@link Proyecto}.
+   * @return los {@link Proyecto} con los ids indicados
+   */
+  @Override
+  @EntityGraph(value = Proyecto.ENTITY_GRAPH, type = EntityGraphType.LOAD)
+  List<Proyecto> findAllById(Iterable<Long> ids);
+
 }
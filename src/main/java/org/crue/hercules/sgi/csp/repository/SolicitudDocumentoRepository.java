@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.crue.hercules.sgi.csp.model.Solicitud;
@@ -24,4 +25,13 @@ public interface SolicitudDocumentoRepository
   List<SolicitudDocumento> findAllByTipoDocumentoIdInAndSolicitudId(List<Long> tiposDocumentoRequeridosSolicitud,
       Long idSolicitud);
 
+  /**
+   * Recupera la lista de {@link SolicitudDocumento} de las {@link Solicitud}
+   * indicadas.
+   * 
+   * @param solicitudIds Identificadores de las {@link Solicitud}.
+   * @return lista de {@link SolicitudDocumento}.
+   */
+  List<SolicitudDocumento> findAllBySolicitudIdIn(Collection<Long> solicitudIds);
+
 }
@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
@@ -29,4 +30,13 @@ public interface SolicitudProyectoEquipoRepository
    */
   List<SolicitudProyectoEquipo> findAllBySolicitudProyectoId(Long solicitudProyectoId);
 
+  /**
+   * Obtiene los {@link SolicitudProyectoEquipo} de los {@link SolicitudProyecto}
+   * indicados.
+   * 
+   * @param solicitudProyectoIds Ids de los {@link SolicitudProyecto}.
+   * @return listado de {@link SolicitudProyectoEquipo}.
+   */
+  List<SolicitudProyectoEquipo> findAllBySolicitudProyectoIdIn(Collection<Long> solicitudProyectoIds);
+
 }
@@ -0,0 +1,15 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuestoTotal;
+import org.crue.hercules.sgi.csp.repository.custom.CustomSolicitudProyectoPresupuestoTotalRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository para {@link SolicitudProyectoPresupuestoTotal}.
+ */
+@Repository
+public interface SolicitudProyectoPresupuestoTotalRepository
+    extends JpaRepository<SolicitudProyectoPresupuestoTotal, Long>, CustomSolicitudProyectoPresupuestoTotalRepository {
+
+}
@@ -20,6 +20,16 @@ public interface SolicitudProyectoSocioEquipoRepository
    */
   List<SolicitudProyectoSocioEquipo> findAllBySolicitudProyectoSocioId(Long solicitudProyectoSocioId);
 
+  /**
+   * Recupera los {@link SolicitudProyectoSocioEquipo} asociados a cualquiera de los
+   * {@link SolicitudProyectoSocio} indicados.
+   * 
+   * @param solicitudProyectoSocioIds Identificadores de
+   *                                  {@link SolicitudProyectoSocio}
+   * @return listado {@link SolicitudProyectoSocioEquipo}
+   */
+  List<SolicitudProyectoSocioEquipo> findAllBySolicitudProyectoSocioIdIn(List<Long> solicitudProyectoSocioIds);
+
   /**
    * Se eliminan todos los {@link SolicitudProyectoSocioEquipo} asociadosal id de
    * {@link SolicitudProyectoSocio} recibido por parámetro.
@@ -21,6 +21,16 @@ public interface SolicitudProyectoSocioPeriodoJustificacionRepository
    */
   List<SolicitudProyectoSocioPeriodoJustificacion> findAllBySolicitudProyectoSocioId(Long idSolicitudProyectoSocio);
 
+  /**
+   * Recupera los {@link SolicitudProyectoSocioPeriodoJustificacion} asociados a cualquiera de los
+   * {@link SolicitudProyectoSocio} indicados.
+   * 
+   * @param solicitudProyectoSocioIds Identificadores de
+   *                                  {@link SolicitudProyectoSocio}
+   * @return listado {@link SolicitudProyectoSocioPeriodoJustificacion}
+   */
+  List<SolicitudProyectoSocioPeriodoJustificacion> findAllBySolicitudProyectoSocioIdIn(List<Long> solicitudProyectoSocioIds);
+
   /**
    * Se eliminan todos los {@link SolicitudProyectoSocioPeriodoJustificacion}
    * asociadosal id de {@link SolicitudProyectoSocio} recibido por parámetro.
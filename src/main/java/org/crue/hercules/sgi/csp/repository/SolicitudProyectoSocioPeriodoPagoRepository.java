@@ -21,6 +21,16 @@ public interface SolicitudProyectoSocioPeriodoPagoRepository
    */
   List<SolicitudProyectoSocioPeriodoPago> findAllBySolicitudProyectoSocioId(Long solicitudProyectoSocioId);
 
+  /**
+   * Recupera los {@link SolicitudProyectoSocioPeriodoPago} asociados a cualquiera de los
+   * {@link SolicitudProyectoSocio} indicados.
+   * 
+   * @param solicitudProyectoSocioIds Identificadores de
+   *                                  {@link SolicitudProyectoSocio}
+   * @return listado {@link SolicitudProyectoSocioPeriodoPago}
+   */
+  List<SolicitudProyectoSocioPeriodoPago> findAllBySolicitudProyectoSocioIdIn(List<Long> solicitudProyectoSocioIds);
+
   /**
    * Se eliminan todos los {@link SolicitudProyectoSocioPeriodoPago} asociadosal
    * id de {@link SolicitudProyectoSocio} recibido por parámetro.
@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
@@ -29,4 +30,14 @@ public interface SolicitudProyectoSocioRepository extends JpaRepository<Solicitu
    */
   List<SolicitudProyectoSocio> findAllBySolicitudProyectoId(Long solicitudProyectoId);
 
+  /**
+   * Recupera los {@link SolicitudProyectoSocio} de los {@link SolicitudProyecto}
+   * indicados cuyo rol socio sea coordinador.
+   * 
+   * @param solicitudProyectoIds Ids de los {@link SolicitudProyecto}.
+   * @return listado {@link SolicitudProyectoSocio}
+   */
+  List<SolicitudProyectoSocio> findAllBySolicitudProyectoIdInAndRolSocioCoordinadorTrue(
+      Collection<Long> solicitudProyectoIds);
+
 }
@@ -1,9 +1,53 @@
 package org.crue.hercules.sgi.csp.repository;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.repository.custom.CustomSolicitudRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.lang.Nullable;
+
+public interface SolicitudRepository
+    extends JpaRepository<Solicitud, Long>, JpaSpecificationExecutor<Solicitud>, CustomSolicitudRepository {
+
+  /**
+   * Obtiene la entidad {@link Solicitud} con el id indicado junto con sus
+   * relaciones.
+   *
+   * @param id el id de la {@link Solicitud}.
+   * @return la {@link Solicitud} con el id indicado
+   */
+  @Override
+  @EntityGraph(value = Solicitud.ENTITY_GRAPH, type = EntityGraphType.LOAD)
+  Optional<Solicitud> findById(Long id);
+
+  /**
+   * Obtiene una página de {@link Solicitud} junto con sus relaciones.
+   *
+   * @param spec     la especificación del filtro.
+   * @param pageable la información de la paginación.
+   * @return la página de {@link Solicitud}
+   */
+  @Override
+  @EntityGraph(value = Solicitud.ENTITY_GRAPH, type = EntityGraphType.LOAD)
+  Page<Solicitud> findAll(@Nullable Specification<Solicitud> spec, Pageable pageable);
 
-public interface SolicitudRepository extends JpaRepository<Solicitud, Long>, JpaSpecificationExecutor<Solicitud> {
+  /**
+   * Obtiene las {@link Solicitud} con los ids indicados junto con sus
+   * relaciones.
+   *
+   * @param ids los ids de las {@link Solicitud}.
+   * @return la lista de {@link Solicitud}
+   */
+  @Override
+  @EntityGraph(value = Solicitud.ENTITY_GRAPH, type = EntityGraphType.LOAD)
+  List<Solicitud> findAllById(Iterable<Long> ids);
 
 }
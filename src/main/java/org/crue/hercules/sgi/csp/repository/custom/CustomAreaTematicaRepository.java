@@ -0,0 +1,38 @@
+package org.crue.hercules.sgi.csp.repository.custom;
+
+import org.crue.hercules.sgi.csp.model.AreaTematica;
+import org.springframework.stereotype.Component;
+
+/**
+ * Custom repository para {@link AreaTematica}.
+ */
+@Component
+public interface CustomAreaTematicaRepository {
+
+  /**
+   * Comprueba si existe algún {@link AreaTematica} activo del grupo indicado con
+   * el nombre indicado.
+   * 
+   * @param grupoId               Id del grupo ({@link AreaTematica} raíz).
+   * @param nombre                nombre del {@link AreaTematica}.
+   * @param areaTematicaIdExcluir Id del {@link AreaTematica} que se excluye de la
+   *                              busqueda.
+   * @return true si existe algún {@link AreaTematica} con ese nombre en el
+   *         grupo.
+   */
+  boolean existsActivoInGrupoWithNombre(Long grupoId, String nombre, Long areaTematicaIdExcluir);
+
+  /**
+   * Comprueba si existe algún {@link AreaTematica} activo del grupo indicado con
+   * la descripción indicada.
+   * 
+   * @param grupoId               Id del grupo ({@link AreaTematica} raíz).
+   * @param descripcion           descripción del {@link AreaTematica}.
+   * @param areaTematicaIdExcluir Id del {@link AreaTematica} que se excluye de la
+   *                              busqueda.
+   * @return true si existe algún {@link AreaTematica} con esa descripción en el
+   *         grupo.
+   */
+  boolean existsActivoInGrupoWithDescripcion(Long grupoId, String descripcion, Long areaTematicaIdExcluir);
+
+}
@@ -0,0 +1,103 @@
+package org.crue.hercules.sgi.csp.repository.custom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.crue.hercules.sgi.csp.model.AreaTematica;
+import org.crue.hercules.sgi.csp.model.AreaTematica_;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Spring Data JPA repository para {@link AreaTematica}.
+ */
+@Slf4j
+@Component
+public class CustomAreaTematicaRepositoryImpl implements CustomAreaTematicaRepository {
+
+  /** The entity manager. */
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Comprueba si existe algún {@link AreaTematica} activo del grupo indicado con
+   * el nombre indicado.
+   * 
+   * @param grupoId               Id del grupo ({@link AreaTematica} raíz).
+   * @param nombre                nombre del {@link AreaTematica}.
+   * @param areaTematicaIdExcluir Id del {@link AreaTematica} que se excluye de la
+   *                              busqueda.
+   * @return true si existe algún {@link AreaTematica} con ese nombre en el
+   *         grupo.
+   */
+  @Override
+  public boolean existsActivoInGrupoWithNombre(Long grupoId, String nombre, Long areaTematicaIdExcluir) {
+    log.debug("existsActivoInGrupoWithNombre(Long grupoId, String nombre, Long areaTematicaIdExcluir) - start");
+    boolean returnValue = existsActivoInGrupo(grupoId, AreaTematica_.nombre, nombre, areaTematicaIdExcluir);
+    log.debug("existsActivoInGrupoWithNombre(Long grupoId, String nombre, Long areaTematicaIdExcluir) - end");
+    return returnValue;
+  }
+
+  /**
+   * Comprueba si existe algún {@link AreaTematica} activo del grupo indicado con
+   * la descripción indicada.
+   * 
+   * @param grupoId               Id del grupo ({@link AreaTematica} raíz).
+   * @param descripcion           descripción del {@link AreaTematica}.
+   * @param areaTematicaIdExcluir Id del {@link AreaTematica} que se excluye de la
+   *                              busqueda.
+   * @return true si existe algún {@link AreaTematica} con esa descripción en el
+   *         grupo.
+   */
+  @Override
+  public boolean existsActivoInGrupoWithDescripcion(Long grupoId, String descripcion, Long areaTematicaIdExcluir) {
+    log.debug(
+        "existsActivoInGrupoWithDescripcion(Long grupoId, String descripcion, Long areaTematicaIdExcluir) - start");
+    boolean returnValue = existsActivoInGrupo(grupoId, AreaTematica_.descripcion, descripcion,
+        areaTematicaIdExcluir);
+    log.debug("existsActivoInGrupoWithDescripcion(Long grupoId, String descripcion, Long areaTematicaIdExcluir) - end");
+    return returnValue;
+  }
+
+  /**
+   * Busca el primer {@link AreaTematica} activo del grupo con el valor indicado
+   * en el campo indicado. La consulta se resuelve con el índice
+   * (area_tematica_raiz_id, campo) y se detiene en la primera coincidencia, por
+   * lo que su coste no depende del tamaño ni de la profundidad del árbol.
+   * 
+   * @param grupoId               Id del grupo ({@link AreaTematica} raíz).
+   * @param campo                 campo por el que se busca.
+   * @param texto                 valor buscado.
+   * @param areaTematicaIdExcluir Id del {@link AreaTematica} que se excluye de la
+   *                              busqueda.
+   * @return true si existe algún {@link AreaTematica} con ese valor en el grupo.
+   */
+  private boolean existsActivoInGrupo(Long grupoId, SingularAttribute<AreaTematica, String> campo, String texto,
+      Long areaTematicaIdExcluir) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+    Root<AreaTematica> root = cq.from(AreaTematica.class);
+
+    List<Predicate> predicates = new ArrayList<>();
+    predicates.add(cb.equal(root.get(AreaTematica_.raizId), grupoId));
+    predicates.add(cb.equal(root.get(campo), texto));
+    predicates.add(cb.isTrue(root.get(AreaTematica_.activo)));
+    if (areaTematicaIdExcluir != null) {
+      predicates.add(cb.notEqual(root.get(AreaTematica_.id), areaTematicaIdExcluir));
+    }
+
+    cq.select(root.get(AreaTematica_.id)).where(predicates.toArray(new Predicate[] {}));
+
+    return !entityManager.createQuery(cq).setMaxResults(1).getResultList().isEmpty();
+  }
+
+}
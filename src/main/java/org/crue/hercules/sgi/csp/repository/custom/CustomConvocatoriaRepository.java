@@ -1,14 +1,23 @@
 package org.crue.hercules.sgi.csp.repository.custom;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaConceptoGastoCodigoEc;
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.Solicitud;
 import org.crue.hercules.sgi.csp.model.TipoDocumento;
 import org.crue.hercules.sgi.csp.model.TipoEnlace;
 import org.crue.hercules.sgi.csp.model.TipoFase;
 import org.crue.hercules.sgi.csp.model.TipoHito;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 /**
@@ -40,6 +49,26 @@ public interface CustomConvocatoriaRepository {
    */
   Boolean esRegistradaConSolicitudesOProyectos(Long id);
 
+  /**
+   * Obtiene, de entre las {@link Convocatoria} indicadas, las que tienen datos
+   * vinculados de {@link TipoFase}, {@link TipoHito}, {@link TipoEnlace} y
+   * {@link TipoDocumento}.
+   *
+   * @param ids Ids de las {@link Convocatoria}.
+   * @return los ids de las {@link Convocatoria} con datos vinculados.
+   */
+  List<Long> findIdsConVinculaciones(Collection<Long> ids);
+
+  /**
+   * Obtiene, de entre las {@link Convocatoria} indicadas, las que están en
+   * estado 'Registrada' y tienen {@link Solicitud} o proyectos vinculados.
+   *
+   * @param ids Ids de las {@link Convocatoria}.
+   * @return los ids de las {@link Convocatoria} registradas y con datos
+   *         vinculados.
+   */
+  List<Long> findIdsRegistradasConSolicitudesOProyectos(Collection<Long> ids);
+
   /**
    * Obtiene la Unidad de Gestión asignada a la {@link Convocatoria}.
    * 
@@ -56,4 +85,78 @@ public interface CustomConvocatoriaRepository {
    */
   Optional<ModeloEjecucion> getModeloEjecucion(Long id);
 
+  /**
+   * Obtiene la página de {@link Convocatoria} que sigue al cursor indicado, sin
+   * consulta count.
+   *
+   * @param spec   la especificación del filtro.
+   * @param cursor posición desde la que continuar.
+   * @param size   número de elementos de la página.
+   * @return la página de {@link Convocatoria} con el cursor de la siguiente.
+   */
+  KeysetSlice<Convocatoria> findAllKeyset(Specification<Convocatoria> spec, KeysetCursor cursor, int size);
+
+  /**
+   * Obtiene la página de {@link Convocatoria} indicada sin consulta count.
+   *
+   * @param spec     la especificación del filtro.
+   * @param pageable la información de la paginación.
+   * @return la página de {@link Convocatoria} sin el número total de elementos.
+   */
+  Slice<Convocatoria> findAllSlice(Specification<Convocatoria> spec, Pageable pageable);
+
+  /**
+   * Aplica la acción a cada {@link Convocatoria} que cumple el filtro, en orden de id,
+   * sin cargar la lista completa en memoria. Se tiene que invocar dentro de una
+   * transacción.
+   *
+   * @param spec   la especificación del filtro.
+   * @param action acción a aplicar a cada {@link Convocatoria}.
+   * @return el número de {@link Convocatoria} procesadas.
+   */
+  long forEach(Specification<Convocatoria> spec, Consumer<? super Convocatoria> action);
+
+  /**
+   * Obtiene la versión de la {@link Convocatoria}, que se incrementa con cada
+   * cambio de la {@link Convocatoria} o de sus datos relacionados.
+   *
+   * @param id Id de la {@link Convocatoria}.
+   * @return la versión de la {@link Convocatoria}.
+   */
+  Optional<Long> getVersion(Long id);
+
+  /**
+   * Obtiene la versión de la {@link Convocatoria} bloqueando su fila hasta el
+   * final de la transacción, para comprobar la versión antes de modificarla sin
+   * que otra transacción la cambie entretanto. Se tiene que invocar dentro de
+   * una transacción.
+   *
+   * @param id Id de la {@link Convocatoria}.
+   * @return la versión de la {@link Convocatoria}.
+   */
+  Optional<Long> getVersionForUpdate(Long id);
+
+  /**
+   * Obtiene, sin paginar ni consulta count, las entidades hijas de la
+   * {@link Convocatoria} de la clase indicada, en orden de id. La entidad tiene
+   * que tener la propiedad convocatoriaId.
+   *
+   * @param <T>            tipo de la entidad hija.
+   * @param domainClass    la clase de la entidad hija.
+   * @param convocatoriaId Id de la {@link Convocatoria}.
+   * @return las entidades hijas de la {@link Convocatoria}.
+   */
+  <T> List<T> findAllRelacionados(Class<T> domainClass, Long convocatoriaId);
+
+  /**
+   * Obtiene, sin paginar ni consulta count, los
+   * {@link ConvocatoriaConceptoGastoCodigoEc} de todos los conceptos de gasto de
+   * la {@link Convocatoria}, en orden de id.
+   *
+   * @param convocatoriaId Id de la {@link Convocatoria}.
+   * @return los {@link ConvocatoriaConceptoGastoCodigoEc} de la
+   *         {@link Convocatoria}.
+   */
+  List<ConvocatoriaConceptoGastoCodigoEc> findAllConceptoGastoCodigosEc(Long convocatoriaId);
+
 }
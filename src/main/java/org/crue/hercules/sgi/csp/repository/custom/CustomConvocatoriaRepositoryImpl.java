@@ -1,8 +1,13 @@
 package org.crue.hercules.sgi.csp.repository.custom;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -11,6 +16,7 @@ import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
 
 import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaConceptoGastoCodigoEc;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaDocumento;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaDocumento_;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaEnlace;
@@ -29,6 +35,11 @@ import org.crue.hercules.sgi.csp.model.TipoDocumento;
 import org.crue.hercules.sgi.csp.model.TipoEnlace;
 import org.crue.hercules.sgi.csp.model.TipoFase;
 import org.crue.hercules.sgi.csp.model.TipoHito;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
@@ -40,6 +51,13 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public class CustomConvocatoriaRepositoryImpl implements CustomConvocatoriaRepository {
 
+  /**
+   * Propiedades por las que se puede paginar por cursor, con índice (propiedad,
+   * id)
+   */
+  private static final List<String> KEYSET_PROPERTIES = Arrays.asList(Convocatoria_.ID,
+      Convocatoria_.FECHA_PUBLICACION, Convocatoria_.TITULO);
+
   /** The entity manager. */
   @PersistenceContext
   private EntityManager entityManager;
@@ -61,40 +79,8 @@ public class CustomConvocatoriaRepositoryImpl implements CustomConvocatoriaRepos
     CriteriaQuery<Long> cq = cb.createQuery(Long.class);
     Root<Convocatoria> root = cq.from(Convocatoria.class);
 
-    Subquery<Long> queryConvocatoriaEnlace = cq.subquery(Long.class);
-    Root<ConvocatoriaEnlace> convocatoriaEnlaceRoot = queryConvocatoriaEnlace.from(ConvocatoriaEnlace.class);
-    Predicate existsQueryConvocatoriaEnlace = cb.exists(queryConvocatoriaEnlace
-        .select(convocatoriaEnlaceRoot.get(ConvocatoriaEnlace_.convocatoria).get(Convocatoria_.id))
-        .where(cb.equal(convocatoriaEnlaceRoot.get(ConvocatoriaEnlace_.convocatoria).get(Convocatoria_.id),
-            root.get(Convocatoria_.id))));
-
-    Subquery<Long> queryConvocatoriaFase = cq.subquery(Long.class);
-    Root<ConvocatoriaFase> convocatoriaFaseRoot = queryConvocatoriaFase.from(ConvocatoriaFase.class);
-    Predicate existsQueryConvocatoriaFase = cb.exists(
-        queryConvocatoriaFase.select(convocatoriaFaseRoot.get(ConvocatoriaFase_.convocatoria).get(Convocatoria_.id))
-            .where(cb.equal(convocatoriaFaseRoot.get(ConvocatoriaFase_.convocatoria).get(Convocatoria_.id),
-                root.get(Convocatoria_.id))));
-
-    Subquery<Long> queryConvocatoriaHito = cq.subquery(Long.class);
-    Root<ConvocatoriaHito> convocatoriaHitoRoot = queryConvocatoriaHito.from(ConvocatoriaHito.class);
-    Predicate existsQueryConvocatoriaHito = cb.exists(
-        queryConvocatoriaHito.select(convocatoriaHitoRoot.get(ConvocatoriaHito_.convocatoria).get(Convocatoria_.id))
-            .where(cb.equal(convocatoriaHitoRoot.get(ConvocatoriaHito_.convocatoria).get(Convocatoria_.id),
-                root.get(Convocatoria_.id))));
-
-    Subquery<Long> queryConvocatoriaDocumento = cq.subquery(Long.class);
-    Root<ConvocatoriaDocumento> convocatoriaDocumentoRoot = queryConvocatoriaDocumento
-        .from(ConvocatoriaDocumento.class);
-    Predicate existsQueryConvocatoriaDocumento = cb.exists(queryConvocatoriaDocumento
-        .select(convocatoriaDocumentoRoot.get(ConvocatoriaDocumento_.convocatoria).get(Convocatoria_.id))
-        .where(cb.equal(convocatoriaDocumentoRoot.get(ConvocatoriaDocumento_.convocatoria).get(Convocatoria_.id),
-            root.get(Convocatoria_.id))));
-
     Predicate convocatoria = cb.equal(root.get(Convocatoria_.id), id);
-    Predicate vinculaciones = cb.or(existsQueryConvocatoriaEnlace,
-        cb.or(existsQueryConvocatoriaFase, cb.or(existsQueryConvocatoriaHito, existsQueryConvocatoriaDocumento)));
-
-    Predicate finalPredicate = cb.and(convocatoria, vinculaciones);
+    Predicate finalPredicate = cb.and(convocatoria, tieneVinculaciones(cb, cq, root));
     cq.select(root.get(Convocatoria_.id)).where(finalPredicate);
 
     Boolean returnValue = entityManager.createQuery(cq).getResultList().size() > 0;
@@ -121,28 +107,8 @@ public class CustomConvocatoriaRepositoryImpl implements CustomConvocatoriaRepos
     CriteriaQuery<Long> cq = cb.createQuery(Long.class);
     Root<Convocatoria> root = cq.from(Convocatoria.class);
 
-    Subquery<Long> querySolicitud = cq.subquery(Long.class);
-    Root<Solicitud> solicitudRoot = querySolicitud.from(Solicitud.class);
-    Predicate existsQuerySolicitud = cb
-        .exists(querySolicitud.select(solicitudRoot.get(Solicitud_.convocatoria).get(Convocatoria_.id))
-            .where(cb.and(
-                cb.equal(solicitudRoot.get(Solicitud_.convocatoria).get(Convocatoria_.id), root.get(Convocatoria_.id)),
-                cb.equal(solicitudRoot.get(Solicitud_.activo), Boolean.TRUE))));
-
-    Subquery<Long> queryProyecto = cq.subquery(Long.class);
-    Root<Proyecto> proyectoRoot = queryProyecto.from(Proyecto.class);
-    Predicate existsQueryProyecto = cb
-        .exists(queryProyecto.select(proyectoRoot.get(Proyecto_.convocatoria).get(Convocatoria_.id))
-            .where(cb.and(
-                cb.equal(proyectoRoot.get(Proyecto_.convocatoria).get(Convocatoria_.id), root.get(Convocatoria_.id)),
-                cb.equal(proyectoRoot.get(Proyecto_.activo), Boolean.TRUE))));
-
     Predicate convocatoria = cb.equal(root.get(Convocatoria_.id), id);
-    Predicate registrada = cb.equal(root.get(Convocatoria_.estado), Convocatoria.Estado.REGISTRADA);
-    Predicate convocatoriaRegistrada = cb.and(convocatoria, registrada);
-
-    Predicate vinculaciones = cb.or(existsQuerySolicitud, existsQueryProyecto);
-    Predicate finalPredicate = cb.and(convocatoriaRegistrada, vinculaciones);
+    Predicate finalPredicate = cb.and(convocatoria, esRegistradaConSolicitudesOProyectos(cb, cq, root));
     cq.select(root.get(Convocatoria_.id)).where(finalPredicate);
 
     Boolean returnValue = entityManager.createQuery(cq).getResultList().size() > 0;
@@ -151,6 +117,57 @@ public class CustomConvocatoriaRepositoryImpl implements CustomConvocatoriaRepos
     return returnValue;
   }
 
+  /**
+   * Obtiene, de entre las {@link Convocatoria} indicadas, las que tienen datos
+   * vinculados de {@link TipoFase}, {@link TipoHito}, {@link TipoEnlace} y
+   * {@link TipoDocumento}.
+   *
+   * @param ids Ids de las {@link Convocatoria}.
+   * @return los ids de las {@link Convocatoria} con datos vinculados.
+   */
+  @Override
+  public List<Long> findIdsConVinculaciones(Collection<Long> ids) {
+    log.debug("findIdsConVinculaciones(Collection<Long> ids) - start");
+
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+    Root<Convocatoria> root = cq.from(Convocatoria.class);
+
+    Predicate finalPredicate = cb.and(root.get(Convocatoria_.id).in(ids), tieneVinculaciones(cb, cq, root));
+    cq.select(root.get(Convocatoria_.id)).where(finalPredicate);
+
+    List<Long> returnValue = entityManager.createQuery(cq).getResultList();
+
+    log.debug("findIdsConVinculaciones(Collection<Long> ids) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene, de entre las {@link Convocatoria} indicadas, las que están en
+   * estado 'Registrada' y tienen {@link Solicitud} o proyectos vinculados.
+   *
+   * @param ids Ids de las {@link Convocatoria}.
+   * @return los ids de las {@link Convocatoria} registradas y con datos
+   *         vinculados.
+   */
+  @Override
+  public List<Long> findIdsRegistradasConSolicitudesOProyectos(Collection<Long> ids) {
+    log.debug("findIdsRegistradasConSolicitudesOProyectos(Collection<Long> ids) - start");
+
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+    Root<Convocatoria> root = cq.from(Convocatoria.class);
+
+    Predicate finalPredicate = cb.and(root.get(Convocatoria_.id).in(ids),
+        esRegistradaConSolicitudesOProyectos(cb, cq, root));
+    cq.select(root.get(Convocatoria_.id)).where(finalPredicate);
+
+    List<Long> returnValue = entityManager.createQuery(cq).getResultList();
+
+    log.debug("findIdsRegistradasConSolicitudesOProyectos(Collection<Long> ids) - end");
+    return returnValue;
+  }
+
   /**
    * Obtiene la Unidad de Gestión asignada a la {@link Convocatoria}.
    * 
@@ -199,4 +216,197 @@ public class CustomConvocatoriaRepositoryImpl implements CustomConvocatoriaRepos
     log.debug("getModeloEjecucion(Long id) - end");
     return returnValue;
   }
+
+  /**
+   * Predicado que comprueba si la {@link Convocatoria} tiene datos vinculados de
+   * {@link TipoFase}, {@link TipoHito}, {@link TipoEnlace} y
+   * {@link TipoDocumento}.
+   */
+  private Predicate tieneVinculaciones(CriteriaBuilder cb, CriteriaQuery<Long> cq, Root<Convocatoria> root) {
+    Subquery<Long> queryConvocatoriaEnlace = cq.subquery(Long.class);
+    Root<ConvocatoriaEnlace> convocatoriaEnlaceRoot = queryConvocatoriaEnlace.from(ConvocatoriaEnlace.class);
+    Predicate existsQueryConvocatoriaEnlace = cb.exists(queryConvocatoriaEnlace
+        .select(convocatoriaEnlaceRoot.get(ConvocatoriaEnlace_.convocatoria).get(Convocatoria_.id))
+        .where(cb.equal(convocatoriaEnlaceRoot.get(ConvocatoriaEnlace_.convocatoria).get(Convocatoria_.id),
+            root.get(Convocatoria_.id))));
+
+    Subquery<Long> queryConvocatoriaFase = cq.subquery(Long.class);
+    Root<ConvocatoriaFase> convocatoriaFaseRoot = queryConvocatoriaFase.from(ConvocatoriaFase.class);
+    Predicate existsQueryConvocatoriaFase = cb.exists(
+        queryConvocatoriaFase.select(convocatoriaFaseRoot.get(ConvocatoriaFase_.convocatoria).get(Convocatoria_.id))
+            .where(cb.equal(convocatoriaFaseRoot.get(ConvocatoriaFase_.convocatoria).get(Convocatoria_.id),
+                root.get(Convocatoria_.id))));
+
+    Subquery<Long> queryConvocatoriaHito = cq.subquery(Long.class);
+    Root<ConvocatoriaHito> convocatoriaHitoRoot = queryConvocatoriaHito.from(ConvocatoriaHito.class);
+    Predicate existsQueryConvocatoriaHito = cb.exists(
+        queryConvocatoriaHito.select(convocatoriaHitoRoot.get(ConvocatoriaHito_.convocatoria).get(Convocatoria_.id))
+            .where(cb.equal(convocatoriaHitoRoot.get(ConvocatoriaHito_.convocatoria).get(Convocatoria_.id),
+                root.get(Convocatoria_.id))));
+
+    Subquery<Long> queryConvocatoriaDocumento = cq.subquery(Long.class);
+    Root<ConvocatoriaDocumento> convocatoriaDocumentoRoot = queryConvocatoriaDocumento
+        .from(ConvocatoriaDocumento.class);
+    Predicate existsQueryConvocatoriaDocumento = cb.exists(queryConvocatoriaDocumento
+        .select(convocatoriaDocumentoRoot.get(ConvocatoriaDocumento_.convocatoria).get(Convocatoria_.id))
+        .where(cb.equal(convocatoriaDocumentoRoot.get(ConvocatoriaDocumento_.convocatoria).get(Convocatoria_.id),
+            root.get(Convocatoria_.id))));
+
+    return cb.or(existsQueryConvocatoriaEnlace,
+        cb.or(existsQueryConvocatoriaFase, cb.or(existsQueryConvocatoriaHito, existsQueryConvocatoriaDocumento)));
+  }
+
+  /**
+   * Predicado que comprueba si la {@link Convocatoria} está en estado
+   * 'Registrada' y tiene {@link Solicitud} o proyectos vinculados.
+   */
+  private Predicate esRegistradaConSolicitudesOProyectos(CriteriaBuilder cb, CriteriaQuery<Long> cq,
+      Root<Convocatoria> root) {
+    Subquery<Long> querySolicitud = cq.subquery(Long.class);
+    Root<Solicitud> solicitudRoot = querySolicitud.from(Solicitud.class);
+    Predicate existsQuerySolicitud = cb
+        .exists(querySolicitud.select(solicitudRoot.get(Solicitud_.convocatoria).get(Convocatoria_.id))
+            .where(cb.and(
+                cb.equal(solicitudRoot.get(Solicitud_.convocatoria).get(Convocatoria_.id), root.get(Convocatoria_.id)),
+                cb.equal(solicitudRoot.get(Solicitud_.activo), Boolean.TRUE))));
+
+    Subquery<Long> queryProyecto = cq.subquery(Long.class);
+    Root<Proyecto> proyectoRoot = queryProyecto.from(Proyecto.class);
+    Predicate existsQueryProyecto = cb
+        .exists(queryProyecto.select(proyectoRoot.get(Proyecto_.convocatoria).get(Convocatoria_.id))
+            .where(cb.and(
+                cb.equal(proyectoRoot.get(Proyecto_.convocatoria).get(Convocatoria_.id), root.get(Convocatoria_.id)),
+                cb.equal(proyectoRoot.get(Proyecto_.activo), Boolean.TRUE))));
+
+    Predicate registrada = cb.equal(root.get(Convocatoria_.estado), Convocatoria.Estado.REGISTRADA);
+    return cb.and(registrada, cb.or(existsQuerySolicitud, existsQueryProyecto));
+  }
+
+  /**
+   * Obtiene la página de {@link Convocatoria} que sigue al cursor indicado, sin
+   * consulta count.
+   *
+   * @param spec   la especificación del filtro.
+   * @param cursor posición desde la que continuar.
+   * @param size   número de elementos de la página.
+   * @return la página de {@link Convocatoria} con el cursor de la siguiente.
+   */
+  @Override
+  public KeysetSlice<Convocatoria> findAllKeyset(Specification<Convocatoria> spec, KeysetCursor cursor, int size) {
+    log.debug("findAllKeyset(Specification<Convocatoria> spec, KeysetCursor cursor, int size) - start");
+    KeysetSlice<Convocatoria> returnValue = KeysetQuery.findAll(entityManager, Convocatoria.class,
+        Convocatoria.ENTITY_GRAPH, KEYSET_PROPERTIES, spec, cursor, size);
+    log.debug("findAllKeyset(Specification<Convocatoria> spec, KeysetCursor cursor, int size) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página de {@link Convocatoria} indicada sin consulta count.
+   *
+   * @param spec     la especificación del filtro.
+   * @param pageable la información de la paginación.
+   * @return la página de {@link Convocatoria} sin el número total de elementos.
+   */
+  @Override
+  public Slice<Convocatoria> findAllSlice(Specification<Convocatoria> spec, Pageable pageable) {
+    log.debug("findAllSlice(Specification<Convocatoria> spec, Pageable pageable) - start");
+    Slice<Convocatoria> returnValue = SliceQuery.findAll(entityManager, Convocatoria.class,
+        Convocatoria.ENTITY_GRAPH, spec, pageable);
+    log.debug("findAllSlice(Specification<Convocatoria> spec, Pageable pageable) - end");
+    return returnValue;
+  }
+
+  /**
+   * Aplica la acción a cada {@link Convocatoria} que cumple el filtro, en orden de id,
+   * sin cargar la lista completa en memoria. Se tiene que invocar dentro de una
+   * transacción.
+   *
+   * @param spec   la especificación del filtro.
+   * @param action acción a aplicar a cada {@link Convocatoria}.
+   * @return el número de {@link Convocatoria} procesadas.
+   */
+  @Override
+  public long forEach(Specification<Convocatoria> spec, Consumer<? super Convocatoria> action) {
+    log.debug("forEach(Specification<Convocatoria> spec, Consumer<? super Convocatoria> action) - start");
+    long returnValue = StreamQuery.forEach(entityManager, Convocatoria.class, Convocatoria.ENTITY_GRAPH, spec, action);
+    log.debug("forEach(Specification<Convocatoria> spec, Consumer<? super Convocatoria> action) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la versión de la {@link Convocatoria}, que se incrementa con cada
+   * cambio de la {@link Convocatoria} o de sus datos relacionados.
+   *
+   * @param id Id de la {@link Convocatoria}.
+   * @return la versión de la {@link Convocatoria}.
+   */
+  @Override
+  public Optional<Long> getVersion(Long id) {
+    log.debug("getVersion(Long id) - start");
+
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+    Root<Convocatoria> root = cq.from(Convocatoria.class);
+    cq.select(root.get(Convocatoria_.version)).where(cb.equal(root.get(Convocatoria_.id), id));
+
+    Optional<Long> returnValue = entityManager.createQuery(cq).getResultList().stream().findFirst();
+
+    log.debug("getVersion(Long id) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la versión de la {@link Convocatoria} bloqueando su fila hasta el
+   * final de la transacción, para comprobar la versión antes de modificarla sin
+   * que otra transacción la cambie entretanto. Se tiene que invocar dentro de
+   * una transacción.
+   *
+   * @param id Id de la {@link Convocatoria}.
+   * @return la versión de la {@link Convocatoria}.
+   */
+  @Override
+  public Optional<Long> getVersionForUpdate(Long id) {
+    log.debug("getVersionForUpdate(Long id) - start");
+    Optional<Long> returnValue = Optional
+        .ofNullable(entityManager.find(Convocatoria.class, id, LockModeType.PESSIMISTIC_WRITE))
+        .flatMap(convocatoria -> getVersion(id));
+    log.debug("getVersionForUpdate(Long id) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene, sin paginar ni consulta count, las entidades hijas de la
+   * {@link Convocatoria} de la clase indicada, en orden de id.
+   *
+   * @param <T>            tipo de la entidad hija.
+   * @param domainClass    la clase de la entidad hija.
+   * @param convocatoriaId Id de la {@link Convocatoria}.
+   * @return las entidades hijas de la {@link Convocatoria}.
+   */
+  @Override
+  public <T> List<T> findAllRelacionados(Class<T> domainClass, Long convocatoriaId) {
+    log.debug("findAllRelacionados(Class<T> domainClass, Long convocatoriaId) - start");
+    List<T> returnValue = DossierQuery.findAll(entityManager, domainClass, "convocatoriaId", convocatoriaId);
+    log.debug("findAllRelacionados(Class<T> domainClass, Long convocatoriaId) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene, sin paginar ni consulta count, los
+   * {@link ConvocatoriaConceptoGastoCodigoEc} de todos los conceptos de gasto de
+   * la {@link Convocatoria}, en orden de id.
+   *
+   * @param convocatoriaId Id de la {@link Convocatoria}.
+   * @return los {@link ConvocatoriaConceptoGastoCodigoEc} de la
+   *         {@link Convocatoria}.
+   */
+  @Override
+  public List<ConvocatoriaConceptoGastoCodigoEc> findAllConceptoGastoCodigosEc(Long convocatoriaId) {
+    log.debug("findAllConceptoGastoCodigosEc(Long convocatoriaId) - start");
+    List<ConvocatoriaConceptoGastoCodigoEc> returnValue = DossierQuery.findAll(entityManager,
+        ConvocatoriaConceptoGastoCodigoEc.class, "convocatoriaConceptoGasto.convocatoriaId", convocatoriaId);
+    log.debug("findAllConceptoGastoCodigosEc(Long convocatoriaId) - end");
+    return returnValue;
+  }
+
 }
@@ -1,10 +1,19 @@
 package org.crue.hercules.sgi.csp.repository.custom;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.Proyecto;
 import org.crue.hercules.sgi.csp.model.ProyectoPaqueteTrabajo;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 /**
@@ -29,4 +38,88 @@ public interface CustomProyectoRepository {
    *         permiten {@link ProyectoPaqueteTrabajo}
    */
   Optional<Boolean> getPermitePaquetesTrabajo(Long id);
+
+  /**
+   * Obtiene, de entre las {@link Solicitud} indicadas, las que tienen un
+   * {@link Proyecto} asociado.
+   *
+   * @param solicitudIds Ids de las {@link Solicitud}.
+   * @return los ids de las {@link Solicitud} con {@link Proyecto}.
+   */
+  List<Long> findSolicitudIdsConProyecto(Collection<Long> solicitudIds);
+
+  /**
+   * Obtiene la página de {@link Proyecto} que sigue al cursor indicado, sin
+   * consulta count.
+   *
+   * @param spec   la especificación del filtro.
+   * @param cursor posición desde la que continuar.
+   * @param size   número de elementos de la página.
+   * @return la página de {@link Proyecto} con el cursor de la siguiente.
+   */
+  KeysetSlice<Proyecto> findAllKeyset(Specification<Proyecto> spec, KeysetCursor cursor, int size);
+
+  /**
+   * Obtiene la página de {@link Proyecto} indicada sin consulta count.
+   *
+   * @param spec     la especificación del filtro.
+   * @param pageable la información de la paginación.
+   * @return la página de {@link Proyecto} sin el número total de elementos.
+   */
+  Slice<Proyecto> findAllSlice(Specification<Proyecto> spec, Pageable pageable);
+
+  /**
+   * Aplica la acción a cada {@link Proyecto} que cumple el filtro, en orden de id,
+   * sin cargar la lista completa en memoria. Se tiene que invocar dentro de una
+   * transacción.
+   *
+   * @param spec   la especificación del filtro.
+   * @param action acción a aplicar a cada {@link Proyecto}.
+   * @return el número de {@link Proyecto} procesados.
+   */
+  long forEach(Specification<Proyecto> spec, Consumer<? super Proyecto> action);
+
+  /**
+   * Obtiene, sin paginar ni consulta count, las entidades hijas del
+   * {@link Proyecto} de la clase indicada, en orden de id. La entidad tiene que
+   * tener la propiedad proyectoId.
+   *
+   * @param <T>         tipo de la entidad hija.
+   * @param domainClass la clase de la entidad hija.
+   * @param proyectoId  Id del {@link Proyecto}.
+   * @return las entidades hijas del {@link Proyecto}.
+   */
+  <T> List<T> findAllRelacionados(Class<T> domainClass, Long proyectoId);
+
+  /**
+   * Obtiene la versión del {@link Proyecto}, que se incrementa con cada
+   * cambio del {@link Proyecto} o de sus datos relacionados.
+   *
+   * @param id Id del {@link Proyecto}.
+   * @return la versión del {@link Proyecto}.
+   */
+  Optional<Long> getVersion(Long id);
+
+  /**
+   * Obtiene la versión del {@link Proyecto} si pertenece a una de las unidades
+   * de gestión indicadas.
+   *
+   * @param id                Id del {@link Proyecto}.
+   * @param unidadGestionRefs unidades de gestión.
+   * @return la versión del {@link Proyecto}, vacía si no existe o es de otra
+   *         unidad de gestión.
+   */
+  Optional<Long> getVersion(Long id, List<String> unidadGestionRefs);
+
+  /**
+   * Obtiene la versión del {@link Proyecto} bloqueando su fila hasta el
+   * final de la transacción, para comprobar la versión antes de modificarla sin
+   * que otra transacción la cambie entretanto. Se tiene que invocar dentro de
+   * una transacción.
+   *
+   * @param id Id del {@link Proyecto}.
+   * @return la versión del {@link Proyecto}.
+   */
+  Optional<Long> getVersionForUpdate(Long id);
+
 }
@@ -1,8 +1,13 @@
 package org.crue.hercules.sgi.csp.repository.custom;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -13,6 +18,12 @@ import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.Proyecto;
 import org.crue.hercules.sgi.csp.model.Proyecto_;
 import org.crue.hercules.sgi.csp.model.ProyectoPaqueteTrabajo;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +35,13 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public class CustomProyectoRepositoryImpl implements CustomProyectoRepository {
 
+  /**
+   * Propiedades por las que se puede paginar por cursor, con índice (propiedad,
+   * id)
+   */
+  private static final List<String> KEYSET_PROPERTIES = Arrays.asList(Proyecto_.ID, Proyecto_.FECHA_INICIO,
+      Proyecto_.FECHA_FIN, Proyecto_.TITULO);
+
   /**
    * The entity manager.
    */
@@ -80,4 +98,160 @@ public class CustomProyectoRepositoryImpl implements CustomProyectoRepository {
     log.debug("getPermitePaquetesTrabajo(Long id) - stop");
     return returnValue;
   }
+
+  /**
+   * Obtiene, de entre las {@link Solicitud} indicadas, las que tienen un
+   * {@link Proyecto} asociado.
+   *
+   * @param solicitudIds Ids de las {@link Solicitud}.
+   * @return los ids de las {@link Solicitud} con {@link Proyecto}.
+   */
+  @Override
+  public List<Long> findSolicitudIdsConProyecto(Collection<Long> solicitudIds) {
+    log.debug("findSolicitudIdsConProyecto(Collection<Long> solicitudIds) - start");
+
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+    Root<Proyecto> root = cq.from(Proyecto.class);
+
+    Predicate finalPredicate = root.get(Proyecto_.solicitudId).in(solicitudIds);
+    cq.select(root.get(Proyecto_.solicitudId)).distinct(true).where(finalPredicate);
+
+    List<Long> returnValue = entityManager.createQuery(cq).getResultList();
+
+    log.debug("findSolicitudIdsConProyecto(Collection<Long> solicitudIds) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página de {@link Proyecto} que sigue al cursor indicado, sin
+   * consulta count.
+   *
+   * @param spec   la especificación del filtro.
+   * @param cursor posición desde la que continuar.
+   * @param size   número de elementos de la página.
+   * @return la página de {@link Proyecto} con el cursor de la siguiente.
+   */
+  @Override
+  public KeysetSlice<Proyecto> findAllKeyset(Specification<Proyecto> spec, KeysetCursor cursor, int size) {
+    log.debug("findAllKeyset(Specification<Proyecto> spec, KeysetCursor cursor, int size) - start");
+    KeysetSlice<Proyecto> returnValue = KeysetQuery.findAll(entityManager, Proyecto.class,
+        Proyecto.ENTITY_GRAPH, KEYSET_PROPERTIES, spec, cursor, size);
+    log.debug("findAllKeyset(Specification<Proyecto> spec, KeysetCursor cursor, int size) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página de {@link Proyecto} indicada sin consulta count.
+   *
+   * @param spec     la especificación del filtro.
+   * @param pageable la información de la paginación.
+   * @return la página de {@link Proyecto} sin el número total de elementos.
+   */
+  @Override
+  public Slice<Proyecto> findAllSlice(Specification<Proyecto> spec, Pageable pageable) {
+    log.debug("findAllSlice(Specification<Proyecto> spec, Pageable pageable) - start");
+    Slice<Proyecto> returnValue = SliceQuery.findAll(entityManager, Proyecto.class, Proyecto.ENTITY_GRAPH, spec,
+        pageable);
+    log.debug("findAllSlice(Specification<Proyecto> spec, Pageable pageable) - end");
+    return returnValue;
+  }
+
+  /**
+   * Aplica la acción a cada {@link Proyecto} que cumple el filtro, en orden de id,
+   * sin cargar la lista completa en memoria. Se tiene que invocar dentro de una
+   * transacción.
+   *
+   * @param spec   la especificación del filtro.
+   * @param action acción a aplicar a cada {@link Proyecto}.
+   * @return el número de {@link Proyecto} procesados.
+   */
+  @Override
+  public long forEach(Specification<Proyecto> spec, Consumer<? super Proyecto> action) {
+    log.debug("forEach(Specification<Proyecto> spec, Consumer<? super Proyecto> action) - start");
+    long returnValue = StreamQuery.forEach(entityManager, Proyecto.class, Proyecto.ENTITY_GRAPH, spec, action);
+    log.debug("forEach(Specification<Proyecto> spec, Consumer<? super Proyecto> action) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene, sin paginar ni consulta count, las entidades hijas del
+   * {@link Proyecto} de la clase indicada, en orden de id.
+   *
+   * @param <T>         tipo de la entidad hija.
+   * @param domainClass la clase de la entidad hija.
+   * @param proyectoId  Id del {@link Proyecto}.
+   * @return las entidades hijas del {@link Proyecto}.
+   */
+  @Override
+  public <T> List<T> findAllRelacionados(Class<T> domainClass, Long proyectoId) {
+    log.debug("findAllRelacionados(Class<T> domainClass, Long proyectoId) - start");
+    List<T> returnValue = DossierQuery.findAll(entityManager, domainClass, "proyectoId", proyectoId);
+    log.debug("findAllRelacionados(Class<T> domainClass, Long proyectoId) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la versión del {@link Proyecto}, que se incrementa con cada
+   * cambio del {@link Proyecto} o de sus datos relacionados.
+   *
+   * @param id Id del {@link Proyecto}.
+   * @return la versión del {@link Proyecto}.
+   */
+  @Override
+  public Optional<Long> getVersion(Long id) {
+    log.debug("getVersion(Long id) - start");
+    Optional<Long> returnValue = findVersion(id, null);
+    log.debug("getVersion(Long id) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la versión del {@link Proyecto} si pertenece a una de las unidades
+   * de gestión indicadas.
+   *
+   * @param id                Id del {@link Proyecto}.
+   * @param unidadGestionRefs unidades de gestión.
+   * @return la versión del {@link Proyecto}, vacía si no existe o es de otra
+   *         unidad de gestión.
+   */
+  @Override
+  public Optional<Long> getVersion(Long id, List<String> unidadGestionRefs) {
+    log.debug("getVersion(Long id, List<String> unidadGestionRefs) - start");
+    Optional<Long> returnValue = unidadGestionRefs.isEmpty() ? Optional.empty() : findVersion(id, unidadGestionRefs);
+    log.debug("getVersion(Long id, List<String> unidadGestionRefs) - end");
+    return returnValue;
+  }
+
+  private Optional<Long> findVersion(Long id, List<String> unidadGestionRefs) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+    Root<Proyecto> root = cq.from(Proyecto.class);
+    Predicate predicate = cb.equal(root.get(Proyecto_.id), id);
+    if (unidadGestionRefs != null) {
+      predicate = cb.and(predicate, root.get(Proyecto_.unidadGestionRef).in(unidadGestionRefs));
+    }
+    cq.select(root.get(Proyecto_.version)).where(predicate);
+    return entityManager.createQuery(cq).getResultList().stream().findFirst();
+  }
+
+  /**
+   * Obtiene la versión del {@link Proyecto} bloqueando su fila hasta el
+   * final de la transacción, para comprobar la versión antes de modificarla sin
+   * que otra transacción la cambie entretanto. Se tiene que invocar dentro de
+   * una transacción.
+   *
+   * @param id Id del {@link Proyecto}.
+   * @return la versión del {@link Proyecto}.
+   */
+  @Override
+  public Optional<Long> getVersionForUpdate(Long id) {
+    log.debug("getVersionForUpdate(Long id) - start");
+    Optional<Long> returnValue = Optional
+        .ofNullable(entityManager.find(Proyecto.class, id, LockModeType.PESSIMISTIC_WRITE))
+        .flatMap(proyecto -> getVersion(id));
+    log.debug("getVersionForUpdate(Long id) - end");
+    return returnValue;
+  }
+
 }
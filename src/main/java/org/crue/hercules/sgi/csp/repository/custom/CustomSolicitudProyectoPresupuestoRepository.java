@@ -2,10 +2,13 @@ package org.crue.hercules.sgi.csp.repository.custom;
 
 import java.util.List;
 
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado;
 import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotalConceptoGasto;
 import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotales;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.Proyecto;
 import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
 import org.springframework.stereotype.Component;
 
 /**
@@ -33,4 +36,31 @@ public interface CustomSolicitudProyectoPresupuestoRepository {
   List<SolicitudProyectoPresupuestoTotalConceptoGasto> getSolicitudProyectoPresupuestoTotalConceptoGastos(
       Long solicitudId);
 
+  /**
+   * Obtiene el presupuesto de la {@link Solicitud} agregado (ROLLUP) por las
+   * dimensiones indicadas, en un único recorrido de sus
+   * {@link SolicitudProyectoPresupuesto}.
+   *
+   * @param solicitudId Id de la {@link Solicitud}.
+   * @param dimensiones dimensiones por las que se agrega, en orden.
+   * @return lista de {@link SolicitudProyectoPresupuestoAgregado}, vacía si la
+   *         {@link Solicitud} no tiene presupuesto.
+   */
+  List<SolicitudProyectoPresupuestoAgregado> getAgregadoSolicitud(Long solicitudId,
+      List<SolicitudProyectoPresupuestoAgregado.Dimension> dimensiones);
+
+  /**
+   * Obtiene el presupuesto de todas las {@link Solicitud} de la
+   * {@link Convocatoria} agregado (ROLLUP) por las dimensiones indicadas, en un
+   * único recorrido de sus {@link SolicitudProyectoPresupuesto}.
+   *
+   * @param convocatoriaId Id de la {@link Convocatoria}.
+   * @param dimensiones    dimensiones por las que se agrega, en orden.
+   * @return lista de {@link SolicitudProyectoPresupuestoAgregado}, vacía si
+   *         ninguna {@link Solicitud} de la {@link Convocatoria} tiene
+   *         presupuesto.
+   */
+  List<SolicitudProyectoPresupuestoAgregado> getAgregadoConvocatoria(Long convocatoriaId,
+      List<SolicitudProyectoPresupuestoAgregado.Dimension> dimensiones);
+
 }
@@ -1,19 +1,36 @@
 package org.crue.hercules.sgi.csp.repository.custom;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
 import javax.persistence.criteria.Subquery;
 
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado;
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado.Dimension;
 import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotalConceptoGasto;
 import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotales;
+import org.crue.hercules.sgi.csp.model.ConceptoGasto;
+import org.crue.hercules.sgi.csp.model.ConceptoGasto_;
 import org.crue.hercules.sgi.csp.model.Proyecto;
 import org.crue.hercules.sgi.csp.model.Solicitud;
 import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
@@ -21,6 +38,8 @@ import org.crue.hercules.sgi.csp.model.SolicitudProyecto_;
 import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
 import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto_;
 import org.crue.hercules.sgi.csp.model.Solicitud_;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +51,16 @@ import lombok.extern.slf4j.Slf4j;
 @Component
 public class CustomSolicitudProyectoPresupuestoRepositoryImpl implements CustomSolicitudProyectoPresupuestoRepository {
 
+  /** Columna de solicitud_proyecto_presupuesto de cada dimensión */
+  private static final Map<Dimension, String> COLUMNAS = new EnumMap<>(Dimension.class);
+
+  static {
+    COLUMNAS.put(Dimension.CONCEPTO_GASTO, "p.concepto_gasto_id");
+    COLUMNAS.put(Dimension.ENTIDAD_REF, "p.entidad_ref");
+    COLUMNAS.put(Dimension.ANUALIDAD, "p.anualidad");
+    COLUMNAS.put(Dimension.FINANCIACION_AJENA, "p.financiacion_ajena");
+  }
+
   /** The entity manager. */
   @PersistenceContext
   private EntityManager entityManager;
@@ -146,4 +175,278 @@ public class CustomSolicitudProyectoPresupuestoRepositoryImpl implements CustomS
     return result;
   }
 
+  /**
+   * Obtiene el presupuesto de la {@link Solicitud} agregado (ROLLUP) por las
+   * dimensiones indicadas, en un único recorrido de sus
+   * {@link SolicitudProyectoPresupuesto}.
+   *
+   * @param solicitudId Id de la {@link Solicitud}.
+   * @param dimensiones dimensiones por las que se agrega, en orden.
+   * @return lista de {@link SolicitudProyectoPresupuestoAgregado}, vacía si la
+   *         {@link Solicitud} no tiene presupuesto.
+   */
+  @Override
+  public List<SolicitudProyectoPresupuestoAgregado> getAgregadoSolicitud(Long solicitudId,
+      List<Dimension> dimensiones) {
+    log.debug("getAgregadoSolicitud(Long solicitudId, List<Dimension> dimensiones) - start");
+    List<SolicitudProyectoPresupuestoAgregado> returnValue = getAgregado(false, solicitudId, dimensiones);
+    log.debug("getAgregadoSolicitud(Long solicitudId, List<Dimension> dimensiones) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene el presupuesto de todas las {@link Solicitud} de la convocatoria
+   * agregado (ROLLUP) por las dimensiones indicadas, en un único recorrido de sus
+   * {@link SolicitudProyectoPresupuesto}.
+   *
+   * @param convocatoriaId Id de la convocatoria.
+   * @param dimensiones    dimensiones por las que se agrega, en orden.
+   * @return lista de {@link SolicitudProyectoPresupuestoAgregado}, vacía si
+   *         ninguna {@link Solicitud} de la convocatoria tiene presupuesto.
+   */
+  @Override
+  public List<SolicitudProyectoPresupuestoAgregado> getAgregadoConvocatoria(Long convocatoriaId,
+      List<Dimension> dimensiones) {
+    log.debug("getAgregadoConvocatoria(Long convocatoriaId, List<Dimension> dimensiones) - start");
+    List<SolicitudProyectoPresupuestoAgregado> returnValue = getAgregado(true, convocatoriaId, dimensiones);
+    log.debug("getAgregadoConvocatoria(Long convocatoriaId, List<Dimension> dimensiones) - end");
+    return returnValue;
+  }
+
+  /**
+   * En PostgreSQL el ROLLUP lo calcula la base de datos (GROUPING SETS). En el
+   * resto (H2) se agrupa por todas las dimensiones y los subtotales se calculan
+   * en memoria a partir de esas filas.
+   */
+  private List<SolicitudProyectoPresupuestoAgregado> getAgregado(boolean porConvocatoria, Long id,
+      List<Dimension> dimensiones) {
+    List<Fila> filas = isPostgreSQL() ? getFilasRollup(porConvocatoria, id, dimensiones)
+        : rollup(getFilasDetalle(porConvocatoria, id, dimensiones), dimensiones.size());
+    if (filas.stream().noneMatch(fila -> fila.nivel == dimensiones.size())) {
+      // Sin partidas PostgreSQL devuelve igualmente la fila del total
+      return new ArrayList<>();
+    }
+
+    filas.sort(comparadorRollup(dimensiones.size()));
+    int conceptoGasto = dimensiones.indexOf(Dimension.CONCEPTO_GASTO);
+    Map<Long, ConceptoGasto> conceptosGasto = conceptoGasto < 0 ? new HashMap<>()
+        : getConceptosGasto(filas.stream().map(fila -> (Long) fila.valores[conceptoGasto]).collect(Collectors.toSet()));
+
+    List<SolicitudProyectoPresupuestoAgregado> returnValue = new ArrayList<>(filas.size());
+    for (Fila fila : filas) {
+      SolicitudProyectoPresupuestoAgregado agregado = SolicitudProyectoPresupuestoAgregado.builder()
+          .importeTotal(fila.importe).nivel(fila.nivel).build();
+      for (int i = 0; i < fila.nivel; i++) {
+        Object valor = fila.valores[i];
+        switch (dimensiones.get(i)) {
+          case CONCEPTO_GASTO:
+            agregado.setConceptoGasto(conceptosGasto.get(valor));
+            break;
+          case ENTIDAD_REF:
+            agregado.setEntidadRef((String) valor);
+            break;
+          case ANUALIDAD:
+            agregado.setAnualidad((Integer) valor);
+            break;
+          case FINANCIACION_AJENA:
+            agregado.setFinanciacionAjena((Boolean) valor);
+            break;
+        }
+      }
+      returnValue.add(agregado);
+    }
+    return returnValue;
+  }
+
+  private boolean isPostgreSQL() {
+    return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices()
+        .getDialect() instanceof PostgreSQL81Dialect;
+  }
+
+  /**
+   * Filas del ROLLUP calculado por PostgreSQL. GROUPING devuelve un bit a 1 por
+   * cada dimensión por la que no se agrupa la fila.
+   */
+  private List<Fila> getFilasRollup(boolean porConvocatoria, Long id, List<Dimension> dimensiones) {
+    String columnas = dimensiones.stream().map(COLUMNAS::get).collect(Collectors.joining(", "));
+    StringBuilder sql = new StringBuilder("SELECT ").append(columnas)
+        .append(", SUM(p.importe_solicitado), GROUPING(").append(columnas)
+        .append(") FROM {h-schema}solicitud_proyecto_presupuesto p");
+    if (porConvocatoria) {
+      sql.append(" INNER JOIN {h-schema}solicitud s ON s.id = p.solicitud_proyecto_id WHERE s.convocatoria_id = :id");
+    } else {
+      sql.append(" WHERE p.solicitud_proyecto_id = :id");
+    }
+    sql.append(" GROUP BY ROLLUP (").append(columnas).append(")");
+
+    @SuppressWarnings("unchecked")
+    List<Object[]> resultado = entityManager.createNativeQuery(sql.toString()).setParameter("id", id)
+        .getResultList();
+
+    int numDimensiones = dimensiones.size();
+    List<Fila> returnValue = new ArrayList<>(resultado.size());
+    for (Object[] columna : resultado) {
+      Object[] valores = new Object[numDimensiones];
+      for (int i = 0; i < numDimensiones; i++) {
+        valores[i] = valor(dimensiones.get(i), columna[i]);
+      }
+      int grouping = ((Number) columna[numDimensiones + 1]).intValue();
+      returnValue.add(new Fila(valores, (BigDecimal) columna[numDimensiones],
+          numDimensiones - Integer.bitCount(grouping)));
+    }
+    return returnValue;
+  }
+
+  /**
+   * Filas agrupadas por todas las dimensiones.
+   */
+  private List<Fila> getFilasDetalle(boolean porConvocatoria, Long id, List<Dimension> dimensiones) {
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+    Root<SolicitudProyectoPresupuesto> root = cq.from(SolicitudProyectoPresupuesto.class);
+
+    List<Expression<?>> agrupacion = new ArrayList<>();
+    for (Dimension dimension : dimensiones) {
+      switch (dimension) {
+        case CONCEPTO_GASTO:
+          agrupacion.add(root.get(SolicitudProyectoPresupuesto_.conceptoGasto).get(ConceptoGasto_.id));
+          break;
+        case ENTIDAD_REF:
+          agrupacion.add(root.get(SolicitudProyectoPresupuesto_.entidadRef));
+          break;
+        case ANUALIDAD:
+          agrupacion.add(root.get(SolicitudProyectoPresupuesto_.anualidad));
+          break;
+        case FINANCIACION_AJENA:
+          agrupacion.add(root.get(SolicitudProyectoPresupuesto_.financiacionAjena));
+          break;
+      }
+    }
+
+    if (porConvocatoria) {
+      Join<SolicitudProyecto, Solicitud> joinSolicitud = root.join(SolicitudProyectoPresupuesto_.solicitudProyecto)
+          .join(SolicitudProyecto_.solicitud);
+      cq.where(cb.equal(joinSolicitud.get(Solicitud_.convocatoriaId), id));
+    } else {
+      cq.where(cb.equal(root.get(SolicitudProyectoPresupuesto_.solicitudProyectoId), id));
+    }
+    cq.groupBy(agrupacion);
+    List<Selection<?>> seleccion = new ArrayList<>(agrupacion);
+    seleccion.add(cb.sum(root.get(SolicitudProyectoPresupuesto_.importeSolicitado)));
+    cq.multiselect(seleccion);
+
+    int numDimensiones = dimensiones.size();
+    List<Fila> returnValue = new ArrayList<>();
+    for (Tuple tuple : entityManager.createQuery(cq).getResultList()) {
+      Object[] valores = new Object[numDimensiones];
+      for (int i = 0; i < numDimensiones; i++) {
+        valores[i] = tuple.get(i);
+      }
+      returnValue.add(new Fila(valores, tuple.get(numDimensiones, BigDecimal.class), numDimensiones));
+    }
+    return returnValue;
+  }
+
+  /**
+   * Añade a las filas agrupadas por todas las dimensiones los subtotales de
+   * cada prefijo de las dimensiones, como ROLLUP.
+   */
+  private static List<Fila> rollup(List<Fila> detalle, int numDimensiones) {
+    List<Fila> returnValue = new ArrayList<>(detalle);
+    for (int nivel = numDimensiones - 1; nivel >= 0; nivel--) {
+      Map<List<Object>, Fila> subtotales = new LinkedHashMap<>();
+      for (Fila fila : detalle) {
+        final int longitud = nivel;
+        subtotales.computeIfAbsent(new ArrayList<>(Arrays.asList(fila.valores).subList(0, longitud)), clave -> {
+          Object[] valores = new Object[numDimensiones];
+          System.arraycopy(fila.valores, 0, valores, 0, longitud);
+          return new Fila(valores, null, longitud);
+        }).sumar(fila.importe);
+      }
+      returnValue.addAll(subtotales.values());
+    }
+    return returnValue;
+  }
+
+  /**
+   * Ordena por los valores de las dimensiones, con cada subtotal después de las
+   * filas que agrupa y los valores nulos al final.
+   */
+  private static Comparator<Fila> comparadorRollup(int numDimensiones) {
+    Comparator<Object> valores = Comparator.nullsLast((a, b) -> {
+      @SuppressWarnings("unchecked")
+      Comparable<Object> comparable = (Comparable<Object>) a;
+      return comparable.compareTo(b);
+    });
+    return (a, b) -> {
+      for (int i = 0; i < numDimensiones; i++) {
+        boolean aAgrupa = a.nivel > i;
+        boolean bAgrupa = b.nivel > i;
+        if (aAgrupa != bAgrupa) {
+          return aAgrupa ? -1 : 1;
+        }
+        if (!aAgrupa) {
+          return 0;
+        }
+        int returnValue = valores.compare(a.valores[i], b.valores[i]);
+        if (returnValue != 0) {
+          return returnValue;
+        }
+      }
+      return 0;
+    };
+  }
+
+  private Map<Long, ConceptoGasto> getConceptosGasto(Set<Long> ids) {
+    Set<Long> conceptoGastoIds = new HashSet<>(ids);
+    conceptoGastoIds.remove(null);
+    Map<Long, ConceptoGasto> returnValue = new HashMap<>();
+    if (conceptoGastoIds.isEmpty()) {
+      return returnValue;
+    }
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<ConceptoGasto> cq = cb.createQuery(ConceptoGasto.class);
+    Root<ConceptoGasto> root = cq.from(ConceptoGasto.class);
+    cq.where(root.get(ConceptoGasto_.id).in(conceptoGastoIds));
+    entityManager.createQuery(cq).getResultList()
+        .forEach(conceptoGasto -> returnValue.put(conceptoGasto.getId(), conceptoGasto));
+    return returnValue;
+  }
+
+  /** Convierte el valor de la columna de la consulta nativa al tipo del atributo */
+  private static Object valor(Dimension dimension, Object valor) {
+    if (valor == null) {
+      return null;
+    }
+    switch (dimension) {
+      case CONCEPTO_GASTO:
+        return ((Number) valor).longValue();
+      case ANUALIDAD:
+        return ((Number) valor).intValue();
+      default:
+        return valor;
+    }
+  }
+
+  /** Fila del ROLLUP: valores de las dimensiones, importe y nivel */
+  private static final class Fila {
+    private final Object[] valores;
+    private BigDecimal importe;
+    private final int nivel;
+
+    private Fila(Object[] valores, BigDecimal importe, int nivel) {
+      this.valores = valores;
+      this.importe = importe;
+      this.nivel = nivel;
+    }
+
+    /** Suma como SUM: los importes nulos no cuentan */
+    private Fila sumar(BigDecimal importe) {
+      if (importe != null) {
+        this.importe = this.importe == null ? importe : this.importe.add(importe);
+      }
+      return this;
+    }
+  }
+
 }
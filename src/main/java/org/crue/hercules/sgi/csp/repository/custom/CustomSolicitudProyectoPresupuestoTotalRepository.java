@@ -0,0 +1,57 @@
+package org.crue.hercules.sgi.csp.repository.custom;
+
+import java.util.List;
+
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotalConceptoGasto;
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotales;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuestoTotal;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Custom repository para {@link SolicitudProyectoPresupuestoTotal}.
+ */
+@Component
+public interface CustomSolicitudProyectoPresupuestoTotalRepository {
+
+  /**
+   * Obtiene el {@link SolicitudProyectoPresupuestoTotales} de la
+   * {@link Solicitud} a partir de sus {@link SolicitudProyectoPresupuestoTotal}.
+   *
+   * @param solicitudId Id de la {@link Solicitud}.
+   * @return {@link SolicitudProyectoPresupuestoTotales}.
+   */
+  SolicitudProyectoPresupuestoTotales getTotales(Long solicitudId);
+
+  /**
+   * Obtiene los {@link SolicitudProyectoPresupuestoTotalConceptoGasto} de la
+   * {@link Solicitud} a partir de sus {@link SolicitudProyectoPresupuestoTotal}.
+   *
+   * @param solicitudId Id de la {@link Solicitud}.
+   * @return lista de {@link SolicitudProyectoPresupuestoTotalConceptoGasto}.
+   */
+  List<SolicitudProyectoPresupuestoTotalConceptoGasto> getTotalConceptoGastos(Long solicitudId);
+
+  /**
+   * Recalcula los {@link SolicitudProyectoPresupuestoTotal} de la
+   * {@link Solicitud} a partir de sus {@link SolicitudProyectoPresupuesto} y
+   * crea, actualiza o elimina los que no coinciden.
+   *
+   * @param solicitudId Id de la {@link Solicitud}.
+   * @return número de {@link SolicitudProyectoPresupuestoTotal} corregidos.
+   */
+  @Transactional
+  int sincronizar(Long solicitudId);
+
+  /**
+   * Obtiene los ids de las {@link Solicitud} con
+   * {@link SolicitudProyectoPresupuesto} o con
+   * {@link SolicitudProyectoPresupuestoTotal}.
+   *
+   * @return lista de ids de {@link Solicitud} ordenada.
+   */
+  List<Long> getSolicitudIdsConPresupuesto();
+
+}
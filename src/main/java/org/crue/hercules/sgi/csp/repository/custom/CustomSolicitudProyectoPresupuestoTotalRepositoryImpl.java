@@ -0,0 +1,224 @@
+package org.crue.hercules.sgi.csp.repository.custom;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotalConceptoGasto;
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotales;
+import org.crue.hercules.sgi.csp.model.ConceptoGasto;
+import org.crue.hercules.sgi.csp.model.ConceptoGasto_;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuestoTotal;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuestoTotal_;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto_;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Spring Data JPA repository para {@link SolicitudProyectoPresupuestoTotal}.
+ */
+@Slf4j
+@Component
+public class CustomSolicitudProyectoPresupuestoTotalRepositoryImpl
+    implements CustomSolicitudProyectoPresupuestoTotalRepository {
+
+  /** The entity manager. */
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Obtiene el {@link SolicitudProyectoPresupuestoTotales} de la
+   * {@link Solicitud} a partir de sus {@link SolicitudProyectoPresupuestoTotal}.
+   *
+   * @param solicitudId Id de la {@link Solicitud}.
+   * @return {@link SolicitudProyectoPresupuestoTotales}.
+   */
+  @Override
+  public SolicitudProyectoPresupuestoTotales getTotales(Long solicitudId) {
+    log.debug("getTotales(Long solicitudId) - start");
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<SolicitudProyectoPresupuestoTotales> cq = cb
+        .createQuery(SolicitudProyectoPresupuestoTotales.class);
+    Root<SolicitudProyectoPresupuestoTotal> root = cq.from(SolicitudProyectoPresupuestoTotal.class);
+
+    Path<BigDecimal> importe = root.get(SolicitudProyectoPresupuestoTotal_.importeTotal);
+    Path<Boolean> financiacionAjena = root.get(SolicitudProyectoPresupuestoTotal_.financiacionAjena);
+    Expression<BigDecimal> importeConvocatoria = cb.<BigDecimal>selectCase()
+        .when(cb.isTrue(financiacionAjena), BigDecimal.ZERO).otherwise(importe);
+    Expression<BigDecimal> importeAjeno = cb.<BigDecimal>selectCase()
+        .when(cb.isTrue(financiacionAjena), importe).otherwise(BigDecimal.ZERO);
+
+    cq.where(cb.equal(root.get(SolicitudProyectoPresupuestoTotal_.solicitudId), solicitudId));
+    cq.multiselect(
+        // total convocatoria
+        cb.coalesce(cb.sum(importeConvocatoria), BigDecimal.ZERO),
+        // total ajeno
+        cb.coalesce(cb.sum(importeAjeno), BigDecimal.ZERO),
+        // total
+        cb.coalesce(cb.sum(importe), BigDecimal.ZERO));
+
+    final SolicitudProyectoPresupuestoTotales returnValue = entityManager.createQuery(cq).getSingleResult();
+    log.debug("getTotales(Long solicitudId) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene los {@link SolicitudProyectoPresupuestoTotalConceptoGasto} de la
+   * {@link Solicitud} a partir de sus {@link SolicitudProyectoPresupuestoTotal}.
+   *
+   * @param solicitudId Id de la {@link Solicitud}.
+   * @return lista de {@link SolicitudProyectoPresupuestoTotalConceptoGasto}.
+   */
+  @Override
+  public List<SolicitudProyectoPresupuestoTotalConceptoGasto> getTotalConceptoGastos(Long solicitudId) {
+    log.debug("getTotalConceptoGastos(Long solicitudId) - start");
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<SolicitudProyectoPresupuestoTotalConceptoGasto> cq = cb
+        .createQuery(SolicitudProyectoPresupuestoTotalConceptoGasto.class);
+    Root<SolicitudProyectoPresupuestoTotal> root = cq.from(SolicitudProyectoPresupuestoTotal.class);
+
+    cq.where(cb.equal(root.get(SolicitudProyectoPresupuestoTotal_.solicitudId), solicitudId));
+    cq.groupBy(root.get(SolicitudProyectoPresupuestoTotal_.conceptoGasto));
+    cq.multiselect(root.get(SolicitudProyectoPresupuestoTotal_.conceptoGasto),
+        cb.sum(root.get(SolicitudProyectoPresupuestoTotal_.importeTotal)));
+
+    final List<SolicitudProyectoPresupuestoTotalConceptoGasto> returnValue = entityManager.createQuery(cq)
+        .getResultList();
+    log.debug("getTotalConceptoGastos(Long solicitudId) - end");
+    return returnValue;
+  }
+
+  /**
+   * Recalcula los {@link SolicitudProyectoPresupuestoTotal} de la
+   * {@link Solicitud} a partir de sus {@link SolicitudProyectoPresupuesto} y
+   * crea, actualiza o elimina los que no coinciden.
+   *
+   * @param solicitudId Id de la {@link Solicitud}.
+   * @return número de {@link SolicitudProyectoPresupuestoTotal} corregidos.
+   */
+  @Override
+  public int sincronizar(Long solicitudId) {
+    log.debug("sincronizar(Long solicitudId) - start");
+    Map<List<Object>, BigDecimal> importes = getImportesPresupuesto(solicitudId);
+
+    int returnValue = 0;
+    for (SolicitudProyectoPresupuestoTotal total : getTotalesSolicitud(solicitudId)) {
+      List<Object> clave = Arrays.asList(total.getConceptoGasto().getId(), total.getEntidadRef(),
+          total.getAnualidad(), total.getFinanciacionAjena());
+      if (!importes.containsKey(clave)) {
+        // Ya no hay partidas con la clave o el total está duplicado
+        entityManager.remove(total);
+        returnValue++;
+        continue;
+      }
+      BigDecimal importe = importes.remove(clave);
+      if (!iguales(importe, total.getImporteTotal())) {
+        total.setImporteTotal(importe);
+        returnValue++;
+      }
+    }
+
+    for (Map.Entry<List<Object>, BigDecimal> importe : importes.entrySet()) {
+      List<Object> clave = importe.getKey();
+      // @formatter:off
+      entityManager.persist(SolicitudProyectoPresupuestoTotal.builder()
+          .solicitudId(solicitudId)
+          .conceptoGasto(entityManager.getReference(ConceptoGasto.class, clave.get(0)))
+          .entidadRef((String) clave.get(1))
+          .anualidad((Integer) clave.get(2))
+          .financiacionAjena((Boolean) clave.get(3))
+          .importeTotal(importe.getValue())
+          .build());
+      // @formatter:on
+      returnValue++;
+    }
+
+    log.debug("sincronizar(Long solicitudId) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene los ids de las {@link Solicitud} con
+   * {@link SolicitudProyectoPresupuesto} o con
+   * {@link SolicitudProyectoPresupuestoTotal}.
+   *
+   * @return lista de ids de {@link Solicitud} ordenada.
+   */
+  @Override
+  public List<Long> getSolicitudIdsConPresupuesto() {
+    log.debug("getSolicitudIdsConPresupuesto() - start");
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+    CriteriaQuery<Long> cqPresupuesto = cb.createQuery(Long.class);
+    Root<SolicitudProyectoPresupuesto> rootPresupuesto = cqPresupuesto.from(SolicitudProyectoPresupuesto.class);
+    cqPresupuesto.select(rootPresupuesto.get(SolicitudProyectoPresupuesto_.solicitudProyectoId)).distinct(true);
+
+    CriteriaQuery<Long> cqTotal = cb.createQuery(Long.class);
+    Root<SolicitudProyectoPresupuestoTotal> rootTotal = cqTotal.from(SolicitudProyectoPresupuestoTotal.class);
+    cqTotal.select(rootTotal.get(SolicitudProyectoPresupuestoTotal_.solicitudId)).distinct(true);
+
+    Set<Long> solicitudIds = new TreeSet<>(entityManager.createQuery(cqPresupuesto).getResultList());
+    solicitudIds.addAll(entityManager.createQuery(cqTotal).getResultList());
+
+    log.debug("getSolicitudIdsConPresupuesto() - end");
+    return new ArrayList<>(solicitudIds);
+  }
+
+  /**
+   * Suma de los importes de las {@link SolicitudProyectoPresupuesto} de la
+   * {@link Solicitud} por concepto de gasto, entidad, anualidad y tipo de
+   * financiación. El id de la SolicitudProyecto es el de la {@link Solicitud}.
+   */
+  private Map<List<Object>, BigDecimal> getImportesPresupuesto(Long solicitudId) {
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+    Root<SolicitudProyectoPresupuesto> root = cq.from(SolicitudProyectoPresupuesto.class);
+
+    Path<Long> conceptoGastoId = root.get(SolicitudProyectoPresupuesto_.conceptoGasto).get(ConceptoGasto_.id);
+    Path<String> entidadRef = root.get(SolicitudProyectoPresupuesto_.entidadRef);
+    Path<Integer> anualidad = root.get(SolicitudProyectoPresupuesto_.anualidad);
+    Path<Boolean> financiacionAjena = root.get(SolicitudProyectoPresupuesto_.financiacionAjena);
+
+    cq.where(cb.equal(root.get(SolicitudProyectoPresupuesto_.solicitudProyectoId), solicitudId));
+    cq.groupBy(conceptoGastoId, entidadRef, anualidad, financiacionAjena);
+    cq.multiselect(conceptoGastoId, entidadRef, anualidad, financiacionAjena,
+        cb.sum(root.get(SolicitudProyectoPresupuesto_.importeSolicitado)));
+
+    Map<List<Object>, BigDecimal> returnValue = new HashMap<>();
+    for (Tuple tuple : entityManager.createQuery(cq).getResultList()) {
+      returnValue.put(Arrays.asList(tuple.get(0), tuple.get(1), tuple.get(2), tuple.get(3)),
+          tuple.get(4, BigDecimal.class));
+    }
+    return returnValue;
+  }
+
+  private List<SolicitudProyectoPresupuestoTotal> getTotalesSolicitud(Long solicitudId) {
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<SolicitudProyectoPresupuestoTotal> cq = cb.createQuery(SolicitudProyectoPresupuestoTotal.class);
+    Root<SolicitudProyectoPresupuestoTotal> root = cq.from(SolicitudProyectoPresupuestoTotal.class);
+    cq.where(cb.equal(root.get(SolicitudProyectoPresupuestoTotal_.solicitudId), solicitudId));
+    return entityManager.createQuery(cq).getResultList();
+  }
+
+  private static boolean iguales(BigDecimal importe, BigDecimal otro) {
+    return importe == null ? otro == null : otro != null && importe.compareTo(otro) == 0;
+  }
+
+}
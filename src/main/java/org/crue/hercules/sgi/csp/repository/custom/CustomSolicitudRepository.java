@@ -0,0 +1,83 @@
+package org.crue.hercules.sgi.csp.repository.custom;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+/**
+ * Custom repository para {@link Solicitud}.
+ */
+@Component
+public interface CustomSolicitudRepository {
+
+  /**
+   * Obtiene la página de {@link Solicitud} que sigue al cursor indicado, sin
+   * consulta count.
+   *
+   * @param spec   la especificación del filtro.
+   * @param cursor posición desde la que continuar.
+   * @param size   número de elementos de la página.
+   * @return la página de {@link Solicitud} con el cursor de la siguiente.
+   */
+  KeysetSlice<Solicitud> findAllKeyset(Specification<Solicitud> spec, KeysetCursor cursor, int size);
+
+  /**
+   * Obtiene la página de {@link Solicitud} indicada sin consulta count.
+   *
+   * @param spec     la especificación del filtro.
+   * @param pageable la información de la paginación.
+   * @return la página de {@link Solicitud} sin el número total de elementos.
+   */
+  Slice<Solicitud> findAllSlice(Specification<Solicitud> spec, Pageable pageable);
+
+  /**
+   * Aplica la acción a cada {@link Solicitud} que cumple el filtro, en orden de id,
+   * sin cargar la lista completa en memoria. Se tiene que invocar dentro de una
+   * transacción.
+   *
+   * @param spec   la especificación del filtro.
+   * @param action acción a aplicar a cada {@link Solicitud}.
+   * @return el número de {@link Solicitud} procesadas.
+   */
+  long forEach(Specification<Solicitud> spec, Consumer<? super Solicitud> action);
+
+  /**
+   * Obtiene la versión de la {@link Solicitud}, que se incrementa con cada
+   * cambio de la {@link Solicitud} o de sus datos relacionados.
+   *
+   * @param id Id de la {@link Solicitud}.
+   * @return la versión de la {@link Solicitud}.
+   */
+  Optional<Long> getVersion(Long id);
+
+  /**
+   * Obtiene la versión de la {@link Solicitud} si pertenece a una de las unidades
+   * de gestión indicadas.
+   *
+   * @param id                Id de la {@link Solicitud}.
+   * @param unidadGestionRefs unidades de gestión.
+   * @return la versión de la {@link Solicitud}, vacía si no existe o es de otra
+   *         unidad de gestión.
+   */
+  Optional<Long> getVersion(Long id, List<String> unidadGestionRefs);
+
+  /**
+   * Obtiene la versión de la {@link Solicitud} bloqueando su fila hasta el
+   * final de la transacción, para comprobar la versión antes de modificarla sin
+   * que otra transacción la cambie entretanto. Se tiene que invocar dentro de
+   * una transacción.
+   *
+   * @param id Id de la {@link Solicitud}.
+   * @return la versión de la {@link Solicitud}.
+   */
+  Optional<Long> getVersionForUpdate(Long id);
+
+}
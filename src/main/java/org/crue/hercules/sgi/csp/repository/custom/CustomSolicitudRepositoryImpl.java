@@ -0,0 +1,158 @@
+package org.crue.hercules.sgi.csp.repository.custom;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.Solicitud_;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Spring Data JPA repository para {@link Solicitud}.
+ */
+@Slf4j
+@Component
+public class CustomSolicitudRepositoryImpl implements CustomSolicitudRepository {
+
+  /**
+   * Propiedades por las que se puede paginar por cursor, con índice (propiedad,
+   * id)
+   */
+  private static final List<String> KEYSET_PROPERTIES = Arrays.asList(Solicitud_.ID, Solicitud_.SOLICITANTE_REF);
+
+  /** The entity manager. */
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Obtiene la página de {@link Solicitud} que sigue al cursor indicado, sin
+   * consulta count.
+   *
+   * @param spec   la especificación del filtro.
+   * @param cursor posición desde la que continuar.
+   * @param size   número de elementos de la página.
+   * @return la página de {@link Solicitud} con el cursor de la siguiente.
+   */
+  @Override
+  public KeysetSlice<Solicitud> findAllKeyset(Specification<Solicitud> spec, KeysetCursor cursor, int size) {
+    log.debug("findAllKeyset(Specification<Solicitud> spec, KeysetCursor cursor, int size) - start");
+    KeysetSlice<Solicitud> returnValue = KeysetQuery.findAll(entityManager, Solicitud.class, Solicitud.ENTITY_GRAPH,
+        KEYSET_PROPERTIES, spec, cursor, size);
+    log.debug("findAllKeyset(Specification<Solicitud> spec, KeysetCursor cursor, int size) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página de {@link Solicitud} indicada sin consulta count.
+   *
+   * @param spec     la especificación del filtro.
+   * @param pageable la información de la paginación.
+   * @return la página de {@link Solicitud} sin el número total de elementos.
+   */
+  @Override
+  public Slice<Solicitud> findAllSlice(Specification<Solicitud> spec, Pageable pageable) {
+    log.debug("findAllSlice(Specification<Solicitud> spec, Pageable pageable) - start");
+    Slice<Solicitud> returnValue = SliceQuery.findAll(entityManager, Solicitud.class, Solicitud.ENTITY_GRAPH, spec,
+        pageable);
+    log.debug("findAllSlice(Specification<Solicitud> spec, Pageable pageable) - end");
+    return returnValue;
+  }
+
+  /**
+   * Aplica la acción a cada {@link Solicitud} que cumple el filtro, en orden de id,
+   * sin cargar la lista completa en memoria. Se tiene que invocar dentro de una
+   * transacción.
+   *
+   * @param spec   la especificación del filtro.
+   * @param action acción a aplicar a cada {@link Solicitud}.
+   * @return el número de {@link Solicitud} procesadas.
+   */
+  @Override
+  public long forEach(Specification<Solicitud> spec, Consumer<? super Solicitud> action) {
+    log.debug("forEach(Specification<Solicitud> spec, Consumer<? super Solicitud> action) - start");
+    long returnValue = StreamQuery.forEach(entityManager, Solicitud.class, Solicitud.ENTITY_GRAPH, spec, action);
+    log.debug("forEach(Specification<Solicitud> spec, Consumer<? super Solicitud> action) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la versión de la {@link Solicitud}, que se incrementa con cada
+   * cambio de la {@link Solicitud} o de sus datos relacionados.
+   *
+   * @param id Id de la {@link Solicitud}.
+   * @return la versión de la {@link Solicitud}.
+   */
+  @Override
+  public Optional<Long> getVersion(Long id) {
+    log.debug("getVersion(Long id) - start");
+    Optional<Long> returnValue = findVersion(id, null);
+    log.debug("getVersion(Long id) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la versión de la {@link Solicitud} si pertenece a una de las unidades
+   * de gestión indicadas.
+   *
+   * @param id                Id de la {@link Solicitud}.
+   * @param unidadGestionRefs unidades de gestión.
+   * @return la versión de la {@link Solicitud}, vacía si no existe o es de otra
+   *         unidad de gestión.
+   */
+  @Override
+  public Optional<Long> getVersion(Long id, List<String> unidadGestionRefs) {
+    log.debug("getVersion(Long id, List<String> unidadGestionRefs) - start");
+    Optional<Long> returnValue = unidadGestionRefs.isEmpty() ? Optional.empty() : findVersion(id, unidadGestionRefs);
+    log.debug("getVersion(Long id, List<String> unidadGestionRefs) - end");
+    return returnValue;
+  }
+
+  private Optional<Long> findVersion(Long id, List<String> unidadGestionRefs) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+    Root<Solicitud> root = cq.from(Solicitud.class);
+    Predicate predicate = cb.equal(root.get(Solicitud_.id), id);
+    if (unidadGestionRefs != null) {
+      predicate = cb.and(predicate, root.get(Solicitud_.unidadGestionRef).in(unidadGestionRefs));
+    }
+    cq.select(root.get(Solicitud_.version)).where(predicate);
+    return entityManager.createQuery(cq).getResultList().stream().findFirst();
+  }
+
+  /**
+   * Obtiene la versión de la {@link Solicitud} bloqueando su fila hasta el
+   * final de la transacción, para comprobar la versión antes de modificarla sin
+   * que otra transacción la cambie entretanto. Se tiene que invocar dentro de
+   * una transacción.
+   *
+   * @param id Id de la {@link Solicitud}.
+   * @return la versión de la {@link Solicitud}.
+   */
+  @Override
+  public Optional<Long> getVersionForUpdate(Long id) {
+    log.debug("getVersionForUpdate(Long id) - start");
+    Optional<Long> returnValue = Optional
+        .ofNullable(entityManager.find(Solicitud.class, id, LockModeType.PESSIMISTIC_WRITE))
+        .flatMap(solicitud -> getVersion(id));
+    log.debug("getVersionForUpdate(Long id) - end");
+    return returnValue;
+  }
+
+}
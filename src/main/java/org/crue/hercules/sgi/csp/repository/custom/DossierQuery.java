@@ -0,0 +1,51 @@
+package org.crue.hercules.sgi.csp.repository.custom;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+
+/**
+ * Consulta de las entidades hijas de un agregado compartida por los custom
+ * repositories, para los dossieres.
+ * <p>
+ * Obtiene en una única consulta, sin paginar ni consulta count, todas las
+ * entidades que referencian al agregado por su columna de clave ajena. Las
+ * relaciones de las entidades devueltas se cargan por bloques de ids
+ * ({@code hibernate.default_batch_fetch_size}) en lugar de una consulta por
+ * fila.
+ */
+final class DossierQuery {
+
+  private DossierQuery() {
+  }
+
+  /**
+   * Obtiene las entidades cuya propiedad indicada tiene el id del agregado, en
+   * orden de id.
+   *
+   * @param <T>         tipo de la entidad.
+   * @param em          el entity manager.
+   * @param domainClass la clase de la entidad.
+   * @param property    propiedad con el id del agregado. Puede ser la ruta de
+   *                    una relación separada por puntos (p.e.
+   *                    convocatoriaConceptoGasto.convocatoriaId).
+   * @param id          id del agregado.
+   * @return las entidades del agregado.
+   */
+  static <T> List<T> findAll(EntityManager em, Class<T> domainClass, String property, Long id) {
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<T> cq = cb.createQuery(domainClass);
+    Root<T> root = cq.from(domainClass);
+    Path<?> path = root;
+    for (String attribute : property.split("\\.")) {
+      path = path.get(attribute);
+    }
+    cq.select(root).where(cb.equal(path, id)).orderBy(cb.asc(root.get("id")));
+    return em.createQuery(cq).getResultList();
+  }
+
+}
@@ -0,0 +1,125 @@
+package org.crue.hercules.sgi.csp.repository.custom;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.Assert;
+
+/**
+ * Consulta paginada por cursor ({@link KeysetCursor}) compartida por los
+ * custom repositories.
+ * <p>
+ * La página se obtiene con un filtro sobre la clave de ordenación
+ * {@code (propiedad, id)} del último elemento devuelto y un límite de filas, de
+ * modo que la base de datos recorre el índice {@code (propiedad, id)} desde esa
+ * posición sin descartar las filas de las páginas anteriores. Se pide una fila
+ * más de las necesarias para saber si hay página siguiente sin lanzar una
+ * consulta count.
+ */
+final class KeysetQuery {
+
+  /** Hint JPA para cargar las relaciones del entity graph indicado */
+  private static final String LOAD_GRAPH_HINT = "javax.persistence.loadgraph";
+
+  private KeysetQuery() {
+  }
+
+  /**
+   * Obtiene la página de entidades que siguen al cursor.
+   *
+   * @param <T>         tipo de la entidad.
+   * @param em          el entity manager.
+   * @param domainClass la clase de la entidad.
+   * @param entityGraph nombre del entity graph con las relaciones a cargar.
+   * @param properties  propiedades por las que se permite ordenar (deben tener
+   *                    un índice {@code (propiedad, id)}).
+   * @param spec        filtro de la consulta.
+   * @param cursor      posición desde la que continuar.
+   * @param size        número de elementos de la página.
+   * @return la página con el cursor de la siguiente.
+   */
+  static <T> KeysetSlice<T> findAll(EntityManager em, Class<T> domainClass, String entityGraph,
+      Collection<String> properties, Specification<T> spec, KeysetCursor cursor, int size) {
+    Assert.isTrue(properties.contains(cursor.getProperty()),
+        "No se puede paginar por cursor ordenando por " + cursor.getProperty());
+    Assert.isTrue(size > 0, "El tamaño de página tiene que ser mayor que 0");
+
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<T> cq = cb.createQuery(domainClass);
+    Root<T> root = cq.from(domainClass);
+
+    List<Predicate> predicates = new ArrayList<>();
+    Predicate filtro = spec == null ? null : spec.toPredicate(root, cq, cb);
+    if (filtro != null) {
+      predicates.add(filtro);
+    }
+    if (!cursor.isFirst()) {
+      predicates.add(seek(cb, root, cursor));
+    }
+
+    cq.select(root).where(predicates.toArray(new Predicate[0])).orderBy(orderBy(cb, root, cursor));
+
+    TypedQuery<T> query = em.createQuery(cq).setMaxResults(size + 1);
+    if (entityGraph != null) {
+      query.setHint(LOAD_GRAPH_HINT, em.getEntityGraph(entityGraph));
+    }
+    List<T> content = query.getResultList();
+
+    if (content.size() <= size) {
+      return new KeysetSlice<>(content, null);
+    }
+    content = new ArrayList<>(content.subList(0, size));
+    BeanWrapper ultimo = PropertyAccessorFactory.forBeanPropertyAccess(content.get(size - 1));
+    KeysetCursor next = cursor.next((Long) ultimo.getPropertyValue(KeysetCursor.ID),
+        (Comparable<?>) ultimo.getPropertyValue(cursor.getProperty()));
+    return new KeysetSlice<>(content, next.encode());
+  }
+
+  /**
+   * Filtro de las filas posteriores al cursor:
+   * {@code propiedad > valor OR (propiedad = valor AND id > ultimoId)}, con los
+   * operadores invertidos en orden descendente.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static <T> Predicate seek(CriteriaBuilder cb, Root<T> root, KeysetCursor cursor) {
+    Path<Comparable> key = root.get(cursor.getProperty());
+    Path<Long> id = root.get(KeysetCursor.ID);
+    Comparable value = cursor.getValue();
+    Assert.isTrue(value != null && key.getJavaType().isInstance(value), "Cursor no válido");
+    boolean ascending = cursor.getDirection().isAscending();
+
+    Predicate despues = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+    if (KeysetCursor.ID.equals(cursor.getProperty())) {
+      return despues;
+    }
+    Predicate empate = cb.and(cb.equal(key, value),
+        ascending ? cb.greaterThan(id, cursor.getId()) : cb.lessThan(id, cursor.getId()));
+    return cb.or(despues, empate);
+  }
+
+  private static <T> List<Order> orderBy(CriteriaBuilder cb, Root<T> root, KeysetCursor cursor) {
+    boolean ascending = cursor.getDirection().isAscending();
+    List<Order> orders = new ArrayList<>();
+    orders.add(ascending ? cb.asc(root.get(cursor.getProperty())) : cb.desc(root.get(cursor.getProperty())));
+    if (!KeysetCursor.ID.equals(cursor.getProperty())) {
+      orders.add(ascending ? cb.asc(root.get(KeysetCursor.ID)) : cb.desc(root.get(KeysetCursor.ID)));
+    }
+    return orders;
+  }
+
+}
@@ -0,0 +1,80 @@
+package org.crue.hercules.sgi.csp.repository.custom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+/**
+ * Consulta paginada sin total ({@link Slice}) compartida por los custom
+ * repositories.
+ * <p>
+ * A diferencia de {@code findAll(Specification, Pageable)}, no lanza la
+ * consulta count con los mismos joins que la consulta de datos: se pide una
+ * fila más de las necesarias para saber si hay página siguiente.
+ */
+final class SliceQuery {
+
+  /** Hint JPA para cargar las relaciones del entity graph indicado */
+  private static final String LOAD_GRAPH_HINT = "javax.persistence.loadgraph";
+
+  private SliceQuery() {
+  }
+
+  /**
+   * Obtiene la página de entidades indicada sin el número total de elementos.
+   *
+   * @param <T>         tipo de la entidad.
+   * @param em          el entity manager.
+   * @param domainClass la clase de la entidad.
+   * @param entityGraph nombre del entity graph con las relaciones a cargar.
+   * @param spec        filtro de la consulta.
+   * @param pageable    la información de la paginación.
+   * @return la página de entidades.
+   */
+  static <T> Slice<T> findAll(EntityManager em, Class<T> domainClass, String entityGraph, Specification<T> spec,
+      Pageable pageable) {
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<T> cq = cb.createQuery(domainClass);
+    Root<T> root = cq.from(domainClass);
+
+    Predicate filtro = spec == null ? null : spec.toPredicate(root, cq, cb);
+    if (filtro != null) {
+      cq.where(filtro);
+    }
+    cq.select(root);
+    if (pageable.getSort().isSorted()) {
+      // Como en findAll(Specification, Pageable), sin orden explícito se mantiene
+      // el de la especificación (p.e. la relevancia de la búsqueda de texto)
+      cq.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+    }
+
+    TypedQuery<T> query = em.createQuery(cq);
+    if (entityGraph != null) {
+      query.setHint(LOAD_GRAPH_HINT, em.getEntityGraph(entityGraph));
+    }
+    if (pageable.isUnpaged()) {
+      return new SliceImpl<>(query.getResultList(), pageable, false);
+    }
+
+    query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize() + 1);
+    List<T> content = query.getResultList();
+    boolean hasNext = content.size() > pageable.getPageSize();
+    if (hasNext) {
+      content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+    }
+    return new SliceImpl<>(content, pageable, hasNext);
+  }
+
+}
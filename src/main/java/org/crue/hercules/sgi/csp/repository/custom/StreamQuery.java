@@ -0,0 +1,84 @@
+package org.crue.hercules.sgi.csp.repository.custom;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Recorrido completo de un filtro compartido por los custom repositories, para
+ * las exportaciones.
+ * <p>
+ * Las filas se leen de la base de datos por bloques de {@link #BATCH_SIZE}
+ * (fetch size del cursor JDBC) en lugar de cargar la lista completa, y el
+ * entity manager se limpia cada {@link #BATCH_SIZE} filas para que las
+ * entidades ya procesadas no se acumulen en el contexto de persistencia. Se
+ * tiene que invocar dentro de una transacción (el driver de PostgreSQL solo
+ * respeta el fetch size sin autocommit) y las entidades no se pueden usar fuera
+ * de la acción.
+ */
+final class StreamQuery {
+
+  /** Filas leídas en cada viaje a la base de datos y entre limpiezas */
+  static final int BATCH_SIZE = 500;
+
+  /** Hint JPA para cargar las relaciones del entity graph indicado */
+  private static final String LOAD_GRAPH_HINT = "javax.persistence.loadgraph";
+
+  private StreamQuery() {
+  }
+
+  /**
+   * Aplica la acción a cada entidad que cumple el filtro, en orden de id.
+   *
+   * @param <T>         tipo de la entidad.
+   * @param em          el entity manager.
+   * @param domainClass la clase de la entidad.
+   * @param entityGraph nombre del entity graph con las relaciones a cargar.
+   * @param spec        filtro de la consulta.
+   * @param action      acción a aplicar a cada entidad.
+   * @return el número de entidades procesadas.
+   */
+  static <T> long forEach(EntityManager em, Class<T> domainClass, String entityGraph, Specification<T> spec,
+      Consumer<? super T> action) {
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<T> cq = cb.createQuery(domainClass);
+    Root<T> root = cq.from(domainClass);
+
+    Predicate filtro = spec == null ? null : spec.toPredicate(root, cq, cb);
+    if (filtro != null) {
+      cq.where(filtro);
+    }
+    // Orden estable por la clave primaria, sin ordenación en memoria
+    cq.select(root).orderBy(cb.asc(root.get("id")));
+
+    TypedQuery<T> query = em.createQuery(cq);
+    query.setHint(QueryHints.HINT_FETCH_SIZE, BATCH_SIZE);
+    query.setHint(QueryHints.HINT_READONLY, true);
+    if (entityGraph != null) {
+      query.setHint(LOAD_GRAPH_HINT, em.getEntityGraph(entityGraph));
+    }
+
+    long count = 0;
+    try (Stream<T> stream = query.getResultStream()) {
+      Iterator<T> it = stream.iterator();
+      while (it.hasNext()) {
+        action.accept(it.next());
+        if (++count % BATCH_SIZE == 0) {
+          em.clear();
+        }
+      }
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,292 @@
+package org.crue.hercules.sgi.csp.repository.listener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.crue.hercules.sgi.csp.model.ConfiguracionSolicitud;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaAreaTematica;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaConceptoGasto;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaConceptoGastoCodigoEc;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaDocumento;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEnlace;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEntidadConvocante;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEntidadFinanciadora;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEntidadGestora;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaFase;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaHito;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaPeriodoSeguimientoCientifico;
+import org.crue.hercules.sgi.csp.model.EstadoProyecto;
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
+import org.crue.hercules.sgi.csp.model.ProrrogaDocumento;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoDocumento;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadConvocante;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadFinanciadora;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadGestora;
+import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoFase;
+import org.crue.hercules.sgi.csp.model.ProyectoHito;
+import org.crue.hercules.sgi.csp.model.ProyectoPaqueteTrabajo;
+import org.crue.hercules.sgi.csp.model.ProyectoPeriodoSeguimiento;
+import org.crue.hercules.sgi.csp.model.ProyectoPeriodoSeguimientoDocumento;
+import org.crue.hercules.sgi.csp.model.ProyectoProrroga;
+import org.crue.hercules.sgi.csp.model.ProyectoSocio;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoJustificacionDocumento;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoPago;
+import org.crue.hercules.sgi.csp.model.RequisitoEquipo;
+import org.crue.hercules.sgi.csp.model.RequisitoIP;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudDocumento;
+import org.crue.hercules.sgi.csp.model.SolicitudHito;
+import org.crue.hercules.sgi.csp.model.SolicitudModalidad;
+import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoEntidadFinanciadoraAjena;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocio;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioEquipo;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioPeriodoPago;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mantiene la versión de los agregados {@link Convocatoria}, {@link Solicitud}
+ * y {@link Proyecto}.
+ * <p>
+ * Cualquier alta, modificación o borrado del agregado o de una de sus entidades
+ * relacionadas incrementa la versión del agregado en la misma transacción, una
+ * única vez por transacción y agregado, al terminar el flush previo al commit.
+ * Así la versión cambia siempre que cambian los datos, sin que cada service lo
+ * tenga que hacer, y se puede usar como clave de caché y como ETag.
+ */
+@Slf4j
+@Component
+public class AgregadoVersionListener
+    implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final String UPDATE_CONVOCATORIA = "UPDATE Convocatoria a SET a.version = a.version + 1 "
+      + "WHERE a.id IN ";
+  private static final String UPDATE_SOLICITUD = "UPDATE Solicitud a SET a.version = a.version + 1 WHERE a.id IN ";
+  private static final String UPDATE_PROYECTO = "UPDATE Proyecto a SET a.version = a.version + 1 WHERE a.id IN ";
+
+  private static final String IDS = "(:ids)";
+
+  /**
+   * Actualización de la versión del agregado y obtención del id que se le pasa
+   * de cada entidad relacionada. Las entidades que no guardan el id del
+   * agregado lo obtienen con una subconsulta a partir del id de su entidad
+   * padre.
+   */
+  private static final Map<Class<?>, Relacion> RELACIONES = new HashMap<>();
+
+  static {
+    put(Convocatoria.class, UPDATE_CONVOCATORIA + IDS, Convocatoria::getId);
+    put(ConfiguracionSolicitud.class, UPDATE_CONVOCATORIA + IDS, ConfiguracionSolicitud::getConvocatoriaId);
+    put(ConvocatoriaAreaTematica.class, UPDATE_CONVOCATORIA + IDS, ConvocatoriaAreaTematica::getConvocatoriaId);
+    put(ConvocatoriaConceptoGasto.class, UPDATE_CONVOCATORIA + IDS, ConvocatoriaConceptoGasto::getConvocatoriaId);
+    put(ConvocatoriaConceptoGastoCodigoEc.class,
+        UPDATE_CONVOCATORIA + "(SELECT g.convocatoriaId FROM ConvocatoriaConceptoGasto g WHERE g.id IN " + IDS + ")",
+        ConvocatoriaConceptoGastoCodigoEc::getConvocatoriaConceptoGastoId);
+    put(ConvocatoriaDocumento.class, UPDATE_CONVOCATORIA + IDS, ConvocatoriaDocumento::getConvocatoriaId);
+    put(ConvocatoriaEnlace.class, UPDATE_CONVOCATORIA + IDS, ConvocatoriaEnlace::getConvocatoriaId);
+    put(ConvocatoriaEntidadConvocante.class, UPDATE_CONVOCATORIA + IDS,
+        ConvocatoriaEntidadConvocante::getConvocatoriaId);
+    put(ConvocatoriaEntidadFinanciadora.class, UPDATE_CONVOCATORIA + IDS,
+        ConvocatoriaEntidadFinanciadora::getConvocatoriaId);
+    put(ConvocatoriaEntidadGestora.class, UPDATE_CONVOCATORIA + IDS, ConvocatoriaEntidadGestora::getConvocatoriaId);
+    put(ConvocatoriaFase.class, UPDATE_CONVOCATORIA + IDS, ConvocatoriaFase::getConvocatoriaId);
+    put(ConvocatoriaHito.class, UPDATE_CONVOCATORIA + IDS, ConvocatoriaHito::getConvocatoriaId);
+    put(ConvocatoriaPeriodoJustificacion.class, UPDATE_CONVOCATORIA + IDS,
+        ConvocatoriaPeriodoJustificacion::getConvocatoriaId);
+    put(ConvocatoriaPeriodoSeguimientoCientifico.class, UPDATE_CONVOCATORIA + IDS,
+        ConvocatoriaPeriodoSeguimientoCientifico::getConvocatoriaId);
+    put(RequisitoEquipo.class, UPDATE_CONVOCATORIA + IDS, RequisitoEquipo::getConvocatoriaId);
+    put(RequisitoIP.class, UPDATE_CONVOCATORIA + IDS, RequisitoIP::getConvocatoriaId);
+
+    // El id de SolicitudProyecto es el de su Solicitud
+    put(Solicitud.class, UPDATE_SOLICITUD + IDS, Solicitud::getId);
+    put(EstadoSolicitud.class, UPDATE_SOLICITUD + IDS, EstadoSolicitud::getSolicitudId);
+    put(SolicitudDocumento.class, UPDATE_SOLICITUD + IDS, SolicitudDocumento::getSolicitudId);
+    put(SolicitudHito.class, UPDATE_SOLICITUD + IDS, SolicitudHito::getSolicitudId);
+    put(SolicitudModalidad.class, UPDATE_SOLICITUD + IDS, SolicitudModalidad::getSolicitudId);
+    put(SolicitudProyecto.class, UPDATE_SOLICITUD + IDS, SolicitudProyecto::getId);
+    put(SolicitudProyectoEntidadFinanciadoraAjena.class, UPDATE_SOLICITUD + IDS,
+        SolicitudProyectoEntidadFinanciadoraAjena::getSolicitudProyectoId);
+    put(SolicitudProyectoEquipo.class, UPDATE_SOLICITUD + IDS, SolicitudProyectoEquipo::getSolicitudProyectoId);
+    put(SolicitudProyectoPresupuesto.class, UPDATE_SOLICITUD + IDS,
+        SolicitudProyectoPresupuesto::getSolicitudProyectoId);
+    put(SolicitudProyectoSocio.class, UPDATE_SOLICITUD + IDS, SolicitudProyectoSocio::getSolicitudProyectoId);
+    String solicitudProyectoSocio = UPDATE_SOLICITUD
+        + "(SELECT s.solicitudProyectoId FROM SolicitudProyectoSocio s WHERE s.id IN " + IDS + ")";
+    put(SolicitudProyectoSocioEquipo.class, solicitudProyectoSocio,
+        SolicitudProyectoSocioEquipo::getSolicitudProyectoSocioId);
+    put(SolicitudProyectoSocioPeriodoJustificacion.class, solicitudProyectoSocio,
+        SolicitudProyectoSocioPeriodoJustificacion::getSolicitudProyectoSocioId);
+    put(SolicitudProyectoSocioPeriodoPago.class, solicitudProyectoSocio,
+        SolicitudProyectoSocioPeriodoPago::getSolicitudProyectoSocioId);
+
+    put(Proyecto.class, UPDATE_PROYECTO + IDS, Proyecto::getId);
+    put(EstadoProyecto.class, UPDATE_PROYECTO + IDS, EstadoProyecto::getProyectoId);
+    put(ProyectoDocumento.class, UPDATE_PROYECTO + IDS, ProyectoDocumento::getProyectoId);
+    put(ProyectoEntidadConvocante.class, UPDATE_PROYECTO + IDS, ProyectoEntidadConvocante::getProyectoId);
+    put(ProyectoEntidadFinanciadora.class, UPDATE_PROYECTO + IDS, ProyectoEntidadFinanciadora::getProyectoId);
+    put(ProyectoEntidadGestora.class, UPDATE_PROYECTO + IDS, ProyectoEntidadGestora::getProyectoId);
+    put(ProyectoEquipo.class, UPDATE_PROYECTO + IDS, ProyectoEquipo::getProyectoId);
+    put(ProyectoFase.class, UPDATE_PROYECTO + IDS, ProyectoFase::getProyectoId);
+    put(ProyectoHito.class, UPDATE_PROYECTO + IDS, ProyectoHito::getProyectoId);
+    put(ProyectoPaqueteTrabajo.class, UPDATE_PROYECTO + IDS, ProyectoPaqueteTrabajo::getProyectoId);
+    put(ProyectoPeriodoSeguimiento.class, UPDATE_PROYECTO + IDS, ProyectoPeriodoSeguimiento::getProyectoId);
+    put(ProyectoPeriodoSeguimientoDocumento.class,
+        UPDATE_PROYECTO + "(SELECT p.proyectoId FROM ProyectoPeriodoSeguimiento p WHERE p.id IN " + IDS + ")",
+        ProyectoPeriodoSeguimientoDocumento::getProyectoPeriodoSeguimientoId);
+    put(ProyectoProrroga.class, UPDATE_PROYECTO + IDS, ProyectoProrroga::getProyectoId);
+    put(ProrrogaDocumento.class,
+        UPDATE_PROYECTO + "(SELECT p.proyectoId FROM ProyectoProrroga p WHERE p.id IN " + IDS + ")",
+        ProrrogaDocumento::getProyectoProrrogaId);
+    put(ProyectoSocio.class, UPDATE_PROYECTO + IDS, ProyectoSocio::getProyectoId);
+    String proyectoSocio = UPDATE_PROYECTO + "(SELECT s.proyectoId FROM ProyectoSocio s WHERE s.id IN " + IDS + ")";
+    put(ProyectoSocioEquipo.class, proyectoSocio, ProyectoSocioEquipo::getProyectoSocioId);
+    put(ProyectoSocioPeriodoJustificacion.class, proyectoSocio, ProyectoSocioPeriodoJustificacion::getProyectoSocioId);
+    put(ProyectoSocioPeriodoPago.class, proyectoSocio, ProyectoSocioPeriodoPago::getProyectoSocioId);
+    put(ProyectoSocioPeriodoJustificacionDocumento.class,
+        UPDATE_PROYECTO + "(SELECT s.proyectoId FROM ProyectoSocio s WHERE s.id IN "
+            + "(SELECT j.proyectoSocioId FROM ProyectoSocioPeriodoJustificacion j WHERE j.id IN " + IDS + "))",
+        ProyectoSocioPeriodoJustificacionDocumento::getProyectoSocioPeriodoJustificacionId);
+  }
+
+  private final transient EntityManagerFactory entityManagerFactory;
+
+  /** Cambios pendientes de cada sesión con transacción en curso */
+  private final transient Map<SharedSessionContractImplementor, Pendientes> pendientes = new ConcurrentHashMap<>();
+
+  /**
+   * Crea el listener.
+   *
+   * @param entityManagerFactory el entity manager factory en el que se registra.
+   */
+  public AgregadoVersionListener(EntityManagerFactory entityManagerFactory) {
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  /**
+   * Registra el listener en Hibernate.
+   */
+  @PostConstruct
+  public void registrar() {
+    log.debug("registrar() - start");
+    EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry().getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_INSERT, this);
+    registry.appendListeners(EventType.POST_UPDATE, this);
+    registry.appendListeners(EventType.POST_DELETE, this);
+    log.debug("registrar() - end");
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    // Un agregado nuevo ya se crea con la versión inicial
+    Object entity = event.getEntity();
+    if (!(entity instanceof Convocatoria || entity instanceof Solicitud || entity instanceof Proyecto)) {
+      cambio(event.getSession(), entity);
+    }
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    cambio(event.getSession(), event.getEntity());
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    cambio(event.getSession(), event.getEntity());
+  }
+
+  @Override
+  public boolean requiresPostCommitHanding(EntityPersister persister) {
+    return false;
+  }
+
+  private void cambio(EventSource session, Object entity) {
+    Relacion relacion = RELACIONES.get(entity.getClass());
+    if (relacion != null) {
+      Long id = relacion.id.apply(entity);
+      if (id != null) {
+        pendientes(session).ids.computeIfAbsent(relacion.update, key -> new HashSet<>()).add(id);
+      }
+    }
+  }
+
+  private Pendientes pendientes(EventSource session) {
+    return pendientes.computeIfAbsent(session, key -> {
+      Pendientes returnValue = new Pendientes();
+      session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) returnValue);
+      session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) returnValue);
+      return returnValue;
+    });
+  }
+
+  private static <T> void put(Class<T> domainClass, String update, Function<T, Long> id) {
+    RELACIONES.put(domainClass, new Relacion(update, entity -> id.apply(domainClass.cast(entity))));
+  }
+
+  private static final class Relacion {
+    private final String update;
+    private final Function<Object, Long> id;
+
+    private Relacion(String update, Function<Object, Long> id) {
+      this.update = update;
+      this.id = id;
+    }
+  }
+
+  /**
+   * Agregados modificados en una transacción, agrupados por la actualización que
+   * incrementa su versión. Incrementa las versiones tras el último flush y se
+   * descarta al terminar la transacción.
+   */
+  private final class Pendientes implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+    private final Map<String, Set<Long>> ids = new HashMap<>();
+
+    @Override
+    public void doBeforeTransactionCompletion(SessionImplementor session) {
+      ids.forEach((update, agregadoIds) -> session.createQuery(update).setParameter("ids", agregadoIds)
+          .executeUpdate());
+    }
+
+    @Override
+    public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+      pendientes.remove(session);
+    }
+  }
+
+}
@@ -0,0 +1,106 @@
+package org.crue.hercules.sgi.csp.repository.predicate;
+
+import java.util.List;
+
+import org.hibernate.QueryException;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.Oracle8iDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.dialect.function.SQLFunction;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.engine.spi.Mapping;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.Type;
+
+/**
+ * Registra en Hibernate las funciones de búsqueda de texto completo que usa
+ * {@link BusquedaTextoPredicates}, con la implementación de PostgreSQL o la
+ * alternativa para el resto de bases de datos según el dialecto.
+ * <p>
+ * La alternativa busca el texto como subcadena con LIKE, escapando los
+ * comodines del texto buscado igual que {@link SubcadenaPredicates}. Oracle no
+ * admite un predicado como valor, así que en Oracle la coincidencia se
+ * devuelve como 1 o 0.
+ * <p>
+ * Se configura con la propiedad
+ * <code>spring.jpa.properties.hibernate.metadata_builder_contributor</code>.
+ */
+public class BusquedaTextoFunctionsContributor implements MetadataBuilderContributor {
+
+  /** Configuración de búsqueda de texto de PostgreSQL usada en los tsvector */
+  private static final String CONFIGURACION_POSTGRESQL = "'spanish'";
+
+  /**
+   * Texto buscado en minúsculas y con los comodines de LIKE y el carácter de
+   * escape precedidos del carácter de escape
+   */
+  private static final String TEXTO_ESCAPADO = "REPLACE(REPLACE(REPLACE(LOWER(?2), '\\', '\\\\'), "
+      + "'%', '\\%'), '_', '\\_')";
+
+  /** Coincidencia del texto buscado como subcadena */
+  private static final String COINCIDE_SUBCADENA = "?1 LIKE '%' || " + TEXTO_ESCAPADO + " || '%' ESCAPE '\\'";
+
+  /** Relevancia según la posición del texto buscado como subcadena */
+  private static final String RELEVANCIA_SUBCADENA = "(1.0 / (1 + INSTR(?1, LOWER(?2))))";
+
+  @Override
+  public void contribute(MetadataBuilder metadataBuilder) {
+    metadataBuilder.applySqlFunction(BusquedaTextoPredicates.FUNCION_COINCIDE,
+        new BusquedaTextoFunction(StandardBasicTypes.BOOLEAN,
+            "(?1 @@ plainto_tsquery(" + CONFIGURACION_POSTGRESQL + ", ?2))",
+            "(CASE WHEN " + COINCIDE_SUBCADENA + " THEN 1 ELSE 0 END)", "(" + COINCIDE_SUBCADENA + ")"));
+    metadataBuilder.applySqlFunction(BusquedaTextoPredicates.FUNCION_RELEVANCIA,
+        new BusquedaTextoFunction(StandardBasicTypes.DOUBLE,
+            "ts_rank(?1, plainto_tsquery(" + CONFIGURACION_POSTGRESQL + ", ?2))", RELEVANCIA_SUBCADENA,
+            RELEVANCIA_SUBCADENA));
+  }
+
+  /**
+   * Función que se traduce con la plantilla de PostgreSQL, con la de Oracle o
+   * con la del resto de bases de datos según el dialecto de la sesión.
+   */
+  private static class BusquedaTextoFunction implements SQLFunction {
+    private final SQLFunctionTemplate postgresql;
+    private final SQLFunctionTemplate oracle;
+    private final SQLFunctionTemplate otras;
+
+    BusquedaTextoFunction(Type type, String postgresql, String oracle, String otras) {
+      this.postgresql = new SQLFunctionTemplate(type, postgresql);
+      this.oracle = new SQLFunctionTemplate(type, oracle);
+      this.otras = new SQLFunctionTemplate(type, otras);
+    }
+
+    @Override
+    public boolean hasArguments() {
+      return true;
+    }
+
+    @Override
+    public boolean hasParenthesesIfNoArguments() {
+      return true;
+    }
+
+    @Override
+    public Type getReturnType(Type firstArgumentType, Mapping mapping) throws QueryException {
+      return postgresql.getReturnType(firstArgumentType, mapping);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public String render(Type firstArgumentType, List arguments, SessionFactoryImplementor factory)
+        throws QueryException {
+      Dialect dialect = factory.getJdbcServices().getDialect();
+      SQLFunctionTemplate template = otras;
+      if (dialect instanceof PostgreSQL81Dialect) {
+        template = postgresql;
+      } else if (dialect instanceof Oracle8iDialect) {
+        template = oracle;
+      }
+      return template.render(firstArgumentType, arguments, factory);
+    }
+  }
+
+}
@@ -0,0 +1,77 @@
+package org.crue.hercules.sgi.csp.repository.predicate;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.crue.hercules.sgi.csp.model.BusquedaTexto;
+
+import cz.jirutka.rsql.parser.ast.ComparisonNode;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import io.github.perplexhub.rsql.RSQLOperators;
+
+/**
+ * Predicados de búsqueda de texto completo sobre la columna de
+ * {@link BusquedaTexto} de una entidad.
+ * <p>
+ * En PostgreSQL se busca el texto (plainto_tsquery) en el tsvector indexado con
+ * GIN y se ordena por ts_rank. En el resto de bases de datos (H2 en desarrollo
+ * y en los test) se busca el texto como subcadena y se ordena por la posición
+ * de la primera coincidencia. Las funciones las registra
+ * {@link BusquedaTextoFunctionsContributor}.
+ */
+public final class BusquedaTextoPredicates {
+
+  /** Selector RSQL de la búsqueda de texto completo */
+  public static final String SELECTOR = "texto";
+
+  /** Función que indica si la columna de búsqueda contiene el texto */
+  public static final String FUNCION_COINCIDE = "fts_match";
+
+  /** Función con la relevancia del texto en la columna de búsqueda */
+  public static final String FUNCION_RELEVANCIA = "fts_rank";
+
+  private BusquedaTextoPredicates() {
+    // Do nothing. Hide external instanciation
+  }
+
+  /**
+   * Predicado que se cumple si la columna de búsqueda contiene el texto del
+   * nodo. Si la consulta es de la entidad y no tiene orden, se ordena por
+   * relevancia; si se pide un orden explícito, este sustituye a la relevancia.
+   *
+   * @param node     nodo RSQL con el texto a buscar.
+   * @param root     raíz de la consulta.
+   * @param busqueda columna de búsqueda de la entidad.
+   * @param query    consulta.
+   * @param cb       {@link CriteriaBuilder}.
+   * @return el predicado.
+   */
+  public static Predicate buildByTexto(ComparisonNode node, Root<?> root, Path<String> busqueda,
+      CriteriaQuery<?> query, CriteriaBuilder cb) {
+    ComparisonOperator operator = node.getOperator();
+    if (!operator.equals(RSQLOperators.EQUAL)) {
+      // Unsupported Operator
+      throw new IllegalArgumentException("Unsupported operator: " + operator + " for " + node.getSelector());
+    }
+    if (node.getArguments().size() != 1) {
+      // Bad number of arguments
+      throw new IllegalArgumentException("Bad number of arguments for " + node.getSelector());
+    }
+
+    String texto = node.getArguments().get(0).trim();
+    if (texto.isEmpty()) {
+      throw new IllegalArgumentException("Empty argument for " + node.getSelector());
+    }
+
+    if (query.getOrderList().isEmpty() && query.getResultType().equals(root.getJavaType())) {
+      Expression<Double> relevancia = cb.function(FUNCION_RELEVANCIA, Double.class, busqueda, cb.literal(texto));
+      query.orderBy(cb.desc(relevancia), cb.asc(root.get("id")));
+    }
+    return cb.isTrue(cb.function(FUNCION_COINCIDE, Boolean.class, busqueda, cb.literal(texto)));
+  }
+
+}
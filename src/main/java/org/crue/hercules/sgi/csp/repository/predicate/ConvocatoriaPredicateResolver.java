@@ -7,6 +7,7 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
+import org.crue.hercules.sgi.csp.model.BusquedaTexto_;
 import org.crue.hercules.sgi.csp.model.ConfiguracionSolicitud_;
 import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaFase_;
@@ -19,7 +20,11 @@ import io.github.perplexhub.rsql.RSQLOperators;
 
 public class ConvocatoriaPredicateResolver implements SgiRSQLPredicateResolver<Convocatoria> {
   private enum Property {
-    PLAZO_PRESENTACION_SOLICITUD("abiertoPlazoPresentacionSolicitud");
+    PLAZO_PRESENTACION_SOLICITUD("abiertoPlazoPresentacionSolicitud"),
+    /* Búsqueda de subcadena con el índice trigram de PostgreSQL */
+    CODIGO("codigo"),
+    /* Búsqueda de texto completo en el título y el objeto */
+    TEXTO(BusquedaTextoPredicates.SELECTOR);
 
     private String code;
 
@@ -77,6 +82,9 @@ public class ConvocatoriaPredicateResolver implements SgiRSQLPredicateResolver<C
   @Override
   public boolean isManaged(ComparisonNode node) {
     Property property = Property.fromCode(node.getSelector());
+    if (property == Property.CODIGO) {
+      return SubcadenaPredicates.isSubcadena(node);
+    }
     return property != null;
   }
 
@@ -86,6 +94,11 @@ public class ConvocatoriaPredicateResolver implements SgiRSQLPredicateResolver<C
     switch (Property.fromCode(node.getSelector())) {
     case PLAZO_PRESENTACION_SOLICITUD:
       return buildInPlazoPresentacionSolicitudes(node, root, query, criteriaBuilder);
+    case CODIGO:
+      return SubcadenaPredicates.buildByContiene(node, root.get(Convocatoria_.codigo), criteriaBuilder);
+    case TEXTO:
+      return BusquedaTextoPredicates.buildByTexto(node, root,
+          root.join(Convocatoria_.busqueda).get(BusquedaTexto_.busqueda), query, criteriaBuilder);
     default:
       return null;
     }
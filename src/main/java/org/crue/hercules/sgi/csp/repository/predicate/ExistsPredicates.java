@@ -0,0 +1,70 @@
+package org.crue.hercules.sgi.csp.repository.predicate;
+
+import javax.persistence.criteria.CommonAbstractCriteria;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import javax.persistence.metamodel.SingularAttribute;
+
+/**
+ * Construye predicados EXISTS correlacionados con la entidad raíz de la
+ * consulta.
+ * <p>
+ * Filtrar por una relación uno a muchos con un JOIN multiplica las filas de la
+ * consulta principal (y obliga a usar DISTINCT o devuelve duplicados), tanto en
+ * la consulta de datos como en la de count. Con EXISTS cada fila de la entidad
+ * raíz se evalúa una sola vez y la base de datos puede dejar de buscar en
+ * cuanto encuentra la primera fila relacionada.
+ */
+public final class ExistsPredicates {
+
+  /**
+   * Condición que tiene que cumplir alguna de las filas relacionadas.
+   *
+   * @param <S> entidad de la subconsulta.
+   */
+  @FunctionalInterface
+  public interface Condicion<S> {
+    /**
+     * Construye la condición sobre las filas de la subconsulta.
+     *
+     * @param root     raíz de la subconsulta.
+     * @param subquery subconsulta, para anidar otras subconsultas.
+     * @param cb       {@link CriteriaBuilder}.
+     * @return el predicado.
+     */
+    Predicate toPredicate(Root<S> root, CommonAbstractCriteria subquery, CriteriaBuilder cb);
+  }
+
+  private ExistsPredicates() {
+    // Do nothing. Hide external instanciation
+  }
+
+  /**
+   * Predicado que se cumple si existe alguna entidad relacionada con la raíz que
+   * cumple la condición indicada.
+   *
+   * @param <T>          entidad raíz de la consulta.
+   * @param <S>          entidad relacionada.
+   * @param root         raíz de la consulta.
+   * @param query        consulta en la que se crea la subconsulta.
+   * @param cb           {@link CriteriaBuilder}.
+   * @param clave        atributo de la raíz por el que se relacionan.
+   * @param entidad      clase de la entidad relacionada.
+   * @param claveEntidad atributo de la entidad relacionada que tiene que ser
+   *                     igual a la clave de la raíz.
+   * @param condicion    condición que tiene que cumplir la entidad relacionada.
+   * @return el predicado EXISTS.
+   */
+  public static <T, S> Predicate exists(Root<T> root, CommonAbstractCriteria query, CriteriaBuilder cb,
+      SingularAttribute<? super T, ?> clave, Class<S> entidad, SingularAttribute<? super S, ?> claveEntidad,
+      Condicion<S> condicion) {
+    Subquery<S> subquery = query.subquery(entidad);
+    Root<S> subqueryRoot = subquery.from(entidad);
+    subquery.select(subqueryRoot).where(cb.equal(subqueryRoot.get(claveEntidad), root.get(clave)),
+        condicion.toPredicate(subqueryRoot, subquery, cb));
+    return cb.exists(subquery);
+  }
+
+}
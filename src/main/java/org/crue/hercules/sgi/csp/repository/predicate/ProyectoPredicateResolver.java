@@ -1,17 +1,16 @@
 package org.crue.hercules.sgi.csp.repository.predicate;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-
+import javax.persistence.criteria.CommonAbstractCriteria;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.JoinType;
-import javax.persistence.criteria.ListJoin;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 
-import org.crue.hercules.sgi.csp.model.Programa;
+import org.crue.hercules.sgi.csp.model.BusquedaTexto_;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia_;
+import org.crue.hercules.sgi.csp.model.Programa_;
 import org.crue.hercules.sgi.csp.model.Proyecto;
 import org.crue.hercules.sgi.csp.model.ProyectoEntidadConvocante;
 import org.crue.hercules.sgi.csp.model.ProyectoEntidadConvocante_;
@@ -19,9 +18,7 @@ import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
 import org.crue.hercules.sgi.csp.model.ProyectoEquipo_;
 import org.crue.hercules.sgi.csp.model.Proyecto_;
 import org.crue.hercules.sgi.csp.model.RolProyecto_;
-import org.crue.hercules.sgi.csp.repository.ProgramaRepository;
 import org.crue.hercules.sgi.framework.rsql.SgiRSQLPredicateResolver;
-import org.springframework.util.CollectionUtils;
 
 import cz.jirutka.rsql.parser.ast.ComparisonNode;
 import cz.jirutka.rsql.parser.ast.ComparisonOperator;
@@ -32,7 +29,13 @@ public class ProyectoPredicateResolver implements SgiRSQLPredicateResolver<Proye
     /* */
     PLAN_INVESTIGACION("planInvestigacion"),
     /* */
-    RESPONSABLE_PROYECTO("responsableProyecto");
+    RESPONSABLE_PROYECTO("responsableProyecto"),
+    /* Búsqueda de subcadena con el índice trigram de PostgreSQL */
+    ACRONIMO("acronimo"),
+    /* Búsqueda de subcadena con el índice trigram de PostgreSQL */
+    CODIGO_EXTERNO("codigoExterno"),
+    /* Búsqueda de texto completo en el título */
+    TEXTO(BusquedaTextoPredicates.SELECTOR);
 
     private String code;
 
@@ -50,14 +53,17 @@ public class ProyectoPredicateResolver implements SgiRSQLPredicateResolver<Proye
     }
   }
 
-  private final ProgramaRepository programaRepository;
+  private static ProyectoPredicateResolver instance;
 
-  private ProyectoPredicateResolver(ProgramaRepository programaRepository) {
-    this.programaRepository = programaRepository;
+  private ProyectoPredicateResolver() {
+    // Do nothing. Hide external instanciation
   }
 
-  public static ProyectoPredicateResolver getInstance(ProgramaRepository programaRepository) {
-    return new ProyectoPredicateResolver(programaRepository);
+  public static ProyectoPredicateResolver getInstance() {
+    if (instance == null) {
+      instance = new ProyectoPredicateResolver();
+    }
+    return instance;
   }
 
   private Predicate buildByPlanInvestigacion(ComparisonNode node, Root<Proyecto> root, CriteriaQuery<?> query,
@@ -72,25 +78,28 @@ public class ProyectoPredicateResolver implements SgiRSQLPredicateResolver<Proye
       throw new IllegalArgumentException("Bad number of arguments for " + node.getSelector());
     }
 
-    List<Programa> programasQuery = new ArrayList<Programa>();
-    List<Programa> programasHijos = new ArrayList<Programa>();
     Long idProgramaRaiz = Long.parseLong(node.getArguments().get(0));
-    Optional<Programa> programaRaizOpt = this.programaRepository.findById(idProgramaRaiz);
-    if (programaRaizOpt.isPresent()) {
-      programasQuery.add(programaRaizOpt.get());
-      programasHijos.add(programaRaizOpt.get());
-    }
-    programasHijos = programaRepository.findByPadreIn(programasHijos);
-    while (!CollectionUtils.isEmpty(programasHijos)) {
-      programasQuery.addAll(programasHijos);
-      programasHijos = programaRepository.findByPadreIn(programasHijos);
-    }
 
-    ListJoin<Proyecto, ProyectoEntidadConvocante> joinEntidadesConvocantes = root.join(Proyecto_.entidadesConvocantes,
-        JoinType.LEFT);
+    return ExistsPredicates.exists(root, query, cb, Proyecto_.id, ProyectoEntidadConvocante.class,
+        ProyectoEntidadConvocante_.proyectoId,
+        (entidadConvocante, subquery, subqueryCb) -> subqueryCb.or(
+            entidadConvocante.get(ProyectoEntidadConvocante_.programa).get(Programa_.id)
+                .in(subqueryProgramaSubarbol(idProgramaRaiz, subquery, subqueryCb)),
+            entidadConvocante.get(ProyectoEntidadConvocante_.programaConvocatoria).get(Programa_.id)
+                .in(subqueryProgramaSubarbol(idProgramaRaiz, subquery, subqueryCb))));
+  }
 
-    return cb.or(joinEntidadesConvocantes.get(ProyectoEntidadConvocante_.programa).in(programasQuery),
-        joinEntidadesConvocantes.get(ProyectoEntidadConvocante_.programaConvocatoria).in(programasQuery));
+  /**
+   * Subconsulta con los ids del subárbol del programa indicado (el propio
+   * programa y todos sus descendientes) obtenidos de la tabla de jerarquía.
+   */
+  private Subquery<Long> subqueryProgramaSubarbol(Long idProgramaRaiz, CommonAbstractCriteria query,
+      CriteriaBuilder cb) {
+    Subquery<Long> queryProgramas = query.subquery(Long.class);
+    Root<ProgramaJerarquia> subqRoot = queryProgramas.from(ProgramaJerarquia.class);
+    queryProgramas.select(subqRoot.get(ProgramaJerarquia_.descendienteId))
+        .where(cb.equal(subqRoot.get(ProgramaJerarquia_.ancestroId), idProgramaRaiz));
+    return queryProgramas;
   }
 
   private Predicate buildByResponsableEquipo(ComparisonNode node, Root<Proyecto> root, CriteriaQuery<?> query,
@@ -106,15 +115,19 @@ public class ProyectoPredicateResolver implements SgiRSQLPredicateResolver<Proye
     }
 
     String personaRef = node.getArguments().get(0);
-    ListJoin<Proyecto, ProyectoEquipo> joinEquipos = root.join(Proyecto_.equipo, JoinType.LEFT);
 
-    return cb.and(cb.equal(joinEquipos.get(ProyectoEquipo_.personaRef), personaRef),
-        cb.equal(joinEquipos.get(ProyectoEquipo_.rolProyecto).get(RolProyecto_.rolPrincipal), true));
+    return ExistsPredicates.exists(root, query, cb, Proyecto_.id, ProyectoEquipo.class, ProyectoEquipo_.proyectoId,
+        (equipo, subquery, subqueryCb) -> subqueryCb.and(
+            subqueryCb.equal(equipo.get(ProyectoEquipo_.personaRef), personaRef),
+            subqueryCb.equal(equipo.get(ProyectoEquipo_.rolProyecto).get(RolProyecto_.rolPrincipal), true)));
   }
 
   @Override
   public boolean isManaged(ComparisonNode node) {
     Property property = Property.fromCode(node.getSelector());
+    if (property == Property.ACRONIMO || property == Property.CODIGO_EXTERNO) {
+      return SubcadenaPredicates.isSubcadena(node);
+    }
     return property != null;
   }
 
@@ -126,6 +139,13 @@ public class ProyectoPredicateResolver implements SgiRSQLPredicateResolver<Proye
       return buildByPlanInvestigacion(node, root, query, criteriaBuilder);
     case RESPONSABLE_PROYECTO:
       return buildByResponsableEquipo(node, root, query, criteriaBuilder);
+    case ACRONIMO:
+      return SubcadenaPredicates.buildByContiene(node, root.get(Proyecto_.acronimo), criteriaBuilder);
+    case CODIGO_EXTERNO:
+      return SubcadenaPredicates.buildByContiene(node, root.get(Proyecto_.codigoExterno), criteriaBuilder);
+    case TEXTO:
+      return BusquedaTextoPredicates.buildByTexto(node, root,
+          root.join(Proyecto_.busqueda).get(BusquedaTexto_.busqueda), query, criteriaBuilder);
     default:
       return null;
     }
@@ -2,11 +2,10 @@ package org.crue.hercules.sgi.csp.repository.predicate;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Join;
-import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
+import org.crue.hercules.sgi.csp.model.BusquedaTexto_;
 import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.Convocatoria_;
 import org.crue.hercules.sgi.csp.model.Solicitud;
@@ -19,7 +18,11 @@ import io.github.perplexhub.rsql.RSQLOperators;
 
 public class SolicitudPredicateResolver implements SgiRSQLPredicateResolver<Solicitud> {
   private enum Property {
-    REFERENCIA_CONVOCATORIA("referenciaConvocatoria");
+    REFERENCIA_CONVOCATORIA("referenciaConvocatoria"),
+    /* Búsqueda de subcadena con el índice trigram de PostgreSQL */
+    CODIGO_EXTERNO("codigoExterno"),
+    /* Búsqueda de texto completo en el título del proyecto de la solicitud */
+    TEXTO(BusquedaTextoPredicates.SELECTOR);
 
     private String code;
 
@@ -62,20 +65,22 @@ public class SolicitudPredicateResolver implements SgiRSQLPredicateResolver<Soli
       throw new IllegalArgumentException("Bad number of arguments for " + node.getSelector());
     }
 
-    String referenciaConvocatoria = "%" + node.getArguments().get(0) + "%";
-
-    Join<Solicitud, Convocatoria> joinConvocatoria = root.join(Solicitud_.convocatoria, JoinType.LEFT);
+    String referenciaConvocatoria = node.getArguments().get(0);
 
     return cb.or(
-        cb.and(cb.isNotNull(joinConvocatoria),
-            cb.like(joinConvocatoria.get(Convocatoria_.codigo), referenciaConvocatoria)),
-        cb.and(cb.and(cb.isNull(joinConvocatoria),
-            cb.like(root.get(Solicitud_.convocatoriaExterna), referenciaConvocatoria))));
+        ExistsPredicates.exists(root, query, cb, Solicitud_.convocatoriaId, Convocatoria.class, Convocatoria_.id,
+            (convocatoria, subquery, subqueryCb) -> SubcadenaPredicates
+                .contiene(convocatoria.get(Convocatoria_.codigo), referenciaConvocatoria, subqueryCb)),
+        cb.and(cb.isNull(root.get(Solicitud_.convocatoriaId)),
+            SubcadenaPredicates.contiene(root.get(Solicitud_.convocatoriaExterna), referenciaConvocatoria, cb)));
   }
 
   @Override
   public boolean isManaged(ComparisonNode node) {
     Property property = Property.fromCode(node.getSelector());
+    if (property == Property.CODIGO_EXTERNO) {
+      return SubcadenaPredicates.isSubcadena(node);
+    }
     return property != null;
   }
 
@@ -85,6 +90,11 @@ public class SolicitudPredicateResolver implements SgiRSQLPredicateResolver<Soli
     switch (Property.fromCode(node.getSelector())) {
       case REFERENCIA_CONVOCATORIA:
         return buildByReferenciaConvocatoria(node, root, query, criteriaBuilder);
+      case CODIGO_EXTERNO:
+        return SubcadenaPredicates.buildByContiene(node, root.get(Solicitud_.codigoExterno), criteriaBuilder);
+      case TEXTO:
+        return BusquedaTextoPredicates.buildByTexto(node, root,
+            root.join(Solicitud_.busqueda).get(BusquedaTexto_.busqueda), query, criteriaBuilder);
       default:
         return null;
     }
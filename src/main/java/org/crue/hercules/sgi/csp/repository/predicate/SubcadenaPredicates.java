@@ -0,0 +1,95 @@
+package org.crue.hercules.sgi.csp.repository.predicate;
+
+import java.util.Locale;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+
+import cz.jirutka.rsql.parser.ast.ComparisonNode;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import io.github.perplexhub.rsql.RSQLOperators;
+
+/**
+ * Predicados de búsqueda de subcadenas sin distinguir mayúsculas (operador RSQL
+ * <code>=ilike=</code>) en columnas de códigos y referencias.
+ * <p>
+ * El predicado se genera siempre como <code>lower(columna) LIKE '%texto%'</code>,
+ * que en PostgreSQL coincide con la expresión de los índices GIN
+ * <code>gin_trgm_ops</code> (pg_trgm) sobre <code>lower(columna)</code>, de modo
+ * que la búsqueda no recorre toda la tabla. En el resto de bases de datos (H2
+ * en desarrollo y en los test) es un LIKE normal.
+ */
+public final class SubcadenaPredicates {
+
+  /** Carácter de escape de los comodines del texto buscado */
+  private static final char ESCAPE = '\\';
+
+  private SubcadenaPredicates() {
+    // Do nothing. Hide external instanciation
+  }
+
+  /**
+   * Indica si el nodo es una búsqueda de subcadena. El resto de operadores sobre
+   * la misma propiedad los resuelve el conversor RSQL por defecto.
+   *
+   * @param node nodo RSQL.
+   * @return <code>true</code> si el operador es <code>=ilike=</code>.
+   */
+  public static boolean isSubcadena(ComparisonNode node) {
+    return node.getOperator().equals(RSQLOperators.IGNORE_CASE_LIKE);
+  }
+
+  /**
+   * Predicado que se cumple si la columna contiene el texto del nodo sin
+   * distinguir mayúsculas.
+   *
+   * @param node    nodo RSQL con el texto a buscar.
+   * @param columna columna en la que se busca.
+   * @param cb      {@link CriteriaBuilder}.
+   * @return el predicado.
+   */
+  public static Predicate buildByContiene(ComparisonNode node, Expression<String> columna, CriteriaBuilder cb) {
+    ComparisonOperator operator = node.getOperator();
+    if (!operator.equals(RSQLOperators.IGNORE_CASE_LIKE)) {
+      // Unsupported Operator
+      throw new IllegalArgumentException("Unsupported operator: " + operator + " for " + node.getSelector());
+    }
+    if (node.getArguments().size() != 1) {
+      // Bad number of arguments
+      throw new IllegalArgumentException("Bad number of arguments for " + node.getSelector());
+    }
+
+    return contiene(columna, node.getArguments().get(0), cb);
+  }
+
+  /**
+   * Predicado que se cumple si la columna contiene el texto sin distinguir
+   * mayúsculas. Los caracteres <code>%</code> y <code>_</code> del texto se
+   * buscan literalmente y <code>*</code> es un comodín, como en el resto de
+   * filtros <code>=ilike=</code>.
+   *
+   * @param columna columna en la que se busca.
+   * @param texto   texto a buscar.
+   * @param cb      {@link CriteriaBuilder}.
+   * @return el predicado.
+   */
+  public static Predicate contiene(Expression<String> columna, String texto, CriteriaBuilder cb) {
+    return cb.like(cb.lower(columna), toPatron(texto), ESCAPE);
+  }
+
+  private static String toPatron(String texto) {
+    StringBuilder patron = new StringBuilder("%");
+    for (char c : texto.toLowerCase(Locale.ROOT).toCharArray()) {
+      if (c == '%' || c == '_' || c == ESCAPE) {
+        patron.append(ESCAPE).append(c);
+      } else if (c == '*') {
+        patron.append('%');
+      } else {
+        patron.append(c);
+      }
+    }
+    return patron.append('%').toString();
+  }
+
+}
@@ -1,6 +1,11 @@
 package org.crue.hercules.sgi.csp.repository.specification;
 
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
 import org.crue.hercules.sgi.csp.model.Programa;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia_;
 import org.crue.hercules.sgi.csp.model.Programa_;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -52,6 +57,40 @@ public class ProgramaSpecifications {
     return Specification.where(planes()).and(byNombre(nombre)).and(byIdNotEqual(programaIdExcluir)).and(activos());
   }
 
+  /**
+   * {@link Programa} descendientes (a cualquier nivel) del {@link Programa} con
+   * el id indicado, sin incluir el propio {@link Programa}.
+   * 
+   * @param programaId Identificador del {@link Programa}.
+   * @return specification para obtener los descendientes.
+   */
+  public static Specification<Programa> descendientes(Long programaId) {
+    return (root, query, cb) -> {
+      Subquery<Long> queryDescendientes = query.subquery(Long.class);
+      Root<ProgramaJerarquia> subqRoot = queryDescendientes.from(ProgramaJerarquia.class);
+      queryDescendientes.select(subqRoot.get(ProgramaJerarquia_.descendienteId))
+          .where(cb.and(cb.equal(subqRoot.get(ProgramaJerarquia_.ancestroId), programaId),
+              cb.greaterThan(subqRoot.get(ProgramaJerarquia_.profundidad), 0)));
+      return root.get(Programa_.id).in(queryDescendientes);
+    };
+  }
+
+  /**
+   * {@link Programa} activos descendientes del {@link Programa} indicado con el
+   * nombre indicado.
+   * 
+   * @param programaId        Identificador del {@link Programa} raiz.
+   * @param nombre            nombre del programa.
+   * @param programaIdExcluir Identificador del {@link Programa} que se excluye de
+   *                          la busqueda.
+   * @return specification para obtener los {@link Programa}.
+   */
+  public static Specification<Programa> descendientesByNombre(Long programaId, String nombre,
+      Long programaIdExcluir) {
+    return Specification.where(descendientes(programaId)).and(byNombre(nombre)).and(byIdNotEqual(programaIdExcluir))
+        .and(activos());
+  }
+
   /**
    * {@link Programa} activos con padre con el id indicado.
    * 
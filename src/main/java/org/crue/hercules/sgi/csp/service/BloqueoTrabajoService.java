@@ -0,0 +1,29 @@
+package org.crue.hercules.sgi.csp.service;
+
+import java.time.Duration;
+
+import org.crue.hercules.sgi.csp.model.BloqueoTrabajo;
+
+/**
+ * Service Interface para gestionar los {@link BloqueoTrabajo}.
+ */
+public interface BloqueoTrabajoService {
+
+  /**
+   * Adquiere el bloqueo del trabajo para esta instancia del servicio.
+   *
+   * @param nombre   nombre del trabajo.
+   * @param duracion tiempo máximo que se mantiene el bloqueo si no se libera.
+   * @return true si se ha adquirido el bloqueo, false si lo tiene otra
+   *         instancia.
+   */
+  boolean adquirir(String nombre, Duration duracion);
+
+  /**
+   * Libera el bloqueo del trabajo si lo tiene esta instancia del servicio.
+   *
+   * @param nombre nombre del trabajo.
+   */
+  void liberar(String nombre);
+
+}
@@ -1,15 +1,21 @@
 package org.crue.hercules.sgi.csp.service;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaCapacidades;
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaDossier;
 import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.TipoDocumento;
 import org.crue.hercules.sgi.csp.model.TipoEnlace;
 import org.crue.hercules.sgi.csp.model.TipoFase;
 import org.crue.hercules.sgi.csp.model.TipoHito;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * Service Interface para gestionar {@link Convocatoria}.
@@ -37,6 +43,29 @@ public interface ConvocatoriaService {
    */
   Convocatoria update(final Convocatoria convocatoria, List<String> acronimosUnidadGestion);
 
+  /**
+   * Actualiza los datos de la {@link Convocatoria} comprobando antes que su
+   * versión coincide con la indicada, de modo que no se sobrescriben los cambios
+   * que se hayan hecho desde que se obtuvo.
+   *
+   * @param convocatoria           {@link Convocatoria} con los datos
+   *                               actualizados.
+   * @param acronimosUnidadGestion lista de acronimos
+   * @param version                versión de la {@link Convocatoria} sobre la
+   *                               que se han hecho los cambios.
+   * @return convocatoria {@link Convocatoria} actualizado.
+   */
+  Convocatoria update(final Convocatoria convocatoria, List<String> acronimosUnidadGestion, Long version);
+
+  /**
+   * Obtiene la versión de la {@link Convocatoria}, que se incrementa con cada
+   * cambio de la {@link Convocatoria} o de sus datos relacionados.
+   *
+   * @param id Id de la {@link Convocatoria}.
+   * @return la versión, vacía si no existe.
+   */
+  Optional<Long> findVersion(Long id);
+
   /**
    * Registra una {@link Convocatoria} actualizando su estado de 'Borrador' a
    * 'Registrada'
@@ -94,6 +123,16 @@ public interface ConvocatoriaService {
    */
   Boolean registrable(Long id);
 
+  /**
+   * Obtiene para cada una de las {@link Convocatoria} indicadas si es
+   * modificable, si puede pasar a estado 'Registrada' y si tiene datos
+   * vinculados.
+   *
+   * @param ids Ids de las {@link Convocatoria}.
+   * @return las capacidades de las {@link Convocatoria}.
+   */
+  List<ConvocatoriaCapacidades> findCapacidades(List<Long> ids);
+
   /**
    * Comprueba la existencia del {@link Convocatoria} por id.
    *
@@ -126,6 +165,16 @@ public interface ConvocatoriaService {
    */
   Convocatoria findById(final Long id);
 
+  /**
+   * Obtiene la {@link Convocatoria} con su configuración, sus requisitos y sus
+   * colecciones hijas. El dossier se reutiliza mientras no cambia la versión de
+   * la {@link Convocatoria}.
+   *
+   * @param id Identificador de la entidad {@link Convocatoria}.
+   * @return el {@link ConvocatoriaDossier}.
+   */
+  ConvocatoriaDossier findDossier(Long id);
+
   /**
    * Obtiene todas las entidades {@link Convocatoria} activas paginadas y
    * filtradas.
@@ -137,6 +186,41 @@ public interface ConvocatoriaService {
    */
   Page<Convocatoria> findAll(String query, Pageable paging);
 
+  /**
+   * Obtiene la página de entidades {@link Convocatoria} activas filtradas que
+   * sigue al cursor indicado, sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging tamaño de página y ordenación de la primera página.
+   * @return la página de entidades {@link Convocatoria} con el cursor de la
+   *         siguiente.
+   */
+  KeysetSlice<Convocatoria> findAll(String query, String cursor, Pageable paging);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Convocatoria} activas
+   * filtradas, sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Convocatoria} sin el número total de
+   *         elementos.
+   */
+  Slice<Convocatoria> findAllSinTotal(String query, Pageable paging);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Convocatoria} activas
+   * filtradas, con el número total de elementos estimado: el total se reutiliza
+   * durante un tiempo para el mismo filtro en lugar de lanzar la consulta count
+   * en cada página.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Convocatoria} con el total estimado.
+   */
+  Page<Convocatoria> findAllTotalEstimado(String query, Pageable paging);
+
   /**
    * Obtiene todas las entidades {@link Convocatoria} que puede visualizar un
    * investigador paginadas y filtradas.
@@ -157,6 +241,41 @@ public interface ConvocatoriaService {
    */
   Page<Convocatoria> findAllTodos(String query, Pageable paging);
 
+  /**
+   * Obtiene la página de entidades {@link Convocatoria} filtradas que sigue al
+   * cursor indicado, sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging tamaño de página y ordenación de la primera página.
+   * @return la página de entidades {@link Convocatoria} con el cursor de la
+   *         siguiente.
+   */
+  KeysetSlice<Convocatoria> findAllTodos(String query, String cursor, Pageable paging);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Convocatoria} filtradas, sin
+   * consulta count.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Convocatoria} sin el número total de
+   *         elementos.
+   */
+  Slice<Convocatoria> findAllTodosSinTotal(String query, Pageable paging);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Convocatoria} filtradas, con
+   * el número total de elementos estimado: el total se reutiliza durante un
+   * tiempo para el mismo filtro en lugar de lanzar la consulta count en cada
+   * página.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Convocatoria} con el total estimado.
+   */
+  Page<Convocatoria> findAllTodosTotalEstimado(String query, Pageable paging);
+
   /**
    * Devuelve todas las convocatorias activas registradas que se encuentren dentro
    * de la unidad de gestión del usuario logueado.
@@ -181,4 +300,64 @@ public interface ConvocatoriaService {
    */
   Page<Convocatoria> findAllTodosRestringidos(String query, Pageable paging, List<String> acronimosUnidadGestion);
 
+  /**
+   * Obtiene la página de convocatorias de las unidades de gestión del usuario
+   * logueado que sigue al cursor indicado, sin consulta count.
+   *
+   * @param query                  información del filtro.
+   * @param cursor                 cursor de la página o vacío para la primera.
+   * @param paging                 tamaño de página y ordenación de la primera
+   *                               página.
+   * @param acronimosUnidadGestion lista de acronimos de unidad de gestion a los
+   *                               que se restringe la busqueda.
+   * @return la página de entidades {@link Convocatoria} con el cursor de la
+   *         siguiente.
+   */
+  KeysetSlice<Convocatoria> findAllTodosRestringidos(String query, String cursor, Pageable paging,
+      List<String> acronimosUnidadGestion);
+
+  /**
+   * Obtiene la página indicada de convocatorias de las unidades de gestión del
+   * usuario logueado, sin consulta count.
+   *
+   * @param query                  información del filtro.
+   * @param paging                 información de paginación.
+   * @param acronimosUnidadGestion lista de acronimos de unidad de gestion a los
+   *                               que se restringe la busqueda.
+   * @return la página de entidades {@link Convocatoria} sin el número total de
+   *         elementos.
+   */
+  Slice<Convocatoria> findAllTodosRestringidosSinTotal(String query, Pageable paging,
+      List<String> acronimosUnidadGestion);
+
+  /**
+   * Obtiene la página indicada de convocatorias de las unidades de gestión del
+   * usuario logueado, con el número total de elementos estimado: el total se
+   * reutiliza durante un tiempo para el mismo filtro en lugar de lanzar la
+   * consulta count en cada página.
+   *
+   * @param query                  información del filtro.
+   * @param paging                 información de paginación.
+   * @param acronimosUnidadGestion lista de acronimos de unidad de gestion a los
+   *                               que se restringe la busqueda.
+   * @return la página de entidades {@link Convocatoria} con el total estimado.
+   */
+  Page<Convocatoria> findAllTodosRestringidosTotalEstimado(String query, Pageable paging,
+      List<String> acronimosUnidadGestion);
+
+  /**
+   * Aplica la acción a cada {@link Convocatoria} filtrada de las unidades de
+   * gestión indicadas, en orden de id, sin cargar el listado completo en
+   * memoria. Mismo filtro que
+   * {@link #findAllTodosRestringidos(String, Pageable, List)}.
+   *
+   * @param query                  información del filtro.
+   * @param acronimosUnidadGestion lista de acronimos de unidad de gestion a los
+   *                               que se restringe la busqueda.
+   * @param action                 acción a aplicar a cada {@link Convocatoria}.
+   * @return el número de {@link Convocatoria} exportadas.
+   */
+  long exportTodosRestringidos(String query, List<String> acronimosUnidadGestion,
+      Consumer<? super Convocatoria> action);
+
 }
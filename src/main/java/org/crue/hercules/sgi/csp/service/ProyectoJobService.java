@@ -0,0 +1,46 @@
+package org.crue.hercules.sgi.csp.service;
+
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoJob;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+
+/**
+ * Service Interface para gestionar los {@link ProyectoJob} de creación
+ * asíncrona de {@link Proyecto} a partir de una {@link Solicitud}.
+ */
+public interface ProyectoJobService {
+
+  /**
+   * Registra un {@link ProyectoJob} para crear el {@link Proyecto} a partir de
+   * la {@link Solicitud} y lo encola para su ejecución una vez confirmada la
+   * transacción.
+   *
+   * @param solicitudId identificador de la {@link Solicitud}.
+   * @param proyecto    datos del {@link Proyecto} a crear.
+   * @return el {@link ProyectoJob} en estado
+   *         {@link ProyectoJob.Estado#PENDIENTE}.
+   */
+  ProyectoJob create(Long solicitudId, Proyecto proyecto);
+
+  /**
+   * Obtiene el {@link ProyectoJob} por su id.
+   *
+   * @param id el id del {@link ProyectoJob}.
+   * @return el {@link ProyectoJob}.
+   */
+  ProyectoJob findById(Long id);
+
+  /**
+   * Vuelve a encolar los {@link ProyectoJob} que no habían terminado cuando se
+   * detuvo el servicio y que ninguna otra instancia está ejecutando.
+   */
+  void reanudarPendientes();
+
+  /**
+   * Renueva la reserva de los {@link ProyectoJob} que esta instancia tiene
+   * encolados o en ejecución, para que ninguna otra instancia los vuelva a
+   * ejecutar.
+   */
+  void renovarReservas();
+
+}
@@ -1,10 +1,19 @@
 package org.crue.hercules.sgi.csp.service;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.crue.hercules.sgi.csp.dto.ProyectoCapacidades;
+import org.crue.hercules.sgi.csp.dto.ProyectoDossier;
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.Proyecto;
 import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * Servicio interfaz para la gestión de {@link Proyecto}.
@@ -27,6 +36,28 @@ public interface ProyectoService {
    */
   Proyecto update(final Proyecto proyecto);
 
+  /**
+   * Actualiza los datos del {@link Proyecto} comprobando antes que su versión
+   * coincide con la indicada, de modo que no se sobrescriben los cambios que se
+   * hayan hecho desde que se obtuvo.
+   *
+   * @param proyecto {@link Proyecto} con los datos actualizados.
+   * @param version  versión del {@link Proyecto} sobre la que se han hecho los
+   *                 cambios.
+   * @return proyecto {@link Proyecto} actualizado.
+   */
+  Proyecto update(final Proyecto proyecto, Long version);
+
+  /**
+   * Obtiene la versión del {@link Proyecto}, que se incrementa con cada cambio
+   * del {@link Proyecto} o de sus datos relacionados, si el usuario puede
+   * consultar el {@link Proyecto}.
+   *
+   * @param id Id del {@link Proyecto}.
+   * @return la versión, vacía si no existe o el usuario no lo puede consultar.
+   */
+  Optional<Long> findVersion(Long id);
+
   /**
    * Reactiva el {@link Proyecto}.
    *
@@ -51,6 +82,14 @@ public interface ProyectoService {
    */
   boolean existsById(Long id);
 
+  /**
+   * Obtiene para cada uno de los {@link Proyecto} indicados si es modificable.
+   *
+   * @param ids Ids de los {@link Proyecto}.
+   * @return las capacidades de los {@link Proyecto}.
+   */
+  List<ProyectoCapacidades> findCapacidades(List<Long> ids);
+
   /**
    * Obtiene el {@link ModeloEjecucion} asignado al {@link Proyecto}.
    * 
@@ -67,6 +106,16 @@ public interface ProyectoService {
    */
   Proyecto findById(final Long id);
 
+  /**
+   * Obtiene el {@link Proyecto} con las colecciones hijas de las secciones
+   * indicadas, con una consulta por sección y sin consultas count.
+   *
+   * @param id        Identificador de la entidad {@link Proyecto}.
+   * @param secciones secciones del dossier a cargar.
+   * @return el {@link ProyectoDossier}.
+   */
+  ProyectoDossier findDossier(Long id, Set<ProyectoDossier.Seccion> secciones);
+
   /**
    * Obtiene todas las entidades {@link Proyecto} activas paginadas y filtradas.
    *
@@ -77,6 +126,41 @@ public interface ProyectoService {
    */
   Page<Proyecto> findAllRestringidos(String query, Pageable paging);
 
+  /**
+   * Obtiene la página de entidades {@link Proyecto} activas filtradas que sigue
+   * al cursor indicado, sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging tamaño de página y ordenación de la primera página.
+   * @return la página de entidades {@link Proyecto} con el cursor de la
+   *         siguiente.
+   */
+  KeysetSlice<Proyecto> findAllRestringidos(String query, String cursor, Pageable paging);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Proyecto} activas filtradas,
+   * sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Proyecto} sin el número total de
+   *         elementos.
+   */
+  Slice<Proyecto> findAllRestringidosSinTotal(String query, Pageable paging);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Proyecto} activas filtradas,
+   * con el número total de elementos estimado: el total se reutiliza durante un
+   * tiempo para el mismo filtro en lugar de lanzar la consulta count en cada
+   * página.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Proyecto} con el total estimado.
+   */
+  Page<Proyecto> findAllRestringidosTotalEstimado(String query, Pageable paging);
+
   /**
    * Obtiene todas las entidades {@link Proyecto} paginadas y filtradas.
    *
@@ -86,6 +170,51 @@ public interface ProyectoService {
    */
   Page<Proyecto> findAllTodosRestringidos(String query, Pageable paging);
 
+  /**
+   * Obtiene la página de entidades {@link Proyecto} filtradas que sigue al
+   * cursor indicado, sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging tamaño de página y ordenación de la primera página.
+   * @return la página de entidades {@link Proyecto} con el cursor de la
+   *         siguiente.
+   */
+  KeysetSlice<Proyecto> findAllTodosRestringidos(String query, String cursor, Pageable paging);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Proyecto} filtradas, sin
+   * consulta count.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Proyecto} sin el número total de
+   *         elementos.
+   */
+  Slice<Proyecto> findAllTodosRestringidosSinTotal(String query, Pageable paging);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Proyecto} filtradas, con el
+   * número total de elementos estimado: el total se reutiliza durante un tiempo
+   * para el mismo filtro en lugar de lanzar la consulta count en cada página.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Proyecto} con el total estimado.
+   */
+  Page<Proyecto> findAllTodosRestringidosTotalEstimado(String query, Pageable paging);
+
+  /**
+   * Aplica la acción a cada {@link Proyecto} filtrado de las unidades de gestión
+   * del usuario, en orden de id, sin cargar el listado completo en memoria. Mismo
+   * filtro que {@link #findAllTodosRestringidos(String, Pageable)}.
+   *
+   * @param query  información del filtro.
+   * @param action acción a aplicar a cada {@link Proyecto}.
+   * @return el número de {@link Proyecto} exportados.
+   */
+  long exportTodosRestringidos(String query, Consumer<? super Proyecto> action);
+
   /**
    * Guarda la entidad {@link Proyecto} a partir de los datos de la entidad
    * {@link Solicitud}.
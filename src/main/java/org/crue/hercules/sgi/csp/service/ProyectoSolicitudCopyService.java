@@ -0,0 +1,37 @@
+package org.crue.hercules.sgi.csp.service;
+
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadConvocante;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadFinanciadora;
+import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoSocio;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
+
+/**
+ * Service Interface para copiar los datos de una {@link Solicitud} a un
+ * {@link Proyecto} recién creado.
+ */
+public interface ProyectoSolicitudCopyService {
+
+  /**
+   * Copia al {@link Proyecto} las entidades convocantes y financiadoras, el
+   * equipo y los socios (con su equipo, periodos de pago y periodos de
+   * justificación) de la {@link Solicitud}.
+   * <p>
+   * Los datos de la {@link Solicitud} se cargan con un número fijo de consultas,
+   * se validan una única vez en memoria y cada tabla destino se escribe con un
+   * único guardado en batch.
+   *
+   * @param proyecto            el {@link Proyecto} recién creado a partir de la
+   *                            {@link Solicitud}.
+   * @param solicitudProyectoId Id del {@link SolicitudProyecto}.
+   * @throws IllegalArgumentException si los datos copiados no son válidos para
+   *                                  crear los {@link ProyectoEntidadConvocante},
+   *                                  {@link ProyectoEntidadFinanciadora},
+   *                                  {@link ProyectoEquipo} o
+   *                                  {@link ProyectoSocio}.
+   */
+  void copy(Proyecto proyecto, Long solicitudProyectoId);
+
+}
@@ -0,0 +1,30 @@
+package org.crue.hercules.sgi.csp.service;
+
+import java.util.List;
+
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoInput;
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoResultado;
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+
+/**
+ * Service Interface para el cambio de estado masivo de {@link Solicitud}.
+ */
+public interface SolicitudCambioEstadoService {
+
+  /**
+   * Cambia el estado de todas las {@link Solicitud} indicadas al mismo
+   * {@link EstadoSolicitud}.
+   * <p>
+   * Las solicitudes se procesan en lotes, cada uno en su propia transacción, por
+   * lo que una solicitud o un lote erróneo no deshace el cambio del resto.
+   *
+   * @param input ids de las {@link Solicitud}, nuevo estado y comentario.
+   * @return el resultado del cambio de estado de cada {@link Solicitud}, en el
+   *         mismo orden que los ids.
+   * @throws IllegalArgumentException si el estado no admite cambio masivo o
+   *                                  requiere comentario y no se indica.
+   */
+  List<SolicitudCambioEstadoResultado> cambiarEstado(SolicitudCambioEstadoInput input);
+
+}
@@ -2,8 +2,10 @@ package org.crue.hercules.sgi.csp.service;
 
 import java.util.List;
 
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado;
 import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotalConceptoGasto;
 import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotales;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.Solicitud;
 import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
 import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
@@ -116,4 +118,27 @@ public interface SolicitudProyectoPresupuestoService {
    */
   Boolean hasSolicitudPresupuesto(Long id);
 
-}
\ No newline at end of file
+  /**
+   * Obtiene el presupuesto de la {@link Solicitud} agregado por las dimensiones
+   * indicadas, con los subtotales de cada nivel (ROLLUP).
+   *
+   * @param solicitudId Id de la {@link Solicitud}.
+   * @param dimensiones dimensiones por las que se agrega, en orden.
+   * @return lista de {@link SolicitudProyectoPresupuestoAgregado}.
+   */
+  List<SolicitudProyectoPresupuestoAgregado> findAgregadoSolicitud(Long solicitudId,
+      List<SolicitudProyectoPresupuestoAgregado.Dimension> dimensiones);
+
+  /**
+   * Obtiene el presupuesto de todas las {@link Solicitud} de la
+   * {@link Convocatoria} agregado por las dimensiones indicadas, con los
+   * subtotales de cada nivel (ROLLUP).
+   *
+   * @param convocatoriaId Id de la {@link Convocatoria}.
+   * @param dimensiones    dimensiones por las que se agrega, en orden.
+   * @return lista de {@link SolicitudProyectoPresupuestoAgregado}.
+   */
+  List<SolicitudProyectoPresupuestoAgregado> findAgregadoConvocatoria(Long convocatoriaId,
+      List<SolicitudProyectoPresupuestoAgregado.Dimension> dimensiones);
+
+}
@@ -0,0 +1,21 @@
+package org.crue.hercules.sgi.csp.service;
+
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuestoTotal;
+
+/**
+ * Service Interface para gestionar los {@link SolicitudProyectoPresupuestoTotal}.
+ */
+public interface SolicitudProyectoPresupuestoTotalService {
+
+  /**
+   * Recalcula los {@link SolicitudProyectoPresupuestoTotal} de todas las
+   * {@link Solicitud} a partir de sus {@link SolicitudProyectoPresupuesto} y
+   * corrige los que no coinciden.
+   *
+   * @return número de {@link SolicitudProyectoPresupuestoTotal} corregidos.
+   */
+  int reconciliar();
+
+}
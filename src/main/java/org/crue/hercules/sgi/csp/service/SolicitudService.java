@@ -1,12 +1,18 @@
 package org.crue.hercules.sgi.csp.service;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import org.crue.hercules.sgi.csp.dto.SolicitudCapacidades;
+import org.crue.hercules.sgi.csp.dto.SolicitudTransiciones;
 import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
 import org.crue.hercules.sgi.csp.model.Proyecto;
 import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * Service Interface para gestionar {@link Solicitud}.
@@ -33,6 +39,30 @@ public interface SolicitudService {
    */
   Solicitud update(final Solicitud solicitud, List<String> unidadGestionRefs);
 
+  /**
+   * Actualiza los datos de la {@link Solicitud} comprobando antes que su
+   * versión coincide con la indicada, de modo que no se sobrescriben los cambios
+   * que se hayan hecho desde que se obtuvo.
+   *
+   * @param solicitud         {@link Solicitud} con los datos actualizados.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion
+   *                          permitidas para el usuario.
+   * @param version           versión de la {@link Solicitud} sobre la que se
+   *                          han hecho los cambios.
+   * @return solicitud {@link Solicitud} actualizado.
+   */
+  Solicitud update(final Solicitud solicitud, List<String> unidadGestionRefs, Long version);
+
+  /**
+   * Obtiene la versión de la {@link Solicitud}, que se incrementa con cada
+   * cambio de la {@link Solicitud} o de sus datos relacionados, si pertenece a
+   * una de las unidades de gestión del usuario.
+   *
+   * @param id Id de la {@link Solicitud}.
+   * @return la versión, vacía si no existe o el usuario no la puede consultar.
+   */
+  Optional<Long> findVersion(Long id);
+
   /**
    * Reactiva el {@link Solicitud}.
    *
@@ -74,6 +104,45 @@ public interface SolicitudService {
    */
   Page<Solicitud> findAllRestringidos(String query, Pageable paging, List<String> unidadGestionRefs);
 
+  /**
+   * Obtiene la página de entidades {@link Solicitud} activas filtradas que sigue
+   * al cursor indicado, sin consulta count.
+   *
+   * @param query             información del filtro.
+   * @param cursor            cursor de la página o vacío para la primera.
+   * @param paging            tamaño de página y ordenación de la primera página.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} con el cursor de la
+   *         siguiente.
+   */
+  KeysetSlice<Solicitud> findAllRestringidos(String query, String cursor, Pageable paging,
+      List<String> unidadGestionRefs);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Solicitud} activas filtradas,
+   * sin consulta count.
+   *
+   * @param query             información del filtro.
+   * @param paging            información de paginación.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} sin el número total de
+   *         elementos.
+   */
+  Slice<Solicitud> findAllRestringidosSinTotal(String query, Pageable paging, List<String> unidadGestionRefs);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Solicitud} activas filtradas,
+   * con el número total de elementos estimado: el total se reutiliza durante un
+   * tiempo para el mismo filtro en lugar de lanzar la consulta count en cada
+   * página.
+   *
+   * @param query             información del filtro.
+   * @param paging            información de paginación.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} con el total estimado.
+   */
+  Page<Solicitud> findAllRestringidosTotalEstimado(String query, Pageable paging, List<String> unidadGestionRefs);
+
   /**
    * Obtiene todas las entidades {@link Solicitud} paginadas y filtradas.
    *
@@ -84,6 +153,56 @@ public interface SolicitudService {
    */
   Page<Solicitud> findAllTodosRestringidos(String query, Pageable paging, List<String> unidadGestionRefs);
 
+  /**
+   * Obtiene la página de entidades {@link Solicitud} filtradas que sigue al
+   * cursor indicado, sin consulta count.
+   *
+   * @param query             información del filtro.
+   * @param cursor            cursor de la página o vacío para la primera.
+   * @param paging            tamaño de página y ordenación de la primera página.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} con el cursor de la
+   *         siguiente.
+   */
+  KeysetSlice<Solicitud> findAllTodosRestringidos(String query, String cursor, Pageable paging,
+      List<String> unidadGestionRefs);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Solicitud} filtradas, sin
+   * consulta count.
+   *
+   * @param query             información del filtro.
+   * @param paging            información de paginación.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} sin el número total de
+   *         elementos.
+   */
+  Slice<Solicitud> findAllTodosRestringidosSinTotal(String query, Pageable paging, List<String> unidadGestionRefs);
+
+  /**
+   * Obtiene la página indicada de entidades {@link Solicitud} filtradas, con el
+   * número total de elementos estimado: el total se reutiliza durante un tiempo
+   * para el mismo filtro en lugar de lanzar la consulta count en cada página.
+   *
+   * @param query             información del filtro.
+   * @param paging            información de paginación.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} con el total estimado.
+   */
+  Page<Solicitud> findAllTodosRestringidosTotalEstimado(String query, Pageable paging, List<String> unidadGestionRefs);
+
+  /**
+   * Aplica la acción a cada {@link Solicitud} filtrada de las unidades de
+   * gestión indicadas, en orden de id, sin cargar el listado completo en
+   * memoria. Mismo filtro que {@link #findAllTodosRestringidos(String, Pageable, List)}.
+   *
+   * @param query             información del filtro.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @param action            acción a aplicar a cada {@link Solicitud}.
+   * @return el número de {@link Solicitud} exportadas.
+   */
+  long exportTodosRestringidos(String query, List<String> unidadGestionRefs, Consumer<? super Solicitud> action);
+
   /**
    * Comprueba si la soliciutd está asociada a una convocatoria SGI.
    * 
@@ -229,4 +348,32 @@ public interface SolicitudService {
    */
   Solicitud desistir(Long id, String comentario);
 
+  /**
+   * Obtiene el estado actual de la {@link Solicitud}, si el usuario la puede
+   * modificar y los cambios de estado que puede realizar.
+   * 
+   * @param id Id de la {@link Solicitud}.
+   * @return las transiciones de la {@link Solicitud}.
+   */
+  SolicitudTransiciones getTransiciones(Long id);
+
+  /**
+   * Obtiene, de entre las {@link Solicitud} indicadas, las que puede modificar
+   * el usuario.
+   * 
+   * @param ids Ids de las {@link Solicitud} (máximo 100).
+   * @return los ids de las {@link Solicitud} modificables.
+   */
+  List<Long> findIdsModificables(List<Long> ids);
+
+  /**
+   * Obtiene para cada una de las {@link Solicitud} indicadas si es modificable,
+   * si cumple las condiciones para ser presentada y si se puede crear un
+   * {@link Proyecto} a partir de ella.
+   * 
+   * @param ids Ids de las {@link Solicitud}.
+   * @return las capacidades de las {@link Solicitud}.
+   */
+  List<SolicitudCapacidades> findCapacidades(List<Long> ids);
+
 }
@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.service.impl;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -76,13 +77,17 @@ public class AreaTematicaServiceImpl implements AreaTematicaService {
       Assert.isTrue(areaTematica.getDescripcion().length() <= 50,
           "Se ha superado la longitud máxima permitida para el nombre de AreaTematica (50)");
 
-      Assert.isTrue(!existAreaTematicaNombreDescripcion(areaTematica.getPadre().getId(), areaTematica.getNombre(), null,
-          BUSCAR_NOMBRE), "Ya existe un AreaTematica con la misma abreviatura en el grupo");
+      Long grupoId = getGrupoId(areaTematica.getPadre());
 
-      Assert.isTrue(!existAreaTematicaNombreDescripcion(areaTematica.getPadre().getId(), areaTematica.getDescripcion(),
-          null, BUSCAR_DESCRIPCION), "Ya existe un AreaTematica con el mismo nombre en el grupo");
+      Assert.isTrue(!existAreaTematicaNombreDescripcion(grupoId, areaTematica.getNombre(), null, BUSCAR_NOMBRE),
+          "Ya existe un AreaTematica con la misma abreviatura en el grupo");
+
+      Assert.isTrue(
+          !existAreaTematicaNombreDescripcion(grupoId, areaTematica.getDescripcion(), null, BUSCAR_DESCRIPCION),
+          "Ya existe un AreaTematica con el mismo nombre en el grupo");
     }
 
+    areaTematica.setRaizId(getGrupoId(areaTematica.getPadre()));
     areaTematica.setActivo(true);
 
     AreaTematica returnValue = repository.save(areaTematica);
@@ -134,17 +139,22 @@ public class AreaTematicaServiceImpl implements AreaTematicaService {
         Assert.isTrue(areaTematicaActualizar.getDescripcion().length() <= 50,
             "Se ha superado la longitud máxima permitida para el nombre de AreaTematica (50)");
 
-        Assert.isTrue(
-            !existAreaTematicaNombreDescripcion(areaTematicaActualizar.getPadre().getId(),
-                areaTematicaActualizar.getNombre(), areaTematicaActualizar.getId(), BUSCAR_NOMBRE),
+        Long grupoId = getGrupoId(areaTematicaActualizar.getPadre());
+
+        Assert.isTrue(!existAreaTematicaNombreDescripcion(grupoId, areaTematicaActualizar.getNombre(),
+            areaTematicaActualizar.getId(), BUSCAR_NOMBRE),
             "Ya existe un AreaTematica con la misma abreviatura en el grupo");
 
-        Assert.isTrue(
-            !existAreaTematicaNombreDescripcion(areaTematicaActualizar.getPadre().getId(),
-                areaTematicaActualizar.getDescripcion(), areaTematicaActualizar.getId(), BUSCAR_DESCRIPCION),
+        Assert.isTrue(!existAreaTematicaNombreDescripcion(grupoId, areaTematicaActualizar.getDescripcion(),
+            areaTematicaActualizar.getId(), BUSCAR_DESCRIPCION),
             "Ya existe un AreaTematica con el mismo nombre en el grupo");
       }
 
+      Long grupoIdNuevo = getGrupoId(areaTematicaActualizar.getPadre());
+      if (!Objects.equals(areaTematica.getRaizId(), grupoIdNuevo)) {
+        moveGrupo(areaTematica, grupoIdNuevo);
+      }
+
       areaTematica.setNombre(areaTematicaActualizar.getNombre());
       areaTematica.setDescripcion(areaTematicaActualizar.getDescripcion());
       areaTematica.setPadre(areaTematicaActualizar.getPadre());
@@ -323,63 +333,74 @@ public class AreaTematicaServiceImpl implements AreaTematicaService {
   }
 
   /**
-   * Comprueba si existe {@link AreaTematica} con el nombre indicado en el arbol
-   * del areaTematica indicado.
+   * Comprueba si existe algún {@link AreaTematica} activo con el nombre o la
+   * descripción indicados en el grupo indicado.
    *
-   * @param areaTematicaId        Identificador del {@link AreaTematica}.
-   * @param textoBuscar           nombre del areaTematica.
+   * @param grupoId               Identificador del grupo ({@link AreaTematica}
+   *                              raíz).
+   * @param textoBuscar           nombre o descripción del areaTematica.
    * @param areaTematicaIdExcluir Identificador del {@link AreaTematica} que se
    *                              excluye de la busqueda.
+   * @param tipoBusqueda          campo por el que se busca (BUSCAR_NOMBRE o
+   *                              BUSCAR_DESCRIPCION).
    * @return true si existe algun {@link AreaTematica} con ese nombre.
    */
-
-  private boolean existAreaTematicaNombreDescripcion(Long areaTematicaId, String textoBuscar,
-      Long areaTematicaIdExcluir, int tipoBusqueda) {
+  private boolean existAreaTematicaNombreDescripcion(Long grupoId, String textoBuscar, Long areaTematicaIdExcluir,
+      int tipoBusqueda) {
     log.debug(
-        "existAreaTematicaNombreDescripcion(Long areaTematicaId, String textoBuscar,Long areaTematicaIdExcluir, int tipoBusqueda) - start");
-
-    // Busca el areaTematica raiz
-    AreaTematica areaTematicaRaiz = repository.findById(areaTematicaId).map(areaTematica -> {
-      return areaTematica;
-    }).orElseThrow(() -> new AreaTematicaNotFoundException(areaTematicaId));
+        "existAreaTematicaNombreDescripcion(Long grupoId, String textoBuscar, Long areaTematicaIdExcluir, int tipoBusqueda) - start");
 
-    while (areaTematicaRaiz.getPadre() != null) {
-      areaTematicaRaiz = repository.findById(areaTematicaRaiz.getPadre().getId()).get();
-    }
-
-    // Busca el nombre desde el nodo raiz nivel a nivel
     boolean textoEncontrado = false;
-
-    List<AreaTematica> areaTematicasHijos = repository
-        .findByPadreIdInAndActivoIsTrue(Arrays.asList(areaTematicaRaiz.getId()));
-
     if (tipoBusqueda == BUSCAR_NOMBRE) {
-      textoEncontrado = areaTematicasHijos.stream()
-          .anyMatch(areaTematica -> areaTematica.getNombre().equals(textoBuscar)
-              && areaTematica.getId() != areaTematicaIdExcluir);
+      textoEncontrado = repository.existsActivoInGrupoWithNombre(grupoId, textoBuscar, areaTematicaIdExcluir);
     } else if (tipoBusqueda == BUSCAR_DESCRIPCION) {
-      textoEncontrado = areaTematicasHijos.stream()
-          .anyMatch(areaTematica -> areaTematica.getDescripcion().equals(textoBuscar)
-              && areaTematica.getId() != areaTematicaIdExcluir);
-    }
-
-    while (!textoEncontrado && !areaTematicasHijos.isEmpty()) {
-      areaTematicasHijos = repository.findByPadreIdInAndActivoIsTrue(
-          areaTematicasHijos.stream().map(AreaTematica::getId).collect(Collectors.toList()));
-      if (tipoBusqueda == BUSCAR_NOMBRE) {
-        textoEncontrado = areaTematicasHijos.stream()
-            .anyMatch(areaTematica -> areaTematica.getNombre().equals(textoBuscar)
-                && areaTematica.getId() != areaTematicaIdExcluir);
-      } else if (tipoBusqueda == BUSCAR_DESCRIPCION) {
-        textoEncontrado = areaTematicasHijos.stream()
-            .anyMatch(areaTematica -> areaTematica.getDescripcion().equals(textoBuscar)
-                && areaTematica.getId() != areaTematicaIdExcluir);
-      }
+      textoEncontrado = repository.existsActivoInGrupoWithDescripcion(grupoId, textoBuscar, areaTematicaIdExcluir);
     }
 
     log.debug(
-        "existAreaTematicaNombreDescripcion(Long areaTematicaId, String textoBuscar,Long areaTematicaIdExcluir, int tipoBusqueda) - end");
+        "existAreaTematicaNombreDescripcion(Long grupoId, String textoBuscar, Long areaTematicaIdExcluir, int tipoBusqueda) - end");
     return textoEncontrado;
   }
 
+  /**
+   * Obtiene el id del grupo al que pertenecen los hijos del {@link AreaTematica}
+   * indicado: el propio {@link AreaTematica} si es un grupo o su grupo en otro
+   * caso.
+   *
+   * @param padre el {@link AreaTematica} padre.
+   * @return el id del grupo o null si no hay padre.
+   */
+  private Long getGrupoId(AreaTematica padre) {
+    if (padre == null) {
+      return null;
+    }
+    return padre.getRaizId() != null ? padre.getRaizId() : padre.getId();
+  }
+
+  /**
+   * Cambia el grupo del {@link AreaTematica} y de todos sus descendientes. Solo
+   * es necesario cuando el {@link AreaTematica} cambia de padre a otro grupo, por
+   * lo que el recorrido nivel a nivel no afecta a las altas ni a las
+   * comprobaciones de unicidad.
+   *
+   * @param areaTematica el {@link AreaTematica} que se mueve.
+   * @param grupoIdNuevo id del nuevo grupo o null si pasa a ser un grupo.
+   */
+  private void moveGrupo(AreaTematica areaTematica, Long grupoIdNuevo) {
+    log.debug("moveGrupo(AreaTematica areaTematica, Long grupoIdNuevo) - start");
+
+    areaTematica.setRaizId(grupoIdNuevo);
+    Long grupoIdDescendientes = grupoIdNuevo != null ? grupoIdNuevo : areaTematica.getId();
+
+    List<AreaTematica> areaTematicasHijos = repository.findByPadreIdIn(Arrays.asList(areaTematica.getId()));
+    while (!areaTematicasHijos.isEmpty()) {
+      areaTematicasHijos.forEach(hijo -> hijo.setRaizId(grupoIdDescendientes));
+      repository.saveAll(areaTematicasHijos);
+      areaTematicasHijos = repository
+          .findByPadreIdIn(areaTematicasHijos.stream().map(AreaTematica::getId).collect(Collectors.toList()));
+    }
+
+    log.debug("moveGrupo(AreaTematica areaTematica, Long grupoIdNuevo) - end");
+  }
+
 }
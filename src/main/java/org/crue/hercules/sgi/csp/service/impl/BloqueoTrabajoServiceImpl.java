@@ -0,0 +1,71 @@
+package org.crue.hercules.sgi.csp.service.impl;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.apache.commons.lang3.StringUtils;
+import org.crue.hercules.sgi.csp.model.BloqueoTrabajo;
+import org.crue.hercules.sgi.csp.repository.BloqueoTrabajoRepository;
+import org.crue.hercules.sgi.csp.service.BloqueoTrabajoService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service Implementation para gestionar los {@link BloqueoTrabajo}.
+ * <p>
+ * El bloqueo se adquiere y se libera cada vez en su propia transacción, para
+ * que las demás instancias lo vean en cuanto cambia y no dependa de la duración
+ * del trabajo.
+ */
+@Service
+@Slf4j
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public class BloqueoTrabajoServiceImpl implements BloqueoTrabajoService {
+
+  /** Identificador de esta instancia del servicio */
+  private static final String INSTANCIA = StringUtils
+      .left(ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID(), 255);
+
+  private final BloqueoTrabajoRepository repository;
+
+  public BloqueoTrabajoServiceImpl(BloqueoTrabajoRepository repository) {
+    this.repository = repository;
+  }
+
+  /**
+   * Adquiere el bloqueo del trabajo para esta instancia del servicio.
+   *
+   * @param nombre   nombre del trabajo.
+   * @param duracion tiempo máximo que se mantiene el bloqueo si no se libera.
+   * @return true si se ha adquirido el bloqueo, false si lo tiene otra
+   *         instancia.
+   */
+  @Override
+  public boolean adquirir(String nombre, Duration duracion) {
+    log.debug("adquirir(String nombre, Duration duracion) - start");
+    Instant ahora = Instant.now();
+    boolean returnValue = repository.adquirir(nombre, INSTANCIA, ahora, ahora.plus(duracion)) > 0;
+    log.debug("adquirir(String nombre, Duration duracion) - end");
+    return returnValue;
+  }
+
+  /**
+   * Libera el bloqueo del trabajo si lo tiene esta instancia del servicio.
+   *
+   * @param nombre nombre del trabajo.
+   */
+  @Override
+  public void liberar(String nombre) {
+    log.debug("liberar(String nombre) - start");
+    if (repository.liberar(nombre, INSTANCIA, Instant.now()) == 0) {
+      log.warn("liberar(String nombre) - El bloqueo de {} ha caducado antes de terminar el trabajo", nombre);
+    }
+    log.debug("liberar(String nombre) - end");
+  }
+
+}
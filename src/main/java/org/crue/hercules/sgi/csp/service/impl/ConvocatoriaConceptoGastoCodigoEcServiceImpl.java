@@ -1,8 +1,10 @@
 package org.crue.hercules.sgi.csp.service.impl;
 
-import java.util.ArrayList;
+import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -16,6 +18,7 @@ import org.crue.hercules.sgi.csp.repository.ConvocatoriaConceptoGastoRepository;
 import org.crue.hercules.sgi.csp.repository.specification.ConvocatoriaConceptoGastoCodigoEcSpecifications;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaConceptoGastoCodigoEcService;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaService;
+import org.crue.hercules.sgi.csp.util.IntervalIndex;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -383,7 +386,7 @@ public class ConvocatoriaConceptoGastoCodigoEcServiceImpl implements Convocatori
     // Periodos eliminados
     List<ConvocatoriaConceptoGastoCodigoEc> convocatoriaConceptoGastoCodigoEcsEliminar = convocatoriaConceptoGastoCodigoEcsBD
         .stream().filter(periodo -> !convocatoriaConceptoGastoCodigoEcs.stream()
-            .map(ConvocatoriaConceptoGastoCodigoEc::getId).anyMatch(id -> id == periodo.getId()))
+            .map(ConvocatoriaConceptoGastoCodigoEc::getId).anyMatch(id -> Objects.equals(id, periodo.getId())))
         .collect(Collectors.toList());
 
     if (!convocatoriaConceptoGastoCodigoEcsEliminar.isEmpty()) {
@@ -395,19 +398,19 @@ public class ConvocatoriaConceptoGastoCodigoEcServiceImpl implements Convocatori
         Comparator.nullsLast(Comparator.naturalOrder())));
 
     // Validaciones
-    List<ConvocatoriaConceptoGastoCodigoEc> returnValue = new ArrayList<ConvocatoriaConceptoGastoCodigoEc>();
     for (ConvocatoriaConceptoGastoCodigoEc convocatoriaConceptoGastoCodigoEc : convocatoriaConceptoGastoCodigoEcs) {
 
       // actualizando
       if (convocatoriaConceptoGastoCodigoEc.getId() != null) {
         ConvocatoriaConceptoGastoCodigoEc convocatoriaConceptoGastoCodigoEcBD = convocatoriaConceptoGastoCodigoEcsBD
-            .stream().filter(periodo -> periodo.getId() == convocatoriaConceptoGastoCodigoEc.getId()).findFirst()
+            .stream().filter(periodo -> Objects.equals(periodo.getId(), convocatoriaConceptoGastoCodigoEc.getId()))
+            .findFirst()
             .orElseThrow(() -> new ConvocatoriaConceptoGastoCodigoEcNotFoundException(
                 convocatoriaConceptoGastoCodigoEc.getId()));
 
         Assert.isTrue(
-            convocatoriaConceptoGastoCodigoEcBD.getConvocatoriaConceptoGastoId() == convocatoriaConceptoGastoCodigoEc
-                .getConvocatoriaConceptoGastoId(),
+            Objects.equals(convocatoriaConceptoGastoCodigoEcBD.getConvocatoriaConceptoGastoId(),
+                convocatoriaConceptoGastoCodigoEc.getConvocatoriaConceptoGastoId()),
             "No se puede modificar el convocatoriaConceptoGasto del ConvocatoriaConceptoGastoCodigoEc");
       }
 
@@ -420,16 +423,22 @@ public class ConvocatoriaConceptoGastoCodigoEcServiceImpl implements Convocatori
 
       }
 
-      // Unicidad código económico y solapamiento de fechas
-      Assert.isTrue(
-          !existsConvocatoriaConceptoGastoCodigoEcConFechasSolapadas(convocatoriaConceptoGastoCodigoEc,
-              convocatoriaConceptoGasto.getPermitido()),
-          "El código económico '" + convocatoriaConceptoGastoCodigoEc.getCodigoEconomicoRef()
-              + "' ya está presente y tiene un periodo de vigencia que se solapa con el indicado");
+    }
 
-      returnValue.add(repository.save(convocatoriaConceptoGastoCodigoEc));
+    // Unicidad código económico y solapamiento de fechas en la lista resultante
+    if (convocatoriaConceptoGasto.getConceptoGasto().getActivo()) {
+      IntervalIndex<String, Instant, ConvocatoriaConceptoGastoCodigoEc> codigosEc = new IntervalIndex<>(
+          ConvocatoriaConceptoGastoCodigoEc::getCodigoEconomicoRef, ConvocatoriaConceptoGastoCodigoEc::getFechaInicio,
+          ConvocatoriaConceptoGastoCodigoEc::getFechaFin);
+      Optional<ConvocatoriaConceptoGastoCodigoEc> solapado = codigosEc.addAll(convocatoriaConceptoGastoCodigoEcs)
+          .findFirstSolapado();
+      Assert.isTrue(!solapado.isPresent(),
+          "El código económico '" + solapado.map(ConvocatoriaConceptoGastoCodigoEc::getCodigoEconomicoRef).orElse(null)
+              + "' ya está presente y tiene un periodo de vigencia que se solapa con el indicado");
     }
 
+    List<ConvocatoriaConceptoGastoCodigoEc> returnValue = repository.saveAll(convocatoriaConceptoGastoCodigoEcs);
+
     log.debug(
         "updateConvocatoriaConceptoGastoCodigoEcsConvocatoria(Long convocatoriaConceptoGastoId, List<ConvocatoriaConceptoGastoCodigoEc> convocatoriaConceptoGastoCodigoEcs) - end");
 
@@ -15,6 +15,7 @@ import org.crue.hercules.sgi.csp.repository.ConvocatoriaRepository;
 import org.crue.hercules.sgi.csp.repository.specification.ConvocatoriaConceptoGastoSpecifications;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaConceptoGastoService;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaService;
+import org.crue.hercules.sgi.csp.util.IntervalIndex;
 import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -332,20 +333,23 @@ public class ConvocatoriaConceptoGastoServiceImpl implements ConvocatoriaConcept
         .byConvocatoriaActiva();
     Specification<ConvocatoriaConceptoGasto> specByConceptoGasto = ConvocatoriaConceptoGastoSpecifications
         .byConceptoGasto(convocatoriaConceptoGasto.getConceptoGasto());
-    Specification<ConvocatoriaConceptoGasto> specByRangoMesesSolapados = ConvocatoriaConceptoGastoSpecifications
-        .byRangoMesesSolapados(convocatoriaConceptoGasto.getMesInicial(), convocatoriaConceptoGasto.getMesFinal());
     Specification<ConvocatoriaConceptoGasto> specByIdNotEqual = ConvocatoriaConceptoGastoSpecifications
         .byIdNotEqual(convocatoriaConceptoGasto.getId());
     Specification<ConvocatoriaConceptoGasto> specByPermitido = ConvocatoriaConceptoGastoSpecifications
         .byPermitido(convocatoriaConceptoGasto.getPermitido());
 
     Specification<ConvocatoriaConceptoGasto> specs = Specification.where(specByConvocatoria)
-        .and(specByConceptoGastoConvocatoriaActiva).and(specByConceptoGasto).and(specByRangoMesesSolapados)
-        .and(specByIdNotEqual).and(specByPermitido);
+        .and(specByConceptoGastoConvocatoriaActiva).and(specByConceptoGasto).and(specByIdNotEqual)
+        .and(specByPermitido);
 
+    // Una única consulta con los del mismo concepto de gasto y el solapamiento de
+    // meses se comprueba en memoria
     Page<ConvocatoriaConceptoGasto> convocatoriaConceptoGastos = repository.findAll(specs, Pageable.unpaged());
+    IntervalIndex<Long, Integer, ConvocatoriaConceptoGasto> periodos = new IntervalIndex<>(
+        periodo -> periodo.getConceptoGasto().getId(), ConvocatoriaConceptoGasto::getMesInicial,
+        ConvocatoriaConceptoGasto::getMesFinal);
 
-    Boolean returnValue = !convocatoriaConceptoGastos.isEmpty();
+    Boolean returnValue = periodos.addAll(convocatoriaConceptoGastos.getContent()).solapa(convocatoriaConceptoGasto);
     log.debug(
         "existsConvocatoriaConceptoGastoConMesesSolapados(ConvocatoriaConceptoGasto convocatoriaConceptoGasto) - end");
 
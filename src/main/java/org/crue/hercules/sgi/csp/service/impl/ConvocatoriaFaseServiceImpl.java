@@ -1,5 +1,6 @@
 package org.crue.hercules.sgi.csp.service.impl;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -18,6 +19,7 @@ import org.crue.hercules.sgi.csp.repository.ModeloTipoFaseRepository;
 import org.crue.hercules.sgi.csp.repository.specification.ConvocatoriaFaseSpecifications;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaFaseService;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaService;
+import org.crue.hercules.sgi.csp.util.IntervalIndex;
 import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -286,8 +288,6 @@ public class ConvocatoriaFaseServiceImpl implements ConvocatoriaFaseService {
   private Boolean existsConvocatoriaFaseConFechasSolapadas(ConvocatoriaFase convocatoriaFase) {
 
     log.debug("existsConvocatoriaFaseConFechasSolapadas(ConvocatoriaFase convocatoriaFase) - start");
-    Specification<ConvocatoriaFase> specByRangoFechaSolapados = ConvocatoriaFaseSpecifications
-        .byRangoFechaSolapados(convocatoriaFase.getFechaInicio(), convocatoriaFase.getFechaFin());
     Specification<ConvocatoriaFase> specByConvocatoria = ConvocatoriaFaseSpecifications
         .byConvocatoriaId(convocatoriaFase.getConvocatoriaId());
     Specification<ConvocatoriaFase> specByTipoFase = ConvocatoriaFaseSpecifications
@@ -295,12 +295,16 @@ public class ConvocatoriaFaseServiceImpl implements ConvocatoriaFaseService {
     Specification<ConvocatoriaFase> specByIdNotEqual = ConvocatoriaFaseSpecifications
         .byIdNotEqual(convocatoriaFase.getId());
 
-    Specification<ConvocatoriaFase> specs = Specification.where(specByConvocatoria).and(specByRangoFechaSolapados)
-        .and(specByTipoFase).and(specByIdNotEqual);
+    Specification<ConvocatoriaFase> specs = Specification.where(specByConvocatoria).and(specByTipoFase)
+        .and(specByIdNotEqual);
 
+    // Una única consulta con las del mismo tipo de fase y el solapamiento de
+    // fechas se comprueba en memoria
     Page<ConvocatoriaFase> convocatoriaFases = repository.findAll(specs, Pageable.unpaged());
+    IntervalIndex<Long, Instant, ConvocatoriaFase> fases = new IntervalIndex<>(fase -> fase.getTipoFase().getId(),
+        ConvocatoriaFase::getFechaInicio, ConvocatoriaFase::getFechaFin);
 
-    Boolean returnValue = !convocatoriaFases.isEmpty();
+    Boolean returnValue = fases.addAll(convocatoriaFases.getContent()).solapa(convocatoriaFase);
     log.debug("existsConvocatoriaFaseConFechasSolapadas(ConvocatoriaFase convocatoriaFase) - end");
 
     return returnValue;
@@ -3,6 +3,7 @@ package org.crue.hercules.sgi.csp.service.impl;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -81,7 +82,7 @@ public class ConvocatoriaPeriodoJustificacionServiceImpl implements Convocatoria
     // Periodos eliminados
     List<ConvocatoriaPeriodoJustificacion> periodoJustificacionesEliminar = convocatoriaPeriodoJustificacionesBD
         .stream().filter(periodo -> !convocatoriaPeriodoJustificaciones.stream()
-            .map(ConvocatoriaPeriodoJustificacion::getId).anyMatch(id -> id == periodo.getId()))
+            .map(ConvocatoriaPeriodoJustificacion::getId).anyMatch(id -> Objects.equals(id, periodo.getId())))
         .collect(Collectors.toList());
 
     if (!periodoJustificacionesEliminar.isEmpty()) {
@@ -102,10 +103,11 @@ public class ConvocatoriaPeriodoJustificacionServiceImpl implements Convocatoria
       // estan actualizando los periodos
       if (periodoJustificacion.getId() != null) {
         ConvocatoriaPeriodoJustificacion periodoJustificacionBD = convocatoriaPeriodoJustificacionesBD.stream()
-            .filter(periodo -> periodo.getId() == periodoJustificacion.getId()).findFirst()
+            .filter(periodo -> Objects.equals(periodo.getId(), periodoJustificacion.getId())).findFirst()
             .orElseThrow(() -> new ConvocatoriaPeriodoJustificacionNotFoundException(periodoJustificacion.getId()));
 
-        Assert.isTrue(periodoJustificacionBD.getConvocatoriaId() == periodoJustificacion.getConvocatoriaId(),
+        Assert.isTrue(
+            Objects.equals(periodoJustificacionBD.getConvocatoriaId(), periodoJustificacion.getConvocatoriaId()),
             "No se puede modificar la convocatoria del ConvocatoriaPeriodoJustificacion");
       }
 
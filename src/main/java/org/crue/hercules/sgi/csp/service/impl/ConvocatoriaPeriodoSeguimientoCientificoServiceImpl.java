@@ -3,6 +3,7 @@ package org.crue.hercules.sgi.csp.service.impl;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -86,7 +87,7 @@ public class ConvocatoriaPeriodoSeguimientoCientificoServiceImpl
     List<ConvocatoriaPeriodoSeguimientoCientifico> periodoSeguimientoCientificoesEliminar = convocatoriaPeriodoSeguimientoCientificoesBD
         .stream()
         .filter(periodo -> !convocatoriaPeriodoSeguimientoCientificos.stream()
-            .map(ConvocatoriaPeriodoSeguimientoCientifico::getId).anyMatch(id -> id == periodo.getId()))
+            .map(ConvocatoriaPeriodoSeguimientoCientifico::getId).anyMatch(id -> Objects.equals(id, periodo.getId())))
         .collect(Collectors.toList());
 
     if (!periodoSeguimientoCientificoesEliminar.isEmpty()) {
@@ -108,12 +109,14 @@ public class ConvocatoriaPeriodoSeguimientoCientificoServiceImpl
       // estan actualizando los periodos
       if (periodoSeguimientoCientifico.getId() != null) {
         ConvocatoriaPeriodoSeguimientoCientifico periodoSeguimientoCientificoBD = convocatoriaPeriodoSeguimientoCientificoesBD
-            .stream().filter(periodo -> periodo.getId() == periodoSeguimientoCientifico.getId()).findFirst()
+            .stream().filter(periodo -> Objects.equals(periodo.getId(), periodoSeguimientoCientifico.getId()))
+            .findFirst()
             .orElseThrow(() -> new ConvocatoriaPeriodoSeguimientoCientificoNotFoundException(
                 periodoSeguimientoCientifico.getId()));
 
         Assert.isTrue(
-            periodoSeguimientoCientificoBD.getConvocatoriaId() == periodoSeguimientoCientifico.getConvocatoriaId(),
+            Objects.equals(periodoSeguimientoCientificoBD.getConvocatoriaId(),
+                periodoSeguimientoCientifico.getConvocatoriaId()),
             "No se puede modificar la convocatoria del ConvocatoriaPeriodoSeguimientoCientifico");
       }
 
@@ -1,17 +1,42 @@
 package org.crue.hercules.sgi.csp.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaCapacidades;
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaDossier;
 import org.crue.hercules.sgi.csp.exceptions.ConfiguracionSolicitudNotFoundException;
 import org.crue.hercules.sgi.csp.exceptions.ConvocatoriaNotFoundException;
+import org.crue.hercules.sgi.csp.exceptions.VersionAgregadoMismatchException;
 import org.crue.hercules.sgi.csp.model.ConfiguracionSolicitud;
 import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaAreaTematica;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaConceptoGasto;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaDocumento;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEnlace;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEntidadConvocante;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEntidadFinanciadora;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaEntidadGestora;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaFase;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaHito;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaPeriodoJustificacion;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaPeriodoSeguimientoCientifico;
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.ModeloTipoFinalidad;
 import org.crue.hercules.sgi.csp.model.ModeloUnidad;
+import org.crue.hercules.sgi.csp.model.RequisitoEquipo;
+import org.crue.hercules.sgi.csp.model.RequisitoIP;
 import org.crue.hercules.sgi.csp.model.TipoAmbitoGeografico;
 import org.crue.hercules.sgi.csp.model.TipoDocumento;
 import org.crue.hercules.sgi.csp.model.TipoEnlace;
@@ -29,13 +54,16 @@ import org.crue.hercules.sgi.csp.repository.TipoRegimenConcurrenciaRepository;
 import org.crue.hercules.sgi.csp.repository.predicate.ConvocatoriaPredicateResolver;
 import org.crue.hercules.sgi.csp.repository.specification.ConvocatoriaSpecifications;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaService;
+import org.crue.hercules.sgi.csp.util.AutorizacionUnidadesHolder;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.crue.hercules.sgi.csp.util.TotalCountCache;
+import org.crue.hercules.sgi.csp.util.VersionedCache;
 import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
-import org.crue.hercules.sgi.framework.security.access.expression.SgiMethodSecurityExpressionRoot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
@@ -51,6 +79,9 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional(readOnly = true)
 public class ConvocatoriaServiceImpl implements ConvocatoriaService {
 
+  /** Número máximo de {@link Convocatoria} por consulta de capacidades */
+  private static final int CAPACIDADES_MAX_IDS = 100;
+
   private final ConvocatoriaRepository repository;
   private final ConvocatoriaPeriodoJustificacionRepository convocatoriaPeriodoJustificacionRepository;
   private final ModeloUnidadRepository modeloUnidadRepository;
@@ -59,6 +90,8 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
   private final TipoAmbitoGeograficoRepository tipoAmbitoGeograficoRepository;
   private final ConvocatoriaPeriodoSeguimientoCientificoRepository convocatoriaPeriodoSeguimientoCientificoRepository;
   private final ConfiguracionSolicitudRepository configuracionSolicitudRepository;
+  private final TotalCountCache totalCountCache;
+  private final VersionedCache<ConvocatoriaDossier> convocatoriaDossierCache;
 
   public ConvocatoriaServiceImpl(ConvocatoriaRepository repository,
       ConvocatoriaPeriodoJustificacionRepository convocatoriaPeriodoJustificacionRepository,
@@ -66,7 +99,8 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
       TipoRegimenConcurrenciaRepository tipoRegimenConcurrenciaRepository,
       TipoAmbitoGeograficoRepository tipoAmbitoGeograficoRepository,
       ConvocatoriaPeriodoSeguimientoCientificoRepository convocatoriaPeriodoSeguimientoCientificoRepository,
-      ConfiguracionSolicitudRepository configuracionSolicitudRepository) {
+      ConfiguracionSolicitudRepository configuracionSolicitudRepository, TotalCountCache totalCountCache,
+      VersionedCache<ConvocatoriaDossier> convocatoriaDossierCache) {
     this.repository = repository;
     this.convocatoriaPeriodoJustificacionRepository = convocatoriaPeriodoJustificacionRepository;
     this.modeloUnidadRepository = modeloUnidadRepository;
@@ -75,6 +109,8 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
     this.tipoAmbitoGeograficoRepository = tipoAmbitoGeograficoRepository;
     this.convocatoriaPeriodoSeguimientoCientificoRepository = convocatoriaPeriodoSeguimientoCientificoRepository;
     this.configuracionSolicitudRepository = configuracionSolicitudRepository;
+    this.totalCountCache = totalCountCache;
+    this.convocatoriaDossierCache = convocatoriaDossierCache;
   }
 
   /**
@@ -141,6 +177,54 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
     }).orElseThrow(() -> new ConvocatoriaNotFoundException(convocatoria.getId()));
   }
 
+  /**
+   * Actualiza los datos de la {@link Convocatoria} comprobando antes que su
+   * versión coincide con la indicada. La fila de la {@link Convocatoria} se
+   * bloquea hasta el final de la transacción para que nadie la modifique entre
+   * la comprobación y la actualización.
+   *
+   * @param convocatoria           {@link Convocatoria} con los datos
+   *                               actualizados.
+   * @param acronimosUnidadGestion lista de acronimos
+   * @param version                versión de la {@link Convocatoria} sobre la
+   *                               que se han hecho los cambios.
+   * @return {@link Convocatoria} actualizado.
+   */
+  @Override
+  @Transactional
+  public Convocatoria update(Convocatoria convocatoria, List<String> acronimosUnidadGestion, Long version) {
+    log.debug("update(Convocatoria convocatoria, Long version) - start");
+
+    Assert.notNull(convocatoria.getId(), "Id no puede ser null para actualizar Convocatoria");
+    Assert.notNull(version, "Version no puede ser null para actualizar Convocatoria");
+
+    Long versionActual = repository.getVersionForUpdate(convocatoria.getId())
+        .orElseThrow(() -> new ConvocatoriaNotFoundException(convocatoria.getId()));
+    if (!versionActual.equals(version)) {
+      throw new VersionAgregadoMismatchException("Convocatoria", convocatoria.getId());
+    }
+    Convocatoria returnValue = update(convocatoria, acronimosUnidadGestion);
+
+    log.debug("update(Convocatoria convocatoria, Long version) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la versión de la {@link Convocatoria}. Como en
+   * {@link #findById(Long)}, la consulta de una {@link Convocatoria} no se
+   * restringe por unidad de gestión.
+   *
+   * @param id Id de la {@link Convocatoria}.
+   * @return la versión, vacía si no existe.
+   */
+  @Override
+  public Optional<Long> findVersion(Long id) {
+    log.debug("findVersion(Long id) - start");
+    Optional<Long> returnValue = repository.getVersion(id);
+    log.debug("findVersion(Long id) - end");
+    return returnValue;
+  }
+
   /**
    * Registra una {@link Convocatoria} actualizando su estado de 'Borrador' a
    * 'Registrada'
@@ -299,37 +383,112 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
       Optional<Convocatoria> convocatoria = repository.findById(id);
 
       // convocatoria existe y su estado actual es 'Borrador'
-      if (convocatoria.isPresent() && convocatoria.get().getEstado() == Convocatoria.Estado.BORRADOR) {
+      if (convocatoria.isPresent() && convocatoria.get().getEstado() == Convocatoria.Estado.BORRADOR
+          && hasCamposRequeridosRegistro(convocatoria.get())) {
+        returnValue = hasConfiguracionRequeridaRegistro(
+            configuracionSolicitudRepository.findByConvocatoriaId(convocatoria.get().getId()).orElse(null));
+      }
+    }
+    log.debug("registrable(Long id) - end");
+    return returnValue;
+  }
 
-        // Campos requeridos a nivel de convocatoria
-        if (convocatoria.get().getUnidadGestionRef() != null && convocatoria.get().getModeloEjecucion() != null
-            && convocatoria.get().getFechaPublicacion() != null && convocatoria.get().getTitulo() != null
-            && convocatoria.get().getFinalidad() != null && convocatoria.get().getAmbitoGeografico() != null) {
+  /**
+   * Obtiene para cada una de las {@link Convocatoria} indicadas si es
+   * modificable, si puede pasar a estado 'Registrada' y si tiene datos
+   * vinculados.
+   * <p>
+   * Equivale a {@link #modificable(Long, String)}, {@link #registrable(Long)} y
+   * {@link #tieneVinculaciones(Long)} para cada convocatoria, pero con un número
+   * de consultas que no depende del número de convocatorias.
+   *
+   * @param ids Ids de las {@link Convocatoria}.
+   * @return las capacidades de las {@link Convocatoria} que existen, en el orden
+   *         de los ids.
+   */
+  @Override
+  public List<ConvocatoriaCapacidades> findCapacidades(List<Long> ids) {
+    log.debug("findCapacidades(List<Long> ids) - start");
+    Assert.isTrue(ids.size() <= CAPACIDADES_MAX_IDS,
+        "No se pueden consultar más de " + CAPACIDADES_MAX_IDS + " convocatorias");
+
+    Map<Long, Convocatoria> convocatorias = repository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Convocatoria::getId, Function.identity()));
+    if (convocatorias.isEmpty()) {
+      log.debug("findCapacidades(List<Long> ids) - end");
+      return new ArrayList<>();
+    }
 
-          Optional<ConfiguracionSolicitud> configuracionSolicitud = configuracionSolicitudRepository
-              .findByConvocatoriaId(convocatoria.get().getId());
+    List<Long> registradas = getIdsEnEstado(convocatorias.values(), Convocatoria.Estado.REGISTRADA);
+    Set<Long> registradasConSolicitudesOProyectos = registradas.isEmpty() ? Collections.emptySet()
+        : new HashSet<>(repository.findIdsRegistradasConSolicitudesOProyectos(registradas));
 
-          // tiene configuración solicitud
-          if (configuracionSolicitud.isPresent()) {
+    Set<Long> conVinculaciones = new HashSet<>(repository.findIdsConVinculaciones(convocatorias.keySet()));
 
-            // campos requeridos a nivel de configuración solicitud
-            if (configuracionSolicitud.get().getTramitacionSGI() != null
-                && configuracionSolicitud.get().getFormularioSolicitud() != null) {
+    List<Long> borradores = getIdsEnEstado(convocatorias.values(), Convocatoria.Estado.BORRADOR);
+    Map<Long, ConfiguracionSolicitud> configuraciones = borradores.isEmpty() ? Collections.emptyMap()
+        : configuracionSolicitudRepository.findAllByConvocatoriaIdIn(borradores).stream()
+            .collect(Collectors.toMap(ConfiguracionSolicitud::getConvocatoriaId, Function.identity()));
 
-              // con tramitación SGI debe tener una fase asignada
-              if (!(configuracionSolicitud.get().getFasePresentacionSolicitudes() == null
-                  && configuracionSolicitud.get().getTramitacionSGI() == Boolean.TRUE)) {
-                returnValue = Boolean.TRUE;
-              }
-            }
-          }
-        }
+    List<ConvocatoriaCapacidades> returnValue = new ArrayList<>();
+    for (Long id : new LinkedHashSet<>(ids)) {
+      Convocatoria convocatoria = convocatorias.get(id);
+      if (convocatoria == null) {
+        continue;
       }
+
+      // Será modificable si no tiene solicitudes o proyectos asociados
+      boolean modificable = checkAuthority("CSP-CONV-C", convocatoria.getUnidadGestionRef())
+          && !registradasConSolicitudesOProyectos.contains(id);
+      boolean registrable = convocatoria.getEstado() == Convocatoria.Estado.BORRADOR
+          && hasCamposRequeridosRegistro(convocatoria) && hasConfiguracionRequeridaRegistro(configuraciones.get(id));
+
+      returnValue.add(new ConvocatoriaCapacidades(id, modificable, registrable, conVinculaciones.contains(id)));
     }
-    log.debug("registrable(Long id) - end");
+
+    log.debug("findCapacidades(List<Long> ids) - end");
     return returnValue;
   }
 
+  /**
+   * Comprueba si la {@link Convocatoria} tiene los campos requeridos para pasar
+   * a estado 'Registrada'.
+   *
+   * @param convocatoria la {@link Convocatoria}.
+   * @return true si tiene los campos requeridos.
+   */
+  private boolean hasCamposRequeridosRegistro(Convocatoria convocatoria) {
+    return convocatoria.getUnidadGestionRef() != null && convocatoria.getModeloEjecucion() != null
+        && convocatoria.getFechaPublicacion() != null && convocatoria.getTitulo() != null
+        && convocatoria.getFinalidad() != null && convocatoria.getAmbitoGeografico() != null;
+  }
+
+  /**
+   * Comprueba si la {@link ConfiguracionSolicitud} de la {@link Convocatoria}
+   * tiene los campos requeridos para que la {@link Convocatoria} pase a estado
+   * 'Registrada'.
+   *
+   * @param configuracionSolicitud la {@link ConfiguracionSolicitud} o null si la
+   *                               {@link Convocatoria} no tiene.
+   * @return true si tiene los campos requeridos.
+   */
+  private boolean hasConfiguracionRequeridaRegistro(ConfiguracionSolicitud configuracionSolicitud) {
+    // tiene configuración solicitud con los campos requeridos
+    if (configuracionSolicitud == null || configuracionSolicitud.getTramitacionSGI() == null
+        || configuracionSolicitud.getFormularioSolicitud() == null) {
+      return false;
+    }
+
+    // con tramitación SGI debe tener una fase asignada
+    return !(configuracionSolicitud.getFasePresentacionSolicitudes() == null
+        && configuracionSolicitud.getTramitacionSGI() == Boolean.TRUE);
+  }
+
+  private List<Long> getIdsEnEstado(Collection<Convocatoria> convocatorias, Convocatoria.Estado estado) {
+    return convocatorias.stream().filter(convocatoria -> convocatoria.getEstado() == estado).map(Convocatoria::getId)
+        .collect(Collectors.toList());
+  }
+
   /**
    * Comprueba la existencia del {@link Convocatoria} por id.
    *
@@ -397,6 +556,25 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
     return returnValue;
   }
 
+  /**
+   * Obtiene la {@link Convocatoria} con su configuración, sus requisitos y sus
+   * colecciones hijas, con una consulta por colección y sin consultas count.
+   * <p>
+   * Si la versión de la {@link Convocatoria} no ha cambiado desde la última
+   * carga se devuelve el dossier de la caché, consultando solo la versión.
+   *
+   * @param id Identificador de la entidad {@link Convocatoria}.
+   * @return el {@link ConvocatoriaDossier}.
+   */
+  @Override
+  public ConvocatoriaDossier findDossier(Long id) {
+    log.debug("findDossier(Long id) - start");
+    Long version = repository.getVersion(id).orElseThrow(() -> new ConvocatoriaNotFoundException(id));
+    ConvocatoriaDossier returnValue = convocatoriaDossierCache.get(id, version, () -> loadDossier(id));
+    log.debug("findDossier(Long id) - end");
+    return returnValue;
+  }
+
   /**
    * Obtiene todas las entidades {@link Convocatoria} activas paginadas y
    * filtradas.
@@ -409,14 +587,69 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
   @Override
   public Page<Convocatoria> findAll(String query, Pageable paging) {
     log.debug("findAll(String query, Pageable paging) - start");
-    Specification<Convocatoria> specs = ConvocatoriaSpecifications.activos()
-        .and(SgiRSQLJPASupport.toSpecification(query));
-
-    Page<Convocatoria> returnValue = repository.findAll(specs, paging);
+    Page<Convocatoria> returnValue = repository.findAll(getSpecsFindAll(query), paging);
     log.debug("findAll(String query, Pageable paging) - end");
     return returnValue;
   }
 
+  /**
+   * Obtiene la página de entidades {@link Convocatoria} activas filtradas que
+   * sigue al cursor indicado, sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging tamaño de página y ordenación de la primera página.
+   * @return la página de entidades {@link Convocatoria} con el cursor de la
+   *         siguiente.
+   */
+  @Override
+  public KeysetSlice<Convocatoria> findAll(String query, String cursor, Pageable paging) {
+    log.debug("findAll(String query, String cursor, Pageable paging) - start");
+    KeysetSlice<Convocatoria> returnValue = repository.findAllKeyset(getSpecsFindAll(query),
+        KeysetCursor.of(cursor, paging.getSort()), paging.getPageSize());
+    log.debug("findAll(String query, String cursor, Pageable paging) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Convocatoria} activas
+   * filtradas, sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Convocatoria} sin el número total de
+   *         elementos.
+   */
+  @Override
+  public Slice<Convocatoria> findAllSinTotal(String query, Pageable paging) {
+    log.debug("findAllSinTotal(String query, Pageable paging) - start");
+    Specification<Convocatoria> specs = getSpecsFindAll(query);
+    Slice<Convocatoria> returnValue = repository.findAllSlice(specs, paging);
+    log.debug("findAllSinTotal(String query, Pageable paging) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Convocatoria} activas
+   * filtradas, con el número total de elementos estimado: el total se reutiliza
+   * durante un tiempo para el mismo filtro en lugar de lanzar la consulta count
+   * en cada página.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Convocatoria} con el total estimado.
+   */
+  @Override
+  public Page<Convocatoria> findAllTotalEstimado(String query, Pageable paging) {
+    log.debug("findAllTotalEstimado(String query, Pageable paging) - start");
+    Specification<Convocatoria> specs = getSpecsFindAll(query);
+    String clave = TotalCountCache.key("convocatoria", query, null);
+    Page<Convocatoria> returnValue = totalCountCache.toPage(clave, repository.findAllSlice(specs, paging),
+        () -> repository.count(specs));
+    log.debug("findAllTotalEstimado(String query, Pageable paging) - end");
+    return returnValue;
+  }
+
   /**
    * Obtiene todas las entidades {@link Convocatoria} que puede visualizar un
    * investigador paginadas y filtradas.
@@ -449,12 +682,66 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
   @Override
   public Page<Convocatoria> findAllTodos(String query, Pageable paging) {
     log.debug("findAllTodos(String query, Pageable paging) - start");
+    Page<Convocatoria> returnValue = repository.findAll(getSpecsFindAllTodos(query), paging);
+    log.debug("findAllTodos(String query, Pageable paging) - end");
+    return returnValue;
+  }
 
-    Specification<Convocatoria> specs = SgiRSQLJPASupport.toSpecification(query,
-        ConvocatoriaPredicateResolver.getInstance());
+  /**
+   * Obtiene la página de entidades {@link Convocatoria} filtradas que sigue al
+   * cursor indicado, sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging tamaño de página y ordenación de la primera página.
+   * @return la página de entidades {@link Convocatoria} con el cursor de la
+   *         siguiente.
+   */
+  @Override
+  public KeysetSlice<Convocatoria> findAllTodos(String query, String cursor, Pageable paging) {
+    log.debug("findAllTodos(String query, String cursor, Pageable paging) - start");
+    KeysetSlice<Convocatoria> returnValue = repository.findAllKeyset(getSpecsFindAllTodos(query),
+        KeysetCursor.of(cursor, paging.getSort()), paging.getPageSize());
+    log.debug("findAllTodos(String query, String cursor, Pageable paging) - end");
+    return returnValue;
+  }
 
-    Page<Convocatoria> returnValue = repository.findAll(specs, paging);
-    log.debug("findAllTodos(String query, Pageable paging) - end");
+  /**
+   * Obtiene la página indicada de entidades {@link Convocatoria} filtradas, sin
+   * consulta count.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Convocatoria} sin el número total de
+   *         elementos.
+   */
+  @Override
+  public Slice<Convocatoria> findAllTodosSinTotal(String query, Pageable paging) {
+    log.debug("findAllTodosSinTotal(String query, Pageable paging) - start");
+    Specification<Convocatoria> specs = getSpecsFindAllTodos(query);
+    Slice<Convocatoria> returnValue = repository.findAllSlice(specs, paging);
+    log.debug("findAllTodosSinTotal(String query, Pageable paging) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Convocatoria} filtradas, con
+   * el número total de elementos estimado: el total se reutiliza durante un
+   * tiempo para el mismo filtro en lugar de lanzar la consulta count en cada
+   * página.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Convocatoria} con el total estimado.
+   */
+  @Override
+  public Page<Convocatoria> findAllTodosTotalEstimado(String query, Pageable paging) {
+    log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - start");
+    Specification<Convocatoria> specs = getSpecsFindAllTodos(query);
+    String clave = TotalCountCache.key("convocatoria.todos", query, null);
+    Page<Convocatoria> returnValue = totalCountCache.toPage(clave, repository.findAllSlice(specs, paging),
+        () -> repository.count(specs));
+    log.debug("findAllTodosTotalEstimado(String query, Pageable paging) - end");
     return returnValue;
   }
 
@@ -498,15 +785,124 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
       List<String> acronimosUnidadGestion) {
     log.debug("findAllTodosRestringidos(String query, Pageable paging,  List<String> acronimosUnidadGestion) - start");
 
-    Specification<Convocatoria> specs = ConvocatoriaSpecifications.acronimosIn(acronimosUnidadGestion)
-        .and(SgiRSQLJPASupport.toSpecification(query, ConvocatoriaPredicateResolver.getInstance()));
-
-    Page<Convocatoria> returnValue = repository.findAll(specs, paging);
+    Page<Convocatoria> returnValue = repository
+        .findAll(getSpecsFindAllTodosRestringidos(query, acronimosUnidadGestion), paging);
 
     log.debug("findAllTodosRestringidos(String query, Pageable paging,  List<String> acronimosUnidadGestion) - end");
     return returnValue;
   }
 
+  /**
+   * Obtiene la página de convocatorias de las unidades de gestión del usuario
+   * logueado que sigue al cursor indicado, sin consulta count.
+   *
+   * @param query                  información del filtro.
+   * @param cursor                 cursor de la página o vacío para la primera.
+   * @param paging                 tamaño de página y ordenación de la primera
+   *                               página.
+   * @param acronimosUnidadGestion lista de acronimos de unidad de gestion a los
+   *                               que se restringe la busqueda.
+   * @return la página de entidades {@link Convocatoria} con el cursor de la
+   *         siguiente.
+   */
+  @Override
+  public KeysetSlice<Convocatoria> findAllTodosRestringidos(String query, String cursor, Pageable paging,
+      List<String> acronimosUnidadGestion) {
+    log.debug("findAllTodosRestringidos(String query, String cursor, Pageable paging, "
+        + "List<String> acronimosUnidadGestion) - start");
+    KeysetSlice<Convocatoria> returnValue = repository.findAllKeyset(
+        getSpecsFindAllTodosRestringidos(query, acronimosUnidadGestion), KeysetCursor.of(cursor, paging.getSort()),
+        paging.getPageSize());
+    log.debug("findAllTodosRestringidos(String query, String cursor, Pageable paging, "
+        + "List<String> acronimosUnidadGestion) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de convocatorias de las unidades de gestión del
+   * usuario logueado, sin consulta count.
+   *
+   * @param query                  información del filtro.
+   * @param paging                 información de paginación.
+   * @param acronimosUnidadGestion lista de acronimos de unidad de gestion a los
+   *                               que se restringe la busqueda.
+   * @return la página de entidades {@link Convocatoria} sin el número total de
+   *         elementos.
+   */
+  @Override
+  public Slice<Convocatoria> findAllTodosRestringidosSinTotal(String query, Pageable paging,
+      List<String> acronimosUnidadGestion) {
+    log.debug("findAllTodosRestringidosSinTotal(String query, Pageable paging, "
+        + "List<String> acronimosUnidadGestion) - start");
+    Specification<Convocatoria> specs = getSpecsFindAllTodosRestringidos(query, acronimosUnidadGestion);
+    Slice<Convocatoria> returnValue = repository.findAllSlice(specs, paging);
+    log.debug("findAllTodosRestringidosSinTotal(String query, Pageable paging, "
+        + "List<String> acronimosUnidadGestion) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de convocatorias de las unidades de gestión del
+   * usuario logueado, con el número total de elementos estimado: el total se
+   * reutiliza durante un tiempo para el mismo filtro en lugar de lanzar la
+   * consulta count en cada página.
+   *
+   * @param query                  información del filtro.
+   * @param paging                 información de paginación.
+   * @param acronimosUnidadGestion lista de acronimos de unidad de gestion a los
+   *                               que se restringe la busqueda.
+   * @return la página de entidades {@link Convocatoria} con el total estimado.
+   */
+  @Override
+  public Page<Convocatoria> findAllTodosRestringidosTotalEstimado(String query, Pageable paging,
+      List<String> acronimosUnidadGestion) {
+    log.debug("findAllTodosRestringidosTotalEstimado(String query, Pageable paging, "
+        + "List<String> acronimosUnidadGestion) - start");
+    Specification<Convocatoria> specs = getSpecsFindAllTodosRestringidos(query, acronimosUnidadGestion);
+    String clave = TotalCountCache.key("convocatoria.todos.restringidos", query, acronimosUnidadGestion);
+    Page<Convocatoria> returnValue = totalCountCache.toPage(clave, repository.findAllSlice(specs, paging),
+        () -> repository.count(specs));
+    log.debug("findAllTodosRestringidosTotalEstimado(String query, Pageable paging, "
+        + "List<String> acronimosUnidadGestion) - end");
+    return returnValue;
+  }
+
+  /**
+   * Aplica la acción a cada {@link Convocatoria} filtrada de las unidades de
+   * gestión indicadas, en orden de id, sin cargar el listado completo en
+   * memoria.
+   *
+   * @param query                  información del filtro.
+   * @param acronimosUnidadGestion lista de acronimos de unidad de gestion a los
+   *                               que se restringe la busqueda.
+   * @param action                 acción a aplicar a cada {@link Convocatoria}.
+   * @return el número de {@link Convocatoria} exportadas.
+   */
+  @Override
+  public long exportTodosRestringidos(String query, List<String> acronimosUnidadGestion,
+      Consumer<? super Convocatoria> action) {
+    log.debug("exportTodosRestringidos(String query, List<String> acronimosUnidadGestion, "
+        + "Consumer<? super Convocatoria> action) - start");
+    long returnValue = repository.forEach(getSpecsFindAllTodosRestringidos(query, acronimosUnidadGestion), action);
+    log.debug("exportTodosRestringidos(String query, List<String> acronimosUnidadGestion, "
+        + "Consumer<? super Convocatoria> action) - end");
+    return returnValue;
+  }
+
+  private Specification<Convocatoria> getSpecsFindAll(String query) {
+    return ConvocatoriaSpecifications.activos().and(SgiRSQLJPASupport.toSpecification(query));
+  }
+
+  private Specification<Convocatoria> getSpecsFindAllTodos(String query) {
+    return SgiRSQLJPASupport.toSpecification(query, ConvocatoriaPredicateResolver.getInstance());
+  }
+
+  private Specification<Convocatoria> getSpecsFindAllTodosRestringidos(String query,
+      List<String> acronimosUnidadGestion) {
+    return ConvocatoriaSpecifications.acronimosIn(acronimosUnidadGestion)
+        .and(SgiRSQLJPASupport.toSpecification(query, ConvocatoriaPredicateResolver.getInstance()));
+  }
+
   /**
    * Hace las comprobaciones para determinar si el usuario tiene la autorización
    * indicada tanto de manera independiente como dentro de la unidad organizativa
@@ -519,18 +915,7 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
   protected Boolean checkAuthority(String authority, String unidad) {
     log.debug("checkAuthority(String authority, String unidad) - start");
 
-    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-    SgiMethodSecurityExpressionRoot sgiMethodSecurityExpressionRoot = new SgiMethodSecurityExpressionRoot(
-        authentication);
-
-    Boolean returnValue = Boolean.FALSE;
-
-    if (StringUtils.isBlank(unidad)) {
-      returnValue = sgiMethodSecurityExpressionRoot.hasAuthority(authority);
-    } else {
-      returnValue = (sgiMethodSecurityExpressionRoot.hasAuthority(authority)
-          || sgiMethodSecurityExpressionRoot.hasAuthority(authority + "_" + unidad));
-    }
+    Boolean returnValue = AutorizacionUnidadesHolder.get().hasAuthorityForUO(authority, unidad);
 
     log.debug("checkAuthority(String authority, String unidad) - end");
     return returnValue;
@@ -802,4 +1187,31 @@ public class ConvocatoriaServiceImpl implements ConvocatoriaService {
 
     log.debug("validarRequeridosConfiguracionSolicitudConvocatoriaRegistrada(Convocatoria datosConvocatoria) - end");
   }
+
+  private ConvocatoriaDossier loadDossier(Long id) {
+    Convocatoria convocatoria = repository.findById(id).orElseThrow(() -> new ConvocatoriaNotFoundException(id));
+    return ConvocatoriaDossier.builder().convocatoria(convocatoria)
+        .configuracionSolicitud(findRelacionado(ConfiguracionSolicitud.class, id))
+        .requisitoEquipo(findRelacionado(RequisitoEquipo.class, id))
+        .requisitoIP(findRelacionado(RequisitoIP.class, id))
+        .convocatoriaHitos(repository.findAllRelacionados(ConvocatoriaHito.class, id))
+        .convocatoriaFases(repository.findAllRelacionados(ConvocatoriaFase.class, id))
+        .convocatoriaEntidadFinanciadoras(repository.findAllRelacionados(ConvocatoriaEntidadFinanciadora.class, id))
+        .convocatoriaEntidadGestoras(repository.findAllRelacionados(ConvocatoriaEntidadGestora.class, id))
+        .convocatoriaEntidadConvocantes(repository.findAllRelacionados(ConvocatoriaEntidadConvocante.class, id))
+        .convocatoriaAreaTematicas(repository.findAllRelacionados(ConvocatoriaAreaTematica.class, id))
+        .convocatoriaDocumentos(repository.findAllRelacionados(ConvocatoriaDocumento.class, id))
+        .convocatoriaEnlaces(repository.findAllRelacionados(ConvocatoriaEnlace.class, id))
+        .convocatoriaPeriodoJustificaciones(repository.findAllRelacionados(ConvocatoriaPeriodoJustificacion.class, id))
+        .convocatoriaPeriodoSeguimientoCientificos(
+            repository.findAllRelacionados(ConvocatoriaPeriodoSeguimientoCientifico.class, id))
+        .convocatoriaGastos(repository.findAllRelacionados(ConvocatoriaConceptoGasto.class, id))
+        .convocatoriaGastoCodigosEc(repository.findAllConceptoGastoCodigosEc(id)).build();
+  }
+
+  private <T> T findRelacionado(Class<T> domainClass, Long convocatoriaId) {
+    List<T> relacionados = repository.findAllRelacionados(domainClass, convocatoriaId);
+    return relacionados.isEmpty() ? null : relacionados.get(0);
+  }
+
 }
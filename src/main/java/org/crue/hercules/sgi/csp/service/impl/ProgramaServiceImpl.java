@@ -1,11 +1,14 @@
 package org.crue.hercules.sgi.csp.service.impl;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.crue.hercules.sgi.csp.exceptions.ProgramaNotFoundException;
 import org.crue.hercules.sgi.csp.model.Programa;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia;
+import org.crue.hercules.sgi.csp.repository.ProgramaJerarquiaRepository;
 import org.crue.hercules.sgi.csp.repository.ProgramaRepository;
 import org.crue.hercules.sgi.csp.repository.specification.ProgramaSpecifications;
 import org.crue.hercules.sgi.csp.service.ProgramaService;
@@ -28,9 +31,12 @@ import lombok.extern.slf4j.Slf4j;
 public class ProgramaServiceImpl implements ProgramaService {
 
   private final ProgramaRepository repository;
+  private final ProgramaJerarquiaRepository programaJerarquiaRepository;
 
-  public ProgramaServiceImpl(ProgramaRepository programaRepository) {
+  public ProgramaServiceImpl(ProgramaRepository programaRepository,
+      ProgramaJerarquiaRepository programaJerarquiaRepository) {
     this.repository = programaRepository;
+    this.programaJerarquiaRepository = programaJerarquiaRepository;
   }
 
   /**
@@ -65,6 +71,7 @@ public class ProgramaServiceImpl implements ProgramaService {
     programa.setActivo(true);
 
     Programa returnValue = repository.save(programa);
+    addJerarquia(returnValue);
 
     log.debug("create(Programa programa) - end");
     return returnValue;
@@ -101,11 +108,17 @@ public class ProgramaServiceImpl implements ProgramaService {
             programa.getId()), "Ya existe un programa con el mismo nombre en el plan");
       }
 
+      Long padreIdActual = programa.getPadre() != null ? programa.getPadre().getId() : null;
+      Long padreIdNuevo = programaActualizar.getPadre() != null ? programaActualizar.getPadre().getId() : null;
+
       programa.setNombre(programaActualizar.getNombre());
       programa.setDescripcion(programaActualizar.getDescripcion());
       programa.setPadre(programaActualizar.getPadre());
 
       Programa returnValue = repository.save(programa);
+      if (!Objects.equals(padreIdActual, padreIdNuevo)) {
+        moveJerarquia(returnValue.getId(), padreIdNuevo);
+      }
       log.debug("update(Programa programaActualizar) - end");
       return returnValue;
     }).orElseThrow(() -> new ProgramaNotFoundException(programaActualizar.getId()));
@@ -291,30 +304,81 @@ public class ProgramaServiceImpl implements ProgramaService {
     log.debug("existProgramaNombre(Long programaId, String nombre, Long programaIdExcluir) - start");
 
     // Busca el programa raiz
-    Programa programaRaiz = repository.findById(programaId).map(programa -> {
-      return programa;
-    }).orElseThrow(() -> new ProgramaNotFoundException(programaId));
+    Long programaRaizId = programaJerarquiaRepository.findFirstByDescendienteIdOrderByProfundidadDesc(programaId)
+        .map(ProgramaJerarquia::getAncestroId).orElseThrow(() -> new ProgramaNotFoundException(programaId));
+
+    // Busca el nombre entre todos los descendientes del nodo raiz
+    Specification<Programa> specDescendientesByNombre = ProgramaSpecifications
+        .descendientesByNombre(programaRaizId, nombre, programaIdExcluir);
+    boolean nombreEncontrado = repository.count(specDescendientesByNombre) > 0;
+
+    log.debug("existProgramaNombre(Long programaId, String nombre, Long programaIdExcluir) - end");
+    return nombreEncontrado;
+  }
 
-    while (programaRaiz.getPadre() != null) {
-      programaRaiz = repository.findById(programaRaiz.getPadre().getId()).get();
+  /**
+   * Añade a la jerarquía el {@link Programa} recien creado: la fila consigo
+   * mismo y una fila por cada ancestro de su padre.
+   *
+   * @param programa el {@link Programa} creado.
+   */
+  private void addJerarquia(Programa programa) {
+    log.debug("addJerarquia(Programa programa) - start");
+
+    List<ProgramaJerarquia> jerarquia = new ArrayList<>();
+    jerarquia.add(new ProgramaJerarquia(programa.getId(), programa.getId(), 0));
+    if (programa.getPadre() != null) {
+      for (ProgramaJerarquia ancestro : programaJerarquiaRepository
+          .findByDescendienteId(programa.getPadre().getId())) {
+        jerarquia.add(
+            new ProgramaJerarquia(ancestro.getAncestroId(), programa.getId(), ancestro.getProfundidad() + 1));
+      }
     }
+    programaJerarquiaRepository.saveAll(jerarquia);
 
-    // Busca el nombre desde el nodo raiz nivel a nivel
-    boolean nombreEncontrado = false;
+    log.debug("addJerarquia(Programa programa) - end");
+  }
 
-    List<Programa> programasHijos = repository.findByPadreIdInAndActivoIsTrue(Arrays.asList(programaRaiz.getId()));
-    nombreEncontrado = programasHijos.stream()
-        .anyMatch(programa -> programa.getNombre().equals(nombre) && programa.getId() != programaIdExcluir);
+  /**
+   * Mueve en la jerarquía el subárbol del {@link Programa} bajo su nuevo padre:
+   * elimina las relaciones del subárbol con los ancestros anteriores y crea las
+   * relaciones con los ancestros del nuevo padre.
+   *
+   * @param programaId   Identificador del {@link Programa} que cambia de padre.
+   * @param padreIdNuevo Identificador del nuevo padre o null si pasa a ser un
+   *                     plan.
+   */
+  private void moveJerarquia(Long programaId, Long padreIdNuevo) {
+    log.debug("moveJerarquia(Long programaId, Long padreIdNuevo) - start");
 
-    while (!nombreEncontrado && !programasHijos.isEmpty()) {
-      programasHijos = repository
-          .findByPadreIdInAndActivoIsTrue(programasHijos.stream().map(Programa::getId).collect(Collectors.toList()));
-      nombreEncontrado = programasHijos.stream()
-          .anyMatch(programa -> programa.getNombre().equals(nombre) && programa.getId() != programaIdExcluir);
+    if (padreIdNuevo != null) {
+      Assert.isTrue(!programaJerarquiaRepository.existsByAncestroIdAndDescendienteId(programaId, padreIdNuevo),
+          "El programa padre no puede ser el propio programa ni uno de sus descendientes");
     }
 
-    log.debug("existProgramaNombre(Long programaId, String nombre, Long programaIdExcluir) - end");
-    return nombreEncontrado;
+    List<ProgramaJerarquia> subarbol = programaJerarquiaRepository.findByAncestroId(programaId);
+    List<Long> descendienteIds = subarbol.stream().map(ProgramaJerarquia::getDescendienteId)
+        .collect(Collectors.toList());
+    List<Long> ancestroIdsActuales = programaJerarquiaRepository.findByDescendienteId(programaId).stream()
+        .filter(ancestro -> ancestro.getProfundidad() > 0).map(ProgramaJerarquia::getAncestroId)
+        .collect(Collectors.toList());
+
+    if (!ancestroIdsActuales.isEmpty()) {
+      programaJerarquiaRepository.deleteByAncestroIdInAndDescendienteIdIn(ancestroIdsActuales, descendienteIds);
+    }
+
+    if (padreIdNuevo != null) {
+      List<ProgramaJerarquia> jerarquia = new ArrayList<>();
+      for (ProgramaJerarquia ancestro : programaJerarquiaRepository.findByDescendienteId(padreIdNuevo)) {
+        for (ProgramaJerarquia descendiente : subarbol) {
+          jerarquia.add(new ProgramaJerarquia(ancestro.getAncestroId(), descendiente.getDescendienteId(),
+              ancestro.getProfundidad() + descendiente.getProfundidad() + 1));
+        }
+      }
+      programaJerarquiaRepository.saveAll(jerarquia);
+    }
+
+    log.debug("moveJerarquia(Long programaId, Long padreIdNuevo) - end");
   }
 
 }
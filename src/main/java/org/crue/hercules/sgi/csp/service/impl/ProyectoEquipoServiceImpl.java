@@ -1,8 +1,10 @@
 package org.crue.hercules.sgi.csp.service.impl;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.crue.hercules.sgi.csp.exceptions.ProyectoEquipoNotFoundException;
@@ -13,6 +15,7 @@ import org.crue.hercules.sgi.csp.repository.ProyectoEquipoRepository;
 import org.crue.hercules.sgi.csp.repository.ProyectoRepository;
 import org.crue.hercules.sgi.csp.repository.specification.ProyectoEquipoSpecifications;
 import org.crue.hercules.sgi.csp.service.ProyectoEquipoService;
+import org.crue.hercules.sgi.csp.util.IntervalIndex;
 import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -60,7 +63,8 @@ public class ProyectoEquipoServiceImpl implements ProyectoEquipoService {
 
     // Periodos eliminados
     List<ProyectoEquipo> proyectoEquiposEliminar = proyectoEquipoesBD.stream()
-        .filter(periodo -> !proyectoEquipos.stream().map(ProyectoEquipo::getId).anyMatch(id -> id == periodo.getId()))
+        .filter(periodo -> !proyectoEquipos.stream().map(ProyectoEquipo::getId)
+            .anyMatch(id -> Objects.equals(id, periodo.getId())))
         .collect(Collectors.toList());
 
     if (!proyectoEquiposEliminar.isEmpty()) {
@@ -85,16 +89,15 @@ public class ProyectoEquipoServiceImpl implements ProyectoEquipoService {
 
     // Validaciones
 
-    ProyectoEquipo proyectoEquipoAnterior = null;
     for (ProyectoEquipo proyectoEquipo : proyectoEquipoAll) {
 
       // actualizando
       if (proyectoEquipo.getId() != null) {
         ProyectoEquipo proyectoEquipoBD = proyectoEquipoesBD.stream()
-            .filter(periodo -> periodo.getId() == proyectoEquipo.getId()).findFirst()
+            .filter(periodo -> Objects.equals(periodo.getId(), proyectoEquipo.getId())).findFirst()
             .orElseThrow(() -> new ProyectoEquipoNotFoundException(proyectoEquipo.getId()));
 
-        Assert.isTrue(proyectoEquipoBD.getProyectoId() == proyectoEquipo.getProyectoId(),
+        Assert.isTrue(Objects.equals(proyectoEquipoBD.getProyectoId(), proyectoEquipo.getProyectoId()),
             "No se puede modificar el proyecto del ProyectoEquipo");
       }
 
@@ -111,34 +114,14 @@ public class ProyectoEquipoServiceImpl implements ProyectoEquipoService {
                     || proyectoEquipo.getFechaFin().equals(proyecto.getFechaFin())),
             "Las fechas de proyecto equipo deben de estar dentro de la duración del proyecto");
       }
-
-      Specification<ProyectoEquipo> specByProyectoId = ProyectoEquipoSpecifications
-          .byProyectoId(proyectoEquipo.getProyectoId());
-
-      Specification<ProyectoEquipo> specByIdNotEqual = ProyectoEquipoSpecifications
-          .byIdNotEqual(proyectoEquipo.getId());
-
-      Specification<ProyectoEquipo> specByRangoFechaSolapados = ProyectoEquipoSpecifications
-          .byRangoFechaSolapados(proyectoEquipo.getFechaInicio(), proyectoEquipo.getFechaFin());
-
-      Specification<ProyectoEquipo> specByPersonaRef = ProyectoEquipoSpecifications
-          .byPersonaRef(proyectoEquipo.getPersonaRef());
-
-      Specification<ProyectoEquipo> specs = Specification.where(specByProyectoId).and(specByRangoFechaSolapados)
-          .and(specByRangoFechaSolapados).and(specByPersonaRef).and(specByIdNotEqual);
-
-      if (proyectoEquipoAnterior != null
-          && proyectoEquipoAnterior.getPersonaRef().equals(proyectoEquipo.getPersonaRef())) {
-        Assert.isTrue(
-            (repository.count(specs) == 0) && proyectoEquipoAnterior.getFechaFin() != null
-                && proyectoEquipoAnterior.getFechaFin().isBefore(proyectoEquipo.getFechaInicio()),
-            "El proyecto equipo se solapa con otro existente");
-      }
-
-      proyectoEquipoAnterior = proyectoEquipo;
-
     }
 
+    // Solapamientos de periodos de la misma persona en la lista resultante
+    IntervalIndex<String, Instant, ProyectoEquipo> periodos = new IntervalIndex<>(ProyectoEquipo::getPersonaRef,
+        ProyectoEquipo::getFechaInicio, ProyectoEquipo::getFechaFin);
+    Assert.isTrue(!periodos.addAll(proyectoEquipoAll).findFirstSolapado().isPresent(),
+        "El proyecto equipo se solapa con otro existente");
+
     List<ProyectoEquipo> returnValue = repository.saveAll(proyectoEquipoAll);
     log.debug("updateProyectoEquiposConvocatoria(Long proyectoId, List<ProyectoEquipo> proyectoEquipos) - end");
 
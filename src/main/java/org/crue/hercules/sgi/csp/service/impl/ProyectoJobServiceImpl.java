@@ -0,0 +1,380 @@
+package org.crue.hercules.sgi.csp.service.impl;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.commons.lang3.StringUtils;
+import org.crue.hercules.sgi.csp.config.ProyectoJobConfig;
+import org.crue.hercules.sgi.csp.exceptions.ProyectoJobNotFoundException;
+import org.crue.hercules.sgi.csp.exceptions.SolicitudNotFoundException;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoJob;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.repository.ProyectoJobRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudRepository;
+import org.crue.hercules.sgi.csp.service.ProyectoJobService;
+import org.crue.hercules.sgi.csp.service.ProyectoService;
+import org.crue.hercules.sgi.framework.security.core.context.SgiSecurityContextHolder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service Implementation para gestionar los {@link ProyectoJob}.
+ * <p>
+ * Cada trabajo se ejecuta en un hilo del executor
+ * {@link ProyectoJobConfig#EXECUTOR} y crea el {@link Proyecto} en su propia
+ * transacción, fuera del hilo y de la transacción de la petición HTTP. Los
+ * cambios de estado del trabajo se guardan siempre en una transacción nueva,
+ * porque también se hacen desde el callback afterCommit, cuando la transacción
+ * de la petición ya se ha confirmado y no admite más escrituras.
+ * <p>
+ * Antes de encolar un trabajo se reserva con una actualización condicional de
+ * su estado, de forma que aunque varias instancias del servicio lo encuentren
+ * pendiente solo una lo ejecuta. Cada reserva tiene un identificador propio:
+ * la fecha de inicio se renueva al empezar la ejecución y periódicamente
+ * mientras dura, y el resultado solo se guarda si el trabajo sigue reservado
+ * con la misma reserva. Así un trabajo que ha esperado en la cola o se ejecuta
+ * durante más tiempo que el máximo no lo ejecutan dos instancias a la vez.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class ProyectoJobServiceImpl implements ProyectoJobService {
+
+  /** Autoridad necesaria para crear el proyecto en la unidad de gestión */
+  private static final String AUTHORITY_CREAR_PROYECTO = "CSP-PRO-C";
+
+  private final ProyectoJobRepository repository;
+  private final SolicitudRepository solicitudRepository;
+  private final ProyectoRepository proyectoRepository;
+  private final ProyectoService proyectoService;
+  private final ObjectMapper mapper;
+  private final TaskExecutor executor;
+  private final TransactionTemplate transaccionNueva;
+  private final Duration timeout;
+
+  /** Reservas de los trabajos encolados o en ejecución en esta instancia */
+  private final Map<Long, String> reservas = new ConcurrentHashMap<>();
+
+  public ProyectoJobServiceImpl(ProyectoJobRepository repository, SolicitudRepository solicitudRepository,
+      ProyectoRepository proyectoRepository, ProyectoService proyectoService, ObjectMapper mapper,
+      @Qualifier(ProyectoJobConfig.EXECUTOR) TaskExecutor executor, PlatformTransactionManager transactionManager,
+      @Value("${sgi.csp.proyecto-job.timeout:30m}") Duration timeout) {
+    this.repository = repository;
+    this.solicitudRepository = solicitudRepository;
+    this.proyectoRepository = proyectoRepository;
+    this.proyectoService = proyectoService;
+    this.mapper = mapper;
+    this.executor = executor;
+    this.transaccionNueva = new TransactionTemplate(transactionManager);
+    this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.timeout = timeout;
+  }
+
+  /**
+   * Registra un {@link ProyectoJob} para crear el {@link Proyecto} a partir de
+   * la {@link Solicitud} y lo encola para su ejecución una vez confirmada la
+   * transacción.
+   *
+   * @param solicitudId identificador de la {@link Solicitud}.
+   * @param proyecto    datos del {@link Proyecto} a crear.
+   * @return el {@link ProyectoJob} en estado
+   *         {@link ProyectoJob.Estado#PENDIENTE}.
+   */
+  @Override
+  @Transactional
+  public ProyectoJob create(Long solicitudId, Proyecto proyecto) {
+    log.debug("create(Long solicitudId, Proyecto proyecto) - start");
+    Assert.isNull(proyecto.getId(), "Proyecto id tiene que ser null para crear un Proyecto");
+
+    Solicitud solicitud = solicitudRepository.findById(solicitudId)
+        .orElseThrow(() -> new SolicitudNotFoundException(solicitudId));
+
+    // El proyecto se crea en la unidad de gestión de la solicitud
+    Assert.isTrue(
+        SgiSecurityContextHolder.hasAuthorityForUO(AUTHORITY_CREAR_PROYECTO, solicitud.getUnidadGestionRef()),
+        "La Unidad de Gestión no es gestionable por el usuario");
+
+    ProyectoJob proyectoJob = ProyectoJob.builder()
+        .solicitudId(solicitudId)
+        .estado(ProyectoJob.Estado.PENDIENTE)
+        .datos(toJson(proyecto))
+        .unidadGestionRef(solicitud.getUnidadGestionRef())
+        .usuarioRef(SecurityContextHolder.getContext().getAuthentication().getName())
+        .build();
+
+    ProyectoJob returnValue = repository.save(proyectoJob);
+    encolarTrasCommit(returnValue);
+
+    log.debug("create(Long solicitudId, Proyecto proyecto) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene el {@link ProyectoJob} por su id.
+   *
+   * @param id el id del {@link ProyectoJob}.
+   * @return el {@link ProyectoJob}.
+   */
+  @Override
+  public ProyectoJob findById(Long id) {
+    log.debug("findById(Long id) - start");
+    ProyectoJob returnValue = repository.findById(id).orElseThrow(() -> new ProyectoJobNotFoundException(id));
+
+    Assert.isTrue(
+        SgiSecurityContextHolder.hasAuthorityForUO(AUTHORITY_CREAR_PROYECTO, returnValue.getUnidadGestionRef()),
+        "La Unidad de Gestión no es gestionable por el usuario");
+
+    log.debug("findById(Long id) - end");
+    return returnValue;
+  }
+
+  /**
+   * Vuelve a encolar los {@link ProyectoJob} que no habían terminado cuando se
+   * detuvo el servicio.
+   * <p>
+   * Se ejecuta al arrancar y periódicamente, para recoger también los trabajos
+   * en curso de una instancia que se detuvo cuando ha pasado el tiempo máximo
+   * de ejecución. Los trabajos que otra instancia sigue ejecutando no se pueden
+   * reservar y se ignoran.
+   */
+  @Override
+  @Transactional
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(initialDelayString = "${sgi.csp.proyecto-job.reanudacion-intervalo:PT5M}",
+      fixedDelayString = "${sgi.csp.proyecto-job.reanudacion-intervalo:PT5M}")
+  public void reanudarPendientes() {
+    log.debug("reanudarPendientes() - start");
+    List<ProyectoJob> pendientes = repository
+        .findAllByEstadoIn(Arrays.asList(ProyectoJob.Estado.PENDIENTE, ProyectoJob.Estado.EN_CURSO));
+    pendientes.forEach(this::encolar);
+    log.debug("reanudarPendientes() - end");
+  }
+
+  /**
+   * Renueva la fecha de inicio de los {@link ProyectoJob} encolados o en
+   * ejecución en esta instancia, para que otra instancia no los considere
+   * interrumpidos. El intervalo tiene que ser menor que el tiempo máximo de
+   * ejecución.
+   */
+  @Override
+  @Scheduled(initialDelayString = "${sgi.csp.proyecto-job.renovacion-intervalo:PT1M}",
+      fixedDelayString = "${sgi.csp.proyecto-job.renovacion-intervalo:PT1M}")
+  public void renovarReservas() {
+    log.debug("renovarReservas() - start");
+    reservas.forEach((id, reserva) -> {
+      if (!renovar(id, reserva)) {
+        log.warn("renovarReservas() - ProyectoJob {} reservado por otra instancia", id);
+        reservas.remove(id, reserva);
+      }
+    });
+    log.debug("renovarReservas() - end");
+  }
+
+  /**
+   * Encola el trabajo cuando se confirma la transacción actual, para que el
+   * hilo del executor encuentre el {@link ProyectoJob} ya persistido.
+   *
+   * @param proyectoJob el {@link ProyectoJob}.
+   */
+  private void encolarTrasCommit(ProyectoJob proyectoJob) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      encolar(proyectoJob);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+      @Override
+      public void afterCommit() {
+        encolar(proyectoJob);
+      }
+    });
+  }
+
+  /**
+   * Reserva el trabajo y lo envía al executor. Si otra instancia ya lo ha
+   * reservado no se hace nada. Si la cola está llena el trabajo se marca como
+   * erróneo para que el cliente lo vea al consultar su estado.
+   *
+   * @param proyectoJob el {@link ProyectoJob} leído, pendiente o en curso.
+   */
+  private void encolar(ProyectoJob proyectoJob) {
+    Long id = proyectoJob.getId();
+    boolean interrumpido = proyectoJob.getEstado() == ProyectoJob.Estado.EN_CURSO;
+    String reserva = reservar(id);
+    if (reserva == null) {
+      log.debug("encolar(ProyectoJob proyectoJob) - ProyectoJob {} reservado por otra instancia", id);
+      return;
+    }
+    try {
+      executor.execute(() -> ejecutar(id, reserva, interrumpido));
+    } catch (TaskRejectedException e) {
+      log.warn("encolar(ProyectoJob proyectoJob) - ProyectoJob {} rechazado: {}", id, e.getMessage());
+      finalizar(proyectoJob, reserva, null,
+          "No se ha podido encolar el trabajo, número máximo de trabajos en espera alcanzado");
+    }
+  }
+
+  /**
+   * Reserva la ejecución del {@link ProyectoJob} en una transacción nueva.
+   *
+   * @param id el id del {@link ProyectoJob}.
+   * @return el identificador de la reserva o null si el trabajo no se ha podido
+   *         reservar.
+   */
+  private String reservar(Long id) {
+    String reserva = UUID.randomUUID().toString();
+    Instant fechaInicio = Instant.now();
+    Integer actualizados = transaccionNueva.execute(status -> repository.reservarEjecucion(id, reserva,
+        ProyectoJob.Estado.PENDIENTE, ProyectoJob.Estado.EN_CURSO, fechaInicio, fechaInicio.minus(timeout)));
+    if (actualizados == null || actualizados == 0) {
+      return null;
+    }
+    reservas.put(id, reserva);
+    return reserva;
+  }
+
+  /**
+   * Renueva la fecha de inicio del {@link ProyectoJob} en una transacción nueva
+   * si sigue reservado con la reserva indicada.
+   *
+   * @param id      el id del {@link ProyectoJob}.
+   * @param reserva el identificador de la reserva.
+   * @return true si el trabajo sigue reservado por esta instancia.
+   */
+  private boolean renovar(Long id, String reserva) {
+    Integer actualizados = transaccionNueva.execute(status -> repository.renovarEjecucion(id, reserva,
+        ProyectoJob.Estado.EN_CURSO, Instant.now()));
+    return actualizados != null && actualizados > 0;
+  }
+
+  /**
+   * Ejecuta el {@link ProyectoJob}, ya reservado, en el hilo del executor.
+   * <p>
+   * Se ejecuta sin transacción propia: los cambios de estado del trabajo se
+   * guardan cada uno en su transacción y el {@link Proyecto} se crea en la
+   * transacción de {@link ProyectoService#createProyectoBySolicitud(Long, Proyecto)}.
+   *
+   * @param id           el id del {@link ProyectoJob}.
+   * @param reserva      el identificador de la reserva.
+   * @param interrumpido si el trabajo estaba en curso en una instancia que se
+   *                     detuvo.
+   */
+  private void ejecutar(Long id, String reserva, boolean interrumpido) {
+    log.debug("ejecutar(Long id, String reserva, boolean interrumpido) - start");
+    // Mientras esperaba en la cola otra instancia ha podido reservar el trabajo
+    if (!renovar(id, reserva)) {
+      log.warn("ejecutar(Long id, String reserva, boolean interrumpido) - ProyectoJob {} reservado por otra instancia",
+          id);
+      reservas.remove(id, reserva);
+      return;
+    }
+    ProyectoJob proyectoJob = repository.findById(id).orElseThrow(() -> new ProyectoJobNotFoundException(id));
+
+    // Un trabajo interrumpido en curso puede haber creado el proyecto sin llegar
+    // a guardar su estado final
+    if (interrumpido) {
+      Optional<Proyecto> proyectoCreado = proyectoRepository.findBySolicitudId(proyectoJob.getSolicitudId());
+      if (proyectoCreado.isPresent()) {
+        finalizar(proyectoJob, reserva, proyectoCreado.get().getId(), null);
+        log.debug("ejecutar(Long id, String reserva, boolean interrumpido) - end");
+        return;
+      }
+    }
+
+    SecurityContext securityContextPrevio = SecurityContextHolder.getContext();
+    SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+    securityContext.setAuthentication(getAuthentication(proyectoJob));
+    SecurityContextHolder.setContext(securityContext);
+    try {
+      Proyecto proyecto = mapper.readValue(proyectoJob.getDatos(), Proyecto.class);
+      Proyecto returnValue = proyectoService.createProyectoBySolicitud(proyectoJob.getSolicitudId(), proyecto);
+      finalizar(proyectoJob, reserva, returnValue.getId(), null);
+    } catch (IOException | RuntimeException e) {
+      log.error("ejecutar(Long id, String reserva, boolean interrumpido) - ProyectoJob {} erróneo", id, e);
+      finalizar(proyectoJob, reserva, null, StringUtils.defaultIfBlank(e.getMessage(), e.getClass().getName()));
+    } finally {
+      SecurityContextHolder.setContext(securityContextPrevio);
+    }
+    log.debug("ejecutar(Long id, String reserva, boolean interrumpido) - end");
+  }
+
+  /**
+   * Guarda el estado final del {@link ProyectoJob} en una transacción nueva,
+   * independiente de la transacción activa en el hilo, si la hay. Si otra
+   * instancia ha reservado el trabajo entretanto no se guarda nada.
+   *
+   * @param proyectoJob el {@link ProyectoJob}.
+   * @param reserva     el identificador de la reserva.
+   * @param proyectoId  el id del {@link Proyecto} creado o null si ha fallado.
+   * @param error       el mensaje de error o null si ha terminado
+   *                    correctamente.
+   */
+  private void finalizar(ProyectoJob proyectoJob, String reserva, Long proyectoId, String error) {
+    reservas.remove(proyectoJob.getId(), reserva);
+    proyectoJob.setEstado(error == null ? ProyectoJob.Estado.COMPLETADO : ProyectoJob.Estado.ERROR);
+    proyectoJob.setProyectoId(proyectoId);
+    proyectoJob.setError(StringUtils.abbreviate(error, 2000));
+    proyectoJob.setFechaFin(Instant.now());
+    Integer actualizados = transaccionNueva.execute(status -> repository.finalizarEjecucion(proyectoJob.getId(),
+        reserva, ProyectoJob.Estado.EN_CURSO, proyectoJob.getEstado(), proyectoJob.getProyectoId(),
+        proyectoJob.getError(), proyectoJob.getFechaFin()));
+    if (actualizados == null || actualizados == 0) {
+      log.warn("finalizar(ProyectoJob proyectoJob, String reserva, Long proyectoId, String error) - "
+          + "ProyectoJob {} reservado por otra instancia, no se guarda su estado {}", proyectoJob.getId(),
+          proyectoJob.getEstado());
+    }
+  }
+
+  /**
+   * Usuario con el que se ejecuta el trabajo: el usuario que lo solicitó, con la
+   * autoridad de creación de proyectos en la unidad de gestión de la
+   * {@link Solicitud}, que ya se comprobó al registrar el trabajo. Así el
+   * trabajo se puede reanudar tras un reinicio, sin el token original.
+   *
+   * @param proyectoJob el {@link ProyectoJob}.
+   * @return la autenticación del trabajo.
+   */
+  private UsernamePasswordAuthenticationToken getAuthentication(ProyectoJob proyectoJob) {
+    return new UsernamePasswordAuthenticationToken(proyectoJob.getUsuarioRef(), null, AuthorityUtils
+        .createAuthorityList(AUTHORITY_CREAR_PROYECTO + "_" + proyectoJob.getUnidadGestionRef()));
+  }
+
+  private String toJson(Proyecto proyecto) {
+    try {
+      return mapper.writeValueAsString(proyecto);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Los datos del proyecto no son válidos", e);
+    }
+  }
+
+}
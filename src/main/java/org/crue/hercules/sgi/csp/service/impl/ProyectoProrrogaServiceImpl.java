@@ -3,6 +3,7 @@ package org.crue.hercules.sgi.csp.service.impl;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -150,7 +151,7 @@ public class ProyectoProrrogaServiceImpl implements ProyectoProrrogaService {
 
       // Solamente se puede modificar la última prórroga
       if (ultimoProyectoProrroga.isPresent()) {
-        Assert.isTrue(proyectoProrroga.getId() == ultimoProyectoProrroga.get().getId(),
+        Assert.isTrue(Objects.equals(proyectoProrroga.getId(), ultimoProyectoProrroga.get().getId()),
             "Sólo se permite eliminar la última prórroga");
       }
       return proyectoProrroga;
@@ -309,7 +310,7 @@ public class ProyectoProrrogaServiceImpl implements ProyectoProrrogaService {
             "Fecha de concesión debe ser posterior a la de la última prórroga");
       } else {
         // Se trata de una modificación
-        Assert.isTrue(datosProyectoProrroga.getId() == ultimoProyectoProrroga.get().getId(),
+        Assert.isTrue(Objects.equals(datosProyectoProrroga.getId(), ultimoProyectoProrroga.get().getId()),
             "Sólo se permite modificar la última prórroga");
 
         // Se recupera el ProyectoProrroga inmediatamente anterior
@@ -3,14 +3,23 @@ package org.crue.hercules.sgi.csp.service.impl;
 import java.time.Instant;
 import java.time.Period;
 import java.time.ZoneOffset;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.crue.hercules.sgi.csp.dto.ProyectoCapacidades;
+import org.crue.hercules.sgi.csp.dto.ProyectoDossier;
 import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
 import org.crue.hercules.sgi.csp.exceptions.ConvocatoriaNotFoundException;
 import org.crue.hercules.sgi.csp.exceptions.ProyectoNotFoundException;
 import org.crue.hercules.sgi.csp.exceptions.SolicitudNotFoundException;
+import org.crue.hercules.sgi.csp.exceptions.VersionAgregadoMismatchException;
 import org.crue.hercules.sgi.csp.model.ContextoProyecto;
 import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaAreaTematica;
@@ -24,24 +33,19 @@ import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.ModeloUnidad;
 import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoDocumento;
 import org.crue.hercules.sgi.csp.model.ProyectoEntidadConvocante;
 import org.crue.hercules.sgi.csp.model.ProyectoEntidadFinanciadora;
 import org.crue.hercules.sgi.csp.model.ProyectoEntidadGestora;
 import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoFase;
+import org.crue.hercules.sgi.csp.model.ProyectoHito;
+import org.crue.hercules.sgi.csp.model.ProyectoPaqueteTrabajo;
 import org.crue.hercules.sgi.csp.model.ProyectoPeriodoSeguimiento;
+import org.crue.hercules.sgi.csp.model.ProyectoProrroga;
 import org.crue.hercules.sgi.csp.model.ProyectoSocio;
-import org.crue.hercules.sgi.csp.model.ProyectoSocioEquipo;
-import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoJustificacion;
-import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoPago;
 import org.crue.hercules.sgi.csp.model.Solicitud;
-import org.crue.hercules.sgi.csp.model.SolicitudModalidad;
 import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
-import org.crue.hercules.sgi.csp.model.SolicitudProyectoEntidadFinanciadoraAjena;
-import org.crue.hercules.sgi.csp.model.SolicitudProyectoEquipo;
-import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioEquipo;
-import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioPeriodoJustificacion;
-import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioPeriodoPago;
-import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocio;
 import org.crue.hercules.sgi.csp.repository.ConvocatoriaAreaTematicaRepository;
 import org.crue.hercules.sgi.csp.repository.ConvocatoriaConceptoGastoRepository;
 import org.crue.hercules.sgi.csp.repository.ConvocatoriaEntidadConvocanteRepository;
@@ -51,16 +55,8 @@ import org.crue.hercules.sgi.csp.repository.ConvocatoriaPeriodoSeguimientoCienti
 import org.crue.hercules.sgi.csp.repository.ConvocatoriaRepository;
 import org.crue.hercules.sgi.csp.repository.EstadoProyectoRepository;
 import org.crue.hercules.sgi.csp.repository.ModeloUnidadRepository;
-import org.crue.hercules.sgi.csp.repository.ProgramaRepository;
 import org.crue.hercules.sgi.csp.repository.ProyectoRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudModalidadRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoEntidadFinanciadoraAjenaRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoEquipoRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioEquipoRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioPeriodoJustificacionRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioPeriodoPagoRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudProyectoRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudRepository;
 import org.crue.hercules.sgi.csp.repository.predicate.ProyectoPredicateResolver;
 import org.crue.hercules.sgi.csp.repository.specification.ConvocatoriaEntidadConvocanteSpecifications;
@@ -69,18 +65,19 @@ import org.crue.hercules.sgi.csp.service.ContextoProyectoService;
 import org.crue.hercules.sgi.csp.service.ProyectoEntidadConvocanteService;
 import org.crue.hercules.sgi.csp.service.ProyectoEntidadFinanciadoraService;
 import org.crue.hercules.sgi.csp.service.ProyectoEntidadGestoraService;
-import org.crue.hercules.sgi.csp.service.ProyectoEquipoService;
 import org.crue.hercules.sgi.csp.service.ProyectoPeriodoSeguimientoService;
 import org.crue.hercules.sgi.csp.service.ProyectoService;
-import org.crue.hercules.sgi.csp.service.ProyectoSocioEquipoService;
-import org.crue.hercules.sgi.csp.service.ProyectoSocioPeriodoJustificacionService;
-import org.crue.hercules.sgi.csp.service.ProyectoSocioPeriodoPagoService;
-import org.crue.hercules.sgi.csp.service.ProyectoSocioService;
+import org.crue.hercules.sgi.csp.service.ProyectoSolicitudCopyService;
+import org.crue.hercules.sgi.csp.util.AutorizacionUnidades;
+import org.crue.hercules.sgi.csp.util.AutorizacionUnidadesHolder;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
 import org.crue.hercules.sgi.csp.util.ProyectoHelper;
+import org.crue.hercules.sgi.csp.util.TotalCountCache;
 import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
-import org.crue.hercules.sgi.framework.security.core.context.SgiSecurityContextHolder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -101,6 +98,9 @@ public class ProyectoServiceImpl implements ProyectoService {
    */
   private static final Boolean DEFAULT_COPY_ENTIDAD_FINANCIADORA_AJENA_VALUE = Boolean.FALSE;
 
+  /** Número máximo de {@link Proyecto} por consulta de capacidades */
+  private static final int CAPACIDADES_MAX_IDS = 100;
+
   private final ProyectoRepository repository;
   private final EstadoProyectoRepository estadoProyectoRepository;
   private final ModeloUnidadRepository modeloUnidadRepository;
@@ -117,20 +117,9 @@ public class ProyectoServiceImpl implements ProyectoService {
   private final ProyectoPeriodoSeguimientoService proyectoPeriodoSeguimientoService;
   private final SolicitudRepository solicitudRepository;
   private final SolicitudProyectoRepository solicitudProyectoRepository;
-  private final SolicitudModalidadRepository solicitudModalidadRepository;
-  private final SolicitudProyectoEquipoRepository solicitudEquipoRepository;
-  private final ProyectoEquipoService proyectoEquipoService;
-  private final SolicitudProyectoSocioRepository solicitudSocioRepository;
-  private final ProyectoSocioService proyectoSocioService;
-  private final SolicitudProyectoSocioEquipoRepository solicitudEquipoSocioRepository;
-  private final ProyectoSocioEquipoService proyectoEquipoSocioService;
-  private final SolicitudProyectoSocioPeriodoPagoRepository solicitudPeriodoPagoRepository;
-  private final ProyectoSocioPeriodoPagoService proyectoSocioPeriodoPagoService;
-  private final SolicitudProyectoSocioPeriodoJustificacionRepository solicitudPeriodoJustificacionRepository;
-  private final ProyectoSocioPeriodoJustificacionService proyectoSocioPeriodoJustificacionService;
+  private final ProyectoSolicitudCopyService proyectoSolicitudCopyService;
   private final ConvocatoriaConceptoGastoRepository convocatoriaConceptoGastoRepository;
-  private final SolicitudProyectoEntidadFinanciadoraAjenaRepository solicitudProyectoEntidadFinanciadoraAjenaRepository;
-  private final ProgramaRepository programaRepository;
+  private final TotalCountCache totalCountCache;
 
   public ProyectoServiceImpl(ProyectoRepository repository, EstadoProyectoRepository estadoProyectoRepository,
       ModeloUnidadRepository modeloUnidadRepository, ConvocatoriaRepository convocatoriaRepository,
@@ -145,18 +134,8 @@ public class ProyectoServiceImpl implements ProyectoService {
       ConvocatoriaPeriodoSeguimientoCientificoRepository convocatoriaPeriodoSeguimientoCientificoRepository,
       ProyectoPeriodoSeguimientoService proyectoPeriodoSeguimientoService, SolicitudRepository solicitudRepository,
       SolicitudProyectoRepository solicitudProyectoRepository,
-      SolicitudModalidadRepository solicitudModalidadRepository,
-      SolicitudProyectoEquipoRepository solicitudEquipoRepository, ProyectoEquipoService proyectoEquipoService,
-      SolicitudProyectoSocioRepository solicitudSocioRepository, ProyectoSocioService proyectoSocioService,
-      SolicitudProyectoSocioEquipoRepository solicitudEquipoSocioRepository,
-      ProyectoSocioEquipoService proyectoEquipoSocioService,
-      SolicitudProyectoSocioPeriodoPagoRepository solicitudPeriodoPagoRepository,
-      ProyectoSocioPeriodoPagoService proyectoSocioPeriodoPagoService,
-      SolicitudProyectoSocioPeriodoJustificacionRepository solicitudPeriodoJustificacionRepository,
-      ProyectoSocioPeriodoJustificacionService proyectoSocioPeriodoJustificacionService,
-      ConvocatoriaConceptoGastoRepository convocatoriaConceptoGastoRepository,
-      SolicitudProyectoEntidadFinanciadoraAjenaRepository solicitudProyectoEntidadFinanciadoraAjenaRepository,
-      ProgramaRepository programaRepository) {
+      ProyectoSolicitudCopyService proyectoSolicitudCopyService,
+      ConvocatoriaConceptoGastoRepository convocatoriaConceptoGastoRepository, TotalCountCache totalCountCache) {
     this.repository = repository;
     this.estadoProyectoRepository = estadoProyectoRepository;
     this.modeloUnidadRepository = modeloUnidadRepository;
@@ -173,20 +152,9 @@ public class ProyectoServiceImpl implements ProyectoService {
     this.proyectoEntidadGestoraService = proyectoEntidadGestoraService;
     this.solicitudRepository = solicitudRepository;
     this.solicitudProyectoRepository = solicitudProyectoRepository;
-    this.solicitudModalidadRepository = solicitudModalidadRepository;
-    this.solicitudEquipoRepository = solicitudEquipoRepository;
-    this.proyectoEquipoService = proyectoEquipoService;
-    this.solicitudSocioRepository = solicitudSocioRepository;
-    this.proyectoSocioService = proyectoSocioService;
-    this.solicitudEquipoSocioRepository = solicitudEquipoSocioRepository;
-    this.proyectoEquipoSocioService = proyectoEquipoSocioService;
-    this.solicitudPeriodoPagoRepository = solicitudPeriodoPagoRepository;
-    this.proyectoSocioPeriodoPagoService = proyectoSocioPeriodoPagoService;
-    this.solicitudPeriodoJustificacionRepository = solicitudPeriodoJustificacionRepository;
-    this.proyectoSocioPeriodoJustificacionService = proyectoSocioPeriodoJustificacionService;
+    this.proyectoSolicitudCopyService = proyectoSolicitudCopyService;
     this.convocatoriaConceptoGastoRepository = convocatoriaConceptoGastoRepository;
-    this.solicitudProyectoEntidadFinanciadoraAjenaRepository = solicitudProyectoEntidadFinanciadoraAjenaRepository;
-    this.programaRepository = programaRepository;
+    this.totalCountCache = totalCountCache;
   }
 
   /**
@@ -201,7 +169,7 @@ public class ProyectoServiceImpl implements ProyectoService {
     log.debug("create(Proyecto proyecto) - start");
     Assert.isNull(proyecto.getId(), "Proyecto id tiene que ser null para crear un Proyecto");
     // TODO: Add right authority
-    Assert.isTrue(SgiSecurityContextHolder.hasAuthorityForUO("CSP-PRO-C", proyecto.getUnidadGestionRef()),
+    Assert.isTrue(AutorizacionUnidadesHolder.get().hasAuthorityForUO("CSP-PRO-C", proyecto.getUnidadGestionRef()),
         "La Unidad de Gestión no es gestionable por el usuario");
 
     this.validarDatos(proyecto);
@@ -286,6 +254,60 @@ public class ProyectoServiceImpl implements ProyectoService {
     }).orElseThrow(() -> new ProyectoNotFoundException(proyectoActualizar.getId()));
   }
 
+  /**
+   * Actualiza los datos del {@link Proyecto} comprobando antes que su versión
+   * coincide con la indicada. La fila del {@link Proyecto} se bloquea hasta el
+   * final de la transacción para que nadie la modifique entre la comprobación y
+   * la actualización.
+   *
+   * @param proyecto {@link Proyecto} con los datos actualizados.
+   * @param version  versión del {@link Proyecto} sobre la que se han hecho los
+   *                 cambios.
+   * @return {@link Proyecto} actualizado.
+   */
+  @Override
+  @Transactional
+  public Proyecto update(Proyecto proyecto, Long version) {
+    log.debug("update(Proyecto proyecto, Long version) - start");
+
+    Assert.notNull(proyecto.getId(), "Id no puede ser null para actualizar Proyecto");
+    Assert.notNull(version, "Version no puede ser null para actualizar Proyecto");
+
+    Long versionActual = repository.getVersionForUpdate(proyecto.getId())
+        .orElseThrow(() -> new ProyectoNotFoundException(proyecto.getId()));
+    if (!versionActual.equals(version)) {
+      throw new VersionAgregadoMismatchException("Proyecto", proyecto.getId());
+    }
+    Proyecto returnValue = update(proyecto);
+
+    log.debug("update(Proyecto proyecto, Long version) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la versión del {@link Proyecto} si el usuario lo puede consultar,
+   * con las mismas comprobaciones que {@link #findById(Long)}.
+   *
+   * @param id Id del {@link Proyecto}.
+   * @return la versión, vacía si no existe o el usuario no lo puede consultar.
+   */
+  @Override
+  public Optional<Long> findVersion(Long id) {
+    log.debug("findVersion(Long id) - start");
+    AutorizacionUnidades autorizacion = AutorizacionUnidadesHolder.get();
+    Optional<Long> returnValue;
+    if (Arrays.stream(ProyectoHelper.AUTHORITIES_LECTURA).anyMatch(autorizacion::hasAuthority)) {
+      returnValue = repository.getVersion(id);
+    } else {
+      List<String> unidadesGestion = Arrays.stream(ProyectoHelper.AUTHORITIES_LECTURA)
+          .flatMap(authority -> autorizacion.getUOsForAuthority(authority).stream()).distinct()
+          .collect(Collectors.toList());
+      returnValue = repository.getVersion(id, unidadesGestion);
+    }
+    log.debug("findVersion(Long id) - end");
+    return returnValue;
+  }
+
   /**
    * Reactiva el {@link Proyecto}.
    *
@@ -301,7 +323,7 @@ public class ProyectoServiceImpl implements ProyectoService {
 
     return repository.findById(id).map(proyecto -> {
       // TODO: Add right authority
-      Assert.isTrue(SgiSecurityContextHolder.hasAuthorityForUO("CSP-PRO-C", proyecto.getUnidadGestionRef()),
+      Assert.isTrue(AutorizacionUnidadesHolder.get().hasAuthorityForUO("CSP-PRO-C", proyecto.getUnidadGestionRef()),
           "El proyecto pertenece a una Unidad de Gestión no gestionable por el usuario");
 
       if (proyecto.getActivo()) {
@@ -332,7 +354,7 @@ public class ProyectoServiceImpl implements ProyectoService {
 
     return repository.findById(id).map(proyecto -> {
       // TODO: Add right authority
-      Assert.isTrue(SgiSecurityContextHolder.hasAuthorityForUO("CSP-PRO-C", proyecto.getUnidadGestionRef()),
+      Assert.isTrue(AutorizacionUnidadesHolder.get().hasAuthorityForUO("CSP-PRO-C", proyecto.getUnidadGestionRef()),
           "El proyecto pertenece a una Unidad de Gestión no gestionable por el usuario");
 
       if (!proyecto.getActivo()) {
@@ -362,6 +384,31 @@ public class ProyectoServiceImpl implements ProyectoService {
     return existe;
   }
 
+  /**
+   * Obtiene para cada uno de los {@link Proyecto} indicados si es modificable,
+   * con una única consulta.
+   *
+   * @param ids Ids de los {@link Proyecto}.
+   * @return las capacidades de los {@link Proyecto} que existen, en el orden de
+   *         los ids.
+   */
+  @Override
+  public List<ProyectoCapacidades> findCapacidades(List<Long> ids) {
+    log.debug("findCapacidades(List<Long> ids) - start");
+    Assert.isTrue(ids.size() <= CAPACIDADES_MAX_IDS,
+        "No se pueden consultar más de " + CAPACIDADES_MAX_IDS + " proyectos");
+
+    Map<Long, Proyecto> proyectos = repository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Proyecto::getId, Function.identity()));
+
+    List<ProyectoCapacidades> returnValue = new LinkedHashSet<>(ids).stream().filter(proyectos::containsKey)
+        .map(id -> new ProyectoCapacidades(id, ProyectoHelper.isModificable(proyectos.get(id))))
+        .collect(Collectors.toList());
+
+    log.debug("findCapacidades(List<Long> ids) - end");
+    return returnValue;
+  }
+
   /**
    * Obtiene el {@link ModeloEjecucion} asignada al {@link Proyecto}.
    * 
@@ -397,6 +444,66 @@ public class ProyectoServiceImpl implements ProyectoService {
     return returnValue;
   }
 
+  /**
+   * Obtiene el {@link Proyecto} con las colecciones hijas de las secciones
+   * indicadas, con una consulta por sección y sin consultas count.
+   *
+   * @param id        Identificador de la entidad {@link Proyecto}.
+   * @param secciones secciones del dossier a cargar.
+   * @return el {@link ProyectoDossier}.
+   */
+  @Override
+  public ProyectoDossier findDossier(Long id, Set<ProyectoDossier.Seccion> secciones) {
+    log.debug("findDossier(Long id, Set<ProyectoDossier.Seccion> secciones) - start");
+    Assert.notEmpty(secciones, "Es necesaria al menos una sección del dossier");
+
+    ProyectoDossier returnValue = ProyectoDossier.builder().proyecto(findById(id)).build();
+    for (ProyectoDossier.Seccion seccion : secciones) {
+      switch (seccion) {
+        case PROYECTO_HITOS:
+          returnValue.setProyectoHitos(repository.findAllRelacionados(ProyectoHito.class, id));
+          break;
+        case PROYECTO_FASES:
+          returnValue.setProyectoFases(repository.findAllRelacionados(ProyectoFase.class, id));
+          break;
+        case PROYECTO_PAQUETE_TRABAJOS:
+          returnValue.setProyectoPaqueteTrabajos(repository.findAllRelacionados(ProyectoPaqueteTrabajo.class, id));
+          break;
+        case PROYECTO_SOCIOS:
+          returnValue.setProyectoSocios(repository.findAllRelacionados(ProyectoSocio.class, id));
+          break;
+        case PROYECTO_ENTIDAD_FINANCIADORAS:
+          returnValue
+              .setProyectoEntidadFinanciadoras(repository.findAllRelacionados(ProyectoEntidadFinanciadora.class, id));
+          break;
+        case DOCUMENTOS:
+          returnValue.setDocumentos(repository.findAllRelacionados(ProyectoDocumento.class, id));
+          break;
+        case PROYECTO_PERIODO_SEGUIMIENTOS:
+          returnValue
+              .setProyectoPeriodoSeguimientos(repository.findAllRelacionados(ProyectoPeriodoSeguimiento.class, id));
+          break;
+        case PROYECTO_ENTIDAD_GESTORAS:
+          returnValue.setProyectoEntidadGestoras(repository.findAllRelacionados(ProyectoEntidadGestora.class, id));
+          break;
+        case PROYECTO_EQUIPOS:
+          returnValue.setProyectoEquipos(repository.findAllRelacionados(ProyectoEquipo.class, id));
+          break;
+        case PROYECTO_PRORROGAS:
+          returnValue.setProyectoProrrogas(repository.findAllRelacionados(ProyectoProrroga.class, id));
+          break;
+        case ESTADO_PROYECTOS:
+          returnValue.setEstadoProyectos(repository.findAllRelacionados(EstadoProyecto.class, id));
+          break;
+        default:
+          break;
+      }
+    }
+
+    log.debug("findDossier(Long id, Set<ProyectoDossier.Seccion> secciones) - end");
+    return returnValue;
+  }
+
   /**
    * Obtiene todas las entidades {@link Proyecto} activas paginadas y filtradas.
    *
@@ -409,22 +516,74 @@ public class ProyectoServiceImpl implements ProyectoService {
   public Page<Proyecto> findAllRestringidos(String query, Pageable paging) {
     log.debug("findAll(String query, Pageable paging) - start");
 
-    Specification<Proyecto> specs = ProyectoSpecifications.activos()
-        .and(SgiRSQLJPASupport.toSpecification(query, ProyectoPredicateResolver.getInstance(programaRepository)));
+    Specification<Proyecto> specs = getSpecsFindAllRestringidos(query);
 
-    // TODO: Add right authority
-    // No tiene acceso a todos los UO
-    if (!SgiSecurityContextHolder.hasAuthority("CSP-PRO-C")) {
-      Specification<Proyecto> specByUnidadGestionRefIn = ProyectoSpecifications
-          .unidadGestionRefIn(SgiSecurityContextHolder.getUOsForAuthority("CSP-PRO-C"));
-      specs = specs.and(specByUnidadGestionRefIn);
-    }
-
-    Page<Proyecto> returnValue = repository.findAll(specs, paging);
+    Page<Proyecto> returnValue = repository.findAll(restringirUnidadGestion(specs), paging);
     log.debug("findAll(String query, Pageable paging) - end");
     return returnValue;
   }
 
+  /**
+   * Obtiene la página de entidades {@link Proyecto} activas filtradas que sigue
+   * al cursor indicado, sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging tamaño de página y ordenación de la primera página.
+   * @return la página de entidades {@link Proyecto} con el cursor de la
+   *         siguiente.
+   */
+  @Override
+  public KeysetSlice<Proyecto> findAllRestringidos(String query, String cursor, Pageable paging) {
+    log.debug("findAllRestringidos(String query, String cursor, Pageable paging) - start");
+
+    Specification<Proyecto> specs = getSpecsFindAllRestringidos(query);
+
+    KeysetSlice<Proyecto> returnValue = repository.findAllKeyset(restringirUnidadGestion(specs),
+        KeysetCursor.of(cursor, paging.getSort()), paging.getPageSize());
+    log.debug("findAllRestringidos(String query, String cursor, Pageable paging) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Proyecto} activas filtradas,
+   * sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Proyecto} sin el número total de
+   *         elementos.
+   */
+  @Override
+  public Slice<Proyecto> findAllRestringidosSinTotal(String query, Pageable paging) {
+    log.debug("findAllRestringidosSinTotal(String query, Pageable paging) - start");
+    Specification<Proyecto> specs = restringirUnidadGestion(getSpecsFindAllRestringidos(query));
+    Slice<Proyecto> returnValue = repository.findAllSlice(specs, paging);
+    log.debug("findAllRestringidosSinTotal(String query, Pageable paging) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Proyecto} activas filtradas,
+   * con el número total de elementos estimado: el total se reutiliza durante un
+   * tiempo para el mismo filtro en lugar de lanzar la consulta count en cada
+   * página.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Proyecto} con el total estimado.
+   */
+  @Override
+  public Page<Proyecto> findAllRestringidosTotalEstimado(String query, Pageable paging) {
+    log.debug("findAllRestringidosTotalEstimado(String query, Pageable paging) - start");
+    Specification<Proyecto> specs = restringirUnidadGestion(getSpecsFindAllRestringidos(query));
+    String clave = getClaveTotal("proyecto", query);
+    Page<Proyecto> returnValue = totalCountCache.toPage(clave, repository.findAllSlice(specs, paging),
+        () -> repository.count(specs));
+    log.debug("findAllRestringidosTotalEstimado(String query, Pageable paging) - end");
+    return returnValue;
+  }
+
   /**
    * Obtiene todas las entidades {@link Proyecto} paginadas y filtradas.
    *
@@ -438,21 +597,130 @@ public class ProyectoServiceImpl implements ProyectoService {
 
     Specification<Proyecto> specs = SgiRSQLJPASupport.toSpecification(query);
 
-    // TODO: Add right authority
-    // No tiene acceso a todos los UO
-    if (!SgiSecurityContextHolder.hasAuthority("CSP-PRO-C")) {
-      Specification<Proyecto> specByUnidadGestionRefIn = ProyectoSpecifications
-          .unidadGestionRefIn(SgiSecurityContextHolder.getUOsForAuthority("CSP-PRO-C"));
-      specs = specs.and(specByUnidadGestionRefIn);
-    }
-
     // TODO implementar buscador avanzado
 
-    Page<Proyecto> returnValue = repository.findAll(specs, paging);
+    Page<Proyecto> returnValue = repository.findAll(restringirUnidadGestion(specs), paging);
     log.debug("findAll(String query, Pageable paging) - end");
     return returnValue;
   }
 
+  /**
+   * Obtiene la página de entidades {@link Proyecto} filtradas que sigue al
+   * cursor indicado, sin consulta count.
+   *
+   * @param query  información del filtro.
+   * @param cursor cursor de la página o vacío para la primera.
+   * @param paging tamaño de página y ordenación de la primera página.
+   * @return la página de entidades {@link Proyecto} con el cursor de la
+   *         siguiente.
+   */
+  @Override
+  public KeysetSlice<Proyecto> findAllTodosRestringidos(String query, String cursor, Pageable paging) {
+    log.debug("findAllTodosRestringidos(String query, String cursor, Pageable paging) - start");
+
+    Specification<Proyecto> specs = SgiRSQLJPASupport.toSpecification(query);
+
+    KeysetSlice<Proyecto> returnValue = repository.findAllKeyset(restringirUnidadGestion(specs),
+        KeysetCursor.of(cursor, paging.getSort()), paging.getPageSize());
+    log.debug("findAllTodosRestringidos(String query, String cursor, Pageable paging) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Proyecto} filtradas, sin
+   * consulta count.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Proyecto} sin el número total de
+   *         elementos.
+   */
+  @Override
+  public Slice<Proyecto> findAllTodosRestringidosSinTotal(String query, Pageable paging) {
+    log.debug("findAllTodosRestringidosSinTotal(String query, Pageable paging) - start");
+    Specification<Proyecto> specs = restringirUnidadGestion(SgiRSQLJPASupport.toSpecification(query));
+    Slice<Proyecto> returnValue = repository.findAllSlice(specs, paging);
+    log.debug("findAllTodosRestringidosSinTotal(String query, Pageable paging) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Proyecto} filtradas, con el
+   * número total de elementos estimado: el total se reutiliza durante un tiempo
+   * para el mismo filtro en lugar de lanzar la consulta count en cada página.
+   *
+   * @param query  información del filtro.
+   * @param paging información de paginación.
+   * @return la página de entidades {@link Proyecto} con el total estimado.
+   */
+  @Override
+  public Page<Proyecto> findAllTodosRestringidosTotalEstimado(String query, Pageable paging) {
+    log.debug("findAllTodosRestringidosTotalEstimado(String query, Pageable paging) - start");
+    Specification<Proyecto> specs = restringirUnidadGestion(SgiRSQLJPASupport.toSpecification(query));
+    String clave = getClaveTotal("proyecto.todos", query);
+    Page<Proyecto> returnValue = totalCountCache.toPage(clave, repository.findAllSlice(specs, paging),
+        () -> repository.count(specs));
+    log.debug("findAllTodosRestringidosTotalEstimado(String query, Pageable paging) - end");
+    return returnValue;
+  }
+
+  /**
+   * Aplica la acción a cada {@link Proyecto} filtrado de las unidades de gestión
+   * del usuario, en orden de id, sin cargar el listado completo en memoria.
+   *
+   * @param query  información del filtro.
+   * @param action acción a aplicar a cada {@link Proyecto}.
+   * @return el número de {@link Proyecto} exportados.
+   */
+  @Override
+  public long exportTodosRestringidos(String query, Consumer<? super Proyecto> action) {
+    log.debug("exportTodosRestringidos(String query, Consumer<? super Proyecto> action) - start");
+    Specification<Proyecto> specs = restringirUnidadGestion(SgiRSQLJPASupport.toSpecification(query));
+    long returnValue = repository.forEach(specs, action);
+    log.debug("exportTodosRestringidos(String query, Consumer<? super Proyecto> action) - end");
+    return returnValue;
+  }
+
+  private Specification<Proyecto> getSpecsFindAllRestringidos(String query) {
+    return ProyectoSpecifications.activos()
+        .and(SgiRSQLJPASupport.toSpecification(query, ProyectoPredicateResolver.getInstance()));
+  }
+
+  /**
+   * Clave del total de un listado: el filtro y las unidades de gestión a las que
+   * se restringe para el usuario.
+   *
+   * @param listado nombre del listado.
+   * @param query   filtro de la consulta.
+   * @return la clave del total en la caché.
+   */
+  private String getClaveTotal(String listado, String query) {
+    // "*" identifica el acceso a todas las unidades de gestión
+    AutorizacionUnidades autorizacion = AutorizacionUnidadesHolder.get();
+    List<String> unidadesGestion = autorizacion.hasAuthority("CSP-PRO-C") ? Arrays.asList("*")
+        : autorizacion.getUOsForAuthority("CSP-PRO-C");
+    return TotalCountCache.key(listado, query, unidadesGestion);
+  }
+
+  /**
+   * Restringe el filtro a las unidades de gestión del usuario si no tiene
+   * acceso a todas.
+   *
+   * @param specs filtro de la consulta.
+   * @return el filtro restringido.
+   */
+  private Specification<Proyecto> restringirUnidadGestion(Specification<Proyecto> specs) {
+    // TODO: Add right authority
+    // No tiene acceso a todos los UO
+    AutorizacionUnidades autorizacion = AutorizacionUnidadesHolder.get();
+    if (!autorizacion.hasAuthority("CSP-PRO-C")) {
+      Specification<Proyecto> specByUnidadGestionRefIn = ProyectoSpecifications
+          .unidadGestionRefIn(autorizacion.getUOsForAuthority("CSP-PRO-C"));
+      return specs.and(specByUnidadGestionRefIn);
+    }
+    return specs;
+  }
+
   /**
    * Añade el nuevo {@link EstadoProyecto} y actualiza la {@link Proyecto} con
    * dicho estado.
@@ -752,10 +1020,8 @@ public class ProyectoServiceImpl implements ProyectoService {
     this.copyCodigosUNESCO(proyecto);
     this.copyCodigosNABS(proyecto);
     this.copyCodigosCNAE(proyecto);
-    this.copyEntidadesConvocantesDeSolicitud(proyecto);
-    this.copyEntidadesFinanciadorasDeSolicitud(proyecto, solicitudProyecto.getId());
-    this.copyMiembrosEquipo(proyecto, solicitudProyecto.getId());
-    this.copySocios(proyecto, solicitudProyecto.getId());
+    // Entidades convocantes y financiadoras, equipo y socios
+    proyectoSolicitudCopyService.copy(proyecto, solicitudProyecto.getId());
     log.debug(
         "copyDatosSolicitudToProyecto(Proyecto proyecto, Solicitud solicitud, SolicitudProyecto solicitudProyecto) - end");
   }
@@ -822,167 +1088,6 @@ public class ProyectoServiceImpl implements ProyectoService {
     log.debug("copyAreasConocimiento(Proyecto proyecto) - end");
   }
 
-  /**
-   * Copia las entidades convocantes de una {@link Solicitud} a un
-   * {@link Proyecto}
-   * 
-   * @param proyecto entidad {@link Proyecto}
-   */
-  private void copyEntidadesConvocantesDeSolicitud(Proyecto proyecto) {
-    log.debug("copyEntidadesConvocantesDeSolicitud(Proyecto proyecto) - start");
-    List<SolicitudModalidad> entidadesSolicitud = solicitudModalidadRepository
-        .findAllBySolicitudId(proyecto.getSolicitudId());
-    entidadesSolicitud.stream().forEach((entidadSolicitud) -> {
-      log.debug("Copy SolicitudModalidad with id: {0}", entidadSolicitud.getId());
-      ProyectoEntidadConvocante entidadProyecto = new ProyectoEntidadConvocante();
-      entidadProyecto.setProyectoId(proyecto.getId());
-      entidadProyecto.setPrograma(entidadSolicitud.getPrograma());
-      entidadProyecto.setEntidadRef(entidadSolicitud.getEntidadRef());
-
-      this.proyectoEntidadConvocanteService.create(entidadProyecto);
-    });
-    log.debug("copyEntidadesConvocantesDeSolicitud(Proyecto proyecto) - end");
-  }
-
-  /**
-   * Copia las entidades financiadoras de una {@link Solicitud} a un
-   * {@link Proyecto}
-   * 
-   * @param proyecto entidad {@link Proyecto}
-   */
-  private void copyEntidadesFinanciadorasDeSolicitud(Proyecto proyecto, Long solicitudProyectoId) {
-    log.debug("copyEntidadesFinanciadorasDeSolicitud(Proyecto proyecto, Long solicitudProyectoId) - start");
-    List<SolicitudProyectoEntidadFinanciadoraAjena> entidadesSolicitud = solicitudProyectoEntidadFinanciadoraAjenaRepository
-        .findAllBySolicitudProyectoId(solicitudProyectoId);
-    entidadesSolicitud.stream().forEach((entidadSolicitud) -> {
-      log.debug("Copy SolicitudProyectoEntidadFinanciadoraAjena with id: {0}", entidadSolicitud.getId());
-      ProyectoEntidadFinanciadora entidadProyecto = new ProyectoEntidadFinanciadora();
-      entidadProyecto.setProyectoId(proyecto.getId());
-      entidadProyecto.setEntidadRef(entidadSolicitud.getEntidadRef());
-      entidadProyecto.setFuenteFinanciacion(entidadSolicitud.getFuenteFinanciacion());
-      entidadProyecto.setTipoFinanciacion(entidadSolicitud.getTipoFinanciacion());
-      entidadProyecto.setPorcentajeFinanciacion(entidadSolicitud.getPorcentajeFinanciacion());
-      entidadProyecto.setAjena(Boolean.TRUE);
-
-      this.proyectoEntidadFinanciadoraService.create(entidadProyecto);
-    });
-    log.debug("copyEntidadesFinanciadorasDeSolicitud(Proyecto proyecto, Long solicitudProyectoId) - end");
-  }
-
-  /**
-   * Copia todos los miembros del equipo de una {@link Solicitud} a un
-   * {@link Proyecto}
-   * 
-   * @param proyecto entidad {@link Proyecto}
-   */
-  private void copyMiembrosEquipo(Proyecto proyecto, Long solicitudProyectoId) {
-    log.debug("copyMiembrosEquipo(Proyecto proyecto) - start");
-    List<SolicitudProyectoEquipo> entidadesSolicitud = solicitudEquipoRepository
-        .findAllBySolicitudProyectoId(solicitudProyectoId);
-    List<ProyectoEquipo> proyectoEquipos = new ArrayList<ProyectoEquipo>();
-    entidadesSolicitud.stream().forEach((entidadSolicitud) -> {
-      log.debug("Copy SolicitudProyectoEquipo with id: {0}", entidadSolicitud.getId());
-      ProyectoEquipo proyectoEquipo = new ProyectoEquipo();
-      proyectoEquipo.setProyectoId(proyecto.getId());
-      if (entidadSolicitud.getMesInicio() != null && entidadSolicitud.getMesFin() != null) {
-        proyectoEquipo.setFechaInicio(Instant.from(proyecto.getFechaInicio().atZone(ZoneOffset.UTC)
-            .plus(Period.ofMonths(entidadSolicitud.getMesInicio() - 1))));
-        proyectoEquipo.setFechaFin(Instant.from(
-            proyecto.getFechaInicio().atZone(ZoneOffset.UTC).plus(Period.ofMonths(entidadSolicitud.getMesFin() - 1))));
-      }
-      proyectoEquipo.setRolProyecto(entidadSolicitud.getRolProyecto());
-      proyectoEquipo.setPersonaRef(entidadSolicitud.getPersonaRef());
-      proyectoEquipos.add(proyectoEquipo);
-    });
-    this.proyectoEquipoService.update(proyecto.getId(), proyectoEquipos);
-    log.debug("copyMiembrosEquipo(Proyecto proyecto) - end");
-  }
-
-  /**
-   * Copia todos los socios de una {@link Solicitud} a un {@link Proyecto}
-   * 
-   * @param proyecto entidad {@link Proyecto}
-   */
-  private void copySocios(Proyecto proyecto, Long solicitudProyectoId) {
-    log.debug("copySocios(Proyecto proyecto) - start");
-    List<SolicitudProyectoSocio> entidadesSolicitud = solicitudSocioRepository
-        .findAllBySolicitudProyectoId(solicitudProyectoId);
-    entidadesSolicitud.stream().forEach((entidadSolicitud) -> {
-      log.debug("Copy SolicitudProyectoSocio with id: {0}", entidadSolicitud.getId());
-      ProyectoSocio proyectoSocio = new ProyectoSocio();
-      proyectoSocio.setProyectoId(proyecto.getId());
-      proyectoSocio.setFechaInicio(Instant.from(
-          proyecto.getFechaInicio().atZone(ZoneOffset.UTC).plus(Period.ofMonths(entidadSolicitud.getMesInicio() - 1))));
-      proyectoSocio.setFechaFin(Instant.from(
-          proyecto.getFechaInicio().atZone(ZoneOffset.UTC).plus(Period.ofMonths(entidadSolicitud.getMesFin() - 1))));
-      proyectoSocio.setRolSocio(entidadSolicitud.getRolSocio());
-      proyectoSocio.setEmpresaRef(entidadSolicitud.getEmpresaRef());
-      proyectoSocio.setImporteConcedido(entidadSolicitud.getImporteSolicitado());
-      proyectoSocio.setNumInvestigadores(entidadSolicitud.getNumInvestigadores());
-      ProyectoSocio proyectoSocioCreado = this.proyectoSocioService.create(proyectoSocio);
-
-      // ProyectoSocioEquipo
-      List<SolicitudProyectoSocioEquipo> entidadesEquipoSolicitud = solicitudEquipoSocioRepository
-          .findAllBySolicitudProyectoSocioId(entidadSolicitud.getId());
-
-      List<ProyectoSocioEquipo> proyectoSocioEquipos = new ArrayList<ProyectoSocioEquipo>();
-      entidadesEquipoSolicitud.stream().forEach((entidadEquipoSolicitud) -> {
-        log.debug("Copy SolicitudProyectoSocioEquipo with id: {0}", entidadEquipoSolicitud.getId());
-        ProyectoSocioEquipo proyectoSocioEquipo = new ProyectoSocioEquipo();
-        proyectoSocioEquipo.setFechaInicio(Instant.from(proyecto.getFechaInicio().atZone(ZoneOffset.UTC)
-            .plus(Period.ofMonths(entidadEquipoSolicitud.getMesInicio() - 1))));
-        proyectoSocioEquipo.setFechaFin(Instant.from(proyecto.getFechaInicio().atZone(ZoneOffset.UTC)
-            .plus(Period.ofMonths(entidadEquipoSolicitud.getMesFin() - 1))));
-        proyectoSocioEquipo.setPersonaRef(entidadEquipoSolicitud.getPersonaRef());
-        proyectoSocioEquipo.setRolProyecto(entidadEquipoSolicitud.getRolProyecto());
-
-        proyectoSocioEquipos.add(proyectoSocioEquipo);
-      });
-      this.proyectoEquipoSocioService.update(proyectoSocio.getId(), proyectoSocioEquipos);
-
-      // ProyectoSocioPeriodoPago
-      List<SolicitudProyectoSocioPeriodoPago> entidadesPeriodoPagoSolicitud = solicitudPeriodoPagoRepository
-          .findAllBySolicitudProyectoSocioId(entidadSolicitud.getId());
-
-      List<ProyectoSocioPeriodoPago> proyectoSocioPeriodoPagos = new ArrayList<ProyectoSocioPeriodoPago>();
-      entidadesPeriodoPagoSolicitud.stream().forEach((entidadPeriodoPagoSolicitud) -> {
-        log.debug("Copy ProyectoSocioPeriodoPago with id: {0}", entidadPeriodoPagoSolicitud.getId());
-        ProyectoSocioPeriodoPago proyectoSocioPeriodoPago = new ProyectoSocioPeriodoPago();
-        proyectoSocioPeriodoPago.setFechaPrevistaPago(Instant.from(proyecto.getFechaInicio().atZone(ZoneOffset.UTC)
-            .plus(Period.ofMonths(entidadPeriodoPagoSolicitud.getMes() - 1))));
-        proyectoSocioPeriodoPago.setImporte(entidadPeriodoPagoSolicitud.getImporte());
-        proyectoSocioPeriodoPago.setNumPeriodo(entidadPeriodoPagoSolicitud.getNumPeriodo());
-
-        proyectoSocioPeriodoPagos.add(proyectoSocioPeriodoPago);
-
-      });
-      this.proyectoSocioPeriodoPagoService.update(proyectoSocio.getId(), proyectoSocioPeriodoPagos);
-
-      // ProyectoSocioPeriodoJustificacion
-      List<SolicitudProyectoSocioPeriodoJustificacion> entidadesPeriodoJustificacionSolicitud = solicitudPeriodoJustificacionRepository
-          .findAllBySolicitudProyectoSocioId(entidadSolicitud.getId());
-
-      entidadesPeriodoJustificacionSolicitud.stream().forEach((entidadPeriodoJustificacionSolicitud) -> {
-        log.debug("Copy ProyectoSocioPeriodoJustificacion with id: {0}", entidadPeriodoJustificacionSolicitud.getId());
-        ProyectoSocioPeriodoJustificacion proyectoSocioPeriodoJustificacion = new ProyectoSocioPeriodoJustificacion();
-        proyectoSocioPeriodoJustificacion.setProyectoSocioId(proyectoSocioCreado.getId());
-        proyectoSocioPeriodoJustificacion.setFechaInicio(Instant.from(proyecto.getFechaInicio().atZone(ZoneOffset.UTC)
-            .plus(Period.ofMonths(entidadPeriodoJustificacionSolicitud.getMesInicial() - 1))));
-        proyectoSocioPeriodoJustificacion.setFechaFin(Instant.from(proyecto.getFechaInicio().atZone(ZoneOffset.UTC)
-            .plus(Period.ofMonths(entidadPeriodoJustificacionSolicitud.getMesFinal() - 1))));
-        proyectoSocioPeriodoJustificacion.setNumPeriodo(entidadPeriodoJustificacionSolicitud.getNumPeriodo());
-        proyectoSocioPeriodoJustificacion.setObservaciones(entidadPeriodoJustificacionSolicitud.getObservaciones());
-        proyectoSocioPeriodoJustificacion
-            .setFechaInicioPresentacion(entidadPeriodoJustificacionSolicitud.getFechaInicio());
-        proyectoSocioPeriodoJustificacion.setFechaFinPresentacion(entidadPeriodoJustificacionSolicitud.getFechaFin());
-
-        this.proyectoSocioPeriodoJustificacionService.create(proyectoSocioPeriodoJustificacion);
-      });
-
-    });
-    log.debug("copySocios(Proyecto proyecto) - end");
-  }
-
   /**
    * Copia toda la configuración económica de una {@link Convocatoria} a un
    * {@link Proyecto}
@@ -1046,7 +1151,7 @@ public class ProyectoServiceImpl implements ProyectoService {
     proyecto = this.copyDatosGeneralesSolicitudToProyecto(proyecto, solicitud, solicitudProyecto);
 
     // TODO: Add right authority
-    Assert.isTrue(SgiSecurityContextHolder.hasAuthorityForUO("CSP-PRO-C", proyecto.getUnidadGestionRef()),
+    Assert.isTrue(AutorizacionUnidadesHolder.get().hasAuthorityForUO("CSP-PRO-C", proyecto.getUnidadGestionRef()),
         "La Unidad de Gestión no es gestionable por el usuario");
 
     this.validarDatos(proyecto);
@@ -1,6 +1,7 @@
 package org.crue.hercules.sgi.csp.service.impl;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.crue.hercules.sgi.csp.exceptions.ProyectoSocioPeriodoJustificacionNotFoundException;
@@ -79,7 +80,7 @@ public class ProyectoSocioPeriodoJustificacionDocumentoServiceImpl
     List<ProyectoSocioPeriodoJustificacionDocumento> periodoJustificacionesEliminar = proyectoSocioPeriodoJustificacionesBD
         .stream()
         .filter(periodo -> !proyectoSocioPeriodoJustificaciones.stream()
-            .map(ProyectoSocioPeriodoJustificacionDocumento::getId).anyMatch(id -> id == periodo.getId()))
+            .map(ProyectoSocioPeriodoJustificacionDocumento::getId).anyMatch(id -> Objects.equals(id, periodo.getId())))
         .collect(Collectors.toList());
 
     if (!periodoJustificacionesEliminar.isEmpty()) {
@@ -91,7 +92,8 @@ public class ProyectoSocioPeriodoJustificacionDocumentoServiceImpl
       // estan actualizando los periodos
       if (proyectoSocioPeriodoJustificacionDocumento.getId() != null) {
         ProyectoSocioPeriodoJustificacionDocumento proyectoSocioPeriodoJustificacionDocumentoBD = proyectoSocioPeriodoJustificacionesBD
-            .stream().filter(periodo -> periodo.getId() == proyectoSocioPeriodoJustificacionDocumento.getId())
+            .stream()
+            .filter(periodo -> Objects.equals(periodo.getId(), proyectoSocioPeriodoJustificacionDocumento.getId()))
             .findFirst().orElseThrow(() -> new ProyectoSocioPeriodoJustificacionDocumentoNotFoundException(
                 proyectoSocioPeriodoJustificacionDocumento.getId()));
 
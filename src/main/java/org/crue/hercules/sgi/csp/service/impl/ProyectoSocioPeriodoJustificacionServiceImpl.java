@@ -2,6 +2,7 @@ package org.crue.hercules.sgi.csp.service.impl;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -89,7 +90,7 @@ public class ProyectoSocioPeriodoJustificacionServiceImpl implements ProyectoSoc
     // Periodos eliminados
     List<ProyectoSocioPeriodoJustificacion> periodoJustificacionesEliminar = proyectoSocioPeriodoJustificacionesBD
         .stream().filter(periodo -> !proyectoSocioPeriodoJustificaciones.stream()
-            .map(ProyectoSocioPeriodoJustificacion::getId).anyMatch(id -> id == periodo.getId()))
+            .map(ProyectoSocioPeriodoJustificacion::getId).anyMatch(id -> Objects.equals(id, periodo.getId())))
         .collect(Collectors.toList());
 
     if (!periodoJustificacionesEliminar.isEmpty()) {
@@ -136,8 +137,10 @@ public class ProyectoSocioPeriodoJustificacionServiceImpl implements ProyectoSoc
     proyectoSocioPeriodoJustificacion.setId(proyectoSocioPeriodoJustificacionId);
     proyectoSocioPeriodoJustificacionesBD.add(proyectoSocioPeriodoJustificacion);
 
-    Assert.isTrue(proyectoSocioPeriodoJustificacionExistente.getProyectoSocioId() == proyectoSocioPeriodoJustificacion
-        .getProyectoSocioId(), "No se puede modificar el proyecto socio del ProyectoSocioPeriodoJustificacion");
+    Assert.isTrue(
+        Objects.equals(proyectoSocioPeriodoJustificacionExistente.getProyectoSocioId(),
+            proyectoSocioPeriodoJustificacion.getProyectoSocioId()),
+        "No se puede modificar el proyecto socio del ProyectoSocioPeriodoJustificacion");
 
     validateProyectoSocioPeriodoJustificacion(proyectoSocioPeriodoJustificacion);
 
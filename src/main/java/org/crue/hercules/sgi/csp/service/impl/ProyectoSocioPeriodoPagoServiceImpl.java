@@ -3,6 +3,7 @@ package org.crue.hercules.sgi.csp.service.impl;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -79,7 +80,7 @@ public class ProyectoSocioPeriodoPagoServiceImpl implements ProyectoSocioPeriodo
     // Periodos pago eliminados
     List<ProyectoSocioPeriodoPago> proyectoSocioPeriodoPagoEliminar = proyectoSocioPeriodoPagosBD.stream()
         .filter(periodo -> !proyectoSocioPeriodoPagos.stream().map(ProyectoSocioPeriodoPago::getId)
-            .anyMatch(id -> id == periodo.getId()))
+            .anyMatch(id -> Objects.equals(id, periodo.getId())))
         .collect(Collectors.toList());
 
     if (!proyectoSocioPeriodoPagoEliminar.isEmpty()) {
@@ -101,10 +102,12 @@ public class ProyectoSocioPeriodoPagoServiceImpl implements ProyectoSocioPeriodo
       // estan actualizando los periodos
       if (proyectoSocioPeriodoPago.getId() != null) {
         ProyectoSocioPeriodoPago proyectoSocioPeriodoPagoBD = proyectoSocioPeriodoPagosBD.stream()
-            .filter(periodo -> periodo.getId() == proyectoSocioPeriodoPago.getId()).findFirst()
+            .filter(periodo -> Objects.equals(periodo.getId(), proyectoSocioPeriodoPago.getId())).findFirst()
             .orElseThrow(() -> new ProyectoSocioPeriodoPagoNotFoundException(proyectoSocioPeriodoPago.getId()));
 
-        Assert.isTrue(proyectoSocioPeriodoPagoBD.getProyectoSocioId() == proyectoSocioPeriodoPago.getProyectoSocioId(),
+        Assert.isTrue(
+            Objects.equals(proyectoSocioPeriodoPagoBD.getProyectoSocioId(),
+                proyectoSocioPeriodoPago.getProyectoSocioId()),
             "No se puede modificar el proyecto socio del ProyectoSocioPeriodoPago");
       }
     }
@@ -0,0 +1,453 @@
+package org.crue.hercules.sgi.csp.service.impl;
+
+import java.time.Instant;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadConvocante;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadFinanciadora;
+import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoSocio;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoPago;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudModalidad;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoEntidadFinanciadoraAjena;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocio;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioEquipo;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioPeriodoPago;
+import org.crue.hercules.sgi.csp.repository.ProyectoEntidadConvocanteRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoEntidadFinanciadoraRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoEquipoRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoSocioEquipoRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoSocioPeriodoJustificacionRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoSocioPeriodoPagoRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoSocioRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudModalidadRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoEntidadFinanciadoraAjenaRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoEquipoRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioEquipoRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioPeriodoJustificacionRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioPeriodoPagoRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioRepository;
+import org.crue.hercules.sgi.csp.service.ProyectoSolicitudCopyService;
+import org.crue.hercules.sgi.csp.util.IntervalIndex;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Servicio implementación para la copia de los datos de una {@link Solicitud}
+ * a un {@link Proyecto}.
+ * <p>
+ * Sustituye a la copia elemento a elemento a través de los servicios de cada
+ * entidad, que volvían a validar y a leer el {@link Proyecto} y el
+ * {@link ProyectoSocio} padre en cada creación. El {@link Proyecto} destino
+ * acaba de crearse en estado borrador y sin datos asociados, por lo que las
+ * validaciones de solapamiento y duplicados se hacen sobre la propia lista
+ * copiada.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class ProyectoSolicitudCopyServiceImpl implements ProyectoSolicitudCopyService {
+
+  private final SolicitudModalidadRepository solicitudModalidadRepository;
+  private final SolicitudProyectoEntidadFinanciadoraAjenaRepository solicitudEntidadFinanciadoraRepository;
+  private final SolicitudProyectoEquipoRepository solicitudEquipoRepository;
+  private final SolicitudProyectoSocioRepository solicitudSocioRepository;
+  private final SolicitudProyectoSocioEquipoRepository solicitudSocioEquipoRepository;
+  private final SolicitudProyectoSocioPeriodoPagoRepository solicitudPeriodoPagoRepository;
+  private final SolicitudProyectoSocioPeriodoJustificacionRepository solicitudPeriodoJustificacionRepository;
+  private final ProyectoEntidadConvocanteRepository proyectoEntidadConvocanteRepository;
+  private final ProyectoEntidadFinanciadoraRepository proyectoEntidadFinanciadoraRepository;
+  private final ProyectoEquipoRepository proyectoEquipoRepository;
+  private final ProyectoSocioRepository proyectoSocioRepository;
+  private final ProyectoSocioEquipoRepository proyectoSocioEquipoRepository;
+  private final ProyectoSocioPeriodoPagoRepository proyectoSocioPeriodoPagoRepository;
+  private final ProyectoSocioPeriodoJustificacionRepository proyectoSocioPeriodoJustificacionRepository;
+
+  public ProyectoSolicitudCopyServiceImpl(SolicitudModalidadRepository solicitudModalidadRepository,
+      SolicitudProyectoEntidadFinanciadoraAjenaRepository solicitudEntidadFinanciadoraRepository,
+      SolicitudProyectoEquipoRepository solicitudEquipoRepository,
+      SolicitudProyectoSocioRepository solicitudSocioRepository,
+      SolicitudProyectoSocioEquipoRepository solicitudSocioEquipoRepository,
+      SolicitudProyectoSocioPeriodoPagoRepository solicitudPeriodoPagoRepository,
+      SolicitudProyectoSocioPeriodoJustificacionRepository solicitudPeriodoJustificacionRepository,
+      ProyectoEntidadConvocanteRepository proyectoEntidadConvocanteRepository,
+      ProyectoEntidadFinanciadoraRepository proyectoEntidadFinanciadoraRepository,
+      ProyectoEquipoRepository proyectoEquipoRepository, ProyectoSocioRepository proyectoSocioRepository,
+      ProyectoSocioEquipoRepository proyectoSocioEquipoRepository,
+      ProyectoSocioPeriodoPagoRepository proyectoSocioPeriodoPagoRepository,
+      ProyectoSocioPeriodoJustificacionRepository proyectoSocioPeriodoJustificacionRepository) {
+    this.solicitudModalidadRepository = solicitudModalidadRepository;
+    this.solicitudEntidadFinanciadoraRepository = solicitudEntidadFinanciadoraRepository;
+    this.solicitudEquipoRepository = solicitudEquipoRepository;
+    this.solicitudSocioRepository = solicitudSocioRepository;
+    this.solicitudSocioEquipoRepository = solicitudSocioEquipoRepository;
+    this.solicitudPeriodoPagoRepository = solicitudPeriodoPagoRepository;
+    this.solicitudPeriodoJustificacionRepository = solicitudPeriodoJustificacionRepository;
+    this.proyectoEntidadConvocanteRepository = proyectoEntidadConvocanteRepository;
+    this.proyectoEntidadFinanciadoraRepository = proyectoEntidadFinanciadoraRepository;
+    this.proyectoEquipoRepository = proyectoEquipoRepository;
+    this.proyectoSocioRepository = proyectoSocioRepository;
+    this.proyectoSocioEquipoRepository = proyectoSocioEquipoRepository;
+    this.proyectoSocioPeriodoPagoRepository = proyectoSocioPeriodoPagoRepository;
+    this.proyectoSocioPeriodoJustificacionRepository = proyectoSocioPeriodoJustificacionRepository;
+  }
+
+  /**
+   * Copia al {@link Proyecto} las entidades convocantes y financiadoras, el
+   * equipo y los socios (con su equipo, periodos de pago y periodos de
+   * justificación) de la {@link Solicitud}.
+   *
+   * @param proyecto            el {@link Proyecto} recién creado a partir de la
+   *                            {@link Solicitud}.
+   * @param solicitudProyectoId Id del SolicitudProyecto.
+   */
+  @Override
+  @Transactional
+  public void copy(Proyecto proyecto, Long solicitudProyectoId) {
+    log.debug("copy(Proyecto proyecto, Long solicitudProyectoId) - start");
+
+    // Carga de los datos de la solicitud: una consulta por tabla origen
+    List<SolicitudModalidad> modalidades = solicitudModalidadRepository
+        .findAllBySolicitudId(proyecto.getSolicitudId());
+    List<SolicitudProyectoEntidadFinanciadoraAjena> entidadesFinanciadoras = solicitudEntidadFinanciadoraRepository
+        .findAllBySolicitudProyectoId(solicitudProyectoId);
+    List<SolicitudProyectoEquipo> equipo = solicitudEquipoRepository.findAllBySolicitudProyectoId(solicitudProyectoId);
+    List<SolicitudProyectoSocio> socios = solicitudSocioRepository.findAllBySolicitudProyectoId(solicitudProyectoId);
+
+    List<Long> socioIds = socios.stream().map(SolicitudProyectoSocio::getId).collect(Collectors.toList());
+    Map<Long, List<SolicitudProyectoSocioEquipo>> sociosEquipo = Collections.emptyMap();
+    Map<Long, List<SolicitudProyectoSocioPeriodoPago>> sociosPeriodosPago = Collections.emptyMap();
+    Map<Long, List<SolicitudProyectoSocioPeriodoJustificacion>> sociosPeriodosJustificacion = Collections
+        .emptyMap();
+    if (!socioIds.isEmpty()) {
+      sociosEquipo = solicitudSocioEquipoRepository.findAllBySolicitudProyectoSocioIdIn(socioIds).stream()
+          .collect(Collectors.groupingBy(SolicitudProyectoSocioEquipo::getSolicitudProyectoSocioId));
+      sociosPeriodosPago = solicitudPeriodoPagoRepository.findAllBySolicitudProyectoSocioIdIn(socioIds).stream()
+          .collect(Collectors.groupingBy(SolicitudProyectoSocioPeriodoPago::getSolicitudProyectoSocioId));
+      sociosPeriodosJustificacion = solicitudPeriodoJustificacionRepository
+          .findAllBySolicitudProyectoSocioIdIn(socioIds).stream()
+          .collect(Collectors.groupingBy(SolicitudProyectoSocioPeriodoJustificacion::getSolicitudProyectoSocioId));
+    }
+
+    // Construccion y validacion de todo el grafo antes de escribir
+    List<ProyectoEntidadConvocante> proyectoEntidadesConvocantes = toEntidadesConvocantes(proyecto, modalidades);
+    List<ProyectoEntidadFinanciadora> proyectoEntidadesFinanciadoras = toEntidadesFinanciadoras(proyecto,
+        entidadesFinanciadoras);
+    List<ProyectoEquipo> proyectoEquipo = toEquipo(proyecto, equipo);
+
+    Map<Long, ProyectoSocio> proyectoSocios = new LinkedHashMap<>();
+    Map<Long, List<ProyectoSocioEquipo>> proyectoSociosEquipo = new LinkedHashMap<>();
+    Map<Long, List<ProyectoSocioPeriodoPago>> proyectoSociosPeriodosPago = new LinkedHashMap<>();
+    Map<Long, List<ProyectoSocioPeriodoJustificacion>> proyectoSociosPeriodosJustificacion = new LinkedHashMap<>();
+    for (SolicitudProyectoSocio socio : socios) {
+      ProyectoSocio proyectoSocio = toSocio(proyecto, socio);
+      proyectoSocios.put(socio.getId(), proyectoSocio);
+      proyectoSociosEquipo.put(socio.getId(),
+          toSocioEquipo(proyecto, sociosEquipo.getOrDefault(socio.getId(), Collections.emptyList())));
+      proyectoSociosPeriodosPago.put(socio.getId(),
+          toSocioPeriodosPago(proyecto, sociosPeriodosPago.getOrDefault(socio.getId(), Collections.emptyList())));
+      proyectoSociosPeriodosJustificacion.put(socio.getId(), toSocioPeriodosJustificacion(proyecto, proyectoSocio,
+          sociosPeriodosJustificacion.getOrDefault(socio.getId(), Collections.emptyList())));
+    }
+
+    IntervalIndex<String, Instant, ProyectoSocio> periodosSocios = new IntervalIndex<>(ProyectoSocio::getEmpresaRef,
+        ProyectoSocio::getFechaInicio, ProyectoSocio::getFechaFin);
+    Assert.isTrue(!periodosSocios.addAll(proyectoSocios.values()).findFirstSolapado().isPresent(),
+        "El rango de fechas del socio se solapa");
+
+    // Escritura: un saveAll por tabla destino, enviado en batches JDBC
+    proyectoEntidadConvocanteRepository.saveAll(proyectoEntidadesConvocantes);
+    proyectoEntidadFinanciadoraRepository.saveAll(proyectoEntidadesFinanciadoras);
+    proyectoEquipoRepository.saveAll(proyectoEquipo);
+
+    if (!proyectoSocios.isEmpty()) {
+      proyectoSocioRepository.saveAll(proyectoSocios.values());
+
+      List<ProyectoSocioEquipo> proyectoSocioEquipos = new ArrayList<>();
+      List<ProyectoSocioPeriodoPago> proyectoSocioPeriodosPago = new ArrayList<>();
+      List<ProyectoSocioPeriodoJustificacion> proyectoSocioPeriodosJustificacion = new ArrayList<>();
+      proyectoSocios.forEach((solicitudProyectoSocioId, proyectoSocio) -> {
+        proyectoSociosEquipo.get(solicitudProyectoSocioId).forEach(miembro -> {
+          miembro.setProyectoSocioId(proyectoSocio.getId());
+          proyectoSocioEquipos.add(miembro);
+        });
+        proyectoSociosPeriodosPago.get(solicitudProyectoSocioId).forEach(periodo -> {
+          periodo.setProyectoSocioId(proyectoSocio.getId());
+          proyectoSocioPeriodosPago.add(periodo);
+        });
+        proyectoSociosPeriodosJustificacion.get(solicitudProyectoSocioId).forEach(periodo -> {
+          periodo.setProyectoSocioId(proyectoSocio.getId());
+          proyectoSocioPeriodosJustificacion.add(periodo);
+        });
+      });
+
+      proyectoSocioEquipoRepository.saveAll(proyectoSocioEquipos);
+      proyectoSocioPeriodoPagoRepository.saveAll(proyectoSocioPeriodosPago);
+      proyectoSocioPeriodoJustificacionRepository.saveAll(proyectoSocioPeriodosJustificacion);
+    }
+
+    log.debug("copy(Proyecto proyecto, Long solicitudProyectoId) - end");
+  }
+
+  /**
+   * Construye y valida las {@link ProyectoEntidadConvocante} a partir de las
+   * {@link SolicitudModalidad}.
+   *
+   * @param proyecto    el {@link Proyecto}
+   * @param modalidades las {@link SolicitudModalidad}
+   * @return las {@link ProyectoEntidadConvocante} a guardar
+   */
+  private List<ProyectoEntidadConvocante> toEntidadesConvocantes(Proyecto proyecto,
+      List<SolicitudModalidad> modalidades) {
+    Set<String> entidadRefs = new HashSet<>();
+    List<ProyectoEntidadConvocante> returnValue = new ArrayList<>();
+    for (SolicitudModalidad modalidad : modalidades) {
+      Assert.isTrue(entidadRefs.add(modalidad.getEntidadRef()),
+          "Ya existe una asociación activa para esa Proyecto y Entidad");
+      Assert.isTrue(modalidad.getPrograma() == null || modalidad.getPrograma().getActivo(),
+          "El Programa debe estar Activo");
+
+      ProyectoEntidadConvocante entidadProyecto = new ProyectoEntidadConvocante();
+      entidadProyecto.setProyectoId(proyecto.getId());
+      entidadProyecto.setPrograma(modalidad.getPrograma());
+      entidadProyecto.setEntidadRef(modalidad.getEntidadRef());
+      returnValue.add(entidadProyecto);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Construye y valida las {@link ProyectoEntidadFinanciadora} a partir de las
+   * {@link SolicitudProyectoEntidadFinanciadoraAjena}.
+   *
+   * @param proyecto  el {@link Proyecto}
+   * @param entidades las {@link SolicitudProyectoEntidadFinanciadoraAjena}
+   * @return las {@link ProyectoEntidadFinanciadora} a guardar
+   */
+  private List<ProyectoEntidadFinanciadora> toEntidadesFinanciadoras(Proyecto proyecto,
+      List<SolicitudProyectoEntidadFinanciadoraAjena> entidades) {
+    List<ProyectoEntidadFinanciadora> returnValue = new ArrayList<>();
+    for (SolicitudProyectoEntidadFinanciadoraAjena entidad : entidades) {
+      Assert.isTrue(entidad.getPorcentajeFinanciacion() == null || entidad.getPorcentajeFinanciacion() >= 0,
+          "PorcentajeFinanciacion no puede ser negativo");
+      Assert.isTrue(entidad.getFuenteFinanciacion() == null || entidad.getFuenteFinanciacion().getActivo(),
+          "La FuenteFinanciacion debe estar Activo");
+      Assert.isTrue(entidad.getTipoFinanciacion() == null || entidad.getTipoFinanciacion().getActivo(),
+          "El TipoFinanciacion debe estar Activo");
+
+      ProyectoEntidadFinanciadora entidadProyecto = new ProyectoEntidadFinanciadora();
+      entidadProyecto.setProyectoId(proyecto.getId());
+      entidadProyecto.setEntidadRef(entidad.getEntidadRef());
+      entidadProyecto.setFuenteFinanciacion(entidad.getFuenteFinanciacion());
+      entidadProyecto.setTipoFinanciacion(entidad.getTipoFinanciacion());
+      entidadProyecto.setPorcentajeFinanciacion(entidad.getPorcentajeFinanciacion());
+      entidadProyecto.setAjena(Boolean.TRUE);
+      returnValue.add(entidadProyecto);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Construye y valida los {@link ProyectoEquipo} a partir de los
+   * {@link SolicitudProyectoEquipo}.
+   *
+   * @param proyecto el {@link Proyecto}
+   * @param equipo   los {@link SolicitudProyectoEquipo}
+   * @return los {@link ProyectoEquipo} a guardar
+   */
+  private List<ProyectoEquipo> toEquipo(Proyecto proyecto, List<SolicitudProyectoEquipo> equipo) {
+    List<ProyectoEquipo> returnValue = new ArrayList<>();
+    for (SolicitudProyectoEquipo miembro : equipo) {
+      ProyectoEquipo proyectoEquipo = new ProyectoEquipo();
+      proyectoEquipo.setProyectoId(proyecto.getId());
+      if (miembro.getMesInicio() != null && miembro.getMesFin() != null) {
+        proyectoEquipo.setFechaInicio(toInstant(proyecto, miembro.getMesInicio()));
+        proyectoEquipo.setFechaFin(toInstant(proyecto, miembro.getMesFin()));
+
+        Assert.isTrue(proyectoEquipo.getFechaInicio().isBefore(proyectoEquipo.getFechaFin()),
+            "La fecha de inicio no puede ser superior a la fecha de fin");
+        Assert.isTrue(
+            !proyectoEquipo.getFechaInicio().isBefore(proyecto.getFechaInicio())
+                && (proyecto.getFechaFin() == null || !proyectoEquipo.getFechaFin().isAfter(proyecto.getFechaFin())),
+            "Las fechas de proyecto equipo deben de estar dentro de la duración del proyecto");
+      }
+      proyectoEquipo.setRolProyecto(miembro.getRolProyecto());
+      proyectoEquipo.setPersonaRef(miembro.getPersonaRef());
+      returnValue.add(proyectoEquipo);
+    }
+
+    IntervalIndex<String, Instant, ProyectoEquipo> periodos = new IntervalIndex<>(ProyectoEquipo::getPersonaRef,
+        ProyectoEquipo::getFechaInicio, ProyectoEquipo::getFechaFin);
+    Assert.isTrue(!periodos.addAll(returnValue).findFirstSolapado().isPresent(),
+        "El proyecto equipo se solapa con otro existente");
+    return returnValue;
+  }
+
+  /**
+   * Construye el {@link ProyectoSocio} a partir del
+   * {@link SolicitudProyectoSocio}.
+   *
+   * @param proyecto el {@link Proyecto}
+   * @param socio    el {@link SolicitudProyectoSocio}
+   * @return el {@link ProyectoSocio} a guardar
+   */
+  private ProyectoSocio toSocio(Proyecto proyecto, SolicitudProyectoSocio socio) {
+    ProyectoSocio proyectoSocio = new ProyectoSocio();
+    proyectoSocio.setProyectoId(proyecto.getId());
+    proyectoSocio.setFechaInicio(toInstant(proyecto, socio.getMesInicio()));
+    proyectoSocio.setFechaFin(toInstant(proyecto, socio.getMesFin()));
+    proyectoSocio.setRolSocio(socio.getRolSocio());
+    proyectoSocio.setEmpresaRef(socio.getEmpresaRef());
+    proyectoSocio.setImporteConcedido(socio.getImporteSolicitado());
+    proyectoSocio.setNumInvestigadores(socio.getNumInvestigadores());
+    return proyectoSocio;
+  }
+
+  /**
+   * Construye y valida los {@link ProyectoSocioEquipo} de un socio a partir de
+   * los {@link SolicitudProyectoSocioEquipo}.
+   *
+   * @param proyecto el {@link Proyecto}
+   * @param equipo   los {@link SolicitudProyectoSocioEquipo} del socio
+   * @return los {@link ProyectoSocioEquipo} a guardar
+   */
+  private List<ProyectoSocioEquipo> toSocioEquipo(Proyecto proyecto, List<SolicitudProyectoSocioEquipo> equipo) {
+    List<ProyectoSocioEquipo> returnValue = new ArrayList<>();
+    for (SolicitudProyectoSocioEquipo miembro : equipo) {
+      ProyectoSocioEquipo proyectoSocioEquipo = new ProyectoSocioEquipo();
+      proyectoSocioEquipo.setFechaInicio(toInstant(proyecto, miembro.getMesInicio()));
+      proyectoSocioEquipo.setFechaFin(toInstant(proyecto, miembro.getMesFin()));
+      proyectoSocioEquipo.setPersonaRef(miembro.getPersonaRef());
+      proyectoSocioEquipo.setRolProyecto(miembro.getRolProyecto());
+
+      Assert.notNull(proyectoSocioEquipo.getRolProyecto(),
+          "El rol de participación no puede ser null para realizar la acción sobre ProyectoSocioEquipo");
+      Assert.notNull(proyectoSocioEquipo.getPersonaRef(),
+          "La persona ref no puede ser null para realizar la acción sobre ProyectoSocioEquipo");
+      if (proyectoSocioEquipo.getFechaInicio() != null && proyectoSocioEquipo.getFechaFin() != null) {
+        Assert.isTrue(proyectoSocioEquipo.getFechaInicio().isBefore(proyectoSocioEquipo.getFechaFin()),
+            "La fecha de fin tiene que ser posterior a la fecha de inicio");
+      }
+      returnValue.add(proyectoSocioEquipo);
+    }
+
+    IntervalIndex<String, Instant, ProyectoSocioEquipo> periodos = new IntervalIndex<>(
+        ProyectoSocioEquipo::getPersonaRef, ProyectoSocioEquipo::getFechaInicio, ProyectoSocioEquipo::getFechaFin);
+    Assert.isTrue(!periodos.addAll(returnValue).findFirstSolapado().isPresent(),
+        "El equipo se solapa con otro existente");
+    return returnValue;
+  }
+
+  /**
+   * Construye los {@link ProyectoSocioPeriodoPago} de un socio a partir de los
+   * {@link SolicitudProyectoSocioPeriodoPago}, numerados por fecha prevista de
+   * pago.
+   *
+   * @param proyecto el {@link Proyecto}
+   * @param periodos los {@link SolicitudProyectoSocioPeriodoPago} del socio
+   * @return los {@link ProyectoSocioPeriodoPago} a guardar
+   */
+  private List<ProyectoSocioPeriodoPago> toSocioPeriodosPago(Proyecto proyecto,
+      List<SolicitudProyectoSocioPeriodoPago> periodos) {
+    List<ProyectoSocioPeriodoPago> returnValue = new ArrayList<>();
+    for (SolicitudProyectoSocioPeriodoPago periodo : periodos) {
+      ProyectoSocioPeriodoPago proyectoSocioPeriodoPago = new ProyectoSocioPeriodoPago();
+      proyectoSocioPeriodoPago.setFechaPrevistaPago(toInstant(proyecto, periodo.getMes()));
+      proyectoSocioPeriodoPago.setImporte(periodo.getImporte());
+      returnValue.add(proyectoSocioPeriodoPago);
+    }
+
+    returnValue.sort(Comparator.comparing(ProyectoSocioPeriodoPago::getFechaPrevistaPago));
+    for (int i = 0; i < returnValue.size(); i++) {
+      returnValue.get(i).setNumPeriodo(i + 1);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Construye y valida los {@link ProyectoSocioPeriodoJustificacion} de un socio
+   * a partir de los {@link SolicitudProyectoSocioPeriodoJustificacion},
+   * numerados por fecha de inicio.
+   *
+   * @param proyecto      el {@link Proyecto}
+   * @param proyectoSocio el {@link ProyectoSocio} al que se asocian
+   * @param periodos      los {@link SolicitudProyectoSocioPeriodoJustificacion}
+   *                      del socio
+   * @return los {@link ProyectoSocioPeriodoJustificacion} a guardar
+   */
+  private List<ProyectoSocioPeriodoJustificacion> toSocioPeriodosJustificacion(Proyecto proyecto,
+      ProyectoSocio proyectoSocio, List<SolicitudProyectoSocioPeriodoJustificacion> periodos) {
+    List<ProyectoSocioPeriodoJustificacion> returnValue = new ArrayList<>();
+    for (SolicitudProyectoSocioPeriodoJustificacion periodo : periodos) {
+      ProyectoSocioPeriodoJustificacion proyectoSocioPeriodoJustificacion = new ProyectoSocioPeriodoJustificacion();
+      proyectoSocioPeriodoJustificacion.setFechaInicio(toInstant(proyecto, periodo.getMesInicial()));
+      proyectoSocioPeriodoJustificacion.setFechaFin(toInstant(proyecto, periodo.getMesFinal()));
+      proyectoSocioPeriodoJustificacion.setObservaciones(periodo.getObservaciones());
+      proyectoSocioPeriodoJustificacion.setFechaInicioPresentacion(periodo.getFechaInicio());
+      proyectoSocioPeriodoJustificacion.setFechaFinPresentacion(periodo.getFechaFin());
+
+      Assert.isTrue(
+          proyectoSocioPeriodoJustificacion.getFechaInicio().isBefore(proyectoSocioPeriodoJustificacion.getFechaFin()),
+          "La fecha final tiene que ser posterior a la fecha inicial");
+      if (proyectoSocioPeriodoJustificacion.getFechaInicioPresentacion() != null
+          && proyectoSocioPeriodoJustificacion.getFechaFinPresentacion() != null) {
+        Assert.isTrue(
+            proyectoSocioPeriodoJustificacion.getFechaInicioPresentacion()
+                .isBefore(proyectoSocioPeriodoJustificacion.getFechaFinPresentacion()),
+            "La fecha de fin de presentación tiene que ser posterior a la fecha de inicio de presentación");
+      }
+      Assert.isTrue(
+          proyectoSocio.getFechaFin() == null
+              || proyectoSocioPeriodoJustificacion.getFechaFin().isBefore(proyectoSocio.getFechaFin()),
+          "La fecha fin no puede ser superior a la fecha fin indicada en Proyecto socio");
+      returnValue.add(proyectoSocioPeriodoJustificacion);
+    }
+
+    IntervalIndex<Boolean, Instant, ProyectoSocioPeriodoJustificacion> solapamientos = new IntervalIndex<>(
+        periodo -> Boolean.TRUE, ProyectoSocioPeriodoJustificacion::getFechaInicio,
+        ProyectoSocioPeriodoJustificacion::getFechaFin);
+    Assert.isTrue(!solapamientos.addAll(returnValue).findFirstSolapado().isPresent(),
+        "El periodo se solapa con otro existente");
+
+    returnValue.sort(Comparator.comparing(ProyectoSocioPeriodoJustificacion::getFechaInicio));
+    for (int i = 0; i < returnValue.size(); i++) {
+      returnValue.get(i).setNumPeriodo(i + 1);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Calcula la fecha correspondiente a un mes de la solicitud, contando el mes 1
+   * como el de la fecha de inicio del {@link Proyecto}.
+   *
+   * @param proyecto el {@link Proyecto}
+   * @param mes      el mes de la solicitud
+   * @return la fecha o null si no hay mes
+   */
+  private Instant toInstant(Proyecto proyecto, Integer mes) {
+    if (mes == null) {
+      return null;
+    }
+    return Instant.from(proyecto.getFechaInicio().atZone(ZoneOffset.UTC).plus(Period.ofMonths(mes - 1)));
+  }
+
+}
@@ -0,0 +1,110 @@
+package org.crue.hercules.sgi.csp.service.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoResultado;
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.repository.EstadoSolicitudRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudRepository;
+import org.crue.hercules.sgi.csp.util.SolicitudMaquinaEstados;
+import org.crue.hercules.sgi.framework.security.core.context.SgiSecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cambio de estado de un lote de {@link Solicitud} en una única transacción.
+ * <p>
+ * Es un bean independiente de {@link SolicitudCambioEstadoServiceImpl} para que
+ * cada lote se ejecute a través del proxy transaccional.
+ */
+@Component
+@Slf4j
+public class SolicitudCambioEstadoLote {
+
+  /**
+   * Comprueba si se puede pasar al estado indicado con un cambio de estado
+   * masivo. La presentación queda fuera: sus validaciones son propias de cada
+   * solicitud y se hace de una en una.
+   *
+   * @param estado nuevo estado.
+   * @return true si el estado admite cambio de estado masivo.
+   */
+  static boolean admiteCambioMasivo(EstadoSolicitud.Estado estado) {
+    return estado != EstadoSolicitud.Estado.PRESENTADA
+        && !SolicitudMaquinaEstados.getOrigenes(estado).isEmpty();
+  }
+
+  private final SolicitudRepository repository;
+  private final EstadoSolicitudRepository estadoSolicitudRepository;
+
+  public SolicitudCambioEstadoLote(SolicitudRepository repository, EstadoSolicitudRepository estadoSolicitudRepository) {
+    this.repository = repository;
+    this.estadoSolicitudRepository = estadoSolicitudRepository;
+  }
+
+  /**
+   * Cambia el estado de un lote de {@link Solicitud}.
+   * <p>
+   * Las solicitudes se cargan con una única consulta y se validan en memoria.
+   * Los nuevos {@link EstadoSolicitud} y las solicitudes actualizadas se guardan
+   * cada uno con un único guardado en batch.
+   *
+   * @param solicitudIds ids de las {@link Solicitud} del lote.
+   * @param estado       nuevo estado.
+   * @param comentario   comentario del nuevo estado.
+   * @return el resultado de cada {@link Solicitud}, en el mismo orden que los
+   *         ids.
+   */
+  @Transactional
+  public List<SolicitudCambioEstadoResultado> cambiarEstado(List<Long> solicitudIds, EstadoSolicitud.Estado estado,
+      String comentario) {
+    log.debug("cambiarEstado(List<Long> solicitudIds, EstadoSolicitud.Estado estado, String comentario) - start");
+
+    Map<Long, Solicitud> solicitudes = repository.findAllById(solicitudIds).stream()
+        .collect(Collectors.toMap(Solicitud::getId, Function.identity()));
+
+    List<SolicitudCambioEstadoResultado> resultados = new ArrayList<>();
+    List<Solicitud> solicitudesCambio = new ArrayList<>();
+    List<EstadoSolicitud> estadosSolicitud = new ArrayList<>();
+    Instant fechaEstado = Instant.now();
+    for (Long solicitudId : solicitudIds) {
+      Solicitud solicitud = solicitudes.remove(solicitudId);
+      if (solicitud == null) {
+        // No existe o el id está repetido
+        resultados.add(SolicitudCambioEstadoResultado.error(solicitudId, "La solicitud no existe"));
+      } else if (!SgiSecurityContextHolder.hasAuthorityForUO("CSP-SOL-E", solicitud.getUnidadGestionRef())) {
+        resultados.add(SolicitudCambioEstadoResultado.error(solicitudId,
+            "La Unidad de Gestión no es gestionable por el usuario"));
+      } else if (solicitud.getEstado() == null
+          || !SolicitudMaquinaEstados.isTransicionValida(solicitud.getEstado().getEstado(), estado)) {
+        resultados.add(SolicitudCambioEstadoResultado.error(solicitudId,
+            "La solicitud no se encuentra en un estado correcto."));
+      } else {
+        resultados.add(SolicitudCambioEstadoResultado.correcto(solicitudId));
+        solicitudesCambio.add(solicitud);
+        estadosSolicitud.add(EstadoSolicitud.builder().solicitudId(solicitudId).estado(estado).comentario(comentario)
+            .fechaEstado(fechaEstado).build());
+      }
+    }
+
+    if (!solicitudesCambio.isEmpty()) {
+      List<EstadoSolicitud> estadosGuardados = estadoSolicitudRepository.saveAll(estadosSolicitud);
+      for (int i = 0; i < solicitudesCambio.size(); i++) {
+        solicitudesCambio.get(i).setEstado(estadosGuardados.get(i));
+      }
+      repository.saveAll(solicitudesCambio);
+    }
+
+    log.debug("cambiarEstado(List<Long> solicitudIds, EstadoSolicitud.Estado estado, String comentario) - end");
+    return resultados;
+  }
+
+}
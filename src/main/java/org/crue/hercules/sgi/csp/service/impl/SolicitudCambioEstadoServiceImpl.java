@@ -0,0 +1,78 @@
+package org.crue.hercules.sgi.csp.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoInput;
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoResultado;
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.service.SolicitudCambioEstadoService;
+import org.crue.hercules.sgi.csp.util.SolicitudMaquinaEstados;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service Implementation para el cambio de estado masivo de {@link Solicitud}.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class SolicitudCambioEstadoServiceImpl implements SolicitudCambioEstadoService {
+
+  /** Número de solicitudes que se cambian de estado en cada transacción */
+  static final int TAMANO_LOTE = 100;
+
+  private final SolicitudCambioEstadoLote solicitudCambioEstadoLote;
+
+  public SolicitudCambioEstadoServiceImpl(SolicitudCambioEstadoLote solicitudCambioEstadoLote) {
+    this.solicitudCambioEstadoLote = solicitudCambioEstadoLote;
+  }
+
+  /**
+   * Cambia el estado de todas las {@link Solicitud} indicadas al mismo
+   * {@link EstadoSolicitud}.
+   * <p>
+   * Las solicitudes se procesan en lotes de {@link #TAMANO_LOTE}, cada uno en su
+   * propia transacción, por lo que una solicitud o un lote erróneo no deshace el
+   * cambio del resto.
+   *
+   * @param input ids de las {@link Solicitud}, nuevo estado y comentario.
+   * @return el resultado del cambio de estado de cada {@link Solicitud}, en el
+   *         mismo orden que los ids.
+   */
+  @Override
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public List<SolicitudCambioEstadoResultado> cambiarEstado(SolicitudCambioEstadoInput input) {
+    log.debug("cambiarEstado(SolicitudCambioEstadoInput input) - start");
+    EstadoSolicitud.Estado estado = input.getEstado();
+
+    Assert.isTrue(SolicitudCambioEstadoLote.admiteCambioMasivo(estado),
+        "El estado " + estado + " no admite cambio de estado masivo");
+    Assert.isTrue(!SolicitudMaquinaEstados.requiereComentario(estado) || input.getComentario() != null,
+        "El comentario no puede ser null para el cambio de estado.");
+
+    List<Long> solicitudIds = input.getSolicitudIds();
+    List<SolicitudCambioEstadoResultado> returnValue = new ArrayList<>(solicitudIds.size());
+    for (int inicio = 0; inicio < solicitudIds.size(); inicio += TAMANO_LOTE) {
+      List<Long> lote = solicitudIds.subList(inicio, Math.min(inicio + TAMANO_LOTE, solicitudIds.size()));
+      try {
+        returnValue.addAll(solicitudCambioEstadoLote.cambiarEstado(lote, estado, input.getComentario()));
+      } catch (RuntimeException e) {
+        // El lote se ha deshecho completo: ninguna de sus solicitudes ha cambiado
+        log.error("cambiarEstado(SolicitudCambioEstadoInput input) - Error en el lote {}", lote, e);
+        returnValue.addAll(lote.stream().map(id -> SolicitudCambioEstadoResultado.error(id, e.getMessage()))
+            .collect(Collectors.toList()));
+      }
+    }
+
+    log.debug("cambiarEstado(SolicitudCambioEstadoInput input) - end");
+    return returnValue;
+  }
+
+}
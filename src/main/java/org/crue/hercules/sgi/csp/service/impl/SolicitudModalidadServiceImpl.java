@@ -10,6 +10,7 @@ import org.crue.hercules.sgi.csp.model.Programa;
 import org.crue.hercules.sgi.csp.model.Solicitud;
 import org.crue.hercules.sgi.csp.model.SolicitudModalidad;
 import org.crue.hercules.sgi.csp.repository.ConvocatoriaEntidadConvocanteRepository;
+import org.crue.hercules.sgi.csp.repository.ProgramaJerarquiaRepository;
 import org.crue.hercules.sgi.csp.repository.ProgramaRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudModalidadRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudRepository;
@@ -37,16 +38,18 @@ public class SolicitudModalidadServiceImpl implements SolicitudModalidadService
   private final SolicitudModalidadRepository repository;
   private final SolicitudRepository solicitudRepository;
   private final ProgramaRepository programaRepository;
+  private final ProgramaJerarquiaRepository programaJerarquiaRepository;
   private final ConvocatoriaEntidadConvocanteRepository convocatoriaEntidadConvocanteRepository;
   private final SolicitudService solicitudService;
 
   public SolicitudModalidadServiceImpl(SolicitudModalidadRepository repository, SolicitudRepository solicitudRepository,
-      ProgramaRepository programaRepository,
+      ProgramaRepository programaRepository, ProgramaJerarquiaRepository programaJerarquiaRepository,
       ConvocatoriaEntidadConvocanteRepository convocatoriaEntidadConvocanteRepository,
       SolicitudService solicitudService) {
     this.repository = repository;
     this.solicitudRepository = solicitudRepository;
     this.programaRepository = programaRepository;
+    this.programaJerarquiaRepository = programaJerarquiaRepository;
     this.convocatoriaEntidadConvocanteRepository = convocatoriaEntidadConvocanteRepository;
     this.solicitudService = solicitudService;
   }
@@ -219,11 +222,8 @@ public class SolicitudModalidadServiceImpl implements SolicitudModalidadService
   private boolean isModalidadDescencientePrograma(Programa modalidad, Programa programa) {
     log.debug("isModalidadDescencientePrograma(Programa modalidad, Programa programa) - start");
 
-    boolean programaEncontrado = (programa.getId() == modalidad.getId());
-    while (modalidad != null && modalidad.getPadre() != null && !programaEncontrado) {
-      modalidad = programaRepository.findById(modalidad.getPadre().getId()).orElse(null);
-      programaEncontrado = (modalidad != null && programa.getId() == modalidad.getId());
-    }
+    boolean programaEncontrado = programaJerarquiaRepository.existsByAncestroIdAndDescendienteId(programa.getId(),
+        modalidad.getId());
 
     log.debug("isModalidadDescencientePrograma(Programa modalidad, Programa programa) - end");
 
@@ -4,14 +4,18 @@ import java.util.List;
 
 import com.nimbusds.oauth2.sdk.util.CollectionUtils;
 
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado;
 import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotalConceptoGasto;
 import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotales;
 import org.crue.hercules.sgi.csp.exceptions.SolicitudProyectoNotFoundException;
 import org.crue.hercules.sgi.csp.exceptions.SolicitudProyectoPresupuestoNotFoundException;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.Solicitud;
 import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
 import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuestoTotal;
 import org.crue.hercules.sgi.csp.repository.SolicitudProyectoPresupuestoRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoPresupuestoTotalRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudProyectoRepository;
 import org.crue.hercules.sgi.csp.repository.specification.SolicitudProyectoPresupuestoSpecifications;
 import org.crue.hercules.sgi.csp.service.SolicitudProyectoPresupuestoService;
@@ -28,6 +32,10 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service Implementation para gestion {@link SolicitudProyectoPresupuesto}.
+ * <p>
+ * Cada alta, modificación o borrado recalcula en la misma transacción los
+ * {@link SolicitudProyectoPresupuestoTotal} de la {@link Solicitud}, de los que
+ * se obtienen los totales del presupuesto.
  */
 @Service
 @Slf4j
@@ -37,12 +45,15 @@ public class SolicitudProyectoPresupuestoServiceImpl implements SolicitudProyect
   private final SolicitudProyectoPresupuestoRepository repository;
   private final SolicitudService solicitudService;
   private final SolicitudProyectoRepository solicitudProyectoRepository;
+  private final SolicitudProyectoPresupuestoTotalRepository solicitudProyectoPresupuestoTotalRepository;
 
   public SolicitudProyectoPresupuestoServiceImpl(SolicitudProyectoPresupuestoRepository repository,
-      SolicitudService solicitudService, SolicitudProyectoRepository solicitudProyectoRepository) {
+      SolicitudService solicitudService, SolicitudProyectoRepository solicitudProyectoRepository,
+      SolicitudProyectoPresupuestoTotalRepository solicitudProyectoPresupuestoTotalRepository) {
     this.repository = repository;
     this.solicitudService = solicitudService;
     this.solicitudProyectoRepository = solicitudProyectoRepository;
+    this.solicitudProyectoPresupuestoTotalRepository = solicitudProyectoPresupuestoTotalRepository;
   }
 
   /**
@@ -63,6 +74,7 @@ public class SolicitudProyectoPresupuestoServiceImpl implements SolicitudProyect
         "Id tiene que ser null para crear la SolicitudProyectoPresupuesto");
 
     SolicitudProyectoPresupuesto returnValue = repository.save(solicitudProyectoPresupuesto);
+    solicitudProyectoPresupuestoTotalRepository.sincronizar(returnValue.getSolicitudProyectoId());
 
     log.debug("create(SolicitudProyectoPresupuesto solicitudProyectoPresupuesto) - end");
     return returnValue;
@@ -98,6 +110,7 @@ public class SolicitudProyectoPresupuestoServiceImpl implements SolicitudProyect
       solicitudProyectoPresupuestoExistente.setObservaciones(solicitudProyectoPresupuesto.getObservaciones());
 
       SolicitudProyectoPresupuesto returnValue = repository.save(solicitudProyectoPresupuestoExistente);
+      solicitudProyectoPresupuestoTotalRepository.sincronizar(solicitudProyecto.getId());
 
       log.debug("update(SolicitudProyectoPresupuesto solicitudProyectoPresupuesto) - end");
       return returnValue;
@@ -146,11 +159,11 @@ public class SolicitudProyectoPresupuestoServiceImpl implements SolicitudProyect
 
     Assert.notNull(id,
         "SolicitudProyectoPresupuesto id no puede ser null para eliminar un SolicitudProyectoPresupuesto");
-    if (!repository.existsById(id)) {
-      throw new SolicitudProyectoPresupuestoNotFoundException(id);
-    }
+    SolicitudProyectoPresupuesto solicitudProyectoPresupuesto = repository.findById(id)
+        .orElseThrow(() -> new SolicitudProyectoPresupuestoNotFoundException(id));
 
-    repository.deleteById(id);
+    repository.delete(solicitudProyectoPresupuesto);
+    solicitudProyectoPresupuestoTotalRepository.sincronizar(solicitudProyectoPresupuesto.getSolicitudProyectoId());
     log.debug("delete(Long id) - end");
 
   }
@@ -214,7 +227,8 @@ public class SolicitudProyectoPresupuestoServiceImpl implements SolicitudProyect
   @Override
   public SolicitudProyectoPresupuestoTotales getTotales(Long solicitudId) {
     log.debug("getTotales(Long solicitudId) - start");
-    final SolicitudProyectoPresupuestoTotales returnValue = repository.getTotales(solicitudId);
+    final SolicitudProyectoPresupuestoTotales returnValue = solicitudProyectoPresupuestoTotalRepository
+        .getTotales(solicitudId);
     log.debug("getTotales(Long solicitudId) - end");
     return returnValue;
   }
@@ -230,12 +244,51 @@ public class SolicitudProyectoPresupuestoServiceImpl implements SolicitudProyect
   public List<SolicitudProyectoPresupuestoTotalConceptoGasto> findAllSolicitudProyectoPresupuestoTotalConceptoGastos(
       Long solicitudId) {
     log.debug("findAllSolicitudProyectoPresupuestoTotalConceptoGastos(Long solicitudId) - start");
-    final List<SolicitudProyectoPresupuestoTotalConceptoGasto> returnValue = repository
-        .getSolicitudProyectoPresupuestoTotalConceptoGastos(solicitudId);
+    final List<SolicitudProyectoPresupuestoTotalConceptoGasto> returnValue = solicitudProyectoPresupuestoTotalRepository
+        .getTotalConceptoGastos(solicitudId);
     log.debug("findAllSolicitudProyectoPresupuestoTotalConceptoGastos(Long solicitudId) - end");
     return returnValue;
   }
 
+  /**
+   * Obtiene el presupuesto de la {@link Solicitud} agregado por las dimensiones
+   * indicadas, con los subtotales de cada nivel (ROLLUP).
+   *
+   * @param solicitudId Id de la {@link Solicitud}.
+   * @param dimensiones dimensiones por las que se agrega, en orden.
+   * @return lista de {@link SolicitudProyectoPresupuestoAgregado}.
+   */
+  @Override
+  public List<SolicitudProyectoPresupuestoAgregado> findAgregadoSolicitud(Long solicitudId,
+      List<SolicitudProyectoPresupuestoAgregado.Dimension> dimensiones) {
+    log.debug("findAgregadoSolicitud(Long solicitudId, List<Dimension> dimensiones) - start");
+    Assert.notEmpty(dimensiones, "Hay que indicar al menos una dimensión para agregar el presupuesto");
+    final List<SolicitudProyectoPresupuestoAgregado> returnValue = repository.getAgregadoSolicitud(solicitudId,
+        dimensiones);
+    log.debug("findAgregadoSolicitud(Long solicitudId, List<Dimension> dimensiones) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene el presupuesto de todas las {@link Solicitud} de la
+   * {@link Convocatoria} agregado por las dimensiones indicadas, con los
+   * subtotales de cada nivel (ROLLUP).
+   *
+   * @param convocatoriaId Id de la {@link Convocatoria}.
+   * @param dimensiones    dimensiones por las que se agrega, en orden.
+   * @return lista de {@link SolicitudProyectoPresupuestoAgregado}.
+   */
+  @Override
+  public List<SolicitudProyectoPresupuestoAgregado> findAgregadoConvocatoria(Long convocatoriaId,
+      List<SolicitudProyectoPresupuestoAgregado.Dimension> dimensiones) {
+    log.debug("findAgregadoConvocatoria(Long convocatoriaId, List<Dimension> dimensiones) - start");
+    Assert.notEmpty(dimensiones, "Hay que indicar al menos una dimensión para agregar el presupuesto");
+    final List<SolicitudProyectoPresupuestoAgregado> returnValue = repository
+        .getAgregadoConvocatoria(convocatoriaId, dimensiones);
+    log.debug("findAgregadoConvocatoria(Long convocatoriaId, List<Dimension> dimensiones) - end");
+    return returnValue;
+  }
+
   /**
    * Obtiene el {@link SolicitudProyectoPresupuesto} de la
    * {@link SolicitudProyecto}.
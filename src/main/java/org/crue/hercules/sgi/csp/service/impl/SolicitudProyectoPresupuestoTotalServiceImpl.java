@@ -0,0 +1,91 @@
+package org.crue.hercules.sgi.csp.service.impl;
+
+import java.time.Duration;
+
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuestoTotal;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoPresupuestoTotalRepository;
+import org.crue.hercules.sgi.csp.service.BloqueoTrabajoService;
+import org.crue.hercules.sgi.csp.service.SolicitudProyectoPresupuestoTotalService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service Implementation para gestionar los
+ * {@link SolicitudProyectoPresupuestoTotal}.
+ * <p>
+ * Los totales los mantiene el servicio de {@link SolicitudProyectoPresupuesto};
+ * la reconciliación periódica corrige los que hayan quedado desfasados por
+ * cambios hechos fuera del servicio o por altas concurrentes de la misma
+ * {@link Solicitud}.
+ * <p>
+ * La reconciliación la ejecuta una sola instancia del servicio a la vez, la que
+ * adquiere su {@link BloqueoTrabajoService bloqueo}.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class SolicitudProyectoPresupuestoTotalServiceImpl implements SolicitudProyectoPresupuestoTotalService {
+
+  /** Nombre del bloqueo de la reconciliación */
+  public static final String BLOQUEO_RECONCILIACION = "solicitud-presupuesto-total-reconciliacion";
+
+  private final SolicitudProyectoPresupuestoTotalRepository repository;
+  private final BloqueoTrabajoService bloqueoTrabajoService;
+  private final Duration duracionBloqueo;
+
+  public SolicitudProyectoPresupuestoTotalServiceImpl(SolicitudProyectoPresupuestoTotalRepository repository,
+      BloqueoTrabajoService bloqueoTrabajoService,
+      @Value("${sgi.csp.solicitud-presupuesto-total.reconciliacion-bloqueo:1h}") Duration duracionBloqueo) {
+    this.repository = repository;
+    this.bloqueoTrabajoService = bloqueoTrabajoService;
+    this.duracionBloqueo = duracionBloqueo;
+  }
+
+  /**
+   * Recalcula los {@link SolicitudProyectoPresupuestoTotal} de todas las
+   * {@link Solicitud} a partir de sus {@link SolicitudProyectoPresupuesto} y
+   * corrige los que no coinciden. Cada {@link Solicitud} se reconcilia en su
+   * propia transacción. Si otra instancia del servicio está reconciliando no se
+   * hace nada.
+   *
+   * @return número de {@link SolicitudProyectoPresupuestoTotal} corregidos.
+   */
+  @Override
+  @Scheduled(cron = "${sgi.csp.solicitud-presupuesto-total.reconciliacion-cron:0 30 3 * * *}")
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public int reconciliar() {
+    log.debug("reconciliar() - start");
+    if (!bloqueoTrabajoService.adquirir(BLOQUEO_RECONCILIACION, duracionBloqueo)) {
+      log.info("reconciliar() - Reconciliación en curso en otra instancia");
+      log.debug("reconciliar() - end");
+      return 0;
+    }
+    int returnValue = 0;
+    try {
+      for (Long solicitudId : repository.getSolicitudIdsConPresupuesto()) {
+        try {
+          int corregidos = repository.sincronizar(solicitudId);
+          if (corregidos > 0) {
+            log.warn("reconciliar() - Solicitud {}: {} totales corregidos", solicitudId, corregidos);
+          }
+          returnValue += corregidos;
+        } catch (RuntimeException e) {
+          // Una solicitud que no se puede reconciliar no detiene el resto
+          log.error("reconciliar() - Solicitud {} no reconciliada", solicitudId, e);
+        }
+      }
+    } finally {
+      bloqueoTrabajoService.liberar(BLOQUEO_RECONCILIACION);
+    }
+    log.debug("reconciliar() - end");
+    return returnValue;
+  }
+
+}
@@ -3,6 +3,7 @@ package org.crue.hercules.sgi.csp.service.impl;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.crue.hercules.sgi.csp.exceptions.SolicitudProyectoSocioEquipoNotFoundException;
@@ -89,7 +90,7 @@ public class SolicitudProyectoSocioEquipoServiceImpl implements SolicitudProyect
     // Periodos eliminados
     List<SolicitudProyectoSocioEquipo> solicitudProyectoEquipoEliminar = existentes.stream()
         .filter(periodo -> !solicitudProyectoEquipoSocios.stream().map(SolicitudProyectoSocioEquipo::getId)
-            .anyMatch(id -> id == periodo.getId()))
+            .anyMatch(id -> Objects.equals(id, periodo.getId())))
         .collect(Collectors.toList());
 
     if (!solicitudProyectoEquipoEliminar.isEmpty()) {
@@ -122,11 +123,13 @@ public class SolicitudProyectoSocioEquipoServiceImpl implements SolicitudProyect
       // la que se estan actualizando los periodos
       if (solicitudProyectoSocioEquipo.getId() != null) {
         SolicitudProyectoSocioEquipo existente = existentes.stream()
-            .filter(equipoSocio -> equipoSocio.getId() == solicitudProyectoSocioEquipo.getId()).findFirst()
+            .filter(equipoSocio -> Objects.equals(equipoSocio.getId(), solicitudProyectoSocioEquipo.getId()))
+            .findFirst()
             .orElseThrow(() -> new SolicitudProyectoSocioEquipoNotFoundException(solicitudProyectoSocioEquipo.getId()));
 
         Assert.isTrue(
-            existente.getSolicitudProyectoSocioId() == solicitudProyectoSocioEquipo.getSolicitudProyectoSocioId(),
+            Objects.equals(existente.getSolicitudProyectoSocioId(),
+                solicitudProyectoSocioEquipo.getSolicitudProyectoSocioId()),
             "No se puede modificar la solicitud proyecto socio del SolicitudProyectoSocioEquipo");
       }
 
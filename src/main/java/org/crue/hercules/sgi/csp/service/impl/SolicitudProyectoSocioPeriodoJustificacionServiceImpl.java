@@ -3,6 +3,7 @@ package org.crue.hercules.sgi.csp.service.impl;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -92,7 +93,7 @@ public class SolicitudProyectoSocioPeriodoJustificacionServiceImpl
     List<SolicitudProyectoSocioPeriodoJustificacion> periodoJustificacionesEliminar = solicitudProyectoSocioPeriodoJustificacionesBD
         .stream()
         .filter(periodo -> !solicitudPeriodoJustificaciones.stream()
-            .map(SolicitudProyectoSocioPeriodoJustificacion::getId).anyMatch(id -> id == periodo.getId()))
+            .map(SolicitudProyectoSocioPeriodoJustificacion::getId).anyMatch(id -> Objects.equals(id, periodo.getId())))
         .collect(Collectors.toList());
 
     if (!periodoJustificacionesEliminar.isEmpty()) {
@@ -119,11 +120,13 @@ public class SolicitudProyectoSocioPeriodoJustificacionServiceImpl
       // estan actualizando los periodos
       if (periodoJustificacion.getId() != null) {
         SolicitudProyectoSocioPeriodoJustificacion periodoJustificacionBD = solicitudProyectoSocioPeriodoJustificacionesBD
-            .stream().filter(periodo -> periodo.getId() == periodoJustificacion.getId()).findFirst().orElseThrow(
+            .stream().filter(periodo -> Objects.equals(periodo.getId(), periodoJustificacion.getId())).findFirst()
+            .orElseThrow(
                 () -> new SolicitudProyectoSocioPeriodoJustificacionNotFoundException(periodoJustificacion.getId()));
 
         Assert.isTrue(
-            periodoJustificacionBD.getSolicitudProyectoSocioId() == periodoJustificacion.getSolicitudProyectoSocioId(),
+            Objects.equals(periodoJustificacionBD.getSolicitudProyectoSocioId(),
+                periodoJustificacion.getSolicitudProyectoSocioId()),
             "No se puede modificar la solicitud proyecto socio del SolicitudProyectoSocioPeriodoJustificacion");
       }
 
@@ -3,6 +3,7 @@ package org.crue.hercules.sgi.csp.service.impl;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -102,7 +103,7 @@ public class SolicitudProyectoSocioPeriodoPagoServiceImpl implements SolicitudPr
     // Periodos pago eliminados
     List<SolicitudProyectoSocioPeriodoPago> solicitudProyectoSocioPeriodoPagoEliminar = solicitudProyectoSocioPeriodoPagosBD
         .stream().filter(periodo -> !solicitudPeriodoPagos.stream().map(SolicitudProyectoSocioPeriodoPago::getId)
-            .anyMatch(id -> id == periodo.getId()))
+            .anyMatch(id -> Objects.equals(id, periodo.getId())))
         .collect(Collectors.toList());
 
     if (!solicitudProyectoSocioPeriodoPagoEliminar.isEmpty()) {
@@ -124,13 +125,14 @@ public class SolicitudProyectoSocioPeriodoPagoServiceImpl implements SolicitudPr
       // estan actualizando los periodos
       if (solicitudProyectoSocioPeriodoPago.getId() != null) {
         SolicitudProyectoSocioPeriodoPago solicitudProyectoSocioPeriodoPagoBD = solicitudProyectoSocioPeriodoPagosBD
-            .stream().filter(periodo -> periodo.getId() == solicitudProyectoSocioPeriodoPago.getId()).findFirst()
+            .stream().filter(periodo -> Objects.equals(periodo.getId(), solicitudProyectoSocioPeriodoPago.getId()))
+            .findFirst()
             .orElseThrow(() -> new SolicitudProyectoSocioPeriodoPagoNotFoundException(
                 solicitudProyectoSocioPeriodoPago.getId()));
 
         Assert.isTrue(
-            solicitudProyectoSocioPeriodoPagoBD.getSolicitudProyectoSocioId() == solicitudProyectoSocioPeriodoPago
-                .getSolicitudProyectoSocioId(),
+            Objects.equals(solicitudProyectoSocioPeriodoPagoBD.getSolicitudProyectoSocioId(),
+                solicitudProyectoSocioPeriodoPago.getSolicitudProyectoSocioId()),
             "No se puede modificar la solicitud proyecto socio del SolicitudProyectoSocioPeriodoPago");
       }
 
@@ -3,15 +3,31 @@ package org.crue.hercules.sgi.csp.service.impl;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
+import org.crue.hercules.sgi.csp.dto.SolicitudCapacidades;
+import org.crue.hercules.sgi.csp.dto.SolicitudTransicion;
+import org.crue.hercules.sgi.csp.dto.SolicitudTransiciones;
 import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
 import org.crue.hercules.sgi.csp.exceptions.ConfiguracionSolicitudNotFoundException;
 import org.crue.hercules.sgi.csp.exceptions.ConvocatoriaNotFoundException;
 import org.crue.hercules.sgi.csp.exceptions.SolicitudNotFoundException;
 import org.crue.hercules.sgi.csp.exceptions.SolicitudProyectoNotFoundException;
+import org.crue.hercules.sgi.csp.exceptions.VersionAgregadoMismatchException;
 import org.crue.hercules.sgi.csp.model.ConfiguracionSolicitud;
 import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaEntidadConvocante;
@@ -38,13 +54,16 @@ import org.crue.hercules.sgi.csp.repository.predicate.SolicitudPredicateResolver
 import org.crue.hercules.sgi.csp.repository.specification.DocumentoRequeridoSolicitudSpecifications;
 import org.crue.hercules.sgi.csp.repository.specification.SolicitudSpecifications;
 import org.crue.hercules.sgi.csp.service.SolicitudService;
+import org.crue.hercules.sgi.csp.util.AutorizacionUnidadesHolder;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.crue.hercules.sgi.csp.util.SolicitudMaquinaEstados;
+import org.crue.hercules.sgi.csp.util.TotalCountCache;
 import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
-import org.crue.hercules.sgi.framework.security.access.expression.SgiMethodSecurityExpressionRoot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
@@ -60,6 +79,12 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional(readOnly = true)
 public class SolicitudServiceImpl implements SolicitudService {
 
+  /**
+   * Número máximo de {@link Solicitud} por consulta de modificables o de
+   * capacidades
+   */
+  private static final int MAX_IDS_POR_CONSULTA = 100;
+
   private final SolicitudRepository repository;
   private final EstadoSolicitudRepository estadoSolicitudRepository;
   private final ConfiguracionSolicitudRepository configuracionSolicitudRepository;
@@ -71,6 +96,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   private final SolicitudProyectoEquipoRepository solicitudProyectoEquipoRepository;
   private final SolicitudProyectoSocioRepository solicitudProyectoSocioRepository;
   private final ConvocatoriaRepository convocatoriaRepository;
+  private final TotalCountCache totalCountCache;
 
   public SolicitudServiceImpl(SolicitudRepository repository, EstadoSolicitudRepository estadoSolicitudRepository,
       ConfiguracionSolicitudRepository configuracionSolicitudRepository, ProyectoRepository proyectoRepository,
@@ -80,7 +106,7 @@ public class SolicitudServiceImpl implements SolicitudService {
       ConvocatoriaEntidadConvocanteRepository convocatoriaEntidadConvocanteRepository,
       SolicitudProyectoEquipoRepository solicitudProyectoEquipoRepository,
       SolicitudProyectoSocioRepository solicitudProyectoSocioRepository,
-      ConvocatoriaRepository convocatoriaRepository) {
+      ConvocatoriaRepository convocatoriaRepository, TotalCountCache totalCountCache) {
     this.repository = repository;
     this.estadoSolicitudRepository = estadoSolicitudRepository;
     this.configuracionSolicitudRepository = configuracionSolicitudRepository;
@@ -92,6 +118,7 @@ public class SolicitudServiceImpl implements SolicitudService {
     this.solicitudProyectoEquipoRepository = solicitudProyectoEquipoRepository;
     this.solicitudProyectoSocioRepository = solicitudProyectoSocioRepository;
     this.convocatoriaRepository = convocatoriaRepository;
+    this.totalCountCache = totalCountCache;
   }
 
   /**
@@ -204,6 +231,54 @@ public class SolicitudServiceImpl implements SolicitudService {
     }).orElseThrow(() -> new SolicitudNotFoundException(solicitud.getId()));
   }
 
+  /**
+   * Actualiza los datos de la {@link Solicitud} comprobando antes que su
+   * versión coincide con la indicada. La fila de la {@link Solicitud} se
+   * bloquea hasta el final de la transacción para que nadie la modifique entre
+   * la comprobación y la actualización.
+   *
+   * @param solicitud         {@link Solicitud} con los datos actualizados.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion
+   *                          permitidas para el usuario.
+   * @param version           versión de la {@link Solicitud} sobre la que se
+   *                          han hecho los cambios.
+   * @return {@link Solicitud} actualizado.
+   */
+  @Override
+  @Transactional
+  public Solicitud update(Solicitud solicitud, List<String> unidadGestionRefs, Long version) {
+    log.debug("update(Solicitud solicitud, Long version) - start");
+
+    Assert.notNull(solicitud.getId(), "Id no puede ser null para actualizar Solicitud");
+    Assert.notNull(version, "Version no puede ser null para actualizar Solicitud");
+
+    Long versionActual = repository.getVersionForUpdate(solicitud.getId())
+        .orElseThrow(() -> new SolicitudNotFoundException(solicitud.getId()));
+    if (!versionActual.equals(version)) {
+      throw new VersionAgregadoMismatchException("Solicitud", solicitud.getId());
+    }
+    Solicitud returnValue = update(solicitud, unidadGestionRefs);
+
+    log.debug("update(Solicitud solicitud, Long version) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la versión de la {@link Solicitud} si pertenece a una de las
+   * unidades de gestión del usuario, con las mismas comprobaciones que
+   * {@link #findById(Long, List)}.
+   *
+   * @param id Id de la {@link Solicitud}.
+   * @return la versión, vacía si no existe o el usuario no la puede consultar.
+   */
+  @Override
+  public Optional<Long> findVersion(Long id) {
+    log.debug("findVersion(Long id) - start");
+    Optional<Long> returnValue = repository.getVersion(id, AutorizacionUnidadesHolder.get().getUnidadesGestion());
+    log.debug("findVersion(Long id) - end");
+    return returnValue;
+  }
+
   /**
    * Reactiva el {@link Solicitud}.
    *
@@ -308,15 +383,78 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Page<Solicitud> findAllRestringidos(String query, Pageable paging, List<String> unidadGestionRefs) {
     log.debug("findAll(String query, Pageable paging, List<String> unidadGestionRefs) - start");
 
-    Specification<Solicitud> specs = SolicitudSpecifications.activos()
-        .and(SolicitudSpecifications.unidadGestionRefIn(unidadGestionRefs))
-        .and(SgiRSQLJPASupport.toSpecification(query, SolicitudPredicateResolver.getInstance()));
-
-    Page<Solicitud> returnValue = repository.findAll(specs, paging);
+    Page<Solicitud> returnValue = repository.findAll(getSpecsFindAllRestringidos(query, unidadGestionRefs), paging);
     log.debug("findAll(String query, Pageable paging, List<String> unidadGestionRefs) - end");
     return returnValue;
   }
 
+  /**
+   * Obtiene la página de entidades {@link Solicitud} activas filtradas que sigue
+   * al cursor indicado, sin consulta count.
+   *
+   * @param query             información del filtro.
+   * @param cursor            cursor de la página o vacío para la primera.
+   * @param paging            tamaño de página y ordenación de la primera página.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} con el cursor de la
+   *         siguiente.
+   */
+  @Override
+  public KeysetSlice<Solicitud> findAllRestringidos(String query, String cursor, Pageable paging,
+      List<String> unidadGestionRefs) {
+    log.debug("findAllRestringidos(String query, String cursor, Pageable paging, "
+        + "List<String> unidadGestionRefs) - start");
+    KeysetSlice<Solicitud> returnValue = repository.findAllKeyset(
+        getSpecsFindAllRestringidos(query, unidadGestionRefs), KeysetCursor.of(cursor, paging.getSort()),
+        paging.getPageSize());
+    log.debug("findAllRestringidos(String query, String cursor, Pageable paging, "
+        + "List<String> unidadGestionRefs) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Solicitud} activas filtradas,
+   * sin consulta count.
+   *
+   * @param query             información del filtro.
+   * @param paging            información de paginación.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} sin el número total de
+   *         elementos.
+   */
+  @Override
+  public Slice<Solicitud> findAllRestringidosSinTotal(String query, Pageable paging, List<String> unidadGestionRefs) {
+    log.debug("findAllRestringidosSinTotal(String query, Pageable paging, List<String> unidadGestionRefs) - start");
+    Specification<Solicitud> specs = getSpecsFindAllRestringidos(query, unidadGestionRefs);
+    Slice<Solicitud> returnValue = repository.findAllSlice(specs, paging);
+    log.debug("findAllRestringidosSinTotal(String query, Pageable paging, List<String> unidadGestionRefs) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Solicitud} activas filtradas,
+   * con el número total de elementos estimado: el total se reutiliza durante un
+   * tiempo para el mismo filtro en lugar de lanzar la consulta count en cada
+   * página.
+   *
+   * @param query             información del filtro.
+   * @param paging            información de paginación.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} con el total estimado.
+   */
+  @Override
+  public Page<Solicitud> findAllRestringidosTotalEstimado(String query, Pageable paging,
+      List<String> unidadGestionRefs) {
+    log.debug("findAllRestringidosTotalEstimado(String query, Pageable paging, "
+        + "List<String> unidadGestionRefs) - start");
+    Specification<Solicitud> specs = getSpecsFindAllRestringidos(query, unidadGestionRefs);
+    String clave = TotalCountCache.key("solicitud", query, unidadGestionRefs);
+    Page<Solicitud> returnValue = totalCountCache.toPage(clave, repository.findAllSlice(specs, paging),
+        () -> repository.count(specs));
+    log.debug("findAllRestringidosTotalEstimado(String query, Pageable paging, List<String> unidadGestionRefs) - end");
+    return returnValue;
+  }
+
   /**
    * Obtiene todas las entidades {@link Solicitud} paginadas y filtradas.
    *
@@ -329,14 +467,112 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Page<Solicitud> findAllTodosRestringidos(String query, Pageable paging, List<String> unidadGestionRefs) {
     log.debug("findAll(String query, Pageable paging, List<String> unidadGestionRefs) - start");
 
-    Specification<Solicitud> specs = SolicitudSpecifications.unidadGestionRefIn(unidadGestionRefs)
-        .and(SgiRSQLJPASupport.toSpecification(query, SolicitudPredicateResolver.getInstance()));
-
-    Page<Solicitud> returnValue = repository.findAll(specs, paging);
+    Page<Solicitud> returnValue = repository.findAll(getSpecsFindAllTodosRestringidos(query, unidadGestionRefs),
+        paging);
     log.debug("findAll(String query, Pageable paging, List<String> unidadGestionRefs) - end");
     return returnValue;
   }
 
+  /**
+   * Obtiene la página de entidades {@link Solicitud} filtradas que sigue al
+   * cursor indicado, sin consulta count.
+   *
+   * @param query             información del filtro.
+   * @param cursor            cursor de la página o vacío para la primera.
+   * @param paging            tamaño de página y ordenación de la primera página.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} con el cursor de la
+   *         siguiente.
+   */
+  @Override
+  public KeysetSlice<Solicitud> findAllTodosRestringidos(String query, String cursor, Pageable paging,
+      List<String> unidadGestionRefs) {
+    log.debug("findAllTodosRestringidos(String query, String cursor, Pageable paging, "
+        + "List<String> unidadGestionRefs) - start");
+    KeysetSlice<Solicitud> returnValue = repository.findAllKeyset(
+        getSpecsFindAllTodosRestringidos(query, unidadGestionRefs), KeysetCursor.of(cursor, paging.getSort()),
+        paging.getPageSize());
+    log.debug("findAllTodosRestringidos(String query, String cursor, Pageable paging, "
+        + "List<String> unidadGestionRefs) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Solicitud} filtradas, sin
+   * consulta count.
+   *
+   * @param query             información del filtro.
+   * @param paging            información de paginación.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} sin el número total de
+   *         elementos.
+   */
+  @Override
+  public Slice<Solicitud> findAllTodosRestringidosSinTotal(String query, Pageable paging,
+      List<String> unidadGestionRefs) {
+    log.debug("findAllTodosRestringidosSinTotal(String query, Pageable paging, "
+        + "List<String> unidadGestionRefs) - start");
+    Specification<Solicitud> specs = getSpecsFindAllTodosRestringidos(query, unidadGestionRefs);
+    Slice<Solicitud> returnValue = repository.findAllSlice(specs, paging);
+    log.debug("findAllTodosRestringidosSinTotal(String query, Pageable paging, List<String> unidadGestionRefs) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene la página indicada de entidades {@link Solicitud} filtradas, con el
+   * número total de elementos estimado: el total se reutiliza durante un tiempo
+   * para el mismo filtro en lugar de lanzar la consulta count en cada página.
+   *
+   * @param query             información del filtro.
+   * @param paging            información de paginación.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @return la página de entidades {@link Solicitud} con el total estimado.
+   */
+  @Override
+  public Page<Solicitud> findAllTodosRestringidosTotalEstimado(String query, Pageable paging,
+      List<String> unidadGestionRefs) {
+    log.debug("findAllTodosRestringidosTotalEstimado(String query, Pageable paging, "
+        + "List<String> unidadGestionRefs) - start");
+    Specification<Solicitud> specs = getSpecsFindAllTodosRestringidos(query, unidadGestionRefs);
+    String clave = TotalCountCache.key("solicitud.todos", query, unidadGestionRefs);
+    Page<Solicitud> returnValue = totalCountCache.toPage(clave, repository.findAllSlice(specs, paging),
+        () -> repository.count(specs));
+    log.debug("findAllTodosRestringidosTotalEstimado(String query, Pageable paging, "
+        + "List<String> unidadGestionRefs) - end");
+    return returnValue;
+  }
+
+  /**
+   * Aplica la acción a cada {@link Solicitud} filtrada de las unidades de
+   * gestión indicadas, en orden de id, sin cargar el listado completo en
+   * memoria.
+   *
+   * @param query             información del filtro.
+   * @param unidadGestionRefs lista de referencias de las unidades de gestion.
+   * @param action            acción a aplicar a cada {@link Solicitud}.
+   * @return el número de {@link Solicitud} exportadas.
+   */
+  @Override
+  public long exportTodosRestringidos(String query, List<String> unidadGestionRefs,
+      Consumer<? super Solicitud> action) {
+    log.debug("exportTodosRestringidos(String query, List<String> unidadGestionRefs, "
+        + "Consumer<? super Solicitud> action) - start");
+    long returnValue = repository.forEach(getSpecsFindAllTodosRestringidos(query, unidadGestionRefs), action);
+    log.debug("exportTodosRestringidos(String query, List<String> unidadGestionRefs, "
+        + "Consumer<? super Solicitud> action) - end");
+    return returnValue;
+  }
+
+  private Specification<Solicitud> getSpecsFindAllRestringidos(String query, List<String> unidadGestionRefs) {
+    return SolicitudSpecifications.activos().and(SolicitudSpecifications.unidadGestionRefIn(unidadGestionRefs))
+        .and(SgiRSQLJPASupport.toSpecification(query, SolicitudPredicateResolver.getInstance()));
+  }
+
+  private Specification<Solicitud> getSpecsFindAllTodosRestringidos(String query, List<String> unidadGestionRefs) {
+    return SolicitudSpecifications.unidadGestionRefIn(unidadGestionRefs)
+        .and(SgiRSQLJPASupport.toSpecification(query, SolicitudPredicateResolver.getInstance()));
+  }
+
   /**
    * Comprueba si la soliciutd está asociada a una convocatoria SGI.
    * 
@@ -373,8 +609,8 @@ public class SolicitudServiceImpl implements SolicitudService {
     // VALIDACIONES
 
     // Estado
-    Assert.isTrue(solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.BORRADOR,
-        "La solicitud no se encuentra en un estado correcto.");
+    Assert.isTrue(SolicitudMaquinaEstados.isTransicionValida(solicitud.getEstado().getEstado(),
+        EstadoSolicitud.Estado.PRESENTADA), "La solicitud no se encuentra en un estado correcto.");
 
     // Existe una convocatoria asociada a la solicitud
     if (solicitud.getConvocatoriaId() != null) {
@@ -442,20 +678,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud admitirProvisionalmente(Long id) {
     log.debug("admitirProvisionalmente(Long idSolicitud) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.PRESENTADA,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Se cambia el estado de la solicitud a "Admitida provisionalmente".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL, null);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL, null);
 
     log.debug("admitirProvisionalmente(Long idSolicitud) - end");
     return returnValue;
@@ -472,22 +695,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud admitirDefinitivamente(Long id) {
     log.debug("admitirDefinitivamente(Long idSolicitud) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(
-        solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL
-            || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ALEGADA_ADMISION,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Se cambia el estado de la solicitud a "Admitida definitivamente".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.ADMITIDA_DEFINITIVA, null);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.ADMITIDA_DEFINITIVA, null);
 
     log.debug("admitirDefinitivamente(Long idSolicitud) - end");
     return returnValue;
@@ -504,20 +712,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud concederProvisionalmente(Long id) {
     log.debug("concederProvisionalmente(Long idSolicitud) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ADMITIDA_DEFINITIVA,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Se cambia el estado de la solicitud a "Concedida provisional".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.CONCECIDA_PROVISIONAL, null);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.CONCECIDA_PROVISIONAL, null);
 
     log.debug("concederProvisionalmente(Long idSolicitud) - end");
     return returnValue;
@@ -535,22 +730,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud conceder(Long id) {
     log.debug("conceder(Long idSolicitud) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(
-        solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.CONCECIDA_PROVISIONAL
-            || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ALEGADA_CONCESION,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Se cambia el estado de la solicitud a "Concedida".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.CONCECIDA, null);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.CONCECIDA, null);
 
     log.debug("conceder(Long idSolicitud) - end");
     return returnValue;
@@ -568,24 +748,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud exlcluirProvisionalmente(Long id, String comentario) {
     log.debug("exlcluirProvisionalmente(Long idSolicitud, String comentario) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.PRESENTADA,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Comentario
-    Assert.notNull(comentario, "El comentario no puede ser null para el cambio de estado.");
-
-    // Se cambia el estado de la solicitud a "Excluir provisionalmente".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.EXCLUIDA_PROVISIONAL,
-        comentario);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.EXCLUIDA_PROVISIONAL, comentario);
 
     log.debug("exlcluirProvisionalmente(Long idSolicitud, String comentario) - end");
     return returnValue;
@@ -603,24 +766,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud alegarAdmision(Long id, String comentario) {
     log.debug("alegarAdmision(Long idSolicitud, String comentario) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.EXCLUIDA_PROVISIONAL,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Comentario
-    Assert.notNull(comentario, "El comentario no puede ser null para el cambio de estado.");
-
-    // Se cambia el estado de la solicitud a "Alegada admisión".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.ALEGADA_ADMISION,
-        comentario);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.ALEGADA_ADMISION, comentario);
 
     log.debug("alegarAdmision(Long idSolicitud, String comentario) - end");
     return returnValue;
@@ -638,23 +784,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud excluir(Long id, String comentario) {
     log.debug("excluir(Long idSolicitud, String comentario) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ALEGADA_ADMISION,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Comentario
-    Assert.notNull(comentario, "El comentario no puede ser null para el cambio de estado.");
-
-    // Se cambia el estado de la solicitud a "Excluida".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.EXCLUIDA, comentario);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.EXCLUIDA, comentario);
 
     log.debug("excluir(Long idSolicitud, String comentario) - end");
     return returnValue;
@@ -672,24 +802,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud denegarProvisionalmente(Long id, String comentario) {
     log.debug("denegarProvisionalmente(Long idSolicitud, String comentario) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ADMITIDA_DEFINITIVA,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Comentario
-    Assert.notNull(comentario, "El comentario no puede ser null para el cambio de estado.");
-
-    // Se cambia el estado de la solicitud a "Denegada provisional".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.DENEGADA_PROVISIONAL,
-        comentario);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.DENEGADA_PROVISIONAL, comentario);
 
     log.debug("denegarProvisionalmente(Long idSolicitud, String comentario) - end");
     return returnValue;
@@ -707,24 +820,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud alegarConcesion(Long id, String comentario) {
     log.debug("alegarConcesion(Long idSolicitud, String comentario) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.DENEGADA_PROVISIONAL,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Comentario
-    Assert.notNull(comentario, "El comentario no puede ser null para el cambio de estado.");
-
-    // Se cambia el estado de la solicitud a "Alegada concesión".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.ALEGADA_CONCESION,
-        comentario);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.ALEGADA_CONCESION, comentario);
 
     log.debug("alegarConcesion(Long idSolicitud, String comentario) - end");
     return returnValue;
@@ -742,23 +838,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud denegar(Long id, String comentario) {
     log.debug("denegar(Long idSolicitud, String comentario) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ALEGADA_CONCESION,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Comentario
-    Assert.notNull(comentario, "El comentario no puede ser null para el cambio de estado.");
-
-    // Se cambia el estado de la solicitud a "Denegada provisional".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.DENEGADA, comentario);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.DENEGADA, comentario);
 
     log.debug("denegar(Long idSolicitud, String comentario) - end");
     return returnValue;
@@ -778,29 +858,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   public Solicitud desistir(Long id, String comentario) {
     log.debug("desistir(Long idSolicitud, String comentario) - start");
 
-    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
-
-    // Estado
-    Assert.isTrue(
-        solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.PRESENTADA
-            || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL
-            || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ADMITIDA_DEFINITIVA
-            || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.EXCLUIDA_PROVISIONAL
-            || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.DENEGADA_PROVISIONAL
-            || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.CONCECIDA_PROVISIONAL,
-        "La solicitud no se encuentra en un estado correcto.");
-
-    // Comentario
-    Assert.notNull(comentario, "El comentario no puede ser null para el cambio de estado.");
-
-    // Se cambia el estado de la solicitud a "Desistida".
-
-    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, EstadoSolicitud.Estado.DESISTIDA, comentario);
-
-    // Actualiza el estado actual de la solicitud con el nuevo estado
-    solicitud.setEstado(estadoSolicitud);
-
-    Solicitud returnValue = repository.save(solicitud);
+    Solicitud returnValue = cambiarEstado(id, EstadoSolicitud.Estado.DESISTIDA, comentario);
 
     log.debug("desistir(Long idSolicitud, String comentario) - end");
     return returnValue;
@@ -949,6 +1007,39 @@ public class SolicitudServiceImpl implements SolicitudService {
     return codigoRegistroInterno;
   }
 
+  /**
+   * Cambia el estado de la {@link Solicitud} si la transición está permitida
+   * por {@link SolicitudMaquinaEstados}.
+   * 
+   * @param id         Identificador de {@link Solicitud}.
+   * @param estado     El nuevo {@link EstadoSolicitud.Estado}.
+   * @param comentario Comentario de {@link EstadoSolicitud}.
+   * @return {@link Solicitud} actualizado.
+   */
+  private Solicitud cambiarEstado(Long id, EstadoSolicitud.Estado estado, String comentario) {
+    log.debug("cambiarEstado(Long id, EstadoSolicitud.Estado estado, String comentario) - start");
+
+    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
+
+    // Estado
+    Assert.isTrue(SolicitudMaquinaEstados.isTransicionValida(solicitud.getEstado().getEstado(), estado),
+        "La solicitud no se encuentra en un estado correcto.");
+
+    // Comentario
+    Assert.isTrue(!SolicitudMaquinaEstados.requiereComentario(estado) || comentario != null,
+        "El comentario no puede ser null para el cambio de estado.");
+
+    EstadoSolicitud estadoSolicitud = addEstadoSolicitud(solicitud, estado, comentario);
+
+    // Actualiza el estado actual de la solicitud con el nuevo estado
+    solicitud.setEstado(estadoSolicitud);
+
+    Solicitud returnValue = repository.save(solicitud);
+
+    log.debug("cambiarEstado(Long id, EstadoSolicitud.Estado estado, String comentario) - end");
+    return returnValue;
+  }
+
   /**
    * Añade el nuevo {@link EstadoSolicitud} y actualiza la {@link Solicitud} con
    * dicho estado.
@@ -1025,18 +1116,7 @@ public class SolicitudServiceImpl implements SolicitudService {
   protected Boolean checkAuthority(String authority, String unidad) {
     log.debug("checkAuthority(String authority, String unidad) - start");
 
-    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-    SgiMethodSecurityExpressionRoot sgiMethodSecurityExpressionRoot = new SgiMethodSecurityExpressionRoot(
-        authentication);
-
-    Boolean returnValue = Boolean.FALSE;
-
-    if (StringUtils.isBlank(unidad)) {
-      returnValue = sgiMethodSecurityExpressionRoot.hasAuthority(authority);
-    } else {
-      returnValue = (sgiMethodSecurityExpressionRoot.hasAuthority(authority)
-          || sgiMethodSecurityExpressionRoot.hasAuthority(authority + "_" + unidad));
-    }
+    Boolean returnValue = AutorizacionUnidadesHolder.get().hasAuthorityForUO(authority, unidad);
 
     log.debug("checkAuthority(String authority, String unidad) - end");
     return returnValue;
@@ -1057,39 +1137,255 @@ public class SolicitudServiceImpl implements SolicitudService {
 
     Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
 
-    String unidadGestionSolicitud = solicitud.getUnidadGestionRef();
-
     // solicitud activa para poder modificar
-    boolean returnValue = solicitud.getActivo();
+    boolean returnValue = solicitud.getActivo() && SolicitudMaquinaEstados
+        .isEditable(solicitud.getEstado().getEstado(), getRoles(solicitud.getUnidadGestionRef()));
+
+    log.debug("modificable(Long id) - end");
+    return returnValue;
+  }
 
-    // Se comprueba si el usuario tiene el permiso correspondiente
-    Boolean isAdministradorOrGestor = checkAuthority("CSP-SOL-C", unidadGestionSolicitud);
-    Boolean isInvestigador = checkAuthority("CSP-SOL-C-INV", unidadGestionSolicitud);
+  /**
+   * Obtiene el estado actual de la {@link Solicitud}, si el usuario la puede
+   * modificar y los cambios de estado que puede realizar.
+   *
+   * @param id Id del {@link Solicitud}.
+   * @return las transiciones de la {@link Solicitud}.
+   */
+  @Override
+  public SolicitudTransiciones getTransiciones(Long id) {
+    log.debug("getTransiciones(Long id) - start");
 
-    // Si no tiene permisos ni de administrador o gestor ni investigador no se podrá
-    // realizar la acción
-    if (returnValue && !isAdministradorOrGestor && !isInvestigador) {
-      returnValue = Boolean.FALSE;
+    Solicitud solicitud = repository.findById(id).orElseThrow(() -> new SolicitudNotFoundException(id));
+    EstadoSolicitud.Estado estado = solicitud.getEstado().getEstado();
+    Set<SolicitudMaquinaEstados.Rol> roles = getRoles(solicitud.getUnidadGestionRef());
+
+    List<SolicitudTransicion> transiciones = new ArrayList<>();
+    if (solicitud.getActivo()) {
+      SolicitudMaquinaEstados.getTransiciones(estado, roles)
+          .forEach(destino -> transiciones.add(new SolicitudTransicion(destino,
+              SolicitudMaquinaEstados.requiereComentario(destino))));
     }
 
-    if (returnValue && isAdministradorOrGestor) {
-      returnValue = (solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.BORRADOR
-          || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.PRESENTADA
-          || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL
-          || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ALEGADA_ADMISION
-          || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ADMITIDA_DEFINITIVA
-          || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.CONCECIDA_PROVISIONAL
-          || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.ALEGADA_CONCESION);
+    SolicitudTransiciones returnValue = new SolicitudTransiciones(estado,
+        solicitud.getActivo() && SolicitudMaquinaEstados.isEditable(estado, roles), transiciones);
+
+    log.debug("getTransiciones(Long id) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene, de entre las {@link Solicitud} indicadas, las que puede modificar
+   * el usuario, con una única consulta.
+   *
+   * @param ids Ids de las {@link Solicitud}.
+   * @return los ids de las {@link Solicitud} modificables.
+   */
+  @Override
+  public List<Long> findIdsModificables(List<Long> ids) {
+    log.debug("findIdsModificables(List<Long> ids) - start");
+    Assert.isTrue(ids.size() <= MAX_IDS_POR_CONSULTA,
+        "No se pueden consultar más de " + MAX_IDS_POR_CONSULTA + " solicitudes");
+
+    Map<String, Set<SolicitudMaquinaEstados.Rol>> rolesUnidadGestion = new HashMap<>();
+    List<Long> returnValue = repository.findAllById(ids).stream()
+        .filter(solicitud -> solicitud.getActivo() && SolicitudMaquinaEstados.isEditable(
+            solicitud.getEstado().getEstado(),
+            rolesUnidadGestion.computeIfAbsent(solicitud.getUnidadGestionRef(), this::getRoles)))
+        .map(Solicitud::getId).collect(Collectors.toList());
+
+    log.debug("findIdsModificables(List<Long> ids) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene para cada una de las {@link Solicitud} indicadas si es modificable,
+   * si cumple las condiciones para ser presentada y si se puede crear un
+   * {@link Proyecto} a partir de ella.
+   * <p>
+   * Equivale a {@link #modificable(Long)},
+   * {@link #cumpleValidacionesPresentada(Long)} y
+   * {@link #isPosibleCrearProyecto(Long)} para cada solicitud, pero con un
+   * número de consultas que no depende del número de solicitudes.
+   *
+   * @param ids Ids de las {@link Solicitud}.
+   * @return las capacidades de las {@link Solicitud} que existen, en el orden
+   *         de los ids.
+   */
+  @Override
+  public List<SolicitudCapacidades> findCapacidades(List<Long> ids) {
+    log.debug("findCapacidades(List<Long> ids) - start");
+    Assert.isTrue(ids.size() <= MAX_IDS_POR_CONSULTA,
+        "No se pueden consultar más de " + MAX_IDS_POR_CONSULTA + " solicitudes");
+
+    Map<Long, Solicitud> solicitudes = repository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Solicitud::getId, Function.identity()));
+
+    // Datos del proyecto de las solicitudes en las que se comprueban
+    List<Long> solicitudProyectoIds = solicitudes.values().stream()
+        .filter(solicitud -> solicitud.getFormularioSolicitud() == FormularioSolicitud.ESTANDAR
+            && (isEstado(solicitud, EstadoSolicitud.Estado.BORRADOR)
+                || isEstado(solicitud, EstadoSolicitud.Estado.CONCECIDA)))
+        .map(Solicitud::getId).collect(Collectors.toList());
+    Map<Long, SolicitudProyecto> solicitudProyectos = solicitudProyectoIds.isEmpty() ? Collections.emptyMap()
+        : solicitudProyectoRepository.findAllById(solicitudProyectoIds).stream()
+            .collect(Collectors.toMap(SolicitudProyecto::getId, Function.identity()));
+
+    Set<Long> presentables = findIdsPresentables(solicitudes.values().stream()
+        .filter(solicitud -> isEstado(solicitud, EstadoSolicitud.Estado.BORRADOR)).collect(Collectors.toList()),
+        solicitudProyectos);
+
+    List<Long> concedidas = solicitudes.values().stream()
+        .filter(solicitud -> isEstado(solicitud, EstadoSolicitud.Estado.CONCECIDA)).map(Solicitud::getId)
+        .collect(Collectors.toList());
+    Set<Long> conProyecto = concedidas.isEmpty() ? Collections.emptySet()
+        : new HashSet<>(proyectoRepository.findSolicitudIdsConProyecto(concedidas));
+
+    Map<String, Set<SolicitudMaquinaEstados.Rol>> rolesUnidadGestion = new HashMap<>();
+    List<SolicitudCapacidades> returnValue = new ArrayList<>();
+    for (Long id : new LinkedHashSet<>(ids)) {
+      Solicitud solicitud = solicitudes.get(id);
+      if (solicitud == null) {
+        continue;
+      }
+
+      boolean modificable = solicitud.getActivo() && SolicitudMaquinaEstados.isEditable(
+          solicitud.getEstado().getEstado(),
+          rolesUnidadGestion.computeIfAbsent(solicitud.getUnidadGestionRef(), this::getRoles));
+
+      boolean crearProyecto = isEstado(solicitud, EstadoSolicitud.Estado.CONCECIDA) && !conProyecto.contains(id)
+          && solicitud.getFormularioSolicitud() == FormularioSolicitud.ESTANDAR
+          && solicitudProyectos.containsKey(id);
+
+      returnValue.add(new SolicitudCapacidades(id, modificable, presentables.contains(id), crearProyecto));
     }
 
-    if (returnValue && isInvestigador) {
-      returnValue = (solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.BORRADOR
-          || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.EXCLUIDA_PROVISIONAL
-          || solicitud.getEstado().getEstado() == EstadoSolicitud.Estado.DENEGADA_PROVISIONAL);
+    log.debug("findCapacidades(List<Long> ids) - end");
+    return returnValue;
+  }
+
+  /**
+   * Obtiene, de entre las {@link Solicitud} en estado "Borrador" indicadas, las
+   * que cumplen las validaciones de {@link #cumpleValidacionesPresentada(Long)}.
+   * Cada validación se resuelve con una única consulta para todas las
+   * solicitudes.
+   *
+   * @param borradores         las {@link Solicitud} en estado "Borrador".
+   * @param solicitudProyectos los {@link SolicitudProyecto} de las solicitudes,
+   *                           por id.
+   * @return los ids de las {@link Solicitud} presentables.
+   */
+  private Set<Long> findIdsPresentables(List<Solicitud> borradores, Map<Long, SolicitudProyecto> solicitudProyectos) {
+    Set<Long> returnValue = new HashSet<>();
+    if (borradores.isEmpty()) {
+      return returnValue;
     }
 
-    log.debug("modificable(Long id) - end");
+    // Documentación requerida y modalidad de las entidades convocantes
+    Set<Long> convocatoriaIds = borradores.stream().map(Solicitud::getConvocatoriaId).filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+    Map<Long, Set<Long>> tiposDocumentoRequeridos = new HashMap<>();
+    Set<Long> convocatoriasSinModalidad = new HashSet<>();
+    Map<Long, Set<Long>> tiposDocumentoSolicitud = new HashMap<>();
+    if (!convocatoriaIds.isEmpty()) {
+      Map<Long, Long> convocatoriaIdPorConfiguracion = configuracionSolicitudRepository
+          .findAllByConvocatoriaIdIn(convocatoriaIds).stream()
+          .collect(Collectors.toMap(ConfiguracionSolicitud::getId, ConfiguracionSolicitud::getConvocatoriaId));
+      if (!convocatoriaIdPorConfiguracion.isEmpty()) {
+        for (DocumentoRequeridoSolicitud documentoRequerido : documentoRequeridoSolicitudRepository
+            .findAllByConfiguracionSolicitudIdIn(convocatoriaIdPorConfiguracion.keySet())) {
+          tiposDocumentoRequeridos
+              .computeIfAbsent(convocatoriaIdPorConfiguracion.get(documentoRequerido.getConfiguracionSolicitudId()),
+                  convocatoriaId -> new HashSet<>())
+              .add(documentoRequerido.getTipoDocumento().getId());
+        }
+      }
+
+      convocatoriaEntidadConvocanteRepository.findByProgramaIsNullAndConvocatoriaIdIn(convocatoriaIds)
+          .forEach(entidadConvocante -> convocatoriasSinModalidad.add(entidadConvocante.getConvocatoriaId()));
+
+      List<Long> solicitudesConDocumentacion = borradores.stream()
+          .filter(solicitud -> tiposDocumentoRequeridos.containsKey(solicitud.getConvocatoriaId()))
+          .map(Solicitud::getId).collect(Collectors.toList());
+      if (!solicitudesConDocumentacion.isEmpty()) {
+        solicitudDocumentoRepository.findAllBySolicitudIdIn(solicitudesConDocumentacion).stream()
+            .filter(solicitudDocumento -> solicitudDocumento.getTipoDocumento() != null)
+            .forEach(solicitudDocumento -> tiposDocumentoSolicitud
+                .computeIfAbsent(solicitudDocumento.getSolicitudId(), solicitudId -> new HashSet<>())
+                .add(solicitudDocumento.getTipoDocumento().getId()));
+      }
+    }
+
+    // Equipo y socios coordinadores de los proyectos de formulario estándar
+    List<Long> solicitudProyectoIds = borradores.stream()
+        .filter(solicitud -> solicitud.getFormularioSolicitud() == FormularioSolicitud.ESTANDAR)
+        .map(Solicitud::getId).filter(solicitudProyectos::containsKey).collect(Collectors.toList());
+    Map<Long, Set<String>> personasEquipo = new HashMap<>();
+    Set<Long> conSocioCoordinador = new HashSet<>();
+    if (!solicitudProyectoIds.isEmpty()) {
+      solicitudProyectoEquipoRepository.findAllBySolicitudProyectoIdIn(solicitudProyectoIds)
+          .forEach(miembro -> personasEquipo
+              .computeIfAbsent(miembro.getSolicitudProyectoId(), solicitudProyectoId -> new HashSet<>())
+              .add(miembro.getPersonaRef()));
+      solicitudProyectoSocioRepository.findAllBySolicitudProyectoIdInAndRolSocioCoordinadorTrue(solicitudProyectoIds)
+          .forEach(socio -> conSocioCoordinador.add(socio.getSolicitudProyectoId()));
+    }
+
+    for (Solicitud solicitud : borradores) {
+      Long convocatoriaId = solicitud.getConvocatoriaId();
+      if (convocatoriaId != null) {
+        Set<Long> requeridos = tiposDocumentoRequeridos.get(convocatoriaId);
+        if (requeridos != null && Collections.disjoint(requeridos,
+            tiposDocumentoSolicitud.getOrDefault(solicitud.getId(), Collections.emptySet()))) {
+          continue;
+        }
+        if (convocatoriasSinModalidad.contains(convocatoriaId)) {
+          continue;
+        }
+      }
+
+      if (solicitud.getFormularioSolicitud() == FormularioSolicitud.ESTANDAR) {
+        SolicitudProyecto solicitudProyecto = solicitudProyectos.get(solicitud.getId());
+        if (solicitudProyecto == null || StringUtils.isEmpty(solicitudProyecto.getTitulo())
+            || (Boolean.TRUE.equals(solicitudProyecto.getColaborativo())
+                && solicitudProyecto.getCoordinadorExterno() == null)) {
+          continue;
+        }
+        if (!personasEquipo.getOrDefault(solicitudProyecto.getId(), Collections.emptySet())
+            .contains(solicitud.getSolicitanteRef())) {
+          continue;
+        }
+        if (Boolean.TRUE.equals(solicitudProyecto.getColaborativo())
+            && Boolean.TRUE.equals(solicitudProyecto.getCoordinadorExterno())
+            && !conSocioCoordinador.contains(solicitudProyecto.getId())) {
+          continue;
+        }
+      }
+
+      returnValue.add(solicitud.getId());
+    }
     return returnValue;
   }
 
+  private boolean isEstado(Solicitud solicitud, EstadoSolicitud.Estado estado) {
+    return solicitud.getEstado() != null && solicitud.getEstado().getEstado() == estado;
+  }
+
+  /**
+   * Roles del usuario sobre las {@link Solicitud} de la unidad de gestión.
+   *
+   * @param unidadGestionRef Unidad de gestión de la {@link Solicitud}.
+   * @return los roles del usuario.
+   */
+  private Set<SolicitudMaquinaEstados.Rol> getRoles(String unidadGestionRef) {
+    Set<SolicitudMaquinaEstados.Rol> roles = EnumSet.noneOf(SolicitudMaquinaEstados.Rol.class);
+    if (checkAuthority("CSP-SOL-C", unidadGestionRef)) {
+      roles.add(SolicitudMaquinaEstados.Rol.GESTOR);
+    }
+    if (checkAuthority("CSP-SOL-C-INV", unidadGestionRef)) {
+      roles.add(SolicitudMaquinaEstados.Rol.INVESTIGADOR);
+    }
+    return roles;
+  }
+
 }
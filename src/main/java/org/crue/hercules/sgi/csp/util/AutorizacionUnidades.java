@@ -0,0 +1,123 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Índice de las authorities de un usuario por unidad de gestión.
+ * <p>
+ * Las authorities con unidad de gestión tienen el formato
+ * <code>AUTHORITY_UO</code>. El índice se construye una sola vez a partir de
+ * las authorities del token y permite resolver las comprobaciones de permisos
+ * y los listados de unidades de gestión sin recorrer y partir todas las
+ * authorities en cada llamada. Es inmutable.
+ */
+public final class AutorizacionUnidades {
+
+  private static final String SEPARADOR_UO = "_";
+
+  /** Authorities completas (con y sin unidad de gestión) */
+  private final Set<String> authorities;
+
+  /** Unidades de gestión de cada authority */
+  private final Map<String, List<String>> unidadesPorAuthority;
+
+  /** Unidades de gestión de todas las authorities */
+  private final List<String> unidadesGestion;
+
+  private AutorizacionUnidades(Set<String> authorities, Map<String, List<String>> unidadesPorAuthority,
+      List<String> unidadesGestion) {
+    this.authorities = authorities;
+    this.unidadesPorAuthority = unidadesPorAuthority;
+    this.unidadesGestion = unidadesGestion;
+  }
+
+  /**
+   * Construye el índice a partir de las authorities del usuario.
+   *
+   * @param grantedAuthorities authorities del usuario.
+   * @return el índice.
+   */
+  public static AutorizacionUnidades of(Collection<? extends GrantedAuthority> grantedAuthorities) {
+    Set<String> authorities = new HashSet<>();
+    Map<String, Set<String>> unidades = new HashMap<>();
+    Set<String> unidadesGestion = new LinkedHashSet<>();
+    for (GrantedAuthority grantedAuthority : grantedAuthorities) {
+      String authority = grantedAuthority.getAuthority();
+      if (authority == null) {
+        continue;
+      }
+      authorities.add(authority);
+      if (authority.indexOf(SEPARADOR_UO) > 0) {
+        String[] partes = authority.split(SEPARADOR_UO);
+        unidades.computeIfAbsent(partes[0], key -> new LinkedHashSet<>()).add(partes[1]);
+        unidadesGestion.add(partes[1]);
+      }
+    }
+
+    Map<String, List<String>> unidadesPorAuthority = new HashMap<>();
+    unidades.forEach((authority, uos) -> unidadesPorAuthority.put(authority,
+        Collections.unmodifiableList(new ArrayList<>(uos))));
+    return new AutorizacionUnidades(Collections.unmodifiableSet(authorities),
+        Collections.unmodifiableMap(unidadesPorAuthority),
+        Collections.unmodifiableList(new ArrayList<>(unidadesGestion)));
+  }
+
+  /**
+   * Indica si el usuario tiene la authority indicada sin unidad de gestión.
+   *
+   * @param authority authority.
+   * @return <code>true</code> si la tiene.
+   */
+  public boolean hasAuthority(String authority) {
+    return authorities.contains(authority);
+  }
+
+  /**
+   * Indica si el usuario tiene la authority indicada sin unidad de gestión o en
+   * la unidad de gestión indicada. Si no se indica unidad de gestión solo se
+   * comprueba la authority sin unidad de gestión.
+   *
+   * @param authority authority.
+   * @param uo        unidad de gestión.
+   * @return <code>true</code> si la tiene.
+   */
+  public boolean hasAuthorityForUO(String authority, String uo) {
+    if (hasAuthority(authority)) {
+      return true;
+    }
+    return StringUtils.isNotBlank(uo) && authorities.contains(authority + SEPARADOR_UO + uo);
+  }
+
+  /**
+   * Obtiene las unidades de gestión en las que el usuario tiene la authority
+   * indicada.
+   *
+   * @param authority authority.
+   * @return las unidades de gestión.
+   */
+  public List<String> getUOsForAuthority(String authority) {
+    return unidadesPorAuthority.getOrDefault(authority, Collections.emptyList());
+  }
+
+  /**
+   * Obtiene las unidades de gestión de todas las authorities del usuario, sin
+   * repetidos.
+   *
+   * @return las unidades de gestión.
+   */
+  public List<String> getUnidadesGestion() {
+    return unidadesGestion;
+  }
+
+}
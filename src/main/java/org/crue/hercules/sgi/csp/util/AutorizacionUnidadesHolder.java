@@ -0,0 +1,118 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Acceso al {@link AutorizacionUnidades} del usuario autenticado.
+ * <p>
+ * El índice se calcula una sola vez por token: se guarda en la petición en
+ * curso y, para las autenticaciones JWT, en una caché compartida por id del
+ * token (<code>jti</code>) hasta que el token caduca, de modo que las
+ * peticiones siguientes con el mismo token no vuelven a procesar las
+ * authorities.
+ */
+public final class AutorizacionUnidadesHolder {
+
+  private static final String ATRIBUTO_PETICION = AutorizacionUnidadesHolder.class.getName();
+
+  /** Tiempo máximo que se reutiliza un índice aunque el token no caduque */
+  private static final Duration TTL = Duration.ofMinutes(30);
+
+  /** Número máximo de tokens almacenados */
+  private static final int MAX_ENTRIES = 5000;
+
+  private static final BoundedTtlCache<String, AutorizacionUnidades> CACHE = new BoundedTtlCache<>(TTL,
+      MAX_ENTRIES);
+
+  private AutorizacionUnidadesHolder() {
+    // Do nothing. Hide external instanciation
+  }
+
+  /**
+   * Obtiene el índice de authorities del usuario autenticado.
+   *
+   * @return el índice.
+   */
+  public static AutorizacionUnidades get() {
+    return get(SecurityContextHolder.getContext().getAuthentication());
+  }
+
+  /**
+   * Obtiene el índice de authorities de la autenticación indicada.
+   *
+   * @param authentication {@link Authentication}.
+   * @return el índice.
+   */
+  public static AutorizacionUnidades get(Authentication authentication) {
+    Assert.notNull(authentication, "Authentication no puede ser null");
+
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes != null) {
+      Object peticion = requestAttributes.getAttribute(ATRIBUTO_PETICION, RequestAttributes.SCOPE_REQUEST);
+      if (peticion instanceof Entry && ((Entry) peticion).authentication == authentication) {
+        return ((Entry) peticion).autorizacion;
+      }
+    }
+
+    AutorizacionUnidades autorizacion = getFromToken(authentication);
+    if (requestAttributes != null) {
+      requestAttributes.setAttribute(ATRIBUTO_PETICION, new Entry(authentication, autorizacion),
+          RequestAttributes.SCOPE_REQUEST);
+    }
+    return autorizacion;
+  }
+
+  /**
+   * Elimina todos los índices almacenados.
+   */
+  public static void clear() {
+    CACHE.clear();
+  }
+
+  /**
+   * Cambia el reloj con el que se calcula la caducidad de los índices
+   * almacenados. Solo para los test.
+   *
+   * @param clock {@link Clock}.
+   */
+  static void setClock(Clock clock) {
+    CACHE.setClock(clock);
+  }
+
+  private static AutorizacionUnidades getFromToken(Authentication authentication) {
+    if (!(authentication instanceof JwtAuthenticationToken)) {
+      return AutorizacionUnidades.of(authentication.getAuthorities());
+    }
+
+    Jwt jwt = ((JwtAuthenticationToken) authentication).getToken();
+    String key = jwt.getId() != null ? jwt.getId() : jwt.getTokenValue();
+    AutorizacionUnidades autorizacion = CACHE.get(key);
+    if (autorizacion != null) {
+      return autorizacion;
+    }
+
+    autorizacion = AutorizacionUnidades.of(authentication.getAuthorities());
+    CACHE.put(key, autorizacion, jwt.getExpiresAt());
+    return autorizacion;
+  }
+
+  private static final class Entry {
+    private final Authentication authentication;
+    private final AutorizacionUnidades autorizacion;
+
+    private Entry(Authentication authentication, AutorizacionUnidades autorizacion) {
+      this.authentication = authentication;
+      this.autorizacion = autorizacion;
+    }
+  }
+
+}
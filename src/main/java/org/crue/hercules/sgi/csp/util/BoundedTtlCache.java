@@ -0,0 +1,176 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+
+import org.springframework.util.Assert;
+
+/**
+ * Caché en memoria con caducidad por entrada y un número máximo de entradas.
+ * <p>
+ * Las entradas se mantienen en orden de uso. Cuando la caché está llena y se
+ * añade una clave nueva se descartan primero las entradas caducadas y, si no
+ * hay ninguna, la usada hace más tiempo.
+ *
+ * @param <K> tipo de las claves.
+ * @param <V> tipo de los valores.
+ */
+public class BoundedTtlCache<K, V> {
+
+  private final Duration ttl;
+  private final int maxEntries;
+  private final LinkedHashMap<K, Entry<V>> entries;
+  private volatile Clock clock;
+
+  /**
+   * Crea una caché vacía.
+   *
+   * @param ttl        tiempo máximo durante el que se reutiliza un valor.
+   * @param maxEntries número máximo de valores almacenados.
+   */
+  public BoundedTtlCache(Duration ttl, int maxEntries) {
+    this(ttl, maxEntries, Clock.systemUTC());
+  }
+
+  /**
+   * Crea una caché vacía.
+   *
+   * @param ttl        tiempo máximo durante el que se reutiliza un valor.
+   * @param maxEntries número máximo de valores almacenados.
+   * @param clock      reloj con el que se calcula la caducidad.
+   */
+  public BoundedTtlCache(Duration ttl, int maxEntries, Clock clock) {
+    Assert.isTrue(!ttl.isNegative(), "La duración de la caché no puede ser negativa");
+    Assert.isTrue(maxEntries > 0, "El número de entradas de la caché tiene que ser mayor que 0");
+    this.ttl = ttl;
+    this.maxEntries = maxEntries;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Obtiene el valor almacenado para la clave.
+   *
+   * @param key clave.
+   * @return el valor o null si no está o ha caducado.
+   */
+  public synchronized V get(K key) {
+    long now = clock.millis();
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.expiresAt <= now) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.value;
+  }
+
+  /**
+   * Almacena el valor de la clave durante el tiempo máximo de la caché.
+   *
+   * @param key   clave.
+   * @param value valor.
+   */
+  public void put(K key, V value) {
+    put(key, value, null);
+  }
+
+  /**
+   * Almacena el valor de la clave hasta la fecha indicada, sin superar el
+   * tiempo máximo de la caché.
+   *
+   * @param key       clave.
+   * @param value     valor.
+   * @param caducidad fecha a partir de la cual el valor no se reutiliza o null
+   *                  si solo se aplica el tiempo máximo.
+   */
+  public synchronized void put(K key, V value, Instant caducidad) {
+    long now = clock.millis();
+    long expiresAt = now + ttl.toMillis();
+    if (caducidad != null) {
+      expiresAt = Math.min(expiresAt, caducidad.toEpochMilli());
+    }
+    makeRoom(key, now);
+    entries.put(key, new Entry<>(value, expiresAt));
+  }
+
+  /**
+   * Almacena el valor de la clave durante el tiempo máximo de la caché o, si ya
+   * hay un valor vigente, el que devuelve la función de combinación. Si la
+   * función devuelve el valor vigente se conserva sin cambiar su caducidad.
+   *
+   * @param key       clave.
+   * @param value     valor nuevo.
+   * @param remapping función que recibe el valor vigente y el nuevo y devuelve
+   *                  el que se almacena.
+   */
+  public synchronized void merge(K key, V value, BinaryOperator<V> remapping) {
+    long now = clock.millis();
+    Entry<V> actual = entries.get(key);
+    if (actual != null && actual.expiresAt > now) {
+      V merged = remapping.apply(actual.value, value);
+      if (merged == actual.value) {
+        return;
+      }
+      value = merged;
+    }
+    makeRoom(key, now);
+    entries.put(key, new Entry<>(value, now + ttl.toMillis()));
+  }
+
+  /**
+   * Elimina todos los valores almacenados.
+   */
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Obtiene el número de valores almacenados, incluidos los caducados que aún
+   * no se han descartado.
+   *
+   * @return el número de valores.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Cambia el reloj con el que se calcula la caducidad. Solo para los test.
+   *
+   * @param clock {@link Clock}.
+   */
+  void setClock(Clock clock) {
+    this.clock = clock;
+  }
+
+  private void makeRoom(K key, long now) {
+    if (entries.size() < maxEntries || entries.containsKey(key)) {
+      return;
+    }
+    entries.values().removeIf(entry -> entry.expiresAt <= now);
+    Iterator<Map.Entry<K, Entry<V>>> menosUsadas = entries.entrySet().iterator();
+    while (entries.size() >= maxEntries && menosUsadas.hasNext()) {
+      menosUsadas.next();
+      menosUsadas.remove();
+    }
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    private final long expiresAt;
+
+    private Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+}
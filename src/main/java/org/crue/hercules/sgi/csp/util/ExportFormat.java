@@ -0,0 +1,45 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.MediaType;
+
+import lombok.Getter;
+
+/**
+ * Formatos de las exportaciones de listados.
+ */
+@Getter
+public enum ExportFormat {
+  /** Una fila por línea con los valores separados por comas (RFC 4180) */
+  CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+  /** Un objeto JSON por línea */
+  NDJSON(new MediaType("application", "x-ndjson"), "ndjson");
+
+  /** Tipo de contenido de la respuesta */
+  private final MediaType mediaType;
+
+  /** Extensión del fichero */
+  private final String extension;
+
+  private ExportFormat(MediaType mediaType, String extension) {
+    this.mediaType = mediaType;
+    this.extension = extension;
+  }
+
+  /**
+   * Obtiene el formato a partir de su nombre, sin distinguir mayúsculas.
+   *
+   * @param format nombre del formato.
+   * @return el formato.
+   */
+  public static ExportFormat of(String format) {
+    for (ExportFormat value : values()) {
+      if (value.name().equalsIgnoreCase(format)) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Formato de exportación no válido: " + format);
+  }
+
+}
@@ -0,0 +1,206 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.springframework.util.Assert;
+
+/**
+ * Escritura fila a fila de una exportación.
+ * <p>
+ * Cada fila se escribe en la salida en cuanto se recibe, sin acumular el
+ * listado en memoria. La salida se vacía cada {@link #FLUSH_SIZE} filas para
+ * que el cliente reciba los datos mientras se generan.
+ *
+ * @param <T> tipo de las filas.
+ */
+public abstract class ExportWriter<T> implements Consumer<T>, Closeable {
+
+  /** Filas escritas entre vaciados de la salida */
+  private static final int FLUSH_SIZE = 500;
+
+  private long rows;
+
+  /**
+   * Crea el writer del formato indicado.
+   *
+   * @param <T>     tipo de las filas.
+   * @param format  formato de la exportación.
+   * @param out     salida de la exportación.
+   * @param mapper  mapper con el que se serializan las filas en NDJSON.
+   * @param columns columnas de las filas en CSV.
+   * @return el writer.
+   * @throws IOException si no se puede escribir en la salida.
+   */
+  public static <T> ExportWriter<T> of(ExportFormat format, OutputStream out, ObjectMapper mapper,
+      List<Column<T>> columns) throws IOException {
+    Assert.notNull(format, "El formato de exportación no puede ser null");
+    if (format == ExportFormat.CSV) {
+      return new CsvWriter<>(out, columns);
+    }
+    return new NdjsonWriter<>(out, mapper);
+  }
+
+  /**
+   * Escribe una fila.
+   *
+   * @param row la fila.
+   * @throws UncheckedIOException si no se puede escribir en la salida.
+   */
+  @Override
+  public void accept(T row) {
+    try {
+      write(row);
+      if (++rows % FLUSH_SIZE == 0) {
+        flush();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Número de filas escritas.
+   *
+   * @return el número de filas.
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  protected abstract void write(T row) throws IOException;
+
+  protected abstract void flush() throws IOException;
+
+  /**
+   * Columna de una exportación CSV.
+   *
+   * @param <T> tipo de las filas.
+   */
+  public static final class Column<T> {
+    private final String header;
+    private final Function<T, ?> value;
+
+    private Column(String header, Function<T, ?> value) {
+      this.header = header;
+      this.value = value;
+    }
+
+    /**
+     * Crea una columna.
+     *
+     * @param <T>    tipo de las filas.
+     * @param header cabecera de la columna.
+     * @param value  valor de la columna en cada fila.
+     * @return la columna.
+     */
+    public static <T> Column<T> of(String header, Function<T, ?> value) {
+      return new Column<>(header, value);
+    }
+  }
+
+  /**
+   * Un objeto JSON por línea, serializado con el mismo {@link ObjectMapper} que
+   * las respuestas de los listados.
+   */
+  private static final class NdjsonWriter<T> extends ExportWriter<T> {
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+
+    private NdjsonWriter(OutputStream out, ObjectMapper mapper) throws IOException {
+      this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+      this.generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET).setRootValueSeparator(null);
+    }
+
+    @Override
+    protected void write(T row) throws IOException {
+      writer.writeValue(generator, row);
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    protected void flush() throws IOException {
+      generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      generator.close();
+    }
+  }
+
+  /**
+   * Valores separados por comas con una línea de cabecera (RFC 4180).
+   */
+  private static final class CsvWriter<T> extends ExportWriter<T> {
+    private final Writer writer;
+    private final List<Column<T>> columns;
+
+    private CsvWriter(OutputStream out, List<Column<T>> columns) throws IOException {
+      Assert.notEmpty(columns, "La exportación CSV necesita al menos una columna");
+      this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+      this.columns = columns;
+      List<String> headers = new ArrayList<>();
+      for (Column<T> column : columns) {
+        headers.add(column.header);
+      }
+      writeLine(headers);
+    }
+
+    @Override
+    protected void write(T row) throws IOException {
+      List<String> values = new ArrayList<>();
+      for (Column<T> column : columns) {
+        Object value = column.value.apply(row);
+        values.add(value == null ? "" : value.toString());
+      }
+      writeLine(values);
+    }
+
+    private void writeLine(List<String> values) throws IOException {
+      for (int i = 0; i < values.size(); i++) {
+        if (i > 0) {
+          writer.write(',');
+        }
+        writer.write(escape(values.get(i)));
+      }
+      writer.write("\r\n");
+    }
+
+    private static String escape(String value) {
+      if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\r') < 0 && value.indexOf('\n') < 0) {
+        return value;
+      }
+      return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    protected void flush() throws IOException {
+      writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      // La salida la cierra el contenedor
+      writer.flush();
+    }
+  }
+
+}
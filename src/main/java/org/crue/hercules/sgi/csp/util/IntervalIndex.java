@@ -0,0 +1,128 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Índice en memoria de rangos (fechas, meses...) agrupados por clave, para
+ * validar solapamientos de una colección completa sin una consulta por
+ * elemento.
+ * <p>
+ * Los rangos son cerrados y un extremo null se considera no acotado: un inicio
+ * null equivale a "desde siempre" y un fin null a "para siempre". Dos elementos
+ * solo pueden solaparse si tienen la misma clave.
+ *
+ * @param <K> tipo de la clave de agrupación (personaRef, codigoEconomicoRef,
+ *            conceptoGasto...).
+ * @param <C> tipo de los extremos del rango.
+ * @param <T> tipo de los elementos indexados.
+ */
+public class IntervalIndex<K, C extends Comparable<? super C>, T> {
+
+  private final Function<T, K> clave;
+  private final Function<T, C> inicio;
+  private final Function<T, C> fin;
+  private final Map<K, List<T>> elementos = new HashMap<>();
+
+  /**
+   * Crea un índice vacío.
+   *
+   * @param clave  función que obtiene la clave de agrupación del elemento.
+   * @param inicio función que obtiene el inicio del rango del elemento.
+   * @param fin    función que obtiene el fin del rango del elemento.
+   */
+  public IntervalIndex(Function<T, K> clave, Function<T, C> inicio, Function<T, C> fin) {
+    this.clave = clave;
+    this.inicio = inicio;
+    this.fin = fin;
+  }
+
+  /**
+   * Añade un elemento al índice.
+   *
+   * @param elemento el elemento.
+   * @return el propio índice.
+   */
+  public IntervalIndex<K, C, T> add(T elemento) {
+    elementos.computeIfAbsent(clave.apply(elemento), k -> new ArrayList<>()).add(elemento);
+    return this;
+  }
+
+  /**
+   * Añade los elementos al índice.
+   *
+   * @param elementos los elementos.
+   * @return el propio índice.
+   */
+  public IntervalIndex<K, C, T> addAll(Collection<? extends T> elementos) {
+    elementos.forEach(this::add);
+    return this;
+  }
+
+  /**
+   * Busca el primer elemento del índice que se solapa con otro de la misma
+   * clave.
+   * <p>
+   * Cada grupo se ordena por inicio y se recorre una sola vez manteniendo el
+   * mayor fin visto, por lo que el coste es O(n log n).
+   *
+   * @return el elemento que se solapa con alguno anterior del mismo grupo o
+   *         vacío si no hay solapamientos.
+   */
+  public Optional<T> findFirstSolapado() {
+    Comparator<T> byInicio = Comparator.comparing(inicio, Comparator.nullsFirst(Comparator.naturalOrder()));
+    for (List<T> grupo : elementos.values()) {
+      List<T> ordenados = new ArrayList<>(grupo);
+      ordenados.sort(byInicio);
+
+      boolean finAbierto = false;
+      C finMaximo = null;
+      for (int i = 0; i < ordenados.size(); i++) {
+        T elemento = ordenados.get(i);
+        C inicioElemento = inicio.apply(elemento);
+        if (i > 0 && (finAbierto || inicioElemento == null || inicioElemento.compareTo(finMaximo) <= 0)) {
+          return Optional.of(elemento);
+        }
+
+        C finElemento = fin.apply(elemento);
+        if (finElemento == null) {
+          finAbierto = true;
+        } else if (finMaximo == null || finElemento.compareTo(finMaximo) > 0) {
+          finMaximo = finElemento;
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Comprueba si el rango del elemento indicado se solapa con el de algún
+   * elemento del índice con la misma clave.
+   *
+   * @param elemento el elemento a comprobar (no tiene por qué estar en el
+   *                 índice).
+   * @return true si se solapa con algún elemento del índice.
+   */
+  public boolean solapa(T elemento) {
+    List<T> grupo = elementos.get(clave.apply(elemento));
+    return grupo != null && grupo.stream().anyMatch(otro -> otro != elemento && solapan(otro, elemento));
+  }
+
+  private boolean solapan(T a, T b) {
+    return menorOIgual(inicio.apply(a), fin.apply(b)) && menorOIgual(inicio.apply(b), fin.apply(a));
+  }
+
+  /**
+   * Compara un inicio con un fin, considerando null como no acotado.
+   */
+  private boolean menorOIgual(C inicioRango, C finRango) {
+    return inicioRango == null || finRango == null || inicioRango.compareTo(finRango) <= 0;
+  }
+
+}
@@ -0,0 +1,136 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Sort;
+
+import lombok.Getter;
+
+/**
+ * Posición en un listado paginado por cursor (keyset).
+ * <p>
+ * En lugar de saltar un número de filas (offset), cada página continúa a partir
+ * del último elemento devuelto: el valor de la propiedad de ordenación y el id
+ * de ese elemento, que desempata entre elementos con el mismo valor. El cursor
+ * se envía al cliente codificado y opaco.
+ */
+@Getter
+public final class KeysetCursor {
+
+  /** Propiedad que siempre desempata la ordenación */
+  public static final String ID = "id";
+
+  private static final String SEPARADOR = "|";
+
+  /** Propiedad de ordenación */
+  private final String property;
+
+  /** Sentido de la ordenación */
+  private final Sort.Direction direction;
+
+  /** Id del último elemento devuelto o null en la primera página */
+  private final Long id;
+
+  /** Valor de la propiedad de ordenación del último elemento devuelto */
+  private final Comparable<?> value;
+
+  private KeysetCursor(String property, Sort.Direction direction, Long id, Comparable<?> value) {
+    this.property = property;
+    this.direction = direction;
+    this.id = id;
+    this.value = value;
+  }
+
+  /**
+   * Obtiene el cursor de la petición: el cursor recibido o, si viene vacío, el
+   * de la primera página con la primera ordenación indicada (por id si no se
+   * indica ninguna).
+   *
+   * @param cursor cursor codificado recibido o vacío para la primera página.
+   * @param sort   ordenación solicitada para la primera página.
+   * @return el cursor.
+   */
+  public static KeysetCursor of(String cursor, Sort sort) {
+    if (StringUtils.isNotBlank(cursor)) {
+      return decode(cursor);
+    }
+    Sort.Order order = sort == null ? null : sort.stream().findFirst().orElse(null);
+    if (order == null) {
+      return new KeysetCursor(ID, Sort.Direction.ASC, null, null);
+    }
+    return new KeysetCursor(order.getProperty(), order.getDirection(), null, null);
+  }
+
+  /**
+   * Cursor para continuar después del elemento indicado.
+   *
+   * @param id    id del último elemento devuelto.
+   * @param value valor de la propiedad de ordenación del último elemento.
+   * @return el cursor de la página siguiente.
+   */
+  public KeysetCursor next(Long id, Comparable<?> value) {
+    return new KeysetCursor(property, direction, id, value);
+  }
+
+  /**
+   * Indica si el cursor corresponde a la primera página.
+   *
+   * @return true si no hay elemento anterior.
+   */
+  public boolean isFirst() {
+    return id == null;
+  }
+
+  /**
+   * Codifica el cursor para enviarlo al cliente.
+   *
+   * @return el cursor codificado.
+   */
+  public String encode() {
+    String valor = value == null ? "" : value.toString();
+    String cursor = String.join(SEPARADOR, property, direction.name(), String.valueOf(id),
+        value == null ? "" : value.getClass().getSimpleName(), valor);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodifica un cursor recibido del cliente.
+   *
+   * @param cursor el cursor codificado.
+   * @return el cursor.
+   */
+  private static KeysetCursor decode(String cursor) {
+    try {
+      String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+          .split(Pattern.quote(SEPARADOR), 5);
+      if (partes.length != 5) {
+        throw new IllegalArgumentException("Cursor no válido");
+      }
+      return new KeysetCursor(partes[0], Sort.Direction.valueOf(partes[1]), Long.valueOf(partes[2]),
+          parseValue(partes[3], partes[4]));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Cursor no válido", e);
+    }
+  }
+
+  private static Comparable<?> parseValue(String tipo, String valor) {
+    switch (tipo) {
+      case "":
+        return null;
+      case "Long":
+        return Long.valueOf(valor);
+      case "Instant":
+        return Instant.parse(valor);
+      case "String":
+        return valor;
+      default:
+        throw new IllegalArgumentException("Cursor no válido");
+    }
+  }
+
+}
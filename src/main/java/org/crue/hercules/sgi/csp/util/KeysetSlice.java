@@ -0,0 +1,48 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Página de un listado paginado por cursor ({@link KeysetCursor}). No incluye
+ * el número total de elementos, que requeriría una consulta count adicional.
+ *
+ * @param <T> tipo de los elementos.
+ */
+@Getter
+public final class KeysetSlice<T> {
+
+  /** Cabecera de la respuesta con el cursor de la página siguiente */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  /** Elementos de la página */
+  private final List<T> content;
+
+  /** Cursor codificado de la página siguiente o null si es la última */
+  private final String nextCursor;
+
+  public KeysetSlice(List<T> content, String nextCursor) {
+    this.content = content;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Indica si la página no tiene elementos.
+   *
+   * @return true si está vacía.
+   */
+  public boolean isEmpty() {
+    return content.isEmpty();
+  }
+
+  /**
+   * Indica si hay más elementos después de esta página.
+   *
+   * @return true si hay página siguiente.
+   */
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+
+}
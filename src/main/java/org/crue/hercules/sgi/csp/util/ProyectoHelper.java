@@ -7,6 +7,12 @@ import org.springframework.util.Assert;
 
 public class ProyectoHelper {
 
+  /**
+   * Authorities con las que se puede consultar un proyecto, sin unidad de
+   * gestión o en la del proyecto
+   */
+  public static final String[] AUTHORITIES_LECTURA = { "CSP-PRO-C", "CSP-PRO-E", "CSP-PRO-V-INV" };
+
   /**
    * Comprueba que el proyecto está en un estado que permita su modificación, así
    * como que pertenece a una unidad de gestión que el usuario actual pueda
@@ -22,6 +28,20 @@ public class ProyectoHelper {
         "El proyecto no está en un estado en el que puede ser actualizado");
   }
 
+  /**
+   * Indica si el proyecto pasa las comprobaciones de
+   * {@link #checkCanUpdate(Proyecto)}, sin lanzar excepción.
+   * 
+   * @param proyecto el {@link Proyecto} sobre el que realizar las comprobaciones
+   * @return true si el proyecto se puede modificar
+   */
+  public static boolean isModificable(Proyecto proyecto) {
+    EstadoProyecto.Estado estadoActual = proyecto.getEstado().getEstado();
+    return SgiSecurityContextHolder.hasAnyAuthorityForUO(new String[] { "CSP-PRO-C", "CSP-PRO-E", "CSP-PRO-V-INV" },
+        proyecto.getUnidadGestionRef()) && proyecto.getActivo() && estadoActual != EstadoProyecto.Estado.FINALIZADO
+        && estadoActual != EstadoProyecto.Estado.CANCELADO;
+  }
+
   /**
    * Comprueba que el proyecto pertenece a una unidad de gestión que el usuario
    * actual pueda gestionar.
@@ -30,9 +50,7 @@ public class ProyectoHelper {
    */
   public static void checkCanRead(Proyecto proyecto) {
     // TODO: Comprobar authorities correctas
-    Assert.isTrue(
-        SgiSecurityContextHolder.hasAnyAuthorityForUO(new String[] { "CSP-PRO-C", "CSP-PRO-E", "CSP-PRO-V-INV" },
-            proyecto.getUnidadGestionRef()),
+    Assert.isTrue(SgiSecurityContextHolder.hasAnyAuthorityForUO(AUTHORITIES_LECTURA, proyecto.getUnidadGestionRef()),
         "El proyecto no pertenece a una Unidad de Gestión gestionable por el usuario");
   }
 }
@@ -0,0 +1,39 @@
+package org.crue.hercules.sgi.csp.util;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Cabeceras de paginación de los listados que devuelven una página sin el
+ * número total de elementos ({@link Slice}): las mismas que las de una página
+ * completa, salvo X-Total-Count y X-Page-Total-Count, más X-Has-Next.
+ */
+public final class SliceHeaders {
+
+  /** Número de la página */
+  public static final String PAGE = "X-Page";
+
+  /** Tamaño de la página */
+  public static final String PAGE_SIZE = "X-Page-Size";
+
+  /** Indica si hay página siguiente */
+  public static final String HAS_NEXT = "X-Has-Next";
+
+  private SliceHeaders() {
+  }
+
+  /**
+   * Obtiene las cabeceras de paginación de la página.
+   *
+   * @param slice la página sin total.
+   * @return las cabeceras.
+   */
+  public static HttpHeaders of(Slice<?> slice) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.add(PAGE, String.valueOf(slice.getNumber()));
+    headers.add(PAGE_SIZE, String.valueOf(slice.getSize()));
+    headers.add(HAS_NEXT, String.valueOf(slice.hasNext()));
+    return headers;
+  }
+
+}
@@ -0,0 +1,171 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud.Estado;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+
+/**
+ * Máquina de estados de la {@link Solicitud}.
+ * <p>
+ * Las transiciones entre {@link EstadoSolicitud.Estado} y los estados en los
+ * que cada rol puede modificar la solicitud se calculan una única vez en tablas
+ * indexadas por estado ({@link EnumMap} de {@link EnumSet}, que internamente son
+ * vectores de bits), de forma que cada consulta es un acceso a la tabla.
+ */
+public final class SolicitudMaquinaEstados {
+
+  /**
+   * Roles del usuario sobre la {@link Solicitud}.
+   */
+  public enum Rol {
+    /** Administrador o gestor de la unidad de gestión (CSP-SOL-C) */
+    GESTOR,
+    /** Investigador (CSP-SOL-C-INV) */
+    INVESTIGADOR;
+  }
+
+  /** Estados destino permitidos desde cada estado */
+  private static final Map<Estado, Set<Estado>> TRANSICIONES = new EnumMap<>(Estado.class);
+
+  /** Estados origen desde los que se llega a cada estado */
+  private static final Map<Estado, Set<Estado>> ORIGENES = new EnumMap<>(Estado.class);
+
+  /** Estados destino que requieren comentario */
+  private static final Set<Estado> REQUIEREN_COMENTARIO = Collections
+      .unmodifiableSet(EnumSet.of(Estado.EXCLUIDA_PROVISIONAL, Estado.ALEGADA_ADMISION, Estado.EXCLUIDA,
+          Estado.DENEGADA_PROVISIONAL, Estado.ALEGADA_CONCESION, Estado.DENEGADA, Estado.DESISTIDA));
+
+  /** Estados destino a los que puede llevar la solicitud cada rol */
+  private static final Map<Rol, Set<Estado>> TRANSICIONES_ROL = new EnumMap<>(Rol.class);
+
+  /** Estados en los que cada rol puede modificar la solicitud */
+  private static final Map<Rol, Set<Estado>> EDITABLES_ROL = new EnumMap<>(Rol.class);
+
+  static {
+    addTransicion(Estado.BORRADOR, Estado.PRESENTADA);
+    addTransicion(Estado.PRESENTADA, Estado.ADMITIDA_PROVISIONAL, Estado.EXCLUIDA_PROVISIONAL, Estado.DESISTIDA);
+    addTransicion(Estado.ADMITIDA_PROVISIONAL, Estado.ADMITIDA_DEFINITIVA, Estado.DESISTIDA);
+    addTransicion(Estado.EXCLUIDA_PROVISIONAL, Estado.ALEGADA_ADMISION, Estado.DESISTIDA);
+    addTransicion(Estado.ALEGADA_ADMISION, Estado.ADMITIDA_DEFINITIVA, Estado.EXCLUIDA);
+    addTransicion(Estado.ADMITIDA_DEFINITIVA, Estado.CONCECIDA_PROVISIONAL, Estado.DENEGADA_PROVISIONAL,
+        Estado.DESISTIDA);
+    addTransicion(Estado.CONCECIDA_PROVISIONAL, Estado.CONCECIDA, Estado.DESISTIDA);
+    addTransicion(Estado.DENEGADA_PROVISIONAL, Estado.ALEGADA_CONCESION, Estado.DESISTIDA);
+    addTransicion(Estado.ALEGADA_CONCESION, Estado.CONCECIDA, Estado.DENEGADA);
+
+    // El gestor resuelve; el investigador presenta, alega y desiste
+    TRANSICIONES_ROL.put(Rol.GESTOR, Collections.unmodifiableSet(EnumSet.allOf(Estado.class)));
+    TRANSICIONES_ROL.put(Rol.INVESTIGADOR, Collections.unmodifiableSet(
+        EnumSet.of(Estado.PRESENTADA, Estado.ALEGADA_ADMISION, Estado.ALEGADA_CONCESION, Estado.DESISTIDA)));
+
+    EDITABLES_ROL.put(Rol.GESTOR,
+        Collections.unmodifiableSet(EnumSet.of(Estado.BORRADOR, Estado.PRESENTADA, Estado.ADMITIDA_PROVISIONAL,
+            Estado.ALEGADA_ADMISION, Estado.ADMITIDA_DEFINITIVA, Estado.CONCECIDA_PROVISIONAL,
+            Estado.ALEGADA_CONCESION)));
+    EDITABLES_ROL.put(Rol.INVESTIGADOR, Collections.unmodifiableSet(
+        EnumSet.of(Estado.BORRADOR, Estado.EXCLUIDA_PROVISIONAL, Estado.DENEGADA_PROVISIONAL)));
+
+    for (Estado estado : Estado.values()) {
+      TRANSICIONES.putIfAbsent(estado, EnumSet.noneOf(Estado.class));
+      ORIGENES.putIfAbsent(estado, EnumSet.noneOf(Estado.class));
+    }
+    TRANSICIONES.replaceAll((estado, destinos) -> Collections.unmodifiableSet(destinos));
+    ORIGENES.replaceAll((estado, origenes) -> Collections.unmodifiableSet(origenes));
+  }
+
+  private SolicitudMaquinaEstados() {
+  }
+
+  private static void addTransicion(Estado origen, Estado... destinos) {
+    for (Estado destino : destinos) {
+      TRANSICIONES.computeIfAbsent(origen, estado -> EnumSet.noneOf(Estado.class)).add(destino);
+      ORIGENES.computeIfAbsent(destino, estado -> EnumSet.noneOf(Estado.class)).add(origen);
+    }
+  }
+
+  /**
+   * Comprueba si se puede pasar de un estado a otro.
+   *
+   * @param origen  estado actual.
+   * @param destino nuevo estado.
+   * @return true si la transición está permitida.
+   */
+  public static boolean isTransicionValida(Estado origen, Estado destino) {
+    return origen != null && TRANSICIONES.get(origen).contains(destino);
+  }
+
+  /**
+   * Estados a los que se puede pasar desde el estado indicado.
+   *
+   * @param origen estado actual.
+   * @return los estados destino.
+   */
+  public static Set<Estado> getTransiciones(Estado origen) {
+    return TRANSICIONES.get(origen);
+  }
+
+  /**
+   * Estados a los que los roles indicados pueden pasar la solicitud desde el
+   * estado indicado.
+   *
+   * @param origen estado actual.
+   * @param roles  roles del usuario.
+   * @return los estados destino.
+   */
+  public static Set<Estado> getTransiciones(Estado origen, Set<Rol> roles) {
+    Set<Estado> returnValue = EnumSet.noneOf(Estado.class);
+    for (Rol rol : roles) {
+      returnValue.addAll(TRANSICIONES_ROL.get(rol));
+    }
+    returnValue.retainAll(TRANSICIONES.get(origen));
+    return returnValue;
+  }
+
+  /**
+   * Estados desde los que se puede pasar al estado indicado.
+   *
+   * @param destino nuevo estado.
+   * @return los estados origen.
+   */
+  public static Set<Estado> getOrigenes(Estado destino) {
+    return ORIGENES.get(destino);
+  }
+
+  /**
+   * Comprueba si el cambio al estado indicado requiere comentario.
+   *
+   * @param destino nuevo estado.
+   * @return true si requiere comentario.
+   */
+  public static boolean requiereComentario(Estado destino) {
+    return REQUIEREN_COMENTARIO.contains(destino);
+  }
+
+  /**
+   * Comprueba si un usuario con los roles indicados puede modificar una
+   * solicitud en el estado indicado. Con ambos roles la solicitud tiene que
+   * ser modificable para los dos.
+   *
+   * @param estado estado actual.
+   * @param roles  roles del usuario.
+   * @return true si la solicitud se puede modificar.
+   */
+  public static boolean isEditable(Estado estado, Set<Rol> roles) {
+    if (roles.isEmpty()) {
+      return false;
+    }
+    for (Rol rol : roles) {
+      if (!EDITABLES_ROL.get(rol).contains(estado)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,116 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Caché de corta duración del número total de elementos de un listado por
+ * filtro.
+ * <p>
+ * Permite devolver el total de un listado paginado sin lanzar la consulta
+ * count en cada página: el total se calcula la primera vez que se pide un
+ * filtro y se reutiliza hasta que caduca. Es una estimación, los cambios
+ * realizados mientras no caduca no se reflejan en el total.
+ */
+public class TotalCountCache {
+
+  private static final String SEPARADOR = "|";
+
+  private final BoundedTtlCache<String, Long> entries;
+
+  /**
+   * Crea una caché vacía.
+   *
+   * @param ttl        tiempo durante el que se reutiliza un total.
+   * @param maxEntries número máximo de filtros almacenados.
+   */
+  public TotalCountCache(Duration ttl, int maxEntries) {
+    this(ttl, maxEntries, Clock.systemUTC());
+  }
+
+  /**
+   * Crea una caché vacía.
+   *
+   * @param ttl        tiempo durante el que se reutiliza un total.
+   * @param maxEntries número máximo de filtros almacenados.
+   * @param clock      reloj con el que se calcula la caducidad.
+   */
+  public TotalCountCache(Duration ttl, int maxEntries, Clock clock) {
+    this.entries = new BoundedTtlCache<>(ttl, maxEntries, clock);
+  }
+
+  /**
+   * Obtiene la clave de un filtro. Las restricciones se ordenan para que la
+   * clave no dependa del orden en el que se reciben.
+   *
+   * @param listado       nombre del listado.
+   * @param query         filtro RSQL de la consulta.
+   * @param restricciones restricciones del usuario (unidades de gestión...).
+   * @return la clave del filtro.
+   */
+  public static String key(String listado, String query, Collection<String> restricciones) {
+    String restriccion = restricciones == null ? "" : String.join(",", new TreeSet<>(restricciones));
+    return String.join(SEPARADOR, listado, query == null ? "" : query, restriccion);
+  }
+
+  /**
+   * Obtiene la página con el total de elementos del filtro a partir de los
+   * elementos de la página sin total.
+   * <p>
+   * Si la página es la última el total se conoce sin consulta y se actualiza la
+   * caché. En otro caso se usa el total de la caché o, si no está o ha caducado,
+   * el que devuelve la consulta count.
+   *
+   * @param <T>   tipo de los elementos.
+   * @param key   clave del filtro (consulta y restricciones del usuario).
+   * @param slice elementos de la página sin total.
+   * @param count consulta count del filtro.
+   * @return la página con el total de elementos.
+   */
+  public <T> Page<T> toPage(String key, Slice<T> slice, LongSupplier count) {
+    Pageable pageable = slice.getPageable();
+    long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+    long total;
+    if (!slice.hasNext() && (slice.hasContent() || offset == 0)) {
+      total = offset + slice.getNumberOfElements();
+      entries.put(key, total);
+    } else {
+      total = get(key, count);
+    }
+    return new PageImpl<>(slice.getContent(), pageable, total);
+  }
+
+  /**
+   * Obtiene el total de elementos del filtro de la caché o, si no está o ha
+   * caducado, de la consulta count.
+   *
+   * @param key   clave del filtro.
+   * @param count consulta count del filtro.
+   * @return el número total de elementos.
+   */
+  public long get(String key, LongSupplier count) {
+    Long cached = entries.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    long total = count.getAsLong();
+    entries.put(key, total);
+    return total;
+  }
+
+  /**
+   * Elimina todos los totales almacenados.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+}
@@ -0,0 +1,80 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Caché de un valor por id y versión del agregado.
+ * <p>
+ * El valor se reutiliza mientras la versión del agregado no cambia, por lo que
+ * los cambios del agregado se reflejan en cuanto se producen. La caducidad solo
+ * acota el tiempo que se reutilizan los datos que no forman parte de la versión
+ * (p.e. los nombres de las entidades de configuración a las que se hace
+ * referencia).
+ *
+ * @param <V> tipo de los valores.
+ */
+public class VersionedCache<V> {
+
+  private final BoundedTtlCache<Long, Entry<V>> entries;
+
+  /**
+   * Crea una caché vacía.
+   *
+   * @param ttl        tiempo máximo durante el que se reutiliza un valor.
+   * @param maxEntries número máximo de valores almacenados.
+   */
+  public VersionedCache(Duration ttl, int maxEntries) {
+    this(ttl, maxEntries, Clock.systemUTC());
+  }
+
+  /**
+   * Crea una caché vacía.
+   *
+   * @param ttl        tiempo máximo durante el que se reutiliza un valor.
+   * @param maxEntries número máximo de valores almacenados.
+   * @param clock      reloj con el que se calcula la caducidad.
+   */
+  public VersionedCache(Duration ttl, int maxEntries, Clock clock) {
+    this.entries = new BoundedTtlCache<>(ttl, maxEntries, clock);
+  }
+
+  /**
+   * Obtiene el valor de la versión indicada del agregado de la caché o, si no
+   * está, ha caducado o es de otra versión, lo carga y lo almacena.
+   *
+   * @param id      id del agregado.
+   * @param version versión actual del agregado.
+   * @param loader  carga del valor.
+   * @return el valor.
+   */
+  public V get(Long id, long version, Supplier<V> loader) {
+    Entry<V> entry = entries.get(id);
+    if (entry != null && entry.version == version) {
+      return entry.value;
+    }
+    V value = loader.get();
+    // Una carga más lenta de una versión anterior no sustituye a la actual
+    entries.merge(id, new Entry<>(version, value), (actual, nueva) -> actual.version > nueva.version ? actual : nueva);
+    return value;
+  }
+
+  /**
+   * Elimina todos los valores almacenados.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  private static final class Entry<V> {
+    private final long version;
+    private final V value;
+
+    private Entry(long version, V value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+
+}
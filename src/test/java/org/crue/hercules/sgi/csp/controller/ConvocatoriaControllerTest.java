@@ -1,8 +1,10 @@
 package org.crue.hercules.sgi.csp.controller;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.Period;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -10,6 +12,9 @@ import java.util.List;
 import com.fasterxml.jackson.core.type.TypeReference;
 
 import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaCapacidades;
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaDossier;
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado;
 import org.crue.hercules.sgi.csp.enums.ClasificacionCVN;
 import org.crue.hercules.sgi.csp.exceptions.ConvocatoriaNotFoundException;
 import org.crue.hercules.sgi.csp.model.AreaTematica;
@@ -51,6 +56,7 @@ import org.crue.hercules.sgi.csp.service.ConvocatoriaHitoService;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaPeriodoJustificacionService;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaPeriodoSeguimientoCientificoService;
 import org.crue.hercules.sgi.csp.service.ConvocatoriaService;
+import org.crue.hercules.sgi.csp.service.SolicitudProyectoPresupuestoService;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -103,6 +109,8 @@ public class ConvocatoriaControllerTest extends BaseControllerTest {
   private ConvocatoriaConceptoGastoService convocatoriaConceptoGastoService;
   @MockBean
   private ConvocatoriaConceptoGastoCodigoEcService convocatoriaConceptoGastoCodigoEcService;
+  @MockBean
+  private SolicitudProyectoPresupuestoService solicitudProyectoPresupuestoService;
 
   private static final String PATH_PARAMETER_ID = "/{id}";
   private static final String PATH_PARAMETER_DESACTIVAR = "/desactivar";
@@ -112,9 +120,12 @@ public class ConvocatoriaControllerTest extends BaseControllerTest {
   private static final String PATH_PARAMETER_VINCULACIONES = "/vinculaciones";
   private static final String PATH_PARAMETER_MODIFICABLE = "/modificable";
   private static final String PATH_PARAMETER_REGISTRABLE = "/registrable";
+  private static final String PATH_PARAMETER_CAPACIDADES = "/capacidades";
   private static final String PATH_PARAMETER_UNIDAD_GESTION = "/unidadgestion";
   private static final String PATH_PARAMETER_MODELO_EJECUCION = "/modeloejecucion";
   private static final String CONTROLLER_BASE_PATH = "/convocatorias";
+  private static final String PATH_DOSSIER = "/dossier";
+  private static final String PATH_PRESUPUESTO_AGREGADO = "/presupuesto/agregado";
   private static final String PATH_AREA_TEMATICA = "/convocatoriaareatematicas";
   private static final String PATH_ENTIDAD_DOCUMENTO = "/convocatoriadocumentos";
   private static final String PATH_ENTIDAD_ENLACE = "/convocatoriaenlaces";
@@ -516,6 +527,28 @@ public class ConvocatoriaControllerTest extends BaseControllerTest {
         .andExpect(MockMvcResultMatchers.status().isNoContent());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-CONV-V" })
+  public void capacidades_ReturnsCapacidades() throws Exception {
+    // given: the capabilities of one Convocatoria
+    BDDMockito.given(service.findCapacidades(ArgumentMatchers.<Long>anyList()))
+        .willReturn(Arrays.asList(new ConvocatoriaCapacidades(1L, true, true, false)));
+
+    // when: get the capabilities
+    mockMvc
+        .perform(MockMvcRequestBuilders.post(CONTROLLER_BASE_PATH + PATH_PARAMETER_CAPACIDADES)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON).content(mapper.writeValueAsString(Arrays.asList(1L, 2L))))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns the capabilities of each Convocatoria
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].convocatoriaId").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].modificable").value(true))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].registrable").value(true))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].vinculaciones").value(false));
+  }
+
   @Test
   @WithMockUser(username = "user", authorities = { "CSP-CONV-V" })
   public void getUnidadGestionRef_WithExistingId_ReturnsUnidadGestionRef() throws Exception {
@@ -629,6 +662,100 @@ public class ConvocatoriaControllerTest extends BaseControllerTest {
         andExpect(MockMvcResultMatchers.status().isNotFound());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-CONV-V" })
+  public void findDossier_WithExistingId_ReturnsConvocatoriaDossier() throws Exception {
+    // given: existing id with one ConvocatoriaHito
+    BDDMockito.given(service.findDossier(ArgumentMatchers.<Long>any())).willAnswer((InvocationOnMock invocation) -> {
+      Long id = invocation.getArgument(0);
+      return ConvocatoriaDossier.builder()
+          .convocatoria(generarMockConvocatoria(id, 1L, 1L, 1L, 1L, 1L, Boolean.TRUE))
+          .convocatoriaHitos(Collections.singletonList(ConvocatoriaHito.builder().id(1L).convocatoriaId(id).build()))
+          .build();
+    });
+
+    // when: find dossier by existing id
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_DOSSIER, 1L)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: response is OK
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        // and the Convocatoria is returned together with its child collections
+        .andExpect(MockMvcResultMatchers.jsonPath("convocatoria.id").value(1L))
+        .andExpect(MockMvcResultMatchers.jsonPath("convocatoriaHitos", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("convocatoriaHitos[0].convocatoriaId").value(1L));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-CONV-V" })
+  public void findDossier_WithNoExistingId_Returns404() throws Exception {
+    // given: no existing id
+    BDDMockito.given(service.findDossier(ArgumentMatchers.anyLong())).will((InvocationOnMock invocation) -> {
+      throw new ConvocatoriaNotFoundException(1L);
+    });
+
+    // when: find dossier by non existing id
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_DOSSIER, 1L)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: HTTP code 404 NotFound pressent
+        .andExpect(MockMvcResultMatchers.status().isNotFound());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-CONV-V" })
+  public void findPresupuestoAgregado_WithDims_ReturnsRollup() throws Exception {
+    // given: el presupuesto de las solicitudes de la convocatoria agregado por
+    // entidad
+    Long convocatoriaId = 1L;
+    List<SolicitudProyectoPresupuestoAgregado> agregado = Arrays.asList(
+        SolicitudProyectoPresupuestoAgregado.builder().entidadRef("entidad-001")
+            .importeTotal(new BigDecimal("1000.00")).nivel(1).build(),
+        SolicitudProyectoPresupuestoAgregado.builder().entidadRef(null).importeTotal(new BigDecimal("250.00"))
+            .nivel(1).build(),
+        SolicitudProyectoPresupuestoAgregado.builder().importeTotal(new BigDecimal("1250.00")).nivel(0).build());
+
+    BDDMockito
+        .given(solicitudProyectoPresupuestoService.findAgregadoConvocatoria(convocatoriaId,
+            Collections.singletonList(SolicitudProyectoPresupuestoAgregado.Dimension.ENTIDAD_REF)))
+        .willReturn(agregado);
+
+    // when: se pide el presupuesto agregado por entidad
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_PRESUPUESTO_AGREGADO, convocatoriaId)
+            .param("dims", "entidadRef").with(SecurityMockMvcRequestPostProcessors.csrf())
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: se devuelve el total por entidad, incluida la de la convocatoria
+        // (null), y el total
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(3)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].entidadRef").value("entidad-001"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[1].nivel").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[2].nivel").value(0));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-CONV-V" })
+  public void findPresupuestoAgregado_WithoutPresupuesto_Returns204() throws Exception {
+    // given: una convocatoria sin solicitudes con presupuesto
+    BDDMockito.given(solicitudProyectoPresupuestoService.findAgregadoConvocatoria(ArgumentMatchers.<Long>any(),
+        ArgumentMatchers.<List<SolicitudProyectoPresupuestoAgregado.Dimension>>any()))
+        .willReturn(Collections.emptyList());
+
+    // when: se pide el presupuesto agregado
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_PRESUPUESTO_AGREGADO, 1L)
+            .param("dims", "conceptoGasto").with(SecurityMockMvcRequestPostProcessors.csrf())
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: Devuelve un 204
+        .andExpect(MockMvcResultMatchers.status().isNoContent());
+  }
+
   @Test
   @WithMockUser(username = "user", authorities = { "CSP-CONV-V" })
   public void findAll_WithPaging_ReturnsConvocatoriaSubList() throws Exception {
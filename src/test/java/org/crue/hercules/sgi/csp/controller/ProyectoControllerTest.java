@@ -5,11 +5,15 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 
 import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.dto.ProyectoDossier;
+import org.crue.hercules.sgi.csp.exceptions.ProyectoJobNotFoundException;
 import org.crue.hercules.sgi.csp.exceptions.ProyectoNotFoundException;
 import org.crue.hercules.sgi.csp.model.EstadoProyecto;
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
@@ -18,6 +22,7 @@ import org.crue.hercules.sgi.csp.model.ProyectoEntidadGestora;
 import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
 import org.crue.hercules.sgi.csp.model.ProyectoFase;
 import org.crue.hercules.sgi.csp.model.ProyectoHito;
+import org.crue.hercules.sgi.csp.model.ProyectoJob;
 import org.crue.hercules.sgi.csp.model.ProyectoPaqueteTrabajo;
 import org.crue.hercules.sgi.csp.model.ProyectoPeriodoSeguimiento;
 import org.crue.hercules.sgi.csp.model.ProyectoProrroga;
@@ -36,6 +41,7 @@ import org.crue.hercules.sgi.csp.service.ProyectoEntidadGestoraService;
 import org.crue.hercules.sgi.csp.service.ProyectoEquipoService;
 import org.crue.hercules.sgi.csp.service.ProyectoFaseService;
 import org.crue.hercules.sgi.csp.service.ProyectoHitoService;
+import org.crue.hercules.sgi.csp.service.ProyectoJobService;
 import org.crue.hercules.sgi.csp.service.ProyectoPaqueteTrabajoService;
 import org.crue.hercules.sgi.csp.service.ProyectoPeriodoSeguimientoDocumentoService;
 import org.crue.hercules.sgi.csp.service.ProyectoPeriodoSeguimientoService;
@@ -43,10 +49,13 @@ import org.crue.hercules.sgi.csp.service.ProyectoProrrogaService;
 import org.crue.hercules.sgi.csp.service.ProyectoService;
 import org.crue.hercules.sgi.csp.service.ProyectoSocioService;
 import org.crue.hercules.sgi.csp.service.ProyectoSocioPeriodoJustificacionDocumentoService;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.crue.hercules.sgi.csp.util.SliceHeaders;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
+import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.beans.BeanUtils;
@@ -55,6 +64,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
@@ -105,6 +116,9 @@ public class ProyectoControllerTest extends BaseControllerTest {
   @MockBean
   private ProrrogaDocumentoService prorrogaDocumentoService;
 
+  @MockBean
+  private ProyectoJobService proyectoJobService;
+
   private static final String PATH_PARAMETER_ID = "/{id}";
   private static final String PATH_PARAMETER_DESACTIVAR = "/desactivar";
   private static final String PATH_PARAMETER_REACTIVAR = "/reactivar";
@@ -119,6 +133,10 @@ public class ProyectoControllerTest extends BaseControllerTest {
   private static final String PATH_SEGUIMIENTO = "/proyectoperiodoseguimientos";
   private static final String PATH_PROYECTO_EQUIPO = "/proyectoequipos";
   private static final String PATH_PRORROGA = "/proyectoprorrogas";
+  private static final String PATH_SOLICITUD = "/solicitud";
+  private static final String PATH_JOBS = "/jobs";
+  private static final String PATH_CAPACIDADES = "/capacidades";
+  private static final String PATH_DOSSIER = "/dossier";
 
   @Test
   @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
@@ -209,6 +227,50 @@ public class ProyectoControllerTest extends BaseControllerTest {
         .andExpect(MockMvcResultMatchers.status().isNotFound());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void update_WithIfMatchVersionActual_ReturnsProyecto() throws Exception {
+    // given: Existing Proyecto in version 3
+    Proyecto proyecto = generarMockProyecto(1L);
+    proyecto.setObservaciones("observaciones actualizadas");
+
+    BDDMockito.given(service.findVersion(ArgumentMatchers.anyLong())).willReturn(Optional.of(3L));
+    BDDMockito.given(service.update(ArgumentMatchers.<Proyecto>any(), ArgumentMatchers.eq(3L)))
+        .willAnswer((InvocationOnMock invocation) -> invocation.getArgument(0));
+
+    // when: update Proyecto with the ETag of version 3
+    mockMvc
+        .perform(MockMvcRequestBuilders.put(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID, proyecto.getId())
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header(HttpHeaders.IF_MATCH, "\"1-3\"")
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+            .content(mapper.writeValueAsString(proyecto)))
+        .andDo(MockMvcResultHandlers.print())
+        // then: Proyecto is updated checking the version
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("observaciones").value(proyecto.getObservaciones()));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void update_WithIfMatchVersionAnterior_Returns412() throws Exception {
+    // given: Existing Proyecto modified to version 4
+    Proyecto proyecto = generarMockProyecto(1L);
+
+    BDDMockito.given(service.findVersion(ArgumentMatchers.anyLong())).willReturn(Optional.of(4L));
+
+    // when: update Proyecto with the ETag of version 3
+    mockMvc
+        .perform(MockMvcRequestBuilders.put(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID, proyecto.getId())
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header(HttpHeaders.IF_MATCH, "\"1-3\"")
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+            .content(mapper.writeValueAsString(proyecto)))
+        .andDo(MockMvcResultHandlers.print())
+        // then: 412 error and Proyecto is not updated
+        .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    Mockito.verify(service, Mockito.never()).update(ArgumentMatchers.<Proyecto>any());
+    Mockito.verify(service, Mockito.never()).update(ArgumentMatchers.<Proyecto>any(), ArgumentMatchers.anyLong());
+  }
+
   @Test
   @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
   public void reactivar_WithExistingId_ReturnProyecto() throws Exception {
@@ -332,6 +394,52 @@ public class ProyectoControllerTest extends BaseControllerTest {
         andExpect(MockMvcResultMatchers.status().isNotFound());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-V" })
+  public void findDossier_WithInclude_ReturnsIncludedSections() throws Exception {
+    // given: existing id and the hitos and fases sections
+    EnumSet<ProyectoDossier.Seccion> secciones = EnumSet.of(ProyectoDossier.Seccion.PROYECTO_HITOS,
+        ProyectoDossier.Seccion.PROYECTO_FASES);
+    BDDMockito.given(service.findDossier(ArgumentMatchers.<Long>any(), ArgumentMatchers.eq(secciones)))
+        .willAnswer((InvocationOnMock invocation) -> {
+          Long id = invocation.getArgument(0);
+          return ProyectoDossier.builder().proyecto(generarMockProyecto(id))
+              .proyectoHitos(Collections.singletonList(generarMockProyectoHito(id)))
+              .proyectoFases(Collections.singletonList(generarMockProyectoFase(id))).build();
+        });
+
+    // when: find dossier including hitos and fases
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_DOSSIER, 1L)
+            .param("include", "proyectohitos,proyectofases").with(SecurityMockMvcRequestPostProcessors.csrf())
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: response is OK
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        // and the Proyecto is returned with the included sections only
+        .andExpect(MockMvcResultMatchers.jsonPath("proyecto.id").value(1L))
+        .andExpect(MockMvcResultMatchers.jsonPath("proyectoHitos", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("proyectoHitos[0].proyectoId").value(1L))
+        .andExpect(MockMvcResultMatchers.jsonPath("proyectoFases", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("proyectoSocios").doesNotExist());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-V" })
+  public void findDossier_WithIncludeNoValido_Returns400() throws Exception {
+    // given: an unknown section
+
+    // when: find dossier including the unknown section
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_DOSSIER, 1L)
+            .param("include", "noexiste").with(SecurityMockMvcRequestPostProcessors.csrf())
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: response is 400 and the service is not called
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    Mockito.verify(service, Mockito.never()).findDossier(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+  }
+
   @Test
   @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
   public void existsById_WithExistingId_Returns200() throws Exception {
@@ -364,6 +472,22 @@ public class ProyectoControllerTest extends BaseControllerTest {
         .andExpect(MockMvcResultMatchers.status().isNoContent());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-V" })
+  public void capacidades_WithoutProyectos_Returns204() throws Exception {
+    // given: no existing Proyecto
+    BDDMockito.given(service.findCapacidades(ArgumentMatchers.<Long>anyList())).willReturn(Collections.emptyList());
+
+    // when: get the capabilities
+    mockMvc
+        .perform(MockMvcRequestBuilders.post(CONTROLLER_BASE_PATH + PATH_CAPACIDADES)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON).content(mapper.writeValueAsString(Collections.singletonList(1L))))
+        .andDo(MockMvcResultHandlers.print())
+        // then: 204
+        .andExpect(MockMvcResultMatchers.status().isNoContent());
+  }
+
   @Test
   @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
   public void findById_WithExistingId_ReturnsProyecto() throws Exception {
@@ -403,6 +527,44 @@ public class ProyectoControllerTest extends BaseControllerTest {
         andExpect(MockMvcResultMatchers.status().isNotFound());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void findById_WithVersion_ReturnsETag() throws Exception {
+    // given: existing id in version 3
+    BDDMockito.given(service.findVersion(ArgumentMatchers.anyLong())).willReturn(Optional.of(3L));
+    BDDMockito.given(service.findById(ArgumentMatchers.anyLong())).willAnswer((InvocationOnMock invocation) -> {
+      return generarMockProyecto(invocation.getArgument(0));
+    });
+
+    // when: find by existing id
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID, 1L)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: response is OK with the ETag of the version
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-3\""))
+        .andExpect(MockMvcResultMatchers.jsonPath("id").value(1L));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void findById_WithIfNoneMatchVersionActual_Returns304() throws Exception {
+    // given: existing id in version 3
+    BDDMockito.given(service.findVersion(ArgumentMatchers.anyLong())).willReturn(Optional.of(3L));
+
+    // when: find by existing id with the ETag of version 3
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID, 1L)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header(HttpHeaders.IF_NONE_MATCH, "\"1-3\"")
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: 304 without loading the Proyecto
+        .andExpect(MockMvcResultMatchers.status().isNotModified())
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-3\""));
+    Mockito.verify(service, Mockito.never()).findById(ArgumentMatchers.anyLong());
+  }
+
   @Test
   @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
   public void findAll_ReturnsPage() throws Exception {
@@ -539,6 +701,115 @@ public class ProyectoControllerTest extends BaseControllerTest {
         .andExpect(MockMvcResultMatchers.status().isNoContent());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void findAll_WithCursor_ReturnsSliceAndNextCursor() throws Exception {
+    // given: the first 10 Proyecto and a cursor for the next page
+    List<Proyecto> proyectos = new ArrayList<>();
+    for (long i = 1; i <= 10; i++) {
+      proyectos.add(generarMockProyecto(i));
+    }
+    BDDMockito
+        .given(service.findAllRestringidos(ArgumentMatchers.<String>any(), ArgumentMatchers.eq(""),
+            ArgumentMatchers.<Pageable>any()))
+        .willReturn(new KeysetSlice<>(proyectos, "next-cursor"));
+
+    // when: get the first page by cursor
+    MvcResult requestResult = mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH).param("cursor", "")
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header("X-Page-Size", "10")
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns the page with the next cursor and without total count
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string(KeysetSlice.NEXT_CURSOR_HEADER, "next-cursor"))
+        .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Total-Count"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(10))).andReturn();
+    List<Proyecto> proyectosResponse = mapper.readValue(requestResult.getResponse().getContentAsString(),
+        new TypeReference<List<Proyecto>>() {
+        });
+    Assertions.assertThat(proyectosResponse.get(0).getObservaciones()).isEqualTo("observaciones-001");
+    Mockito.verify(service, Mockito.never()).findAllRestringidos(ArgumentMatchers.<String>any(),
+        ArgumentMatchers.<Pageable>any());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void findAllTodos_WithCursorLastPage_ReturnsSliceWithoutNextCursor() throws Exception {
+    // given: the last page of Proyecto
+    BDDMockito
+        .given(service.findAllTodosRestringidos(ArgumentMatchers.<String>any(), ArgumentMatchers.eq("cursor"),
+            ArgumentMatchers.<Pageable>any()))
+        .willReturn(new KeysetSlice<>(Collections.singletonList(generarMockProyecto(37L)), null));
+
+    // when: get the page after the cursor
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_TODOS).param("cursor", "cursor")
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header("X-Page-Size", "10")
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns the page without next cursor
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().doesNotExist(KeysetSlice.NEXT_CURSOR_HEADER))
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void findAll_WithTotalNone_ReturnsSliceWithoutTotalCount() throws Exception {
+    // given: the page 3 of Proyecto and a next page
+    List<Proyecto> proyectos = new ArrayList<>();
+    for (long i = 31; i <= 40; i++) {
+      proyectos.add(generarMockProyecto(i));
+    }
+    BDDMockito
+        .given(service.findAllRestringidosSinTotal(ArgumentMatchers.<String>any(), ArgumentMatchers.<Pageable>any()))
+        .willAnswer((InvocationOnMock invocation) -> new SliceImpl<>(proyectos,
+            invocation.getArgument(1, Pageable.class), true));
+
+    // when: get page=3 with pagesize=10 without total
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH).param("total", "none")
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header("X-Page", "3").header("X-Page-Size", "10")
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns the page with the next page indicator and without total
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string(SliceHeaders.PAGE, "3"))
+        .andExpect(MockMvcResultMatchers.header().string(SliceHeaders.PAGE_SIZE, "10"))
+        .andExpect(MockMvcResultMatchers.header().string(SliceHeaders.HAS_NEXT, "true"))
+        .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Total-Count"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(10)));
+    Mockito.verify(service, Mockito.never()).findAllRestringidos(ArgumentMatchers.<String>any(),
+        ArgumentMatchers.<Pageable>any());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void findAllTodos_WithTotalCache_ReturnsPageWithTotalEstimado() throws Exception {
+    // given: the page 3 of Proyecto with the total of the cache
+    List<Proyecto> proyectos = new ArrayList<>();
+    for (long i = 31; i <= 37; i++) {
+      proyectos.add(generarMockProyecto(i));
+    }
+    BDDMockito
+        .given(service.findAllTodosRestringidosTotalEstimado(ArgumentMatchers.<String>any(),
+            ArgumentMatchers.<Pageable>any()))
+        .willAnswer((InvocationOnMock invocation) -> new PageImpl<>(proyectos,
+            invocation.getArgument(1, Pageable.class), 37));
+
+    // when: get page=3 with pagesize=10 with the cached total
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_TODOS).param("total", "cache")
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header("X-Page", "3").header("X-Page-Size", "10")
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns the page with the total
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string("X-Total-Count", "37"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(7)));
+  }
+
   /**
    * 
    * PROYECTO HITO
@@ -631,6 +902,63 @@ public class ProyectoControllerTest extends BaseControllerTest {
         .andExpect(MockMvcResultMatchers.status().isNoContent());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void findAllProyectoHito_WithIfNoneMatchVersionActual_Returns304() throws Exception {
+    // given: Proyecto in version 3
+    Long proyectoId = 1L;
+    BDDMockito.given(service.findVersion(ArgumentMatchers.anyLong())).willReturn(Optional.of(3L));
+
+    // when: Get ProyectoHito with the ETag of version 3
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_HITO, proyectoId)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header(HttpHeaders.IF_NONE_MATCH, "\"1-3\"")
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: 304 without querying the ProyectoHito
+        .andExpect(MockMvcResultMatchers.status().isNotModified());
+    Mockito.verify(proyectoHitoService, Mockito.never()).findAllByProyecto(ArgumentMatchers.<Long>any(),
+        ArgumentMatchers.<String>any(), ArgumentMatchers.<Pageable>any());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void findAllProyectoHito_WithIfNoneMatchOtraPagina_ReturnsPagina() throws Exception {
+    // given: Proyecto in version 3 and the ETag of its first ProyectoHito page
+    Long proyectoId = 1L;
+    BDDMockito.given(service.findVersion(ArgumentMatchers.anyLong())).willReturn(Optional.of(3L));
+    BDDMockito.given(proyectoHitoService.findAllByProyecto(ArgumentMatchers.<Long>any(), ArgumentMatchers.<String>any(),
+        ArgumentMatchers.<Pageable>any())).willAnswer((InvocationOnMock invocation) -> {
+          return new PageImpl<>(Collections.emptyList(), invocation.getArgument(2, Pageable.class), 0);
+        });
+    String etagPrimeraPagina = mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_HITO, proyectoId)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header("X-Page", 0).header("X-Page-Size", 10)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, Matchers.containsString("X-Page")))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    Assertions.assertThat(etagPrimeraPagina).as("ETag").isNotNull().isNotEqualTo("\"1-3\"");
+
+    // when: Get the second page with the ETag of the first one
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_HITO, proyectoId)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header("X-Page", 1).header("X-Page-Size", 10)
+            .header(HttpHeaders.IF_NONE_MATCH, etagPrimeraPagina).accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: the second page is queried, with a different ETag
+        .andExpect(MockMvcResultMatchers.status().isNoContent())
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, Matchers.not(etagPrimeraPagina)));
+    Mockito.verify(proyectoHitoService).findAllByProyecto(ArgumentMatchers.eq(proyectoId),
+        ArgumentMatchers.<String>any(), ArgumentMatchers.argThat(pageable -> pageable.getPageNumber() == 1));
+
+    // and: the first page with its ETag is not modified
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_HITO, proyectoId)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).header("X-Page", 0).header("X-Page-Size", 10)
+            .header(HttpHeaders.IF_NONE_MATCH, etagPrimeraPagina).accept(MediaType.APPLICATION_JSON))
+        .andExpect(MockMvcResultMatchers.status().isNotModified());
+  }
+
   /**
    * 
    * PROYECTO FASE
@@ -1280,12 +1608,87 @@ public class ProyectoControllerTest extends BaseControllerTest {
         .andExpect(MockMvcResultMatchers.status().isNoContent());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void createProyectoBySolicitudAsync_ReturnsAcceptedWithProyectoJob() throws Exception {
+    // given: a Proyecto to create from a Solicitud
+    Long solicitudId = 1L;
+    Proyecto proyecto = generarMockProyecto(null);
+
+    BDDMockito.given(proyectoJobService.create(ArgumentMatchers.eq(solicitudId), ArgumentMatchers.<Proyecto>any()))
+        .willReturn(generarMockProyectoJob(5L, ProyectoJob.Estado.PENDIENTE));
+
+    // when: create Proyecto asynchronously
+    mockMvc
+        .perform(MockMvcRequestBuilders.post(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_SOLICITUD, solicitudId)
+            .param("async", "true").with(SecurityMockMvcRequestPostProcessors.csrf())
+            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+            .content(mapper.writeValueAsString(proyecto)))
+        .andDo(MockMvcResultHandlers.print())
+        // then: the job is accepted and can be polled
+        .andExpect(MockMvcResultMatchers.status().isAccepted())
+        .andExpect(MockMvcResultMatchers.header().string("Location", Matchers.endsWith(PATH_JOBS + "/5")))
+        .andExpect(MockMvcResultMatchers.jsonPath("id").value(5))
+        .andExpect(MockMvcResultMatchers.jsonPath("estado").value("PENDIENTE"))
+        .andExpect(MockMvcResultMatchers.jsonPath("datos").doesNotExist());
+    BDDMockito.verify(service, Mockito.never()).createProyectoBySolicitud(ArgumentMatchers.anyLong(),
+        ArgumentMatchers.<Proyecto>any());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void findJobById_WithCompletado_ReturnsProyectoId() throws Exception {
+    // given: a finished job
+    ProyectoJob proyectoJob = generarMockProyectoJob(5L, ProyectoJob.Estado.COMPLETADO);
+    proyectoJob.setProyectoId(10L);
+    BDDMockito.given(proyectoJobService.findById(5L)).willReturn(proyectoJob);
+
+    // when: find the job
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_JOBS + PATH_PARAMETER_ID, 5L)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns the job with the created Proyecto
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("estado").value("COMPLETADO"))
+        .andExpect(MockMvcResultMatchers.jsonPath("proyectoId").value(10));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C" })
+  public void findJobById_WithIdNotExist_Returns404() throws Exception {
+    // given: no job with the id
+    BDDMockito.given(proyectoJobService.findById(ArgumentMatchers.anyLong()))
+        .willThrow(new ProyectoJobNotFoundException(5L));
+
+    // when: find the job
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_JOBS + PATH_PARAMETER_ID, 5L)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: 404 error
+        .andExpect(MockMvcResultMatchers.status().isNotFound());
+  }
+
   /**
    * 
    * MOCKS
    * 
    */
 
+  /**
+   * Función que devuelve un objeto ProyectoJob
+   * 
+   * @param id     id del ProyectoJob
+   * @param estado estado del ProyectoJob
+   * @return el objeto ProyectoJob
+   */
+  private ProyectoJob generarMockProyectoJob(Long id, ProyectoJob.Estado estado) {
+    return ProyectoJob.builder().id(id).solicitudId(1L).estado(estado).datos("{}").unidadGestionRef("OPE")
+        .usuarioRef("user").build();
+  }
+
+
   /**
    * Función que devuelve un objeto Proyecto
    * 
@@ -3,12 +3,20 @@ package org.crue.hercules.sgi.csp.controller;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 
 import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoInput;
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoResultado;
+import org.crue.hercules.sgi.csp.dto.SolicitudCapacidades;
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado;
+import org.crue.hercules.sgi.csp.dto.SolicitudTransicion;
+import org.crue.hercules.sgi.csp.dto.SolicitudTransiciones;
 import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
 import org.crue.hercules.sgi.csp.exceptions.SolicitudNotFoundException;
 import org.crue.hercules.sgi.csp.model.ConceptoGasto;
@@ -28,6 +36,7 @@ import org.crue.hercules.sgi.csp.model.TipoDocumento;
 import org.crue.hercules.sgi.csp.model.TipoFinanciacion;
 import org.crue.hercules.sgi.csp.model.TipoHito;
 import org.crue.hercules.sgi.csp.service.EstadoSolicitudService;
+import org.crue.hercules.sgi.csp.service.SolicitudCambioEstadoService;
 import org.crue.hercules.sgi.csp.service.SolicitudDocumentoService;
 import org.crue.hercules.sgi.csp.service.SolicitudHitoService;
 import org.crue.hercules.sgi.csp.service.SolicitudModalidadService;
@@ -41,6 +50,7 @@ import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
+import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.beans.BeanUtils;
@@ -93,6 +103,9 @@ public class SolicitudControllerTest extends BaseControllerTest {
   @MockBean
   private SolicitudProyectoPresupuestoService solicitudProyectoPresupuestoService;
 
+  @MockBean
+  private SolicitudCambioEstadoService solicitudCambioEstadoService;
+
   private static final String PATH_PARAMETER_ID = "/{id}";
   private static final String PATH_PARAMETER_DESACTIVAR = "/desactivar";
   private static final String PATH_PARAMETER_REACTIVAR = "/reactivar";
@@ -101,7 +114,13 @@ public class SolicitudControllerTest extends BaseControllerTest {
   private static final String PATH_ESTADOS_SOLICITUD = "/estadosolicitudes";
   private static final String PATH_ENTIDAD_FINANCIADORA_AJENA = "/solicitudproyectoentidadfinanciadoraajenas";
   private static final String PATH_SOLICITUD_PROYECTO_PRESUPUESTOS = "/solicitudproyectopresupuestos";
+  private static final String PATH_PRESUPUESTO_AGREGADO = "/presupuesto/agregado";
   private static final String PATH_TODOS = "/todos";
+  private static final String PATH_EXPORT = "/export";
+  private static final String PATH_CAMBIAR_ESTADO = "/cambiar-estado";
+  private static final String PATH_TRANSICIONES = "/transiciones";
+  private static final String PATH_MODIFICABLES = "/modificables";
+  private static final String PATH_CAPACIDADES = "/capacidades";
 
   @Test
   @WithMockUser(username = "user", authorities = { "CSP-SOL-C" })
@@ -473,6 +492,94 @@ public class SolicitudControllerTest extends BaseControllerTest {
         .andExpect(MockMvcResultMatchers.status().isNoContent());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V_OPE" })
+  public void export_WithFormatCsv_StreamsHeaderAndRows() throws Exception {
+    // given: 3 Solicitud
+    List<Solicitud> solicitudes = new ArrayList<>();
+    for (long i = 1; i <= 3; i++) {
+      solicitudes.add(generarMockSolicitud(i));
+    }
+    BDDMockito.given(service.exportTodosRestringidos(ArgumentMatchers.<String>any(),
+        ArgumentMatchers.<List<String>>any(), ArgumentMatchers.<Consumer<? super Solicitud>>any()))
+        .willAnswer((InvocationOnMock invocation) -> {
+          Consumer<? super Solicitud> action = invocation.getArgument(2);
+          solicitudes.forEach(action);
+          return (long) solicitudes.size();
+        });
+
+    // when: export as csv
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_EXPORT)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).param("format", "csv"))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+
+    // then: the header line and one line per Solicitud are written, filtered by
+    // the user unidad de gestion
+    MvcResult requestResult = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+        .andDo(MockMvcResultHandlers.print()).andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string("Content-Type", "text/csv;charset=UTF-8"))
+        .andExpect(MockMvcResultMatchers.header().string("Content-Disposition",
+            Matchers.containsString("solicitudes.csv")))
+        .andReturn();
+    String[] lineas = requestResult.getResponse().getContentAsString().split("\r\n");
+    Assertions.assertThat(lineas).hasSize(4);
+    Assertions.assertThat(lineas[0]).isEqualTo("id,codigoExterno,codigoRegistroInterno,estado,convocatoriaId,"
+        + "convocatoriaExterna,solicitanteRef,unidadGestionRef,formularioSolicitud,activo");
+    Assertions.assertThat(lineas[1]).isEqualTo("1,,SGI_SLC1202011061027,,1,,usr-002,OPE,RRHH,true");
+    BDDMockito.then(service).should().exportTodosRestringidos(ArgumentMatchers.<String>isNull(),
+        ArgumentMatchers.eq(Arrays.asList("OPE")), ArgumentMatchers.<Consumer<? super Solicitud>>any());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V_OPE" })
+  public void export_WithoutFormat_StreamsOneJsonObjectPerLine() throws Exception {
+    // given: 3 Solicitud
+    List<Solicitud> solicitudes = new ArrayList<>();
+    for (long i = 1; i <= 3; i++) {
+      solicitudes.add(generarMockSolicitud(i));
+    }
+    BDDMockito.given(service.exportTodosRestringidos(ArgumentMatchers.<String>any(),
+        ArgumentMatchers.<List<String>>any(), ArgumentMatchers.<Consumer<? super Solicitud>>any()))
+        .willAnswer((InvocationOnMock invocation) -> {
+          Consumer<? super Solicitud> action = invocation.getArgument(2);
+          solicitudes.forEach(action);
+          return (long) solicitudes.size();
+        });
+
+    // when: export with the default format
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_EXPORT)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+
+    // then: one Solicitud per line
+    MvcResult requestResult = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+        .andDo(MockMvcResultHandlers.print()).andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string("Content-Type", "application/x-ndjson")).andReturn();
+    String[] lineas = requestResult.getResponse().getContentAsString().split("\n");
+    Assertions.assertThat(lineas).hasSize(3);
+    for (int i = 0; i < lineas.length; i++) {
+      Solicitud solicitud = mapper.readValue(lineas[i], Solicitud.class);
+      Assertions.assertThat(solicitud.getId()).isEqualTo(i + 1L);
+      Assertions.assertThat(solicitud.getObservaciones()).isEqualTo("observaciones-" + String.format("%03d", i + 1));
+    }
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V_OPE" })
+  public void export_WithFormatNoValido_Returns400() throws Exception {
+    // given: an unknown format
+    // when: export
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_EXPORT)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).param("format", "xls"))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns 400 without reading the Solicitud
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    Mockito.verifyNoInteractions(service);
+  }
+
   /**
    * 
    * Solicitud modalidad
@@ -1175,6 +1282,203 @@ public class SolicitudControllerTest extends BaseControllerTest {
         .andExpect(MockMvcResultMatchers.status().isNoContent());
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V" })
+  public void findPresupuestoAgregado_WithDims_ReturnsRollup() throws Exception {
+    // given: el presupuesto de la solicitud agregado por concepto de gasto y
+    // anualidad
+    Long solicitudId = 1L;
+    ConceptoGasto conceptoGasto = ConceptoGasto.builder().id(1L).nombre("conceptoGasto-1").build();
+    List<SolicitudProyectoPresupuestoAgregado> agregado = Arrays.asList(
+        generarMockSolicitudProyectoPresupuestoAgregado(conceptoGasto, 2020, "1000.00", 2),
+        generarMockSolicitudProyectoPresupuestoAgregado(conceptoGasto, 2021, "500.00", 2),
+        generarMockSolicitudProyectoPresupuestoAgregado(conceptoGasto, null, "1500.00", 1),
+        generarMockSolicitudProyectoPresupuestoAgregado(null, null, "1500.00", 0));
+
+    BDDMockito.given(solicitudProyectoPresupuestoService.findAgregadoSolicitud(solicitudId,
+        Arrays.asList(SolicitudProyectoPresupuestoAgregado.Dimension.CONCEPTO_GASTO,
+            SolicitudProyectoPresupuestoAgregado.Dimension.ANUALIDAD)))
+        .willReturn(agregado);
+
+    // when: se pide el presupuesto agregado por concepto de gasto y anualidad
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_PRESUPUESTO_AGREGADO, solicitudId)
+            .param("dims", "conceptoGasto,anualidad").with(SecurityMockMvcRequestPostProcessors.csrf())
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: se devuelven las filas de detalle, los subtotales y el total
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(4)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].conceptoGasto.id").value(1L))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].anualidad").value(2020))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[2].nivel").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[3].nivel").value(0))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[3].importeTotal").value(1500.00));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V" })
+  public void findPresupuestoAgregado_WithoutPresupuesto_Returns204() throws Exception {
+    // given: una solicitud sin presupuesto
+    Long solicitudId = 1L;
+    BDDMockito.given(solicitudProyectoPresupuestoService.findAgregadoSolicitud(ArgumentMatchers.<Long>any(),
+        ArgumentMatchers.<List<SolicitudProyectoPresupuestoAgregado.Dimension>>any()))
+        .willReturn(Collections.emptyList());
+
+    // when: se pide el presupuesto agregado sin indicar dimensiones
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_PRESUPUESTO_AGREGADO, solicitudId)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: Devuelve un 204 y se agrega por todas las dimensiones
+        .andExpect(MockMvcResultMatchers.status().isNoContent());
+    BDDMockito.then(solicitudProyectoPresupuestoService).should().findAgregadoSolicitud(solicitudId,
+        Arrays.asList(SolicitudProyectoPresupuestoAgregado.Dimension.values()));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V" })
+  public void findPresupuestoAgregado_WithInvalidDim_Returns400() throws Exception {
+    // given: una dimensión que no existe
+    Long solicitudId = 1L;
+
+    // when: se pide el presupuesto agregado por la dimensión
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_PRESUPUESTO_AGREGADO, solicitudId)
+            .param("dims", "conceptoGasto,importe").with(SecurityMockMvcRequestPostProcessors.csrf())
+            .accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: Devuelve un 400
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-E" })
+  public void cambiarEstado_ReturnsResultadoPorSolicitud() throws Exception {
+    // given: two Solicitud, only the first one can change its state
+    SolicitudCambioEstadoInput input = SolicitudCambioEstadoInput.builder().solicitudIds(Arrays.asList(1L, 2L))
+        .estado(EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL).build();
+
+    BDDMockito.given(solicitudCambioEstadoService.cambiarEstado(ArgumentMatchers.<SolicitudCambioEstadoInput>any()))
+        .willReturn(Arrays.asList(SolicitudCambioEstadoResultado.correcto(1L), SolicitudCambioEstadoResultado
+            .error(2L, "La solicitud no se encuentra en un estado correcto.")));
+
+    // when: change the state
+    mockMvc
+        .perform(MockMvcRequestBuilders.patch(CONTROLLER_BASE_PATH + PATH_CAMBIAR_ESTADO)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON).content(mapper.writeValueAsString(input)))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns the result of each Solicitud
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].solicitudId").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].correcto").value(true))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[1].solicitudId").value(2))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[1].correcto").value(false))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[1].error").isNotEmpty());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-E" })
+  public void cambiarEstado_WithoutSolicitudIds_Returns400() throws Exception {
+    // given: no Solicitud ids
+    SolicitudCambioEstadoInput input = SolicitudCambioEstadoInput.builder().solicitudIds(Collections.emptyList())
+        .estado(EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL).build();
+
+    // when: change the state
+    mockMvc
+        .perform(MockMvcRequestBuilders.patch(CONTROLLER_BASE_PATH + PATH_CAMBIAR_ESTADO)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON).content(mapper.writeValueAsString(input)))
+        .andDo(MockMvcResultHandlers.print())
+        // then: 400 error
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V" })
+  public void transiciones_ReturnsTransiciones() throws Exception {
+    // given: a Solicitud in PRESENTADA
+    BDDMockito.given(service.getTransiciones(ArgumentMatchers.anyLong()))
+        .willReturn(new SolicitudTransiciones(EstadoSolicitud.Estado.PRESENTADA, true,
+            Arrays.asList(new SolicitudTransicion(EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL, false),
+                new SolicitudTransicion(EstadoSolicitud.Estado.DESISTIDA, true))));
+
+    // when: get the transitions
+    mockMvc
+        .perform(MockMvcRequestBuilders.get(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID + PATH_TRANSICIONES, 1L)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).accept(MediaType.APPLICATION_JSON))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns the current state and the allowed transitions
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("estado").value("PRESENTADA"))
+        .andExpect(MockMvcResultMatchers.jsonPath("modificable").value(true))
+        .andExpect(MockMvcResultMatchers.jsonPath("transiciones", Matchers.hasSize(2)))
+        .andExpect(MockMvcResultMatchers.jsonPath("transiciones[1].estado").value("DESISTIDA"))
+        .andExpect(MockMvcResultMatchers.jsonPath("transiciones[1].comentarioRequerido").value(true));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V" })
+  public void modificables_ReturnsIdsModificables() throws Exception {
+    // given: only the first Solicitud can be modified
+    BDDMockito.given(service.findIdsModificables(ArgumentMatchers.<Long>anyList())).willReturn(Arrays.asList(1L));
+
+    // when: get the modifiable Solicitud
+    mockMvc
+        .perform(MockMvcRequestBuilders.post(CONTROLLER_BASE_PATH + PATH_MODIFICABLES)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON).content(mapper.writeValueAsString(Arrays.asList(1L, 2L))))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns the modifiable ids
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0]").value(1));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V" })
+  public void modificables_WithoutModificables_Returns204() throws Exception {
+    // given: no Solicitud can be modified
+    BDDMockito.given(service.findIdsModificables(ArgumentMatchers.<Long>anyList()))
+        .willReturn(Collections.emptyList());
+
+    // when: get the modifiable Solicitud
+    mockMvc
+        .perform(MockMvcRequestBuilders.post(CONTROLLER_BASE_PATH + PATH_MODIFICABLES)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON).content(mapper.writeValueAsString(Arrays.asList(1L, 2L))))
+        .andDo(MockMvcResultHandlers.print())
+        // then: 204
+        .andExpect(MockMvcResultMatchers.status().isNoContent());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V" })
+  public void capacidades_ReturnsCapacidades() throws Exception {
+    // given: the capabilities of one Solicitud
+    BDDMockito.given(service.findCapacidades(ArgumentMatchers.<Long>anyList()))
+        .willReturn(Arrays.asList(new SolicitudCapacidades(1L, true, false, false)));
+
+    // when: get the capabilities
+    mockMvc
+        .perform(MockMvcRequestBuilders.post(CONTROLLER_BASE_PATH + PATH_CAPACIDADES)
+            .with(SecurityMockMvcRequestPostProcessors.csrf()).contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON).content(mapper.writeValueAsString(Arrays.asList(1L, 2L))))
+        .andDo(MockMvcResultHandlers.print())
+        // then: returns the capabilities of each Solicitud
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].solicitudId").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].modificable").value(true))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].presentable").value(false))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].crearProyecto").value(false));
+  }
+
   /**
    * Función que devuelve un objeto Solicitud
    * 
@@ -1377,4 +1681,20 @@ public class SolicitudControllerTest extends BaseControllerTest {
     return solicitudProyectoPresupuesto;
   }
 
+  /**
+   * Función que devuelve una fila del presupuesto agregado por concepto de gasto
+   * y anualidad
+   * 
+   * @param conceptoGasto concepto de gasto de la fila
+   * @param anualidad     anualidad de la fila
+   * @param importe       importe total de la fila
+   * @param nivel         número de dimensiones por las que se agrupa la fila
+   * @return la fila del presupuesto agregado
+   */
+  private SolicitudProyectoPresupuestoAgregado generarMockSolicitudProyectoPresupuestoAgregado(
+      ConceptoGasto conceptoGasto, Integer anualidad, String importe, int nivel) {
+    return SolicitudProyectoPresupuestoAgregado.builder().conceptoGasto(conceptoGasto).anualidad(anualidad)
+        .importeTotal(new BigDecimal(importe)).nivel(nivel).build();
+  }
+
 }
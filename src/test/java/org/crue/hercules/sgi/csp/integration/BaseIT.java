@@ -1,8 +1,12 @@
 package org.crue.hercules.sgi.csp.integration;
 
+import javax.persistence.EntityManagerFactory;
+
 import org.crue.hercules.sgi.framework.test.context.support.SgiTestProfileResolver;
 import org.crue.hercules.sgi.framework.test.security.Oauth2WireMockInitializer;
 import org.crue.hercules.sgi.framework.test.security.Oauth2WireMockInitializer.TokenBuilder;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.test.context.ActiveProfiles;
@@ -18,4 +22,17 @@ public class BaseIT {
   @Autowired
   protected TokenBuilder tokenBuilder;
 
-}
\ No newline at end of file
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Los scripts SQL de los test modifican la base de datos sin pasar por
+   * Hibernate, por lo que se vacían las cachés de entidades y consultas antes de
+   * cada test.
+   */
+  @BeforeEach
+  public void evictSecondLevelCache() {
+    entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+  }
+
+}
@@ -0,0 +1,141 @@
+package org.crue.hercules.sgi.csp.integration;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.RolProyecto;
+import org.crue.hercules.sgi.csp.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Test de integracion del reemplazo de listas grandes de ProyectoEquipo.
+ * <p>
+ * Comprueba que las inserciones, actualizaciones y borrados se envían a base de
+ * datos en batches JDBC y no con una sentencia por fila.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(StatementCounter.class)
+public class ProyectoEquipoBatchIT extends BaseIT {
+
+  private static final String PATH_PARAMETER_ID = "/{id}";
+  private static final String CONTROLLER_BASE_PATH = "/proyectoequipos";
+
+  private static final int NUM_MIEMBROS = 200;
+
+  /**
+   * Número máximo de sentencias para reemplazar el listado completo. Sin batches
+   * serían al menos {@link #NUM_MIEMBROS} sentencias.
+   */
+  private static final int MAX_SENTENCIAS = 25;
+
+  @Autowired
+  private StatementCounter statementCounter;
+
+  private HttpEntity<List<ProyectoEquipo>> buildRequestList(HttpHeaders headers, List<ProyectoEquipo> entity)
+      throws Exception {
+    headers = (headers != null ? headers : new HttpHeaders());
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+    headers.set("Authorization", String.format("bearer %s",
+        tokenBuilder.buildToken("user", "CSP-CPSCI-B", "CSP-CPSCI-C", "CSP-CPSCI-E", "CSP-CPSCI-V", "CSP-CONV-C")));
+
+    HttpEntity<List<ProyectoEquipo>> request = new HttpEntity<>(entity, headers);
+    return request;
+  }
+
+  @Sql(executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD, scripts = { "classpath:scripts/modelo_ejecucion.sql",
+      "classpath:scripts/modelo_unidad.sql", "classpath:scripts/tipo_finalidad.sql",
+      "classpath:scripts/tipo_ambito_geografico.sql", "classpath:scripts/proyecto.sql",
+      "classpath:scripts/estado_proyecto.sql", "classpath:scripts/rol_proyecto.sql" })
+  @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD, scripts = "classpath:cleanup.sql")
+  @Test
+  public void update_ListaGrande_UsesBatchStatements() throws Exception {
+    // given: un proyecto sin equipo y una lista con 200 miembros nuevos
+    Long proyectoId = 1L;
+    List<ProyectoEquipo> nuevos = new ArrayList<>();
+    for (int i = 0; i < NUM_MIEMBROS; i++) {
+      nuevos.add(generarMockProyectoEquipo(null, "persona-" + i));
+    }
+
+    // when: se crean todos los miembros
+    statementCounter.reset();
+    List<ProyectoEquipo> creados = update(proyectoId, nuevos);
+    int sentenciasCreacion = statementCounter.getCount();
+
+    // then: se crean todos con un número acotado de sentencias
+    Assertions.assertThat(creados).as("creados").hasSize(NUM_MIEMBROS);
+    Assertions.assertThat(creados).extracting(ProyectoEquipo::getId).as("ids").doesNotContainNull()
+        .doesNotHaveDuplicates();
+    Assertions.assertThat(sentenciasCreacion).as("sentencias creacion: %s", statementCounter.getQueries())
+        .isLessThanOrEqualTo(MAX_SENTENCIAS);
+
+    // given: la mitad de los miembros modificados, la otra mitad eliminados y
+    // otros tantos nuevos
+    List<ProyectoEquipo> reemplazo = new ArrayList<>();
+    for (ProyectoEquipo creado : creados.subList(0, NUM_MIEMBROS / 2)) {
+      creado.setHorasDedicacion(20.0);
+      reemplazo.add(creado);
+    }
+    for (int i = 0; i < NUM_MIEMBROS / 2; i++) {
+      reemplazo.add(generarMockProyectoEquipo(null, "persona-nueva-" + i));
+    }
+
+    // when: se reemplaza el listado
+    statementCounter.reset();
+    List<ProyectoEquipo> actualizados = update(proyectoId, reemplazo);
+    int sentenciasReemplazo = statementCounter.getCount();
+
+    // then: el listado se reemplaza con un número acotado de sentencias
+    Assertions.assertThat(actualizados).as("actualizados").hasSize(NUM_MIEMBROS);
+    Assertions.assertThat(actualizados).filteredOn(miembro -> miembro.getPersonaRef().startsWith("persona-nueva-"))
+        .as("nuevos").hasSize(NUM_MIEMBROS / 2);
+    Assertions.assertThat(actualizados).filteredOn(miembro -> !miembro.getPersonaRef().startsWith("persona-nueva-"))
+        .extracting(ProyectoEquipo::getHorasDedicacion).as("horasDedicacion").containsOnly(20.0);
+    Assertions.assertThat(sentenciasReemplazo).as("sentencias reemplazo: %s", statementCounter.getQueries())
+        .isLessThanOrEqualTo(MAX_SENTENCIAS);
+  }
+
+  private List<ProyectoEquipo> update(Long proyectoId, List<ProyectoEquipo> proyectoEquipos) throws Exception {
+    URI uri = UriComponentsBuilder.fromUriString(CONTROLLER_BASE_PATH + PATH_PARAMETER_ID).buildAndExpand(proyectoId)
+        .toUri();
+
+    final ResponseEntity<List<ProyectoEquipo>> response = restTemplate.exchange(uri, HttpMethod.PATCH,
+        buildRequestList(null, proyectoEquipos), new ParameterizedTypeReference<List<ProyectoEquipo>>() {
+        });
+
+    Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    return response.getBody();
+  }
+
+  /**
+   * Función que devuelve un objeto ProyectoEquipo dentro de las fechas del
+   * proyecto
+   * 
+   * @param id         id del ProyectoEquipo
+   * @param personaRef referencia de la persona
+   * @return el objeto ProyectoEquipo
+   */
+  private ProyectoEquipo generarMockProyectoEquipo(Long id, String personaRef) {
+    return ProyectoEquipo.builder().id(id).proyectoId(1L).rolProyecto(RolProyecto.builder().id(1L).build())
+        .fechaInicio(Instant.parse("2020-02-01T00:00:00Z")).fechaFin(Instant.parse("2020-12-31T23:59:59Z"))
+        .personaRef(personaRef).horasDedicacion(10.0).build();
+  }
+
+}
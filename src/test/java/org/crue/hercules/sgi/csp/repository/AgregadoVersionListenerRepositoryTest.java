@@ -0,0 +1,305 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
+import org.crue.hercules.sgi.csp.model.ConceptoGasto;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaConceptoGasto;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaConceptoGastoCodigoEc;
+import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoHito;
+import org.crue.hercules.sgi.csp.model.ProyectoSocio;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoJustificacionDocumento;
+import org.crue.hercules.sgi.csp.model.RolSocio;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudHito;
+import org.crue.hercules.sgi.csp.model.TipoHito;
+import org.crue.hercules.sgi.csp.repository.listener.AgregadoVersionListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Comprueba que {@link AgregadoVersionListener} incrementa la versión del
+ * agregado una única vez por transacción con cada alta, modificación o borrado
+ * de sus entidades relacionadas, también las que solo se relacionan con el
+ * agregado a través de otra entidad.
+ * <p>
+ * Las versiones se incrementan antes del commit, por lo que los test no son
+ * transaccionales: cada paso se ejecuta en su propia transacción, que se
+ * confirma, y los datos creados se borran al terminar.
+ */
+@DataJpaTest
+@Import(AgregadoVersionListener.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AgregadoVersionListenerRepositoryTest extends BaseRepositoryTest {
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private ProyectoRepository proyectoRepository;
+
+  @Autowired
+  private SolicitudRepository solicitudRepository;
+
+  @Autowired
+  private ConvocatoriaRepository convocatoriaRepository;
+
+  private TransactionTemplate transaccion;
+
+  private final List<Object> creadas = new ArrayList<>();
+
+  private ModeloEjecucion modeloEjecucion;
+  private TipoHito tipoHito;
+
+  @BeforeEach
+  public void setUpDatos() {
+    transaccion = new TransactionTemplate(transactionManager);
+    modeloEjecucion = persistir(
+        ModeloEjecucion.builder().nombre("version-modelo-ejecucion").activo(Boolean.TRUE).build());
+    tipoHito = persistir(TipoHito.builder().nombre("version-tipo-hito").activo(Boolean.TRUE).build());
+  }
+
+  @AfterEach
+  public void cleanup() {
+    transaccion.executeWithoutResult(status -> {
+      for (int i = creadas.size() - 1; i >= 0; i--) {
+        Object entidad = creadas.get(i);
+        Object encontrada = entityManager.find(entidad.getClass(),
+            entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entidad));
+        if (encontrada != null) {
+          entityManager.remove(encontrada);
+        }
+      }
+    });
+  }
+
+  @Test
+  public void persist_Agregado_KeepsVersionInicial() throws Exception {
+    // when: se crea un Proyecto
+    Proyecto proyecto = persistir(generarMockProyecto());
+
+    // then: se crea con la versión inicial
+    Assertions.assertThat(proyectoRepository.getVersion(proyecto.getId())).contains(0L);
+  }
+
+  @Test
+  public void persist_VariasEntidadesRelacionadasEnUnaTransaccion_IncrementsVersionOnce() throws Exception {
+    // given: un Proyecto
+    Proyecto proyecto = persistir(generarMockProyecto());
+
+    // when: se crean dos hitos y se modifica uno en la misma transacción
+    List<ProyectoHito> hitos = transaccion.execute(status -> {
+      ProyectoHito hito = entityManager.persistAndFlush(generarMockProyectoHito(proyecto.getId()));
+      ProyectoHito otroHito = entityManager.persist(generarMockProyectoHito(proyecto.getId()));
+      hito.setComentario("modificado");
+      entityManager.flush();
+      return Arrays.asList(hito, otroHito);
+    });
+    creadas.addAll(hitos);
+
+    // then: la versión se incrementa una vez
+    Assertions.assertThat(proyectoRepository.getVersion(proyecto.getId())).contains(1L);
+  }
+
+  @Test
+  public void mergeAndRemove_EntidadRelacionada_IncrementsVersionEnCadaTransaccion() throws Exception {
+    // given: un Proyecto con un hito
+    Proyecto proyecto = persistir(generarMockProyecto());
+    ProyectoHito hito = persistir(generarMockProyectoHito(proyecto.getId()));
+    Assertions.assertThat(proyectoRepository.getVersion(proyecto.getId())).as("alta").contains(1L);
+
+    // when: se modifica el hito
+    hito.setComentario("modificado");
+    transaccion.executeWithoutResult(status -> entityManager.merge(hito));
+
+    // then: la versión se incrementa
+    Assertions.assertThat(proyectoRepository.getVersion(proyecto.getId())).as("modificación").contains(2L);
+
+    // when: se borra el hito
+    transaccion.executeWithoutResult(
+        status -> entityManager.remove(entityManager.find(ProyectoHito.class, hito.getId())));
+
+    // then: la versión se incrementa
+    Assertions.assertThat(proyectoRepository.getVersion(proyecto.getId())).as("borrado").contains(3L);
+  }
+
+  @Test
+  public void persistMergeAndRemove_ProyectoSocioPeriodoJustificacionDocumento_IncrementsVersionProyecto()
+      throws Exception {
+    // given: un periodo de justificación de un socio de un Proyecto
+    Proyecto proyecto = persistir(generarMockProyecto());
+    RolSocio rolSocio = persistir(RolSocio.builder().abreviatura("VER").nombre("version-rol-socio")
+        .coordinador(Boolean.FALSE).activo(Boolean.TRUE).build());
+    ProyectoSocio socio = persistir(
+        ProyectoSocio.builder().proyectoId(proyecto.getId()).empresaRef("empresa-001").rolSocio(rolSocio).build());
+    ProyectoSocioPeriodoJustificacion periodo = persistir(ProyectoSocioPeriodoJustificacion.builder()
+        .proyectoSocioId(socio.getId()).numPeriodo(1).fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+        .fechaFin(Instant.parse("2020-06-30T23:59:59Z")).build());
+    long version = proyectoRepository.getVersion(proyecto.getId()).get();
+
+    // when: se crea, modifica y borra un documento del periodo, cada cambio en
+    // su transacción
+    ProyectoSocioPeriodoJustificacionDocumento documento = persistir(
+        ProyectoSocioPeriodoJustificacionDocumento.builder().proyectoSocioPeriodoJustificacionId(periodo.getId())
+            .nombre("documento").documentoRef("documento-001").visible(Boolean.TRUE).build());
+    long versionAlta = proyectoRepository.getVersion(proyecto.getId()).get();
+    documento.setComentario("modificado");
+    transaccion.executeWithoutResult(status -> entityManager.merge(documento));
+    long versionModificacion = proyectoRepository.getVersion(proyecto.getId()).get();
+    transaccion.executeWithoutResult(status -> entityManager
+        .remove(entityManager.find(ProyectoSocioPeriodoJustificacionDocumento.class, documento.getId())));
+    long versionBorrado = proyectoRepository.getVersion(proyecto.getId()).get();
+
+    // then: cada cambio incrementa una vez la versión del Proyecto
+    Assertions.assertThat(versionAlta).as("alta").isEqualTo(version + 1);
+    Assertions.assertThat(versionModificacion).as("modificación").isEqualTo(version + 2);
+    Assertions.assertThat(versionBorrado).as("borrado").isEqualTo(version + 3);
+  }
+
+  @Test
+  public void persistMergeAndRemove_ConvocatoriaConceptoGastoCodigoEc_IncrementsVersionConvocatoria()
+      throws Exception {
+    // given: un concepto de gasto de una Convocatoria
+    Convocatoria convocatoria = persistir(generarMockConvocatoria());
+    ConceptoGasto conceptoGasto = persistir(
+        ConceptoGasto.builder().nombre("version-concepto-gasto").activo(Boolean.TRUE).build());
+    ConvocatoriaConceptoGasto convocatoriaConceptoGasto = persistir(ConvocatoriaConceptoGasto.builder()
+        .convocatoriaId(convocatoria.getId()).conceptoGasto(conceptoGasto).permitido(Boolean.TRUE).build());
+    long version = convocatoriaRepository.getVersion(convocatoria.getId()).get();
+
+    // when: se crea, modifica y borra un código económico del concepto de
+    // gasto, cada cambio en su transacción
+    ConvocatoriaConceptoGastoCodigoEc codigoEc = persistir(ConvocatoriaConceptoGastoCodigoEc.builder()
+        .convocatoriaConceptoGastoId(convocatoriaConceptoGasto.getId()).codigoEconomicoRef("CE-001").build());
+    long versionAlta = convocatoriaRepository.getVersion(convocatoria.getId()).get();
+    codigoEc.setObservaciones("modificado");
+    transaccion.executeWithoutResult(status -> entityManager.merge(codigoEc));
+    long versionModificacion = convocatoriaRepository.getVersion(convocatoria.getId()).get();
+    transaccion.executeWithoutResult(status -> entityManager
+        .remove(entityManager.find(ConvocatoriaConceptoGastoCodigoEc.class, codigoEc.getId())));
+    long versionBorrado = convocatoriaRepository.getVersion(convocatoria.getId()).get();
+
+    // then: cada cambio incrementa una vez la versión de la Convocatoria
+    Assertions.assertThat(versionAlta).as("alta").isEqualTo(version + 1);
+    Assertions.assertThat(versionModificacion).as("modificación").isEqualTo(version + 2);
+    Assertions.assertThat(versionBorrado).as("borrado").isEqualTo(version + 3);
+  }
+
+  @Test
+  public void persist_EntidadesDeVariosAgregados_IncrementsVersionOfEachAgregadoOnce() throws Exception {
+    // given: dos Solicitudes y un Proyecto
+    Solicitud solicitud1 = persistir(generarMockSolicitud());
+    Solicitud solicitud2 = persistir(generarMockSolicitud());
+    Proyecto proyecto = persistir(generarMockProyecto());
+
+    // when: se crean hitos de los tres en la misma transacción
+    List<Object> hitos = transaccion.execute(status -> {
+      List<Object> returnValue = new ArrayList<>();
+      returnValue.add(entityManager.persist(generarMockSolicitudHito(solicitud1.getId())));
+      returnValue.add(entityManager.persist(generarMockSolicitudHito(solicitud1.getId())));
+      returnValue.add(entityManager.persist(generarMockSolicitudHito(solicitud2.getId())));
+      returnValue.add(entityManager.persist(generarMockProyectoHito(proyecto.getId())));
+      return returnValue;
+    });
+    creadas.addAll(hitos);
+
+    // then: la versión de cada agregado se incrementa una vez
+    Assertions.assertThat(solicitudRepository.getVersion(solicitud1.getId())).as("solicitud1").contains(1L);
+    Assertions.assertThat(solicitudRepository.getVersion(solicitud2.getId())).as("solicitud2").contains(1L);
+    Assertions.assertThat(proyectoRepository.getVersion(proyecto.getId())).as("proyecto").contains(1L);
+  }
+
+  @Test
+  public void rollback_EntidadRelacionada_KeepsVersion() throws Exception {
+    // given: un Proyecto
+    Proyecto proyecto = persistir(generarMockProyecto());
+
+    // when: se crea un hito en una transacción que se deshace
+    transaccion.executeWithoutResult(status -> {
+      entityManager.persistAndFlush(generarMockProyectoHito(proyecto.getId()));
+      status.setRollbackOnly();
+    });
+
+    // then: la versión no cambia
+    Assertions.assertThat(proyectoRepository.getVersion(proyecto.getId())).contains(0L);
+  }
+
+  /**
+   * Persiste la entidad en su propia transacción y la registra para borrarla al
+   * terminar el test.
+   *
+   * @param entidad la entidad.
+   * @return la entidad persistida.
+   */
+  private <E> E persistir(E entidad) {
+    E returnValue = transaccion.execute(status -> entityManager.persistAndFlush(entidad));
+    creadas.add(returnValue);
+    return returnValue;
+  }
+
+  private Proyecto generarMockProyecto() {
+    return Proyecto.builder()
+    // @formatter:off
+        .titulo("version-proyecto")
+        .unidadGestionRef("OPE")
+        .modeloEjecucion(modeloEjecucion)
+        .fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+        .fechaFin(Instant.parse("2020-12-31T23:59:59Z"))
+        .activo(Boolean.TRUE)
+        .build();
+    // @formatter:on
+  }
+
+  private ProyectoHito generarMockProyectoHito(Long proyectoId) {
+    return ProyectoHito.builder().proyectoId(proyectoId).tipoHito(tipoHito)
+        .fecha(Instant.parse("2020-06-01T00:00:00Z")).generaAviso(Boolean.FALSE).build();
+  }
+
+  private Solicitud generarMockSolicitud() {
+    return Solicitud.builder()
+    // @formatter:off
+        .creadorRef("user-001")
+        .solicitanteRef("user-002")
+        .unidadGestionRef("OPE")
+        .convocatoriaExterna("convocatoria-externa")
+        .formularioSolicitud(FormularioSolicitud.ESTANDAR)
+        .activo(Boolean.TRUE)
+        .build();
+    // @formatter:on
+  }
+
+  private SolicitudHito generarMockSolicitudHito(Long solicitudId) {
+    return SolicitudHito.builder().solicitudId(solicitudId).tipoHito(tipoHito)
+        .fecha(Instant.parse("2020-06-01T00:00:00Z")).generaAviso(Boolean.FALSE).build();
+  }
+
+  private Convocatoria generarMockConvocatoria() {
+    return Convocatoria.builder()
+    // @formatter:off
+        .estado(Convocatoria.Estado.BORRADOR)
+        .codigo("version-convocatoria")
+        .unidadGestionRef("OPE")
+        .fechaPublicacion(Instant.parse("2021-08-01T00:00:00Z"))
+        .titulo("titulo")
+        .activo(Boolean.TRUE)
+        .build();
+    // @formatter:on
+  }
+
+}
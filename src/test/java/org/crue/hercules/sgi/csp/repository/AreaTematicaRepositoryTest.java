@@ -1,27 +1,39 @@
 package org.crue.hercules.sgi.csp.repository;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.assertj.core.api.Assertions;
 import org.crue.hercules.sgi.csp.model.AreaTematica;
+import org.crue.hercules.sgi.csp.support.StatementCounter;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 
 @DataJpaTest
+@Import(StatementCounter.class)
 public class AreaTematicaRepositoryTest extends BaseRepositoryTest {
 
+  /** Número de AreaTematica del árbol grande, incluido el grupo */
+  private static final int NUM_NODOS = 5000;
+  /** Número de niveles del árbol grande, incluido el grupo */
+  private static final int NUM_NIVELES = 6;
+
   @Autowired
   private AreaTematicaRepository repository;
 
+  @Autowired
+  private StatementCounter statementCounter;
+
   @Test
   public void findByPadreIdInAndActivoIsTrue_ReturnsAreaTematica() throws Exception {
     // given: 2 AreaTematica de los que 1 coincide con el id padre buscado
-    AreaTematica areaTematica1 = new AreaTematica(null, "nombre-1", "descripcion-1", null, true);
+    AreaTematica areaTematica1 = new AreaTematica(null, "nombre-1", "descripcion-1", null, null, true);
     entityManager.persistAndFlush(areaTematica1);
 
-    AreaTematica areaTematica2 = new AreaTematica(null, "nombre-2", "descripcion-2", areaTematica1, true);
+    AreaTematica areaTematica2 = new AreaTematica(null, "nombre-2", "descripcion-2", areaTematica1, areaTematica1.getId(), true);
     entityManager.persistAndFlush(areaTematica2);
 
     List<Long> idsPadreBuscados = Arrays.asList(areaTematica1.getId());
@@ -42,10 +54,10 @@ public class AreaTematicaRepositoryTest extends BaseRepositoryTest {
   @Test
   public void findByPadreIdInAndActivoIsTrue_IdNoExiste_ReturnsEmptyList() throws Exception {
     // given: 2 AreaTematica que no coinciden con el id padre buscado
-    AreaTematica areaTematica1 = new AreaTematica(null, "nombre-1", "descripcion-1", null, true);
+    AreaTematica areaTematica1 = new AreaTematica(null, "nombre-1", "descripcion-1", null, null, true);
     entityManager.persistAndFlush(areaTematica1);
 
-    AreaTematica areaTematica2 = new AreaTematica(null, "nombre-2", "descripcion-2", areaTematica1, true);
+    AreaTematica areaTematica2 = new AreaTematica(null, "nombre-2", "descripcion-2", areaTematica1, areaTematica1.getId(), true);
     entityManager.persistAndFlush(areaTematica2);
 
     List<Long> idsPadreBuscados = Arrays.asList(areaTematica2.getId());
@@ -57,4 +69,96 @@ public class AreaTematicaRepositoryTest extends BaseRepositoryTest {
     Assertions.assertThat(areaTematicaEncontrados.size()).as("size()").isEqualTo(0);
 
   }
+
+  @Test
+  public void existsActivoInGrupoWithNombre_ArbolGrande_UsesOneStatement() throws Exception {
+    // given: un grupo con un arbol de 6 niveles y 5000 AreaTematica y otro grupo
+    List<AreaTematica> arbol = generarMockArbol("grupo-1");
+    AreaTematica grupo = arbol.get(0);
+    AreaTematica hoja = arbol.get(arbol.size() - 1);
+    AreaTematica otroGrupo = entityManager
+        .persistAndFlush(new AreaTematica(null, "grupo-2", "descripcion-grupo-2", null, null, true));
+    entityManager.clear();
+
+    // when: se busca el nombre de una hoja del ultimo nivel
+    statementCounter.reset();
+    boolean enGrupo = repository.existsActivoInGrupoWithNombre(grupo.getId(), hoja.getNombre(), null);
+
+    // then: se encuentra con una unica sentencia
+    Assertions.assertThat(enGrupo).as("enGrupo").isTrue();
+    Assertions.assertThat(statementCounter.getCount()).as("sentencias: %s", statementCounter.getQueries())
+        .isEqualTo(1);
+
+    // and: no se encuentra si se excluye la hoja, en otro grupo ni el nombre del
+    // propio grupo
+    Assertions.assertThat(repository.existsActivoInGrupoWithNombre(grupo.getId(), hoja.getNombre(), hoja.getId()))
+        .as("excluida").isFalse();
+    Assertions.assertThat(repository.existsActivoInGrupoWithNombre(otroGrupo.getId(), hoja.getNombre(), null))
+        .as("otroGrupo").isFalse();
+    Assertions.assertThat(repository.existsActivoInGrupoWithNombre(grupo.getId(), grupo.getNombre(), null))
+        .as("grupo").isFalse();
+  }
+
+  @Test
+  public void existsActivoInGrupoWithDescripcion_ArbolGrande_UsesOneStatement() throws Exception {
+    // given: un grupo con un arbol de 6 niveles y 5000 AreaTematica, con una hoja
+    // desactivada
+    List<AreaTematica> arbol = generarMockArbol("grupo-1");
+    AreaTematica grupo = arbol.get(0);
+    AreaTematica hoja = arbol.get(arbol.size() - 1);
+    AreaTematica hojaDesactivada = arbol.get(arbol.size() - 2);
+    hojaDesactivada.setActivo(false);
+    entityManager.flush();
+    entityManager.clear();
+
+    // when: se busca la descripcion de una hoja del ultimo nivel
+    statementCounter.reset();
+    boolean enGrupo = repository.existsActivoInGrupoWithDescripcion(grupo.getId(), hoja.getDescripcion(), null);
+
+    // then: se encuentra con una unica sentencia
+    Assertions.assertThat(enGrupo).as("enGrupo").isTrue();
+    Assertions.assertThat(statementCounter.getCount()).as("sentencias: %s", statementCounter.getQueries())
+        .isEqualTo(1);
+
+    // and: no se encuentra la descripcion de la hoja desactivada
+    Assertions.assertThat(
+        repository.existsActivoInGrupoWithDescripcion(grupo.getId(), hojaDesactivada.getDescripcion(), null))
+        .as("desactivada").isFalse();
+  }
+
+  /**
+   * Función que persiste un grupo con un arbol de {@link #NUM_NIVELES} niveles y
+   * {@link #NUM_NODOS} AreaTematica. Cada nivel tiene cinco veces más nodos que
+   * el anterior y el último nivel completa el total.
+   *
+   * @param nombreGrupo nombre del grupo
+   * @return lista con los AreaTematica del arbol, ordenados por nivel (el grupo
+   *         es el primero)
+   */
+  private List<AreaTematica> generarMockArbol(String nombreGrupo) {
+    List<AreaTematica> arbol = new ArrayList<>();
+    AreaTematica grupo = new AreaTematica(null, nombreGrupo, "descripcion-" + nombreGrupo, null, null, true);
+    entityManager.persist(grupo);
+    arbol.add(grupo);
+
+    List<AreaTematica> nivelAnterior = Arrays.asList(grupo);
+    for (int nivel = 1; nivel < NUM_NIVELES; nivel++) {
+      int numNodosNivel = nivel == NUM_NIVELES - 1 ? NUM_NODOS - arbol.size() : nivelAnterior.size() * 5;
+      List<AreaTematica> nivelActual = new ArrayList<>();
+      for (int i = 0; i < numNodosNivel; i++) {
+        AreaTematica padre = nivelAnterior.get(i % nivelAnterior.size());
+        int numero = arbol.size();
+        AreaTematica areaTematica = new AreaTematica(null, "A" + numero, "descripcion-" + numero, padre,
+            grupo.getId(), true);
+        entityManager.persist(areaTematica);
+        nivelActual.add(areaTematica);
+        arbol.add(areaTematica);
+      }
+      nivelAnterior = nivelActual;
+    }
+    entityManager.flush();
+
+    Assertions.assertThat(arbol).as("arbol").hasSize(NUM_NODOS);
+    return arbol;
+  }
 }
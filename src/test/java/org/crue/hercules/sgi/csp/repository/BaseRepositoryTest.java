@@ -1,6 +1,10 @@
 package org.crue.hercules.sgi.csp.repository;
 
+import javax.persistence.EntityManagerFactory;
+
 import org.crue.hercules.sgi.framework.test.context.support.SgiTestProfileResolver;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
@@ -11,4 +15,17 @@ public class BaseRepositoryTest {
   @Autowired
   protected TestEntityManager entityManager;
 
-}
\ No newline at end of file
+  @Autowired
+  protected EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Los datos de los test se descartan con rollback, por lo que se vacían las
+   * cachés de entidades y consultas antes de cada test para que no queden
+   * resultados de test anteriores.
+   */
+  @BeforeEach
+  public void evictSecondLevelCache() {
+    entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+  }
+
+}
@@ -0,0 +1,79 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.model.BloqueoTrabajo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+/**
+ * BloqueoTrabajoRepositoryTest
+ */
+@DataJpaTest
+public class BloqueoTrabajoRepositoryTest extends BaseRepositoryTest {
+
+  private static final String NOMBRE = "trabajo";
+  private static final Duration DURACION = Duration.ofHours(1);
+
+  @Autowired
+  private BloqueoTrabajoRepository repository;
+
+  private Instant ahora;
+
+  @BeforeEach
+  public void setUpBloqueo() {
+    ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    entityManager.persistAndFlush(
+        BloqueoTrabajo.builder().nombre(NOMBRE).bloqueadoHasta(Instant.parse("1970-01-01T00:00:00Z")).build());
+  }
+
+  @Test
+  public void adquirir_WithBloqueoDeOtraInstancia_ReturnsZero() throws Exception {
+    // given: una instancia adquiere el bloqueo
+    int primera = repository.adquirir(NOMBRE, "instancia-1", ahora, ahora.plus(DURACION));
+
+    // when: otra instancia intenta adquirirlo
+    int segunda = repository.adquirir(NOMBRE, "instancia-2", ahora.plusSeconds(1), ahora.plus(DURACION));
+
+    // then: solo lo tiene la primera
+    Assertions.assertThat(primera).as("primera").isEqualTo(1);
+    Assertions.assertThat(segunda).as("segunda").isEqualTo(0);
+    entityManager.clear();
+    Assertions.assertThat(repository.findById(NOMBRE).get().getBloqueadoPor()).isEqualTo("instancia-1");
+  }
+
+  @Test
+  public void adquirir_WithBloqueoCaducado_ReturnsOne() throws Exception {
+    // given: una instancia adquirió el bloqueo y se detuvo sin liberarlo
+    repository.adquirir(NOMBRE, "instancia-1", ahora, ahora.plus(DURACION));
+
+    // when: otra instancia intenta adquirirlo cuando ha caducado
+    int actualizados = repository.adquirir(NOMBRE, "instancia-2", ahora.plus(DURACION),
+        ahora.plus(DURACION).plus(DURACION));
+
+    // then: lo adquiere
+    Assertions.assertThat(actualizados).isEqualTo(1);
+  }
+
+  @Test
+  public void liberar_WithBloqueoPropio_AllowsOtraInstancia() throws Exception {
+    // given: una instancia adquiere el bloqueo
+    repository.adquirir(NOMBRE, "instancia-1", ahora, ahora.plus(DURACION));
+
+    // when: otra instancia intenta liberarlo y después lo libera la que lo tiene
+    int ajeno = repository.liberar(NOMBRE, "instancia-2", ahora.plusSeconds(1));
+    int propio = repository.liberar(NOMBRE, "instancia-1", ahora.plusSeconds(1));
+
+    // then: solo lo libera la que lo tiene y otra instancia puede adquirirlo
+    Assertions.assertThat(ajeno).as("ajeno").isEqualTo(0);
+    Assertions.assertThat(propio).as("propio").isEqualTo(1);
+    Assertions.assertThat(repository.adquirir(NOMBRE, "instancia-2", ahora.plusSeconds(2), ahora.plus(DURACION)))
+        .as("adquirir").isEqualTo(1);
+  }
+
+}
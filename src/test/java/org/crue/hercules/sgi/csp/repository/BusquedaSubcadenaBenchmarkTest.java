@@ -0,0 +1,152 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.Query;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.repository.predicate.ProyectoPredicateResolver;
+import org.crue.hercules.sgi.csp.support.Benchmark;
+import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compara el tiempo de la búsqueda de subcadenas (<code>=ilike=</code>) en el
+ * acrónimo de los proyectos con el índice de trigramas
+ * (<code>IX_PROYECTO_ACRONIMO_TRGM</code>) y recorriendo la tabla.
+ * <p>
+ * Solo tiene sentido en PostgreSQL, por lo que está desactivado por defecto y
+ * se omite con otras bases de datos. Se ejecuta con el perfil de los test de
+ * integración:
+ * <code>mvn test -Pintegration-test -Dtest=BusquedaSubcadenaBenchmarkTest -Dsgi.csp.benchmark=true</code>
+ * y el número de filas se cambia con
+ * <code>-Dsgi.csp.benchmark.filas=&lt;n&gt;</code> (1.000.000 por defecto). Los
+ * tiempos y los planes de ejecución se escriben en el log.
+ */
+@Slf4j
+@DataJpaTest
+@EnabledIfSystemProperty(named = Benchmark.ACTIVAR, matches = "true")
+public class BusquedaSubcadenaBenchmarkTest extends BaseRepositoryTest {
+
+  private static final int NUM_FILAS = Benchmark.escala("filas", 1_000_000);
+  private static final Pageable PAGINA = PageRequest.of(0, 10);
+  private static final String INDICE = "ix_proyecto_acronimo_trgm";
+
+  @Autowired
+  private ProyectoRepository proyectoRepository;
+
+  @BeforeEach
+  public void requierePostgreSql() {
+    String baseDatos = entityManager.getEntityManager().unwrap(Session.class)
+        .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+    Assumptions.assumeTrue("PostgreSQL".equals(baseDatos), "El índice de trigramas solo existe en PostgreSQL");
+  }
+
+  @Test
+  public void findAllProyectos_ByAcronimoSubcadena_ConIndiceComparadoSinIndice() throws Exception {
+    // given: NUM_FILAS proyectos con acrónimo ACR-<n> y estadísticas actualizadas
+    generarMockProyectos();
+    String subcadena = "cr-" + (NUM_FILAS / 2 + 1);
+    Specification<Proyecto> spec = SgiRSQLJPASupport.toSpecification("acronimo=ilike=" + subcadena,
+        ProyectoPredicateResolver.getInstance());
+
+    // when: se busca la subcadena con el índice y sin él
+    String planConIndice = explain(subcadena);
+    long conIndice = medir("acronimo=ilike= con índice", spec);
+    desactivarIndices();
+    String planSinIndice = explain(subcadena);
+    long sinIndice = medir("acronimo=ilike= sin índice", spec);
+
+    // then: el plan usa el índice de trigramas solo cuando está disponible
+    log.info("[benchmark] plan con índice:\n{}", planConIndice);
+    log.info("[benchmark] plan sin índice:\n{}", planSinIndice);
+    log.info("[benchmark] acronimo=ilike= {} filas: con índice {} ms, sin índice {} ms", NUM_FILAS, conIndice,
+        sinIndice);
+    Assertions.assertThat(planConIndice).as("plan con índice").contains(INDICE);
+    Assertions.assertThat(planSinIndice).as("plan sin índice").doesNotContain(INDICE);
+    Assertions.assertThat(proyectoRepository.findAll(spec, PAGINA).getContent()).extracting(Proyecto::getAcronimo)
+        .isNotEmpty().allMatch(acronimo -> acronimo.contains(subcadena.toUpperCase()));
+  }
+
+  private long medir(String descripcion, Specification<Proyecto> spec) {
+    return Benchmark.medirMediana(descripcion + " " + NUM_FILAS + " filas", () -> {
+      proyectoRepository.findAll(spec, PAGINA);
+      entityManager.clear();
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private String explain(String subcadena) {
+    List<Object> plan = entityManager.getEntityManager()
+        .createNativeQuery("EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM csp.proyecto WHERE lower(acronimo) LIKE ?1")
+        .setParameter(1, "%" + subcadena + "%").getResultList();
+    return plan.stream().map(String::valueOf).collect(Collectors.joining("\n"));
+  }
+
+  /**
+   * Impide al planificador usar índices hasta el final de la transacción del
+   * test, por lo que la búsqueda recorre la tabla.
+   */
+  private void desactivarIndices() {
+    entityManager.getEntityManager().createNativeQuery("SET LOCAL enable_bitmapscan = off").executeUpdate();
+    entityManager.getEntityManager().createNativeQuery("SET LOCAL enable_indexscan = off").executeUpdate();
+  }
+
+  /**
+   * Función que genera {@link #NUM_FILAS} proyectos con acrónimo ACR-n y código
+   * externo EXT-n. Se crea un proyecto con JPA y se copia en la base de datos
+   * para no enviar un millón de inserciones desde el test.
+   */
+  private void generarMockProyectos() {
+    ModeloEjecucion modeloEjecucion = entityManager
+        .persistAndFlush(ModeloEjecucion.builder().nombre("nombreModeloEjecucion").activo(Boolean.TRUE).build());
+    // @formatter:off
+    Proyecto plantilla = entityManager.persistAndFlush(Proyecto.builder()
+        .titulo("titulo")
+        .acronimo("plantilla")
+        .unidadGestionRef("OPE")
+        .modeloEjecucion(modeloEjecucion)
+        .fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+        .fechaFin(Instant.parse("2020-12-31T23:59:59Z"))
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    entityManager.clear();
+
+    Benchmark.medir(NUM_FILAS + " proyectos generados", () -> {
+      ejecutar("CREATE TEMPORARY TABLE proyecto_benchmark ON COMMIT DROP AS"
+          + " SELECT p.*, g AS n FROM csp.proyecto p, generate_series(1, ?1) g WHERE p.id = ?2", NUM_FILAS,
+          plantilla.getId());
+      ejecutar("UPDATE proyecto_benchmark SET id = (SELECT max(id) FROM csp.proyecto) + n,"
+          + " acronimo = 'ACR-' || n, codigo_externo = 'EXT-' || n");
+      ejecutar("ALTER TABLE proyecto_benchmark DROP COLUMN n");
+      ejecutar("DELETE FROM csp.proyecto WHERE id = ?1", plantilla.getId());
+      ejecutar("INSERT INTO csp.proyecto SELECT * FROM proyecto_benchmark");
+      ejecutar("ANALYZE csp.proyecto");
+    });
+  }
+
+  private void ejecutar(String sql, Object... parametros) {
+    Query query = entityManager.getEntityManager().createNativeQuery(sql);
+    for (int i = 0; i < parametros.length; i++) {
+      query.setParameter(i + 1, parametros[i]);
+    }
+    query.executeUpdate();
+  }
+
+}
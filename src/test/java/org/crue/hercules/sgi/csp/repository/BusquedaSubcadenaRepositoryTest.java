@@ -0,0 +1,201 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.repository.predicate.ConvocatoriaPredicateResolver;
+import org.crue.hercules.sgi.csp.repository.predicate.ProyectoPredicateResolver;
+import org.crue.hercules.sgi.csp.repository.predicate.SolicitudPredicateResolver;
+import org.crue.hercules.sgi.csp.support.StatementCounter;
+import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Comprueba las búsquedas de subcadenas (<code>=ilike=</code>) en códigos y
+ * referencias.
+ * <p>
+ * Los filtros se generan como <code>lower(columna) LIKE '%texto%'</code>, la
+ * expresión de los índices <code>gin_trgm_ops</code> de PostgreSQL. El tiempo
+ * con y sin índice se mide en {@link BusquedaSubcadenaBenchmarkTest}.
+ */
+@DataJpaTest
+@Import(StatementCounter.class)
+public class BusquedaSubcadenaRepositoryTest extends BaseRepositoryTest {
+
+  private static final int NUM_PROYECTOS = 25;
+  private static final Pageable PAGINA = PageRequest.of(0, 10);
+
+  @Autowired
+  private ProyectoRepository proyectoRepository;
+
+  @Autowired
+  private SolicitudRepository solicitudRepository;
+
+  @Autowired
+  private ConvocatoriaRepository convocatoriaRepository;
+
+  @Autowired
+  private StatementCounter statementCounter;
+
+  @Test
+  public void findAllProyectos_ByAcronimoSubcadena_ReturnsCoincidenciasSinDistinguirMayusculas() throws Exception {
+    // given: proyectos con acrónimo ACR-<n>
+    generarMockProyectos();
+    long esperados = IntStream.range(0, NUM_PROYECTOS).filter(i -> ("acr-" + i).contains("cr-12")).count();
+
+    // when: se buscan los proyectos por una subcadena del acrónimo en minúsculas
+    statementCounter.reset();
+    Page<Proyecto> page = proyectoRepository.findAll(
+        SgiRSQLJPASupport.toSpecification("acronimo=ilike=cr-12", ProyectoPredicateResolver.getInstance()), PAGINA);
+    List<String> queries = statementCounter.getQueries();
+
+    // then: se obtienen todos los que contienen la subcadena con la expresión del
+    // índice de trigramas
+    Assertions.assertThat(page.getTotalElements()).as("total").isEqualTo(esperados);
+    Assertions.assertThat(page.getContent()).extracting(Proyecto::getAcronimo)
+        .allMatch(acronimo -> acronimo.contains("CR-12"));
+    Assertions.assertThat(queries).as("queries")
+        .anyMatch(query -> query.toLowerCase().matches("(?s).*lower\\([a-z0-9_]+\\.acronimo\\) like .*"));
+  }
+
+  @Test
+  public void findAllProyectos_ByCodigoExternoSubcadena_ReturnsCoincidencias() throws Exception {
+    // given: proyectos con código externo EXT-<n>
+    generarMockProyectos();
+
+    // when: se buscan los proyectos por una subcadena del código externo
+    Page<Proyecto> page = proyectoRepository.findAll(
+        SgiRSQLJPASupport.toSpecification("codigoExterno=ilike=ext-24", ProyectoPredicateResolver.getInstance()),
+        PAGINA);
+
+    // then: se obtiene el único proyecto con ese código
+    Assertions.assertThat(page.getContent()).extracting(Proyecto::getCodigoExterno).containsExactly("EXT-24");
+  }
+
+  @Test
+  public void findAllProyectos_ByAcronimoOtroOperador_UsesConversorPorDefecto() throws Exception {
+    // given: proyectos con acrónimo ACR-<n>
+    generarMockProyectos();
+
+    // when: se filtra el acrónimo por igualdad
+    Page<Proyecto> page = proyectoRepository.findAll(
+        SgiRSQLJPASupport.toSpecification("acronimo==ACR-7", ProyectoPredicateResolver.getInstance()), PAGINA);
+
+    // then: se obtiene solo el proyecto con ese acrónimo
+    Assertions.assertThat(page.getContent()).extracting(Proyecto::getAcronimo).containsExactly("ACR-7");
+  }
+
+  @Test
+  public void findAllSolicitudes_ByCodigoExternoConComodines_BuscaComodinesLiteralmente() throws Exception {
+    // given: una solicitud con un guion bajo en el código externo y otra en la que
+    // el guion bajo coincidiría como comodín
+    Solicitud conGuionBajo = generarMockSolicitud(null, "convocatoria-externa", "SOL_001");
+    generarMockSolicitud(null, "convocatoria-externa", "SOLX001");
+
+    // when: se buscan las solicitudes por el código con el guion bajo
+    Page<Solicitud> page = solicitudRepository.findAll(
+        SgiRSQLJPASupport.toSpecification("codigoExterno=ilike=sol_0", SolicitudPredicateResolver.getInstance()),
+        PAGINA);
+
+    // then: solo se obtiene la solicitud con el guion bajo
+    Assertions.assertThat(page.getContent()).extracting(Solicitud::getId).containsExactly(conGuionBajo.getId());
+  }
+
+  @Test
+  public void findAllSolicitudes_ByReferenciaConvocatoriaMinusculas_ReturnsCoincidencias() throws Exception {
+    // given: una solicitud de una convocatoria y otra de una convocatoria externa
+    // con la referencia en mayúsculas
+    Convocatoria convocatoria = generarMockConvocatoria("REF-001");
+    Solicitud solicitudConvocatoria = generarMockSolicitud(convocatoria.getId(), null, null);
+    Solicitud solicitudExterna = generarMockSolicitud(null, "REF-002", null);
+
+    // when: se filtran las solicitudes por la referencia en minúsculas
+    Page<Solicitud> page = solicitudRepository.findAll(SgiRSQLJPASupport
+        .toSpecification("referenciaConvocatoria=ilike=ref-00", SolicitudPredicateResolver.getInstance()), PAGINA);
+
+    // then: se obtienen las dos solicitudes
+    Assertions.assertThat(page.getContent()).extracting(Solicitud::getId)
+        .containsExactlyInAnyOrder(solicitudConvocatoria.getId(), solicitudExterna.getId());
+  }
+
+  @Test
+  public void findAllConvocatorias_ByCodigoSubcadena_ReturnsCoincidencias() throws Exception {
+    // given: dos convocatorias con códigos distintos
+    Convocatoria convocatoria = generarMockConvocatoria("H2020-MSCA-IF-2020");
+    generarMockConvocatoria("CGF/OPE-01");
+
+    // when: se buscan las convocatorias por una subcadena del código
+    Page<Convocatoria> page = convocatoriaRepository.findAll(
+        SgiRSQLJPASupport.toSpecification("codigo=ilike=msca", ConvocatoriaPredicateResolver.getInstance()), PAGINA);
+
+    // then: se obtiene la convocatoria que contiene la subcadena
+    Assertions.assertThat(page.getContent()).extracting(Convocatoria::getId).containsExactly(convocatoria.getId());
+  }
+
+  /**
+   * Función que genera {@link #NUM_PROYECTOS} proyectos con acrónimo ACR-n y
+   * código externo EXT-n
+   */
+  private void generarMockProyectos() {
+    ModeloEjecucion modeloEjecucion = entityManager
+        .persistAndFlush(ModeloEjecucion.builder().nombre("nombreModeloEjecucion").activo(Boolean.TRUE).build());
+    for (int p = 0; p < NUM_PROYECTOS; p++) {
+      // @formatter:off
+      entityManager.persist(Proyecto.builder()
+          .titulo("titulo-" + p)
+          .acronimo("ACR-" + p)
+          .codigoExterno("EXT-" + p)
+          .unidadGestionRef("OPE")
+          .modeloEjecucion(modeloEjecucion)
+          .fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+          .fechaFin(Instant.parse("2020-12-31T23:59:59Z"))
+          .activo(Boolean.TRUE)
+          .build());
+      // @formatter:on
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private Convocatoria generarMockConvocatoria(String codigo) {
+    // @formatter:off
+    return entityManager.persistAndFlush(Convocatoria.builder()
+        .estado(Convocatoria.Estado.BORRADOR)
+        .codigo(codigo)
+        .unidadGestionRef("OPE")
+        .fechaPublicacion(Instant.parse("2021-08-01T00:00:00Z"))
+        .titulo("titulo")
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+  }
+
+  private Solicitud generarMockSolicitud(Long convocatoriaId, String convocatoriaExterna, String codigoExterno) {
+    // @formatter:off
+    return entityManager.persistAndFlush(Solicitud.builder()
+        .creadorRef("user-001")
+        .solicitanteRef("user-002")
+        .unidadGestionRef("OPE")
+        .convocatoriaId(convocatoriaId)
+        .convocatoriaExterna(convocatoriaExterna)
+        .codigoExterno(codigoExterno)
+        .formularioSolicitud(FormularioSolicitud.ESTANDAR)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+  }
+
+}
@@ -0,0 +1,168 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
+import org.crue.hercules.sgi.csp.repository.predicate.ConvocatoriaPredicateResolver;
+import org.crue.hercules.sgi.csp.repository.predicate.ProyectoPredicateResolver;
+import org.crue.hercules.sgi.csp.repository.predicate.SolicitudPredicateResolver;
+import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Comprueba la búsqueda de texto completo (selector RSQL <code>texto</code>)
+ * con la alternativa de H2 a los tsvector de PostgreSQL.
+ */
+@DataJpaTest
+public class BusquedaTextoRepositoryTest extends BaseRepositoryTest {
+
+  @Autowired
+  private ConvocatoriaRepository convocatoriaRepository;
+
+  @Autowired
+  private ProyectoRepository proyectoRepository;
+
+  @Autowired
+  private SolicitudRepository solicitudRepository;
+
+  @Test
+  public void findAllConvocatorias_ByTexto_ReturnsCoincidenciasOrdenadasPorRelevancia() throws Exception {
+    // given: convocatorias con el texto en el objeto, en el título y sin el texto
+    Convocatoria enObjeto = generarMockConvocatoria("001", "Ayudas a grupos",
+        "Grupos que trabajen en inteligencia artificial");
+    Convocatoria enTitulo = generarMockConvocatoria("002", "Inteligencia Artificial aplicada", null);
+    generarMockConvocatoria("003", "Movilidad", "Estancias de investigadores");
+
+    // when: se buscan las convocatorias por el texto sin indicar orden
+    Page<Convocatoria> page = convocatoriaRepository.findAll(SgiRSQLJPASupport
+        .toSpecification("texto==\"inteligencia artificial\"", ConvocatoriaPredicateResolver.getInstance()),
+        PageRequest.of(0, 10));
+
+    // then: se obtienen las dos convocatorias con el texto, primero la más
+    // relevante
+    Assertions.assertThat(page.getTotalElements()).isEqualTo(2);
+    Assertions.assertThat(page.getContent()).extracting(Convocatoria::getId).containsExactly(enTitulo.getId(),
+        enObjeto.getId());
+  }
+
+  @Test
+  public void findAllConvocatorias_ByTextoWithSort_ReturnsCoincidenciasEnElOrdenIndicado() throws Exception {
+    // given: dos convocatorias con el texto
+    Convocatoria enObjeto = generarMockConvocatoria("001", "Ayudas a grupos", "Proyectos de inteligencia artificial");
+    Convocatoria enTitulo = generarMockConvocatoria("002", "Inteligencia artificial", null);
+
+    // when: se buscan las convocatorias por el texto ordenadas por código
+    Page<Convocatoria> page = convocatoriaRepository.findAll(SgiRSQLJPASupport
+        .toSpecification("texto==inteligencia", ConvocatoriaPredicateResolver.getInstance()),
+        PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "codigo")));
+
+    // then: el orden indicado sustituye a la relevancia
+    Assertions.assertThat(page.getContent()).extracting(Convocatoria::getId).containsExactly(enObjeto.getId(),
+        enTitulo.getId());
+  }
+
+  @Test
+  public void findAllProyectosYSolicitudes_ByTexto_ReturnsCoincidencias() throws Exception {
+    // given: proyectos y solicitudes con y sin el texto en el título
+    ModeloEjecucion modeloEjecucion = entityManager
+        .persistAndFlush(ModeloEjecucion.builder().nombre("nombreModeloEjecucion").activo(Boolean.TRUE).build());
+    Proyecto proyecto = generarMockProyecto(modeloEjecucion, "Redes neuronales para diagnóstico");
+    generarMockProyecto(modeloEjecucion, "Historia medieval");
+    Solicitud solicitud = generarMockSolicitud("Diagnóstico con REDES NEURONALES");
+    generarMockSolicitud("Arqueología");
+
+    // when: se buscan los proyectos y las solicitudes por el texto
+    Page<Proyecto> proyectos = proyectoRepository.findAll(
+        SgiRSQLJPASupport.toSpecification("texto==\"redes neuronales\"", ProyectoPredicateResolver.getInstance()),
+        PageRequest.of(0, 10));
+    Page<Solicitud> solicitudes = solicitudRepository.findAll(
+        SgiRSQLJPASupport.toSpecification("texto==\"redes neuronales\"", SolicitudPredicateResolver.getInstance()),
+        PageRequest.of(0, 10));
+
+    // then: se obtienen los que tienen el texto sin distinguir mayúsculas
+    Assertions.assertThat(proyectos.getContent()).extracting(Proyecto::getId).containsExactly(proyecto.getId());
+    Assertions.assertThat(solicitudes.getContent()).extracting(Solicitud::getId).containsExactly(solicitud.getId());
+  }
+
+  @Test
+  public void findAllConvocatorias_ByTextoConComodines_ReturnsCoincidenciasLiterales() throws Exception {
+    // given: convocatorias con los comodines de LIKE en el título y otras que
+    // solo coincidirían si el texto buscado se tratase como patrón
+    Convocatoria porcentaje = generarMockConvocatoria("001", "Cofinanciación al 50% del coste", null);
+    generarMockConvocatoria("002", "Cofinanciación al 500 del coste", null);
+    Convocatoria guionBajo = generarMockConvocatoria("003", "Programa ia_salud", null);
+    generarMockConvocatoria("004", "Programa iaxsalud", null);
+    Convocatoria barra = generarMockConvocatoria("005", "Ayudas 2021\2022", null);
+    generarMockConvocatoria("006", "Ayudas 20212022", null);
+
+    // when: se buscan las convocatorias por textos con comodines
+    // then: solo se obtienen las que contienen el texto literal
+    Assertions.assertThat(buscarConvocatorias(""50%"")).containsExactly(porcentaje.getId());
+    Assertions.assertThat(buscarConvocatorias("ia_salud")).containsExactly(guionBajo.getId());
+    Assertions.assertThat(buscarConvocatorias(""2021\\2022"")).containsExactly(barra.getId());
+  }
+
+  private List<Long> buscarConvocatorias(String texto) {
+    return convocatoriaRepository
+        .findAll(SgiRSQLJPASupport.toSpecification("texto==" + texto, ConvocatoriaPredicateResolver.getInstance()),
+            PageRequest.of(0, 10))
+        .getContent().stream().map(Convocatoria::getId).collect(Collectors.toList());
+  }
+
+  private Convocatoria generarMockConvocatoria(String suffix, String titulo, String objeto) {
+    // @formatter:off
+    return entityManager.persistAndFlush(Convocatoria.builder()
+        .estado(Convocatoria.Estado.BORRADOR)
+        .codigo("codigo-" + suffix)
+        .unidadGestionRef("OPE")
+        .fechaPublicacion(Instant.parse("2021-08-01T00:00:00Z"))
+        .titulo(titulo)
+        .objeto(objeto)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+  }
+
+  private Proyecto generarMockProyecto(ModeloEjecucion modeloEjecucion, String titulo) {
+    // @formatter:off
+    return entityManager.persistAndFlush(Proyecto.builder()
+        .titulo(titulo)
+        .unidadGestionRef("OPE")
+        .modeloEjecucion(modeloEjecucion)
+        .fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+        .fechaFin(Instant.parse("2020-12-31T23:59:59Z"))
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+  }
+
+  private Solicitud generarMockSolicitud(String titulo) {
+    // @formatter:off
+    Solicitud solicitud = entityManager.persistAndFlush(Solicitud.builder()
+        .creadorRef("user-001")
+        .solicitanteRef("user-002")
+        .unidadGestionRef("OPE")
+        .convocatoriaExterna("convocatoria-externa")
+        .formularioSolicitud(FormularioSolicitud.ESTANDAR)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    entityManager.persistAndFlush(SolicitudProyecto.builder().id(solicitud.getId()).titulo(titulo)
+        .colaborativo(Boolean.FALSE).presupuestoPorEntidades(Boolean.FALSE).build());
+    return solicitud;
+  }
+
+}
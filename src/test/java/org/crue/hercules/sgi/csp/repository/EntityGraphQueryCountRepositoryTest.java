@@ -0,0 +1,279 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.config.WebConfig;
+import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
+import org.crue.hercules.sgi.csp.model.ConfiguracionSolicitud;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.EstadoProyecto;
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
+import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.RequisitoIP;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
+import org.crue.hercules.sgi.csp.model.TipoAmbitoGeografico;
+import org.crue.hercules.sgi.csp.model.TipoFinalidad;
+import org.crue.hercules.sgi.csp.model.TipoRegimenConcurrencia;
+import org.crue.hercules.sgi.csp.support.StatementCounter;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Comprueba que los listados paginados cargan las relaciones de cada fila con
+ * el entity graph de la entidad y no con una consulta adicional por fila, y
+ * que las relaciones que no se han cargado no se serializan incompletas.
+ */
+@DataJpaTest
+@Import(StatementCounter.class)
+public class EntityGraphQueryCountRepositoryTest extends BaseRepositoryTest {
+
+  private static final int NUM_FILAS = 60;
+  private static final int PAGE_SIZE = 50;
+
+  /** Consulta de la página y consulta del total de elementos */
+  private static final int MAX_SENTENCIAS = 2;
+
+  @Autowired
+  private ConvocatoriaRepository convocatoriaRepository;
+
+  @Autowired
+  private SolicitudRepository solicitudRepository;
+
+  @Autowired
+  private ProyectoRepository proyectoRepository;
+
+  @Autowired
+  private StatementCounter statementCounter;
+
+  @Test
+  public void findAllConvocatoria_Page50_UsesBoundedStatements() throws Exception {
+    // given: 60 convocatorias, cada una con sus propios datos maestros,
+    // configuración de solicitud y requisitos IP
+    for (int i = 0; i < NUM_FILAS; i++) {
+      generarMockConvocatoria(String.format("-%03d", i));
+    }
+    entityManager.clear();
+
+    // when: se recupera la primera página de 50 y se recorren sus relaciones
+    statementCounter.reset();
+    Page<Convocatoria> page = convocatoriaRepository.findAll(null,
+        PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.ASC, "codigo")));
+    for (Convocatoria convocatoria : page.getContent()) {
+      Assertions.assertThat(convocatoria.getModeloEjecucion().getNombre()).as("modeloEjecucion").isNotNull();
+      Assertions.assertThat(convocatoria.getFinalidad().getNombre()).as("finalidad").isNotNull();
+      Assertions.assertThat(convocatoria.getRegimenConcurrencia().getNombre()).as("regimenConcurrencia").isNotNull();
+      Assertions.assertThat(convocatoria.getAmbitoGeografico().getNombre()).as("ambitoGeografico").isNotNull();
+    }
+
+    // then: el número de sentencias no depende del número de filas
+    Assertions.assertThat(page.getContent()).as("content").hasSize(PAGE_SIZE);
+    Assertions.assertThat(page.getTotalElements()).as("totalElements").isEqualTo(NUM_FILAS);
+    Assertions.assertThat(statementCounter.getCount()).as("sentencias: %s", statementCounter.getQueries())
+        .isLessThanOrEqualTo(MAX_SENTENCIAS);
+  }
+
+  @Test
+  public void findAllSolicitud_Page50_UsesBoundedStatements() throws Exception {
+    // given: 60 solicitudes con estado y solicitud de proyecto
+    for (int i = 0; i < NUM_FILAS; i++) {
+      generarMockSolicitud(String.format("-%03d", i));
+    }
+    entityManager.clear();
+
+    // when: se recupera la primera página de 50 y se recorren sus relaciones
+    statementCounter.reset();
+    Page<Solicitud> page = solicitudRepository.findAll(null,
+        PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.ASC, "codigoExterno")));
+    for (Solicitud solicitud : page.getContent()) {
+      Assertions.assertThat(solicitud.getEstado().getEstado()).as("estado").isEqualTo(EstadoSolicitud.Estado.BORRADOR);
+    }
+
+    // then: el número de sentencias no depende del número de filas
+    Assertions.assertThat(page.getContent()).as("content").hasSize(PAGE_SIZE);
+    Assertions.assertThat(page.getTotalElements()).as("totalElements").isEqualTo(NUM_FILAS);
+    Assertions.assertThat(statementCounter.getCount()).as("sentencias: %s", statementCounter.getQueries())
+        .isLessThanOrEqualTo(MAX_SENTENCIAS);
+  }
+
+  @Test
+  public void findAllProyecto_Page50_UsesBoundedStatements() throws Exception {
+    // given: 60 proyectos con estado y sus propios datos maestros
+    for (int i = 0; i < NUM_FILAS; i++) {
+      generarMockProyecto(String.format("-%03d", i));
+    }
+    entityManager.clear();
+
+    // when: se recupera la primera página de 50 y se recorren sus relaciones
+    statementCounter.reset();
+    Page<Proyecto> page = proyectoRepository.findAll(null,
+        PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.ASC, "acronimo")));
+    for (Proyecto proyecto : page.getContent()) {
+      Assertions.assertThat(proyecto.getEstado().getEstado()).as("estado").isEqualTo(EstadoProyecto.Estado.BORRADOR);
+      Assertions.assertThat(proyecto.getModeloEjecucion().getNombre()).as("modeloEjecucion").isNotNull();
+      Assertions.assertThat(proyecto.getFinalidad().getNombre()).as("finalidad").isNotNull();
+      Assertions.assertThat(proyecto.getAmbitoGeografico().getNombre()).as("ambitoGeografico").isNotNull();
+    }
+
+    // then: el número de sentencias no depende del número de filas
+    Assertions.assertThat(page.getContent()).as("content").hasSize(PAGE_SIZE);
+    Assertions.assertThat(page.getTotalElements()).as("totalElements").isEqualTo(NUM_FILAS);
+    Assertions.assertThat(statementCounter.getCount()).as("sentencias: %s", statementCounter.getQueries())
+        .isLessThanOrEqualTo(MAX_SENTENCIAS);
+  }
+
+  @Test
+  public void findByIdConvocatoria_SinSesion_SerializesRelacionesDelGrafo() throws Exception {
+    // given: una convocatoria recuperada con su entity graph y desvinculada de la
+    // sesión, como al serializar la respuesta
+    Long id = generarMockConvocatoria("-001").getId();
+    entityManager.clear();
+    Convocatoria convocatoria = convocatoriaRepository.findById(id).get();
+    entityManager.clear();
+
+    // when: se serializa
+    String json = generarObjectMapper().writeValueAsString(convocatoria);
+
+    // then: las relaciones del grafo se serializan con todos sus datos
+    Assertions.assertThat(json).contains("nombreModeloEjecucion-001", "nombreTipoFinalidad-001",
+        "nombreTipoRegimenConcurrencia-001", "nombreTipoAmbitoGeografico-001");
+  }
+
+  @Test
+  public void serialize_WithRelacionNoCargada_ThrowsJsonMappingException() throws Exception {
+    // given: una convocatoria cuyo modelo de ejecución no se ha cargado
+    Long modeloEjecucionId = generarMockModeloEjecucion("-001").getId();
+    entityManager.clear();
+    Convocatoria convocatoria = Convocatoria.builder().codigo("codigo-001")
+        .modeloEjecucion(entityManager.getEntityManager().getReference(ModeloEjecucion.class, modeloEjecucionId))
+        .build();
+    entityManager.clear();
+
+    // when: se serializa
+    // then: falla en lugar de serializar la relación incompleta
+    Assertions.assertThatThrownBy(() -> generarObjectMapper().writeValueAsString(convocatoria))
+        .isInstanceOf(JsonMappingException.class).hasRootCauseInstanceOf(LazyInitializationException.class);
+  }
+
+  /**
+   * Función que genera un ObjectMapper con el módulo de Hibernate de la
+   * configuración web
+   *
+   * @return el ObjectMapper
+   */
+  private ObjectMapper generarObjectMapper() {
+    return new ObjectMapper().findAndRegisterModules().registerModule(new WebConfig().hibernate5Module());
+  }
+
+  /**
+   * Función que genera una Convocatoria con sus datos maestros, su
+   * ConfiguracionSolicitud y su RequisitoIP
+   *
+   * @param suffix sufijo para los campos de texto
+   * @return el objeto Convocatoria
+   */
+  private Convocatoria generarMockConvocatoria(String suffix) {
+    // @formatter:off
+    Convocatoria convocatoria = entityManager.persistAndFlush(Convocatoria.builder()
+        .unidadGestionRef("OPE")
+        .modeloEjecucion(generarMockModeloEjecucion(suffix))
+        .codigo("codigo" + suffix)
+        .fechaPublicacion(Instant.parse("2021-08-01T00:00:00Z"))
+        .titulo("titulo" + suffix)
+        .finalidad(generarMockTipoFinalidad(suffix))
+        .regimenConcurrencia(entityManager.persistAndFlush(TipoRegimenConcurrencia.builder()
+            .nombre("nombreTipoRegimenConcurrencia" + suffix)
+            .activo(Boolean.TRUE)
+            .build()))
+        .estado(Convocatoria.Estado.BORRADOR)
+        .ambitoGeografico(generarMockTipoAmbitoGeografico(suffix))
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    entityManager.persistAndFlush(ConfiguracionSolicitud.builder().convocatoriaId(convocatoria.getId()).build());
+    RequisitoIP requisitoIP = new RequisitoIP();
+    requisitoIP.setConvocatoriaId(convocatoria.getId());
+    entityManager.persistAndFlush(requisitoIP);
+    return convocatoria;
+  }
+
+  /**
+   * Función que genera una Solicitud con su EstadoSolicitud y su
+   * SolicitudProyecto
+   *
+   * @param suffix sufijo para los campos de texto
+   * @return el objeto Solicitud
+   */
+  private Solicitud generarMockSolicitud(String suffix) {
+    // @formatter:off
+    Solicitud solicitud = entityManager.persistAndFlush(Solicitud.builder()
+        .codigoExterno("codigo" + suffix)
+        .creadorRef("user-001")
+        .solicitanteRef("user-002")
+        .unidadGestionRef("OTRI")
+        .formularioSolicitud(FormularioSolicitud.AYUDAS_GRUPOS)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    EstadoSolicitud estado = entityManager.persistAndFlush(EstadoSolicitud.builder()
+        .estado(EstadoSolicitud.Estado.BORRADOR).solicitudId(solicitud.getId()).fechaEstado(Instant.now()).build());
+    solicitud.setEstado(estado);
+    entityManager.persistAndFlush(SolicitudProyecto.builder().id(solicitud.getId()).titulo("titulo" + suffix)
+        .colaborativo(Boolean.FALSE).presupuestoPorEntidades(Boolean.FALSE).build());
+    return entityManager.persistAndFlush(solicitud);
+  }
+
+  /**
+   * Función que genera un Proyecto con su EstadoProyecto y sus datos maestros
+   *
+   * @param suffix sufijo para los campos de texto
+   * @return el objeto Proyecto
+   */
+  private Proyecto generarMockProyecto(String suffix) {
+    // @formatter:off
+    Proyecto proyecto = entityManager.persistAndFlush(Proyecto.builder()
+        .acronimo("PR" + suffix)
+        .codigoExterno("COD" + suffix)
+        .titulo("titulo" + suffix)
+        .unidadGestionRef("OPE")
+        .modeloEjecucion(generarMockModeloEjecucion(suffix))
+        .finalidad(generarMockTipoFinalidad(suffix))
+        .ambitoGeografico(generarMockTipoAmbitoGeografico(suffix))
+        .fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+        .fechaFin(Instant.parse("2020-12-31T23:59:59Z"))
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    EstadoProyecto estado = entityManager.persistAndFlush(EstadoProyecto.builder()
+        .estado(EstadoProyecto.Estado.BORRADOR).proyectoId(proyecto.getId()).fechaEstado(Instant.now()).build());
+    proyecto.setEstado(estado);
+    return entityManager.persistAndFlush(proyecto);
+  }
+
+  private ModeloEjecucion generarMockModeloEjecucion(String suffix) {
+    return entityManager.persistAndFlush(
+        ModeloEjecucion.builder().nombre("nombreModeloEjecucion" + suffix).activo(Boolean.TRUE).build());
+  }
+
+  private TipoFinalidad generarMockTipoFinalidad(String suffix) {
+    return entityManager
+        .persistAndFlush(TipoFinalidad.builder().nombre("nombreTipoFinalidad" + suffix).activo(Boolean.TRUE).build());
+  }
+
+  private TipoAmbitoGeografico generarMockTipoAmbitoGeografico(String suffix) {
+    return entityManager.persistAndFlush(
+        TipoAmbitoGeografico.builder().nombre("nombreTipoAmbitoGeografico" + suffix).activo(Boolean.TRUE).build());
+  }
+
+}
@@ -0,0 +1,149 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Instant;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.Proyecto_;
+import org.crue.hercules.sgi.csp.model.TipoAmbitoGeografico;
+import org.crue.hercules.sgi.csp.model.TipoFinalidad;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Comprueba contra la base de datos que la paginación por cursor recorre todos
+ * los elementos sin saltos ni repeticiones cuando muchos elementos comparten el
+ * valor de la propiedad de ordenación, que se desempata por id.
+ */
+@DataJpaTest
+public class KeysetQueryRepositoryTest extends BaseRepositoryTest {
+
+  private static final int NUM_PROYECTOS = 23;
+  private static final int NUM_FECHAS = 4;
+  private static final int NUM_TITULOS = 3;
+
+  @Autowired
+  private ProyectoRepository repository;
+
+  private List<Proyecto> proyectos;
+
+  @BeforeEach
+  public void setUpProyectos() {
+    // given: proyectos con solo 4 fechas de inicio y 3 títulos distintos, y uno
+    // de cada 5 inactivo
+    // @formatter:off
+    ModeloEjecucion modeloEjecucion = entityManager.persistAndFlush(ModeloEjecucion.builder()
+        .nombre("nombreModeloEjecucion")
+        .activo(Boolean.TRUE)
+        .build());
+    TipoFinalidad tipoFinalidad = entityManager.persistAndFlush(TipoFinalidad.builder()
+        .nombre("nombreTipoFinalidad")
+        .activo(Boolean.TRUE)
+        .build());
+    TipoAmbitoGeografico tipoAmbitoGeografico = entityManager.persistAndFlush(TipoAmbitoGeografico.builder()
+        .nombre("nombreTipoAmbitoGeografico")
+        .activo(Boolean.TRUE)
+        .build());
+    proyectos = new ArrayList<>();
+    for (int i = 0; i < NUM_PROYECTOS; i++) {
+      proyectos.add(entityManager.persist(Proyecto.builder()
+          .acronimo("PR-" + i)
+          .codigoExterno("COD-" + i)
+          .titulo("titulo-" + (i % NUM_TITULOS))
+          .unidadGestionRef("OPE")
+          .modeloEjecucion(modeloEjecucion)
+          .finalidad(tipoFinalidad)
+          .ambitoGeografico(tipoAmbitoGeografico)
+          .fechaInicio(Instant.parse("2020-01-01T00:00:00Z").plus(Period.ofDays(i % NUM_FECHAS)))
+          .fechaFin(Instant.parse("2020-12-31T23:59:59Z"))
+          .activo(i % 5 != 0)
+          .build()));
+    }
+    // @formatter:on
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  public void findAllKeyset_OrderByFechaInicioAsc_ReturnsAllWithoutGapsOrDuplicates() throws Exception {
+    // when: se recorren todas las páginas ordenando por fecha de inicio
+    List<Long> ids = recorrer(Sort.by(Sort.Direction.ASC, Proyecto_.FECHA_INICIO), null, 5);
+
+    // then: se obtienen todos los proyectos una vez, en orden (fecha, id)
+    Assertions.assertThat(ids).containsExactlyElementsOf(
+        esperados(Comparator.comparing(Proyecto::getFechaInicio).thenComparing(Proyecto::getId), null));
+  }
+
+  @Test
+  public void findAllKeyset_OrderByTituloDesc_ReturnsAllWithoutGapsOrDuplicates() throws Exception {
+    // when: se recorren todas las páginas ordenando por título descendente
+    List<Long> ids = recorrer(Sort.by(Sort.Direction.DESC, Proyecto_.TITULO), null, 4);
+
+    // then: se obtienen todos los proyectos una vez, en orden (título, id)
+    // descendente
+    Assertions.assertThat(ids).containsExactlyElementsOf(esperados(
+        Comparator.comparing(Proyecto::getTitulo).thenComparing(Proyecto::getId).reversed(), null));
+  }
+
+  @Test
+  public void findAllKeyset_WithFiltro_ReturnsAllFiltradosWithoutGapsOrDuplicates() throws Exception {
+    // given: un filtro de los proyectos activos
+    Specification<Proyecto> activos = (root, query, cb) -> cb.isTrue(root.get(Proyecto_.activo));
+
+    // when: se recorren todas las páginas del filtro ordenando por fecha de
+    // inicio descendente con páginas del tamaño de un grupo de fechas iguales
+    List<Long> ids = recorrer(Sort.by(Sort.Direction.DESC, Proyecto_.FECHA_INICIO), activos,
+        NUM_PROYECTOS / NUM_FECHAS);
+
+    // then: se obtienen todos los proyectos activos una vez, en orden
+    Assertions.assertThat(ids).containsExactlyElementsOf(esperados(
+        Comparator.comparing(Proyecto::getFechaInicio).thenComparing(Proyecto::getId).reversed(),
+        Proyecto::getActivo));
+  }
+
+  /**
+   * Recorre todas las páginas pasando entre ellas el cursor codificado, como lo
+   * haría un cliente.
+   *
+   * @param sort ordenación de la primera página.
+   * @param spec filtro.
+   * @param size tamaño de página.
+   * @return los ids de todas las páginas, en orden.
+   */
+  private List<Long> recorrer(Sort sort, Specification<Proyecto> spec, int size) {
+    List<Long> ids = new ArrayList<>();
+    String cursor = null;
+    int paginas = 0;
+    do {
+      KeysetSlice<Proyecto> slice = repository.findAllKeyset(spec, KeysetCursor.of(cursor, sort), size);
+      if (slice.hasNext()) {
+        Assertions.assertThat(slice.getContent()).as("página %d", paginas).hasSize(size);
+      }
+      slice.getContent().forEach(proyecto -> ids.add(proyecto.getId()));
+      cursor = slice.getNextCursor();
+      paginas++;
+      Assertions.assertThat(paginas).as("páginas").isLessThanOrEqualTo(NUM_PROYECTOS + 1);
+    } while (cursor != null);
+    Assertions.assertThat(ids).as("ids").doesNotHaveDuplicates();
+    return ids;
+  }
+
+  private List<Long> esperados(Comparator<Proyecto> orden, Function<Proyecto, Boolean> filtro) {
+    return proyectos.stream().filter(proyecto -> filtro == null || filtro.apply(proyecto)).sorted(orden)
+        .map(Proyecto::getId).collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,100 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.model.SequenceAllocationSize;
+import org.crue.hercules.sgi.csp.model.TipoFase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Comprueba la asignación de identificadores por bloques (pooled-lo).
+ * <p>
+ * Los test no son transaccionales para que cada inserción se ejecute en su
+ * propia transacción y desde varios hilos a la vez.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PooledSequenceRepositoryTest extends BaseRepositoryTest {
+
+  private static final int THREADS = 8;
+  private static final int INSERTS_PER_THREAD = 25;
+
+  @Autowired
+  private TipoFaseRepository repository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final List<Long> createdIds = Collections.synchronizedList(new ArrayList<>());
+
+  @AfterEach
+  public void cleanup() {
+    for (Long id : createdIds) {
+      repository.deleteById(id);
+    }
+  }
+
+  @Test
+  public void sequenceIncrement_MatchesAllocationSize() throws Exception {
+    // given: la secuencia de TipoFase
+
+    // when: se consulta su incremento en base de datos
+    Long increment = jdbcTemplate.queryForObject(
+        "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'CSP' AND SEQUENCE_NAME = 'TIPO_FASE_SEQ'",
+        Long.class);
+
+    // then: coincide con el allocationSize de la entidad
+    Assertions.assertThat(increment).as("increment").isEqualTo((long) SequenceAllocationSize.MAESTROS);
+  }
+
+  @Test
+  public void save_Concurrent_ReturnsUniqueIds() throws Exception {
+    // given: varios hilos que insertan TipoFase a la vez
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int thread = 0; thread < THREADS; thread++) {
+      final int threadNumber = thread;
+      tasks.add(() -> {
+        for (int i = 0; i < INSERTS_PER_THREAD; i++) {
+          TipoFase tipoFase = repository.save(new TipoFase(null, "pooled-" + threadNumber + "-" + i, null, true));
+          createdIds.add(tipoFase.getId());
+        }
+        return null;
+      });
+    }
+
+    // when: se ejecutan todas las inserciones
+    try {
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    // then: todos los identificadores son distintos y se han guardado todas las
+    // filas
+    Set<Long> uniqueIds = new HashSet<>(createdIds);
+    Assertions.assertThat(createdIds).as("createdIds").hasSize(THREADS * INSERTS_PER_THREAD);
+    Assertions.assertThat(uniqueIds).as("uniqueIds").hasSize(THREADS * INSERTS_PER_THREAD);
+    Assertions.assertThat(repository.findAllById(uniqueIds)).as("persisted").hasSize(THREADS * INSERTS_PER_THREAD);
+  }
+
+}
@@ -0,0 +1,216 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Instant;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.ListJoin;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
+import org.crue.hercules.sgi.csp.model.Programa;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia_;
+import org.crue.hercules.sgi.csp.model.Programa_;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadConvocante;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadConvocante_;
+import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoEquipo_;
+import org.crue.hercules.sgi.csp.model.Proyecto_;
+import org.crue.hercules.sgi.csp.model.RolProyecto;
+import org.crue.hercules.sgi.csp.model.RolProyecto_;
+import org.crue.hercules.sgi.csp.repository.predicate.ProyectoPredicateResolver;
+import org.crue.hercules.sgi.csp.support.Benchmark;
+import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compara el tiempo de los filtros RSQL por relaciones uno a muchos de
+ * {@link ProyectoPredicateResolver}, resueltos con subconsultas EXISTS, con el
+ * JOIN que se usaba antes, reproducido en el test.
+ * <p>
+ * Está desactivado por defecto. Se ejecuta con
+ * <code>mvn test -Dtest=PredicateResolverExistsBenchmarkTest -Dsgi.csp.benchmark=true</code>
+ * y el número de proyectos se cambia con
+ * <code>-Dsgi.csp.benchmark.proyectos=&lt;n&gt;</code> (100.000 por defecto).
+ * Los tiempos (mediana de la consulta de la página y su count) se escriben en
+ * el log.
+ */
+@Slf4j
+@DataJpaTest
+@EnabledIfSystemProperty(named = Benchmark.ACTIVAR, matches = "true")
+public class PredicateResolverExistsBenchmarkTest extends BaseRepositoryTest {
+
+  private static final int NUM_PROYECTOS = Benchmark.escala("proyectos", 100_000);
+  private static final int NUM_MIEMBROS_EQUIPO = 10;
+  private static final int NUM_PROYECTOS_POR_FLUSH = 500;
+  private static final Pageable PAGINA = PageRequest.of(0, 10);
+
+  @Autowired
+  private ProyectoRepository proyectoRepository;
+
+  @Test
+  public void findAll_ExistsComparadoConJoin() throws Exception {
+    // given: proyectos con 10 miembros de equipo (persona-0 es responsable en dos
+    // periodos) y dos entidades convocantes de un programa hijo del plan
+    Programa plan = generarMockProyectos();
+
+    // when: se filtra por el responsable y por el plan con cada estrategia
+    Page<Proyecto> responsableExists = medir("responsableProyecto EXISTS",
+        toSpecification("responsableProyecto==persona-0"));
+    Page<Proyecto> responsableJoin = medir("responsableProyecto JOIN", responsableJoin("persona-0"));
+    Page<Proyecto> planExists = medir("planInvestigacion EXISTS",
+        toSpecification("planInvestigacion==" + plan.getId()));
+    Page<Proyecto> planJoin = medir("planInvestigacion JOIN", planInvestigacionJoin(plan.getId()));
+
+    // then: EXISTS cuenta cada proyecto una vez, el JOIN una vez por fila
+    // relacionada que cumple el filtro
+    log.info("[benchmark] total responsableProyecto: EXISTS {}, JOIN {}", responsableExists.getTotalElements(),
+        responsableJoin.getTotalElements());
+    log.info("[benchmark] total planInvestigacion: EXISTS {}, JOIN {}", planExists.getTotalElements(),
+        planJoin.getTotalElements());
+    Assertions.assertThat(responsableExists.getTotalElements()).as("responsable EXISTS").isEqualTo(NUM_PROYECTOS);
+    Assertions.assertThat(planExists.getTotalElements()).as("plan EXISTS").isEqualTo(NUM_PROYECTOS);
+  }
+
+  private Page<Proyecto> medir(String descripcion, Specification<Proyecto> spec) {
+    Benchmark.medirMediana(descripcion + " " + NUM_PROYECTOS + " proyectos", () -> {
+      proyectoRepository.findAll(spec, PAGINA);
+      entityManager.clear();
+    });
+    Page<Proyecto> returnValue = proyectoRepository.findAll(spec, PAGINA);
+    entityManager.clear();
+    return returnValue;
+  }
+
+  private Specification<Proyecto> toSpecification(String query) {
+    return SgiRSQLJPASupport.toSpecification(query, ProyectoPredicateResolver.getInstance());
+  }
+
+  /**
+   * Filtro por responsable con el JOIN al equipo que se usaba antes de las
+   * subconsultas EXISTS.
+   */
+  private Specification<Proyecto> responsableJoin(String personaRef) {
+    return (root, query, cb) -> {
+      ListJoin<Proyecto, ProyectoEquipo> joinEquipos = root.join(Proyecto_.equipo, JoinType.LEFT);
+      return cb.and(cb.equal(joinEquipos.get(ProyectoEquipo_.personaRef), personaRef),
+          cb.equal(joinEquipos.get(ProyectoEquipo_.rolProyecto).get(RolProyecto_.rolPrincipal), true));
+    };
+  }
+
+  /**
+   * Filtro por plan de investigación con el JOIN a las entidades convocantes que
+   * se usaba antes de las subconsultas EXISTS.
+   */
+  private Specification<Proyecto> planInvestigacionJoin(Long idProgramaRaiz) {
+    return (root, query, cb) -> {
+      ListJoin<Proyecto, ProyectoEntidadConvocante> joinEntidadesConvocantes = root
+          .join(Proyecto_.entidadesConvocantes, JoinType.LEFT);
+      return cb.or(
+          joinEntidadesConvocantes.get(ProyectoEntidadConvocante_.programa).get(Programa_.id)
+              .in(subqueryProgramaSubarbol(idProgramaRaiz, query, cb)),
+          joinEntidadesConvocantes.get(ProyectoEntidadConvocante_.programaConvocatoria).get(Programa_.id)
+              .in(subqueryProgramaSubarbol(idProgramaRaiz, query, cb)));
+    };
+  }
+
+  private Subquery<Long> subqueryProgramaSubarbol(Long idProgramaRaiz, CriteriaQuery<?> query, CriteriaBuilder cb) {
+    Subquery<Long> queryProgramas = query.subquery(Long.class);
+    Root<ProgramaJerarquia> subqRoot = queryProgramas.from(ProgramaJerarquia.class);
+    queryProgramas.select(subqRoot.get(ProgramaJerarquia_.descendienteId))
+        .where(cb.equal(subqRoot.get(ProgramaJerarquia_.ancestroId), idProgramaRaiz));
+    return queryProgramas;
+  }
+
+  /**
+   * Función que genera {@link #NUM_PROYECTOS} proyectos, cada uno con
+   * {@link #NUM_MIEMBROS_EQUIPO} miembros de equipo (persona-0 es responsable en
+   * dos periodos) y dos entidades convocantes de un programa hijo del plan de
+   * investigación
+   *
+   * @return el plan de investigación
+   */
+  private Programa generarMockProyectos() {
+    // @formatter:off
+    RolProyecto rolResponsable = entityManager.persistAndFlush(RolProyecto.builder()
+        .abreviatura("001")
+        .nombre("Responsable")
+        .rolPrincipal(Boolean.TRUE)
+        .responsableEconomico(Boolean.FALSE)
+        .equipo(RolProyecto.Equipo.INVESTIGACION)
+        .activo(Boolean.TRUE)
+        .build());
+    RolProyecto rolMiembro = entityManager.persistAndFlush(RolProyecto.builder()
+        .abreviatura("002")
+        .nombre("Miembro")
+        .rolPrincipal(Boolean.FALSE)
+        .responsableEconomico(Boolean.FALSE)
+        .equipo(RolProyecto.Equipo.INVESTIGACION)
+        .activo(Boolean.TRUE)
+        .build());
+    ModeloEjecucion modeloEjecucion = entityManager.persistAndFlush(ModeloEjecucion.builder()
+        .nombre("nombreModeloEjecucion")
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    Programa plan = entityManager
+        .persistAndFlush(Programa.builder().nombre("plan").descripcion("plan").activo(Boolean.TRUE).build());
+    Programa programa = entityManager.persistAndFlush(
+        Programa.builder().nombre("programa").descripcion("programa").padre(plan).activo(Boolean.TRUE).build());
+    entityManager.persist(new ProgramaJerarquia(plan.getId(), plan.getId(), 0));
+    entityManager.persist(new ProgramaJerarquia(plan.getId(), programa.getId(), 1));
+    entityManager.persist(new ProgramaJerarquia(programa.getId(), programa.getId(), 0));
+
+    long inicio = System.nanoTime();
+    for (int p = 0; p < NUM_PROYECTOS; p++) {
+      // @formatter:off
+      Proyecto proyecto = entityManager.persist(Proyecto.builder()
+          .titulo("titulo-" + p)
+          .unidadGestionRef("OPE")
+          .modeloEjecucion(modeloEjecucion)
+          .fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+          .fechaFin(Instant.parse("2021-12-31T23:59:59Z"))
+          .activo(Boolean.TRUE)
+          .build());
+      // @formatter:on
+      entityManager.persist(ProyectoEquipo.builder().proyectoId(proyecto.getId()).personaRef("persona-0")
+          .rolProyecto(rolResponsable).fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+          .fechaFin(Instant.parse("2020-12-31T23:59:59Z")).build());
+      entityManager.persist(ProyectoEquipo.builder().proyectoId(proyecto.getId()).personaRef("persona-0")
+          .rolProyecto(rolResponsable).fechaInicio(Instant.parse("2021-01-01T00:00:00Z"))
+          .fechaFin(Instant.parse("2021-12-31T23:59:59Z")).build());
+      for (int m = 1; m < NUM_MIEMBROS_EQUIPO - 1; m++) {
+        entityManager.persist(ProyectoEquipo.builder().proyectoId(proyecto.getId()).personaRef("persona-" + m)
+            .rolProyecto(rolMiembro).build());
+      }
+      for (int e = 0; e < 2; e++) {
+        entityManager.persist(ProyectoEntidadConvocante.builder().proyectoId(proyecto.getId())
+            .entidadRef("entidad-" + e).programa(programa).build());
+      }
+      if ((p + 1) % NUM_PROYECTOS_POR_FLUSH == 0) {
+        entityManager.flush();
+        entityManager.clear();
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+    log.info("[benchmark] {} proyectos generados en {} ms", NUM_PROYECTOS,
+        (System.nanoTime() - inicio) / 1_000_000);
+    return plan;
+  }
+
+}
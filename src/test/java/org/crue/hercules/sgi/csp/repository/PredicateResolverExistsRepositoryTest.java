@@ -0,0 +1,226 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
+import org.crue.hercules.sgi.csp.model.Programa;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoEntidadConvocante;
+import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.RolProyecto;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.repository.predicate.ProyectoPredicateResolver;
+import org.crue.hercules.sgi.csp.repository.predicate.SolicitudPredicateResolver;
+import org.crue.hercules.sgi.csp.support.StatementCounter;
+import org.crue.hercules.sgi.framework.rsql.SgiRSQLJPASupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Comprueba que los filtros RSQL por relaciones uno a muchos de
+ * {@link ProyectoPredicateResolver} y {@link SolicitudPredicateResolver} se
+ * resuelven con subconsultas EXISTS correlacionadas, sin JOIN a la tabla
+ * relacionada, por lo que no devuelven duplicados y el count coincide con el
+ * número de entidades.
+ * <p>
+ * Es una comprobación funcional con pocos datos; la comparación de tiempos con
+ * el JOIN anterior está en {@link PredicateResolverExistsBenchmarkTest}.
+ */
+@DataJpaTest
+@Import(StatementCounter.class)
+public class PredicateResolverExistsRepositoryTest extends BaseRepositoryTest {
+
+  /** Más proyectos que el tamaño de página, para que el count no sea trivial */
+  private static final int NUM_PROYECTOS = 25;
+  private static final int NUM_MIEMBROS_EQUIPO = 10;
+  private static final Pageable PAGINA = PageRequest.of(0, 10);
+
+  @Autowired
+  private ProyectoRepository proyectoRepository;
+
+  @Autowired
+  private SolicitudRepository solicitudRepository;
+
+  @Autowired
+  private StatementCounter statementCounter;
+
+  @Test
+  public void findAll_ByResponsableProyecto_UsesExistsWithoutDuplicates() throws Exception {
+    // given: proyectos con 10 miembros de equipo, uno de ellos responsable en dos
+    // periodos
+    generarMockProyectos();
+
+    // when: se filtran los proyectos por el responsable
+    statementCounter.reset();
+    Page<Proyecto> page = proyectoRepository.findAll(toSpecification("responsableProyecto==persona-0"), PAGINA);
+    List<String> queries = statementCounter.getQueries();
+
+    // then: cada proyecto se cuenta una sola vez y no se hace JOIN con el equipo
+    Assertions.assertThat(page.getTotalElements()).as("total").isEqualTo(NUM_PROYECTOS);
+    Assertions.assertThat(page.getContent()).extracting(Proyecto::getId).as("proyectos").doesNotHaveDuplicates()
+        .hasSize(PAGINA.getPageSize());
+    assertExistsSinJoin(queries, "proyecto_equipo");
+    Assertions.assertThat(proyectoRepository.findAll(toSpecification("responsableProyecto==persona-1"), PAGINA))
+        .as("miembro no responsable").isEmpty();
+  }
+
+  @Test
+  public void findAll_ByPlanInvestigacion_UsesExistsWithoutDuplicates() throws Exception {
+    // given: proyectos con dos entidades convocantes de un programa hijo del plan
+    // de investigación
+    Programa plan = generarMockProyectos();
+
+    // when: se filtran los proyectos por el plan de investigación
+    statementCounter.reset();
+    Page<Proyecto> page = proyectoRepository.findAll(toSpecification("planInvestigacion==" + plan.getId()), PAGINA);
+    List<String> queries = statementCounter.getQueries();
+
+    // then: cada proyecto se cuenta una sola vez y no se hace JOIN con las
+    // entidades convocantes
+    Assertions.assertThat(page.getTotalElements()).as("total").isEqualTo(NUM_PROYECTOS);
+    Assertions.assertThat(page.getContent()).extracting(Proyecto::getId).as("proyectos").doesNotHaveDuplicates()
+        .hasSize(PAGINA.getPageSize());
+    assertExistsSinJoin(queries, "proyecto_entidad_convocante");
+  }
+
+  @Test
+  public void findAll_ByReferenciaConvocatoria_UsesExists() throws Exception {
+    // given: una solicitud de una convocatoria con el código buscado, otra de una
+    // convocatoria externa con la referencia buscada y otra que no la tiene
+    Convocatoria convocatoria = generarMockConvocatoria("REF-001");
+    Solicitud solicitudConvocatoria = generarMockSolicitud(convocatoria.getId(), null);
+    Solicitud solicitudExterna = generarMockSolicitud(null, "REF-002");
+    generarMockSolicitud(generarMockConvocatoria("OTRA-003").getId(), null);
+
+    // when: se filtran las solicitudes por la referencia de la convocatoria
+    statementCounter.reset();
+    Page<Solicitud> page = solicitudRepository.findAll(
+        SgiRSQLJPASupport.toSpecification("referenciaConvocatoria=ilike=REF", SolicitudPredicateResolver.getInstance()),
+        PAGINA);
+
+    // then: se obtienen las dos solicitudes sin hacer JOIN con la convocatoria
+    Assertions.assertThat(page.getContent()).extracting(Solicitud::getId)
+        .containsExactlyInAnyOrder(solicitudConvocatoria.getId(), solicitudExterna.getId());
+    assertExistsSinJoin(statementCounter.getQueries(), "convocatoria");
+  }
+
+  private Specification<Proyecto> toSpecification(String query) {
+    return SgiRSQLJPASupport.toSpecification(query, ProyectoPredicateResolver.getInstance());
+  }
+
+  private void assertExistsSinJoin(List<String> queries, String tabla) {
+    List<String> sql = queries.stream().map(String::toLowerCase).collect(Collectors.toList());
+    Assertions.assertThat(sql).as("queries").anyMatch(query -> query.contains("exists"))
+        .noneMatch(query -> query.contains("join csp." + tabla + " "));
+  }
+
+  /**
+   * Función que genera {@link #NUM_PROYECTOS} proyectos, cada uno con
+   * {@link #NUM_MIEMBROS_EQUIPO} miembros de equipo (persona-0 es responsable en
+   * dos periodos) y dos entidades convocantes de un programa hijo del plan de
+   * investigación
+   *
+   * @return el plan de investigación
+   */
+  private Programa generarMockProyectos() {
+    // @formatter:off
+    RolProyecto rolResponsable = entityManager.persistAndFlush(RolProyecto.builder()
+        .abreviatura("001")
+        .nombre("Responsable")
+        .rolPrincipal(Boolean.TRUE)
+        .responsableEconomico(Boolean.FALSE)
+        .equipo(RolProyecto.Equipo.INVESTIGACION)
+        .activo(Boolean.TRUE)
+        .build());
+    RolProyecto rolMiembro = entityManager.persistAndFlush(RolProyecto.builder()
+        .abreviatura("002")
+        .nombre("Miembro")
+        .rolPrincipal(Boolean.FALSE)
+        .responsableEconomico(Boolean.FALSE)
+        .equipo(RolProyecto.Equipo.INVESTIGACION)
+        .activo(Boolean.TRUE)
+        .build());
+    ModeloEjecucion modeloEjecucion = entityManager.persistAndFlush(ModeloEjecucion.builder()
+        .nombre("nombreModeloEjecucion")
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    Programa plan = entityManager
+        .persistAndFlush(Programa.builder().nombre("plan").descripcion("plan").activo(Boolean.TRUE).build());
+    Programa programa = entityManager.persistAndFlush(
+        Programa.builder().nombre("programa").descripcion("programa").padre(plan).activo(Boolean.TRUE).build());
+    entityManager.persist(new ProgramaJerarquia(plan.getId(), plan.getId(), 0));
+    entityManager.persist(new ProgramaJerarquia(plan.getId(), programa.getId(), 1));
+    entityManager.persist(new ProgramaJerarquia(programa.getId(), programa.getId(), 0));
+
+    for (int p = 0; p < NUM_PROYECTOS; p++) {
+      // @formatter:off
+      Proyecto proyecto = entityManager.persist(Proyecto.builder()
+          .titulo("titulo-" + p)
+          .unidadGestionRef("OPE")
+          .modeloEjecucion(modeloEjecucion)
+          .fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+          .fechaFin(Instant.parse("2021-12-31T23:59:59Z"))
+          .activo(Boolean.TRUE)
+          .build());
+      // @formatter:on
+      entityManager.persist(ProyectoEquipo.builder().proyectoId(proyecto.getId()).personaRef("persona-0")
+          .rolProyecto(rolResponsable).fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+          .fechaFin(Instant.parse("2020-12-31T23:59:59Z")).build());
+      entityManager.persist(ProyectoEquipo.builder().proyectoId(proyecto.getId()).personaRef("persona-0")
+          .rolProyecto(rolResponsable).fechaInicio(Instant.parse("2021-01-01T00:00:00Z"))
+          .fechaFin(Instant.parse("2021-12-31T23:59:59Z")).build());
+      for (int m = 1; m < NUM_MIEMBROS_EQUIPO - 1; m++) {
+        entityManager.persist(ProyectoEquipo.builder().proyectoId(proyecto.getId()).personaRef("persona-" + m)
+            .rolProyecto(rolMiembro).build());
+      }
+      for (int e = 0; e < 2; e++) {
+        entityManager.persist(ProyectoEntidadConvocante.builder().proyectoId(proyecto.getId())
+            .entidadRef("entidad-" + e).programa(programa).build());
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+    return plan;
+  }
+
+  private Convocatoria generarMockConvocatoria(String codigo) {
+    // @formatter:off
+    return entityManager.persistAndFlush(Convocatoria.builder()
+        .estado(Convocatoria.Estado.BORRADOR)
+        .codigo(codigo)
+        .unidadGestionRef("OPE")
+        .fechaPublicacion(Instant.parse("2021-08-01T00:00:00Z"))
+        .titulo("titulo")
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+  }
+
+  private Solicitud generarMockSolicitud(Long convocatoriaId, String convocatoriaExterna) {
+    // @formatter:off
+    return entityManager.persistAndFlush(Solicitud.builder()
+        .creadorRef("user-001")
+        .solicitanteRef("user-002")
+        .unidadGestionRef("OPE")
+        .convocatoriaId(convocatoriaId)
+        .convocatoriaExterna(convocatoriaExterna)
+        .formularioSolicitud(FormularioSolicitud.ESTANDAR)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+  }
+
+}
@@ -0,0 +1,153 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.model.Programa;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia;
+import org.crue.hercules.sgi.csp.repository.specification.ProgramaSpecifications;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+/**
+ * ProgramaJerarquiaRepositoryTest
+ */
+@DataJpaTest
+public class ProgramaJerarquiaRepositoryTest extends BaseRepositoryTest {
+
+  @Autowired
+  private ProgramaJerarquiaRepository repository;
+
+  @Autowired
+  private ProgramaRepository programaRepository;
+
+  private Programa plan;
+  private Programa programa;
+  private Programa modalidad;
+  private Programa otroPlan;
+
+  @BeforeEach
+  public void setUpArbol() {
+    // plan -> programa -> modalidad, otroPlan
+    plan = generarMockPrograma("plan", null);
+    programa = generarMockPrograma("programa", plan);
+    modalidad = generarMockPrograma("modalidad", programa);
+    otroPlan = generarMockPrograma("otroPlan", null);
+  }
+
+  @Test
+  public void findByAncestroId_ReturnsSubarbol() throws Exception {
+    // given: un arbol de 3 niveles y otro plan independiente
+
+    // when: se busca el subarbol del plan
+    List<ProgramaJerarquia> subarbol = repository.findByAncestroId(plan.getId());
+
+    // then: se recupera el plan y todos sus descendientes con su profundidad
+    Assertions.assertThat(subarbol).as("subarbol").extracting("descendienteId", "profundidad")
+        .containsExactlyInAnyOrder(Assertions.tuple(plan.getId(), 0), Assertions.tuple(programa.getId(), 1),
+            Assertions.tuple(modalidad.getId(), 2));
+  }
+
+  @Test
+  public void findByDescendienteId_ReturnsAncestros() throws Exception {
+    // given: un arbol de 3 niveles y otro plan independiente
+
+    // when: se buscan los ancestros de la modalidad
+    List<ProgramaJerarquia> ancestros = repository.findByDescendienteId(modalidad.getId());
+
+    // then: se recupera la modalidad y todos sus ancestros con su profundidad
+    Assertions.assertThat(ancestros).as("ancestros").extracting("ancestroId", "profundidad")
+        .containsExactlyInAnyOrder(Assertions.tuple(modalidad.getId(), 0), Assertions.tuple(programa.getId(), 1),
+            Assertions.tuple(plan.getId(), 2));
+  }
+
+  @Test
+  public void findFirstByDescendienteIdOrderByProfundidadDesc_ReturnsRaiz() throws Exception {
+    // given: un arbol de 3 niveles y otro plan independiente
+
+    // when: se busca la raiz de la modalidad y la del otro plan
+    Optional<ProgramaJerarquia> raizModalidad = repository
+        .findFirstByDescendienteIdOrderByProfundidadDesc(modalidad.getId());
+    Optional<ProgramaJerarquia> raizOtroPlan = repository
+        .findFirstByDescendienteIdOrderByProfundidadDesc(otroPlan.getId());
+
+    // then: la raiz de la modalidad es el plan y la del otro plan es el mismo
+    Assertions.assertThat(raizModalidad).as("raizModalidad").isPresent();
+    Assertions.assertThat(raizModalidad.get().getAncestroId()).as("raizModalidad.getAncestroId()")
+        .isEqualTo(plan.getId());
+    Assertions.assertThat(raizOtroPlan).as("raizOtroPlan").isPresent();
+    Assertions.assertThat(raizOtroPlan.get().getAncestroId()).as("raizOtroPlan.getAncestroId()")
+        .isEqualTo(otroPlan.getId());
+  }
+
+  @Test
+  public void existsByAncestroIdAndDescendienteId_ReturnsPertenenciaSubarbol() throws Exception {
+    // given: un arbol de 3 niveles y otro plan independiente
+
+    // when: se comprueba la pertenencia de la modalidad a cada arbol
+    boolean enPlan = repository.existsByAncestroIdAndDescendienteId(plan.getId(), modalidad.getId());
+    boolean enOtroPlan = repository.existsByAncestroIdAndDescendienteId(otroPlan.getId(), modalidad.getId());
+
+    // then: la modalidad solo pertenece al arbol del plan
+    Assertions.assertThat(enPlan).as("enPlan").isTrue();
+    Assertions.assertThat(enOtroPlan).as("enOtroPlan").isFalse();
+  }
+
+  @Test
+  public void deleteByAncestroIdInAndDescendienteIdIn_DeletesRelaciones() throws Exception {
+    // given: un arbol de 3 niveles y otro plan independiente
+
+    // when: se desvincula el subarbol del programa de sus ancestros
+    int deleted = repository.deleteByAncestroIdInAndDescendienteIdIn(Arrays.asList(plan.getId()),
+        Arrays.asList(programa.getId(), modalidad.getId()));
+
+    // then: solo se eliminan las relaciones del subarbol con el plan
+    Assertions.assertThat(deleted).as("deleted").isEqualTo(2);
+    Assertions.assertThat(repository.findByAncestroId(plan.getId())).as("subarbol plan").hasSize(1);
+    Assertions.assertThat(repository.findByAncestroId(programa.getId())).as("subarbol programa").hasSize(2);
+  }
+
+  @Test
+  public void countDescendientesByNombre_ReturnsCoincidencias() throws Exception {
+    // given: un arbol de 3 niveles y otro plan independiente
+
+    // when: se buscan descendientes del plan por nombre
+    long modalidades = programaRepository
+        .count(ProgramaSpecifications.descendientesByNombre(plan.getId(), "modalidad", null));
+    long modalidadesExcluida = programaRepository
+        .count(ProgramaSpecifications.descendientesByNombre(plan.getId(), "modalidad", modalidad.getId()));
+    long planes = programaRepository.count(ProgramaSpecifications.descendientesByNombre(plan.getId(), "plan", null));
+
+    // then: se encuentran los descendientes a cualquier nivel pero no el propio
+    // plan ni el programa excluido
+    Assertions.assertThat(modalidades).as("modalidades").isEqualTo(1);
+    Assertions.assertThat(modalidadesExcluida).as("modalidadesExcluida").isEqualTo(0);
+    Assertions.assertThat(planes).as("planes").isEqualTo(0);
+  }
+
+  /**
+   * Función que persiste un Programa y sus filas de jerarquía
+   *
+   * @param nombre nombre del Programa
+   * @param padre  Programa padre
+   * @return el objeto Programa
+   */
+  private Programa generarMockPrograma(String nombre, Programa padre) {
+    Programa programa = entityManager
+        .persistAndFlush(new Programa(null, nombre, "descripcion-" + nombre, padre, true));
+
+    entityManager.persistAndFlush(new ProgramaJerarquia(programa.getId(), programa.getId(), 0));
+    if (padre != null) {
+      for (ProgramaJerarquia ancestro : repository.findByDescendienteId(padre.getId())) {
+        entityManager.persistAndFlush(
+            new ProgramaJerarquia(ancestro.getAncestroId(), programa.getId(), ancestro.getProfundidad() + 1));
+      }
+    }
+    return programa;
+  }
+
+}
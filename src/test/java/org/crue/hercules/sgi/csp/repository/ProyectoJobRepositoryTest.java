@@ -0,0 +1,153 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
+import org.crue.hercules.sgi.csp.model.ProyectoJob;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+/**
+ * ProyectoJobRepositoryTest
+ */
+@DataJpaTest
+public class ProyectoJobRepositoryTest extends BaseRepositoryTest {
+
+  private static final Duration TIMEOUT = Duration.ofMinutes(30);
+
+  @Autowired
+  private ProyectoJobRepository repository;
+
+  @Test
+  public void reservarEjecucion_WithJobPendiente_ReservesOnlyOnce() throws Exception {
+    // given: un trabajo pendiente
+    ProyectoJob proyectoJob = generarMockProyectoJob("-001", ProyectoJob.Estado.PENDIENTE, null);
+    Instant ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+    // when: dos instancias intentan reservarlo
+    int primera = reservar(proyectoJob.getId(), "reserva-1", ahora);
+    int segunda = reservar(proyectoJob.getId(), "reserva-2", ahora.plusSeconds(1));
+
+    // then: solo la primera lo reserva y queda en curso
+    Assertions.assertThat(primera).as("primera").isEqualTo(1);
+    Assertions.assertThat(segunda).as("segunda").isEqualTo(0);
+    entityManager.clear();
+    ProyectoJob reservado = repository.findById(proyectoJob.getId()).get();
+    Assertions.assertThat(reservado.getEstado()).as("getEstado()").isEqualTo(ProyectoJob.Estado.EN_CURSO);
+    Assertions.assertThat(reservado.getFechaInicio()).as("getFechaInicio()").isEqualTo(ahora);
+    Assertions.assertThat(reservado.getReserva()).as("getReserva()").isEqualTo("reserva-1");
+  }
+
+  @Test
+  public void reservarEjecucion_WithJobEnCursoCaducado_ReservesJob() throws Exception {
+    // given: un trabajo en curso desde antes del tiempo máximo de ejecución
+    Instant ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    ProyectoJob proyectoJob = generarMockProyectoJob("-001", ProyectoJob.Estado.EN_CURSO,
+        ahora.minus(TIMEOUT).minusSeconds(1));
+
+    // when: se intenta reservar
+    int actualizados = reservar(proyectoJob.getId(), "reserva-2", ahora);
+
+    // then: se reserva de nuevo
+    Assertions.assertThat(actualizados).isEqualTo(1);
+  }
+
+  @Test
+  public void reservarEjecucion_WithJobEnCursoOTerminado_DoesNotReserveJob() throws Exception {
+    // given: un trabajo que otra instancia está ejecutando y otro terminado
+    Instant ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    ProyectoJob enCurso = generarMockProyectoJob("-001", ProyectoJob.Estado.EN_CURSO, ahora.minusSeconds(60));
+    ProyectoJob terminado = generarMockProyectoJob("-002", ProyectoJob.Estado.COMPLETADO,
+        ahora.minus(TIMEOUT).minusSeconds(1));
+
+    // when: se intentan reservar
+    // then: no se reserva ninguno
+    Assertions.assertThat(reservar(enCurso.getId(), "reserva-2", ahora)).as("en curso").isEqualTo(0);
+    Assertions.assertThat(reservar(terminado.getId(), "reserva-2", ahora)).as("terminado").isEqualTo(0);
+  }
+
+  @Test
+  public void renovarEjecucion_WithReservaDeOtraInstancia_DoesNotRenewJob() throws Exception {
+    // given: un trabajo reservado que otra instancia vuelve a reservar al caducar
+    Instant ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    ProyectoJob proyectoJob = generarMockProyectoJob("-001", ProyectoJob.Estado.PENDIENTE, null);
+    reservar(proyectoJob.getId(), "reserva-1", ahora.minus(TIMEOUT).minusSeconds(1));
+    reservar(proyectoJob.getId(), "reserva-2", ahora);
+
+    // when: cada instancia intenta renovar su reserva
+    int primera = repository.renovarEjecucion(proyectoJob.getId(), "reserva-1", ProyectoJob.Estado.EN_CURSO,
+        ahora.plusSeconds(60));
+    int segunda = repository.renovarEjecucion(proyectoJob.getId(), "reserva-2", ProyectoJob.Estado.EN_CURSO,
+        ahora.plusSeconds(60));
+
+    // then: solo la renueva la instancia que tiene la reserva vigente
+    Assertions.assertThat(primera).as("primera").isEqualTo(0);
+    Assertions.assertThat(segunda).as("segunda").isEqualTo(1);
+    entityManager.clear();
+    Assertions.assertThat(repository.findById(proyectoJob.getId()).get().getFechaInicio())
+        .isEqualTo(ahora.plusSeconds(60));
+  }
+
+  @Test
+  public void finalizarEjecucion_WithReservaDeOtraInstancia_DoesNotSaveEstado() throws Exception {
+    // given: un trabajo reservado que otra instancia vuelve a reservar al caducar
+    Instant ahora = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    ProyectoJob proyectoJob = generarMockProyectoJob("-001", ProyectoJob.Estado.PENDIENTE, null);
+    reservar(proyectoJob.getId(), "reserva-1", ahora.minus(TIMEOUT).minusSeconds(1));
+    reservar(proyectoJob.getId(), "reserva-2", ahora);
+
+    // when: cada instancia intenta guardar su resultado
+    int primera = repository.finalizarEjecucion(proyectoJob.getId(), "reserva-1", ProyectoJob.Estado.EN_CURSO,
+        ProyectoJob.Estado.ERROR, null, "error", ahora);
+    int segunda = repository.finalizarEjecucion(proyectoJob.getId(), "reserva-2", ProyectoJob.Estado.EN_CURSO,
+        ProyectoJob.Estado.COMPLETADO, null, null, ahora);
+
+    // then: solo se guarda el resultado de la reserva vigente
+    Assertions.assertThat(primera).as("primera").isEqualTo(0);
+    Assertions.assertThat(segunda).as("segunda").isEqualTo(1);
+    entityManager.clear();
+    ProyectoJob finalizado = repository.findById(proyectoJob.getId()).get();
+    Assertions.assertThat(finalizado.getEstado()).as("getEstado()").isEqualTo(ProyectoJob.Estado.COMPLETADO);
+    Assertions.assertThat(finalizado.getError()).as("getError()").isNull();
+  }
+
+  private int reservar(Long id, String reserva, Instant fechaInicio) {
+    return repository.reservarEjecucion(id, reserva, ProyectoJob.Estado.PENDIENTE, ProyectoJob.Estado.EN_CURSO,
+        fechaInicio, fechaInicio.minus(TIMEOUT));
+  }
+
+  /**
+   * Función que genera un ProyectoJob de una solicitud
+   *
+   * @param suffix      sufijo para los campos de texto
+   * @param estado      estado del trabajo
+   * @param fechaInicio fecha de inicio de la ejecución
+   * @return el objeto ProyectoJob
+   */
+  private ProyectoJob generarMockProyectoJob(String suffix, ProyectoJob.Estado estado, Instant fechaInicio) {
+    // @formatter:off
+    Solicitud solicitud = entityManager.persistAndFlush(Solicitud.builder()
+        .codigoExterno("codigo" + suffix)
+        .creadorRef("user-001")
+        .solicitanteRef("user-002")
+        .unidadGestionRef("OPE")
+        .formularioSolicitud(FormularioSolicitud.ESTANDAR)
+        .activo(Boolean.TRUE)
+        .build());
+    return entityManager.persistAndFlush(ProyectoJob.builder()
+        .solicitudId(solicitud.getId())
+        .estado(estado)
+        .datos("{}")
+        .unidadGestionRef("OPE")
+        .usuarioRef("user")
+        .fechaInicio(fechaInicio)
+        .build());
+    // @formatter:on
+  }
+
+}
@@ -2,6 +2,8 @@ package org.crue.hercules.sgi.csp.repository;
 
 import java.time.Instant;
 import java.time.Period;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.assertj.core.api.Assertions;
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
@@ -80,6 +82,19 @@ public class ProyectoRepositoryTest extends BaseRepositoryTest {
     Assertions.assertThat(isDentroProyectoCaso4).isFalse();
   }
 
+  @Test
+  public void getVersion_WithUnidadesGestion_ReturnsVersionOnlyForUnidadDelProyecto() throws Exception {
+    // given: un proyecto de la unidad de gestión OPE
+    Proyecto proyecto = generarMockProyecto("-001");
+
+    // when: se obtiene su versión restringiendo las unidades de gestión
+    // then: solo se obtiene si OPE está entre ellas
+    Assertions.assertThat(repository.getVersion(proyecto.getId(), Arrays.asList("OTRI", "OPE"))).as("OPE")
+        .isEqualTo(repository.getVersion(proyecto.getId())).isPresent();
+    Assertions.assertThat(repository.getVersion(proyecto.getId(), Arrays.asList("OTRI"))).as("OTRI").isEmpty();
+    Assertions.assertThat(repository.getVersion(proyecto.getId(), Collections.emptyList())).as("ninguna").isEmpty();
+  }
+
   /**
    * Función que genera Proyecto
    * 
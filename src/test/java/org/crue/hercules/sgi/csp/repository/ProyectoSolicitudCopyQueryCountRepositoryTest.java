@@ -0,0 +1,414 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
+import org.crue.hercules.sgi.csp.model.EstadoProyecto;
+import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoSocio;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoPago;
+import org.crue.hercules.sgi.csp.model.RolProyecto;
+import org.crue.hercules.sgi.csp.model.RolSocio;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoEquipo;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocio;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioEquipo;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioPeriodoPago;
+import org.crue.hercules.sgi.csp.model.TipoAmbitoGeografico;
+import org.crue.hercules.sgi.csp.model.TipoFinalidad;
+import org.crue.hercules.sgi.csp.service.ProyectoEquipoService;
+import org.crue.hercules.sgi.csp.service.ProyectoSocioEquipoService;
+import org.crue.hercules.sgi.csp.service.ProyectoSocioPeriodoJustificacionService;
+import org.crue.hercules.sgi.csp.service.ProyectoSocioPeriodoPagoService;
+import org.crue.hercules.sgi.csp.service.ProyectoSocioService;
+import org.crue.hercules.sgi.csp.service.ProyectoSolicitudCopyService;
+import org.crue.hercules.sgi.csp.service.impl.ProyectoEquipoServiceImpl;
+import org.crue.hercules.sgi.csp.service.impl.ProyectoSocioEquipoServiceImpl;
+import org.crue.hercules.sgi.csp.service.impl.ProyectoSocioPeriodoJustificacionServiceImpl;
+import org.crue.hercules.sgi.csp.service.impl.ProyectoSocioPeriodoPagoServiceImpl;
+import org.crue.hercules.sgi.csp.service.impl.ProyectoSocioServiceImpl;
+import org.crue.hercules.sgi.csp.service.impl.ProyectoSolicitudCopyServiceImpl;
+import org.crue.hercules.sgi.csp.support.Benchmark;
+import org.crue.hercules.sgi.csp.support.StatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Comprueba que la copia de los datos de una solicitud a un proyecto se hace
+ * con un número de sentencias que no depende del número de socios ni de sus
+ * datos asociados.
+ * <p>
+ * La copia elemento a elemento a través de los servicios de cada entidad
+ * necesitaba al menos una lectura del proyecto o del socio padre, una
+ * comprobación de solapamiento y una inserción por cada fila copiada, es decir,
+ * más de {@link #SENTENCIAS_POR_SOCIO_ANTERIOR} sentencias por socio. Para
+ * compararlas, la copia elemento a elemento se reproduce en el test con esos
+ * mismos servicios y el número de sentencias y la duración de las dos copias se
+ * escriben en el log.
+ */
+@Slf4j
+@DataJpaTest
+@Import({ StatementCounter.class, ProyectoSolicitudCopyServiceImpl.class, ProyectoEquipoServiceImpl.class,
+    ProyectoSocioServiceImpl.class, ProyectoSocioEquipoServiceImpl.class, ProyectoSocioPeriodoPagoServiceImpl.class,
+    ProyectoSocioPeriodoJustificacionServiceImpl.class })
+public class ProyectoSolicitudCopyQueryCountRepositoryTest extends BaseRepositoryTest {
+
+  private static final int NUM_SOCIOS = 20;
+  private static final int NUM_ELEMENTOS_POR_SOCIO = 3;
+
+  /**
+   * Sentencias mínimas por socio de la copia elemento a elemento: leer el
+   * proyecto, comprobar el solapamiento e insertar el socio, leer el socio y su
+   * equipo y guardar el equipo, leer el socio y guardar los periodos de pago y,
+   * por cada periodo de justificación, leer el socio, el proyecto y los
+   * periodos existentes, comprobar el solapamiento e insertarlo.
+   */
+  private static final int SENTENCIAS_POR_SOCIO_ANTERIOR = 6 + 5 * NUM_ELEMENTOS_POR_SOCIO;
+
+  /**
+   * Lecturas de las tablas origen, reservas de ids de las secuencias y batches
+   * de inserción en las tablas destino
+   */
+  private static final int MAX_SENTENCIAS = 30;
+
+  @Autowired
+  private ProyectoSolicitudCopyService service;
+
+  @Autowired
+  private ProyectoSocioRepository proyectoSocioRepository;
+
+  @Autowired
+  private ProyectoSocioEquipoRepository proyectoSocioEquipoRepository;
+
+  @Autowired
+  private ProyectoSocioPeriodoPagoRepository proyectoSocioPeriodoPagoRepository;
+
+  @Autowired
+  private ProyectoSocioPeriodoJustificacionRepository proyectoSocioPeriodoJustificacionRepository;
+
+  @Autowired
+  private ProyectoEquipoRepository proyectoEquipoRepository;
+
+  @Autowired
+  private SolicitudModalidadRepository solicitudModalidadRepository;
+
+  @Autowired
+  private SolicitudProyectoEntidadFinanciadoraAjenaRepository solicitudProyectoEntidadFinanciadoraAjenaRepository;
+
+  @Autowired
+  private SolicitudProyectoEquipoRepository solicitudProyectoEquipoRepository;
+
+  @Autowired
+  private SolicitudProyectoSocioRepository solicitudProyectoSocioRepository;
+
+  @Autowired
+  private SolicitudProyectoSocioEquipoRepository solicitudProyectoSocioEquipoRepository;
+
+  @Autowired
+  private SolicitudProyectoSocioPeriodoPagoRepository solicitudProyectoSocioPeriodoPagoRepository;
+
+  @Autowired
+  private SolicitudProyectoSocioPeriodoJustificacionRepository solicitudProyectoSocioPeriodoJustificacionRepository;
+
+  @Autowired
+  private ProyectoEquipoService proyectoEquipoService;
+
+  @Autowired
+  private ProyectoSocioService proyectoSocioService;
+
+  @Autowired
+  private ProyectoSocioEquipoService proyectoSocioEquipoService;
+
+  @Autowired
+  private ProyectoSocioPeriodoPagoService proyectoSocioPeriodoPagoService;
+
+  @Autowired
+  private ProyectoSocioPeriodoJustificacionService proyectoSocioPeriodoJustificacionService;
+
+  @Autowired
+  private StatementCounter statementCounter;
+
+  private RolSocio rolSocio;
+  private RolProyecto rolProyecto;
+
+  @BeforeEach
+  public void setUpDatosMaestros() {
+    // @formatter:off
+    rolSocio = entityManager.persistAndFlush(RolSocio.builder()
+        .abreviatura("001")
+        .nombre("Lider")
+        .descripcion("Lider")
+        .coordinador(Boolean.FALSE)
+        .activo(Boolean.TRUE)
+        .build());
+    rolProyecto = entityManager.persistAndFlush(RolProyecto.builder()
+        .abreviatura("001")
+        .nombre("Rol1")
+        .descripcion("Rol1")
+        .rolPrincipal(Boolean.FALSE)
+        .responsableEconomico(Boolean.FALSE)
+        .equipo(RolProyecto.Equipo.INVESTIGACION)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+  }
+
+  @Test
+  public void copy_SolicitudConMuchosSocios_UsesBoundedStatements() throws Exception {
+    // given: una solicitud con un socio y otra con 20 socios, cada socio con 3
+    // miembros de equipo, 3 periodos de pago y 3 periodos de justificación
+    Proyecto proyectoPequeno = generarMockProyecto("-001", generarMockSolicitud("-001", 1));
+    Proyecto proyectoGrande = generarMockProyecto("-002", generarMockSolicitud("-002", NUM_SOCIOS));
+    entityManager.clear();
+
+    // when: se copian los datos de cada solicitud a su proyecto
+    statementCounter.reset();
+    Benchmark.medir("copia 1 socio", () -> {
+      service.copy(proyectoPequeno, proyectoPequeno.getSolicitudId());
+      entityManager.flush();
+    });
+    int sentenciasPequeno = statementCounter.getCount();
+    List<String> queriesPequeno = statementCounter.getQueries();
+
+    statementCounter.reset();
+    Benchmark.medir("copia " + NUM_SOCIOS + " socios", () -> {
+      service.copy(proyectoGrande, proyectoGrande.getSolicitudId());
+      entityManager.flush();
+    });
+    int sentenciasGrande = statementCounter.getCount();
+    List<String> queriesGrande = statementCounter.getQueries();
+
+    // then: se copian todos los datos
+    List<ProyectoSocio> socios = proyectoSocioRepository.findAll();
+    Assertions.assertThat(socios).filteredOn(socio -> socio.getProyectoId().equals(proyectoGrande.getId()))
+        .as("socios").hasSize(NUM_SOCIOS);
+    Assertions.assertThat(proyectoEquipoRepository.findAllByProyectoId(proyectoGrande.getId())).as("equipo")
+        .hasSize(NUM_ELEMENTOS_POR_SOCIO);
+    Assertions.assertThat(proyectoSocioEquipoRepository.count()).as("equipos socio")
+        .isEqualTo((NUM_SOCIOS + 1) * NUM_ELEMENTOS_POR_SOCIO);
+    Assertions.assertThat(proyectoSocioPeriodoPagoRepository.count()).as("periodos pago")
+        .isEqualTo((NUM_SOCIOS + 1) * NUM_ELEMENTOS_POR_SOCIO);
+    Assertions.assertThat(proyectoSocioPeriodoJustificacionRepository.count()).as("periodos justificacion")
+        .isEqualTo((NUM_SOCIOS + 1) * NUM_ELEMENTOS_POR_SOCIO);
+
+    // then: el número de sentencias está acotado y no crece con los socios
+    Assertions.assertThat(sentenciasPequeno).as("sentencias 1 socio: %s", queriesPequeno)
+        .isLessThanOrEqualTo(MAX_SENTENCIAS);
+    Assertions.assertThat(sentenciasGrande).as("sentencias %d socios: %s", NUM_SOCIOS, queriesGrande)
+        .isLessThanOrEqualTo(MAX_SENTENCIAS);
+  }
+
+  @Test
+  public void copy_ComparadaConCopiaElementoAElemento_UsesMenosSentencias() throws Exception {
+    // given: dos solicitudes iguales con 20 socios, cada socio con 3 miembros de
+    // equipo, 3 periodos de pago y 3 periodos de justificación
+    Proyecto proyectoAnterior = generarMockProyecto("-001", generarMockSolicitud("-001", NUM_SOCIOS));
+    Proyecto proyectoNuevo = generarMockProyecto("-002", generarMockSolicitud("-002", NUM_SOCIOS));
+    entityManager.clear();
+
+    // when: se copia una solicitud elemento a elemento, como se hacía antes, y la
+    // otra con la copia en bloque
+    statementCounter.reset();
+    long msAnterior = Benchmark.medir("copia elemento a elemento " + NUM_SOCIOS + " socios", () -> {
+      copiarElementoAElemento(proyectoAnterior, proyectoAnterior.getSolicitudId());
+      entityManager.flush();
+    });
+    int sentenciasAnterior = statementCounter.getCount();
+
+    statementCounter.reset();
+    long msNuevo = Benchmark.medir("copia en bloque " + NUM_SOCIOS + " socios", () -> {
+      service.copy(proyectoNuevo, proyectoNuevo.getSolicitudId());
+      entityManager.flush();
+    });
+    int sentenciasNuevo = statementCounter.getCount();
+    log.info("[benchmark] sentencias copia {} socios: elemento a elemento {} ({} ms), en bloque {} ({} ms)",
+        NUM_SOCIOS, sentenciasAnterior, msAnterior, sentenciasNuevo, msNuevo);
+
+    // then: las dos copias crean los mismos datos
+    List<ProyectoSocio> socios = proyectoSocioRepository.findAll();
+    Assertions.assertThat(socios).filteredOn(socio -> socio.getProyectoId().equals(proyectoAnterior.getId()))
+        .as("socios elemento a elemento").hasSize(NUM_SOCIOS);
+    Assertions.assertThat(socios).filteredOn(socio -> socio.getProyectoId().equals(proyectoNuevo.getId()))
+        .as("socios en bloque").hasSize(NUM_SOCIOS);
+    Assertions.assertThat(proyectoSocioPeriodoJustificacionRepository.count()).as("periodos justificacion")
+        .isEqualTo(2L * NUM_SOCIOS * NUM_ELEMENTOS_POR_SOCIO);
+
+    // then: la copia elemento a elemento crece con los socios y la copia en bloque
+    // no
+    Assertions.assertThat(sentenciasAnterior).as("sentencias elemento a elemento")
+        .isGreaterThanOrEqualTo(NUM_SOCIOS * SENTENCIAS_POR_SOCIO_ANTERIOR);
+    Assertions.assertThat(sentenciasNuevo).as("sentencias en bloque").isLessThanOrEqualTo(MAX_SENTENCIAS)
+        .isLessThan(sentenciasAnterior);
+  }
+
+  /**
+   * Copia los datos de la solicitud al proyecto elemento a elemento a través de
+   * los servicios de cada entidad, como se hacía antes de
+   * {@link ProyectoSolicitudCopyService}. Solo se usa como referencia para
+   * comparar el número de sentencias.
+   *
+   * @param proyecto            el proyecto destino
+   * @param solicitudProyectoId id del SolicitudProyecto origen
+   */
+  private void copiarElementoAElemento(Proyecto proyecto, Long solicitudProyectoId) {
+    // Las solicitudes de los test no tienen entidades convocantes ni
+    // financiadoras, pero se consultaban igualmente
+    solicitudModalidadRepository.findAllBySolicitudId(proyecto.getSolicitudId());
+    solicitudProyectoEntidadFinanciadoraAjenaRepository.findAllBySolicitudProyectoId(solicitudProyectoId);
+
+    List<ProyectoEquipo> proyectoEquipos = new ArrayList<>();
+    for (SolicitudProyectoEquipo equipo : solicitudProyectoEquipoRepository
+        .findAllBySolicitudProyectoId(solicitudProyectoId)) {
+      proyectoEquipos.add(ProyectoEquipo.builder().proyectoId(proyecto.getId())
+          .fechaInicio(sumarMeses(proyecto, equipo.getMesInicio())).fechaFin(sumarMeses(proyecto, equipo.getMesFin()))
+          .rolProyecto(equipo.getRolProyecto()).personaRef(equipo.getPersonaRef()).build());
+    }
+    proyectoEquipoService.update(proyecto.getId(), proyectoEquipos);
+
+    for (SolicitudProyectoSocio socio : solicitudProyectoSocioRepository
+        .findAllBySolicitudProyectoId(solicitudProyectoId)) {
+      ProyectoSocio proyectoSocio = proyectoSocioService.create(ProyectoSocio.builder().proyectoId(proyecto.getId())
+          .fechaInicio(sumarMeses(proyecto, socio.getMesInicio())).fechaFin(sumarMeses(proyecto, socio.getMesFin()))
+          .rolSocio(socio.getRolSocio()).empresaRef(socio.getEmpresaRef())
+          .importeConcedido(socio.getImporteSolicitado()).numInvestigadores(socio.getNumInvestigadores()).build());
+
+      List<ProyectoSocioEquipo> equipos = new ArrayList<>();
+      for (SolicitudProyectoSocioEquipo equipo : solicitudProyectoSocioEquipoRepository
+          .findAllBySolicitudProyectoSocioId(socio.getId())) {
+        equipos.add(ProyectoSocioEquipo.builder().fechaInicio(sumarMeses(proyecto, equipo.getMesInicio()))
+            .fechaFin(sumarMeses(proyecto, equipo.getMesFin())).personaRef(equipo.getPersonaRef())
+            .rolProyecto(equipo.getRolProyecto()).build());
+      }
+      proyectoSocioEquipoService.update(proyectoSocio.getId(), equipos);
+
+      List<ProyectoSocioPeriodoPago> periodosPago = new ArrayList<>();
+      for (SolicitudProyectoSocioPeriodoPago periodoPago : solicitudProyectoSocioPeriodoPagoRepository
+          .findAllBySolicitudProyectoSocioId(socio.getId())) {
+        periodosPago.add(ProyectoSocioPeriodoPago.builder().fechaPrevistaPago(sumarMeses(proyecto, periodoPago.getMes()))
+            .importe(periodoPago.getImporte()).numPeriodo(periodoPago.getNumPeriodo()).build());
+      }
+      proyectoSocioPeriodoPagoService.update(proyectoSocio.getId(), periodosPago);
+
+      for (SolicitudProyectoSocioPeriodoJustificacion periodoJustificacion : solicitudProyectoSocioPeriodoJustificacionRepository
+          .findAllBySolicitudProyectoSocioId(socio.getId())) {
+        proyectoSocioPeriodoJustificacionService.create(ProyectoSocioPeriodoJustificacion.builder()
+            .proyectoSocioId(proyectoSocio.getId())
+            .fechaInicio(sumarMeses(proyecto, periodoJustificacion.getMesInicial()))
+            .fechaFin(sumarMeses(proyecto, periodoJustificacion.getMesFinal()))
+            .numPeriodo(periodoJustificacion.getNumPeriodo()).observaciones(periodoJustificacion.getObservaciones())
+            .fechaInicioPresentacion(periodoJustificacion.getFechaInicio())
+            .fechaFinPresentacion(periodoJustificacion.getFechaFin()).build());
+      }
+    }
+  }
+
+  private Instant sumarMeses(Proyecto proyecto, Integer mes) {
+    return Instant.from(proyecto.getFechaInicio().atZone(ZoneOffset.UTC).plus(Period.ofMonths(mes - 1)));
+  }
+
+  /**
+   * Función que genera una Solicitud con su SolicitudProyecto, un equipo de 3
+   * miembros y el número de socios indicado con su equipo y sus periodos de pago
+   * y de justificación
+   *
+   * @param suffix    sufijo para los campos de texto
+   * @param numSocios número de socios
+   * @return el objeto SolicitudProyecto
+   */
+  private SolicitudProyecto generarMockSolicitud(String suffix, int numSocios) {
+    // @formatter:off
+    Solicitud solicitud = entityManager.persistAndFlush(Solicitud.builder()
+        .codigoExterno("codigo" + suffix)
+        .creadorRef("user-001")
+        .solicitanteRef("user-002")
+        .unidadGestionRef("OPE")
+        .formularioSolicitud(FormularioSolicitud.ESTANDAR)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    SolicitudProyecto solicitudProyecto = entityManager.persistAndFlush(SolicitudProyecto.builder()
+        .id(solicitud.getId()).titulo("titulo" + suffix).colaborativo(Boolean.TRUE)
+        .presupuestoPorEntidades(Boolean.FALSE).build());
+
+    for (int i = 0; i < NUM_ELEMENTOS_POR_SOCIO; i++) {
+      entityManager.persist(SolicitudProyectoEquipo.builder().solicitudProyectoId(solicitudProyecto.getId())
+          .personaRef("persona-" + i).rolProyecto(rolProyecto).mesInicio(1).mesFin(12).build());
+    }
+
+    for (int s = 0; s < numSocios; s++) {
+      SolicitudProyectoSocio socio = entityManager.persistAndFlush(
+          SolicitudProyectoSocio.builder().solicitudProyectoId(solicitudProyecto.getId()).rolSocio(rolSocio)
+              .empresaRef("empresa-" + s).mesInicio(1).mesFin(12).numInvestigadores(3)
+              .importeSolicitado(new BigDecimal(1000)).build());
+      for (int i = 0; i < NUM_ELEMENTOS_POR_SOCIO; i++) {
+        int mesInicio = 1 + 3 * i;
+        entityManager.persist(SolicitudProyectoSocioEquipo.builder().solicitudProyectoSocioId(socio.getId())
+            .personaRef("persona-socio-" + s).rolProyecto(rolProyecto).mesInicio(mesInicio).mesFin(mesInicio + 2)
+            .build());
+        entityManager.persist(SolicitudProyectoSocioPeriodoPago.builder().solicitudProyectoSocioId(socio.getId())
+            .numPeriodo(i + 1).mes(mesInicio + 2).importe(new BigDecimal(100)).build());
+        entityManager.persist(SolicitudProyectoSocioPeriodoJustificacion.builder()
+            .solicitudProyectoSocioId(socio.getId()).numPeriodo(i + 1).mesInicial(mesInicio).mesFinal(mesInicio + 2)
+            .build());
+      }
+    }
+    entityManager.flush();
+    return solicitudProyecto;
+  }
+
+  /**
+   * Función que genera un Proyecto en estado borrador asociado a la solicitud
+   *
+   * @param suffix            sufijo para los campos de texto
+   * @param solicitudProyecto SolicitudProyecto de la que se crea el Proyecto
+   * @return el objeto Proyecto
+   */
+  private Proyecto generarMockProyecto(String suffix, SolicitudProyecto solicitudProyecto) {
+    // @formatter:off
+    Proyecto proyecto = entityManager.persistAndFlush(Proyecto.builder()
+        .acronimo("PR" + suffix)
+        .codigoExterno("COD" + suffix)
+        .titulo("titulo" + suffix)
+        .unidadGestionRef("OPE")
+        .solicitudId(solicitudProyecto.getId())
+        .modeloEjecucion(entityManager.persistAndFlush(ModeloEjecucion.builder()
+            .nombre("nombreModeloEjecucion" + suffix)
+            .activo(Boolean.TRUE)
+            .build()))
+        .finalidad(entityManager.persistAndFlush(TipoFinalidad.builder()
+            .nombre("nombreTipoFinalidad" + suffix)
+            .activo(Boolean.TRUE)
+            .build()))
+        .ambitoGeografico(entityManager.persistAndFlush(TipoAmbitoGeografico.builder()
+            .nombre("nombreTipoAmbitoGeografico" + suffix)
+            .activo(Boolean.TRUE)
+            .build()))
+        .fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+        .fechaFin(Instant.parse("2020-12-31T23:59:59Z"))
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    EstadoProyecto estado = entityManager.persistAndFlush(EstadoProyecto.builder()
+        .estado(EstadoProyecto.Estado.BORRADOR).proyectoId(proyecto.getId()).fechaEstado(Instant.now()).build());
+    proyecto.setEstado(estado);
+    return entityManager.persistAndFlush(proyecto);
+  }
+
+}
@@ -0,0 +1,221 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.persistence.Column;
+import javax.persistence.JoinColumn;
+import javax.persistence.Table;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.query.parser.PartTree.OrPart;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Comprueba que los changelogs de Liquibase definen un índice para cada clave
+ * ajena y para las columnas por las que filtran las derived queries de los
+ * repositorios.
+ * <p>
+ * Solo se tienen en cuenta los índices declarados explícitamente (claves
+ * primarias, restricciones únicas y createIndex), ya que H2 crea índices
+ * implícitos para las claves ajenas pero PostgreSQL no.
+ */
+public class RepositoryIndexCoverageTest {
+
+  private static final String REPOSITORY_PACKAGE = "org.crue.hercules.sgi.csp.repository";
+  private static final String CHANGELOG_LOCATION = "classpath*:db/changelog/changes/*.xml";
+  private static final Pattern DERIVED_QUERY_PATTERN = Pattern
+      .compile("^(find|read|get|query|search|stream|count|exists|delete|remove)\\p{Alnum}*?By\\p{Lu}.*");
+
+  /** Tipos de filtro que no pueden resolverse con un índice B-tree */
+  private static final Set<Part.Type> NON_INDEXABLE_TYPES = EnumSet.of(Part.Type.NEGATING_SIMPLE_PROPERTY,
+      Part.Type.NOT_IN, Part.Type.IS_NOT_NULL, Part.Type.IS_NOT_EMPTY, Part.Type.IS_EMPTY, Part.Type.NOT_LIKE,
+      Part.Type.NOT_CONTAINING, Part.Type.LIKE, Part.Type.CONTAINING, Part.Type.ENDING_WITH, Part.Type.REGEX,
+      Part.Type.EXISTS);
+
+  /** tabla.columna de las primeras columnas de cada índice */
+  private static Set<String> indexedColumns = new HashSet<>();
+
+  /** tabla.columna de las columnas con clave ajena */
+  private static Set<String> foreignKeyColumns = new HashSet<>();
+
+  @BeforeAll
+  public static void loadChangelogs() throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    Resource[] changelogs = new PathMatchingResourcePatternResolver().getResources(CHANGELOG_LOCATION);
+    for (Resource changelog : changelogs) {
+      Document document;
+      try (InputStream is = changelog.getInputStream()) {
+        document = factory.newDocumentBuilder().parse(is);
+      }
+
+      for (Element createTable : getElements(document, "createTable")) {
+        String tableName = createTable.getAttribute("tableName");
+        for (Element column : getElements(createTable, "column")) {
+          for (Element constraints : getElements(column, "constraints")) {
+            if (Boolean.parseBoolean(constraints.getAttribute("primaryKey"))) {
+              indexedColumns.add(key(tableName, column.getAttribute("name")));
+            }
+          }
+        }
+      }
+
+      for (Element uniqueConstraint : getElements(document, "addUniqueConstraint")) {
+        String firstColumn = uniqueConstraint.getAttribute("columnNames").split(",")[0];
+        indexedColumns.add(key(uniqueConstraint.getAttribute("tableName"), firstColumn));
+      }
+
+      for (Element createIndex : getElements(document, "createIndex")) {
+        List<Element> columns = getElements(createIndex, "column");
+        indexedColumns.add(key(createIndex.getAttribute("tableName"), columns.get(0).getAttribute("name")));
+      }
+
+      for (Element foreignKey : getElements(document, "addForeignKeyConstraint")) {
+        foreignKeyColumns
+            .add(key(foreignKey.getAttribute("baseTableName"), foreignKey.getAttribute("baseColumnNames")));
+      }
+    }
+  }
+
+  @Test
+  public void foreignKeyColumns_AreIndexed() throws Exception {
+    // given: las columnas con clave ajena definidas en los changelogs
+    Assertions.assertThat(foreignKeyColumns).as("foreignKeyColumns").isNotEmpty();
+
+    // when: se buscan las que no son primera columna de ningún índice
+    List<String> unindexed = new ArrayList<>();
+    for (String column : foreignKeyColumns) {
+      if (!indexedColumns.contains(column)) {
+        unindexed.add(column);
+      }
+    }
+
+    // then: todas las claves ajenas tienen índice
+    Assertions.assertThat(unindexed).as("Foreign key columns without index").isEmpty();
+  }
+
+  @Test
+  public void derivedQueries_FilterOnIndexedColumns() throws Exception {
+    // given: las derived queries declaradas en los repositorios
+    List<String> unindexed = new ArrayList<>();
+    int checked = 0;
+
+    for (Class<?> repositoryInterface : getRepositoryInterfaces()) {
+      Class<?> domainType = AbstractRepositoryMetadata.getMetadata(repositoryInterface).getDomainType();
+      String tableName = domainType.getAnnotation(Table.class).name();
+
+      for (Method method : repositoryInterface.getDeclaredMethods()) {
+        if (!isDerivedQuery(method)) {
+          continue;
+        }
+        checked++;
+
+        // when: se resuelven las columnas por las que filtra cada rama OR
+        PartTree tree = new PartTree(method.getName(), domainType);
+        for (OrPart orPart : tree) {
+          boolean indexed = false;
+          List<String> columns = new ArrayList<>();
+          for (Part part : orPart) {
+            String column = key(tableName, getColumnName(domainType, part.getProperty().getSegment()));
+            columns.add(column);
+            if (!NON_INDEXABLE_TYPES.contains(part.getType()) && indexedColumns.contains(column)) {
+              indexed = true;
+            }
+          }
+          if (!indexed) {
+            unindexed.add(repositoryInterface.getSimpleName() + "." + method.getName() + " " + columns);
+          }
+        }
+      }
+    }
+
+    // then: cada rama OR filtra por al menos una columna indexada
+    Assertions.assertThat(checked).as("derived queries checked").isPositive();
+    Assertions.assertThat(unindexed).as("Derived queries filtering on unindexed columns").isEmpty();
+  }
+
+  private static boolean isDerivedQuery(Method method) {
+    return !method.isDefault() && !Modifier.isStatic(method.getModifiers()) && !method.isAnnotationPresent(Query.class)
+        && DERIVED_QUERY_PATTERN.matcher(method.getName()).matches();
+  }
+
+  private static List<Class<?>> getRepositoryInterfaces() throws ClassNotFoundException {
+    ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false) {
+      @Override
+      protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+        return beanDefinition.getMetadata().isInterface();
+      }
+    };
+    provider.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+
+    List<Class<?>> repositories = new ArrayList<>();
+    for (BeanDefinition beanDefinition : provider.findCandidateComponents(REPOSITORY_PACKAGE)) {
+      repositories.add(Class.forName(beanDefinition.getBeanClassName()));
+    }
+    Assertions.assertThat(repositories).as("repositories").isNotEmpty();
+    return repositories;
+  }
+
+  private static String getColumnName(Class<?> entityClass, String propertyName) {
+    Field field = ReflectionUtils.findField(entityClass, propertyName);
+    Assertions.assertThat(field).as(entityClass.getSimpleName() + "." + propertyName).isNotNull();
+
+    JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+    if (joinColumn != null) {
+      return joinColumn.name();
+    }
+    Column column = field.getAnnotation(Column.class);
+    if (column != null && StringUtils.hasText(column.name())) {
+      return column.name();
+    }
+    return propertyName.replaceAll("([a-z0-9])([A-Z])", "$1_$2");
+  }
+
+  private static List<Element> getElements(Document document, String tagName) {
+    return toList(document.getElementsByTagName(tagName));
+  }
+
+  private static List<Element> getElements(Element element, String tagName) {
+    return toList(element.getElementsByTagName(tagName));
+  }
+
+  private static List<Element> toList(NodeList nodes) {
+    List<Element> elements = new ArrayList<>();
+    for (int i = 0; i < nodes.getLength(); i++) {
+      elements.add((Element) nodes.item(i));
+    }
+    return elements;
+  }
+
+  private static String key(String tableName, String columnName) {
+    return (tableName.trim() + "." + columnName.trim()).toLowerCase(Locale.ROOT);
+  }
+
+}
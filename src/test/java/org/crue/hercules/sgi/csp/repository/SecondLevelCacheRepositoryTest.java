@@ -0,0 +1,124 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
+import org.crue.hercules.sgi.csp.model.ModeloTipoFinalidad;
+import org.crue.hercules.sgi.csp.model.TipoFase;
+import org.crue.hercules.sgi.csp.model.TipoFinalidad;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Comprueba la caché de segundo nivel de los datos maestros.
+ * <p>
+ * Los test no son transaccionales para que cada llamada al repositorio use su
+ * propia sesión de Hibernate y las lecturas se resuelvan desde la caché. Los
+ * cambios hechos con {@link JdbcTemplate} no pasan por Hibernate y sirven para
+ * detectar si un dato se ha leído de la caché o de la base de datos.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheRepositoryTest extends BaseRepositoryTest {
+
+  @Autowired
+  private TipoFaseRepository tipoFaseRepository;
+
+  @Autowired
+  private TipoFinalidadRepository tipoFinalidadRepository;
+
+  @Autowired
+  private ModeloEjecucionRepository modeloEjecucionRepository;
+
+  @Autowired
+  private ModeloTipoFinalidadRepository modeloTipoFinalidadRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final List<TipoFase> tiposFase = new ArrayList<>();
+  private final List<ModeloTipoFinalidad> modelosTipoFinalidad = new ArrayList<>();
+  private final List<TipoFinalidad> tiposFinalidad = new ArrayList<>();
+  private final List<ModeloEjecucion> modelosEjecucion = new ArrayList<>();
+
+  @AfterEach
+  public void cleanup() {
+    modeloTipoFinalidadRepository.deleteAll(modelosTipoFinalidad);
+    tipoFinalidadRepository.deleteAll(tiposFinalidad);
+    modeloEjecucionRepository.deleteAll(modelosEjecucion);
+    tipoFaseRepository.deleteAll(tiposFase);
+  }
+
+  @Test
+  public void findById_TipoFaseCacheado_ReturnsTipoFaseFromCache() throws Exception {
+    // given: un TipoFase leído previamente
+    TipoFase tipoFase = saveTipoFase("cache-1");
+    tipoFaseRepository.findById(tipoFase.getId());
+
+    // when: se modifica en base de datos sin pasar por Hibernate y se vuelve a
+    // buscar
+    jdbcTemplate.update("UPDATE csp.tipo_fase SET nombre = ? WHERE id = ?", "cache-1-sql", tipoFase.getId());
+    Optional<TipoFase> encontrado = tipoFaseRepository.findById(tipoFase.getId());
+
+    // then: se devuelve el TipoFase de la caché
+    Assertions.assertThat(entityManagerFactory.getCache().contains(TipoFase.class, tipoFase.getId()))
+        .as("contains").isTrue();
+    Assertions.assertThat(encontrado).as("isPresent").isPresent();
+    Assertions.assertThat(encontrado.get().getNombre()).as("getNombre()").isEqualTo("cache-1");
+  }
+
+  @Test
+  public void save_TipoFaseCacheado_UpdatesCache() throws Exception {
+    // given: un TipoFase leído previamente
+    TipoFase tipoFase = saveTipoFase("cache-2");
+    tipoFase = tipoFaseRepository.findById(tipoFase.getId()).get();
+
+    // when: se desactiva a través del repositorio
+    tipoFase.setActivo(Boolean.FALSE);
+    tipoFaseRepository.save(tipoFase);
+
+    // then: la caché contiene el TipoFase actualizado
+    jdbcTemplate.update("UPDATE csp.tipo_fase SET activo = ? WHERE id = ?", Boolean.TRUE, tipoFase.getId());
+    Optional<TipoFase> encontrado = tipoFaseRepository.findById(tipoFase.getId());
+    Assertions.assertThat(encontrado).as("isPresent").isPresent();
+    Assertions.assertThat(encontrado.get().getActivo()).as("getActivo()").isFalse();
+  }
+
+  @Test
+  public void findByModeloEjecucionIdAndTipoFinalidadId_NuevoModeloTipoFinalidad_InvalidatesQueryCache()
+      throws Exception {
+    // given: una consulta cacheada sin resultados
+    ModeloEjecucion modeloEjecucion = modeloEjecucionRepository
+        .save(new ModeloEjecucion(null, "cache-modelo", null, true));
+    modelosEjecucion.add(modeloEjecucion);
+    TipoFinalidad tipoFinalidad = tipoFinalidadRepository.save(new TipoFinalidad(null, "cache-finalidad", null, true));
+    tiposFinalidad.add(tipoFinalidad);
+    Assertions.assertThat(modeloTipoFinalidadRepository
+        .findByModeloEjecucionIdAndTipoFinalidadId(modeloEjecucion.getId(), tipoFinalidad.getId())).isEmpty();
+
+    // when: se añade el ModeloTipoFinalidad a través del repositorio
+    modelosTipoFinalidad
+        .add(modeloTipoFinalidadRepository.save(new ModeloTipoFinalidad(null, tipoFinalidad, modeloEjecucion, true)));
+
+    // then: la consulta ya no se resuelve con el resultado cacheado
+    Optional<ModeloTipoFinalidad> encontrado = modeloTipoFinalidadRepository
+        .findByModeloEjecucionIdAndTipoFinalidadId(modeloEjecucion.getId(), tipoFinalidad.getId());
+    Assertions.assertThat(encontrado).as("isPresent").isPresent();
+    Assertions.assertThat(encontrado.get().getId()).as("getId()").isEqualTo(modelosTipoFinalidad.get(0).getId());
+  }
+
+  private TipoFase saveTipoFase(String nombre) {
+    TipoFase tipoFase = tipoFaseRepository.save(new TipoFase(null, nombre, null, true));
+    tiposFase.add(tipoFase);
+    return tipoFase;
+  }
+
+}
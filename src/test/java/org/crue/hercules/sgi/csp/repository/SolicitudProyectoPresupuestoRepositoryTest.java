@@ -0,0 +1,167 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado;
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoAgregado.Dimension;
+import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
+import org.crue.hercules.sgi.csp.model.ConceptoGasto;
+import org.crue.hercules.sgi.csp.model.Convocatoria;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+/**
+ * SolicitudProyectoPresupuestoRepositoryTest
+ */
+@DataJpaTest
+public class SolicitudProyectoPresupuestoRepositoryTest extends BaseRepositoryTest {
+
+  @Autowired
+  private SolicitudProyectoPresupuestoRepository repository;
+
+  private ConceptoGasto conceptoGasto1;
+  private ConceptoGasto conceptoGasto2;
+
+  @BeforeEach
+  public void setUpConceptosGasto() {
+    conceptoGasto1 = generarConceptoGasto("001");
+    conceptoGasto2 = generarConceptoGasto("002");
+  }
+
+  @Test
+  public void getAgregadoSolicitud_ReturnsDetalleSubtotalesYTotal() throws Exception {
+    // given: una solicitud con partidas de dos conceptos de gasto y dos
+    // anualidades, una de ellas sin anualidad, y otra solicitud con partidas
+    Long solicitudId = generarSolicitud(null);
+    generarPresupuesto(solicitudId, conceptoGasto1, null, 2020, "1000.00");
+    generarPresupuesto(solicitudId, conceptoGasto1, "entidad-001", 2020, "500.00");
+    generarPresupuesto(solicitudId, conceptoGasto1, null, 2021, "3000.00");
+    generarPresupuesto(solicitudId, conceptoGasto2, null, null, "200.00");
+    generarPresupuesto(generarSolicitud(null), conceptoGasto1, null, 2020, "9999.00");
+
+    // when: se agrega el presupuesto por concepto de gasto y anualidad
+    List<SolicitudProyectoPresupuestoAgregado> agregado = repository.getAgregadoSolicitud(solicitudId,
+        Arrays.asList(Dimension.CONCEPTO_GASTO, Dimension.ANUALIDAD));
+
+    // then: se obtienen las filas por concepto de gasto y anualidad, seguidas del
+    // subtotal de su concepto de gasto, y el total al final
+    Assertions.assertThat(agregado).extracting(fila -> fila.getConceptoGasto() == null ? null
+        : fila.getConceptoGasto().getId(), SolicitudProyectoPresupuestoAgregado::getAnualidad,
+        SolicitudProyectoPresupuestoAgregado::getNivel).containsExactly(
+            Assertions.tuple(conceptoGasto1.getId(), 2020, 2),
+            Assertions.tuple(conceptoGasto1.getId(), 2021, 2),
+            Assertions.tuple(conceptoGasto1.getId(), null, 1),
+            Assertions.tuple(conceptoGasto2.getId(), null, 2),
+            Assertions.tuple(conceptoGasto2.getId(), null, 1),
+            Assertions.tuple(null, null, 0));
+    Assertions.assertThat(agregado).extracting(SolicitudProyectoPresupuestoAgregado::getImporteTotal)
+        .usingElementComparator(BigDecimal::compareTo).containsExactly(new BigDecimal("1500.00"),
+            new BigDecimal("3000.00"), new BigDecimal("4500.00"), new BigDecimal("200.00"),
+            new BigDecimal("200.00"), new BigDecimal("4700.00"));
+    Assertions.assertThat(agregado.get(0).getConceptoGasto().getNombre()).isEqualTo("nombreConceptoGasto001");
+  }
+
+  @Test
+  public void getAgregadoConvocatoria_ReturnsSumaDeLasSolicitudes() throws Exception {
+    // given: dos solicitudes de una convocatoria y otra de otra convocatoria
+    Long convocatoriaId = generarConvocatoria("001");
+    Long solicitud1 = generarSolicitud(convocatoriaId);
+    generarPresupuesto(solicitud1, conceptoGasto1, null, 2020, "1000.00");
+    generarPresupuesto(solicitud1, conceptoGasto2, "entidad-001", 2020, "250.00");
+    Long solicitud2 = generarSolicitud(convocatoriaId);
+    generarPresupuesto(solicitud2, conceptoGasto1, "entidad-001", 2021, "750.00");
+    generarPresupuesto(generarSolicitud(generarConvocatoria("002")), conceptoGasto1, null, 2020, "9999.00");
+
+    // when: se agrega el presupuesto de la convocatoria por entidad
+    List<SolicitudProyectoPresupuestoAgregado> agregado = repository.getAgregadoConvocatoria(convocatoriaId,
+        Collections.singletonList(Dimension.ENTIDAD_REF));
+
+    // then: se obtiene el total por entidad, con la de la convocatoria (null)
+    // distinguida del total por el nivel
+    Assertions.assertThat(agregado).extracting(SolicitudProyectoPresupuestoAgregado::getEntidadRef,
+        SolicitudProyectoPresupuestoAgregado::getNivel).containsExactly(
+            Assertions.tuple("entidad-001", 1),
+            Assertions.tuple(null, 1),
+            Assertions.tuple(null, 0));
+    Assertions.assertThat(agregado).extracting(SolicitudProyectoPresupuestoAgregado::getImporteTotal)
+        .usingElementComparator(BigDecimal::compareTo).containsExactly(new BigDecimal("1000.00"),
+            new BigDecimal("1000.00"), new BigDecimal("2000.00"));
+  }
+
+  @Test
+  public void getAgregadoSolicitud_WithoutPartidas_ReturnsEmptyList() throws Exception {
+    // given: una solicitud sin partidas
+    Long solicitudId = generarSolicitud(null);
+
+    // when: se agrega el presupuesto por todas las dimensiones
+    List<SolicitudProyectoPresupuestoAgregado> agregado = repository.getAgregadoSolicitud(solicitudId,
+        Arrays.asList(Dimension.values()));
+
+    // then: no se obtiene ninguna fila
+    Assertions.assertThat(agregado).isEmpty();
+  }
+
+  private ConceptoGasto generarConceptoGasto(String suffix) {
+    // @formatter:off
+    return entityManager.persistAndFlush(ConceptoGasto.builder()
+        .nombre("nombreConceptoGasto" + suffix)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+  }
+
+  private Long generarConvocatoria(String suffix) {
+    // @formatter:off
+    return entityManager.persistAndFlush(Convocatoria.builder()
+        .estado(Convocatoria.Estado.BORRADOR)
+        .codigo("codigo-" + suffix)
+        .unidadGestionRef("OPE")
+        .fechaPublicacion(Instant.parse("2021-08-01T00:00:00Z"))
+        .titulo("titulo")
+        .activo(Boolean.TRUE)
+        .build()).getId();
+    // @formatter:on
+  }
+
+  private Long generarSolicitud(Long convocatoriaId) {
+    // @formatter:off
+    Solicitud solicitud = entityManager.persistAndFlush(Solicitud.builder()
+        .creadorRef("user-001")
+        .solicitanteRef("user-002")
+        .unidadGestionRef("OTRI")
+        .convocatoriaId(convocatoriaId)
+        .convocatoriaExterna(convocatoriaId == null ? "convocatoria-externa" : null)
+        .formularioSolicitud(FormularioSolicitud.AYUDAS_GRUPOS)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    entityManager.persistAndFlush(new SolicitudProyecto(solicitud.getId(), "solicitud", null, null, null,
+        Boolean.TRUE, Boolean.TRUE, null, null, null, null, null, Boolean.FALSE, Boolean.TRUE));
+    return solicitud.getId();
+  }
+
+  private void generarPresupuesto(Long solicitudId, ConceptoGasto conceptoGasto, String entidadRef,
+      Integer anualidad, String importe) {
+    // @formatter:off
+    entityManager.persistAndFlush(SolicitudProyectoPresupuesto.builder()
+        .solicitudProyectoId(solicitudId)
+        .conceptoGasto(conceptoGasto)
+        .entidadRef(entidadRef)
+        .anualidad(anualidad)
+        .importeSolicitado(new BigDecimal(importe))
+        .financiacionAjena(entidadRef != null)
+        .build());
+    // @formatter:on
+  }
+
+}
@@ -0,0 +1,171 @@
+package org.crue.hercules.sgi.csp.repository;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.dto.SolicitudProyectoPresupuestoTotalConceptoGasto;
+import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
+import org.crue.hercules.sgi.csp.model.ConceptoGasto;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuestoTotal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+/**
+ * Comprueba que los totales del presupuesto obtenidos de
+ * {@link SolicitudProyectoPresupuestoTotal} coinciden con los que se obtienen
+ * agregando las {@link SolicitudProyectoPresupuesto}.
+ */
+@DataJpaTest
+public class SolicitudProyectoPresupuestoTotalRepositoryTest extends BaseRepositoryTest {
+
+  @Autowired
+  private SolicitudProyectoPresupuestoTotalRepository repository;
+
+  @Autowired
+  private SolicitudProyectoPresupuestoRepository solicitudProyectoPresupuestoRepository;
+
+  private ConceptoGasto conceptoGasto1;
+  private ConceptoGasto conceptoGasto2;
+
+  @BeforeEach
+  public void setUpConceptosGasto() {
+    conceptoGasto1 = generarConceptoGasto("001");
+    conceptoGasto2 = generarConceptoGasto("002");
+  }
+
+  @Test
+  public void sincronizar_ReturnsSameTotalesAsAggregateQueries() throws Exception {
+    // given: una solicitud con partidas de varias anualidades, entidades y tipos
+    // de financiación, algunas sin importe, y otra solicitud con partidas
+    Long solicitudId = generarSolicitud();
+    generarPresupuesto(solicitudId, conceptoGasto1, null, 2020, "1000.00", false);
+    generarPresupuesto(solicitudId, conceptoGasto1, null, 2020, "500.50", false);
+    generarPresupuesto(solicitudId, conceptoGasto1, null, 2021, "3000.00", false);
+    generarPresupuesto(solicitudId, conceptoGasto1, "entidad-001", 2021, "250.00", true);
+    generarPresupuesto(solicitudId, conceptoGasto2, "entidad-001", null, "125.25", true);
+    generarPresupuesto(solicitudId, conceptoGasto2, "entidad-002", 2020, null, false);
+    Long otraSolicitudId = generarSolicitud();
+    generarPresupuesto(otraSolicitudId, conceptoGasto1, null, 2020, "9999.00", false);
+
+    // when: se calculan los totales de las solicitudes
+    int corregidos = repository.sincronizar(solicitudId);
+    repository.sincronizar(otraSolicitudId);
+
+    // then: hay un total por clave y los totales coinciden con las consultas
+    // agregadas sobre las partidas
+    Assertions.assertThat(corregidos).as("corregidos").isEqualTo(5);
+    assertTotalesIguales(solicitudId);
+    assertTotalesIguales(otraSolicitudId);
+    Assertions.assertThat(repository.getTotales(solicitudId).getImporteTotal()).as("getImporteTotal")
+        .isEqualByComparingTo("4875.75");
+  }
+
+  @Test
+  public void sincronizar_WithPartidasModificadas_CorrectsTotales() throws Exception {
+    // given: los totales calculados de una solicitud cuyas partidas se modifican,
+    // se eliminan y se añaden sin actualizar los totales
+    Long solicitudId = generarSolicitud();
+    SolicitudProyectoPresupuesto modificada = generarPresupuesto(solicitudId, conceptoGasto1, null, 2020, "1000.00",
+        false);
+    SolicitudProyectoPresupuesto eliminada = generarPresupuesto(solicitudId, conceptoGasto2, null, 2020, "2000.00",
+        false);
+    repository.sincronizar(solicitudId);
+
+    modificada.setImporteSolicitado(new BigDecimal("1500.00"));
+    entityManager.persist(modificada);
+    entityManager.remove(eliminada);
+    generarPresupuesto(solicitudId, conceptoGasto2, "entidad-001", 2021, "300.00", true);
+    entityManager.flush();
+
+    // when: se reconcilian los totales
+    int corregidos = repository.sincronizar(solicitudId);
+
+    // then: se corrigen el total modificado, el eliminado y el nuevo, los totales
+    // vuelven a coincidir y una nueva reconciliación no corrige nada
+    Assertions.assertThat(corregidos).as("corregidos").isEqualTo(3);
+    assertTotalesIguales(solicitudId);
+    Assertions.assertThat(repository.sincronizar(solicitudId)).as("corregidos tras reconciliar").isZero();
+  }
+
+  @Test
+  public void getSolicitudIdsConPresupuesto_ReturnsSolicitudesConPartidasOTotales() throws Exception {
+    // given: una solicitud con partidas, otra sin partidas pero con totales y otra
+    // sin ninguno de los dos
+    Long solicitudConPartidas = generarSolicitud();
+    generarPresupuesto(solicitudConPartidas, conceptoGasto1, null, 2020, "1000.00", false);
+    Long solicitudConTotales = generarSolicitud();
+    entityManager.persistAndFlush(SolicitudProyectoPresupuestoTotal.builder().solicitudId(solicitudConTotales)
+        .conceptoGasto(conceptoGasto1).financiacionAjena(false).importeTotal(BigDecimal.TEN).build());
+    generarSolicitud();
+
+    // when: se buscan las solicitudes a reconciliar
+    List<Long> solicitudIds = repository.getSolicitudIdsConPresupuesto();
+
+    // then: se obtienen las dos primeras
+    Assertions.assertThat(solicitudIds).containsExactly(solicitudConPartidas, solicitudConTotales);
+  }
+
+  private void assertTotalesIguales(Long solicitudId) {
+    entityManager.flush();
+    entityManager.clear();
+    Assertions.assertThat(repository.getTotales(solicitudId)).as("getTotales")
+        .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class).isEqualToComparingFieldByField(
+            solicitudProyectoPresupuestoRepository.getTotales(solicitudId));
+    Assertions.assertThat(ordenar(repository.getTotalConceptoGastos(solicitudId))).as("getTotalConceptoGastos")
+        .usingComparatorForElementFieldsWithType(BigDecimal::compareTo, BigDecimal.class)
+        .usingFieldByFieldElementComparator().isEqualTo(ordenar(
+            solicitudProyectoPresupuestoRepository.getSolicitudProyectoPresupuestoTotalConceptoGastos(solicitudId)));
+  }
+
+  private List<SolicitudProyectoPresupuestoTotalConceptoGasto> ordenar(
+      List<SolicitudProyectoPresupuestoTotalConceptoGasto> totales) {
+    totales.sort(Comparator.comparing(total -> total.getConceptoGasto().getId()));
+    return totales;
+  }
+
+  private ConceptoGasto generarConceptoGasto(String suffix) {
+    // @formatter:off
+    return entityManager.persistAndFlush(ConceptoGasto.builder()
+        .nombre("nombreConceptoGasto" + suffix)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+  }
+
+  private Long generarSolicitud() {
+    // @formatter:off
+    Solicitud solicitud = entityManager.persistAndFlush(Solicitud.builder()
+        .creadorRef("user-001")
+        .solicitanteRef("user-002")
+        .unidadGestionRef("OTRI")
+        .formularioSolicitud(FormularioSolicitud.AYUDAS_GRUPOS)
+        .activo(Boolean.TRUE)
+        .build());
+    // @formatter:on
+    entityManager.persistAndFlush(new SolicitudProyecto(solicitud.getId(), "solicitud", null, null, null,
+        Boolean.TRUE, Boolean.TRUE, null, null, null, null, null, Boolean.FALSE, Boolean.TRUE));
+    return solicitud.getId();
+  }
+
+  private SolicitudProyectoPresupuesto generarPresupuesto(Long solicitudId, ConceptoGasto conceptoGasto,
+      String entidadRef, Integer anualidad, String importe, boolean financiacionAjena) {
+    // @formatter:off
+    return entityManager.persistAndFlush(SolicitudProyectoPresupuesto.builder()
+        .solicitudProyectoId(solicitudId)
+        .conceptoGasto(conceptoGasto)
+        .entidadRef(entidadRef)
+        .anualidad(anualidad)
+        .importeSolicitado(importe == null ? null : new BigDecimal(importe))
+        .financiacionAjena(financiacionAjena)
+        .build());
+    // @formatter:on
+  }
+
+}
@@ -77,8 +77,6 @@ public class AreaTematicaServiceTest extends BaseServiceTest {
 
     BDDMockito.given(repository.findById(ArgumentMatchers.anyLong()))
         .willReturn(Optional.of(generarMockAreaTematica(1L)));
-    BDDMockito.given(repository.findByPadreIdInAndActivoIsTrue(ArgumentMatchers.<Long>anyList()))
-        .willReturn(new ArrayList<>());
 
     BDDMockito.given(repository.save(areaTematica)).will((InvocationOnMock invocation) -> {
       AreaTematica areaTematicaCreado = invocation.getArgument(0);
@@ -210,11 +208,9 @@ public class AreaTematicaServiceTest extends BaseServiceTest {
     // given: Un nuevo AreaTematica con un nombre que ya existe
     AreaTematica areaTematicaNew = generarMockAreaTematica(null, "A-002", "descripcion-3", 1L);
     AreaTematica areaTematica = generarMockAreaTematica(1L, "nombreRepetidoPadre", "descripcion-1", null);
-    AreaTematica areaTematicaHijo = generarMockAreaTematica(2L, "A-002", "descripcion-2", 1L);
 
     BDDMockito.given(repository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.of(areaTematica));
-    BDDMockito.given(repository.findByPadreIdInAndActivoIsTrue(ArgumentMatchers.<Long>anyList()))
-        .willReturn(Arrays.asList(areaTematicaHijo));
+    BDDMockito.given(repository.existsActivoInGrupoWithNombre(1L, "A-002", null)).willReturn(true);
 
     // when: Creamos el AreaTematica
     // then: Lanza una excepcion porque hay otro AreaTematica con ese nombre
@@ -227,12 +223,11 @@ public class AreaTematicaServiceTest extends BaseServiceTest {
     // given: Un nuevo AreaTematica con una descripcion que ya existe
     AreaTematica areaTematicaNew = generarMockAreaTematica(null, "A-003", "descripcionRepetida", 1L);
     AreaTematica areaTematica = generarMockAreaTematica(1L, "nombrePadre", "descripcionPadre", null);
-    AreaTematica areaTematicaHijo = generarMockAreaTematica(2L, "A-002", "descripcionRepetida", 1L);
 
     BDDMockito.given(repository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.of(areaTematica));
-    // se llama dos veces, primero para el nombre y luego la descripción
-    BDDMockito.given(repository.findByPadreIdInAndActivoIsTrue(ArgumentMatchers.<Long>anyList()))
-        .willReturn(new ArrayList<>()).willReturn(Arrays.asList(areaTematicaHijo));
+    // primero se comprueba el nombre y luego la descripción
+    BDDMockito.given(repository.existsActivoInGrupoWithNombre(1L, "A-003", null)).willReturn(false);
+    BDDMockito.given(repository.existsActivoInGrupoWithDescripcion(1L, "descripcionRepetida", null)).willReturn(true);
 
     // when: Creamos el AreaTematica
     // then: Lanza una excepcion porque hay otro AreaTematica con ese nombre
@@ -282,8 +277,6 @@ public class AreaTematicaServiceTest extends BaseServiceTest {
 
     BDDMockito.given(repository.findById(2L)).willReturn(Optional.of(areaTematica));
     BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(generarMockAreaTematica(1L)));
-    BDDMockito.given(repository.findByPadreIdInAndActivoIsTrue(ArgumentMatchers.<Long>anyList()))
-        .willReturn(new ArrayList<>());
 
     BDDMockito.given(repository.save(ArgumentMatchers.<AreaTematica>any()))
         .will((InvocationOnMock invocation) -> invocation.getArgument(0));
@@ -301,6 +294,32 @@ public class AreaTematicaServiceTest extends BaseServiceTest {
     Assertions.assertThat(areaTematicaActualizado.getActivo()).as("getActivo()").isEqualTo(areaTematica.getActivo());
   }
 
+  @Test
+  public void update_WithPadreOtroGrupo_MovesSubarbol() {
+    // given: Un AreaTematica con un hijo que se mueve a otro grupo
+    AreaTematica areaTematica = generarMockAreaTematica(3L, "A-003", "Descripcion-3", 1L);
+    AreaTematica areaTematicaHijo = generarMockAreaTematica(4L, "A-004", "Descripcion-4", 3L);
+    areaTematicaHijo.setRaizId(1L);
+    AreaTematica areaTematicaActualizado = generarMockAreaTematica(3L, "A-003", "Descripcion-3", 2L);
+
+    BDDMockito.given(repository.findById(3L)).willReturn(Optional.of(areaTematica));
+    BDDMockito.given(repository.findById(2L)).willReturn(Optional.of(generarMockAreaTematica(2L)));
+    BDDMockito.given(repository.findByPadreIdIn(Arrays.asList(3L))).willReturn(Arrays.asList(areaTematicaHijo));
+    BDDMockito.given(repository.findByPadreIdIn(Arrays.asList(4L))).willReturn(new ArrayList<>());
+    BDDMockito.given(repository.saveAll(ArgumentMatchers.<AreaTematica>anyList()))
+        .will((InvocationOnMock invocation) -> invocation.getArgument(0));
+    BDDMockito.given(repository.save(ArgumentMatchers.<AreaTematica>any()))
+        .will((InvocationOnMock invocation) -> invocation.getArgument(0));
+
+    // when: Actualizamos el AreaTematica
+    AreaTematica areaTematicaMovido = service.update(areaTematicaActualizado);
+
+    // then: El AreaTematica y sus descendientes pasan al nuevo grupo
+    Assertions.assertThat(areaTematicaMovido.getPadre().getId()).as("getPadre().getId()").isEqualTo(2L);
+    Assertions.assertThat(areaTematicaMovido.getRaizId()).as("getRaizId()").isEqualTo(2L);
+    Assertions.assertThat(areaTematicaHijo.getRaizId()).as("hijo.getRaizId()").isEqualTo(2L);
+  }
+
   @Test
   public void update_GrupoWithDuplicatedNombre_ThrowsIllegalArgumentException() {
     // given: Un AreaTematica (grupo) actualizado con un nombre que ya existe
@@ -398,13 +417,11 @@ public class AreaTematicaServiceTest extends BaseServiceTest {
     // given: Un AreaTematica actualizado con un nombre que ya existe
     AreaTematica areaTematicaActualizado = generarMockAreaTematica(3L, "A-002", "Descripcion-3", 1L);
     AreaTematica areaTematica = generarMockAreaTematica(1L, "nombreRepetidoPadre", "DescripcionPadre", null);
-    AreaTematica areaTematicaHijo = generarMockAreaTematica(2L, "A-002", "Descripcion-2", 1L);
 
     BDDMockito.given(repository.findById(3L)).willReturn(Optional.of(areaTematicaActualizado));
     BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(areaTematica));
 
-    BDDMockito.given(repository.findByPadreIdInAndActivoIsTrue(ArgumentMatchers.<Long>anyList()))
-        .willReturn(Arrays.asList(areaTematicaHijo));
+    BDDMockito.given(repository.existsActivoInGrupoWithNombre(1L, "A-002", 3L)).willReturn(true);
 
     // when: Actualizamos el AreaTematica
     // then: Lanza una excepcion porque hay otro AreaTematica con ese nombre
@@ -418,13 +435,13 @@ public class AreaTematicaServiceTest extends BaseServiceTest {
     // given: Un AreaTematica actualizado con una descripcion que ya existe
     AreaTematica areaTematicaActualizado = generarMockAreaTematica(3L, "A-003", "DescripcionRepetida", 1L);
     AreaTematica areaTematica = generarMockAreaTematica(1L, "nombrePadre", "DescripcionPadre", null);
-    AreaTematica areaTematicaHijo = generarMockAreaTematica(2L, "A-002", "DescripcionRepetida", 1L);
 
     BDDMockito.given(repository.findById(3L)).willReturn(Optional.of(areaTematicaActualizado));
     BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(areaTematica));
 
-    BDDMockito.given(repository.findByPadreIdInAndActivoIsTrue(ArgumentMatchers.<Long>anyList()))
-        .willReturn(new ArrayList<>()).willReturn(Arrays.asList(areaTematicaHijo));
+    // primero se comprueba el nombre y luego la descripción
+    BDDMockito.given(repository.existsActivoInGrupoWithNombre(1L, "A-003", 3L)).willReturn(false);
+    BDDMockito.given(repository.existsActivoInGrupoWithDescripcion(1L, "DescripcionRepetida", 3L)).willReturn(true);
 
     // when: Actualizamos el AreaTematica
     // then: Lanza una excepcion porque hay otro AreaTematica con esa descripcion
@@ -783,6 +800,7 @@ public class AreaTematicaServiceTest extends BaseServiceTest {
 
     if (idAreaTematicaPadre != null) {
       areaTematica.setPadre(generarMockAreaTematica(idAreaTematicaPadre));
+      areaTematica.setRaizId(idAreaTematicaPadre);
     }
     areaTematica.setActivo(true);
 
@@ -3,6 +3,7 @@ package org.crue.hercules.sgi.csp.service;
 import java.time.Instant;
 import java.time.Period;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -297,6 +298,65 @@ public class ConvocatoriaConceptoGastoCodigoEcServiceTest extends BaseServiceTes
         .doesNotThrowAnyException();
   }
 
+  @Test
+  public void updateList_DuplicatedCodigoOverlapsDates_ThrowsIllegalArgumentException() {
+    // given: dos ConvocatoriaConceptoGastoCodigoEc con el mismo codigo y fechas
+    // solapadas
+    Long convocatoriaConceptoGastoId = 1L;
+    ConvocatoriaConceptoGasto convocatoriaConceptoGasto = generarMockConvocatoriaConceptoGasto(
+        convocatoriaConceptoGastoId);
+    ConvocatoriaConceptoGastoCodigoEc convocatoriaConceptoGastoCodigoEc1 = generarMockConvocatoriaConceptoGastoCodigoEc(
+        null);
+    ConvocatoriaConceptoGastoCodigoEc convocatoriaConceptoGastoCodigoEc2 = generarMockConvocatoriaConceptoGastoCodigoEc(
+        null);
+
+    BDDMockito.given(convocatoriaConceptoGastoRepository.findById(convocatoriaConceptoGastoId))
+        .willReturn(Optional.of(convocatoriaConceptoGasto));
+    BDDMockito.given(repository.findAllByConvocatoriaConceptoGastoId(convocatoriaConceptoGastoId))
+        .willReturn(new ArrayList<>());
+
+    Assertions.assertThatThrownBy(
+        // when: update lista ConvocatoriaConceptoGastoCodigoEc
+        () -> service.update(convocatoriaConceptoGastoId,
+            new ArrayList<>(Arrays.asList(convocatoriaConceptoGastoCodigoEc1, convocatoriaConceptoGastoCodigoEc2))))
+        // then: throw exception as Codigo exists and dates overlaps
+        .isInstanceOf(IllegalArgumentException.class).hasMessage(
+            "El código económico '%s' ya está presente y tiene un periodo de vigencia que se solapa con el indicado",
+            convocatoriaConceptoGastoCodigoEc1.getCodigoEconomicoRef());
+  }
+
+  @Test
+  public void updateList_DuplicatedCodigoNotOverlapsDates_ReturnsConvocatoriaConceptoGastoCodigoEcList() {
+    // given: dos ConvocatoriaConceptoGastoCodigoEc con el mismo codigo y fechas
+    // consecutivas
+    Long convocatoriaConceptoGastoId = 1L;
+    ConvocatoriaConceptoGasto convocatoriaConceptoGasto = generarMockConvocatoriaConceptoGasto(
+        convocatoriaConceptoGastoId);
+    ConvocatoriaConceptoGastoCodigoEc convocatoriaConceptoGastoCodigoEc1 = generarMockConvocatoriaConceptoGastoCodigoEc(
+        null);
+    convocatoriaConceptoGastoCodigoEc1.setFechaInicio(Instant.parse("2021-01-01T00:00:00Z"));
+    convocatoriaConceptoGastoCodigoEc1.setFechaFin(Instant.parse("2021-06-30T23:59:59Z"));
+    ConvocatoriaConceptoGastoCodigoEc convocatoriaConceptoGastoCodigoEc2 = generarMockConvocatoriaConceptoGastoCodigoEc(
+        null);
+    convocatoriaConceptoGastoCodigoEc2.setFechaInicio(Instant.parse("2021-07-01T00:00:00Z"));
+    convocatoriaConceptoGastoCodigoEc2.setFechaFin(Instant.parse("2021-12-31T23:59:59Z"));
+
+    BDDMockito.given(convocatoriaConceptoGastoRepository.findById(convocatoriaConceptoGastoId))
+        .willReturn(Optional.of(convocatoriaConceptoGasto));
+    BDDMockito.given(repository.findAllByConvocatoriaConceptoGastoId(convocatoriaConceptoGastoId))
+        .willReturn(new ArrayList<>());
+    BDDMockito.given(repository.saveAll(ArgumentMatchers.<ConvocatoriaConceptoGastoCodigoEc>anyList()))
+        .will((InvocationOnMock invocation) -> invocation.getArgument(0));
+
+    // when: update lista ConvocatoriaConceptoGastoCodigoEc
+    List<ConvocatoriaConceptoGastoCodigoEc> updated = service.update(convocatoriaConceptoGastoId,
+        new ArrayList<>(Arrays.asList(convocatoriaConceptoGastoCodigoEc2, convocatoriaConceptoGastoCodigoEc1)));
+
+    // then: se guardan ordenados por fecha de inicio
+    Assertions.assertThat(updated).as("updated").containsExactly(convocatoriaConceptoGastoCodigoEc1,
+        convocatoriaConceptoGastoCodigoEc2);
+  }
+
   @Test
   public void delete_WithExistingId_NoReturnsAnyException() {
     // given: existing convocatoriaConceptoGasto
@@ -429,7 +429,9 @@ public class ConvocatoriaFaseServiceTest extends BaseServiceTest {
         repository.findAll(ArgumentMatchers.<Specification<ConvocatoriaFase>>any(), ArgumentMatchers.<Pageable>any()))
         .willAnswer((InvocationOnMock invocation) -> {
           Pageable pageable = invocation.getArgument(1, Pageable.class);
-          Page<ConvocatoriaFase> page = new PageImpl<>(Arrays.asList(generarMockConvocatoriaFase(1L)), pageable, 0);
+          ConvocatoriaFase convocatoriaFaseSolapada = generarMockConvocatoriaFase(2L);
+          convocatoriaFaseSolapada.setTipoFase(generarMockTipoFase(2L, Boolean.TRUE));
+          Page<ConvocatoriaFase> page = new PageImpl<>(Arrays.asList(convocatoriaFaseSolapada), pageable, 0);
           return page;
 
         });
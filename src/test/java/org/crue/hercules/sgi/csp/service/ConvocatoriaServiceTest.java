@@ -1,13 +1,18 @@
 package org.crue.hercules.sgi.csp.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 
 import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaCapacidades;
+import org.crue.hercules.sgi.csp.dto.ConvocatoriaDossier;
 import org.crue.hercules.sgi.csp.enums.ClasificacionCVN;
 import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
 import org.crue.hercules.sgi.csp.exceptions.ConfiguracionSolicitudNotFoundException;
@@ -15,6 +20,7 @@ import org.crue.hercules.sgi.csp.exceptions.ConvocatoriaNotFoundException;
 import org.crue.hercules.sgi.csp.model.ConfiguracionSolicitud;
 import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaFase;
+import org.crue.hercules.sgi.csp.model.ConvocatoriaHito;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaPeriodoJustificacion;
 import org.crue.hercules.sgi.csp.model.ConvocatoriaPeriodoSeguimientoCientifico;
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
@@ -33,11 +39,17 @@ import org.crue.hercules.sgi.csp.repository.ModeloUnidadRepository;
 import org.crue.hercules.sgi.csp.repository.TipoAmbitoGeograficoRepository;
 import org.crue.hercules.sgi.csp.repository.TipoRegimenConcurrenciaRepository;
 import org.crue.hercules.sgi.csp.service.impl.ConvocatoriaServiceImpl;
+import org.crue.hercules.sgi.csp.util.KeysetCursor;
+import org.crue.hercules.sgi.csp.util.KeysetSlice;
+import org.crue.hercules.sgi.csp.util.TotalCountCache;
+import org.crue.hercules.sgi.csp.util.VersionedCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.beans.BeanUtils;
@@ -45,6 +57,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.test.context.support.WithMockUser;
 
@@ -74,7 +87,8 @@ public class ConvocatoriaServiceTest extends BaseServiceTest {
     service = new ConvocatoriaServiceImpl(repository, convocatoriaPeriodoJustificacionRepository,
         modeloUnidadRepository, modeloTipoFinalidadRepository, tipoRegimenConcurrenciaRepository,
         tipoAmbitoGeograficoRepository, convocatoriaPeriodoSeguimientoCientificoRepository,
-        configuracionSolicitudRepository);
+        configuracionSolicitudRepository, new TotalCountCache(Duration.ofMinutes(1), 100),
+        new VersionedCache<>(Duration.ofMinutes(1), 100));
   }
 
   @Test
@@ -2863,6 +2877,62 @@ public class ConvocatoriaServiceTest extends BaseServiceTest {
         .isInstanceOf(ConvocatoriaNotFoundException.class);
   }
 
+  @Test
+  public void findDossier_WithSameVersion_LoadsDossierOnce() {
+    // given: existing Convocatoria with one ConvocatoriaHito
+    Convocatoria convocatoria = generarMockConvocatoria(1L, 1L, 1L, 1L, 1L, 1L, Boolean.TRUE);
+    List<ConvocatoriaHito> convocatoriaHitos = Arrays
+        .asList(ConvocatoriaHito.builder().id(1L).convocatoriaId(convocatoria.getId()).build());
+    BDDMockito.given(repository.getVersion(1L)).willReturn(Optional.of(3L));
+    BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(convocatoria));
+    BDDMockito.given(repository.findAllRelacionados(ArgumentMatchers.any(), ArgumentMatchers.eq(1L)))
+        .willAnswer((InvocationOnMock invocation) -> ConvocatoriaHito.class.equals(invocation.getArgument(0))
+            ? convocatoriaHitos
+            : Collections.emptyList());
+
+    // when: find dossier twice without changes in between
+    ConvocatoriaDossier primero = service.findDossier(1L);
+    ConvocatoriaDossier segundo = service.findDossier(1L);
+
+    // then: the second dossier is the cached one and the data is loaded only once
+    Assertions.assertThat(primero.getConvocatoria()).isEqualTo(convocatoria);
+    Assertions.assertThat(primero.getConvocatoriaHitos()).isEqualTo(convocatoriaHitos);
+    Assertions.assertThat(primero.getConfiguracionSolicitud()).isNull();
+    Assertions.assertThat(segundo).isSameAs(primero);
+    Mockito.verify(repository, Mockito.times(2)).getVersion(1L);
+    Mockito.verify(repository, Mockito.times(1)).findById(1L);
+    Mockito.verify(repository, Mockito.times(1)).findAllRelacionados(ConvocatoriaHito.class, 1L);
+  }
+
+  @Test
+  public void findDossier_WithNewVersion_ReloadsDossier() {
+    // given: existing Convocatoria modified between both calls
+    Convocatoria convocatoria = generarMockConvocatoria(1L, 1L, 1L, 1L, 1L, 1L, Boolean.TRUE);
+    BDDMockito.given(repository.getVersion(1L)).willReturn(Optional.of(3L), Optional.of(4L));
+    BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(convocatoria));
+
+    // when: find dossier before and after the change
+    ConvocatoriaDossier primero = service.findDossier(1L);
+    ConvocatoriaDossier segundo = service.findDossier(1L);
+
+    // then: the dossier is loaded again
+    Assertions.assertThat(segundo).isNotSameAs(primero);
+    Mockito.verify(repository, Mockito.times(2)).findById(1L);
+  }
+
+  @Test
+  public void findDossier_WithNoExistingId_ThrowsNotFoundException() {
+    // given: no existing id
+    BDDMockito.given(repository.getVersion(ArgumentMatchers.anyLong())).willReturn(Optional.empty());
+
+    Assertions.assertThatThrownBy(
+        // when: find dossier of non existing id
+        () -> service.findDossier(1L))
+        // then: NotFoundException is thrown
+        .isInstanceOf(ConvocatoriaNotFoundException.class);
+    Mockito.verify(repository, Mockito.never()).findById(ArgumentMatchers.anyLong());
+  }
+
   @Test
   public void findAll_WithPaging_ReturnsPage() {
     // given: One hundred Convocatoria
@@ -2908,6 +2978,45 @@ public class ConvocatoriaServiceTest extends BaseServiceTest {
     }
   }
 
+  @Test
+  public void findAll_WithCursor_ReturnsKeysetSliceWithoutCount() {
+    // given: ten Convocatoria and a next page
+    List<Convocatoria> convocatorias = new ArrayList<>();
+    for (long i = 1; i <= 10; i++) {
+      convocatorias.add(generarMockConvocatoria(i, 1L, 1L, 1L, 1L, 1L, Boolean.TRUE));
+    }
+    ArgumentCaptor<KeysetCursor> cursor = ArgumentCaptor.forClass(KeysetCursor.class);
+    BDDMockito
+        .given(repository.findAllKeyset(ArgumentMatchers.<Specification<Convocatoria>>any(), cursor.capture(),
+            ArgumentMatchers.eq(10)))
+        .willReturn(new KeysetSlice<>(convocatorias, "next-cursor"));
+
+    // when: get the first page sorted by fechaPublicacion desc
+    Pageable paging = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "fechaPublicacion"));
+    KeysetSlice<Convocatoria> slice = service.findAll(null, "", paging);
+
+    // then: the first page is requested with the sort of the paging
+    Assertions.assertThat(slice.getContent()).hasSize(10);
+    Assertions.assertThat(slice.getNextCursor()).isEqualTo("next-cursor");
+    Assertions.assertThat(cursor.getValue().isFirst()).isTrue();
+    Assertions.assertThat(cursor.getValue().getProperty()).isEqualTo("fechaPublicacion");
+    Assertions.assertThat(cursor.getValue().getDirection()).isEqualTo(Sort.Direction.DESC);
+    // and no page with count is requested
+    Mockito.verify(repository, Mockito.never()).findAll(ArgumentMatchers.<Specification<Convocatoria>>any(),
+        ArgumentMatchers.<Pageable>any());
+  }
+
+  @Test
+  public void findAll_WithCursorNoValido_ThrowsIllegalArgumentException() {
+    // given: a cursor that was not generated by the service
+    Pageable paging = PageRequest.of(0, 10);
+
+    // when: get the page after the cursor
+    // then: throws IllegalArgumentException
+    Assertions.assertThatThrownBy(() -> service.findAll(null, "no-valido", paging))
+        .isInstanceOf(IllegalArgumentException.class).hasMessage("Cursor no válido");
+  }
+
   @Test
   public void findAllTodos_WithPaging_ReturnsPage() {
     // given: One hundred Convocatoria
@@ -3046,6 +3155,40 @@ public class ConvocatoriaServiceTest extends BaseServiceTest {
     }
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-CONV-C" })
+  public void findCapacidades_ReturnsCapacidadesConConsultasPorLote() {
+    // given: una convocatoria en borrador registrable, una registrada con
+    // solicitudes y un id que no existe
+    Convocatoria borrador = generarMockConvocatoria(1L, 1L, 1L, 1L, 1L, 1L, Boolean.TRUE);
+    borrador.setEstado(Convocatoria.Estado.BORRADOR);
+    Convocatoria registrada = generarMockConvocatoria(2L, 1L, 1L, 1L, 1L, 1L, Boolean.TRUE);
+    BDDMockito.given(repository.findAllById(ArgumentMatchers.<Long>anyIterable()))
+        .willReturn(Arrays.asList(borrador, registrada));
+    BDDMockito.given(repository.findIdsRegistradasConSolicitudesOProyectos(ArgumentMatchers.anyCollection()))
+        .willReturn(Arrays.asList(2L));
+    BDDMockito.given(repository.findIdsConVinculaciones(ArgumentMatchers.anyCollection()))
+        .willReturn(Arrays.asList(2L));
+    BDDMockito.given(configuracionSolicitudRepository.findAllByConvocatoriaIdIn(ArgumentMatchers.anyCollection()))
+        .willReturn(Arrays.asList(generarMockConfiguracionSolicitud(1L, borrador, 1L)));
+
+    // when: se obtienen las capacidades
+    List<ConvocatoriaCapacidades> capacidades = service.findCapacidades(Arrays.asList(1L, 2L, 3L));
+
+    // then: se devuelven las capacidades de las convocatorias existentes, sin
+    // consultas por convocatoria
+    Assertions.assertThat(capacidades).extracting(ConvocatoriaCapacidades::getConvocatoriaId).containsExactly(1L,
+        2L);
+    Assertions.assertThat(capacidades).extracting(ConvocatoriaCapacidades::getModificable).containsExactly(true,
+        false);
+    Assertions.assertThat(capacidades).extracting(ConvocatoriaCapacidades::getRegistrable).containsExactly(true,
+        false);
+    Assertions.assertThat(capacidades).extracting(ConvocatoriaCapacidades::getVinculaciones).containsExactly(false,
+        true);
+    Mockito.verify(repository, Mockito.never()).findById(ArgumentMatchers.anyLong());
+    Mockito.verify(configuracionSolicitudRepository, Mockito.never()).findByConvocatoriaId(ArgumentMatchers.anyLong());
+  }
+
   /**
    * Función que genera Convocatoria
    * 
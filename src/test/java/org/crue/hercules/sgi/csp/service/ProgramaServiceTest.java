@@ -8,6 +8,8 @@ import java.util.Optional;
 import org.assertj.core.api.Assertions;
 import org.crue.hercules.sgi.csp.exceptions.ProgramaNotFoundException;
 import org.crue.hercules.sgi.csp.model.Programa;
+import org.crue.hercules.sgi.csp.model.ProgramaJerarquia;
+import org.crue.hercules.sgi.csp.repository.ProgramaJerarquiaRepository;
 import org.crue.hercules.sgi.csp.repository.ProgramaRepository;
 import org.crue.hercules.sgi.csp.service.impl.ProgramaServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.Page;
@@ -31,11 +34,14 @@ public class ProgramaServiceTest extends BaseServiceTest {
   @Mock
   private ProgramaRepository repository;
 
+  @Mock
+  private ProgramaJerarquiaRepository programaJerarquiaRepository;
+
   private ProgramaService service;
 
   @BeforeEach
   public void setUp() throws Exception {
-    service = new ProgramaServiceImpl(repository);
+    service = new ProgramaServiceImpl(repository, programaJerarquiaRepository);
   }
 
   @Test
@@ -74,8 +80,9 @@ public class ProgramaServiceTest extends BaseServiceTest {
     Programa programa = generarMockPrograma(null, "nombre-2", 1L);
 
     BDDMockito.given(repository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.of(generarMockPrograma(1L)));
-    BDDMockito.given(repository.findByPadreIdInAndActivoIsTrue(ArgumentMatchers.<Long>anyList()))
-        .willReturn(new ArrayList<>());
+    BDDMockito.given(programaJerarquiaRepository.findFirstByDescendienteIdOrderByProfundidadDesc(1L))
+        .willReturn(Optional.of(generarMockProgramaJerarquia(1L, 1L, 0)));
+    BDDMockito.given(repository.count(ArgumentMatchers.<Specification<Programa>>any())).willReturn(0L);
 
     BDDMockito.given(repository.save(programa)).will((InvocationOnMock invocation) -> {
       Programa programaCreado = invocation.getArgument(0);
@@ -142,11 +149,11 @@ public class ProgramaServiceTest extends BaseServiceTest {
     // given: Un nuevo Programa con un nombre que ya existe
     Programa programaNew = generarMockPrograma(null, "nombreRepetido", 1L);
     Programa programa = generarMockPrograma(1L, "nombreRepetidoPadre", null);
-    Programa programaHijo = generarMockPrograma(2L, "nombreRepetido", 1L);
 
     BDDMockito.given(repository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.of(programa));
-    BDDMockito.given(repository.findByPadreIdInAndActivoIsTrue(ArgumentMatchers.<Long>anyList()))
-        .willReturn(Arrays.asList(programaHijo));
+    BDDMockito.given(programaJerarquiaRepository.findFirstByDescendienteIdOrderByProfundidadDesc(1L))
+        .willReturn(Optional.of(generarMockProgramaJerarquia(1L, 1L, 0)));
+    BDDMockito.given(repository.count(ArgumentMatchers.<Specification<Programa>>any())).willReturn(1L);
 
     // when: Creamos el Programa
     // then: Lanza una excepcion porque hay otro Programa con ese nombre
@@ -194,8 +201,9 @@ public class ProgramaServiceTest extends BaseServiceTest {
 
     BDDMockito.given(repository.findById(2L)).willReturn(Optional.of(programa));
     BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(generarMockPrograma(1L)));
-    BDDMockito.given(repository.findByPadreIdInAndActivoIsTrue(ArgumentMatchers.<Long>anyList()))
-        .willReturn(new ArrayList<>());
+    BDDMockito.given(programaJerarquiaRepository.findFirstByDescendienteIdOrderByProfundidadDesc(1L))
+        .willReturn(Optional.of(generarMockProgramaJerarquia(1L, 1L, 0)));
+    BDDMockito.given(repository.count(ArgumentMatchers.<Specification<Programa>>any())).willReturn(0L);
 
     BDDMockito.given(repository.save(ArgumentMatchers.<Programa>any()))
         .will((InvocationOnMock invocation) -> invocation.getArgument(0));
@@ -213,6 +221,64 @@ public class ProgramaServiceTest extends BaseServiceTest {
     Assertions.assertThat(programaActualizado.getActivo()).as("getActivo()").isEqualTo(programa.getActivo());
   }
 
+  @Test
+  public void update_WithNuevoPadre_MovesJerarquia() {
+    // given: Un Programa (3) con un descendiente (5) que pasa del padre 1 al
+    // padre 2, que a su vez es hijo de 1
+    Programa programa = generarMockPrograma(3L, "Nombre", 1L);
+    Programa programaPadreActualizado = generarMockPrograma(3L, "Nombre", 2L);
+
+    BDDMockito.given(repository.findById(3L)).willReturn(Optional.of(programa));
+    BDDMockito.given(repository.findById(2L)).willReturn(Optional.of(generarMockPrograma(2L, "nombre-2", 1L)));
+    BDDMockito.given(programaJerarquiaRepository.findFirstByDescendienteIdOrderByProfundidadDesc(2L))
+        .willReturn(Optional.of(generarMockProgramaJerarquia(1L, 2L, 1)));
+    BDDMockito.given(repository.count(ArgumentMatchers.<Specification<Programa>>any())).willReturn(0L);
+    BDDMockito.given(repository.save(ArgumentMatchers.<Programa>any()))
+        .will((InvocationOnMock invocation) -> invocation.getArgument(0));
+
+    BDDMockito.given(programaJerarquiaRepository.findByAncestroId(3L)).willReturn(
+        Arrays.asList(generarMockProgramaJerarquia(3L, 3L, 0), generarMockProgramaJerarquia(3L, 5L, 1)));
+    BDDMockito.given(programaJerarquiaRepository.findByDescendienteId(3L)).willReturn(
+        Arrays.asList(generarMockProgramaJerarquia(3L, 3L, 0), generarMockProgramaJerarquia(1L, 3L, 1)));
+    BDDMockito.given(programaJerarquiaRepository.findByDescendienteId(2L)).willReturn(
+        Arrays.asList(generarMockProgramaJerarquia(2L, 2L, 0), generarMockProgramaJerarquia(1L, 2L, 1)));
+
+    // when: Actualizamos el Programa
+    Programa programaActualizado = service.update(programaPadreActualizado);
+
+    // then: Se sustituyen las relaciones del subarbol con los ancestros
+    // anteriores por las relaciones con los ancestros del nuevo padre
+    Assertions.assertThat(programaActualizado.getPadre().getId()).as("getPadre().getId()").isEqualTo(2L);
+    Mockito.verify(programaJerarquiaRepository, Mockito.times(1))
+        .deleteByAncestroIdInAndDescendienteIdIn(Arrays.asList(1L), Arrays.asList(3L, 5L));
+    Mockito.verify(programaJerarquiaRepository, Mockito.times(1)).saveAll(Arrays.asList(
+        generarMockProgramaJerarquia(2L, 3L, 1), generarMockProgramaJerarquia(2L, 5L, 2),
+        generarMockProgramaJerarquia(1L, 3L, 2), generarMockProgramaJerarquia(1L, 5L, 3)));
+  }
+
+  @Test
+  public void update_WithPadreDescendiente_ThrowsIllegalArgumentException() {
+    // given: Un Programa (3) al que se le asigna como padre uno de sus
+    // descendientes (5)
+    Programa programa = generarMockPrograma(3L, "Nombre", 1L);
+    Programa programaPadreActualizado = generarMockPrograma(3L, "Nombre", 5L);
+
+    BDDMockito.given(repository.findById(3L)).willReturn(Optional.of(programa));
+    BDDMockito.given(repository.findById(5L)).willReturn(Optional.of(generarMockPrograma(5L, "nombre-5", 3L)));
+    BDDMockito.given(programaJerarquiaRepository.findFirstByDescendienteIdOrderByProfundidadDesc(5L))
+        .willReturn(Optional.of(generarMockProgramaJerarquia(1L, 5L, 2)));
+    BDDMockito.given(repository.count(ArgumentMatchers.<Specification<Programa>>any())).willReturn(0L);
+    BDDMockito.given(repository.save(ArgumentMatchers.<Programa>any()))
+        .will((InvocationOnMock invocation) -> invocation.getArgument(0));
+    BDDMockito.given(programaJerarquiaRepository.existsByAncestroIdAndDescendienteId(3L, 5L)).willReturn(true);
+
+    // when: Actualizamos el Programa
+    // then: Lanza una excepcion porque se crearia un ciclo en el arbol
+    Assertions.assertThatThrownBy(() -> service.update(programaPadreActualizado))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("El programa padre no puede ser el propio programa ni uno de sus descendientes");
+  }
+
   @Test
   public void update_PlanWithDuplicatedNombre_ThrowsIllegalArgumentException() {
     // given: Un Programa actualizado con un nombre que ya existe
@@ -239,13 +305,13 @@ public class ProgramaServiceTest extends BaseServiceTest {
     // given: Un Programa actualizado con un nombre que ya existe
     Programa programaActualizado = generarMockPrograma(3L, "nombreRepetido", 1L);
     Programa programa = generarMockPrograma(1L, "nombreRepetidoPadre", null);
-    Programa programaHijo = generarMockPrograma(2L, "nombreRepetido", 1L);
 
     BDDMockito.given(repository.findById(3L)).willReturn(Optional.of(programaActualizado));
     BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(programa));
 
-    BDDMockito.given(repository.findByPadreIdInAndActivoIsTrue(ArgumentMatchers.<Long>anyList()))
-        .willReturn(Arrays.asList(programaHijo));
+    BDDMockito.given(programaJerarquiaRepository.findFirstByDescendienteIdOrderByProfundidadDesc(1L))
+        .willReturn(Optional.of(generarMockProgramaJerarquia(1L, 1L, 0)));
+    BDDMockito.given(repository.count(ArgumentMatchers.<Specification<Programa>>any())).willReturn(1L);
 
     // when: Actualizamos el Programa
     // then: Lanza una excepcion porque hay otro Programa con ese nombre
@@ -591,4 +657,16 @@ public class ProgramaServiceTest extends BaseServiceTest {
     return programa;
   }
 
+  /**
+   * Función que devuelve un objeto ProgramaJerarquia
+   * 
+   * @param ancestroId     id del Programa ancestro
+   * @param descendienteId id del Programa descendiente
+   * @param profundidad    niveles entre ancestro y descendiente
+   * @return el objeto ProgramaJerarquia
+   */
+  private ProgramaJerarquia generarMockProgramaJerarquia(Long ancestroId, Long descendienteId, Integer profundidad) {
+    return new ProgramaJerarquia(ancestroId, descendienteId, profundidad);
+  }
+
 }
@@ -0,0 +1,375 @@
+package org.crue.hercules.sgi.csp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.exceptions.ProyectoJobNotFoundException;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoJob;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.repository.ProyectoJobRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudRepository;
+import org.crue.hercules.sgi.csp.service.impl.ProyectoJobServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * ProyectoJobServiceTest
+ */
+public class ProyectoJobServiceTest extends BaseServiceTest {
+
+  @Mock
+  private ProyectoJobRepository repository;
+  @Mock
+  private SolicitudRepository solicitudRepository;
+  @Mock
+  private ProyectoRepository proyectoRepository;
+  @Mock
+  private ProyectoService proyectoService;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private ProyectoJobService service;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    // El executor síncrono ejecuta el trabajo en el propio hilo del test
+    service = new ProyectoJobServiceImpl(repository, solicitudRepository, proyectoRepository, proyectoService,
+        new ObjectMapper().findAndRegisterModules(), new SyncTaskExecutor(), transactionManager, Duration.ofMinutes(30));
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C_OPE" })
+  public void create_ExecutesJobWithUnidadGestionAuthority() {
+    // given: una solicitud de la unidad OPE
+    Long solicitudId = 1L;
+    Proyecto proyecto = generarMockProyecto();
+    BDDMockito.given(solicitudRepository.findById(solicitudId)).willReturn(Optional.of(generarMockSolicitud()));
+    List<ProyectoJob.Estado> estados = mockRepositorySave();
+    mockReservarEjecucion(estados, 1);
+    mockRenovarEjecucion(1);
+    mockFinalizarEjecucion(estados, 1);
+
+    List<String> authorities = new ArrayList<>();
+    BDDMockito.given(proyectoService.createProyectoBySolicitud(ArgumentMatchers.eq(solicitudId),
+        ArgumentMatchers.<Proyecto>any())).willAnswer((InvocationOnMock invocation) -> {
+          SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+              .map(GrantedAuthority::getAuthority).forEach(authorities::add);
+          Proyecto proyectoCreado = invocation.getArgument(1);
+          Assertions.assertThat(proyectoCreado.getObservaciones()).isEqualTo(proyecto.getObservaciones());
+          proyectoCreado.setId(10L);
+          return proyectoCreado;
+        });
+
+    // when: se registra el trabajo
+    ProyectoJob proyectoJob = service.create(solicitudId, proyecto);
+
+    // then: el trabajo pasa por todos los estados y guarda el proyecto creado
+    Assertions.assertThat(estados).containsExactly(ProyectoJob.Estado.PENDIENTE, ProyectoJob.Estado.EN_CURSO,
+        ProyectoJob.Estado.COMPLETADO);
+    Assertions.assertThat(proyectoJob.getProyectoId()).isEqualTo(10L);
+    Assertions.assertThat(proyectoJob.getUsuarioRef()).isEqualTo("user");
+    Assertions.assertThat(proyectoJob.getFechaInicio()).isNotNull();
+    Assertions.assertThat(proyectoJob.getFechaFin()).isNotNull();
+    // y se ejecuta solo con la autoridad de creación en la unidad de la solicitud
+    Assertions.assertThat(authorities).containsExactly("CSP-PRO-C_OPE");
+    Assertions.assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("user");
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C_OPE" })
+  public void create_WithErrorCreandoProyecto_SavesError() {
+    // given: una solicitud cuyo proyecto no se puede crear
+    Long solicitudId = 1L;
+    BDDMockito.given(solicitudRepository.findById(solicitudId)).willReturn(Optional.of(generarMockSolicitud()));
+    List<ProyectoJob.Estado> estados = mockRepositorySave();
+    mockReservarEjecucion(estados, 1);
+    mockRenovarEjecucion(1);
+    mockFinalizarEjecucion(estados, 1);
+    BDDMockito
+        .given(proyectoService.createProyectoBySolicitud(ArgumentMatchers.eq(solicitudId),
+            ArgumentMatchers.<Proyecto>any()))
+        .willThrow(new IllegalArgumentException("La solicitud no está en estado concedida"));
+
+    // when: se registra el trabajo
+    ProyectoJob proyectoJob = service.create(solicitudId, generarMockProyecto());
+
+    // then: el trabajo termina con el error
+    Assertions.assertThat(estados).containsExactly(ProyectoJob.Estado.PENDIENTE, ProyectoJob.Estado.EN_CURSO,
+        ProyectoJob.Estado.ERROR);
+    Assertions.assertThat(proyectoJob.getProyectoId()).isNull();
+    Assertions.assertThat(proyectoJob.getError()).isEqualTo("La solicitud no está en estado concedida");
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-C_OTRA" })
+  public void create_WithUnidadGestionNoGestionable_ThrowsIllegalArgumentException() {
+    // given: una solicitud de una unidad que el usuario no gestiona
+    BDDMockito.given(solicitudRepository.findById(1L)).willReturn(Optional.of(generarMockSolicitud()));
+
+    // when: se registra el trabajo
+    // then: se lanza un error y no se guarda nada
+    Assertions.assertThatThrownBy(() -> service.create(1L, generarMockProyecto()))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("La Unidad de Gestión no es gestionable por el usuario");
+    Mockito.verify(repository, Mockito.never()).save(ArgumentMatchers.<ProyectoJob>any());
+  }
+
+  @Test
+  public void reanudarPendientes_WithProyectoYaCreado_CompletesWithoutCreatingProyecto() throws Exception {
+    // given: un trabajo interrumpido en curso cuyo proyecto sí se llegó a crear
+    ProyectoJob proyectoJob = generarMockProyectoJob(1L, ProyectoJob.Estado.EN_CURSO);
+    BDDMockito.given(repository.findAllByEstadoIn(ArgumentMatchers.anyCollection()))
+        .willReturn(Arrays.asList(proyectoJob));
+    BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(proyectoJob));
+    Proyecto proyecto = generarMockProyecto();
+    proyecto.setId(10L);
+    BDDMockito.given(proyectoRepository.findBySolicitudId(proyectoJob.getSolicitudId()))
+        .willReturn(Optional.of(proyecto));
+    List<ProyectoJob.Estado> estados = new ArrayList<>();
+    mockReservarEjecucion(estados, 1);
+    mockRenovarEjecucion(1);
+    mockFinalizarEjecucion(estados, 1);
+
+    // when: se reanudan los trabajos pendientes
+    service.reanudarPendientes();
+
+    // then: el trabajo se reserva y se completa con el proyecto existente
+    Assertions.assertThat(estados).containsExactly(ProyectoJob.Estado.EN_CURSO, ProyectoJob.Estado.COMPLETADO);
+    Assertions.assertThat(proyectoJob.getProyectoId()).isEqualTo(10L);
+    Mockito.verify(proyectoService, Mockito.never()).createProyectoBySolicitud(ArgumentMatchers.anyLong(),
+        ArgumentMatchers.<Proyecto>any());
+  }
+
+  @Test
+  public void reanudarPendientes_WithColaLlena_SavesErrorInNuevaTransaccion() throws Exception {
+    // given: un trabajo pendiente y un executor que rechaza los trabajos
+    TaskExecutor executorLleno = task -> {
+      throw new TaskRejectedException("cola llena");
+    };
+    service = new ProyectoJobServiceImpl(repository, solicitudRepository, proyectoRepository, proyectoService,
+        new ObjectMapper().findAndRegisterModules(), executorLleno, transactionManager, Duration.ofMinutes(30));
+    ProyectoJob proyectoJob = generarMockProyectoJob(1L, ProyectoJob.Estado.PENDIENTE);
+    BDDMockito.given(repository.findAllByEstadoIn(ArgumentMatchers.anyCollection()))
+        .willReturn(Arrays.asList(proyectoJob));
+    BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(proyectoJob));
+    List<ProyectoJob.Estado> estados = new ArrayList<>();
+    mockReservarEjecucion(estados, 1);
+    mockFinalizarEjecucion(estados, 1);
+
+    // when: se reanudan los trabajos pendientes
+    service.reanudarPendientes();
+
+    // then: el trabajo se reserva y se marca como erróneo, cada cambio en una
+    // transacción nueva
+    Assertions.assertThat(estados).containsExactly(ProyectoJob.Estado.EN_CURSO, ProyectoJob.Estado.ERROR);
+    Assertions.assertThat(proyectoJob.getError()).startsWith("No se ha podido encolar el trabajo");
+    Mockito.verify(transactionManager, Mockito.times(2)).getTransaction(ArgumentMatchers
+        .<TransactionDefinition>argThat(
+            definition -> definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    Mockito.verify(transactionManager, Mockito.times(2)).commit(ArgumentMatchers.any());
+  }
+
+  @Test
+  public void reanudarPendientes_WithJobReservadoPorOtraInstancia_DoesNotExecuteJob() throws Exception {
+    // given: un trabajo pendiente que otra instancia reserva antes
+    ProyectoJob proyectoJob = generarMockProyectoJob(1L, ProyectoJob.Estado.PENDIENTE);
+    BDDMockito.given(repository.findAllByEstadoIn(ArgumentMatchers.anyCollection()))
+        .willReturn(Arrays.asList(proyectoJob));
+    mockReservarEjecucion(new ArrayList<>(), 0);
+
+    // when: se reanudan los trabajos pendientes
+    service.reanudarPendientes();
+
+    // then: el trabajo no se ejecuta ni se modifica
+    Mockito.verify(proyectoService, Mockito.never()).createProyectoBySolicitud(ArgumentMatchers.anyLong(),
+        ArgumentMatchers.<Proyecto>any());
+    Mockito.verify(repository, Mockito.never()).save(ArgumentMatchers.<ProyectoJob>any());
+    Mockito.verify(repository, Mockito.never()).finalizarEjecucion(ArgumentMatchers.anyLong(),
+        ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+        ArgumentMatchers.any(), ArgumentMatchers.any());
+  }
+
+  @Test
+  public void reanudarPendientes_WithJobReservadoPorOtraInstanciaMientrasEsperaba_DoesNotExecuteJob()
+      throws Exception {
+    // given: un trabajo pendiente que otra instancia reserva mientras espera en la
+    // cola
+    ProyectoJob proyectoJob = generarMockProyectoJob(1L, ProyectoJob.Estado.PENDIENTE);
+    BDDMockito.given(repository.findAllByEstadoIn(ArgumentMatchers.anyCollection()))
+        .willReturn(Arrays.asList(proyectoJob));
+    BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(proyectoJob));
+    mockReservarEjecucion(new ArrayList<>(), 1);
+    mockRenovarEjecucion(0);
+
+    // when: se reanudan los trabajos pendientes
+    service.reanudarPendientes();
+
+    // then: al empezar la ejecución el trabajo no se ejecuta ni se modifica
+    Mockito.verify(proyectoService, Mockito.never()).createProyectoBySolicitud(ArgumentMatchers.anyLong(),
+        ArgumentMatchers.<Proyecto>any());
+    Mockito.verify(repository, Mockito.never()).finalizarEjecucion(ArgumentMatchers.anyLong(),
+        ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+        ArgumentMatchers.any(), ArgumentMatchers.any());
+  }
+
+  @Test
+  public void renovarReservas_WithJobEncolado_RenewsReservaUntilOtraInstanciaLaReserva() throws Exception {
+    // given: un trabajo reservado que sigue esperando en la cola
+    List<Runnable> encolados = new ArrayList<>();
+    service = new ProyectoJobServiceImpl(repository, solicitudRepository, proyectoRepository, proyectoService,
+        new ObjectMapper().findAndRegisterModules(), encolados::add, transactionManager, Duration.ofMinutes(30));
+    ProyectoJob proyectoJob = generarMockProyectoJob(1L, ProyectoJob.Estado.PENDIENTE);
+    BDDMockito.given(repository.findAllByEstadoIn(ArgumentMatchers.anyCollection()))
+        .willReturn(Arrays.asList(proyectoJob));
+    List<String> reservas = new ArrayList<>();
+    BDDMockito
+        .given(repository.reservarEjecucion(ArgumentMatchers.eq(1L), ArgumentMatchers.anyString(),
+            ArgumentMatchers.eq(ProyectoJob.Estado.PENDIENTE), ArgumentMatchers.eq(ProyectoJob.Estado.EN_CURSO),
+            ArgumentMatchers.<Instant>any(), ArgumentMatchers.<Instant>any()))
+        .willAnswer((InvocationOnMock invocation) -> {
+          reservas.add(invocation.getArgument(1));
+          return 1;
+        });
+    BDDMockito.given(repository.renovarEjecucion(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString(),
+        ArgumentMatchers.eq(ProyectoJob.Estado.EN_CURSO), ArgumentMatchers.<Instant>any())).willReturn(1, 0);
+    service.reanudarPendientes();
+
+    // when: se renuevan las reservas tres veces y otra instancia reserva el
+    // trabajo tras la primera
+    service.renovarReservas();
+    service.renovarReservas();
+    service.renovarReservas();
+
+    // then: se renueva con la reserva del trabajo hasta que deja de tenerla
+    Assertions.assertThat(encolados).hasSize(1);
+    Mockito.verify(repository, Mockito.times(2)).renovarEjecucion(ArgumentMatchers.eq(1L),
+        ArgumentMatchers.eq(reservas.get(0)), ArgumentMatchers.eq(ProyectoJob.Estado.EN_CURSO),
+        ArgumentMatchers.<Instant>any());
+  }
+
+  @Test
+  public void findById_WithIdNotExist_ThrowsProyectoJobNotFoundException() throws Exception {
+    // given: no existe el trabajo
+    BDDMockito.given(repository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.empty());
+
+    // when: se busca el trabajo
+    // then: se lanza ProyectoJobNotFoundException
+    Assertions.assertThatThrownBy(() -> service.findById(1L)).isInstanceOf(ProyectoJobNotFoundException.class);
+  }
+
+  /**
+   * Simula el guardado de los {@link ProyectoJob}: asigna el id y devuelve la
+   * misma instancia, que también devuelve findById.
+   *
+   * @return los estados con los que se guarda el trabajo, en orden
+   */
+  private List<ProyectoJob.Estado> mockRepositorySave() {
+    List<ProyectoJob.Estado> estados = new ArrayList<>();
+    BDDMockito.given(repository.save(ArgumentMatchers.<ProyectoJob>any()))
+        .willAnswer((InvocationOnMock invocation) -> {
+          ProyectoJob proyectoJob = invocation.getArgument(0);
+          if (proyectoJob.getId() == null) {
+            proyectoJob.setId(1L);
+            BDDMockito.given(repository.findById(1L)).willReturn(Optional.of(proyectoJob));
+          }
+          estados.add(proyectoJob.getEstado());
+          return proyectoJob;
+        });
+    return estados;
+  }
+
+  /**
+   * Simula la reserva de los {@link ProyectoJob}: si se reserva, pasa a en curso
+   * la instancia que devuelve findById.
+   *
+   * @param estados      los estados con los que se guarda el trabajo, en orden
+   * @param actualizados filas que actualiza la reserva
+   */
+  private void mockReservarEjecucion(List<ProyectoJob.Estado> estados, int actualizados) {
+    BDDMockito
+        .given(repository.reservarEjecucion(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString(),
+            ArgumentMatchers.eq(ProyectoJob.Estado.PENDIENTE), ArgumentMatchers.eq(ProyectoJob.Estado.EN_CURSO),
+            ArgumentMatchers.<Instant>any(), ArgumentMatchers.<Instant>any()))
+        .willAnswer((InvocationOnMock invocation) -> {
+          if (actualizados > 0) {
+            ProyectoJob proyectoJob = repository.findById(invocation.getArgument(0)).get();
+            proyectoJob.setEstado(ProyectoJob.Estado.EN_CURSO);
+            proyectoJob.setReserva(invocation.getArgument(1));
+            proyectoJob.setFechaInicio(invocation.getArgument(4));
+            estados.add(proyectoJob.getEstado());
+          }
+          return actualizados;
+        });
+  }
+
+  /**
+   * Simula la renovación de la reserva de los {@link ProyectoJob} al empezar su
+   * ejecución.
+   *
+   * @param actualizados filas que actualiza la renovación
+   */
+  private void mockRenovarEjecucion(int actualizados) {
+    BDDMockito.given(repository.renovarEjecucion(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString(),
+        ArgumentMatchers.eq(ProyectoJob.Estado.EN_CURSO), ArgumentMatchers.<Instant>any())).willReturn(actualizados);
+  }
+
+  /**
+   * Simula el guardado del estado final de los {@link ProyectoJob}.
+   *
+   * @param estados      los estados con los que se guarda el trabajo, en orden
+   * @param actualizados filas que actualiza el guardado
+   */
+  private void mockFinalizarEjecucion(List<ProyectoJob.Estado> estados, int actualizados) {
+    BDDMockito
+        .given(repository.finalizarEjecucion(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString(),
+            ArgumentMatchers.eq(ProyectoJob.Estado.EN_CURSO), ArgumentMatchers.any(), ArgumentMatchers.any(),
+            ArgumentMatchers.any(), ArgumentMatchers.any()))
+        .willAnswer((InvocationOnMock invocation) -> {
+          estados.add(invocation.getArgument(3));
+          return actualizados;
+        });
+  }
+
+  private Solicitud generarMockSolicitud() {
+    Solicitud solicitud = new Solicitud();
+    solicitud.setId(1L);
+    solicitud.setUnidadGestionRef("OPE");
+    return solicitud;
+  }
+
+  private Proyecto generarMockProyecto() {
+    Proyecto proyecto = new Proyecto();
+    proyecto.setFechaInicio(Instant.parse("2021-01-01T00:00:00Z"));
+    proyecto.setFechaFin(Instant.parse("2021-12-31T23:59:59Z"));
+    proyecto.setObservaciones("observaciones");
+    return proyecto;
+  }
+
+  private ProyectoJob generarMockProyectoJob(Long id, ProyectoJob.Estado estado) {
+    return ProyectoJob.builder().id(id).solicitudId(1L).estado(estado).datos("{}").unidadGestionRef("OPE")
+        .usuarioRef("user").build();
+  }
+
+}
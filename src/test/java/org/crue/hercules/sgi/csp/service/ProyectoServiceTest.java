@@ -1,18 +1,26 @@
 package org.crue.hercules.sgi.csp.service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.Period;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
 import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.dto.ProyectoCapacidades;
+import org.crue.hercules.sgi.csp.dto.ProyectoDossier;
 import org.crue.hercules.sgi.csp.exceptions.ProyectoNotFoundException;
+import org.crue.hercules.sgi.csp.exceptions.VersionAgregadoMismatchException;
 import org.crue.hercules.sgi.csp.model.EstadoProyecto;
 import org.crue.hercules.sgi.csp.model.ModeloEjecucion;
 import org.crue.hercules.sgi.csp.model.ModeloUnidad;
 import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoHito;
 import org.crue.hercules.sgi.csp.model.TipoAmbitoGeografico;
 import org.crue.hercules.sgi.csp.model.TipoFinalidad;
 import org.crue.hercules.sgi.csp.repository.ConvocatoriaAreaTematicaRepository;
@@ -24,29 +32,24 @@ import org.crue.hercules.sgi.csp.repository.ConvocatoriaPeriodoSeguimientoCienti
 import org.crue.hercules.sgi.csp.repository.ConvocatoriaRepository;
 import org.crue.hercules.sgi.csp.repository.EstadoProyectoRepository;
 import org.crue.hercules.sgi.csp.repository.ModeloUnidadRepository;
-import org.crue.hercules.sgi.csp.repository.ProgramaRepository;
 import org.crue.hercules.sgi.csp.repository.ProyectoRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudModalidadRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoEntidadFinanciadoraAjenaRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoEquipoRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudProyectoRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioEquipoRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioPeriodoJustificacionRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioPeriodoPagoRepository;
-import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudRepository;
 import org.crue.hercules.sgi.csp.service.impl.ProyectoServiceImpl;
+import org.crue.hercules.sgi.csp.util.TotalCountCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.test.context.support.WithMockUser;
 
@@ -88,33 +91,9 @@ public class ProyectoServiceTest extends BaseServiceTest {
   @Mock
   private SolicitudProyectoRepository solicitudProyectoRepository;
   @Mock
-  private SolicitudModalidadRepository solicitudModalidadRepository;
-  @Mock
-  private SolicitudProyectoEquipoRepository solicitudEquipoRepository;
-  @Mock
-  private ProyectoEquipoService proyectoEquipoService;
-  @Mock
-  private SolicitudProyectoSocioRepository solicitudSocioRepository;
-  @Mock
-  private ProyectoSocioService proyectoSocioService;
-  @Mock
-  private SolicitudProyectoSocioEquipoRepository solicitudEquipoSocioRepository;
-  @Mock
-  private ProyectoSocioEquipoService proyectoEquipoSocioService;
-  @Mock
-  private SolicitudProyectoSocioPeriodoPagoRepository solicitudPeriodoPagoRepository;
-  @Mock
-  private ProyectoSocioPeriodoPagoService proyectoSocioPeriodoPagoService;
-  @Mock
-  private SolicitudProyectoSocioPeriodoJustificacionRepository solicitudPeriodoJustificacionRepository;
-  @Mock
-  private ProyectoSocioPeriodoJustificacionService proyectoSocioPeriodoJustificacionService;
+  private ProyectoSolicitudCopyService proyectoSolicitudCopyService;
   @Mock
   private ConvocatoriaConceptoGastoRepository convocatoriaConceptoGastoRepository;
-  @Mock
-  private SolicitudProyectoEntidadFinanciadoraAjenaRepository solicitudProyectoEntidadFinanciadoraAjenaRepository;
-  @Mock
-  ProgramaRepository programaRepository;
 
   private ProyectoService service;
 
@@ -125,11 +104,8 @@ public class ProyectoServiceTest extends BaseServiceTest {
         convocatoriaEntidadConvocanteRepository, proyectoEntidadConvocanteService, convocatoriaEntidadGestoraRepository,
         proyectoEntidadGestoraService, convocatoriaAreaTematicaRepository, contextoProyectoService,
         convocatoriaPeriodoSeguimientoCientificoRepository, proyectoPeriodoSeguimientoService, solicitudRepository,
-        solicitudProyectoRepository, solicitudModalidadRepository, solicitudEquipoRepository, proyectoEquipoService,
-        solicitudSocioRepository, proyectoSocioService, solicitudEquipoSocioRepository, proyectoEquipoSocioService,
-        solicitudPeriodoPagoRepository, proyectoSocioPeriodoPagoService, solicitudPeriodoJustificacionRepository,
-        proyectoSocioPeriodoJustificacionService, convocatoriaConceptoGastoRepository,
-        solicitudProyectoEntidadFinanciadoraAjenaRepository, programaRepository);
+        solicitudProyectoRepository, proyectoSolicitudCopyService, convocatoriaConceptoGastoRepository,
+        new TotalCountCache(Duration.ofMinutes(1), 100));
   }
 
   @Test
@@ -404,6 +380,106 @@ public class ProyectoServiceTest extends BaseServiceTest {
     Assertions.assertThat(proyectoActualizada.getActivo()).as("getActivo").isEqualTo(proyecto.getActivo());
   }
 
+  @Test
+  @WithMockUser(authorities = { "CSP-PRO-C_OPE" })
+  public void update_WithVersionActual_ReturnsProyecto() {
+    // given: Un Proyecto con las observaciones actualizadas sobre su versión actual
+    Proyecto proyecto = generarMockProyecto(1L);
+    Proyecto proyectoObservacionesActualizadas = generarMockProyecto(1L);
+    proyectoObservacionesActualizadas.setObservaciones("observaciones actualizadas");
+
+    ModeloUnidad modeloUnidad = new ModeloUnidad();
+    modeloUnidad.setId(1L);
+    modeloUnidad.setModeloEjecucion(proyecto.getModeloEjecucion());
+    modeloUnidad.setUnidadGestionRef(proyecto.getUnidadGestionRef());
+    modeloUnidad.setActivo(true);
+
+    BDDMockito.given(repository.getVersionForUpdate(ArgumentMatchers.anyLong())).willReturn(Optional.of(3L));
+    BDDMockito.given(modeloUnidadRepository.findByModeloEjecucionIdAndUnidadGestionRef(ArgumentMatchers.anyLong(),
+        ArgumentMatchers.anyString())).willReturn(Optional.of(modeloUnidad));
+    BDDMockito.given(repository.findById(ArgumentMatchers.<Long>any())).willReturn(Optional.of(proyecto));
+    BDDMockito.given(repository.save(ArgumentMatchers.<Proyecto>any()))
+        .will((InvocationOnMock invocation) -> invocation.getArgument(0));
+
+    // when: Actualizamos el Proyecto indicando la versión actual
+    Proyecto proyectoActualizada = service.update(proyectoObservacionesActualizadas, 3L);
+
+    // then: El Proyecto se actualiza correctamente.
+    Assertions.assertThat(proyectoActualizada).as("isNotNull()").isNotNull();
+    Assertions.assertThat(proyectoActualizada.getId()).as("getId()").isEqualTo(proyecto.getId());
+    Mockito.verify(repository).save(ArgumentMatchers.<Proyecto>any());
+  }
+
+  @Test
+  @WithMockUser(authorities = { "CSP-PRO-C_OPE" })
+  public void update_WithVersionAnterior_ThrowsVersionAgregadoMismatchException() {
+    // given: Un Proyecto modificado desde que se obtuvo
+    Proyecto proyecto = generarMockProyecto(1L);
+    proyecto.setObservaciones("observaciones actualizadas");
+
+    BDDMockito.given(repository.getVersionForUpdate(ArgumentMatchers.anyLong())).willReturn(Optional.of(4L));
+
+    // when: Actualizamos el Proyecto indicando una versión anterior
+    // then: Lanza una excepción y no se actualiza
+    Assertions.assertThatThrownBy(() -> service.update(proyecto, 3L))
+        .isInstanceOf(VersionAgregadoMismatchException.class);
+    Mockito.verify(repository, Mockito.never()).save(ArgumentMatchers.<Proyecto>any());
+  }
+
+  @Test
+  @WithMockUser(authorities = { "CSP-PRO-C_OPE" })
+  public void update_WithVersionNoExistingId_ThrowsProyectoNotFoundException() {
+    // given: Un Proyecto que no existe
+    Proyecto proyecto = generarMockProyecto(1L);
+
+    BDDMockito.given(repository.getVersionForUpdate(ArgumentMatchers.anyLong())).willReturn(Optional.empty());
+
+    // when: Actualizamos el Proyecto
+    // then: Lanza una excepción porque el Proyecto no existe
+    Assertions.assertThatThrownBy(() -> service.update(proyecto, 3L)).isInstanceOf(ProyectoNotFoundException.class);
+  }
+
+  @Test
+  @WithMockUser(authorities = { "CSP-PRO-C" })
+  public void findVersion_WithAuthoritySinUnidadGestion_ReturnsVersion() {
+    // given: un usuario con acceso a todas las unidades de gestión
+    BDDMockito.given(repository.getVersion(1L)).willReturn(Optional.of(3L));
+
+    // when: se obtiene la versión del Proyecto
+    Optional<Long> version = service.findVersion(1L);
+
+    // then: se obtiene sin restringir la unidad de gestión
+    Assertions.assertThat(version).contains(3L);
+  }
+
+  @Test
+  @WithMockUser(authorities = { "CSP-PRO-E_OPE", "CSP-PRO-V-INV_OTRI", "CSP-PRO-C_OPE", "CSP-SOL-V_UGI" })
+  public void findVersion_WithAuthoritiesEnUnidadesGestion_RestringeUnidadesGestion() {
+    // given: un usuario con acceso a los proyectos de OPE y OTRI
+    BDDMockito.given(repository.getVersion(1L, Arrays.asList("OPE", "OTRI"))).willReturn(Optional.of(3L));
+
+    // when: se obtiene la versión del Proyecto
+    Optional<Long> version = service.findVersion(1L);
+
+    // then: se obtiene si el Proyecto es de una de sus unidades de gestión
+    Assertions.assertThat(version).contains(3L);
+    Mockito.verify(repository, Mockito.never()).getVersion(ArgumentMatchers.anyLong());
+  }
+
+  @Test
+  @WithMockUser(authorities = { "CSP-SOL-V_OPE" })
+  public void findVersion_WithoutAuthorityProyecto_ReturnsEmpty() {
+    // given: un usuario sin acceso a los proyectos
+    BDDMockito.given(repository.getVersion(1L, Collections.emptyList())).willReturn(Optional.empty());
+
+    // when: se obtiene la versión del Proyecto
+    Optional<Long> version = service.findVersion(1L);
+
+    // then: no se obtiene, para que no se responda 304 sin comprobar los permisos
+    Assertions.assertThat(version).isEmpty();
+    Mockito.verify(repository, Mockito.never()).getVersion(ArgumentMatchers.anyLong());
+  }
+
   @Test
   @WithMockUser(authorities = { "CSP-PRO-C_OPE" })
   public void updateWithConvocatoria_ReturnsProyecto() {
@@ -735,6 +811,45 @@ public class ProyectoServiceTest extends BaseServiceTest {
     Assertions.assertThatThrownBy(() -> service.findById(idBuscado)).isInstanceOf(ProyectoNotFoundException.class);
   }
 
+  @Test
+  @WithMockUser(authorities = { "CSP-PRO-C_OPE" })
+  public void findDossier_WithSecciones_ReturnsOnlySeccionesIncluidas() {
+    // given: Un Proyecto con el id buscado y sus hitos
+    Long idBuscado = 1L;
+    BDDMockito.given(repository.findById(idBuscado)).willReturn(Optional.of(generarMockProyecto(idBuscado)));
+    List<ProyectoHito> proyectoHitos = Arrays.asList(ProyectoHito.builder().id(1L).proyectoId(idBuscado).build(),
+        ProyectoHito.builder().id(2L).proyectoId(idBuscado).build());
+    BDDMockito.given(repository.findAllRelacionados(ProyectoHito.class, idBuscado)).willReturn(proyectoHitos);
+
+    // when: Buscamos el dossier del Proyecto con la sección de hitos
+    ProyectoDossier dossier = service.findDossier(idBuscado, EnumSet.of(ProyectoDossier.Seccion.PROYECTO_HITOS));
+
+    // then: el Proyecto con sus hitos, sin el resto de secciones y sin consultas
+    // count
+    Assertions.assertThat(dossier.getProyecto().getId()).as("getProyecto().getId()").isEqualTo(idBuscado);
+    Assertions.assertThat(dossier.getProyectoHitos()).as("getProyectoHitos()").isEqualTo(proyectoHitos);
+    Assertions.assertThat(dossier.getProyectoFases()).as("getProyectoFases()").isNull();
+    Assertions.assertThat(dossier.getEstadoProyectos()).as("getEstadoProyectos()").isNull();
+    Mockito.verify(repository, Mockito.times(1)).findAllRelacionados(ArgumentMatchers.any(),
+        ArgumentMatchers.anyLong());
+    Mockito.verify(repository, Mockito.never()).count(ArgumentMatchers.<Specification<Proyecto>>any());
+  }
+
+  @Test
+  @WithMockUser(authorities = { "CSP-PRO-C_OPE" })
+  public void findDossier_WithIdNotExist_ThrowsProyectoNotFoundException() {
+    // given: Ningun Proyecto con el id buscado
+    Long idBuscado = 1L;
+    BDDMockito.given(repository.findById(idBuscado)).willReturn(Optional.empty());
+
+    // when: Buscamos el dossier del Proyecto
+    // then: lanza un ProyectoNotFoundException sin cargar las secciones
+    Assertions.assertThatThrownBy(() -> service.findDossier(idBuscado, EnumSet.allOf(ProyectoDossier.Seccion.class)))
+        .isInstanceOf(ProyectoNotFoundException.class);
+    Mockito.verify(repository, Mockito.never()).findAllRelacionados(ArgumentMatchers.any(),
+        ArgumentMatchers.anyLong());
+  }
+
   @Test
   @WithMockUser(authorities = { "CSP-PRO-C_OPE" })
   public void findAll_ReturnsPage() {
@@ -817,6 +932,78 @@ public class ProyectoServiceTest extends BaseServiceTest {
     }
   }
 
+  @Test
+  @WithMockUser(authorities = { "CSP-PRO-C_OPE" })
+  public void findAllTotalEstimado_ReusesCachedTotal() {
+    // given: una página de 10 Proyecto de un total de 37
+    List<Proyecto> proyectos = new ArrayList<>();
+    for (long i = 1; i <= 10; i++) {
+      proyectos.add(generarMockProyecto(i));
+    }
+    BDDMockito
+        .given(
+            repository.findAllSlice(ArgumentMatchers.<Specification<Proyecto>>any(), ArgumentMatchers.<Pageable>any()))
+        .willAnswer((InvocationOnMock invocation) -> new SliceImpl<>(proyectos,
+            invocation.getArgument(1, Pageable.class), true));
+    BDDMockito.given(repository.count(ArgumentMatchers.<Specification<Proyecto>>any())).willReturn(37L);
+
+    // when: se piden dos páginas con el mismo filtro
+    Page<Proyecto> page = service.findAllRestringidosTotalEstimado("activo==true", PageRequest.of(0, 10));
+    Page<Proyecto> page2 = service.findAllRestringidosTotalEstimado("activo==true", PageRequest.of(1, 10));
+
+    // then: las dos páginas tienen el total y solo se cuenta una vez
+    Assertions.assertThat(page.getTotalElements()).isEqualTo(37);
+    Assertions.assertThat(page2.getTotalElements()).isEqualTo(37);
+    Mockito.verify(repository, Mockito.times(1)).count(ArgumentMatchers.<Specification<Proyecto>>any());
+    Mockito.verify(repository, Mockito.never()).findAll(ArgumentMatchers.<Specification<Proyecto>>any(),
+        ArgumentMatchers.<Pageable>any());
+  }
+
+  @Test
+  @WithMockUser(authorities = { "CSP-PRO-C_OPE" })
+  public void findAllTotalEstimado_WithUltimaPagina_ReturnsTotalWithoutCount() {
+    // given: la última página con 7 Proyecto
+    List<Proyecto> proyectos = new ArrayList<>();
+    for (long i = 31; i <= 37; i++) {
+      proyectos.add(generarMockProyecto(i));
+    }
+    BDDMockito
+        .given(
+            repository.findAllSlice(ArgumentMatchers.<Specification<Proyecto>>any(), ArgumentMatchers.<Pageable>any()))
+        .willAnswer((InvocationOnMock invocation) -> new SliceImpl<>(proyectos,
+            invocation.getArgument(1, Pageable.class), false));
+
+    // when: se pide la última página
+    Page<Proyecto> page = service.findAllTodosRestringidosTotalEstimado(null, PageRequest.of(3, 10));
+
+    // then: el total se calcula a partir de la página sin consulta count
+    Assertions.assertThat(page.getTotalElements()).isEqualTo(37);
+    Mockito.verify(repository, Mockito.never()).count(ArgumentMatchers.<Specification<Proyecto>>any());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-PRO-E_OPE" })
+  public void findCapacidades_ReturnsCapacidadesConUnaConsulta() {
+    // given: un proyecto modificable, uno finalizado, uno de otra unidad y un id
+    // que no existe
+    Proyecto abierto = generarMockProyecto(1L);
+    Proyecto finalizado = generarMockProyecto(2L);
+    finalizado.getEstado().setEstado(EstadoProyecto.Estado.FINALIZADO);
+    Proyecto otraUnidad = generarMockProyecto(3L);
+    otraUnidad.setUnidadGestionRef("OTRA");
+    BDDMockito.given(repository.findAllById(ArgumentMatchers.<Long>anyIterable()))
+        .willReturn(Arrays.asList(abierto, finalizado, otraUnidad));
+
+    // when: se obtienen las capacidades
+    List<ProyectoCapacidades> capacidades = service.findCapacidades(Arrays.asList(1L, 2L, 3L, 4L));
+
+    // then: solo es modificable el proyecto abierto de la unidad del usuario
+    Assertions.assertThat(capacidades).extracting(ProyectoCapacidades::getProyectoId).containsExactly(1L, 2L, 3L);
+    Assertions.assertThat(capacidades).extracting(ProyectoCapacidades::getModificable).containsExactly(true, false,
+        false);
+    Mockito.verify(repository, Mockito.never()).findById(ArgumentMatchers.anyLong());
+  }
+
   /**
    * Función que devuelve un objeto Proyecto
    * 
@@ -0,0 +1,258 @@
+package org.crue.hercules.sgi.csp.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.model.Proyecto;
+import org.crue.hercules.sgi.csp.model.ProyectoSocio;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioEquipo;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.ProyectoSocioPeriodoPago;
+import org.crue.hercules.sgi.csp.model.RolProyecto;
+import org.crue.hercules.sgi.csp.model.RolSocio;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocio;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioEquipo;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioPeriodoJustificacion;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoSocioPeriodoPago;
+import org.crue.hercules.sgi.csp.repository.ProyectoEntidadConvocanteRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoEntidadFinanciadoraRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoEquipoRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoSocioEquipoRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoSocioPeriodoJustificacionRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoSocioPeriodoPagoRepository;
+import org.crue.hercules.sgi.csp.repository.ProyectoSocioRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudModalidadRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoEntidadFinanciadoraAjenaRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoEquipoRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioEquipoRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioPeriodoJustificacionRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioPeriodoPagoRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioRepository;
+import org.crue.hercules.sgi.csp.service.impl.ProyectoSolicitudCopyServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+
+/**
+ * ProyectoSolicitudCopyServiceTest
+ */
+public class ProyectoSolicitudCopyServiceTest extends BaseServiceTest {
+
+  @Mock
+  private SolicitudModalidadRepository solicitudModalidadRepository;
+  @Mock
+  private SolicitudProyectoEntidadFinanciadoraAjenaRepository solicitudEntidadFinanciadoraRepository;
+  @Mock
+  private SolicitudProyectoEquipoRepository solicitudEquipoRepository;
+  @Mock
+  private SolicitudProyectoSocioRepository solicitudSocioRepository;
+  @Mock
+  private SolicitudProyectoSocioEquipoRepository solicitudSocioEquipoRepository;
+  @Mock
+  private SolicitudProyectoSocioPeriodoPagoRepository solicitudPeriodoPagoRepository;
+  @Mock
+  private SolicitudProyectoSocioPeriodoJustificacionRepository solicitudPeriodoJustificacionRepository;
+  @Mock
+  private ProyectoEntidadConvocanteRepository proyectoEntidadConvocanteRepository;
+  @Mock
+  private ProyectoEntidadFinanciadoraRepository proyectoEntidadFinanciadoraRepository;
+  @Mock
+  private ProyectoEquipoRepository proyectoEquipoRepository;
+  @Mock
+  private ProyectoSocioRepository proyectoSocioRepository;
+  @Mock
+  private ProyectoSocioEquipoRepository proyectoSocioEquipoRepository;
+  @Mock
+  private ProyectoSocioPeriodoPagoRepository proyectoSocioPeriodoPagoRepository;
+  @Mock
+  private ProyectoSocioPeriodoJustificacionRepository proyectoSocioPeriodoJustificacionRepository;
+
+  private ProyectoSolicitudCopyService service;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    service = new ProyectoSolicitudCopyServiceImpl(solicitudModalidadRepository,
+        solicitudEntidadFinanciadoraRepository, solicitudEquipoRepository, solicitudSocioRepository,
+        solicitudSocioEquipoRepository, solicitudPeriodoPagoRepository, solicitudPeriodoJustificacionRepository,
+        proyectoEntidadConvocanteRepository, proyectoEntidadFinanciadoraRepository, proyectoEquipoRepository,
+        proyectoSocioRepository, proyectoSocioEquipoRepository, proyectoSocioPeriodoPagoRepository,
+        proyectoSocioPeriodoJustificacionRepository);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void copy_WithSocios_SavesEachTablaOnce() {
+    // given: una solicitud con dos socios, cada uno con equipo, periodos de pago
+    // y periodos de justificación
+    Proyecto proyecto = generarMockProyecto(1L);
+    Long solicitudProyectoId = 1L;
+
+    BDDMockito.given(solicitudSocioRepository.findAllBySolicitudProyectoId(solicitudProyectoId))
+        .willReturn(Arrays.asList(generarMockSolicitudProyectoSocio(11L, "empresa-001"),
+            generarMockSolicitudProyectoSocio(12L, "empresa-002")));
+    BDDMockito.given(solicitudSocioEquipoRepository.findAllBySolicitudProyectoSocioIdIn(Arrays.asList(11L, 12L)))
+        .willReturn(Arrays.asList(generarMockSolicitudProyectoSocioEquipo(11L, 1, 3),
+            generarMockSolicitudProyectoSocioEquipo(12L, 1, 3)));
+    BDDMockito.given(solicitudPeriodoPagoRepository.findAllBySolicitudProyectoSocioIdIn(Arrays.asList(11L, 12L)))
+        .willReturn(Arrays.asList(generarMockSolicitudProyectoSocioPeriodoPago(11L, 6),
+            generarMockSolicitudProyectoSocioPeriodoPago(11L, 3)));
+    BDDMockito
+        .given(solicitudPeriodoJustificacionRepository.findAllBySolicitudProyectoSocioIdIn(Arrays.asList(11L, 12L)))
+        .willReturn(Arrays.asList(generarMockSolicitudProyectoSocioPeriodoJustificacion(12L, 4, 6),
+            generarMockSolicitudProyectoSocioPeriodoJustificacion(12L, 1, 3)));
+
+    AtomicLong ids = new AtomicLong(100L);
+    BDDMockito.given(proyectoSocioRepository.saveAll(ArgumentMatchers.<ProyectoSocio>anyIterable()))
+        .will((InvocationOnMock invocation) -> {
+          Iterable<ProyectoSocio> socios = invocation.getArgument(0);
+          List<ProyectoSocio> returnValue = new ArrayList<>();
+          socios.forEach(socio -> {
+            socio.setId(ids.incrementAndGet());
+            returnValue.add(socio);
+          });
+          return returnValue;
+        });
+
+    // when: se copian los datos de la solicitud
+    service.copy(proyecto, solicitudProyectoId);
+
+    // then: cada tabla destino se guarda una única vez con los datos de todos los
+    // socios asociados al socio de proyecto creado
+    ArgumentCaptor<List<ProyectoSocioEquipo>> equipos = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(proyectoSocioEquipoRepository, Mockito.times(1)).saveAll(equipos.capture());
+    Assertions.assertThat(equipos.getValue()).extracting(ProyectoSocioEquipo::getProyectoSocioId).as("equipos")
+        .containsExactly(101L, 102L);
+
+    ArgumentCaptor<List<ProyectoSocioPeriodoPago>> pagos = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(proyectoSocioPeriodoPagoRepository, Mockito.times(1)).saveAll(pagos.capture());
+    Assertions.assertThat(pagos.getValue()).extracting(ProyectoSocioPeriodoPago::getProyectoSocioId,
+        ProyectoSocioPeriodoPago::getNumPeriodo, ProyectoSocioPeriodoPago::getFechaPrevistaPago).as("pagos")
+        .containsExactly(Assertions.tuple(101L, 1, Instant.parse("2020-03-01T00:00:00Z")),
+            Assertions.tuple(101L, 2, Instant.parse("2020-06-01T00:00:00Z")));
+
+    ArgumentCaptor<List<ProyectoSocioPeriodoJustificacion>> justificaciones = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(proyectoSocioPeriodoJustificacionRepository, Mockito.times(1))
+        .saveAll(justificaciones.capture());
+    Assertions.assertThat(justificaciones.getValue())
+        .extracting(ProyectoSocioPeriodoJustificacion::getProyectoSocioId,
+            ProyectoSocioPeriodoJustificacion::getNumPeriodo, ProyectoSocioPeriodoJustificacion::getFechaInicio)
+        .as("justificaciones")
+        .containsExactly(Assertions.tuple(102L, 1, Instant.parse("2020-01-01T00:00:00Z")),
+            Assertions.tuple(102L, 2, Instant.parse("2020-04-01T00:00:00Z")));
+  }
+
+  @Test
+  public void copy_WithSociosSolapados_ThrowsIllegalArgumentException() {
+    // given: una solicitud con dos socios de la misma empresa con fechas
+    // solapadas
+    Proyecto proyecto = generarMockProyecto(1L);
+    Long solicitudProyectoId = 1L;
+
+    BDDMockito.given(solicitudSocioRepository.findAllBySolicitudProyectoId(solicitudProyectoId))
+        .willReturn(Arrays.asList(generarMockSolicitudProyectoSocio(11L, "empresa-001"),
+            generarMockSolicitudProyectoSocio(12L, "empresa-001")));
+
+    // when: se copian los datos de la solicitud
+    // then: se lanza una excepción y no se guarda nada
+    Assertions.assertThatThrownBy(() -> service.copy(proyecto, solicitudProyectoId))
+        .isInstanceOf(IllegalArgumentException.class).hasMessage("El rango de fechas del socio se solapa");
+    Mockito.verifyNoInteractions(proyectoSocioRepository, proyectoEquipoRepository,
+        proyectoEntidadConvocanteRepository, proyectoEntidadFinanciadoraRepository);
+  }
+
+  @Test
+  public void copy_WithPeriodosJustificacionSolapados_ThrowsIllegalArgumentException() {
+    // given: un socio con dos periodos de justificación solapados
+    Proyecto proyecto = generarMockProyecto(1L);
+    Long solicitudProyectoId = 1L;
+
+    BDDMockito.given(solicitudSocioRepository.findAllBySolicitudProyectoId(solicitudProyectoId))
+        .willReturn(Arrays.asList(generarMockSolicitudProyectoSocio(11L, "empresa-001")));
+    BDDMockito.given(solicitudPeriodoJustificacionRepository.findAllBySolicitudProyectoSocioIdIn(Arrays.asList(11L)))
+        .willReturn(Arrays.asList(generarMockSolicitudProyectoSocioPeriodoJustificacion(11L, 1, 4),
+            generarMockSolicitudProyectoSocioPeriodoJustificacion(11L, 3, 6)));
+
+    // when: se copian los datos de la solicitud
+    // then: se lanza una excepción y no se guarda nada
+    Assertions.assertThatThrownBy(() -> service.copy(proyecto, solicitudProyectoId))
+        .isInstanceOf(IllegalArgumentException.class).hasMessage("El periodo se solapa con otro existente");
+    Mockito.verifyNoInteractions(proyectoSocioRepository, proyectoSocioPeriodoJustificacionRepository);
+  }
+
+  /**
+   * Función que devuelve un objeto Proyecto
+   *
+   * @param id id del Proyecto
+   * @return el objeto Proyecto
+   */
+  private Proyecto generarMockProyecto(Long id) {
+    return Proyecto.builder().id(id).solicitudId(1L).fechaInicio(Instant.parse("2020-01-01T00:00:00Z"))
+        .fechaFin(Instant.parse("2020-12-31T23:59:59Z")).build();
+  }
+
+  /**
+   * Función que devuelve un objeto SolicitudProyectoSocio de 12 meses
+   *
+   * @param id         id del SolicitudProyectoSocio
+   * @param empresaRef referencia de la empresa
+   * @return el objeto SolicitudProyectoSocio
+   */
+  private SolicitudProyectoSocio generarMockSolicitudProyectoSocio(Long id, String empresaRef) {
+    return SolicitudProyectoSocio.builder().id(id).solicitudProyectoId(1L)
+        .rolSocio(RolSocio.builder().id(1L).coordinador(Boolean.FALSE).build()).empresaRef(empresaRef).mesInicio(1)
+        .mesFin(12).numInvestigadores(2).importeSolicitado(new BigDecimal(1000)).build();
+  }
+
+  /**
+   * Función que devuelve un objeto SolicitudProyectoSocioEquipo
+   *
+   * @param solicitudProyectoSocioId id del SolicitudProyectoSocio
+   * @param mesInicio                mes de inicio
+   * @param mesFin                   mes de fin
+   * @return el objeto SolicitudProyectoSocioEquipo
+   */
+  private SolicitudProyectoSocioEquipo generarMockSolicitudProyectoSocioEquipo(Long solicitudProyectoSocioId,
+      Integer mesInicio, Integer mesFin) {
+    return SolicitudProyectoSocioEquipo.builder().solicitudProyectoSocioId(solicitudProyectoSocioId)
+        .personaRef("user-001").rolProyecto(RolProyecto.builder().id(1L).build()).mesInicio(mesInicio).mesFin(mesFin)
+        .build();
+  }
+
+  /**
+   * Función que devuelve un objeto SolicitudProyectoSocioPeriodoPago
+   *
+   * @param solicitudProyectoSocioId id del SolicitudProyectoSocio
+   * @param mes                      mes del pago
+   * @return el objeto SolicitudProyectoSocioPeriodoPago
+   */
+  private SolicitudProyectoSocioPeriodoPago generarMockSolicitudProyectoSocioPeriodoPago(
+      Long solicitudProyectoSocioId, Integer mes) {
+    return SolicitudProyectoSocioPeriodoPago.builder().solicitudProyectoSocioId(solicitudProyectoSocioId)
+        .numPeriodo(1).importe(new BigDecimal(100)).mes(mes).build();
+  }
+
+  /**
+   * Función que devuelve un objeto SolicitudProyectoSocioPeriodoJustificacion
+   *
+   * @param solicitudProyectoSocioId id del SolicitudProyectoSocio
+   * @param mesInicial               mes inicial
+   * @param mesFinal                 mes final
+   * @return el objeto SolicitudProyectoSocioPeriodoJustificacion
+   */
+  private SolicitudProyectoSocioPeriodoJustificacion generarMockSolicitudProyectoSocioPeriodoJustificacion(
+      Long solicitudProyectoSocioId, Integer mesInicial, Integer mesFinal) {
+    return SolicitudProyectoSocioPeriodoJustificacion.builder().solicitudProyectoSocioId(solicitudProyectoSocioId)
+        .numPeriodo(1).mesInicial(mesInicial).mesFinal(mesFinal).build();
+  }
+
+}
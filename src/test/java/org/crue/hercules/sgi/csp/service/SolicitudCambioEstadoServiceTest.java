@@ -0,0 +1,162 @@
+package org.crue.hercules.sgi.csp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoInput;
+import org.crue.hercules.sgi.csp.dto.SolicitudCambioEstadoResultado;
+import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
+import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.repository.EstadoSolicitudRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudRepository;
+import org.crue.hercules.sgi.csp.service.impl.SolicitudCambioEstadoLote;
+import org.crue.hercules.sgi.csp.service.impl.SolicitudCambioEstadoServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.test.context.support.WithMockUser;
+
+/**
+ * SolicitudCambioEstadoServiceTest
+ */
+public class SolicitudCambioEstadoServiceTest extends BaseServiceTest {
+
+  @Mock
+  private SolicitudRepository repository;
+  @Mock
+  private EstadoSolicitudRepository estadoSolicitudRepository;
+
+  private SolicitudCambioEstadoService service;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    service = new SolicitudCambioEstadoServiceImpl(
+        new SolicitudCambioEstadoLote(repository, estadoSolicitudRepository));
+  }
+
+  @Test
+  @WithMockUser(authorities = { "CSP-SOL-E_OPE" })
+  public void cambiarEstado_ReturnsResultadoPorSolicitud() {
+    // given: una solicitud presentada, una en borrador, una de otra unidad y un
+    // id que no existe
+    Solicitud presentada = generarMockSolicitud(1L, EstadoSolicitud.Estado.PRESENTADA, "OPE");
+    Solicitud borrador = generarMockSolicitud(2L, EstadoSolicitud.Estado.BORRADOR, "OPE");
+    Solicitud otraUnidad = generarMockSolicitud(3L, EstadoSolicitud.Estado.PRESENTADA, "OTRA");
+    BDDMockito.given(repository.findAllById(ArgumentMatchers.<Long>anyIterable()))
+        .willReturn(Arrays.asList(presentada, borrador, otraUnidad));
+    mockSaveAll();
+
+    // when: se admiten provisionalmente
+    List<SolicitudCambioEstadoResultado> resultados = service.cambiarEstado(
+        generarMockInput(Arrays.asList(1L, 2L, 3L, 4L), EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL, null));
+
+    // then: solo cambia la solicitud presentada de la unidad del usuario
+    Assertions.assertThat(resultados).extracting(SolicitudCambioEstadoResultado::getSolicitudId).containsExactly(1L,
+        2L, 3L, 4L);
+    Assertions.assertThat(resultados).extracting(SolicitudCambioEstadoResultado::getCorrecto).containsExactly(true,
+        false, false, false);
+    Assertions.assertThat(resultados).extracting(SolicitudCambioEstadoResultado::getError).containsExactly(null,
+        "La solicitud no se encuentra en un estado correcto.", "La Unidad de Gestión no es gestionable por el usuario",
+        "La solicitud no existe");
+    Assertions.assertThat(presentada.getEstado().getEstado()).isEqualTo(EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL);
+    Assertions.assertThat(borrador.getEstado().getEstado()).isEqualTo(EstadoSolicitud.Estado.BORRADOR);
+
+    // y los estados y las solicitudes se guardan en un único batch
+    Mockito.verify(repository).findAllById(ArgumentMatchers.<Long>anyIterable());
+    Mockito.verify(estadoSolicitudRepository).saveAll(ArgumentMatchers.<EstadoSolicitud>anyIterable());
+    Mockito.verify(repository).saveAll(ArgumentMatchers.<Solicitud>anyIterable());
+  }
+
+  @Test
+  @WithMockUser(authorities = { "CSP-SOL-E_OPE" })
+  @SuppressWarnings("unchecked")
+  public void cambiarEstado_WithLoteErroneo_KeepsOtherLotes() {
+    // given: 150 solicitudes presentadas y un error al guardar el primer lote
+    List<Long> ids = LongStream.rangeClosed(1, 150).boxed().collect(Collectors.toList());
+    BDDMockito.given(repository.findAllById(ArgumentMatchers.<Long>anyIterable()))
+        .willAnswer((InvocationOnMock invocation) -> {
+          List<Solicitud> solicitudes = new ArrayList<>();
+          Iterable<Long> loteIds = invocation.getArgument(0);
+          loteIds.forEach(id -> solicitudes.add(generarMockSolicitud(id, EstadoSolicitud.Estado.PRESENTADA, "OPE")));
+          return solicitudes;
+        });
+    BDDMockito.given(estadoSolicitudRepository.saveAll(ArgumentMatchers.<EstadoSolicitud>anyIterable()))
+        .willThrow(new DataIntegrityViolationException("error")).willAnswer(
+            (InvocationOnMock invocation) -> new ArrayList<>((List<EstadoSolicitud>) invocation.getArgument(0)));
+    BDDMockito.given(repository.saveAll(ArgumentMatchers.<Solicitud>anyIterable()))
+        .willAnswer((InvocationOnMock invocation) -> invocation.getArgument(0));
+
+    // when: se admiten provisionalmente
+    List<SolicitudCambioEstadoResultado> resultados = service
+        .cambiarEstado(generarMockInput(ids, EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL, null));
+
+    // then: el primer lote falla completo y el segundo se cambia
+    ArgumentCaptor<Iterable<Long>> lotes = ArgumentCaptor.forClass(Iterable.class);
+    Mockito.verify(repository, Mockito.times(2)).findAllById(lotes.capture());
+    Assertions.assertThat(lotes.getAllValues().get(0)).hasSize(100);
+    Assertions.assertThat(lotes.getAllValues().get(1)).hasSize(50);
+    Assertions.assertThat(resultados).hasSize(150);
+    Assertions.assertThat(resultados.subList(0, 100)).allMatch(resultado -> !resultado.getCorrecto());
+    Assertions.assertThat(resultados.subList(100, 150)).allMatch(SolicitudCambioEstadoResultado::getCorrecto);
+  }
+
+  @Test
+  public void cambiarEstado_WithPresentada_ThrowsIllegalArgumentException() {
+    // given: el estado presentada, que se valida solicitud a solicitud
+    SolicitudCambioEstadoInput input = generarMockInput(Arrays.asList(1L), EstadoSolicitud.Estado.PRESENTADA, null);
+
+    // when: se cambia el estado
+    // then: se lanza un error sin consultar las solicitudes
+    Assertions.assertThatThrownBy(() -> service.cambiarEstado(input)).isInstanceOf(IllegalArgumentException.class);
+    Mockito.verifyNoInteractions(repository);
+  }
+
+  @Test
+  public void cambiarEstado_WithoutComentario_ThrowsIllegalArgumentException() {
+    // given: un estado que requiere comentario
+    SolicitudCambioEstadoInput input = generarMockInput(Arrays.asList(1L), EstadoSolicitud.Estado.DENEGADA, null);
+
+    // when: se cambia el estado sin comentario
+    // then: se lanza un error
+    Assertions.assertThatThrownBy(() -> service.cambiarEstado(input)).isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("El comentario no puede ser null para el cambio de estado.");
+  }
+
+  @SuppressWarnings("unchecked")
+  private void mockSaveAll() {
+    BDDMockito.given(estadoSolicitudRepository.saveAll(ArgumentMatchers.<EstadoSolicitud>anyIterable()))
+        .willAnswer((InvocationOnMock invocation) -> new ArrayList<>((List<EstadoSolicitud>) invocation.getArgument(0)));
+    BDDMockito.given(repository.saveAll(ArgumentMatchers.<Solicitud>anyIterable()))
+        .willAnswer((InvocationOnMock invocation) -> invocation.getArgument(0));
+  }
+
+  private SolicitudCambioEstadoInput generarMockInput(List<Long> ids, EstadoSolicitud.Estado estado,
+      String comentario) {
+    return SolicitudCambioEstadoInput.builder().solicitudIds(ids).estado(estado).comentario(comentario).build();
+  }
+
+  private Solicitud generarMockSolicitud(Long id, EstadoSolicitud.Estado estado, String unidadGestionRef) {
+    EstadoSolicitud estadoSolicitud = new EstadoSolicitud();
+    estadoSolicitud.setId(id);
+    estadoSolicitud.setSolicitudId(id);
+    estadoSolicitud.setEstado(estado);
+
+    Solicitud solicitud = new Solicitud();
+    solicitud.setId(id);
+    solicitud.setUnidadGestionRef(unidadGestionRef);
+    solicitud.setActivo(true);
+    solicitud.setEstado(estadoSolicitud);
+    return solicitud;
+  }
+
+}
@@ -13,6 +13,7 @@ import org.crue.hercules.sgi.csp.model.Programa;
 import org.crue.hercules.sgi.csp.model.Solicitud;
 import org.crue.hercules.sgi.csp.model.SolicitudModalidad;
 import org.crue.hercules.sgi.csp.repository.ConvocatoriaEntidadConvocanteRepository;
+import org.crue.hercules.sgi.csp.repository.ProgramaJerarquiaRepository;
 import org.crue.hercules.sgi.csp.repository.ProgramaRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudModalidadRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudRepository;
@@ -44,6 +45,9 @@ public class SolicitudModalidadServiceTest extends BaseServiceTest {
   @Mock
   private ProgramaRepository programaRepository;
 
+  @Mock
+  private ProgramaJerarquiaRepository programaJerarquiaRepository;
+
   @Mock
   private ConvocatoriaEntidadConvocanteRepository convocatoriaEntidadConvocanteRepository;
 
@@ -55,7 +59,7 @@ public class SolicitudModalidadServiceTest extends BaseServiceTest {
   @BeforeEach
   public void setUp() throws Exception {
     service = new SolicitudModalidadServiceImpl(repository, solicitudRepository, programaRepository,
-        convocatoriaEntidadConvocanteRepository, solicitudService);
+        programaJerarquiaRepository, convocatoriaEntidadConvocanteRepository, solicitudService);
   }
 
   @Test
@@ -67,8 +71,7 @@ public class SolicitudModalidadServiceTest extends BaseServiceTest {
 
     BDDMockito.given(solicitudRepository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.of(solicitud));
     BDDMockito.given(programaRepository.findById(2L)).willReturn(Optional.of(solicitudModalidad.getPrograma()));
-    BDDMockito.given(programaRepository.findById(1L))
-        .willReturn(Optional.of(solicitudModalidad.getPrograma().getPadre()));
+    BDDMockito.given(programaJerarquiaRepository.existsByAncestroIdAndDescendienteId(1L, 2L)).willReturn(Boolean.TRUE);
     BDDMockito.given(convocatoriaEntidadConvocanteRepository
         .findByConvocatoriaIdAndEntidadRef(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString()))
         .willReturn(Optional.of(generarMockConvocatoriaEntidadConvocante(1L)));
@@ -240,8 +243,7 @@ public class SolicitudModalidadServiceTest extends BaseServiceTest {
     BDDMockito.given(solicitudRepository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.of(solicitud));
     BDDMockito.given(programaRepository.findById(4L))
         .willReturn(Optional.of(solicitudModalidadProgramaActualizado.getPrograma()));
-    BDDMockito.given(programaRepository.findById(1L))
-        .willReturn(Optional.of(solicitudModalidadProgramaActualizado.getPrograma().getPadre()));
+    BDDMockito.given(programaJerarquiaRepository.existsByAncestroIdAndDescendienteId(1L, 4L)).willReturn(Boolean.TRUE);
     BDDMockito.given(repository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.of(solicitudModalidad));
     BDDMockito.given(convocatoriaEntidadConvocanteRepository
         .findByConvocatoriaIdAndEntidadRef(ArgumentMatchers.anyLong(), ArgumentMatchers.anyString()))
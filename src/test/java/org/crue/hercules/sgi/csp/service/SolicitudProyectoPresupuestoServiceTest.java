@@ -11,6 +11,7 @@ import org.crue.hercules.sgi.csp.model.ConceptoGasto;
 import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
 import org.crue.hercules.sgi.csp.model.SolicitudProyectoPresupuesto;
 import org.crue.hercules.sgi.csp.repository.SolicitudProyectoPresupuestoRepository;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoPresupuestoTotalRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudProyectoRepository;
 import org.crue.hercules.sgi.csp.service.impl.SolicitudProyectoPresupuestoServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,11 +43,15 @@ public class SolicitudProyectoPresupuestoServiceTest {
   @Mock
   private SolicitudProyectoRepository solicitudProyectoRepository;
 
+  @Mock
+  private SolicitudProyectoPresupuestoTotalRepository solicitudProyectoPresupuestoTotalRepository;
+
   private SolicitudProyectoPresupuestoService service;
 
   @BeforeEach
   public void setUp() throws Exception {
-    service = new SolicitudProyectoPresupuestoServiceImpl(repository, solicitudService, solicitudProyectoRepository);
+    service = new SolicitudProyectoPresupuestoServiceImpl(repository, solicitudService, solicitudProyectoRepository,
+        solicitudProyectoPresupuestoTotalRepository);
   }
 
   @Test
@@ -84,6 +89,9 @@ public class SolicitudProyectoPresupuestoServiceTest {
         .isEqualTo(solicitudProyectoPresupuesto.getObservaciones());
     Assertions.assertThat(solicitudProyectoPresupuestoCreado.getFinanciacionAjena()).as("getFinanciacionAjena()")
         .isEqualTo(solicitudProyectoPresupuesto.getFinanciacionAjena());
+    // y se recalculan los totales de la solicitud
+    BDDMockito.then(solicitudProyectoPresupuestoTotalRepository).should()
+        .sincronizar(solicitudProyectoPresupuesto.getSolicitudProyectoId());
   }
 
   @Test
@@ -167,14 +175,19 @@ public class SolicitudProyectoPresupuestoServiceTest {
     // given: existing SolicitudProyectoPresupuesto
     Long id = 1L;
 
-    BDDMockito.given(repository.existsById(ArgumentMatchers.anyLong())).willReturn(Boolean.TRUE);
-    BDDMockito.doNothing().when(repository).deleteById(ArgumentMatchers.anyLong());
+    SolicitudProyectoPresupuesto solicitudProyectoPresupuesto = generarSolicitudProyectoPresupuesto(id, 2L, 1L);
+
+    BDDMockito.given(repository.findById(ArgumentMatchers.anyLong()))
+        .willReturn(Optional.of(solicitudProyectoPresupuesto));
+    BDDMockito.doNothing().when(repository).delete(ArgumentMatchers.<SolicitudProyectoPresupuesto>any());
 
     Assertions.assertThatCode(
         // when: delete by existing id
         () -> service.delete(id))
         // then: no exception is thrown
         .doesNotThrowAnyException();
+    // and the totals of the solicitud are recalculated
+    BDDMockito.then(solicitudProyectoPresupuestoTotalRepository).should().sincronizar(2L);
   }
 
   @Test
@@ -182,7 +195,7 @@ public class SolicitudProyectoPresupuestoServiceTest {
     // given: no existing id
     Long id = 1L;
 
-    BDDMockito.given(repository.existsById(ArgumentMatchers.anyLong())).willReturn(Boolean.FALSE);
+    BDDMockito.given(repository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.empty());
 
     Assertions.assertThatThrownBy(
         // when: delete
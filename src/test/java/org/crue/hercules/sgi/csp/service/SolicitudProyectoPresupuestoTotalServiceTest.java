@@ -0,0 +1,103 @@
+package org.crue.hercules.sgi.csp.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.repository.SolicitudProyectoPresupuestoTotalRepository;
+import org.crue.hercules.sgi.csp.service.impl.SolicitudProyectoPresupuestoTotalServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+
+/**
+ * SolicitudProyectoPresupuestoTotalServiceTest
+ */
+public class SolicitudProyectoPresupuestoTotalServiceTest extends BaseServiceTest {
+
+  @Mock
+  private SolicitudProyectoPresupuestoTotalRepository repository;
+  @Mock
+  private BloqueoTrabajoService bloqueoTrabajoService;
+
+  private SolicitudProyectoPresupuestoTotalService service;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    service = new SolicitudProyectoPresupuestoTotalServiceImpl(repository, bloqueoTrabajoService,
+        Duration.ofHours(1));
+  }
+
+  @Test
+  public void reconciliar_ReturnsTotalesCorregidos() {
+    // given: tres solicitudes con presupuesto, dos de ellas con totales
+    // desfasados
+    mockBloqueo(true);
+    BDDMockito.given(repository.getSolicitudIdsConPresupuesto()).willReturn(Arrays.asList(1L, 2L, 3L));
+    BDDMockito.given(repository.sincronizar(1L)).willReturn(0);
+    BDDMockito.given(repository.sincronizar(2L)).willReturn(2);
+    BDDMockito.given(repository.sincronizar(3L)).willReturn(1);
+
+    // when: se reconcilian los totales
+    int corregidos = service.reconciliar();
+
+    // then: se corrigen los totales de las dos solicitudes y se libera el bloqueo
+    Assertions.assertThat(corregidos).isEqualTo(3);
+    BDDMockito.then(bloqueoTrabajoService).should()
+        .liberar(SolicitudProyectoPresupuestoTotalServiceImpl.BLOQUEO_RECONCILIACION);
+  }
+
+  @Test
+  public void reconciliar_WithErrorEnUnaSolicitud_ReconcilesResto() {
+    // given: tres solicitudes con presupuesto, la primera no se puede reconciliar
+    mockBloqueo(true);
+    BDDMockito.given(repository.getSolicitudIdsConPresupuesto()).willReturn(Arrays.asList(1L, 2L, 3L));
+    BDDMockito.given(repository.sincronizar(1L)).willThrow(new IllegalStateException("error"));
+    BDDMockito.given(repository.sincronizar(2L)).willReturn(1);
+    BDDMockito.given(repository.sincronizar(3L)).willReturn(1);
+
+    // when: se reconcilian los totales
+    int corregidos = service.reconciliar();
+
+    // then: se reconcilian las otras dos solicitudes
+    Assertions.assertThat(corregidos).isEqualTo(2);
+    BDDMockito.then(repository).should().sincronizar(3L);
+  }
+
+  @Test
+  public void reconciliar_WithBloqueoEnOtraInstancia_DoesNotReconcile() {
+    // given: otra instancia está reconciliando
+    mockBloqueo(false);
+
+    // when: se reconcilian los totales
+    int corregidos = service.reconciliar();
+
+    // then: no se reconcilia ninguna solicitud ni se libera el bloqueo ajeno
+    Assertions.assertThat(corregidos).isEqualTo(0);
+    Mockito.verifyNoInteractions(repository);
+    BDDMockito.then(bloqueoTrabajoService).should(Mockito.never()).liberar(ArgumentMatchers.anyString());
+  }
+
+  @Test
+  public void reconciliar_WithErrorLeyendoSolicitudes_ReleasesBloqueo() {
+    // given: no se pueden leer las solicitudes
+    mockBloqueo(true);
+    BDDMockito.given(repository.getSolicitudIdsConPresupuesto()).willThrow(new IllegalStateException("error"));
+
+    // when: se reconcilian los totales
+    // then: se lanza el error y se libera el bloqueo
+    Assertions.assertThatThrownBy(() -> service.reconciliar()).isInstanceOf(IllegalStateException.class);
+    BDDMockito.then(bloqueoTrabajoService).should()
+        .liberar(SolicitudProyectoPresupuestoTotalServiceImpl.BLOQUEO_RECONCILIACION);
+  }
+
+  private void mockBloqueo(boolean adquirido) {
+    BDDMockito.given(bloqueoTrabajoService
+        .adquirir(SolicitudProyectoPresupuestoTotalServiceImpl.BLOQUEO_RECONCILIACION, Duration.ofHours(1)))
+        .willReturn(adquirido);
+  }
+
+}
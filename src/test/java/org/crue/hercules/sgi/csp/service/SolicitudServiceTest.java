@@ -1,12 +1,17 @@
 package org.crue.hercules.sgi.csp.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.assertj.core.api.Assertions;
+import org.crue.hercules.sgi.csp.dto.SolicitudCapacidades;
+import org.crue.hercules.sgi.csp.dto.SolicitudTransicion;
+import org.crue.hercules.sgi.csp.dto.SolicitudTransiciones;
 import org.crue.hercules.sgi.csp.enums.FormularioSolicitud;
 import org.crue.hercules.sgi.csp.exceptions.ConfiguracionSolicitudNotFoundException;
 import org.crue.hercules.sgi.csp.exceptions.SolicitudNotFoundException;
@@ -15,6 +20,8 @@ import org.crue.hercules.sgi.csp.model.Convocatoria;
 import org.crue.hercules.sgi.csp.model.EstadoSolicitud;
 import org.crue.hercules.sgi.csp.model.Programa;
 import org.crue.hercules.sgi.csp.model.Solicitud;
+import org.crue.hercules.sgi.csp.model.SolicitudProyecto;
+import org.crue.hercules.sgi.csp.model.SolicitudProyectoEquipo;
 import org.crue.hercules.sgi.csp.repository.ConfiguracionSolicitudRepository;
 import org.crue.hercules.sgi.csp.repository.ConvocatoriaEntidadConvocanteRepository;
 import org.crue.hercules.sgi.csp.repository.ConvocatoriaRepository;
@@ -27,11 +34,13 @@ import org.crue.hercules.sgi.csp.repository.SolicitudProyectoEquipoRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudProyectoSocioRepository;
 import org.crue.hercules.sgi.csp.repository.SolicitudRepository;
 import org.crue.hercules.sgi.csp.service.impl.SolicitudServiceImpl;
+import org.crue.hercules.sgi.csp.util.TotalCountCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.Page;
@@ -86,7 +95,7 @@ public class SolicitudServiceTest extends BaseServiceTest {
     service = new SolicitudServiceImpl(repository, estadoSolicitudRepository, configuracionSolicitudRepository,
         proyectoRepository, solicitudProyectoRepository, documentoRequeridoSolicitudRepository,
         solicitudDocumentoRepository, convocatoriaEntidadConvocanteRepository, solicitudProyectoEquipoRepository,
-        solicitudProyectoSocioRepository, convocatoriaRepository);
+        solicitudProyectoSocioRepository, convocatoriaRepository, new TotalCountCache(Duration.ofMinutes(1), 100));
   }
 
   @Test
@@ -321,6 +330,20 @@ public class SolicitudServiceTest extends BaseServiceTest {
         .isInstanceOf(SolicitudNotFoundException.class);
   }
 
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-V_OPE", "CSP-SOL-E_OTRI" })
+  public void findVersion_RestringeUnidadesGestionDelUsuario() {
+    // given: un usuario de las unidades de gestión OPE y OTRI
+    BDDMockito.given(repository.getVersion(1L, Arrays.asList("OPE", "OTRI"))).willReturn(Optional.of(3L));
+
+    // when: se obtiene la versión de la Solicitud
+    Optional<Long> version = service.findVersion(1L);
+
+    // then: se obtiene si la Solicitud es de una de sus unidades de gestión
+    Assertions.assertThat(version).contains(3L);
+    Mockito.verify(repository, Mockito.never()).getVersion(ArgumentMatchers.anyLong());
+  }
+
   @Test
   public void update_ConvocatoriaNull_ThrowsIllegalArgumentException() {
     // given: Un nuevo Solicitud que no tiene creadorRef
@@ -527,6 +550,172 @@ public class SolicitudServiceTest extends BaseServiceTest {
     }
   }
 
+  @Test
+  public void exportTodosRestringidos_AppliesActionToEachSolicitud() {
+    // given: 3 Solicitud recorridas por el repositorio
+    List<Solicitud> solicitudes = new ArrayList<>();
+    for (long i = 1; i <= 3; i++) {
+      solicitudes.add(generarMockSolicitud(i, 1L, null));
+    }
+    BDDMockito.given(repository.forEach(ArgumentMatchers.<Specification<Solicitud>>any(),
+        ArgumentMatchers.<Consumer<? super Solicitud>>any())).willAnswer((InvocationOnMock invocation) -> {
+          Consumer<? super Solicitud> action = invocation.getArgument(1);
+          solicitudes.forEach(action);
+          return (long) solicitudes.size();
+        });
+
+    // when: exportamos las Solicitud
+    List<Long> exportadas = new ArrayList<>();
+    long count = service.exportTodosRestringidos(null, Arrays.asList("OPE"),
+        solicitud -> exportadas.add(solicitud.getId()));
+
+    // then: la acción se aplica a cada Solicitud en orden, sin paginar
+    Assertions.assertThat(count).isEqualTo(3);
+    Assertions.assertThat(exportadas).containsExactly(1L, 2L, 3L);
+    Mockito.verify(repository, Mockito.never()).findAll(ArgumentMatchers.<Specification<Solicitud>>any(),
+        ArgumentMatchers.<Pageable>any());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-C-INV" })
+  public void getTransiciones_WithInvestigador_ReturnsTransicionesInvestigador() {
+    // given: una solicitud excluida provisionalmente
+    Solicitud solicitud = generarMockSolicitud(1L, 1L, null);
+    solicitud.getEstado().setEstado(EstadoSolicitud.Estado.EXCLUIDA_PROVISIONAL);
+    BDDMockito.given(repository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.of(solicitud));
+
+    // when: se obtienen las transiciones
+    SolicitudTransiciones transiciones = service.getTransiciones(1L);
+
+    // then: el investigador puede modificarla, alegar y desistir
+    Assertions.assertThat(transiciones.getEstado()).isEqualTo(EstadoSolicitud.Estado.EXCLUIDA_PROVISIONAL);
+    Assertions.assertThat(transiciones.getModificable()).isTrue();
+    Assertions.assertThat(transiciones.getTransiciones()).extracting(SolicitudTransicion::getEstado)
+        .containsExactly(EstadoSolicitud.Estado.ALEGADA_ADMISION, EstadoSolicitud.Estado.DESISTIDA);
+    Assertions.assertThat(transiciones.getTransiciones()).allMatch(SolicitudTransicion::getComentarioRequerido);
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-C_OPE" })
+  public void getTransiciones_WithGestor_ReturnsTransicionesGestor() {
+    // given: una solicitud presentada
+    Solicitud solicitud = generarMockSolicitud(1L, 1L, null);
+    solicitud.getEstado().setEstado(EstadoSolicitud.Estado.PRESENTADA);
+    BDDMockito.given(repository.findById(ArgumentMatchers.anyLong())).willReturn(Optional.of(solicitud));
+
+    // when: se obtienen las transiciones
+    SolicitudTransiciones transiciones = service.getTransiciones(1L);
+
+    // then: el gestor puede modificarla, admitirla, excluirla o desistir
+    Assertions.assertThat(transiciones.getModificable()).isTrue();
+    Assertions.assertThat(transiciones.getTransiciones()).extracting(SolicitudTransicion::getEstado).containsExactly(
+        EstadoSolicitud.Estado.ADMITIDA_PROVISIONAL, EstadoSolicitud.Estado.EXCLUIDA_PROVISIONAL,
+        EstadoSolicitud.Estado.DESISTIDA);
+    Assertions.assertThat(transiciones.getTransiciones()).extracting(SolicitudTransicion::getComentarioRequerido)
+        .containsExactly(false, true, true);
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-C_OPE" })
+  public void findIdsModificables_ReturnsIdsModificables() {
+    // given: solicitudes en distintos estados y unidades de gestión
+    Solicitud borrador = generarMockSolicitud(1L, 1L, null);
+    Solicitud denegada = generarMockSolicitud(2L, 1L, null);
+    denegada.getEstado().setEstado(EstadoSolicitud.Estado.DENEGADA);
+    Solicitud otraUnidad = generarMockSolicitud(3L, 1L, null);
+    otraUnidad.setUnidadGestionRef("OTRA");
+    Solicitud inactiva = generarMockSolicitud(4L, 1L, null);
+    inactiva.setActivo(false);
+    BDDMockito.given(repository.findAllById(ArgumentMatchers.<Long>anyIterable()))
+        .willReturn(Arrays.asList(borrador, denegada, otraUnidad, inactiva));
+
+    // when: se obtienen las solicitudes modificables
+    List<Long> modificables = service.findIdsModificables(Arrays.asList(1L, 2L, 3L, 4L));
+
+    // then: solo es modificable el borrador activo de la unidad del usuario, con
+    // una única consulta
+    Assertions.assertThat(modificables).containsExactly(1L);
+    Mockito.verify(repository).findAllById(ArgumentMatchers.<Long>anyIterable());
+    Mockito.verify(repository, Mockito.never()).findById(ArgumentMatchers.anyLong());
+  }
+
+  @Test
+  @WithMockUser(username = "user", authorities = { "CSP-SOL-C_OPE" })
+  public void findCapacidades_ReturnsCapacidadesConConsultasPorLote() {
+    // given: una solicitud en borrador presentable, una concedida sin proyecto,
+    // una concedida con proyecto y un id que no existe
+    Solicitud borrador = generarMockSolicitud(1L, 1L, null);
+    borrador.setFormularioSolicitud(FormularioSolicitud.ESTANDAR);
+    Solicitud concedida = generarMockSolicitud(2L, 1L, null);
+    concedida.setFormularioSolicitud(FormularioSolicitud.ESTANDAR);
+    concedida.getEstado().setEstado(EstadoSolicitud.Estado.CONCECIDA);
+    Solicitud conProyecto = generarMockSolicitud(3L, 1L, null);
+    conProyecto.setFormularioSolicitud(FormularioSolicitud.ESTANDAR);
+    conProyecto.getEstado().setEstado(EstadoSolicitud.Estado.CONCECIDA);
+    BDDMockito.given(repository.findAllById(ArgumentMatchers.<Long>anyIterable()))
+        .willReturn(Arrays.asList(borrador, concedida, conProyecto));
+    BDDMockito.given(solicitudProyectoRepository.findAllById(ArgumentMatchers.<Long>anyIterable()))
+        .willReturn(Arrays.asList(SolicitudProyecto.builder().id(1L).titulo("titulo").colaborativo(false).build(),
+            SolicitudProyecto.builder().id(2L).titulo("titulo").build(),
+            SolicitudProyecto.builder().id(3L).titulo("titulo").build()));
+    BDDMockito.given(configuracionSolicitudRepository.findAllByConvocatoriaIdIn(ArgumentMatchers.anyCollection()))
+        .willReturn(new ArrayList<>());
+    BDDMockito.given(convocatoriaEntidadConvocanteRepository
+        .findByProgramaIsNullAndConvocatoriaIdIn(ArgumentMatchers.anyCollection())).willReturn(new ArrayList<>());
+    BDDMockito.given(solicitudProyectoEquipoRepository.findAllBySolicitudProyectoIdIn(ArgumentMatchers.anyCollection()))
+        .willReturn(
+            Arrays.asList(SolicitudProyectoEquipo.builder().solicitudProyectoId(1L).personaRef("usr-002").build()));
+    BDDMockito.given(solicitudProyectoSocioRepository
+        .findAllBySolicitudProyectoIdInAndRolSocioCoordinadorTrue(ArgumentMatchers.anyCollection()))
+        .willReturn(new ArrayList<>());
+    BDDMockito.given(proyectoRepository.findSolicitudIdsConProyecto(ArgumentMatchers.anyCollection()))
+        .willReturn(Arrays.asList(3L));
+
+    // when: se obtienen las capacidades
+    List<SolicitudCapacidades> capacidades = service.findCapacidades(Arrays.asList(1L, 2L, 3L, 4L));
+
+    // then: se devuelven las capacidades de las solicitudes existentes, sin
+    // consultas por solicitud
+    Assertions.assertThat(capacidades).extracting(SolicitudCapacidades::getSolicitudId).containsExactly(1L, 2L, 3L);
+    Assertions.assertThat(capacidades).extracting(SolicitudCapacidades::getModificable).containsExactly(true, false,
+        false);
+    Assertions.assertThat(capacidades).extracting(SolicitudCapacidades::getPresentable).containsExactly(true, false,
+        false);
+    Assertions.assertThat(capacidades).extracting(SolicitudCapacidades::getCrearProyecto).containsExactly(false,
+        true, false);
+    Mockito.verify(repository, Mockito.never()).findById(ArgumentMatchers.anyLong());
+    Mockito.verify(solicitudProyectoRepository, Mockito.never()).findById(ArgumentMatchers.anyLong());
+  }
+
+  @Test
+  public void findIdsModificables_WithMasDeCienIds_ThrowsIllegalArgumentException() {
+    // given: más ids de los permitidos
+    List<Long> ids = new ArrayList<>();
+    for (long id = 1; id <= 101; id++) {
+      ids.add(id);
+    }
+
+    // when: se obtienen las solicitudes modificables
+    // then: se lanza un error sin consultar las solicitudes
+    Assertions.assertThatThrownBy(() -> service.findIdsModificables(ids))
+        .isInstanceOf(IllegalArgumentException.class);
+    Mockito.verifyNoInteractions(repository);
+  }
+
+  @Test
+  public void findCapacidades_WithMasDeCienIds_ThrowsIllegalArgumentException() {
+    // given: más ids de los permitidos
+    List<Long> ids = new ArrayList<>();
+    for (long id = 1; id <= 101; id++) {
+      ids.add(id);
+    }
+
+    // when: se obtienen las capacidades
+    // then: se lanza un error sin consultar las solicitudes
+    Assertions.assertThatThrownBy(() -> service.findCapacidades(ids)).isInstanceOf(IllegalArgumentException.class);
+    Mockito.verifyNoInteractions(repository);
+  }
+
   /**
    * Función que devuelve un objeto Solicitud
    * 
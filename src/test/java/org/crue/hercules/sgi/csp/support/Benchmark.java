@@ -0,0 +1,81 @@
+package org.crue.hercules.sgi.csp.support;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Utilidades de los benchmarks: volumen de datos configurable con propiedades
+ * de sistema y medición de tiempos, que se escriben en el log aunque el test
+ * pase.
+ * <p>
+ * Los benchmarks con volúmenes grandes están desactivados por defecto y se
+ * activan con <code>-Dsgi.csp.benchmark=true</code>. El volumen de cada uno se
+ * cambia con <code>-Dsgi.csp.benchmark.&lt;nombre&gt;=&lt;n&gt;</code> y el
+ * número de repeticiones de cada medida con
+ * <code>-Dsgi.csp.benchmark.repeticiones=&lt;n&gt;</code>.
+ */
+@Slf4j
+public final class Benchmark {
+
+  /** Propiedad de sistema que activa los benchmarks */
+  public static final String ACTIVAR = "sgi.csp.benchmark";
+
+  private static final int REPETICIONES_POR_DEFECTO = 5;
+
+  private Benchmark() {
+    // Do nothing. Hide external instanciation
+  }
+
+  /**
+   * Obtiene el volumen de datos de un benchmark.
+   *
+   * @param nombre     nombre del volumen, se configura con la propiedad
+   *                   <code>sgi.csp.benchmark.&lt;nombre&gt;</code>.
+   * @param porDefecto volumen si no se configura.
+   * @return el volumen.
+   */
+  public static int escala(String nombre, int porDefecto) {
+    return Integer.getInteger(ACTIVAR + "." + nombre, porDefecto);
+  }
+
+  /**
+   * Ejecuta una vez la operación y escribe su duración en el log.
+   *
+   * @param descripcion descripción de la operación.
+   * @param operacion   operación a medir.
+   * @return la duración en milisegundos.
+   */
+  public static long medir(String descripcion, Runnable operacion) {
+    long inicio = System.nanoTime();
+    operacion.run();
+    long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+    log.info("[benchmark] {}: {} ms", descripcion, ms);
+    return ms;
+  }
+
+  /**
+   * Ejecuta la operación una vez para calentar y después tantas veces como
+   * repeticiones configuradas, y escribe en el log la mediana y el mínimo.
+   *
+   * @param descripcion descripción de la operación.
+   * @param operacion   operación a medir, que no modifica datos.
+   * @return la mediana de las duraciones en milisegundos.
+   */
+  public static long medirMediana(String descripcion, Runnable operacion) {
+    operacion.run();
+    long[] tiempos = new long[Math.max(1, escala("repeticiones", REPETICIONES_POR_DEFECTO))];
+    for (int i = 0; i < tiempos.length; i++) {
+      long inicio = System.nanoTime();
+      operacion.run();
+      tiempos[i] = System.nanoTime() - inicio;
+    }
+    Arrays.sort(tiempos);
+    long mediana = TimeUnit.NANOSECONDS.toMillis(tiempos[tiempos.length / 2]);
+    log.info("[benchmark] {}: mediana {} ms, mínimo {} ms ({} repeticiones)", descripcion, mediana,
+        TimeUnit.NANOSECONDS.toMillis(tiempos[0]), tiempos.length);
+    return mediana;
+  }
+
+}
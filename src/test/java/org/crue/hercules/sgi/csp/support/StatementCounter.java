@@ -0,0 +1,84 @@
+package org.crue.hercules.sgi.csp.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Cuenta las sentencias enviadas a base de datos envolviendo el
+ * {@link DataSource} de la aplicación con un proxy.
+ * <p>
+ * Cada ejecución de un batch JDBC cuenta como una única sentencia, ya que es un
+ * único viaje a base de datos. Se registra en los test con
+ * <code>@Import(StatementCounter.class)</code>.
+ */
+public class StatementCounter implements BeanPostProcessor, QueryExecutionListener {
+
+  private final AtomicInteger count = new AtomicInteger();
+  private final List<String> queries = new ArrayList<>();
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+      return ProxyDataSourceBuilder.create((DataSource) bean).name(beanName).listener(this).build();
+    }
+    return bean;
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    // Solo se cuentan las sentencias ejecutadas
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    count.incrementAndGet();
+    synchronized (queries) {
+      for (QueryInfo queryInfo : queryInfoList) {
+        queries.add(execInfo.isBatch() ? "[batch " + execInfo.getBatchSize() + "] " + queryInfo.getQuery()
+            : queryInfo.getQuery());
+      }
+    }
+  }
+
+  /**
+   * Pone a cero el contador.
+   */
+  public void reset() {
+    synchronized (queries) {
+      count.set(0);
+      queries.clear();
+    }
+  }
+
+  /**
+   * Número de sentencias ejecutadas desde el último {@link #reset()}.
+   * 
+   * @return número de viajes a base de datos
+   */
+  public int getCount() {
+    return count.get();
+  }
+
+  /**
+   * Sentencias ejecutadas desde el último {@link #reset()}.
+   * 
+   * @return las sentencias SQL
+   */
+  public List<String> getQueries() {
+    synchronized (queries) {
+      return new ArrayList<>(queries);
+    }
+  }
+
+}
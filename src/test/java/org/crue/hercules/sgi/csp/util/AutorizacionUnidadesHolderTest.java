@@ -0,0 +1,206 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * AutorizacionUnidadesHolderTest
+ */
+public class AutorizacionUnidadesHolderTest {
+
+  private static final Instant AHORA = Instant.parse("2021-04-01T10:00:00Z");
+  private static final int MAX_ENTRIES = 5000;
+
+  @BeforeEach
+  public void setUp() {
+    AutorizacionUnidadesHolder.clear();
+    setAhora(AHORA);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    AutorizacionUnidadesHolder.clear();
+    AutorizacionUnidadesHolder.setClock(Clock.systemUTC());
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void get_WithMismoJti_ReturnsIndiceAlmacenado() throws Exception {
+    // given: dos autenticaciones de peticiones distintas con el mismo token
+    Authentication primera = generarJwtAuthentication("jti-001", AHORA.plus(Duration.ofHours(1)));
+    Authentication segunda = generarJwtAuthentication("jti-001", AHORA.plus(Duration.ofHours(1)));
+
+    // when: se obtiene el índice de cada una
+    AutorizacionUnidades autorizacionPrimera = AutorizacionUnidadesHolder.get(primera);
+    AutorizacionUnidades autorizacionSegunda = AutorizacionUnidadesHolder.get(segunda);
+
+    // then: la segunda reutiliza el índice de la primera
+    Assertions.assertThat(autorizacionSegunda).isSameAs(autorizacionPrimera);
+    Assertions.assertThat(autorizacionSegunda.hasAuthorityForUO("CSP-PRO-V", "OPE")).isTrue();
+  }
+
+  @Test
+  public void get_WithDistintoJti_ReturnsIndiceNuevo() throws Exception {
+    // given: dos tokens distintos
+    Authentication primera = generarJwtAuthentication("jti-001", AHORA.plus(Duration.ofHours(1)));
+    Authentication segunda = generarJwtAuthentication("jti-002", AHORA.plus(Duration.ofHours(1)));
+
+    // when: se obtiene el índice de cada uno
+    // then: cada token tiene su índice
+    Assertions.assertThat(AutorizacionUnidadesHolder.get(segunda))
+        .isNotSameAs(AutorizacionUnidadesHolder.get(primera));
+  }
+
+  @Test
+  public void get_WithTokenCaducado_ReturnsIndiceNuevo() throws Exception {
+    // given: un token que caduca en un minuto y cuyo índice está almacenado
+    Authentication authentication = generarJwtAuthentication("jti-001", AHORA.plus(Duration.ofMinutes(1)));
+    AutorizacionUnidades almacenada = AutorizacionUnidadesHolder.get(authentication);
+
+    // when: se obtiene el índice antes y después de la caducidad del token
+    setAhora(AHORA.plusSeconds(59));
+    AutorizacionUnidades antes = AutorizacionUnidadesHolder.get(authentication);
+    setAhora(AHORA.plus(Duration.ofMinutes(1)));
+    AutorizacionUnidades despues = AutorizacionUnidadesHolder.get(authentication);
+
+    // then: solo se reutiliza antes de la caducidad
+    Assertions.assertThat(antes).as("antes").isSameAs(almacenada);
+    Assertions.assertThat(despues).as("despues").isNotSameAs(almacenada);
+  }
+
+  @Test
+  public void get_WithTokenDeLargaDuracion_CaducaAlCumplirseElTiempoMaximo() throws Exception {
+    // given: un token que caduca en un día y cuyo índice está almacenado
+    Authentication authentication = generarJwtAuthentication("jti-001", AHORA.plus(Duration.ofDays(1)));
+    AutorizacionUnidades almacenada = AutorizacionUnidadesHolder.get(authentication);
+
+    // when: se obtiene el índice pasados 30 minutos
+    setAhora(AHORA.plus(Duration.ofMinutes(30)));
+    AutorizacionUnidades despues = AutorizacionUnidadesHolder.get(authentication);
+
+    // then: se vuelve a calcular
+    Assertions.assertThat(despues).isNotSameAs(almacenada);
+  }
+
+  @Test
+  public void get_WithCacheLlena_DiscardsIndiceMenosUsado() throws Exception {
+    // given: la caché llena de tokens vigentes, con el primero usado de nuevo
+    Authentication primera = generarJwtAuthentication("jti-0", AHORA.plus(Duration.ofHours(1)));
+    AutorizacionUnidades almacenada = AutorizacionUnidadesHolder.get(primera);
+    Authentication segunda = generarJwtAuthentication("jti-1", AHORA.plus(Duration.ofHours(1)));
+    AutorizacionUnidades menosUsada = AutorizacionUnidadesHolder.get(segunda);
+    for (int i = 2; i < MAX_ENTRIES; i++) {
+      AutorizacionUnidadesHolder.get(generarJwtAuthentication("jti-" + i, AHORA.plus(Duration.ofHours(1))));
+    }
+    Assertions.assertThat(AutorizacionUnidadesHolder.get(primera)).as("llena").isSameAs(almacenada);
+
+    // when: se obtiene el índice de un token nuevo
+    AutorizacionUnidadesHolder.get(generarJwtAuthentication("jti-nuevo", AHORA.plus(Duration.ofHours(1))));
+
+    // then: solo se descarta el índice usado hace más tiempo
+    Assertions.assertThat(AutorizacionUnidadesHolder.get(primera)).as("usada").isSameAs(almacenada);
+    Assertions.assertThat(AutorizacionUnidadesHolder.get(segunda)).as("descartada").isNotSameAs(menosUsada);
+  }
+
+  @Test
+  public void get_WithCacheLlenaYTokensCaducados_RemovesOnlyCaducados() throws Exception {
+    // given: la caché llena con un token caducado
+    AutorizacionUnidadesHolder.get(generarJwtAuthentication("jti-caducado", AHORA.plus(Duration.ofMinutes(1))));
+    Authentication vigente = generarJwtAuthentication("jti-0", AHORA.plus(Duration.ofHours(1)));
+    AutorizacionUnidades almacenada = AutorizacionUnidadesHolder.get(vigente);
+    for (int i = 1; i < MAX_ENTRIES - 1; i++) {
+      AutorizacionUnidadesHolder.get(generarJwtAuthentication("jti-" + i, AHORA.plus(Duration.ofHours(1))));
+    }
+    setAhora(AHORA.plus(Duration.ofMinutes(2)));
+
+    // when: se obtiene el índice de un token nuevo
+    AutorizacionUnidadesHolder.get(generarJwtAuthentication("jti-nuevo", AHORA.plus(Duration.ofHours(1))));
+
+    // then: se conservan los índices de los tokens vigentes
+    Assertions.assertThat(AutorizacionUnidadesHolder.get(vigente)).isSameAs(almacenada);
+  }
+
+  @Test
+  public void get_WithAutenticacionNoJwt_DoesNotStoreIndice() throws Exception {
+    // given: una autenticación que no es JWT, fuera de una petición
+    Authentication authentication = new UsernamePasswordAuthenticationToken("user", null,
+        Collections.singletonList(new SimpleGrantedAuthority("CSP-PRO-V_OPE")));
+
+    // when: se obtiene el índice dos veces
+    AutorizacionUnidades primera = AutorizacionUnidadesHolder.get(authentication);
+    AutorizacionUnidades segunda = AutorizacionUnidadesHolder.get(authentication);
+
+    // then: se calcula en cada llamada
+    Assertions.assertThat(segunda).isNotSameAs(primera);
+    Assertions.assertThat(segunda.getUOsForAuthority("CSP-PRO-V")).containsExactly("OPE");
+  }
+
+  @Test
+  public void get_WithAutenticacionNoJwtEnPeticion_ReturnsIndiceDeLaPeticion() throws Exception {
+    // given: una autenticación que no es JWT en una petición
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    Authentication authentication = new UsernamePasswordAuthenticationToken("user", null,
+        Collections.singletonList(new SimpleGrantedAuthority("CSP-PRO-V_OPE")));
+    Authentication otra = new UsernamePasswordAuthenticationToken("user", null,
+        Collections.singletonList(new SimpleGrantedAuthority("CSP-PRO-V_OTRI")));
+
+    // when: se obtiene el índice dos veces y después el de otra autenticación
+    AutorizacionUnidades primera = AutorizacionUnidadesHolder.get(authentication);
+    AutorizacionUnidades segunda = AutorizacionUnidadesHolder.get(authentication);
+    AutorizacionUnidades deOtra = AutorizacionUnidadesHolder.get(otra);
+
+    // then: se reutiliza durante la petición solo para la misma autenticación
+    Assertions.assertThat(segunda).as("misma").isSameAs(primera);
+    Assertions.assertThat(deOtra.getUOsForAuthority("CSP-PRO-V")).as("otra").containsExactly("OTRI");
+  }
+
+  @Test
+  public void get_WithAuthenticationNull_ThrowsIllegalArgumentException() throws Exception {
+    // when: se obtiene el índice sin autenticación
+    // then: se lanza una excepción
+    Assertions.assertThatThrownBy(() -> AutorizacionUnidadesHolder.get((Authentication) null))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private void setAhora(Instant ahora) {
+    AutorizacionUnidadesHolder.setClock(Clock.fixed(ahora, ZoneOffset.UTC));
+  }
+
+  /**
+   * Función que genera una autenticación JWT con la authority CSP-PRO-V en la
+   * unidad de gestión OPE
+   *
+   * @param jti       id del token
+   * @param expiresAt fecha de caducidad del token
+   * @return la autenticación
+   */
+  private Authentication generarJwtAuthentication(String jti, Instant expiresAt) {
+    // @formatter:off
+    Jwt jwt = Jwt.withTokenValue("token-" + jti)
+        .header("alg", "none")
+        .jti(jti)
+        .subject("user")
+        .issuedAt(AHORA)
+        .expiresAt(expiresAt)
+        .build();
+    // @formatter:on
+    return new JwtAuthenticationToken(jwt, Collections.singletonList(new SimpleGrantedAuthority("CSP-PRO-V_OPE")));
+  }
+
+}
@@ -0,0 +1,101 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * AutorizacionUnidadesTest
+ */
+public class AutorizacionUnidadesTest {
+
+  @Test
+  public void hasAuthorityForUO_WithAuthoritySinUnidad_ReturnsTrueForAnyUO() throws Exception {
+    // given: la authority sin unidad de gestión
+    AutorizacionUnidades autorizacion = generarAutorizacion("CSP-PRO-V");
+
+    // when: se comprueba en cualquier unidad de gestión o sin ella
+    // then: la tiene
+    Assertions.assertThat(autorizacion.hasAuthorityForUO("CSP-PRO-V", "OPE")).as("OPE").isTrue();
+    Assertions.assertThat(autorizacion.hasAuthorityForUO("CSP-PRO-V", null)).as("null").isTrue();
+    Assertions.assertThat(autorizacion.hasAuthority("CSP-PRO-V")).as("hasAuthority").isTrue();
+  }
+
+  @Test
+  public void hasAuthorityForUO_WithAuthorityEnUnidad_ReturnsTrueOnlyForThatUO() throws Exception {
+    // given: la authority en la unidad de gestión OPE
+    AutorizacionUnidades autorizacion = generarAutorizacion("CSP-PRO-V_OPE", "CSP-PRO-E_OTRI");
+
+    // when: se comprueba en distintas unidades de gestión
+    // then: solo la tiene en OPE
+    Assertions.assertThat(autorizacion.hasAuthorityForUO("CSP-PRO-V", "OPE")).as("OPE").isTrue();
+    Assertions.assertThat(autorizacion.hasAuthorityForUO("CSP-PRO-V", "OTRI")).as("OTRI").isFalse();
+    Assertions.assertThat(autorizacion.hasAuthorityForUO("CSP-PRO-V", "")).as("blank").isFalse();
+    Assertions.assertThat(autorizacion.hasAuthorityForUO("CSP-PRO-V", null)).as("null").isFalse();
+    Assertions.assertThat(autorizacion.hasAuthority("CSP-PRO-V")).as("hasAuthority").isFalse();
+  }
+
+  @Test
+  public void getUOsForAuthority_ReturnsUnidadesSinRepetidosEnOrden() throws Exception {
+    // given: una authority en varias unidades de gestión, una de ellas repetida
+    AutorizacionUnidades autorizacion = generarAutorizacion("CSP-PRO-V_OPE", "CSP-PRO-E_OTRI", "CSP-PRO-V_OTRI",
+        "CSP-PRO-V_OPE", "CSP-PRO-V");
+
+    // when: se obtienen las unidades de gestión de cada authority
+    // then: se obtienen las unidades de gestión en las que se tiene, sin repetidos
+    Assertions.assertThat(autorizacion.getUOsForAuthority("CSP-PRO-V")).as("CSP-PRO-V").containsExactly("OPE",
+        "OTRI");
+    Assertions.assertThat(autorizacion.getUOsForAuthority("CSP-PRO-E")).as("CSP-PRO-E").containsExactly("OTRI");
+    Assertions.assertThat(autorizacion.getUOsForAuthority("CSP-PRO-B")).as("CSP-PRO-B").isEmpty();
+  }
+
+  @Test
+  public void getUnidadesGestion_ReturnsUnidadesDeTodasLasAuthoritiesSinRepetidos() throws Exception {
+    // given: authorities en varias unidades de gestión y una sin unidad
+    AutorizacionUnidades autorizacion = generarAutorizacion("CSP-PRO-V_OPE", "CSP-CON-V_OTRI", "CSP-PRO-E_OPE",
+        "CSP-SOL-V");
+
+    // when: se obtienen las unidades de gestión
+    List<String> unidades = autorizacion.getUnidadesGestion();
+
+    // then: se obtienen las unidades en el orden de las authorities, sin repetidos
+    Assertions.assertThat(unidades).containsExactly("OPE", "OTRI");
+  }
+
+  @Test
+  public void of_WithAuthoritiesNulasOEmpezandoPorSeparador_IgnoresUnidadGestion() throws Exception {
+    // given: una authority nula y otra que empieza por el separador
+    AutorizacionUnidades autorizacion = AutorizacionUnidades
+        .of(Arrays.<GrantedAuthority>asList(() -> null, new SimpleGrantedAuthority("_OPE")));
+
+    // when: se obtienen las unidades de gestión
+    // then: no hay ninguna
+    Assertions.assertThat(autorizacion.getUnidadesGestion()).as("getUnidadesGestion()").isEmpty();
+    Assertions.assertThat(autorizacion.hasAuthority("_OPE")).as("hasAuthority").isTrue();
+  }
+
+  @Test
+  public void getUnidadesGestion_IsInmutable() throws Exception {
+    // given: un índice
+    AutorizacionUnidades autorizacion = generarAutorizacion("CSP-PRO-V_OPE");
+
+    // when: se intenta modificar las listas
+    // then: no se pueden modificar
+    Assertions.assertThatThrownBy(() -> autorizacion.getUnidadesGestion().add("OTRI"))
+        .isInstanceOf(UnsupportedOperationException.class);
+    Assertions.assertThatThrownBy(() -> autorizacion.getUOsForAuthority("CSP-PRO-V").add("OTRI"))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  private AutorizacionUnidades generarAutorizacion(String... authorities) {
+    List<GrantedAuthority> grantedAuthorities = Arrays.stream(authorities).map(SimpleGrantedAuthority::new)
+        .collect(Collectors.toList());
+    return AutorizacionUnidades.of(grantedAuthorities);
+  }
+
+}
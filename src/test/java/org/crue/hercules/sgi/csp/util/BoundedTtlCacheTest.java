@@ -0,0 +1,104 @@
+package org.crue.hercules.sgi.csp.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BoundedTtlCacheTest
+ */
+public class BoundedTtlCacheTest {
+
+  private static final Instant AHORA = Instant.parse("2021-04-01T10:00:00Z");
+  private static final Duration TTL = Duration.ofMinutes(5);
+
+  @Test
+  public void get_WithValorVigente_ReturnsValor() throws Exception {
+    // given: un valor almacenado
+    BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, 2, reloj(AHORA));
+    cache.put("a", "A");
+
+    // when: se obtiene antes de que caduque
+    // then: se devuelve el valor almacenado
+    Assertions.assertThat(cache.get("a")).isEqualTo("A");
+  }
+
+  @Test
+  public void get_WithValorCaducado_ReturnsNull() throws Exception {
+    // given: un valor almacenado con caducidad anterior al tiempo máximo
+    BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, 2, reloj(AHORA));
+    cache.put("a", "A", AHORA.plus(Duration.ofMinutes(1)));
+    cache.put("b", "B");
+
+    // when: se obtienen después de la caducidad del primero
+    cache.setClock(reloj(AHORA.plus(Duration.ofMinutes(2))));
+
+    // then: solo se devuelve el vigente
+    Assertions.assertThat(cache.get("a")).as("caducado").isNull();
+    Assertions.assertThat(cache.get("b")).as("vigente").isEqualTo("B");
+  }
+
+  @Test
+  public void put_WithCacheLlena_DiscardsValorMenosUsado() throws Exception {
+    // given: la caché llena, con el primer valor usado después del segundo
+    BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, 2, reloj(AHORA));
+    cache.put("a", "A");
+    cache.put("b", "B");
+    cache.get("a");
+
+    // when: se almacena un valor nuevo
+    cache.put("c", "C");
+
+    // then: se descarta solo el valor usado hace más tiempo
+    Assertions.assertThat(cache.size()).isEqualTo(2);
+    Assertions.assertThat(cache.get("a")).isEqualTo("A");
+    Assertions.assertThat(cache.get("b")).isNull();
+    Assertions.assertThat(cache.get("c")).isEqualTo("C");
+  }
+
+  @Test
+  public void put_WithCacheLlenaYValorCaducado_DiscardsCaducado() throws Exception {
+    // given: la caché llena, con el valor menos usado vigente y otro caducado
+    BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, 2, reloj(AHORA));
+    cache.put("a", "A");
+    cache.put("b", "B", AHORA.plus(Duration.ofMinutes(1)));
+    cache.setClock(reloj(AHORA.plus(Duration.ofMinutes(2))));
+
+    // when: se almacena un valor nuevo
+    cache.put("c", "C");
+
+    // then: se descarta el caducado y se conserva el vigente
+    Assertions.assertThat(cache.get("a")).isEqualTo("A");
+    Assertions.assertThat(cache.get("c")).isEqualTo("C");
+  }
+
+  @Test
+  public void merge_WithFuncionQueConservaVigente_KeepsValorVigente() throws Exception {
+    // given: un valor almacenado
+    BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(TTL, 2, reloj(AHORA));
+    cache.put("a", 2);
+
+    // when: se combina con uno menor conservando el mayor
+    cache.merge("a", 1, Math::max);
+
+    // then: se conserva el valor vigente
+    Assertions.assertThat(cache.get("a")).isEqualTo(2);
+  }
+
+  @Test
+  public void constructor_WithMaxEntriesCero_ThrowsIllegalArgumentException() throws Exception {
+    // when: se crea una caché sin entradas
+    // then: se lanza una excepción
+    Assertions.assertThatThrownBy(() -> new BoundedTtlCache<String, String>(TTL, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private Clock reloj(Instant ahora) {
+    return Clock.fixed(ahora, ZoneOffset.UTC);
+  }
+
+}
@@ -1,4 +1,5 @@
 -- vacia la bd
+DELETE FROM csp.proyecto_job;
 DELETE FROM csp.proyecto_entidad_convocante;
 DELETE FROM csp.proyecto_entidad_gestora;
 DELETE FROM csp.prorroga_documento;
@@ -12,6 +13,7 @@ DELETE FROM csp.proyecto_hito;
 DELETE FROM csp.solicitud_hito;
 DELETE FROM csp.solicitud_modalidad;
 DELETE FROM csp.solicitud_documento;
+DELETE FROM csp.solicitud_proyecto_presupuesto_total;
 DELETE FROM csp.solicitud_proyecto_presupuesto;
 DELETE FROM csp.solicitud_proyecto_socio_periodo_pago;
 DELETE FROM csp.solicitud_proyecto_socio_periodo_justificacion;
@@ -61,6 +63,7 @@ DELETE FROM csp.modelo_tipo_finalidad;
 DELETE FROM csp.modelo_tipo_hito;
 DELETE FROM csp.modelo_unidad;
 DELETE FROM csp.modelo_ejecucion;
+DELETE FROM csp.programa_jerarquia;
 DELETE FROM csp.programa;
 DELETE FROM csp.tipo_ambito_geografico;
 DELETE FROM csp.tipo_documento;
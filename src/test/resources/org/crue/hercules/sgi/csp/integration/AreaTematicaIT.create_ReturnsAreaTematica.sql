@@ -1,3 +1,3 @@
 -- AREA TEMATICA
-insert into csp.area_tematica (id,nombre,descripcion,area_tematica_padre_id,activo) values (9999, 'nombre-001', 'descripcion-001', null, true);
-insert into csp.area_tematica (id,nombre,descripcion,area_tematica_padre_id,activo) values (8888, 'A-8888', 'descripcion-001', 9999, true);
\ No newline at end of file
+insert into csp.area_tematica (id,nombre,descripcion,area_tematica_padre_id,activo,area_tematica_raiz_id) values (9999, 'nombre-001', 'descripcion-001', null, true, null);
+insert into csp.area_tematica (id,nombre,descripcion,area_tematica_padre_id,activo,area_tematica_raiz_id) values (8888, 'A-8888', 'descripcion-001', 9999, true, 9999);
\ No newline at end of file
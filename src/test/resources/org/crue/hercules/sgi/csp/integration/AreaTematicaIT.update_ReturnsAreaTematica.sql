@@ -1,3 +1,3 @@
 -- AREA TEMATICA
-INSERT INTO csp.area_tematica (id, nombre, descripcion, area_tematica_padre_id, activo) VALUES (1, 'nombre-001', 'descripcion-001', null, true);
-INSERT INTO csp.area_tematica (id, nombre, descripcion, area_tematica_padre_id, activo) VALUES (2, 'A-002', 'descripcion-002', 1, true);
+INSERT INTO csp.area_tematica (id, nombre, descripcion, area_tematica_padre_id, activo, area_tematica_raiz_id) VALUES (1, 'nombre-001', 'descripcion-001', null, true, null);
+INSERT INTO csp.area_tematica (id, nombre, descripcion, area_tematica_padre_id, activo, area_tematica_raiz_id) VALUES (2, 'A-002', 'descripcion-002', 1, true, 1);
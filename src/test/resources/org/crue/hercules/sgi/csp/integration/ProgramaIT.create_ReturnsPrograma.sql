@@ -1,2 +1,5 @@
 -- PROGRAMA
-INSERT INTO csp.programa (id, nombre, descripcion, programa_padre_id, activo) VALUES (9999, 'nombre-001', 'descripcion-001', null, true);
\ No newline at end of file
+INSERT INTO csp.programa (id, nombre, descripcion, programa_padre_id, activo) VALUES (9999, 'nombre-001', 'descripcion-001', null, true);
+
+-- PROGRAMA JERARQUIA
+INSERT INTO csp.programa_jerarquia (programa_ancestro_id, programa_descendiente_id, profundidad) VALUES (9999, 9999, 0);
\ No newline at end of file
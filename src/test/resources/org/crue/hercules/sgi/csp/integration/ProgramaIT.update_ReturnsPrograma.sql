@@ -1,3 +1,8 @@
 -- PROGRAMA
 INSERT INTO csp.programa (id, nombre, descripcion, programa_padre_id, activo) VALUES (1, 'nombre-001', 'descripcion-001', null, true);
 INSERT INTO csp.programa (id, nombre, descripcion, programa_padre_id, activo) VALUES (2, 'nombre-002', 'descripcion-002', 1, true);
+
+-- PROGRAMA JERARQUIA
+INSERT INTO csp.programa_jerarquia (programa_ancestro_id, programa_descendiente_id, profundidad) VALUES (1, 1, 0);
+INSERT INTO csp.programa_jerarquia (programa_ancestro_id, programa_descendiente_id, profundidad) VALUES (2, 2, 0);
+INSERT INTO csp.programa_jerarquia (programa_ancestro_id, programa_descendiente_id, profundidad) VALUES (1, 2, 1);
@@ -38,6 +38,13 @@ INSERT INTO csp.programa (id, nombre, descripcion, programa_padre_id, activo) VA
 INSERT INTO csp.programa (id, nombre, descripcion, programa_padre_id, activo) VALUES (2, 'nombre-002', 'descripcion-002', 1, true);
 INSERT INTO csp.programa (id, nombre, descripcion, programa_padre_id, activo) VALUES (3, 'nombre-003', 'descripcion-003', 1, true);
 
+-- PROGRAMA JERARQUIA
+INSERT INTO csp.programa_jerarquia (programa_ancestro_id, programa_descendiente_id, profundidad) VALUES (1, 1, 0);
+INSERT INTO csp.programa_jerarquia (programa_ancestro_id, programa_descendiente_id, profundidad) VALUES (2, 2, 0);
+INSERT INTO csp.programa_jerarquia (programa_ancestro_id, programa_descendiente_id, profundidad) VALUES (3, 3, 0);
+INSERT INTO csp.programa_jerarquia (programa_ancestro_id, programa_descendiente_id, profundidad) VALUES (1, 2, 1);
+INSERT INTO csp.programa_jerarquia (programa_ancestro_id, programa_descendiente_id, profundidad) VALUES (1, 3, 1);
+
 -- CONVOCATORIA ENTIDAD CONVOCANTE
 INSERT INTO csp.convocatoria_entidad_convocante (id,  convocatoria_id, entidad_ref, programa_id) VALUES (1, 1, 'entidad-001', 1);
 INSERT INTO csp.convocatoria_entidad_convocante (id,  convocatoria_id, entidad_ref, programa_id) VALUES (2, 1, 'entidad-002', 1);